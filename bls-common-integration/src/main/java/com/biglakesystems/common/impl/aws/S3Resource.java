@@ -1,7 +1,10 @@
 package com.biglakesystems.common.impl.aws;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.S3ClientOptions;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.S3Object;
 import com.biglakesystems.common.Assert;
@@ -9,15 +12,28 @@ import com.biglakesystems.common.impl.StaticHelper;
 import com.biglakesystems.common.security.Credentials;
 import org.springframework.core.io.AbstractResource;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.WritableResource;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * {@link S3Resource} is an implementation of the {@link Resource} interface which can load a resource from an Amazon
  * S3 bucket. The bucket, file key (path within the S3 bucket without leading slash) and credentials are configured via
  * constructor.
  * <p>
+ * The resource is also writable. Content written to the {@link #getOutputStream()} stream is buffered in a temporary
+ * file and uploaded as a single object when the stream is closed, so the object is replaced atomically and readers
+ * never see partial content.
+ * <p>
+ * By default the client addresses the Amazon S3 service itself. An endpoint may be configured instead, in which case
+ * path-style addressing is used, so that an S3-compatible store (such as a local stand-in used in development and
+ * testing) can be used in its place.
+ * <p>
  * Copyright 2014 Big Lake Systems, LLC.
  * <p>
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
@@ -29,10 +45,11 @@ import java.io.InputStream;
  * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
  * specific language governing permissions and limitations under the License.
  */
-class S3Resource extends AbstractResource
+class S3Resource extends AbstractResource implements WritableResource
 {
     private final String m_bucket;
     private final Credentials m_credentials;
+    private final String m_endpoint;
     private final String m_key;
     private final StaticHelper m_staticHelper;
 
@@ -57,12 +74,28 @@ class S3Resource extends AbstractResource
      * @param staticHelper the {@link StaticHelper} component.
      */
     S3Resource(final String bucket, final String key, final Credentials credentials, final StaticHelper staticHelper)
+    {
+        this(bucket, key, credentials, null, staticHelper);
+    }
+
+    /**
+     * Construct an {@link S3Resource} instance.
+     *
+     * @param bucket the S3 bucket.
+     * @param key the key within the S3 bucket.
+     * @param credentials the credentials to use when accessing the bucket.
+     * @param endpoint the endpoint of an S3-compatible store, or {@code null} to use Amazon S3.
+     * @param staticHelper the {@link StaticHelper} component.
+     */
+    S3Resource(final String bucket, final String key, final Credentials credentials, final String endpoint,
+               final StaticHelper staticHelper)
     {
         super();
         Assert.argumentNotNull("bucket", m_bucket = bucket);
         Assert.argumentNotNull("key", m_key = key);
         Assert.argumentNotNull("credentials", m_credentials = credentials);
         Assert.argumentNotNull("staticHelper", m_staticHelper = staticHelper);
+        m_endpoint = endpoint;
     }
 
     /**
@@ -80,7 +113,12 @@ class S3Resource extends AbstractResource
     @Override
     public boolean exists()
     {
-        return null != openObject();
+        final S3Object object = openObject();
+        if (null != object)
+        {
+            m_staticHelper.IOUtils_closeQuietly(object.getObjectContent());
+        }
+        return null != object;
     }
 
     /**
@@ -125,6 +163,35 @@ class S3Resource extends AbstractResource
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isWritable()
+    {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OutputStream getOutputStream() throws IOException
+    {
+        final File file = File.createTempFile("s3-upload-", ".tmp");
+        final OutputStream result;
+        try
+        {
+            result = new UploadOutputStream(file);
+        }
+        catch (final IOException e)
+        {
+            file.delete();
+            throw e;
+        }
+        return result;
+    }
+
     /**
      * Open the S3 object if it exists.
      *
@@ -133,9 +200,7 @@ class S3Resource extends AbstractResource
      */
     private S3Object openObject() throws AmazonS3Exception
     {
-        final AWSCredentials credentials = m_staticHelper.BasicAWSCredentials_new(
-                m_credentials.getPrincipal().toString(), m_credentials.getCredentials().toString());
-        final AmazonS3 client = m_staticHelper.AmazonS3Client_new(credentials);
+        final AmazonS3 client = createClient();
         S3Object result = null;
         try
         {
@@ -151,6 +216,24 @@ class S3Resource extends AbstractResource
         return result;
     }
 
+    /**
+     * Create a client for the configured endpoint.
+     *
+     * @return {@link AmazonS3} instance.
+     */
+    private AmazonS3 createClient()
+    {
+        final AWSCredentials credentials = m_staticHelper.BasicAWSCredentials_new(
+                m_credentials.getPrincipal().toString(), m_credentials.getCredentials().toString());
+        final AmazonS3Client result = m_staticHelper.AmazonS3Client_new(credentials);
+        if (null != m_endpoint)
+        {
+            result.setEndpoint(m_endpoint);
+            result.setS3ClientOptions(new S3ClientOptions().withPathStyleAccess(true));
+        }
+        return result;
+    }
+
     /**
      * For testing purposes only.
      *
@@ -180,4 +263,72 @@ class S3Resource extends AbstractResource
     {
         return m_key;
     }
+
+    /**
+     * For testing purposes only.
+     *
+     * @return {@link String} instance.
+     */
+    String getEndpoint()
+    {
+        return m_endpoint;
+    }
+
+    /**
+     * {@link UploadOutputStream} buffers content in a temporary file, and uploads it to the object when closed. The
+     * temporary file is deleted whether or not the upload succeeds.
+     */
+    private final class UploadOutputStream extends FilterOutputStream
+    {
+        private final File m_file;
+        private boolean m_closed;
+
+        /**
+         * Construct an {@link UploadOutputStream} instance.
+         *
+         * @param file the temporary file.
+         * @throws IOException if the temporary file could not be opened.
+         */
+        UploadOutputStream(final File file) throws IOException
+        {
+            super(new FileOutputStream(file));
+            m_file = file;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException
+        {
+            out.write(bytes, offset, length);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void close() throws IOException
+        {
+            if (!m_closed)
+            {
+                m_closed = true;
+                try
+                {
+                    super.close();
+                    createClient().putObject(m_bucket, m_key, m_file);
+                }
+                catch (final AmazonClientException e)
+                {
+                    throw new IOException(String.format("An error of type %s occurred while attempting to upload " +
+                            "object [%s] to Amazon S3 bucket [%s]: %s", e.getClass().getName(), m_key, m_bucket,
+                            e.getMessage()), e);
+                }
+                finally
+                {
+                    m_file.delete();
+                }
+            }
+        }
+    }
 }
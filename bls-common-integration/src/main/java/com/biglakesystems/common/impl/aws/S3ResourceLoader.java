@@ -2,6 +2,7 @@ package com.biglakesystems.common.impl.aws;
 
 import com.biglakesystems.common.Assert;
 import com.biglakesystems.common.EntryNotFoundException;
+import com.biglakesystems.common.impl.StaticHelper;
 import com.biglakesystems.common.security.Credentials;
 import com.biglakesystems.common.security.CredentialsSource;
 import com.biglakesystems.common.spring.ResourceUtils;
@@ -15,7 +16,8 @@ import java.util.regex.Pattern;
 
 /**
  * {@link S3ResourceLoader} is an implementation of the {@link ResourceLoader} interface which can load resources from
- * Amazon S3. See {@link ResourceUtils#createAmazonS3ResourceLoader(CredentialsSource)}.
+ * Amazon S3, or from an S3-compatible store at a configured endpoint. See
+ * {@link ResourceUtils#createAmazonS3ResourceLoader(ClassLoader, CredentialsSource, String)}.
  * <p>
  * Copyright 2014 Big Lake Systems, LLC.
  * <p>
@@ -33,6 +35,7 @@ public class S3ResourceLoader implements ResourceLoader
     private static final Logger LOG = LoggerFactory.getLogger(S3ResourceLoader.class);
 
     private final ClassLoader m_classLoader;
+    private final String m_endpoint;
     private final CredentialsSource m_source;
 
     /**
@@ -42,10 +45,23 @@ public class S3ResourceLoader implements ResourceLoader
      * @param classLoader the class loader to return from {@link ResourceLoader#getClassLoader()}.
      */
     public S3ResourceLoader(final CredentialsSource source, final ClassLoader classLoader)
+    {
+        this(source, classLoader, null);
+    }
+
+    /**
+     * Construct a {@link S3ResourceLoader} instance.
+     *
+     * @param source the source for Amazon IAM credentials.
+     * @param classLoader the class loader to return from {@link ResourceLoader#getClassLoader()}.
+     * @param endpoint the endpoint of an S3-compatible store, or {@code null} to use Amazon S3.
+     */
+    public S3ResourceLoader(final CredentialsSource source, final ClassLoader classLoader, final String endpoint)
     {
         super();
         Assert.argumentNotNull("classLoader", m_classLoader = classLoader);
         Assert.argumentNotNull("source", m_source = source);
+        m_endpoint = endpoint;
     }
 
     /**
@@ -86,7 +102,7 @@ public class S3ResourceLoader implements ResourceLoader
                     "Credentials for Amazon S3 bucket [%s] not found in credentials source %s.", bucket, m_source), e);
         }
         final String key = matcher.group(2);
-        final Resource result = new S3Resource(bucket, key, credentials);
+        final Resource result = new S3Resource(bucket, key, credentials, m_endpoint, StaticHelper.INSTANCE);
         LOG.info("Returning Amazon S3 resource {} for location [{}].", result, location);
         return result;
     }
@@ -101,6 +117,16 @@ public class S3ResourceLoader implements ResourceLoader
         return m_source;
     }
 
+    /**
+     * For testing purposes only.
+     *
+     * @return {@link String} instance.
+     */
+    public String getEndpoint()
+    {
+        return m_endpoint;
+    }
+
     /**
      * Pattern used to parse the bucket name from the path in an S3 resource path.
      */
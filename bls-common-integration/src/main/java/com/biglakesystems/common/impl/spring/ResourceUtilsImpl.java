@@ -63,11 +63,22 @@ public class ResourceUtilsImpl implements ResourceUtils
      */
     @Override
     public ResourceLoader createAmazonS3ResourceLoader(final ClassLoader classLoader, final CredentialsSource source)
+    {
+        return createAmazonS3ResourceLoader(classLoader, source, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ResourceLoader createAmazonS3ResourceLoader(final ClassLoader classLoader, final CredentialsSource source,
+                                                       final String endpoint)
     {
         Assert.argumentNotNull("classLoader", classLoader);
         Assert.argumentNotNull("source", source);
-        final ResourceLoader result = new S3ResourceLoader(source, classLoader);
-        LOG.debug("Returning Amazon S3 resource loader {} with credentials source {}.", result, source);
+        final ResourceLoader result = new S3ResourceLoader(source, classLoader, endpoint);
+        LOG.debug("Returning Amazon S3 resource loader {} with credentials source {} and endpoint [{}].", result,
+                source, endpoint);
         return result;
     }
 }
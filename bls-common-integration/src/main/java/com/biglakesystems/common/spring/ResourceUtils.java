@@ -57,4 +57,16 @@ public interface ResourceUtils
      * @return {@link ResourceLoader} instance.
      */
     ResourceLoader createAmazonS3ResourceLoader(ClassLoader classLoader, CredentialsSource source);
+
+    /**
+     * Get a resource loader which is capable of loading resources from an S3-compatible store at a given endpoint, as
+     * {@link #createAmazonS3ResourceLoader(ClassLoader, CredentialsSource)} does for Amazon S3. Buckets are addressed
+     * path-style, as S3-compatible stores generally require.
+     *
+     * @param classLoader the class loader to be returned by {@link ResourceLoader#getClassLoader()}.
+     * @param source the credentials source.
+     * @param endpoint the endpoint URL of the store, or {@code null} to use Amazon S3.
+     * @return {@link ResourceLoader} instance.
+     */
+    ResourceLoader createAmazonS3ResourceLoader(ClassLoader classLoader, CredentialsSource source, String endpoint);
 }
@@ -3,16 +3,23 @@ package com.biglakesystems.common.impl.aws;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.S3ClientOptions;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.biglakesystems.common.impl.StaticHelper;
 import com.biglakesystems.common.security.Credentials;
 import org.junit.Before;
+import org.easymock.IAnswer;
 import org.junit.Test;
 import org.springframework.core.io.Resource;
+import org.springframework.core.io.WritableResource;
 
-import java.io.InputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 
 import static org.easymock.EasyMock.*;
 import static org.junit.Assert.*;
@@ -92,6 +99,7 @@ public class TestS3Resource
     public void testExists_exists()
     {
         final S3Object mockObject = createMock(S3Object.class);
+        final S3ObjectInputStream mockStream = createMock(S3ObjectInputStream.class);
 
         /* Should create the AWS credentials and S3 client. */
         expect(m_mockStaticHelper.BasicAWSCredentials_new(eq("testAccessKey"), eq("testSecretKey")))
@@ -105,14 +113,19 @@ public class TestS3Resource
         /* Should attempt to load the resource. */
         expect(m_mockS3Client.getObject(eq("testBucket"), eq("testResource.txt"))).andReturn(mockObject).once();
 
+        /* Should close the object content, so that the connection is released. */
+        expect(mockObject.getObjectContent()).andReturn(mockStream).once();
+        m_mockStaticHelper.IOUtils_closeQuietly(same(mockStream));
+        expectLastCall().once();
+
         /* Run the test and verify expectations. */
         replayCommonMocks();
-        replay(mockObject);
+        replay(mockObject, mockStream);
         final Resource instance = new S3Resource("testBucket", "testResource.txt", m_mockCredentials,
                 m_mockStaticHelper);
         assertTrue(instance.exists());
         verifyCommonMocks();
-        verify(mockObject);
+        verify(mockObject, mockStream);
     }
 
     /**
@@ -187,6 +200,59 @@ public class TestS3Resource
         verify(mockObject, mockStream);
     }
 
+    /**
+     * Test the implementation of {@link WritableResource#getOutputStream()}: content should be uploaded when the stream
+     * is closed, through a client addressing the configured endpoint.
+     *
+     * @throws Throwable on unexpected error.
+     */
+    @Test
+    public void testGetOutputStream() throws Throwable
+    {
+        final String[] uploaded = new String[1];
+        final File[] files = new File[1];
+
+        /* Should create the AWS credentials and S3 client, and point the client at the endpoint. */
+        expect(m_mockStaticHelper.BasicAWSCredentials_new(eq("testAccessKey"), eq("testSecretKey")))
+                .andReturn(m_mockAWSCredentials).once();
+        expect(m_mockStaticHelper.AmazonS3Client_new(same(m_mockAWSCredentials))).andReturn(m_mockS3Client).once();
+        m_mockS3Client.setEndpoint(eq("http://localhost:9000"));
+        expectLastCall().once();
+        m_mockS3Client.setS3ClientOptions(anyObject(S3ClientOptions.class));
+        expectLastCall().once();
+
+        /* Should get credentials. */
+        expect(m_mockCredentials.getPrincipal()).andReturn("testAccessKey").atLeastOnce();
+        expect(m_mockCredentials.getCredentials()).andReturn("testSecretKey").atLeastOnce();
+
+        /* Should upload the buffered content once. */
+        expect(m_mockS3Client.putObject(eq("testBucket"), eq("testResource.txt"), anyObject(File.class))).andAnswer(
+                new IAnswer<PutObjectResult>()
+                {
+                    @Override
+                    public PutObjectResult answer() throws Throwable
+                    {
+                        files[0] = (File) getCurrentArguments()[2];
+                        uploaded[0] = new String(Files.readAllBytes(files[0].toPath()), Charset.forName("UTF-8"));
+                        return new PutObjectResult();
+                    }
+                }).once();
+
+        /* Run the test and verify expectations. */
+        replayCommonMocks();
+        final WritableResource instance = new S3Resource("testBucket", "testResource.txt", m_mockCredentials,
+                "http://localhost:9000", m_mockStaticHelper);
+        assertTrue(instance.isWritable());
+        final OutputStream stream = instance.getOutputStream();
+        stream.write("test content".getBytes(Charset.forName("UTF-8")));
+        assertNull(uploaded[0]);
+        stream.close();
+        stream.close();
+        assertEquals("test content", uploaded[0]);
+        assertFalse(files[0].exists());
+        verifyCommonMocks();
+    }
+
     private void replayCommonMocks()
     {
         replay(m_mockAWSCredentials, m_mockCredentials, m_mockStaticHelper, m_mockS3Client);
@@ -70,6 +70,28 @@ public class TestResourceUtilsImpl
                 mockCredentialsSource);
         assertSame(mockClassLoader, loader.getClassLoader());
         assertSame(mockCredentialsSource, loader.getCredentialsSource());
+        assertNull(loader.getEndpoint());
+        verify(mockClassLoader, mockCredentialsSource);
+    }
+
+    /**
+     * Test the implementation of
+     * {@link ResourceUtils#createAmazonS3ResourceLoader(ClassLoader, CredentialsSource, String)}.
+     */
+    @Test
+    public void testCreateAmazonS3ResourceLoader_endpoint()
+    {
+        final ClassLoader mockClassLoader = createMock(ClassLoader.class);
+        final CredentialsSource mockCredentialsSource = createMock(CredentialsSource.class);
+
+        /* Run the test and verify expectations. */
+        replay(mockClassLoader, mockCredentialsSource);
+        final ResourceUtils instance = new ResourceUtilsImpl();
+        final S3ResourceLoader loader = (S3ResourceLoader) instance.createAmazonS3ResourceLoader(mockClassLoader,
+                mockCredentialsSource, "http://localhost:9000");
+        assertSame(mockClassLoader, loader.getClassLoader());
+        assertSame(mockCredentialsSource, loader.getCredentialsSource());
+        assertEquals("http://localhost:9000", loader.getEndpoint());
         verify(mockClassLoader, mockCredentialsSource);
     }
 }
@@ -1,7 +1,86 @@
 
+-- Columns are declared widest first (8-byte, then 4-byte, then 2-byte, then variable width) so that PostgreSQL does
+-- not insert alignment padding between them. Numeric observation elements are fixed-point SMALLINTs in the units
+-- noted below (NULL = not reported); see waldo.entity.Observation.
+
+-- All entity identifiers are drawn from one sequence. Each value is the low end of a block of INCREMENT BY identifiers
+-- owned by the caller (Hibernate's pooled-lo optimizer, and waldo.utility.database.IdAllocator for the JDBC path), so
+-- the increment must match waldo.Constants.Database.ID_SEQUENCE_INCREMENT.
+CREATE SEQUENCE WALDO_ID_SEQ START WITH 1 INCREMENT BY 1000;
+
 CREATE TABLE OBSERVATION (
   ID BIGINT NOT NULL,
+  OBSERVED_AT TIMESTAMP NOT NULL,
+  SKY_LAYERS BIGINT DEFAULT 0 NOT NULL,   -- up to 4 layers, 16 bits each; see waldo.entity.SkyLayers
   VER INT DEFAULT 0 NOT NULL,
+  REPORT_TYPE SMALLINT NOT NULL,          -- waldo.entity.ReportType code
+  TEMPERATURE SMALLINT,                   -- tenths of a degree C
+  DEWPOINT SMALLINT,                      -- tenths of a degree C
+  ALTIMETER SMALLINT,                     -- hundredths of an inch Hg
+  SEA_LEVEL_PRESSURE SMALLINT,            -- tenths of a hPa
+  WIND_DIRECTION SMALLINT,                -- degrees true, 0 = variable
+  WIND_SPEED SMALLINT,                    -- knots
+  WIND_GUST SMALLINT,                     -- knots
+  VISIBILITY SMALLINT,                    -- hundredths of a statute mile
+  PRECIPITATION SMALLINT,                 -- hundredths of an inch
+  FLIGHT_CATEGORY SMALLINT,               -- waldo.entity.FlightCategory code
+  STATION CHAR(4) NOT NULL,
   HASH CHAR(40) NOT NULL,
   CONSTRAINT WLDO_OBSR_PK PRIMARY KEY (ID)
 );
+
+-- Supports keyset pagination of history queries on (STATION, OBSERVED_AT, ID); see waldo.service.observation.
+CREATE INDEX WLDO_OBSR_STTN_OBSV_IX ON OBSERVATION (STATION, OBSERVED_AT, ID);
+
+-- Identifies an observation for the JDBC writer, which updates (when HASH, a digest of the elements, differs) rather
+-- than duplicates an observation written again; see waldo.impl.service.observation.ObservationWriterImpl.
+CREATE UNIQUE INDEX WLDO_OBSR_STTN_OBSV_RPTP_UK ON OBSERVATION (STATION, OBSERVED_AT, REPORT_TYPE);
+
+-- Raw report text is kept out of OBSERVATION so that table stays narrow; it is only read on request.
+CREATE TABLE OBSERVATION_TEXT (
+  OBSERVATION_ID BIGINT NOT NULL,
+  RAW_TEXT VARCHAR(512) NOT NULL,
+  CONSTRAINT WLDO_OBTX_PK PRIMARY KEY (OBSERVATION_ID),
+  CONSTRAINT WLDO_OBTX_OBSR_FK FOREIGN KEY (OBSERVATION_ID) REFERENCES OBSERVATION (ID) ON DELETE CASCADE
+);
+
+-- Station reference metadata, saved from each issue of the reference data read by acquisition nodes and joined by
+-- region history queries; held in the Hibernate second-level cache (see waldo.entity.Station.) Coordinates are in
+-- millionths of a degree.
+CREATE TABLE STATION (
+  ID BIGINT NOT NULL,
+  LATITUDE INT NOT NULL,
+  LONGITUDE INT NOT NULL,
+  VER INT DEFAULT 0 NOT NULL,
+  ELEVATION SMALLINT,                     -- meters
+  ICAO_ID CHAR(4) NOT NULL,
+  COUNTRY CHAR(2),
+  STATE CHAR(2),
+  NAME VARCHAR(64),
+  CONSTRAINT WLDO_STTN_PK PRIMARY KEY (ID),
+  CONSTRAINT WLDO_STTN_ICAO_UK UNIQUE (ICAO_ID)
+);
+
+CREATE INDEX WLDO_STTN_CNTR_IX ON STATION (COUNTRY);
+
+-- Live acquisition nodes; see waldo.utility.cluster.ClusterMembership. Times are from the database clock, and are
+-- TIMESTAMPTZ so that they compare correctly whatever the session time zone of each node.
+CREATE TABLE CLUSTER_NODE (
+  HEARTBEAT_AT TIMESTAMPTZ NOT NULL,
+  NODE_ID VARCHAR(128) NOT NULL,
+  CONSTRAINT WLDO_CLND_PK PRIMARY KEY (NODE_ID)
+);
+
+-- Claims on units of acquisition work (one per version of each ADDS file); see waldo.utility.cluster.WorkCoordinator.
+-- ATTEMPTS is 0 for a unit which has only been offered to OWNER, not yet claimed.
+CREATE TABLE WORK_CLAIM (
+  CREATED_AT TIMESTAMPTZ DEFAULT now() NOT NULL,
+  DEADLINE TIMESTAMPTZ NOT NULL,
+  COMPLETED_AT TIMESTAMPTZ,
+  ATTEMPTS SMALLINT DEFAULT 1 NOT NULL,
+  WORK_KEY VARCHAR(255) NOT NULL,
+  OWNER VARCHAR(128) NOT NULL,
+  CONSTRAINT WLDO_WKCL_PK PRIMARY KEY (WORK_KEY)
+);
+
+CREATE INDEX WLDO_WKCL_CRTD_IX ON WORK_CLAIM (CREATED_AT);
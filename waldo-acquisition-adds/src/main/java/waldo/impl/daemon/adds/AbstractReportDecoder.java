@@ -0,0 +1,451 @@
+package waldo.impl.daemon.adds;
+
+import waldo.entity.PresentWeather;
+import waldo.entity.SkyCover;
+import waldo.entity.SkyLayers;
+import waldo.service.observation.ObservationRecord;
+import waldo.utility.station.StationDictionary;
+
+/**
+ * {@link AbstractReportDecoder} is the base of the decoders for the raw text of reports in the METAR family of codes,
+ * which share their tokenization and most of their groups. Decoding is a single pass over the text which splits it at
+ * whitespace and recognizes each group by its first characters and length, without regular expressions; a subclass
+ * drives the pass, decoding the groups specific to its code and handing the rest to {@link #decodeElement()}, which
+ * decodes the wind, visibility (statute miles, including mixed fractions, or meters), sky condition and weather groups
+ * common to all of them into the element fields.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access; each
+ * thread uses its own.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+abstract class AbstractReportDecoder
+{
+    protected static final long MINUTE = 60000L;
+    protected static final long HOUR = 60L * MINUTE;
+    protected static final long DAY = 24L * HOUR;
+
+    private static final StationDictionary s_stations = StationDictionary.getInstance();
+
+    /* The current token is at [m_start, m_end) of m_text, which is decoded up to m_length. */
+    protected int m_end;
+    protected int m_start;
+    protected CharSequence m_text;
+    private int m_length;
+    private int m_position;
+
+    /* Element values decoded by decodeElement(), until the next call to resetElements(). */
+    protected long m_sky;
+    protected short m_visibility;
+    protected long m_weather;
+    protected boolean m_wind;
+    protected short m_windDirection;
+    protected short m_windGust;
+    protected short m_windSpeed;
+    private int m_whole;
+
+    /**
+     * Construct a {@link AbstractReportDecoder} instance.
+     */
+    protected AbstractReportDecoder()
+    {
+        super();
+    }
+
+    /**
+     * Begin decoding a report, clearing the element values.
+     *
+     * @param text the text.
+     * @param start the start of the report within {@code text} (inclusive.)
+     * @param end the end of the report within {@code text} (exclusive.)
+     */
+    protected void begin(final CharSequence text, final int start, final int end)
+    {
+        m_text = text;
+        m_length = end;
+        m_position = start;
+        m_start = start;
+        m_end = start;
+        resetElements();
+    }
+
+    /**
+     * Clear the element values.
+     */
+    protected void resetElements()
+    {
+        m_sky = SkyLayers.NONE;
+        m_visibility = ObservationRecord.MISSING;
+        m_weather = PresentWeather.NONE;
+        m_whole = 0;
+        m_wind = false;
+        m_windDirection = ObservationRecord.MISSING;
+        m_windGust = ObservationRecord.MISSING;
+        m_windSpeed = ObservationRecord.MISSING;
+    }
+
+    /**
+     * Decode the current token as a station identifier.
+     *
+     * @return {@link String} canonical station identifier, or {@code null} if the token is not one.
+     */
+    protected String decodeStation()
+    {
+        return 4 == m_end - m_start && isAlphanumeric(m_start, m_end) ? s_stations.getIdentifier(s_stations.internCode(
+                StationDictionary.encode(m_text, m_start, 4))) : null;
+    }
+
+    /**
+     * Decode the current token as a day and time group, such as {@code 121651Z}.
+     *
+     * @param reference the reference time; see {@link #resolveTime(long, int, int, int)}.
+     * @return {@code long} time in milliseconds since the epoch, or {@link Long#MIN_VALUE} if the token is not a day
+     * and time group.
+     */
+    protected long decodeTime(final long reference)
+    {
+        final boolean valid = 7 == m_end - m_start && 'Z' == m_text.charAt(m_start + 6);
+        final int day = valid ? digits(m_start, m_start + 2) : -1;
+        final int hour = valid ? digits(m_start + 2, m_start + 4) : -1;
+        final int minute = valid ? digits(m_start + 4, m_start + 6) : -1;
+        return day >= 1 && day <= 31 && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 ?
+                resolveTime(reference, day, hour, minute) : Long.MIN_VALUE;
+    }
+
+    /**
+     * Decode the current token as one of the groups common to all reports, skipping it if it is not recognized.
+     *
+     * @return {@code boolean} true if the token is a wind, visibility, sky condition or weather group.
+     */
+    protected boolean decodeElement()
+    {
+        final int whole = m_whole;
+        m_whole = 0;
+        final int length = m_end - m_start;
+        boolean result = true;
+        if (!m_wind && decodeWind())
+        {
+            m_wind = true;
+        }
+        else if (length > 2 && 'S' == m_text.charAt(m_end - 2) && 'M' == m_text.charAt(m_end - 1))
+        {
+            decodeStatuteMiles(whole);
+        }
+        else if (length <= 2 && digits(m_start, m_end) >= 0)
+        {
+            /* The whole part of a mixed visibility, such as the 1 of "1 1/2SM". */
+            m_whole = digits(m_start, m_end);
+        }
+        else if (4 == length && digits(m_start, m_end) >= 0)
+        {
+            m_visibility = (short) Math.round(digits(m_start, m_end) * 100.0 / 1609.344);
+        }
+        else if (is("CAVOK"))
+        {
+            m_visibility = (short) Math.round(10000 * 100.0 / 1609.344);
+        }
+        else
+        {
+            result = decodeSky() || decodeWeather();
+        }
+        return result;
+    }
+
+    /**
+     * Advance to the next whitespace-delimited token.
+     *
+     * @return {@code boolean} true if there is another token, which is then at {@code [m_start, m_end)}.
+     */
+    protected boolean nextToken()
+    {
+        final CharSequence text = m_text;
+        int position = m_position;
+        while (position < m_length && text.charAt(position) <= ' ')
+        {
+            position++;
+        }
+        m_start = position;
+        while (position < m_length && text.charAt(position) > ' ')
+        {
+            position++;
+        }
+        m_end = position;
+        m_position = position;
+        return m_end > m_start;
+    }
+
+    /**
+     * Determine whether the current token is a given word.
+     *
+     * @param word the word.
+     * @return {@code boolean} true if the token is {@code word}.
+     */
+    protected boolean is(final String word)
+    {
+        return m_end - m_start == word.length() && is(m_start, word);
+    }
+
+    /**
+     * Determine whether the current token holds a given word at a given position.
+     *
+     * @param position the position.
+     * @param word the word.
+     * @return {@code boolean} true if the token holds {@code word} at {@code position}.
+     */
+    protected boolean is(final int position, final String word)
+    {
+        boolean result = position + word.length() <= m_end;
+        for (int i = 0; result && i < word.length(); i++)
+        {
+            result = word.charAt(i) == m_text.charAt(position + i);
+        }
+        return result;
+    }
+
+    protected boolean isAlphanumeric(final int start, final int end)
+    {
+        boolean result = true;
+        for (int i = start; result && i < end; i++)
+        {
+            final char character = m_text.charAt(i);
+            result = character >= 'A' && character <= 'Z' || character >= '0' && character <= '9';
+        }
+        return result;
+    }
+
+    protected int indexOf(final char character, final int start, final int end)
+    {
+        int result = -1;
+        for (int i = start; result < 0 && i < end; i++)
+        {
+            result = character == m_text.charAt(i) ? i : -1;
+        }
+        return result;
+    }
+
+    /**
+     * Parse a run of decimal digits.
+     *
+     * @param start the start of the run (inclusive).
+     * @param end the end of the run (exclusive.)
+     * @return {@code int} value, or {@code -1} if the run is empty or holds anything other than digits.
+     */
+    protected int digits(final int start, final int end)
+    {
+        int result = start < end && end - start <= 9 ? 0 : -1;
+        for (int i = start; result >= 0 && i < end; i++)
+        {
+            final int digit = m_text.charAt(i) - '0';
+            result = digit >= 0 && digit <= 9 ? result * 10 + digit : -1;
+        }
+        return result;
+    }
+
+    /**
+     * Resolve the day of the month and time of day of a report into an absolute time: the latest such time not more
+     * than one day after the reference time.
+     *
+     * @param reference the reference time, in milliseconds since the epoch.
+     * @param day the day of the month.
+     * @param hour the hour.
+     * @param minute the minute.
+     * @return {@code long} time in milliseconds since the epoch.
+     */
+    static long resolveTime(final long reference, final int day, final int hour, final int minute)
+    {
+        /* Civil date conversions after H. Hinnant, "chrono-Compatible Low-Level Date Algorithms." Try the month of
+        the latest time allowed, then the month before. */
+        final long limit = reference + DAY;
+        final long z = limit / DAY + 719468L;
+        final long era = z / 146097L;
+        final long doe = z - era * 146097L;
+        final long yoe = (doe - doe / 1460L + doe / 36524L - doe / 146096L) / 365L;
+        final long mp = (5L * (doe - (365L * yoe + yoe / 4L - yoe / 100L)) + 2L) / 153L;
+        long month = mp < 10L ? mp + 3L : mp - 9L;
+        long year = yoe + era * 400L + (month <= 2L ? 1L : 0L);
+        long result = toEpochDay(year, month, day) * DAY + hour * HOUR + minute * MINUTE;
+        if (result > limit)
+        {
+            year = 1L == month ? year - 1L : year;
+            month = 1L == month ? 12L : month - 1L;
+            result = toEpochDay(year, month, day) * DAY + hour * HOUR + minute * MINUTE;
+        }
+        return result;
+    }
+
+    /**
+     * Decode the current token as a wind group, such as {@code 27015G25KT}, {@code VRB03KT} or {@code 12008MPS}.
+     *
+     * @return {@code boolean} true if the token is a wind group.
+     */
+    private boolean decodeWind()
+    {
+        final int length = m_end - m_start;
+        boolean result = length >= 7 && ('K' == m_text.charAt(m_end - 2) || 'S' == m_text.charAt(m_end - 1) ||
+                'H' == m_text.charAt(m_end - 1));
+        if (result)
+        {
+            final int unit = 'T' == m_text.charAt(m_end - 1) ? m_end - 2 : m_end - 3;
+            final double factor;
+            if (is(unit, "KT"))
+            {
+                factor = 1.0;
+            }
+            else if (is(unit, "MPS"))
+            {
+                factor = 1.943844;
+            }
+            else
+            {
+                factor = is(unit, "KMH") ? 0.539957 : 0.0;
+            }
+            final int gust = indexOf('G', m_start + 3, unit);
+            final int speedEnd = gust < 0 ? unit : gust;
+            if (0.0 == factor || speedEnd - m_start < 5 || speedEnd - m_start > 6 ||
+                    (gust >= 0 && (unit - gust < 3 || unit - gust > 4)))
+            {
+                result = false;
+            }
+            else if (is(m_start, "VRB") || digits(m_start, m_start + 3) >= 0)
+            {
+                final int speed = digits(m_start + 3, speedEnd);
+                final int gusts = gust < 0 ? -1 : digits(gust + 1, unit);
+                m_windDirection = (short) Math.max(0, digits(m_start, m_start + 3));
+                m_windSpeed = speed < 0 ? ObservationRecord.MISSING : (short) Math.round(speed * factor);
+                m_windGust = gusts < 0 ? ObservationRecord.MISSING : (short) Math.round(gusts * factor);
+                result = speed >= 0;
+            }
+            else
+            {
+                /* A wind group with missing values, such as /////KT, is recognized but not decoded. */
+                result = '/' == m_text.charAt(m_start);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode the current token as a visibility in statute miles, such as {@code 10SM}, {@code 1/2SM} or
+     * {@code M1/4SM}.
+     *
+     * @param whole the whole part preceding a fraction, or {@code 0}.
+     */
+    private void decodeStatuteMiles(final int whole)
+    {
+        final char first = m_text.charAt(m_start);
+        final int start = 'M' == first || 'P' == first ? m_start + 1 : m_start;
+        final int end = m_end - 2;
+        final int slash = indexOf('/', start, end);
+        if (slash < 0)
+        {
+            final int miles = digits(start, end);
+            if (miles >= 0 && miles <= 300)
+            {
+                m_visibility = (short) (miles * 100);
+            }
+        }
+        else
+        {
+            final int numerator = digits(start, slash);
+            final int denominator = digits(slash + 1, end);
+            if (numerator >= 0 && denominator > 0 && whole <= 300)
+            {
+                m_visibility = (short) (whole * 100 + numerator * 100 / denominator);
+            }
+        }
+    }
+
+    /**
+     * Decode the current token as a sky condition group, such as {@code BKN015}, {@code OVC008CB}, {@code VV002} or
+     * {@code CLR}.
+     *
+     * @return {@code boolean} true if the token is a sky condition group.
+     */
+    private boolean decodeSky()
+    {
+        final boolean layer = m_end - m_start >= 5;
+        SkyCover cover = null;
+        int base = m_start + 3;
+        switch (m_text.charAt(m_start))
+        {
+            case 'B':
+                cover = layer && is(m_start, "BKN") ? SkyCover.BKN : null;
+                break;
+            case 'C':
+                cover = is("CLR") ? SkyCover.CLR : null;
+                break;
+            case 'F':
+                cover = layer && is(m_start, "FEW") ? SkyCover.FEW : null;
+                break;
+            case 'N':
+                cover = is("NSC") || is("NCD") ? SkyCover.CLR : null;
+                break;
+            case 'O':
+                cover = layer && is(m_start, "OVC") ? SkyCover.OVC : null;
+                break;
+            case 'S':
+                cover = is("SKC") ? SkyCover.SKC : layer && is(m_start, "SCT") ? SkyCover.SCT : null;
+                break;
+            case 'V':
+                cover = m_end - m_start >= 4 && is(m_start, "VV") ? SkyCover.OVX : null;
+                base = m_start + 2;
+                break;
+            default:
+                break;
+        }
+
+        boolean result = null != cover;
+        if (result && (SkyCover.SKC == cover || SkyCover.CLR == cover))
+        {
+            m_sky = SkyLayers.append(m_sky, cover, 0);
+        }
+        else if (result && m_end - base >= 3)
+        {
+            final int height = digits(base, base + 3);
+            if (height >= 0)
+            {
+                m_sky = SkyLayers.append(m_sky, cover, height);
+            }
+            else
+            {
+                /* A layer of unknown height, such as BKN///, is recognized but not decoded. */
+                result = '/' == m_text.charAt(base);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode the current token as a present weather group, such as {@code -RA}, {@code +TSRAGR} or {@code VCSH}.
+     *
+     * @return {@code boolean} true if the token is a present weather group.
+     */
+    private boolean decodeWeather()
+    {
+        final long weather = PresentWeather.parseGroup(m_text, m_start, m_end);
+        final boolean result = PresentWeather.NONE != weather;
+        if (result)
+        {
+            m_weather |= weather;
+        }
+        return result;
+    }
+
+    private static long toEpochDay(final long year, final long month, final long day)
+    {
+        final long y = month <= 2L ? year - 1L : year;
+        final long era = y / 400L;
+        final long yoe = y - era * 400L;
+        final long doy = (153L * (month > 2L ? month - 3L : month + 9L) + 2L) / 5L + day - 1L;
+        return era * 146097L + yoe * 365L + yoe / 4L - yoe / 100L + doy - 719468L;
+    }
+}
@@ -0,0 +1,276 @@
+package waldo.impl.daemon.adds;
+
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import waldo.entity.SkyCover;
+import waldo.entity.SkyLayers;
+import waldo.utility.station.StationDictionary;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link AbstractXmlContentParser} is the base of the {@link AddsContentParser} implementations which read the XML
+ * forms of ADDS products ({@code *.cache.xml.gz}.) The content is read with a StAX pull parser, one event at a time,
+ * and each element of interest is handed to a {@link Binder}, which builds records directly from element text and
+ * attributes; no document tree is built, so memory use does not grow with the size of the content.
+ * <p>
+ * Element names are interned through a table of the names the subclass declares: a name the subclass does not declare
+ * is skipped without further work, and a declared name is replaced by the declared instance, so that binders compare
+ * names by reference. Text is accumulated, trimmed of surrounding white space, only for declared elements.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access; each call to {@link #parse(InputStream, String)} uses a binder of its own.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+abstract class AbstractXmlContentParser implements AddsContentParser
+{
+    private static final XMLInputFactory s_factory = createFactory();
+    private static final StationDictionary s_stations = StationDictionary.getInstance();
+    private static final DateTimeFormatter s_timeParser = ISODateTimeFormat.dateTimeParser().withZoneUTC();
+
+    private final Map<String, String> m_names;
+
+    /**
+     * Construct a {@link AbstractXmlContentParser} instance.
+     *
+     * @param names the names of the elements of interest, which should be compile-time constants.
+     */
+    protected AbstractXmlContentParser(final String... names)
+    {
+        super();
+        m_names = new HashMap<>(names.length * 2);
+        for (final String name : names)
+        {
+            m_names.put(name, name);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void parse(final InputStream stream, final String contentType) throws IOException
+    {
+        final Binder binder = createBinder();
+        final StringBuilder text = new StringBuilder();
+        XMLStreamReader reader = null;
+        try
+        {
+            reader = s_factory.createXMLStreamReader(stream);
+            while (reader.hasNext())
+            {
+                switch (reader.next())
+                {
+                    case XMLStreamConstants.START_ELEMENT:
+                    {
+                        text.setLength(0);
+                        final String name = m_names.get(reader.getLocalName());
+                        if (null != name)
+                        {
+                            binder.startElement(name, reader);
+                        }
+                        break;
+                    }
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    {
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+                    }
+                    case XMLStreamConstants.END_ELEMENT:
+                    {
+                        final String name = m_names.get(reader.getLocalName());
+                        if (null != name)
+                        {
+                            binder.endElement(name, text.toString().trim());
+                        }
+                        text.setLength(0);
+                        break;
+                    }
+                    default:
+                    {
+                        break;
+                    }
+                }
+            }
+            binder.end();
+        }
+        catch (final XMLStreamException e)
+        {
+            throw new IOException("ADDS content is not well-formed XML.", e);
+        }
+        finally
+        {
+            if (null != reader)
+            {
+                try
+                {
+                    reader.close();
+                }
+                catch (final XMLStreamException e)
+                {
+                    /* The stream itself is closed by the caller. */
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a binder for one pass over the content.
+     *
+     * @return {@link Binder} instance.
+     */
+    protected abstract Binder createBinder();
+
+    /**
+     * Get an attribute of the current element, as a number of feet.
+     *
+     * @param reader the reader, positioned at the start of an element.
+     * @param name the attribute name.
+     * @param missing the value to return if the attribute is absent or empty.
+     * @return {@code int} value.
+     * @throws NumberFormatException if the attribute is not a whole number.
+     */
+    protected static int getIntAttribute(final XMLStreamReader reader, final String name, final int missing)
+            throws NumberFormatException
+    {
+        final String value = reader.getAttributeValue(null, name);
+        return null == value || value.isEmpty() ? missing : Integer.parseInt(value);
+    }
+
+    /**
+     * Append the layer described by the attributes of the current {@code sky_condition} element to packed sky layers.
+     * A layer of unknown cover is skipped; {@code CAVOK} and {@code NSC} are taken as clear.
+     *
+     * @param sky the packed layers.
+     * @param reader the reader, positioned at the start of a {@code sky_condition} element.
+     * @return {@code long} packed layers including the new layer.
+     * @throws NumberFormatException if the base is not a whole number.
+     */
+    protected static long appendLayer(final long sky, final XMLStreamReader reader) throws NumberFormatException
+    {
+        final String cover = reader.getAttributeValue(null, "sky_cover");
+        SkyCover layer = null;
+        if ("CAVOK".equals(cover) || "NSC".equals(cover))
+        {
+            layer = SkyCover.CLR;
+        }
+        else if (null != cover)
+        {
+            for (final SkyCover value : SkyCover.values())
+            {
+                if (value.name().equals(cover))
+                {
+                    layer = value;
+                }
+            }
+        }
+        return SkyLayers.append(sky, layer, getIntAttribute(reader, "cloud_base_ft_agl", 0) / 100);
+    }
+
+    /**
+     * Scale a decimal value to a fixed-point {@code short}.
+     *
+     * @param text the value.
+     * @param factor the number of units per whole value, such as {@code 100} for hundredths.
+     * @return {@code short} value.
+     * @throws NumberFormatException if the text is not a number, or the value does not fit.
+     */
+    protected static short toShort(final String text, final int factor) throws NumberFormatException
+    {
+        final long result = Math.round(Double.parseDouble(text) * factor);
+        if (result < Short.MIN_VALUE + 1 || result > Short.MAX_VALUE)
+        {
+            throw new NumberFormatException(String.format("Value [%s] is out of range.", text));
+        }
+        return (short) result;
+    }
+
+    /**
+     * Resolve a station identifier to its canonical instance.
+     *
+     * @param text the identifier.
+     * @return {@link String} canonical station identifier.
+     * @throws IllegalArgumentException if the text is not a valid station identifier.
+     */
+    protected static String toStation(final String text) throws IllegalArgumentException
+    {
+        if (4 != text.length())
+        {
+            throw new IllegalArgumentException(String.format("Station [%s] is not a valid ICAO identifier.", text));
+        }
+        return s_stations.getIdentifier(s_stations.internCode(StationDictionary.encode(text)));
+    }
+
+    /**
+     * Parse an ISO-8601 time, such as {@code 2014-07-15T17:51:00Z}.
+     *
+     * @param text the time.
+     * @return {@code long} time in milliseconds since the epoch.
+     * @throws IllegalArgumentException if the text is not a valid time.
+     */
+    protected static long toTime(final String text) throws IllegalArgumentException
+    {
+        return s_timeParser.parseMillis(text);
+    }
+
+    /**
+     * Create the input factory, with namespace processing and DTDs (hence external entities) disabled.
+     *
+     * @return {@link XMLInputFactory} instance.
+     */
+    private static XMLInputFactory createFactory()
+    {
+        final XMLInputFactory result = XMLInputFactory.newInstance();
+        result.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        result.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        result.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return result;
+    }
+
+    /**
+     * {@link Binder} builds records from the elements of interest as they are read.
+     * <p>
+     * <strong>Thread Safety:</strong> implementations of this interface need not be safe for multithreaded access.
+     */
+    protected interface Binder
+    {
+        /**
+         * Handle the start of an element of interest, whose attributes may be read from the reader.
+         *
+         * @param name the interned element name.
+         * @param reader the reader, positioned at the start of the element.
+         */
+        void startElement(String name, XMLStreamReader reader);
+
+        /**
+         * Handle the end of an element of interest.
+         *
+         * @param name the interned element name.
+         * @param text the text of the element, trimmed; empty for an element holding other elements.
+         */
+        void endElement(String name, String text);
+
+        /**
+         * Handle the end of the content.
+         */
+        void end();
+    }
+}
@@ -8,18 +8,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import waldo.Constants;
 import waldo.service.acquisition.DataAcquisitionException;
+import waldo.utility.cluster.LeaderElection;
+import waldo.utility.cluster.WorkCoordinator;
 import waldo.utility.network.ContentCallback;
 import waldo.utility.network.HttpUtils;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -27,10 +41,27 @@ import java.util.zip.GZIPInputStream;
  * weather data and imports it as available.
  * <p/>
  * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
- * profile is active.
+ * profile is active. Within a cluster of such nodes, each node lists the directory on every cycle but imports only the
+ * files it claims through the {@link WorkCoordinator}, so the files are shared among the live nodes and a file left
+ * unfinished by a failed node is picked up by another. A file is identified by path and modification time, so an
+ * unchanged file is not imported again. The node holding the leader lease (see {@link LeaderElection}) also prunes old
+ * claims.
  * <p/>
- * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
- * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * Subdirectories of the directory, such as {@code dataserver1_3/}, may also be listed, to a configured depth. Each
+ * level of subdirectories is listed concurrently, and the files found are merged with those of the directory into a
+ * single catalog for the cycle. Parsers are offered a file found in a subdirectory by its name, as they are any other
+ * file; but it is claimed and scheduled by its path relative to the directory, so separately from any file of the same
+ * name elsewhere. A cycle in which a subdirectory could not be listed does not drop products from the schedule, since
+ * their files may yet be listed there.
+ * <p/>
+ * The directory is not listed at a fixed interval. Instead, a {@link PublishSchedule} learns how often each imported
+ * product is published, from the modification times of successive versions of its file, and the directory is listed
+ * shortly after the earliest expected update of any product, with jitter, and within configured minimum and maximum
+ * delays. A frequently published product such as {@code metars.cache.csv.gz} is thereby imported soon after each
+ * update, while the directory is not listed repeatedly when nothing is expected to have changed.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access, provided the same is true
+ * of all dependencies provided via constructor.
  * <p/>
  * Copyright 2014 Big Lake Systems, LLC.
  * <p/>
@@ -49,10 +80,21 @@ class AddsDataAcquirer
 {
     private static final Logger LOG = LoggerFactory.getLogger(AddsDataAcquirer.class);
 
+    /**
+     * Maximum number of subdirectories listed concurrently.
+     */
+    private static final int CRAWL_THREADS = 4;
+
     private final List<AddsContentParser> m_contentParsers;
+    private final int m_crawlDepth;
+    private final ExecutorService m_crawlExecutor;
     private final AddsDirectoryParser m_directoryParser;
     private final URI m_directoryUri;
+    private final String m_format;
     private final HttpUtils m_httpUtils;
+    private final LeaderElection m_leaderElection;
+    private final PublishSchedule m_schedule;
+    private final WorkCoordinator m_workCoordinator;
 
     /**
      * Construct an {@link AddsDataAcquirer} instance.
@@ -60,21 +102,64 @@ class AddsDataAcquirer
      * @param directoryParser the {@link AddsDirectoryParser} component.
      * @param contentParsers the {@link AddsContentParser} component(s).
      * @param httpUtils the {@link HttpUtils} component.
+     * @param leaderElection the {@link LeaderElection} component.
+     * @param workCoordinator the {@link WorkCoordinator} component.
+     * @param directoryUri the location of the ADDS current data directory.
+     * @param format the format ({@code csv} or {@code xml}) in which product cache files are imported.
+     * @param crawlDepth the depth to which subdirectories are listed, or {@code 0} to list the directory alone.
+     * @param minDelay the minimum delay (milliseconds) between listings of the directory.
+     * @param maxDelay the maximum delay (milliseconds) between listings of the directory.
+     * @param publishLag the delay (milliseconds) after a product's expected update before the directory is listed.
+     * @param jitter the upper bound (milliseconds) of the random delay added to each listing time.
      */
     @Autowired
     AddsDataAcquirer(final AddsDirectoryParser directoryParser, final List<? extends AddsContentParser> contentParsers,
-                     final HttpUtils httpUtils,
-                     @Value("${waldo.acquisition.adds.directory_url}") final URI directoryUri)
+                     final HttpUtils httpUtils, final LeaderElection leaderElection,
+                     final WorkCoordinator workCoordinator,
+                     @Value("${waldo.acquisition.adds.directory_url}") final URI directoryUri,
+                     @Value("${waldo.acquisition.adds.format}") final String format,
+                     @Value("${waldo.acquisition.adds.crawl_depth}") final int crawlDepth,
+                     @Value("${waldo.acquisition.adds.min_delay}") final long minDelay,
+                     @Value("${waldo.acquisition.adds.max_delay}") final long maxDelay,
+                     @Value("${waldo.acquisition.adds.publish_lag}") final long publishLag,
+                     @Value("${waldo.acquisition.adds.jitter}") final long jitter)
     {
         super();
         Assert.argumentNotNull("contentParsers", contentParsers);
         Assert.argumentNotNull("directoryParser", m_directoryParser = directoryParser);
         Assert.argumentNotNull("directoryUri", m_directoryUri = directoryUri);
+        Assert.argumentNotNull("format", m_format = format);
         Assert.argumentNotNull("httpUtils", m_httpUtils = httpUtils);
+        Assert.argumentNotNull("leaderElection", m_leaderElection = leaderElection);
+        Assert.argumentNotNull("workCoordinator", m_workCoordinator = workCoordinator);
         m_contentParsers = Collections.unmodifiableList(new ArrayList<>(contentParsers));
+        m_crawlDepth = crawlDepth;
+        m_crawlExecutor = 0 < crawlDepth ? Executors.newFixedThreadPool(CRAWL_THREADS,
+                new CustomizableThreadFactory("waldo-adds-")) : null;
+        m_schedule = new PublishSchedule(minDelay, maxDelay, publishLag, jitter, new Random());
+    }
+
+    /**
+     * Run an acquisition cycle if the {@link PublishSchedule} has made the directory due to be listed, and schedule the
+     * next cycle whether or not this one succeeds.
+     */
+    @Scheduled(fixedDelayString = "${waldo.acquisition.adds.poll_interval}")
+    public void poll()
+    {
+        if (m_schedule.isDue(System.currentTimeMillis()))
+        {
+            try
+            {
+                acquire();
+            }
+            finally
+            {
+                final long due = m_schedule.reschedule(System.currentTimeMillis());
+                LOG.debug("ADDS directory will next be listed in {}ms.", due - System.currentTimeMillis());
+            }
+        }
     }
 
-    @Scheduled(fixedDelayString = "${waldo.acquisition.adds.fixed_delay}")
     public void acquire()
     {
         /* Loop over all data files available in the ADDS current data directory. */
@@ -85,13 +170,40 @@ class AddsDataAcquirer
             timer = new StopWatch();
             timer.start();
         }
-        for (final AddsContent content : readAvailableContent())
+        final Map<URI, AddsContent> catalog = new LinkedHashMap<>();
+        final boolean complete = readAvailableContent(catalog);
+        for (final AddsContent content : catalog.values())
         {
-            boolean imported = false;
-            for (final AddsContentParser parser : m_contentParsers)
+            final List<AddsContentParser> parsers = new ArrayList<>(m_contentParsers.size());
+            if (isSelectedFormat(content))
             {
-                /* Found a parser which supports this content. */
-                if (parser.supports(content))
+                for (final AddsContentParser parser : m_contentParsers)
+                {
+                    if (parser.supports(content))
+                    {
+                        parsers.add(parser);
+                    }
+                }
+            }
+            if (!parsers.isEmpty())
+            {
+                /* Learn the publish interval of each product imported, whichever node imports it. */
+                m_schedule.observe(relativePath(content), content.getModified().getMillis());
+            }
+            if (parsers.isEmpty())
+            {
+                /* No parser was found which supports this content. */
+                LOG.debug("ADDS content {} was not imported because no supporting parser was found.", content);
+            }
+            else if (!m_workCoordinator.claim(workKey(content)))
+            {
+                /* Another node owns this content, or it has already been imported. */
+                LOG.debug("ADDS content {} was not imported because it was not claimed by this node.", content);
+            }
+            else
+            {
+                /* Import via each supporting parser. */
+                for (final AddsContentParser parser : parsers)
                 {
                     StopWatch parseTimer = null;
                     if (LOG.isDebugEnabled())
@@ -100,7 +212,6 @@ class AddsDataAcquirer
                         parseTimer.start();
                     }
                     acquireContent(content, parser);
-                    imported = true;
                     if (null != parseTimer)
                     {
                         parseTimer.stop();
@@ -108,13 +219,21 @@ class AddsDataAcquirer
                                 parseTimer.toString());
                     }
                 }
+                m_workCoordinator.complete(workKey(content));
             }
-            if (!imported && LOG.isDebugEnabled())
+        }
+        if (complete)
+        {
+            final int expired = m_schedule.expire();
+            if (0 != expired)
             {
-                /* No parser was found which supports this content. */
-                LOG.debug("ADDS content {} was not imported because no supporting parser was found.", content);
+                LOG.debug("{} product(s) no longer listed were dropped from the publish schedule.", expired);
             }
         }
+        if (m_leaderElection.isLeader())
+        {
+            m_workCoordinator.prune();
+        }
         if (null != timer)
         {
             timer.stop();
@@ -137,25 +256,154 @@ class AddsDataAcquirer
     }
 
     /**
-     * Read available content, as a list of {@link AddsContent} instances, from the ADDS current data directory. This
-     * issues a request to the data server and parses its (HTML) response.
+     * Stop the threads on which subdirectories are listed.
+     */
+    @PreDestroy
+    void close()
+    {
+        if (null != m_crawlExecutor)
+        {
+            m_crawlExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Read available content, as {@link AddsContent} instances, from the ADDS current data directory and, to the
+     * configured depth, its subdirectories. Each level of subdirectories is listed concurrently; a subdirectory which
+     * cannot be listed is skipped for this cycle, and the listing is then incomplete.
+     *
+     * @param catalog the map to which the content found is added, by location.
+     * @return {@code boolean} true if every subdirectory was listed.
+     * @throws DataAcquisitionException if an error occurs while reading the directory itself.
+     */
+    private boolean readAvailableContent(final Map<URI, AddsContent> catalog) throws DataAcquisitionException
+    {
+        final Set<URI> listed = new HashSet<>();
+        boolean result = true;
+        List<URI> level = new ArrayList<>();
+        listed.add(m_directoryUri);
+        for (final AddsContent content : readDirectory(m_directoryUri, 0 < m_crawlDepth ? level : null))
+        {
+            catalog.put(content.getLocation(), content);
+        }
+        for (int depth = 1; depth <= m_crawlDepth && !level.isEmpty(); depth++)
+        {
+            final List<URI> next = Collections.synchronizedList(new ArrayList<URI>());
+            final Map<URI, Future<List<AddsContent>>> futures = new LinkedHashMap<>();
+            for (final URI directory : level)
+            {
+                /* Follow only subdirectories beneath the directory, and list each once. */
+                if (directory.toString().startsWith(m_directoryUri.toString()) && listed.add(directory))
+                {
+                    final List<URI> directories = depth < m_crawlDepth ? next : null;
+                    futures.put(directory, m_crawlExecutor.submit(new Callable<List<AddsContent>>()
+                    {
+                        @Override
+                        public List<AddsContent> call()
+                        {
+                            return readDirectory(directory, directories);
+                        }
+                    }));
+                }
+            }
+            for (final Map.Entry<URI, Future<List<AddsContent>>> entry : futures.entrySet())
+            {
+                try
+                {
+                    for (final AddsContent content : entry.getValue().get())
+                    {
+                        catalog.put(content.getLocation(), content);
+                    }
+                }
+                catch (final ExecutionException e)
+                {
+                    result = false;
+                    LOG.warn(String.format("ADDS subdirectory [%s] was not listed.", entry.getKey()), e.getCause());
+                }
+                catch (final InterruptedException e)
+                {
+                    result = false;
+                    Thread.currentThread().interrupt();
+                    LOG.warn(String.format("Interrupted while listing ADDS subdirectory [%s].", entry.getKey()));
+                }
+            }
+            level = new ArrayList<>(next);
+        }
+        return result;
+    }
+
+    /**
+     * Read a single directory listing. This issues a request to the data server and parses its (HTML) response.
      *
-     * @return {@link List} of {@link AddsContent} instances describing the available content.
+     * @param directoryUri the location of the directory.
+     * @param directories the list to which the location of each subdirectory listed is added, or {@code null} if
+     * subdirectories are not of interest.
+     * @return {@link List} of {@link AddsContent} instances describing the files listed.
      * @throws DataAcquisitionException if an error occurs while reading the directory.
      */
-    private List<AddsContent> readAvailableContent() throws DataAcquisitionException
+    private List<AddsContent> readDirectory(final URI directoryUri, final List<URI> directories)
+            throws DataAcquisitionException
     {
-        return m_httpUtils.get(m_directoryUri, new ContentCallback<List<AddsContent>>()
+        return m_httpUtils.get(directoryUri, new ContentCallback<List<AddsContent>>()
         {
             /** {@inheritDoc} */
             @Override
             public List<AddsContent> execute(final InputStream content, final String contentType) throws IOException
             {
-                return m_directoryParser.parse(content, contentType, m_directoryUri);
+                return m_directoryParser.parse(content, contentType, directoryUri, directories);
             }
         });
     }
 
+    /**
+     * Determine whether content is in the selected format. Each product is published as several cache files, such as
+     * {@code metars.cache.csv.gz} and {@code metars.cache.xml.gz}, holding the same reports; only those in the selected
+     * format are imported, so that no product is imported twice. Content which is not a product cache file is always
+     * in the selected format.
+     *
+     * @param content the content.
+     * @return {@code boolean} true if the content is in the selected format.
+     */
+    private boolean isSelectedFormat(final AddsContent content)
+    {
+        final String name = content.getFileName();
+        final int cache = name.indexOf(".cache.");
+        boolean result = true;
+        if (cache >= 0)
+        {
+            final int start = cache + ".cache.".length();
+            final int end = name.indexOf('.', start);
+            result = m_format.equals(end < 0 ? name.substring(start) : name.substring(start, end));
+        }
+        return result;
+    }
+
+    /**
+     * Get the path of content relative to the ADDS current data directory, such as {@code metars.cache.csv.gz} or
+     * {@code dataserver1_3/metars.cache.csv.gz}. Files of the same name in different subdirectories are distinct
+     * products, so this path rather than the file name identifies a product to the {@link PublishSchedule} and
+     * {@link WorkCoordinator}; parsers, which recognize files by name, are still given the content as listed.
+     *
+     * @param content the content.
+     * @return {@link String} relative path.
+     */
+    private String relativePath(final AddsContent content)
+    {
+        return m_directoryUri.relativize(content.getLocation()).toString();
+    }
+
+    /**
+     * Get the key under which content is claimed: its relative path and modification time, so that each version of a
+     * file is a separate unit of work.
+     *
+     * @param content the content.
+     * @return {@link String} work key.
+     */
+    private String workKey(final AddsContent content)
+    {
+        return String.format("adds:%s@%d", relativePath(content), content.getModified().getMillis());
+    }
+
     private InputStream uncompressedStream(final InputStream stream, final String contentType) throws IOException
     {
         final InputStream result;
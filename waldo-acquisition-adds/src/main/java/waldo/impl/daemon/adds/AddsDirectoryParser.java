@@ -30,10 +30,12 @@ interface AddsDirectoryParser
      * @param content the content of the directory.
      * @param contentType the content type of the directory.
      * @param baseUri the base URI against which to resolve relative URIs in the directory.
+     * @param directories the list to which the location of each subdirectory listed is added, or {@code null} if
+     * subdirectories are not of interest.
      * @return {@link List} of {@link AddsContent} instances.
      * @throws IllegalStateException if the directory is not in the supported format.
      * @throws IOException if an error occurs while reading the directory.
      */
-    List<AddsContent> parse(InputStream content, String contentType, URI baseUri)
+    List<AddsContent> parse(InputStream content, String contentType, URI baseUri, List<URI> directories)
             throws IllegalStateException, IOException;
 }
@@ -54,8 +54,8 @@ class AddsDirectoryParserImpl implements AddsDirectoryParser
      * {@inheritDoc}
      */
     @Override
-    public List<AddsContent> parse(final InputStream content, final String contentType, final URI baseUri)
-            throws IllegalStateException, IOException
+    public List<AddsContent> parse(final InputStream content, final String contentType, final URI baseUri,
+                                   final List<URI> directories) throws IllegalStateException, IOException
     {
         /* Expect an HTML directory. */
         final List<AddsContent> result;
@@ -80,7 +80,7 @@ class AddsDirectoryParserImpl implements AddsDirectoryParser
                         e.getClass().getName(), e.getMessage()), e);
             }
 
-            /* Directory should contain a header row (which we ignore) then one row per data file. */
+            /* Directory should contain a header row (which we ignore) then one row per data file or subdirectory. */
             final Elements rows = document.select("tr:not(:first-child)");
             result = new ArrayList<>(rows.size());
             for (final Element nextRow : rows)
@@ -97,6 +97,11 @@ class AddsDirectoryParserImpl implements AddsDirectoryParser
                     final DateTime modified = s_modified.parseDateTime(columns.get(2).text());
                     result.add(new AddsContentImpl(name, location, size, modified));
                 }
+                else if (null != directories && columns.get(0).text().endsWith("/"))
+                {
+                    /* This is a subdirectory, such as dataserver1_3/, which has no size. */
+                    directories.add(baseUri.resolve(nextRow.getElementsByTag("a").get(0).attr("href")));
+                }
             }
         }
         if (LOG.isDebugEnabled())
@@ -0,0 +1,253 @@
+package waldo.impl.daemon.adds;
+
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.advisory.Advisory;
+import waldo.service.advisory.AdvisoryIndex;
+import waldo.utility.geo.BoundingBox;
+import waldo.utility.geo.Polygon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link AirSigmetsCacheCsvHandler} is an implementation of the {@link AddsContentParser} which parses AIRMETs and
+ * SIGMETs from the FAA Aviation Digital Data Service. Each advisory's area is read from its list of {@code lon:lat}
+ * points into a {@link Polygon}, and the advisories of the file, which lists all those currently issued, replace those
+ * held by the {@link AdvisoryIndex}. Columns are found by name from the column header; the raw text, being the first
+ * column and free text, is taken to be everything before the remaining columns. Advisories which cannot be read are
+ * counted and skipped.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class AirSigmetsCacheCsvHandler implements AddsContentParser
+{
+    private static final Logger LOG = LoggerFactory.getLogger(AirSigmetsCacheCsvHandler.class);
+    private static final DateTimeFormatter s_timeParser = ISODateTimeFormat.dateTimeParser().withZoneUTC();
+
+    private final AdvisoryIndex m_index;
+
+    /**
+     * Construct a {@link AirSigmetsCacheCsvHandler} instance.
+     *
+     * @param index the {@link AdvisoryIndex} component.
+     */
+    @Autowired
+    AirSigmetsCacheCsvHandler(final AdvisoryIndex index)
+    {
+        super();
+        m_index = index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void parse(final InputStream stream, final String contentType) throws IOException
+    {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "ASCII"));
+        final Advisory.Builder builder = new Advisory.Builder();
+        final List<Advisory> advisories = new ArrayList<>();
+        Columns columns = null;
+        int rejected = 0;
+        String line;
+        while (null != (line = reader.readLine()))
+        {
+            if (null == columns)
+            {
+                /* Lines preceding the column header describe the response rather than holding data. */
+                if (line.startsWith("raw_text,"))
+                {
+                    try
+                    {
+                        columns = new Columns(line.split(",", -1));
+                    }
+                    catch (final IllegalArgumentException e)
+                    {
+                        LOG.warn("AIRMETs and SIGMETs were not read.", e);
+                        break;
+                    }
+                }
+            }
+            else
+            {
+                final Advisory advisory = columns.decode(line, builder.reset());
+                if (null == advisory)
+                {
+                    rejected++;
+                }
+                else
+                {
+                    advisories.add(advisory);
+                }
+            }
+        }
+        if (null != columns)
+        {
+            /* A file cut short before its header must not clear the advisories held. */
+            m_index.replace(advisories);
+        }
+        LOG.debug("Read {} AIRMET(s) and SIGMET(s); rejected {}.", advisories.size(), rejected);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supports(final AddsContent content)
+    {
+        return "airsigmets.cache.csv.gz".equals(content.getFileName());
+    }
+
+    /**
+     * {@link Columns} holds the positions of the columns of interest, as given by the column header.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded
+     * access.
+     */
+    static final class Columns
+    {
+        private final int m_count;
+        private final int m_hazard;
+        private final int m_maxAltitude;
+        private final int m_minAltitude;
+        private final int m_points;
+        private final int m_severity;
+        private final int m_type;
+        private final int m_validFrom;
+        private final int m_validTo;
+
+        /**
+         * Construct a {@link Columns} instance.
+         *
+         * @param names the column names, in order.
+         * @throws IllegalArgumentException if a required column is missing, or the raw text is not the first column.
+         */
+        Columns(final String[] names) throws IllegalArgumentException
+        {
+            super();
+            final List<String> list = Arrays.asList(names);
+            m_count = names.length;
+            m_hazard = list.indexOf("hazard");
+            m_maxAltitude = list.indexOf("max_ft_msl");
+            m_minAltitude = list.indexOf("min_ft_msl");
+            m_points = list.indexOf("lon:lat points");
+            m_severity = list.indexOf("severity");
+            m_type = list.indexOf("airsigmet_type");
+            m_validFrom = list.indexOf("valid_time_from");
+            m_validTo = list.indexOf("valid_time_to");
+            if (0 != list.lastIndexOf("raw_text") || m_hazard < 0 || m_points < 0 || m_type < 0 || m_validFrom < 0
+                    || m_validTo < 0)
+            {
+                throw new IllegalArgumentException(String.format("Column header %s is not supported.", list));
+            }
+        }
+
+        /**
+         * Decode a line of data into an advisory.
+         *
+         * @param line the line.
+         * @param builder the builder to use, which has been reset.
+         * @return {@link Advisory} instance, or {@code null} if the line could not be decoded.
+         */
+        Advisory decode(final String line, final Advisory.Builder builder)
+        {
+            Advisory result = null;
+
+            /* Count columns back from the end of the line; the raw text may hold commas of its own. */
+            final String[] fields = new String[m_count];
+            int end = line.length();
+            for (int column = m_count - 1; column > 0 && end >= 0; column--)
+            {
+                final int comma = line.lastIndexOf(',', end - 1);
+                fields[column] = comma < 0 ? null : line.substring(comma + 1, end);
+                end = comma;
+            }
+            if (end > 0)
+            {
+                fields[0] = line.substring(0, end).trim();
+                try
+                {
+                    builder.setRawText(fields[0]);
+                    builder.setType(Advisory.Type.forCode(fields[m_type]));
+                    builder.setHazard(fields[m_hazard]);
+                    builder.setValidFrom(s_timeParser.parseMillis(fields[m_validFrom]));
+                    builder.setValidTo(s_timeParser.parseMillis(fields[m_validTo]));
+                    builder.setArea(area(fields[m_points]));
+                    builder.setMinAltitude(m_minAltitude < 0 ? Advisory.MISSING : altitude(fields[m_minAltitude]));
+                    builder.setMaxAltitude(m_maxAltitude < 0 ? Advisory.MISSING : altitude(fields[m_maxAltitude]));
+                    builder.setSeverity(m_severity < 0 || fields[m_severity].isEmpty() ? null : fields[m_severity]);
+                    result = builder.toAdvisory();
+                }
+                catch (final IllegalArgumentException e)
+                {
+                    /* Includes NumberFormatException. */
+                    LOG.trace("Rejected advisory [{}].", line, e);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Parse an altitude.
+         *
+         * @param field the field value.
+         * @return {@code int} altitude in feet, or {@link Advisory#MISSING} if the field is empty.
+         * @throws NumberFormatException if the field is not a number.
+         */
+        private static int altitude(final String field) throws NumberFormatException
+        {
+            return field.isEmpty() ? Advisory.MISSING : Integer.parseInt(field);
+        }
+
+        /**
+         * Parse an area given as {@code lon:lat} points separated by semicolons.
+         *
+         * @param field the field value.
+         * @return {@link Polygon} instance.
+         * @throws IllegalArgumentException if the points do not describe a valid polygon.
+         */
+        static Polygon area(final String field) throws IllegalArgumentException
+        {
+            final String[] points = field.trim().split("\\s*;\\s*");
+            final int[] latitudes = new int[points.length];
+            final int[] longitudes = new int[points.length];
+            for (int point = 0; point < points.length; point++)
+            {
+                final int colon = points[point].indexOf(':');
+                if (colon < 0)
+                {
+                    throw new IllegalArgumentException(String.format("Point [%s] is not valid.", points[point]));
+                }
+                longitudes[point] = BoundingBox.toUnits(Double.parseDouble(points[point].substring(0, colon)));
+                latitudes[point] = BoundingBox.toUnits(Double.parseDouble(points[point].substring(colon + 1)));
+            }
+            return new Polygon(latitudes, longitudes);
+        }
+    }
+}
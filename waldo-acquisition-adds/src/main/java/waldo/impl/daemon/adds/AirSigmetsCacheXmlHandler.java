@@ -0,0 +1,228 @@
+package waldo.impl.daemon.adds;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.advisory.Advisory;
+import waldo.service.advisory.AdvisoryIndex;
+import waldo.utility.geo.BoundingBox;
+import waldo.utility.geo.Polygon;
+
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link AirSigmetsCacheXmlHandler} is an implementation of the {@link AddsContentParser} which parses AIRMETs and
+ * SIGMETs from the XML form of the FAA Aviation Digital Data Service file. Each {@code AIRSIGMET} element is bound into
+ * an {@link Advisory}, its {@code area} points becoming a {@link Polygon}; once the whole file has been read, the
+ * advisories replace those held by the {@link AdvisoryIndex}, just as with {@link AirSigmetsCacheCsvHandler}.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class AirSigmetsCacheXmlHandler extends AbstractXmlContentParser
+{
+    private static final Logger LOG = LoggerFactory.getLogger(AirSigmetsCacheXmlHandler.class);
+
+    private static final String ADVISORY = "AIRSIGMET";
+    private static final String ALTITUDE = "altitude";
+    private static final String HAZARD = "hazard";
+    private static final String LATITUDE = "latitude";
+    private static final String LONGITUDE = "longitude";
+    private static final String POINT = "point";
+    private static final String RAW_TEXT = "raw_text";
+    private static final String TYPE = "airsigmet_type";
+    private static final String VALID_FROM = "valid_time_from";
+    private static final String VALID_TO = "valid_time_to";
+
+    private final AdvisoryIndex m_index;
+
+    /**
+     * Construct a {@link AirSigmetsCacheXmlHandler} instance.
+     *
+     * @param index the {@link AdvisoryIndex} component.
+     */
+    @Autowired
+    AirSigmetsCacheXmlHandler(final AdvisoryIndex index)
+    {
+        super(ADVISORY, ALTITUDE, HAZARD, LATITUDE, LONGITUDE, POINT, RAW_TEXT, TYPE, VALID_FROM, VALID_TO);
+        m_index = index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supports(final AddsContent content)
+    {
+        return "airsigmets.cache.xml.gz".equals(content.getFileName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Binder createBinder()
+    {
+        return new Binder()
+        {
+            private final List<Advisory> m_advisories = new ArrayList<>();
+            private final Advisory.Builder m_builder = new Advisory.Builder();
+            private int[] m_latitudes = new int[16];
+            private int[] m_longitudes = new int[16];
+            private int m_points;
+            private int m_rejected;
+            private boolean m_valid;
+
+            @Override
+            public void startElement(final String name, final XMLStreamReader reader)
+            {
+                try
+                {
+                    if (ADVISORY == name)
+                    {
+                        m_builder.reset();
+                        m_points = 0;
+                        m_valid = true;
+                    }
+                    else if (!m_valid)
+                    {
+                        /* Nothing to bind. */
+                    }
+                    else if (POINT == name)
+                    {
+                        if (m_points == m_latitudes.length)
+                        {
+                            m_latitudes = Arrays.copyOf(m_latitudes, m_points * 2);
+                            m_longitudes = Arrays.copyOf(m_longitudes, m_points * 2);
+                        }
+                        m_latitudes[m_points] = Integer.MIN_VALUE;
+                        m_longitudes[m_points] = Integer.MIN_VALUE;
+                        m_points++;
+                    }
+                    else if (ALTITUDE == name)
+                    {
+                        m_builder.setMinAltitude(getIntAttribute(reader, "min_ft_msl", Advisory.MISSING));
+                        m_builder.setMaxAltitude(getIntAttribute(reader, "max_ft_msl", Advisory.MISSING));
+                    }
+                    else if (HAZARD == name)
+                    {
+                        final String severity = reader.getAttributeValue(null, "severity");
+                        m_builder.setHazard(reader.getAttributeValue(null, "type"));
+                        m_builder.setSeverity(null == severity || severity.isEmpty() ? null : severity);
+                    }
+                }
+                catch (final IllegalArgumentException e)
+                {
+                    /* Includes NumberFormatException. */
+                    m_valid = false;
+                }
+            }
+
+            @Override
+            public void endElement(final String name, final String text)
+            {
+                try
+                {
+                    if (ADVISORY == name)
+                    {
+                        endAdvisory();
+                    }
+                    else if (!m_valid || text.isEmpty())
+                    {
+                        /* Nothing to bind. */
+                    }
+                    else if (LATITUDE == name && 0 != m_points)
+                    {
+                        m_latitudes[m_points - 1] = BoundingBox.toUnits(Double.parseDouble(text));
+                    }
+                    else if (LONGITUDE == name && 0 != m_points)
+                    {
+                        m_longitudes[m_points - 1] = BoundingBox.toUnits(Double.parseDouble(text));
+                    }
+                    else if (RAW_TEXT == name)
+                    {
+                        m_builder.setRawText(text);
+                    }
+                    else if (TYPE == name)
+                    {
+                        m_builder.setType(Advisory.Type.forCode(text));
+                    }
+                    else if (VALID_FROM == name)
+                    {
+                        m_builder.setValidFrom(toTime(text));
+                    }
+                    else if (VALID_TO == name)
+                    {
+                        m_builder.setValidTo(toTime(text));
+                    }
+                }
+                catch (final IllegalArgumentException e)
+                {
+                    /* Includes NumberFormatException. */
+                    m_valid = false;
+                }
+            }
+
+            @Override
+            public void end()
+            {
+                m_index.replace(m_advisories);
+                LOG.debug("Read {} AIRMET(s) and SIGMET(s); rejected {}.", m_advisories.size(), m_rejected);
+            }
+
+            /**
+             * End an advisory, collecting it if it is valid.
+             */
+            private void endAdvisory()
+            {
+                Advisory advisory = null;
+                if (m_valid)
+                {
+                    try
+                    {
+                        for (int point = 0; point < m_points; point++)
+                        {
+                            if (Integer.MIN_VALUE == m_latitudes[point] || Integer.MIN_VALUE == m_longitudes[point])
+                            {
+                                throw new IllegalArgumentException("Area point is incomplete.");
+                            }
+                        }
+                        advisory = m_builder.setArea(new Polygon(Arrays.copyOf(m_latitudes, m_points), Arrays.copyOf(
+                                m_longitudes, m_points))).toAdvisory();
+                    }
+                    catch (final IllegalArgumentException e)
+                    {
+                        /* Too few points, or a required element is missing. */
+                    }
+                }
+                if (null == advisory)
+                {
+                    m_rejected++;
+                }
+                else
+                {
+                    m_advisories.add(advisory);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,313 @@
+package waldo.impl.daemon.adds;
+
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.aircraft.AircraftReport;
+import waldo.service.aircraft.AircraftReportIndex;
+import waldo.utility.geo.BoundingBox;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link AircraftReportsCacheCsvHandler} is an implementation of the {@link AddsContentParser} which parses aircraft
+ * (pilot) reports from the FAA Aviation Digital Data Service and adds them to the {@link AircraftReportIndex}. Reports
+ * are read a line at a time, keeping only the position, altitude, turbulence, icing and cloud tops. Columns are found
+ * by name from the column header; the turbulence, icing and cloud columns are repeated for each condition reported,
+ * and the most severe (or highest) is kept. Reports which cannot be read are counted and skipped.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class AircraftReportsCacheCsvHandler implements AddsContentParser
+{
+    private static final Logger LOG = LoggerFactory.getLogger(AircraftReportsCacheCsvHandler.class);
+    private static final DateTimeFormatter s_timeParser = ISODateTimeFormat.dateTimeParser().withZoneUTC();
+
+    private final AircraftReportIndex m_index;
+
+    /**
+     * Construct a {@link AircraftReportsCacheCsvHandler} instance.
+     *
+     * @param index the {@link AircraftReportIndex} component.
+     */
+    @Autowired
+    AircraftReportsCacheCsvHandler(final AircraftReportIndex index)
+    {
+        super();
+        m_index = index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void parse(final InputStream stream, final String contentType) throws IOException
+    {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "ASCII"));
+        final AircraftReport.Builder builder = new AircraftReport.Builder();
+        Columns columns = null;
+        int added = 0;
+        int rejected = 0;
+        int total = 0;
+        String line;
+        while (null != (line = reader.readLine()))
+        {
+            if (null == columns)
+            {
+                /* Lines preceding the column header describe the response rather than holding data. */
+                if (line.startsWith("receipt_time,"))
+                {
+                    try
+                    {
+                        columns = new Columns(line.split(",", -1));
+                    }
+                    catch (final IllegalArgumentException e)
+                    {
+                        LOG.warn("Aircraft reports were not read.", e);
+                        break;
+                    }
+                }
+            }
+            else
+            {
+                total++;
+                final AircraftReport report = columns.decode(line, builder.reset());
+                if (null == report)
+                {
+                    rejected++;
+                }
+                else if (m_index.add(report))
+                {
+                    added++;
+                }
+            }
+        }
+        LOG.debug("Read {} aircraft report(s); added {}, rejected {}.", total, added, rejected);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supports(final AddsContent content)
+    {
+        return "aircraftreports.cache.csv.gz".equals(content.getFileName());
+    }
+
+    /**
+     * {@link Columns} holds the positions of the columns of interest, as given by the column header.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded
+     * access.
+     */
+    static final class Columns
+    {
+        private final int m_aircraftType;
+        private final int m_altitude;
+        private final int[] m_cloudTops;
+        private final int m_count;
+        private final int[] m_icingBases;
+        private final int[] m_icingIntensities;
+        private final int[] m_icingTops;
+        private final int m_latitude;
+        private final int m_longitude;
+        private final int m_observedAt;
+        private final int m_rawText;
+        private final int m_type;
+        private final int[] m_turbulenceBases;
+        private final int[] m_turbulenceIntensities;
+        private final int[] m_turbulenceTops;
+
+        /**
+         * Construct a {@link Columns} instance.
+         *
+         * @param names the column names, in order.
+         * @throws IllegalArgumentException if a required column is missing, or the raw text is not the last column.
+         */
+        Columns(final String[] names) throws IllegalArgumentException
+        {
+            super();
+            m_count = names.length;
+            m_aircraftType = position(names, "aircraft_ref");
+            m_altitude = position(names, "altitude_ft_msl");
+            m_cloudTops = positions(names, "cloud_top_ft_msl");
+            m_icingBases = positions(names, "icing_base_ft_msl");
+            m_icingIntensities = positions(names, "icing_intensity");
+            m_icingTops = positions(names, "icing_top_ft_msl");
+            m_latitude = position(names, "latitude");
+            m_longitude = position(names, "longitude");
+            m_observedAt = position(names, "observation_time");
+            m_rawText = position(names, "raw_text");
+            m_type = position(names, "report_type");
+            m_turbulenceBases = positions(names, "turbulence_base_ft_msl");
+            m_turbulenceIntensities = positions(names, "turbulence_intensity");
+            m_turbulenceTops = positions(names, "turbulence_top_ft_msl");
+            if (m_rawText != m_count - 1 || m_icingBases.length != m_icingIntensities.length || m_icingTops.length
+                    != m_icingIntensities.length || m_turbulenceBases.length != m_turbulenceIntensities.length
+                    || m_turbulenceTops.length != m_turbulenceIntensities.length)
+            {
+                throw new IllegalArgumentException(String.format("Column header %s is not supported.", Arrays
+                        .toString(names)));
+            }
+        }
+
+        /**
+         * Decode a line of data into a report.
+         *
+         * @param line the line.
+         * @param builder the builder to use, which has been reset.
+         * @return {@link AircraftReport} instance, or {@code null} if the line could not be decoded.
+         */
+        AircraftReport decode(final String line, final AircraftReport.Builder builder)
+        {
+            AircraftReport result = null;
+
+            /* The raw text, being the last column, takes the remainder of the line, whatever commas it holds. */
+            final String[] fields = line.split(",", m_count);
+            if (m_count == fields.length && !fields[m_rawText].isEmpty())
+            {
+                try
+                {
+                    builder.setObservedAt(s_timeParser.parseMillis(fields[m_observedAt]));
+                    builder.setLatitude(BoundingBox.toUnits(Double.parseDouble(fields[m_latitude])));
+                    builder.setLongitude(BoundingBox.toUnits(Double.parseDouble(fields[m_longitude])));
+                    builder.setAltitude(altitude(fields[m_altitude]));
+                    builder.setAircraftType(fields[m_aircraftType].isEmpty() ? null : fields[m_aircraftType]);
+                    final AircraftReport.Type type = AircraftReport.Type.forCode(fields[m_type]);
+                    builder.setType(null == type ? AircraftReport.Type.PIREP : type);
+                    int cloudTop = AircraftReport.MISSING;
+                    for (final int column : m_cloudTops)
+                    {
+                        cloudTop = Math.max(cloudTop, altitude(fields[column]));
+                    }
+                    builder.setCloudTop(cloudTop);
+                    final int turbulence = worst(fields, m_turbulenceIntensities);
+                    if (turbulence >= 0)
+                    {
+                        builder.setTurbulence(AircraftReport.Intensity.forCode(fields[m_turbulenceIntensities[
+                                turbulence]]), altitude(fields[m_turbulenceBases[turbulence]]), altitude(
+                                fields[m_turbulenceTops[turbulence]]));
+                    }
+                    final int icing = worst(fields, m_icingIntensities);
+                    if (icing >= 0)
+                    {
+                        builder.setIcing(AircraftReport.Intensity.forCode(fields[m_icingIntensities[icing]]),
+                                altitude(fields[m_icingBases[icing]]), altitude(fields[m_icingTops[icing]]));
+                    }
+                    result = builder.setRawText(fields[m_rawText]).toReport();
+                }
+                catch (final IllegalArgumentException e)
+                {
+                    /* Includes NumberFormatException. */
+                    LOG.trace("Rejected aircraft report [{}].", line, e);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Parse an altitude.
+         *
+         * @param field the field value.
+         * @return {@code int} altitude in feet, or {@link AircraftReport#MISSING} if the field is empty.
+         * @throws NumberFormatException if the field is not a number.
+         */
+        private static int altitude(final String field) throws NumberFormatException
+        {
+            return field.isEmpty() ? AircraftReport.MISSING : Integer.parseInt(field);
+        }
+
+        /**
+         * Find the position of a column which must appear once.
+         *
+         * @param names the column names.
+         * @param name the column name.
+         * @return {@code int} position of the column.
+         * @throws IllegalArgumentException if the column does not appear exactly once.
+         */
+        private static int position(final String[] names, final String name) throws IllegalArgumentException
+        {
+            final int[] positions = positions(names, name);
+            if (1 != positions.length)
+            {
+                throw new IllegalArgumentException(String.format("Column [%s] appears %d times.", name,
+                        positions.length));
+            }
+            return positions[0];
+        }
+
+        /**
+         * Find the positions of a column which may be repeated.
+         *
+         * @param names the column names.
+         * @param name the column name.
+         * @return {@code int[]} positions of the column, in order.
+         */
+        private static int[] positions(final String[] names, final String name)
+        {
+            final List<Integer> positions = new ArrayList<>();
+            for (int index = 0; index < names.length; index++)
+            {
+                if (name.equals(names[index]))
+                {
+                    positions.add(index);
+                }
+            }
+            final int[] result = new int[positions.size()];
+            for (int index = 0; index < result.length; index++)
+            {
+                result[index] = positions.get(index);
+            }
+            return result;
+        }
+
+        /**
+         * Find the most severe of a repeated intensity column.
+         *
+         * @param fields the field values.
+         * @param positions the positions of the intensity column.
+         * @return {@code int} index into {@code positions} of the most severe recognized intensity, or {@code -1} if
+         * none is recognized.
+         */
+        private static int worst(final String[] fields, final int[] positions)
+        {
+            int result = -1;
+            AircraftReport.Intensity worst = null;
+            for (int index = 0; index < positions.length; index++)
+            {
+                final AircraftReport.Intensity intensity = AircraftReport.Intensity.forCode(fields[positions[index]]);
+                if (null != intensity && (null == worst || intensity.compareTo(worst) > 0))
+                {
+                    worst = intensity;
+                    result = index;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package waldo.impl.daemon.adds;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.aircraft.AircraftReport;
+import waldo.service.aircraft.AircraftReportIndex;
+import waldo.utility.geo.BoundingBox;
+
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * {@link AircraftReportsCacheXmlHandler} is an implementation of the {@link AddsContentParser} which parses PIREPs and
+ * AIREPs from the XML form of the FAA Aviation Digital Data Service file. Each {@code AircraftReport} element is bound
+ * into an {@link AircraftReport} and added to the {@link AircraftReportIndex}, just as
+ * {@link AircraftReportsCacheCsvHandler} does with each line. Where several turbulence or icing conditions are given,
+ * the most severe is kept; where several cloud layers are given, the highest top is kept.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class AircraftReportsCacheXmlHandler extends AbstractXmlContentParser
+{
+    private static final Logger LOG = LoggerFactory.getLogger(AircraftReportsCacheXmlHandler.class);
+
+    private static final String AIRCRAFT_REPORT = "AircraftReport";
+    private static final String AIRCRAFT_TYPE = "aircraft_ref";
+    private static final String ALTITUDE = "altitude_ft_msl";
+    private static final String ICING = "icing_condition";
+    private static final String LATITUDE = "latitude";
+    private static final String LONGITUDE = "longitude";
+    private static final String OBSERVATION_TIME = "observation_time";
+    private static final String RAW_TEXT = "raw_text";
+    private static final String REPORT_TYPE = "report_type";
+    private static final String SKY_CONDITION = "sky_condition";
+    private static final String TURBULENCE = "turbulence_condition";
+
+    private final AircraftReportIndex m_index;
+
+    /**
+     * Construct a {@link AircraftReportsCacheXmlHandler} instance.
+     *
+     * @param index the {@link AircraftReportIndex} component.
+     */
+    @Autowired
+    AircraftReportsCacheXmlHandler(final AircraftReportIndex index)
+    {
+        super(AIRCRAFT_REPORT, AIRCRAFT_TYPE, ALTITUDE, ICING, LATITUDE, LONGITUDE, OBSERVATION_TIME, RAW_TEXT,
+                REPORT_TYPE, SKY_CONDITION, TURBULENCE);
+        m_index = index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supports(final AddsContent content)
+    {
+        return "aircraftreports.cache.xml.gz".equals(content.getFileName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Binder createBinder()
+    {
+        return new Binder()
+        {
+            private final AircraftReport.Builder m_builder = new AircraftReport.Builder();
+            private int m_added;
+            private int m_cloudTop;
+            private AircraftReport.Intensity m_icing;
+            private int m_rejected;
+            private int m_total;
+            private AircraftReport.Intensity m_turbulence;
+            private boolean m_valid;
+
+            @Override
+            public void startElement(final String name, final XMLStreamReader reader)
+            {
+                try
+                {
+                    if (AIRCRAFT_REPORT == name)
+                    {
+                        m_builder.reset().setType(AircraftReport.Type.PIREP);
+                        m_cloudTop = AircraftReport.MISSING;
+                        m_icing = null;
+                        m_turbulence = null;
+                        m_valid = true;
+                    }
+                    else if (!m_valid)
+                    {
+                        /* Nothing to bind. */
+                    }
+                    else if (SKY_CONDITION == name)
+                    {
+                        m_cloudTop = Math.max(m_cloudTop, getIntAttribute(reader, "cloud_top_ft_msl",
+                                AircraftReport.MISSING));
+                    }
+                    else if (TURBULENCE == name)
+                    {
+                        final AircraftReport.Intensity intensity = worse(m_turbulence, reader, "turbulence");
+                        if (m_turbulence != intensity)
+                        {
+                            m_turbulence = intensity;
+                            m_builder.setTurbulence(intensity, getIntAttribute(reader, "turbulence_base_ft_msl",
+                                    AircraftReport.MISSING), getIntAttribute(reader, "turbulence_top_ft_msl",
+                                    AircraftReport.MISSING));
+                        }
+                    }
+                    else if (ICING == name)
+                    {
+                        final AircraftReport.Intensity intensity = worse(m_icing, reader, "icing");
+                        if (m_icing != intensity)
+                        {
+                            m_icing = intensity;
+                            m_builder.setIcing(intensity, getIntAttribute(reader, "icing_base_ft_msl",
+                                    AircraftReport.MISSING), getIntAttribute(reader, "icing_top_ft_msl",
+                                    AircraftReport.MISSING));
+                        }
+                    }
+                }
+                catch (final IllegalArgumentException e)
+                {
+                    /* Includes NumberFormatException. */
+                    m_valid = false;
+                }
+            }
+
+            @Override
+            public void endElement(final String name, final String text)
+            {
+                try
+                {
+                    if (AIRCRAFT_REPORT == name)
+                    {
+                        endReport();
+                    }
+                    else if (!m_valid || text.isEmpty())
+                    {
+                        /* Nothing to bind. */
+                    }
+                    else if (OBSERVATION_TIME == name)
+                    {
+                        m_builder.setObservedAt(toTime(text));
+                    }
+                    else if (LATITUDE == name)
+                    {
+                        m_builder.setLatitude(BoundingBox.toUnits(Double.parseDouble(text)));
+                    }
+                    else if (LONGITUDE == name)
+                    {
+                        m_builder.setLongitude(BoundingBox.toUnits(Double.parseDouble(text)));
+                    }
+                    else if (ALTITUDE == name)
+                    {
+                        m_builder.setAltitude(Integer.parseInt(text));
+                    }
+                    else if (AIRCRAFT_TYPE == name)
+                    {
+                        m_builder.setAircraftType(text);
+                    }
+                    else if (REPORT_TYPE == name)
+                    {
+                        final AircraftReport.Type type = AircraftReport.Type.forCode(text);
+                        m_builder.setType(null == type ? AircraftReport.Type.PIREP : type);
+                    }
+                    else if (RAW_TEXT == name)
+                    {
+                        m_builder.setRawText(text);
+                    }
+                }
+                catch (final IllegalArgumentException e)
+                {
+                    /* Includes NumberFormatException. */
+                    m_valid = false;
+                }
+            }
+
+            @Override
+            public void end()
+            {
+                LOG.debug("Read {} aircraft report(s); added {}, rejected {}.", m_total, m_added, m_rejected);
+            }
+
+            /**
+             * End a report, adding it to the index if it is valid.
+             */
+            private void endReport()
+            {
+                m_total++;
+                AircraftReport report = null;
+                if (m_valid)
+                {
+                    try
+                    {
+                        report = m_builder.setCloudTop(m_cloudTop).toReport();
+                    }
+                    catch (final IllegalArgumentException e)
+                    {
+                        /* The report has no raw text. */
+                    }
+                }
+                if (null == report)
+                {
+                    m_rejected++;
+                }
+                else if (m_index.add(report))
+                {
+                    m_added++;
+                }
+            }
+        };
+    }
+
+    /**
+     * Find the more severe of a condition already seen and the one described by the current element.
+     *
+     * @param worst the most severe intensity seen so far, or {@code null} if none.
+     * @param reader the reader, positioned at the start of a condition element.
+     * @param kind the attribute name prefix, such as {@code icing}.
+     * @return {@link AircraftReport.Intensity} the more severe recognized intensity, or {@code worst} if the current
+     * element is no more severe.
+     */
+    private static AircraftReport.Intensity worse(final AircraftReport.Intensity worst, final XMLStreamReader reader,
+                                                  final String kind)
+    {
+        final AircraftReport.Intensity intensity = AircraftReport.Intensity.forCode(reader.getAttributeValue(null,
+                kind + "_intensity"));
+        return null != intensity && (null == worst || intensity.compareTo(worst) > 0) ? intensity : worst;
+    }
+}
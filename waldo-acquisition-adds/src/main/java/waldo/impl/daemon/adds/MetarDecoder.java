@@ -0,0 +1,302 @@
+package waldo.impl.daemon.adds;
+
+import waldo.entity.FlightCategory;
+import waldo.entity.PresentWeather;
+import waldo.entity.ReportType;
+import waldo.service.observation.ObservationRecord;
+
+/**
+ * {@link MetarDecoder} decodes the raw text of METAR and SPECI reports into {@link ObservationRecord}s. The ADDS CSV
+ * carries only a subset of the elements of a report; the raw text carries them all, including the remarks, so every
+ * report is decoded from its text.
+ * <p>
+ * Decoding is a single pass over the text, as described by {@link AbstractReportDecoder}, which creates no object other
+ * than the resulting record. The body groups decoded are those common to all reports, and temperature and dewpoint
+ * and altimeter (inches of mercury or hectopascals.) The remark groups decoded are the {@code SLP} sea level
+ * pressure, the {@code P} hourly precipitation, the {@code T} group precise temperature and dewpoint (which replace
+ * those of the body), the {@code 5} group pressure tendency and lightning.
+ * <p>
+ * Malformed input never causes an exception: a group which is not recognized is skipped, and a report is rejected only
+ * if it lacks a valid station identifier or observation time, or is {@code NIL}. Present weather, pressure tendency and
+ * lightning have no place in an {@link ObservationRecord}, so they are available from this decoder until the next
+ * report is decoded.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access; each
+ * thread uses its own.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+final class MetarDecoder extends AbstractReportDecoder
+{
+    private final ObservationRecord.Builder m_builder = new ObservationRecord.Builder();
+    private boolean m_lightning;
+    private boolean m_nil;
+    private short m_pressureChange;
+    private short m_pressureTendency;
+
+    /**
+     * Construct a {@link MetarDecoder} instance.
+     */
+    MetarDecoder()
+    {
+        super();
+    }
+
+    /**
+     * Decode a report.
+     *
+     * @param text the raw text of the report.
+     * @param reference the time, in milliseconds since the epoch, at or shortly after which the report was issued; the
+     * report gives only the day of the month, which is taken to be the latest such day not more than one day after
+     * {@code reference}.
+     * @return {@link ObservationRecord} instance, or {@code null} if the report could not be decoded.
+     */
+    ObservationRecord decode(final CharSequence text, final long reference)
+    {
+        return decode(text, 0, text.length(), reference);
+    }
+
+    /**
+     * Decode a report held within a larger text, such as a line of CSV.
+     *
+     * @param text the text.
+     * @param start the start of the raw text of the report within {@code text} (inclusive.)
+     * @param end the end of the raw text of the report within {@code text} (exclusive.)
+     * @param reference the reference time; see {@link #decode(CharSequence, long)}.
+     * @return {@link ObservationRecord} instance, or {@code null} if the report could not be decoded.
+     */
+    ObservationRecord decode(final CharSequence text, final int start, final int end, final long reference)
+    {
+        begin(text, start, end);
+        m_lightning = false;
+        m_nil = false;
+        m_pressureChange = ObservationRecord.MISSING;
+        m_pressureTendency = ObservationRecord.MISSING;
+        m_builder.reset().setReportType(ReportType.METAR);
+
+        ObservationRecord result = null;
+        if (decodeHeader(reference))
+        {
+            boolean remarks = false;
+            while (nextToken())
+            {
+                if (remarks)
+                {
+                    decodeRemark();
+                }
+                else if (is("RMK"))
+                {
+                    remarks = true;
+                }
+                else
+                {
+                    decodeBody();
+                }
+            }
+            if (!m_nil)
+            {
+                result = m_builder.setWindDirection(m_windDirection).setWindSpeed(m_windSpeed).setWindGust(m_windGust)
+                        .setVisibility(m_visibility).setSkyLayers(m_sky)
+                        .setFlightCategory(FlightCategory.categorize(m_sky, m_visibility)).toRecord();
+            }
+        }
+        m_text = null;
+        return result;
+    }
+
+    /**
+     * Get the present weather of the report most recently decoded.
+     *
+     * @return {@code long} weather packed as described by {@link PresentWeather}.
+     */
+    long getWeather()
+    {
+        return m_weather;
+    }
+
+    /**
+     * Get the pressure tendency of the report most recently decoded.
+     *
+     * @return {@code short} WMO tendency code ({@code 0} to {@code 8}), or {@link ObservationRecord#MISSING}.
+     */
+    short getPressureTendency()
+    {
+        return m_pressureTendency;
+    }
+
+    /**
+     * Get the pressure change over the last three hours, from the report most recently decoded.
+     *
+     * @return {@code short} change in tenths of a hectopascal, negative if falling, or
+     * {@link ObservationRecord#MISSING}.
+     */
+    short getPressureChange()
+    {
+        return m_pressureChange;
+    }
+
+    /**
+     * Determine whether lightning was remarked in the report most recently decoded.
+     *
+     * @return {@code boolean} true if lightning was remarked.
+     */
+    boolean isLightning()
+    {
+        return m_lightning;
+    }
+
+    /**
+     * Decode the report type, station and observation time.
+     *
+     * @param reference the reference time.
+     * @return {@code boolean} true if a station and observation time were found.
+     */
+    private boolean decodeHeader(final long reference)
+    {
+        boolean result = nextToken();
+        if (result && (is("METAR") || is("SPECI")))
+        {
+            m_builder.setReportType('S' == m_text.charAt(m_start) ? ReportType.SPECI : ReportType.METAR);
+            result = nextToken();
+        }
+        final String station = result ? decodeStation() : null;
+        final long observedAt = null != station && nextToken() ? decodeTime(reference) : Long.MIN_VALUE;
+        result = Long.MIN_VALUE != observedAt;
+        if (result)
+        {
+            m_builder.setStation(station).setObservedAt(observedAt);
+        }
+        return result;
+    }
+
+    /**
+     * Decode the current token as a group of the body of the report, skipping it if it is not recognized.
+     */
+    private void decodeBody()
+    {
+        final char first = m_text.charAt(m_start);
+        if (is("NIL"))
+        {
+            m_nil = true;
+        }
+        else if (decodeElement())
+        {
+            /* A wind, visibility, sky condition or weather group. */
+        }
+        else if (('A' == first || 'Q' == first) && 5 == m_end - m_start && digits(m_start + 1, m_end) >= 0)
+        {
+            final int value = digits(m_start + 1, m_end);
+            m_builder.setAltimeter((short) ('A' == first ? value : Math.round(value * 2.9530)));
+        }
+        else
+        {
+            decodeTemperature();
+        }
+    }
+
+    /**
+     * Decode the current token as a temperature and dewpoint group, such as {@code 12/08}, {@code M02/M05},
+     * {@code 15/} or {@code 15///}.
+     *
+     * @return {@code boolean} true if the token is a temperature and dewpoint group.
+     */
+    private boolean decodeTemperature()
+    {
+        final int slash = indexOf('/', m_start, m_end);
+        final int temperature = slash < 0 ? Integer.MIN_VALUE : degrees(m_start, slash);
+        final int dewpoint = slash < 0 ? Integer.MIN_VALUE : degrees(slash + 1, m_end);
+        boolean result = Integer.MIN_VALUE != temperature;
+        for (int i = slash + 1; result && Integer.MIN_VALUE == dewpoint && i < m_end; i++)
+        {
+            /* A dewpoint which is not reported must be empty or slashes. */
+            result = '/' == m_text.charAt(i);
+        }
+        if (result)
+        {
+            m_builder.setTemperature((short) (temperature * 10));
+            m_builder.setDewpoint(Integer.MIN_VALUE == dewpoint ? ObservationRecord.MISSING : (short) (dewpoint * 10));
+        }
+        return result;
+    }
+
+    /**
+     * Decode the current token as a remark, skipping it if it is not one of those decoded.
+     */
+    private void decodeRemark()
+    {
+        final int length = m_end - m_start;
+        final char first = m_text.charAt(m_start);
+        if (6 == length && is(m_start, "SLP") && digits(m_start + 3, m_end) >= 0)
+        {
+            final int pressure = digits(m_start + 3, m_end);
+            m_builder.setSeaLevelPressure((short) (pressure + (pressure < 500 ? 10000 : 9000)));
+        }
+        else if ('P' == first && 5 == length && digits(m_start + 1, m_end) >= 0)
+        {
+            m_builder.setPrecipitation((short) digits(m_start + 1, m_end));
+        }
+        else if ('T' == first && (5 == length || 9 == length) && digits(m_start + 1, m_end) >= 0)
+        {
+            final int temperature = tenths(m_start + 1);
+            if (Integer.MIN_VALUE != temperature)
+            {
+                m_builder.setTemperature((short) temperature);
+            }
+            final int dewpoint = 9 == length ? tenths(m_start + 5) : Integer.MIN_VALUE;
+            if (Integer.MIN_VALUE != dewpoint)
+            {
+                m_builder.setDewpoint((short) dewpoint);
+            }
+        }
+        else if ('5' == first && 5 == length && digits(m_start + 1, m_end) >= 0 && m_text.charAt(m_start + 1) <= '8')
+        {
+            final int tendency = m_text.charAt(m_start + 1) - '0';
+            final int change = digits(m_start + 2, m_end);
+            m_pressureTendency = (short) tendency;
+            m_pressureChange = (short) (tendency >= 5 ? -change : change);
+        }
+        else if (length >= 3 && is(m_start, "LTG"))
+        {
+            m_lightning = true;
+        }
+    }
+
+    /**
+     * Parse a whole number of degrees Celsius, such as {@code 08} or {@code M02}.
+     *
+     * @param start the start of the value (inclusive).
+     * @param end the end of the value (exclusive.)
+     * @return {@code int} degrees, or {@link Integer#MIN_VALUE} if the value is not valid.
+     */
+    private int degrees(final int start, final int end)
+    {
+        final boolean negative = start < end && 'M' == m_text.charAt(start);
+        final int first = negative ? start + 1 : start;
+        final int value = 2 == end - first ? digits(first, end) : -1;
+        return value < 0 ? Integer.MIN_VALUE : negative ? -value : value;
+    }
+
+    /**
+     * Parse a signed temperature in tenths of a degree Celsius from a {@code T} group: a sign digit ({@code 1} if
+     * negative) followed by three digits.
+     *
+     * @param start the start of the value.
+     * @return {@code int} tenths of a degree, or {@link Integer#MIN_VALUE} if the sign digit is not valid.
+     */
+    private int tenths(final int start)
+    {
+        final char sign = m_text.charAt(start);
+        final int value = digits(start + 1, start + 4);
+        return '0' == sign ? value : '1' == sign ? -value : Integer.MIN_VALUE;
+    }
+
+}
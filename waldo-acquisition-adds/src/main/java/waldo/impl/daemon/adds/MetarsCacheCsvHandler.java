@@ -1,15 +1,36 @@
 package waldo.impl.daemon.adds;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.journal.ObservationJournal;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationStore;
+import waldo.service.station.StationMetadata;
+import waldo.service.station.StationReference;
+import waldo.utility.geo.BoundingBox;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * {@link MetarsCacheCsvHandler} is an implementation of the {@link AddsContentParser} which parses METAR data from the
- * FAA Aviation Digital Data Service.
+ * FAA Aviation Digital Data Service. Each report is decoded from its raw text (the first column) by a
+ * {@link MetarDecoder}, rather than from the subset of its elements given in the other columns, and appended to the
+ * {@link ObservationJournal}. The position of each reporting station is recorded in the {@link ObservationStore} so
+ * that its observations can be found by region; it is taken from the {@link StationReference} where the station is
+ * listed there, and otherwise from the latitude and longitude columns. Reports which cannot be decoded are counted and
+ * skipped.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
  * <p>
  * Copyright 2014 Big Lake Systems, LLC.
  * <p>
@@ -23,14 +44,30 @@ import java.io.InputStreamReader;
  * specific language governing permissions and limitations under the License.
  */
 @Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
 class MetarsCacheCsvHandler implements AddsContentParser
 {
+    private static final Logger LOG = LoggerFactory.getLogger(MetarsCacheCsvHandler.class);
+
+    private final ObservationJournal m_journal;
+    private final StationReference m_reference;
+    private final ObservationStore m_store;
+
     /**
      * Construct a {@link MetarsCacheCsvHandler} instance.
+     *
+     * @param journal the {@link ObservationJournal} component.
+     * @param store the {@link ObservationStore} component.
+     * @param reference the {@link StationReference} component.
      */
-    MetarsCacheCsvHandler()
+    @Autowired
+    MetarsCacheCsvHandler(final ObservationJournal journal, final ObservationStore store,
+                          final StationReference reference)
     {
         super();
+        m_journal = journal;
+        m_reference = reference;
+        m_store = store;
     }
 
     /**
@@ -40,11 +77,45 @@ class MetarsCacheCsvHandler implements AddsContentParser
     public void parse(final InputStream stream, final String contentType) throws IOException
     {
         final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "ASCII"));
+        final MetarDecoder decoder = new MetarDecoder();
+        final long reference = System.currentTimeMillis();
+        List<String> names = null;
+        int latitude = -1;
+        int longitude = -1;
+        int decoded = 0;
+        int rejected = 0;
         String line;
         while (null != (line = reader.readLine()))
         {
-            System.out.println(line);
+            if (null == names)
+            {
+                /* Lines preceding the column header describe the response rather than holding data. */
+                if (line.startsWith("raw_text,"))
+                {
+                    names = Arrays.asList(line.split(",", -1));
+                    latitude = names.indexOf("latitude");
+                    longitude = names.indexOf("longitude");
+                }
+            }
+            else
+            {
+                final int comma = line.indexOf(',');
+                final ObservationRecord record = decoder.decode(line, 0, comma < 0 ? line.length() : comma,
+                        reference);
+                if (null == record)
+                {
+                    rejected++;
+                }
+                else
+                {
+                    m_journal.append(record);
+                    locate(record.getStation(), line.split(",", -1), latitude, longitude);
+                    decoded++;
+                }
+            }
         }
+        m_journal.flush();
+        LOG.debug("Decoded {} METAR(s); rejected {}.", decoded, rejected);
     }
 
     /**
@@ -55,4 +126,35 @@ class MetarsCacheCsvHandler implements AddsContentParser
     {
         return "metars.cache.csv.gz".equals(content.getFileName());
     }
+
+    /**
+     * Record the position of a reporting station in the store, as given by the reference data or, failing that, by
+     * the line.
+     *
+     * @param station the station identifier.
+     * @param fields the fields of the line.
+     * @param latitude the position of the latitude column, or {@code -1} if there is none.
+     * @param longitude the position of the longitude column, or {@code -1} if there is none.
+     */
+    private void locate(final String station, final String[] fields, final int latitude, final int longitude)
+    {
+        final StationMetadata metadata = m_reference.find(station);
+        if (null != metadata)
+        {
+            m_store.locate(station, metadata.getLatitude(), metadata.getLongitude());
+        }
+        else if (latitude >= 0 && longitude >= 0 && fields.length > Math.max(latitude, longitude) &&
+                !fields[latitude].isEmpty() && !fields[longitude].isEmpty())
+        {
+            try
+            {
+                m_store.locate(station, BoundingBox.toUnits(Double.parseDouble(fields[latitude])),
+                        BoundingBox.toUnits(Double.parseDouble(fields[longitude])));
+            }
+            catch (final NumberFormatException e)
+            {
+                LOG.trace("Position of station {} was not read.", station, e);
+            }
+        }
+    }
 }
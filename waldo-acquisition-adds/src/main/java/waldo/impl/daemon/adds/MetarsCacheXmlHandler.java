@@ -0,0 +1,259 @@
+package waldo.impl.daemon.adds;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.entity.FlightCategory;
+import waldo.entity.ReportType;
+import waldo.entity.SkyLayers;
+import waldo.service.journal.ObservationJournal;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationStore;
+import waldo.service.station.StationMetadata;
+import waldo.service.station.StationReference;
+import waldo.utility.geo.BoundingBox;
+
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * {@link MetarsCacheXmlHandler} is an implementation of the {@link AddsContentParser} which parses METAR data from the
+ * XML form of the FAA Aviation Digital Data Service file. Each {@code METAR} element is bound, element by element,
+ * into an {@link ObservationRecord} (every {@code sky_condition} becoming a layer) and appended to the
+ * {@link ObservationJournal}, and the position of its station recorded in the {@link ObservationStore}, just as
+ * {@link MetarsCacheCsvHandler} does with the reports it decodes. Reports lacking a valid station or observation time,
+ * or holding an element which cannot be read, are counted and skipped.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class MetarsCacheXmlHandler extends AbstractXmlContentParser
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MetarsCacheXmlHandler.class);
+
+    private static final String ALTIMETER = "altim_in_hg";
+    private static final String DEWPOINT = "dewpoint_c";
+    private static final String LATITUDE = "latitude";
+    private static final String LONGITUDE = "longitude";
+    private static final String METAR = "METAR";
+    private static final String OBSERVATION_TIME = "observation_time";
+    private static final String PRECIPITATION = "precip_in";
+    private static final String REPORT_TYPE = "metar_type";
+    private static final String SEA_LEVEL_PRESSURE = "sea_level_pressure_mb";
+    private static final String SKY_CONDITION = "sky_condition";
+    private static final String STATION = "station_id";
+    private static final String TEMPERATURE = "temp_c";
+    private static final String VISIBILITY = "visibility_statute_mi";
+    private static final String WIND_DIRECTION = "wind_dir_degrees";
+    private static final String WIND_GUST = "wind_gust_kt";
+    private static final String WIND_SPEED = "wind_speed_kt";
+
+    private final ObservationJournal m_journal;
+    private final StationReference m_reference;
+    private final ObservationStore m_store;
+
+    /**
+     * Construct a {@link MetarsCacheXmlHandler} instance.
+     *
+     * @param journal the {@link ObservationJournal} component.
+     * @param store the {@link ObservationStore} component.
+     * @param reference the {@link StationReference} component.
+     */
+    @Autowired
+    MetarsCacheXmlHandler(final ObservationJournal journal, final ObservationStore store,
+                          final StationReference reference)
+    {
+        super(ALTIMETER, DEWPOINT, LATITUDE, LONGITUDE, METAR, OBSERVATION_TIME, PRECIPITATION, REPORT_TYPE,
+                SEA_LEVEL_PRESSURE, SKY_CONDITION, STATION, TEMPERATURE, VISIBILITY, WIND_DIRECTION, WIND_GUST,
+                WIND_SPEED);
+        m_journal = journal;
+        m_reference = reference;
+        m_store = store;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supports(final AddsContent content)
+    {
+        return "metars.cache.xml.gz".equals(content.getFileName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Binder createBinder()
+    {
+        return new Binder()
+        {
+            private final ObservationRecord.Builder m_builder = new ObservationRecord.Builder();
+            private int m_decoded;
+            private double m_latitude;
+            private double m_longitude;
+            private long m_observedAt;
+            private int m_rejected;
+            private long m_sky;
+            private String m_station;
+            private boolean m_valid;
+            private short m_visibility;
+
+            @Override
+            public void startElement(final String name, final XMLStreamReader reader)
+            {
+                if (METAR == name)
+                {
+                    m_builder.reset().setReportType(ReportType.METAR);
+                    m_latitude = Double.NaN;
+                    m_longitude = Double.NaN;
+                    m_observedAt = Long.MIN_VALUE;
+                    m_sky = SkyLayers.NONE;
+                    m_station = null;
+                    m_valid = true;
+                    m_visibility = ObservationRecord.MISSING;
+                }
+                else if (SKY_CONDITION == name && m_valid)
+                {
+                    try
+                    {
+                        m_sky = appendLayer(m_sky, reader);
+                    }
+                    catch (final IllegalArgumentException e)
+                    {
+                        m_valid = false;
+                    }
+                }
+            }
+
+            @Override
+            public void endElement(final String name, final String text)
+            {
+                try
+                {
+                    if (METAR == name)
+                    {
+                        endReport();
+                    }
+                    else if (!m_valid || text.isEmpty())
+                    {
+                        /* Nothing to bind. */
+                    }
+                    else if (STATION == name)
+                    {
+                        m_station = toStation(text);
+                    }
+                    else if (OBSERVATION_TIME == name)
+                    {
+                        m_observedAt = toTime(text);
+                    }
+                    else if (LATITUDE == name)
+                    {
+                        m_latitude = Double.parseDouble(text);
+                    }
+                    else if (LONGITUDE == name)
+                    {
+                        m_longitude = Double.parseDouble(text);
+                    }
+                    else if (TEMPERATURE == name)
+                    {
+                        m_builder.setTemperature(toShort(text, 10));
+                    }
+                    else if (DEWPOINT == name)
+                    {
+                        m_builder.setDewpoint(toShort(text, 10));
+                    }
+                    else if (WIND_DIRECTION == name)
+                    {
+                        /* Variable winds are given as VRB, and have direction zero as when decoded. */
+                        m_builder.setWindDirection("VRB".equals(text) ? 0 : toShort(text, 1));
+                    }
+                    else if (WIND_SPEED == name)
+                    {
+                        m_builder.setWindSpeed(toShort(text, 1));
+                    }
+                    else if (WIND_GUST == name)
+                    {
+                        m_builder.setWindGust(toShort(text, 1));
+                    }
+                    else if (VISIBILITY == name)
+                    {
+                        m_visibility = toShort(text.startsWith("P") || text.startsWith("M") ? text.substring(1)
+                                : text.replace("+", ""), 100);
+                    }
+                    else if (ALTIMETER == name)
+                    {
+                        m_builder.setAltimeter(toShort(text, 100));
+                    }
+                    else if (SEA_LEVEL_PRESSURE == name)
+                    {
+                        m_builder.setSeaLevelPressure(toShort(text, 10));
+                    }
+                    else if (PRECIPITATION == name)
+                    {
+                        m_builder.setPrecipitation(toShort(text, 100));
+                    }
+                    else if (REPORT_TYPE == name)
+                    {
+                        m_builder.setReportType("SPECI".equals(text) ? ReportType.SPECI : ReportType.METAR);
+                    }
+                }
+                catch (final IllegalArgumentException e)
+                {
+                    /* Includes NumberFormatException. */
+                    m_valid = false;
+                }
+            }
+
+            @Override
+            public void end()
+            {
+                m_journal.flush();
+                LOG.debug("Read {} METAR(s); rejected {}.", m_decoded, m_rejected);
+            }
+
+            /**
+             * End a report, appending it to the journal and recording the position of its station (preferring that
+             * given by the reference data) if it is valid.
+             */
+            private void endReport()
+            {
+                if (m_valid && null != m_station && Long.MIN_VALUE != m_observedAt)
+                {
+                    m_journal.append(m_builder.setStation(m_station).setObservedAt(m_observedAt).setVisibility(
+                            m_visibility).setSkyLayers(m_sky).setFlightCategory(FlightCategory.categorize(m_sky,
+                            m_visibility)).toRecord());
+                    final StationMetadata metadata = m_reference.find(m_station);
+                    if (null != metadata)
+                    {
+                        m_store.locate(m_station, metadata.getLatitude(), metadata.getLongitude());
+                    }
+                    else if (!Double.isNaN(m_latitude) && !Double.isNaN(m_longitude))
+                    {
+                        m_store.locate(m_station, BoundingBox.toUnits(m_latitude), BoundingBox.toUnits(m_longitude));
+                    }
+                    m_decoded++;
+                }
+                else
+                {
+                    m_rejected++;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package waldo.impl.daemon.adds;
+
+import com.biglakesystems.common.Assert;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * {@link PublishSchedule} learns how often each ADDS product is published, from the modification times of successive
+ * versions of its file, and determines when the directory should next be listed: shortly after the earliest expected
+ * update of any product, rather than at a fixed interval regardless of how often the products actually change.
+ * <p>
+ * Each product's publish interval is estimated as a moving average of the time between the versions observed. A product
+ * is expected to be updated one interval after its latest version, and becomes due a configured lag after that, to
+ * allow for the time the data server takes to publish it. A product which is overdue is checked again after a quarter
+ * of its interval, bounded by the minimum and maximum delays. Until a second version of a product has been seen, the
+ * product is checked at the minimum delay, so that a frequently published product's interval is learned quickly; a
+ * product with no second version within the maximum delay is left to the maximum delay until one appears. The directory
+ * is never left unlisted for longer than the maximum delay. A random jitter is added to each listing time so that nodes
+ * which started together do not list the directory in lockstep.
+ * <p>
+ * A product which is not observed in a complete listing, having been withdrawn from the directory or no longer being
+ * imported, is forgotten (see {@link #expire()}), so that it is not held overdue indefinitely.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+class PublishSchedule
+{
+    /**
+     * Weight, as a divisor, given to each new interval sample in the moving average; also the fraction of its interval
+     * after which an overdue product is checked again.
+     */
+    private static final long SMOOTHING = 4L;
+
+    private final long m_jitter;
+    private final long m_lag;
+    private final long m_maxDelay;
+    private final long m_minDelay;
+    private final Map<String, Product> m_products = new HashMap<>();
+    private final Random m_random;
+    private long m_due = Long.MIN_VALUE;
+
+    /**
+     * Construct a {@link PublishSchedule} instance.
+     *
+     * @param minDelay the minimum delay (milliseconds) between listings.
+     * @param maxDelay the maximum delay (milliseconds) between listings.
+     * @param lag the delay (milliseconds) after a product's expected update before it is due.
+     * @param jitter the upper bound (milliseconds, exclusive) of the random delay added to each listing time, or
+     * {@code 0} for none.
+     * @param random the source of jitter.
+     */
+    PublishSchedule(final long minDelay, final long maxDelay, final long lag, final long jitter, final Random random)
+    {
+        super();
+        Assert.argumentNotNull("random", m_random = random);
+        if (minDelay <= 0L || maxDelay < minDelay || lag < 0L || jitter < 0L)
+        {
+            throw new IllegalArgumentException(String.format("Invalid schedule: min delay %d, max delay %d, lag %d, " +
+                    "jitter %d.", minDelay, maxDelay, lag, jitter));
+        }
+        m_jitter = jitter;
+        m_lag = lag;
+        m_maxDelay = maxDelay;
+        m_minDelay = minDelay;
+    }
+
+    /**
+     * Determine whether the directory is due to be listed.
+     *
+     * @param now the current time, in milliseconds since the epoch.
+     * @return {@code boolean} true if the directory is due to be listed.
+     */
+    synchronized boolean isDue(final long now)
+    {
+        return now >= m_due;
+    }
+
+    /**
+     * Get the time at which the directory is next due to be listed, as of the latest call to {@link #reschedule(long)}.
+     *
+     * @return {@code long} time in milliseconds since the epoch, or {@link Long#MIN_VALUE} if not yet scheduled.
+     */
+    synchronized long getDue()
+    {
+        return m_due;
+    }
+
+    /**
+     * Get the learned publish interval of a product.
+     *
+     * @param product the product (file name.)
+     * @return {@code long} interval in milliseconds, or {@code 0} if not yet known.
+     */
+    synchronized long getInterval(final String product)
+    {
+        final Product state = m_products.get(product);
+        return null == state ? 0L : state.m_interval;
+    }
+
+    /**
+     * Record the modification time of a product's file, as found in a directory listing. A later modification time than
+     * that previously observed is a new version, and refines the product's learned interval.
+     *
+     * @param product the product (file name.)
+     * @param modified the modification time, in milliseconds since the epoch.
+     */
+    synchronized void observe(final String product, final long modified)
+    {
+        final Product state = m_products.get(product);
+        if (null == state)
+        {
+            m_products.put(product, new Product(modified));
+        }
+        else
+        {
+            state.m_listed = true;
+            if (modified > state.m_modified)
+            {
+                final long sample = modified - state.m_modified;
+                state.m_interval = 0L == state.m_interval ? sample : state.m_interval + (sample - state.m_interval) /
+                        SMOOTHING;
+                state.m_modified = modified;
+            }
+        }
+    }
+
+    /**
+     * Complete a directory listing: forget every product which was not observed since the previous listing was
+     * completed. This should be called only once a listing has been read in full, since a product missing from a
+     * failed listing has not been withdrawn.
+     *
+     * @return {@code int} number of products forgotten.
+     */
+    synchronized int expire()
+    {
+        int result = 0;
+        for (final Iterator<Product> iterator = m_products.values().iterator(); iterator.hasNext(); )
+        {
+            final Product state = iterator.next();
+            if (state.m_listed)
+            {
+                state.m_listed = false;
+            }
+            else
+            {
+                iterator.remove();
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Schedule the next listing of the directory, following a listing (successful or not) at a given time.
+     *
+     * @param now the current time, in milliseconds since the epoch.
+     * @return {@code long} time at which the directory is next due, in milliseconds since the epoch.
+     */
+    synchronized long reschedule(final long now)
+    {
+        long due = now + m_maxDelay;
+        for (final Product state : m_products.values())
+        {
+            final long productDue;
+            if (0L != state.m_interval)
+            {
+                /* Expected shortly after its next update; if overdue, check again after a fraction of its interval. */
+                final long expected = state.m_modified + state.m_interval + m_lag;
+                productDue = expected > now ? expected : now + Math.min(m_maxDelay, Math.max(m_minDelay,
+                        state.m_interval / SMOOTHING));
+            }
+            else if (now - state.m_modified < m_maxDelay)
+            {
+                /* Interval not yet known: check often until a second version is seen. */
+                productDue = now;
+            }
+            else
+            {
+                productDue = Long.MAX_VALUE;
+            }
+            due = Math.min(due, Math.max(productDue, now + m_minDelay));
+        }
+        if (0L != m_jitter)
+        {
+            due += (long) (m_random.nextDouble() * m_jitter);
+        }
+        m_due = due;
+        return m_due;
+    }
+
+    /**
+     * {@link Product} holds what has been learned of a single product.
+     */
+    private static final class Product
+    {
+        private long m_interval;
+        private boolean m_listed = true;
+        private long m_modified;
+
+        private Product(final long modified)
+        {
+            super();
+            m_modified = modified;
+        }
+    }
+}
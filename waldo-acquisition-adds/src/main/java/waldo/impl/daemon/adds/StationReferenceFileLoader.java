@@ -0,0 +1,123 @@
+package waldo.impl.daemon.adds;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.station.StationReference;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * {@link StationReferenceFileLoader} reads station metadata into the {@link StationReference} from a local reference
+ * file, given by the {@value waldo.Constants.Station#REFERENCE_FILE} configuration item, in the CSV form of the ADDS
+ * stations product (gzipped if its name ends with {@code .gz}). The file is checked at an interval, but is read again
+ * only when its modification time or length has changed. Where a reference file is configured it is the only source
+ * of station metadata: the ADDS stations product is then not read, as each source replaces the metadata as a whole.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access; loads are serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class StationReferenceFileLoader
+{
+    private static final Logger LOG = LoggerFactory.getLogger(StationReferenceFileLoader.class);
+
+    private final File m_file;
+    private final StationsCacheCsvHandler m_handler;
+    private long m_length = -1L;
+    private long m_modified = -1L;
+
+    /**
+     * Construct a {@link StationReferenceFileLoader} instance.
+     *
+     * @param handler the {@link StationsCacheCsvHandler} component.
+     * @param file the path of the reference file, or empty if there is none.
+     */
+    @Autowired
+    StationReferenceFileLoader(final StationsCacheCsvHandler handler,
+                               @Value("${" + Constants.Station.REFERENCE_FILE + "}") final String file)
+    {
+        super();
+        m_file = file.isEmpty() ? null : new File(file);
+        m_handler = handler;
+    }
+
+    /**
+     * Read the reference file on a schedule, if it has changed; see {@link #load()}.
+     */
+    @Scheduled(fixedDelayString = "${" + Constants.Station.REFERENCE_INTERVAL + "}")
+    void scheduledLoad()
+    {
+        load();
+    }
+
+    /**
+     * Read the reference file if it has changed since it was last read.
+     *
+     * @return {@code boolean} true if the file was read.
+     */
+    public synchronized boolean load()
+    {
+        boolean result = false;
+        if (null != m_file)
+        {
+            final long modified = m_file.lastModified();
+            final long length = m_file.length();
+            if (0L == modified)
+            {
+                LOG.warn("Station reference file {} does not exist or cannot be read.", m_file);
+            }
+            else if (modified != m_modified || length != m_length)
+            {
+                try (final InputStream stream = open())
+                {
+                    m_handler.parse(stream, "text/plain");
+                    m_modified = modified;
+                    m_length = length;
+                    result = true;
+                }
+                catch (final IOException e)
+                {
+                    LOG.warn(String.format("Station reference file %s was not read.", m_file), e);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Open the reference file, uncompressing it if its name ends with {@code .gz}.
+     *
+     * @return {@link InputStream} stream.
+     * @throws IOException if the file could not be opened.
+     */
+    private InputStream open() throws IOException
+    {
+        final InputStream result = new BufferedInputStream(new FileInputStream(m_file));
+        return m_file.getName().endsWith(".gz") ? new GZIPInputStream(result) : result;
+    }
+}
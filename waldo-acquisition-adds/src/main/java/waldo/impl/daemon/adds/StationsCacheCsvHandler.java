@@ -0,0 +1,248 @@
+package waldo.impl.daemon.adds;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.facade.reference.ReferenceDataFacade;
+import waldo.service.station.StationMetadata;
+import waldo.service.station.StationReference;
+import waldo.utility.geo.BoundingBox;
+import waldo.utility.station.StationDictionary;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link StationsCacheCsvHandler} is an implementation of the {@link AddsContentParser} which parses station metadata
+ * from the FAA Aviation Digital Data Service, or from a local reference file in the same form (see
+ * {@link StationReferenceFileLoader}), into the {@link StationReference}. Columns are found by name from the column
+ * header, and the location and elevation of each station are decoded once, here, into {@link StationMetadata}. Lines
+ * which cannot be read are counted and skipped.
+ * <p>
+ * The two sources are mutually exclusive, since each lists every station and replaces the metadata held as a whole:
+ * where a local reference file is configured, the ADDS stations product is not read. Each issue read is also saved
+ * through the {@link ReferenceDataFacade}, which keeps the {@code STATION} table current.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class StationsCacheCsvHandler implements AddsContentParser
+{
+    private static final Logger LOG = LoggerFactory.getLogger(StationsCacheCsvHandler.class);
+    private static final StationDictionary s_stations = StationDictionary.getInstance();
+
+    private final boolean m_acquired;
+    private final ReferenceDataFacade m_facade;
+    private final StationReference m_reference;
+
+    /**
+     * Construct a {@link StationsCacheCsvHandler} instance.
+     *
+     * @param reference the {@link StationReference} component.
+     * @param facade the {@link ReferenceDataFacade} component.
+     * @param file the path of the local reference file, or empty if station metadata is read from ADDS.
+     */
+    @Autowired
+    StationsCacheCsvHandler(final StationReference reference, final ReferenceDataFacade facade,
+                            @Value("${" + Constants.Station.REFERENCE_FILE + "}") final String file)
+    {
+        super();
+        m_acquired = file.isEmpty();
+        m_facade = facade;
+        m_reference = reference;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void parse(final InputStream stream, final String contentType) throws IOException
+    {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "ISO-8859-1"));
+        final StationMetadata.Builder builder = new StationMetadata.Builder();
+        final List<StationMetadata> stations = new ArrayList<>();
+        Columns columns = null;
+        int rejected = 0;
+        String line;
+        while (null != (line = reader.readLine()))
+        {
+            if (null == columns)
+            {
+                /* Lines preceding the column header describe the response rather than holding data. */
+                if (line.startsWith("station_id,"))
+                {
+                    try
+                    {
+                        columns = new Columns(line.split(",", -1));
+                    }
+                    catch (final IllegalArgumentException e)
+                    {
+                        LOG.warn("Station metadata was not read.", e);
+                        break;
+                    }
+                }
+            }
+            else
+            {
+                final StationMetadata metadata = columns.decode(line, builder.reset());
+                if (null == metadata)
+                {
+                    rejected++;
+                }
+                else
+                {
+                    stations.add(metadata);
+                }
+            }
+        }
+        if (null != columns && !stations.isEmpty())
+        {
+            /* A file cut short before its header, or holding no stations, must not clear the metadata held. */
+            m_reference.replace(stations);
+            save(m_facade, stations);
+        }
+        LOG.debug("Read {} station(s); rejected {}.", stations.size(), rejected);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supports(final AddsContent content)
+    {
+        return m_acquired && "stations.cache.csv.gz".equals(content.getFileName());
+    }
+
+    /**
+     * Save an issue of station metadata to the database, where region history queries find station locations. Every
+     * issue is saved, not only those which change the metadata held, so that an issue which failed to save is made good
+     * by the next; a failure is logged rather than thrown, as the metadata held has already been replaced.
+     *
+     * @param facade the {@link ReferenceDataFacade} component.
+     * @param stations the station metadata.
+     */
+    static void save(final ReferenceDataFacade facade, final Collection<StationMetadata> stations)
+    {
+        try
+        {
+            LOG.debug("Saved {} new or changed station(s).", facade.saveStations(stations));
+        }
+        catch (final RuntimeException e)
+        {
+            LOG.warn("Station metadata was not saved.", e);
+        }
+    }
+
+    /**
+     * {@link Columns} holds the positions of the columns of interest, as given by the column header.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded
+     * access.
+     */
+    static final class Columns
+    {
+        private final int m_count;
+        private final int m_country;
+        private final int m_elevation;
+        private final int m_latitude;
+        private final int m_longitude;
+        private final int m_name;
+        private final int m_state;
+        private final int m_station;
+
+        /**
+         * Construct a {@link Columns} instance.
+         *
+         * @param names the column names, in order.
+         * @throws IllegalArgumentException if the station or location column is missing.
+         */
+        Columns(final String[] names) throws IllegalArgumentException
+        {
+            super();
+            final List<String> list = Arrays.asList(names);
+            m_count = names.length;
+            m_country = list.indexOf("country");
+            m_elevation = list.indexOf("elevation_m");
+            m_latitude = list.indexOf("latitude");
+            m_longitude = list.indexOf("longitude");
+            m_name = list.indexOf("site");
+            m_state = list.indexOf("state");
+            m_station = list.indexOf("station_id");
+            if (m_station < 0 || m_latitude < 0 || m_longitude < 0)
+            {
+                throw new IllegalArgumentException(String.format("Column header %s is not supported.", list));
+            }
+        }
+
+        /**
+         * Decode a line of data into station metadata.
+         *
+         * @param line the line.
+         * @param builder the builder to use, which has been reset.
+         * @return {@link StationMetadata} instance, or {@code null} if the line could not be decoded.
+         */
+        StationMetadata decode(final String line, final StationMetadata.Builder builder)
+        {
+            StationMetadata result = null;
+            final String[] fields = line.split(",", -1);
+            if (m_count == fields.length && 4 == fields[m_station].length())
+            {
+                try
+                {
+                    builder.setStation(s_stations.getIdentifier(s_stations.intern(fields[m_station])));
+                    builder.setLatitude(BoundingBox.toUnits(Double.parseDouble(fields[m_latitude])));
+                    builder.setLongitude(BoundingBox.toUnits(Double.parseDouble(fields[m_longitude])));
+                    if (m_elevation >= 0 && !fields[m_elevation].isEmpty())
+                    {
+                        builder.setElevation((int) Math.round(Double.parseDouble(fields[m_elevation])));
+                    }
+                    builder.setName(text(fields, m_name));
+                    builder.setState(text(fields, m_state));
+                    builder.setCountry(text(fields, m_country));
+                    result = builder.toMetadata();
+                }
+                catch (final IllegalArgumentException e)
+                {
+                    /* Includes NumberFormatException. */
+                    LOG.trace("Rejected station [{}].", line, e);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Get the text of an optional column.
+         *
+         * @param fields the field values.
+         * @param column the position of the column, or {@code -1} if it is absent.
+         * @return {@link String} text, or {@code null} if the column is absent or empty.
+         */
+        private static String text(final String[] fields, final int column)
+        {
+            return column < 0 || fields[column].isEmpty() ? null : fields[column];
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package waldo.impl.daemon.adds;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.facade.reference.ReferenceDataFacade;
+import waldo.service.station.StationMetadata;
+import waldo.service.station.StationReference;
+import waldo.utility.geo.BoundingBox;
+
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link StationsCacheXmlHandler} is an implementation of the {@link AddsContentParser} which parses station metadata
+ * from the XML form of the FAA Aviation Digital Data Service file. Each {@code Station} element is bound into
+ * {@link StationMetadata}; once the whole file has been read, the metadata replaces that held by the
+ * {@link StationReference} and is saved through the {@link ReferenceDataFacade}, just as with
+ * {@link StationsCacheCsvHandler}; and as with that handler, the product is not read where a local reference file is
+ * configured.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class StationsCacheXmlHandler extends AbstractXmlContentParser
+{
+    private static final Logger LOG = LoggerFactory.getLogger(StationsCacheXmlHandler.class);
+
+    private static final String COUNTRY = "country";
+    private static final String ELEVATION = "elevation_m";
+    private static final String LATITUDE = "latitude";
+    private static final String LONGITUDE = "longitude";
+    private static final String NAME = "site";
+    private static final String STATE = "state";
+    private static final String STATION = "Station";
+    private static final String STATION_ID = "station_id";
+
+    private final boolean m_acquired;
+    private final ReferenceDataFacade m_facade;
+    private final StationReference m_reference;
+
+    /**
+     * Construct a {@link StationsCacheXmlHandler} instance.
+     *
+     * @param reference the {@link StationReference} component.
+     * @param facade the {@link ReferenceDataFacade} component.
+     * @param file the path of the local reference file, or empty if station metadata is read from ADDS.
+     */
+    @Autowired
+    StationsCacheXmlHandler(final StationReference reference, final ReferenceDataFacade facade,
+                            @Value("${" + Constants.Station.REFERENCE_FILE + "}") final String file)
+    {
+        super(COUNTRY, ELEVATION, LATITUDE, LONGITUDE, NAME, STATE, STATION, STATION_ID);
+        m_acquired = file.isEmpty();
+        m_facade = facade;
+        m_reference = reference;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supports(final AddsContent content)
+    {
+        return m_acquired && "stations.cache.xml.gz".equals(content.getFileName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Binder createBinder()
+    {
+        return new Binder()
+        {
+            private final StationMetadata.Builder m_builder = new StationMetadata.Builder();
+            private final List<StationMetadata> m_stations = new ArrayList<>();
+            private int m_coordinates;
+            private int m_rejected;
+            private boolean m_valid;
+
+            @Override
+            public void startElement(final String name, final XMLStreamReader reader)
+            {
+                if (STATION == name)
+                {
+                    m_builder.reset();
+                    m_coordinates = 0;
+                    m_valid = true;
+                }
+            }
+
+            @Override
+            public void endElement(final String name, final String text)
+            {
+                try
+                {
+                    if (STATION == name)
+                    {
+                        endStation();
+                    }
+                    else if (!m_valid || text.isEmpty())
+                    {
+                        /* Nothing to bind. */
+                    }
+                    else if (STATION_ID == name)
+                    {
+                        m_builder.setStation(toStation(text));
+                    }
+                    else if (LATITUDE == name)
+                    {
+                        m_builder.setLatitude(BoundingBox.toUnits(Double.parseDouble(text)));
+                        m_coordinates++;
+                    }
+                    else if (LONGITUDE == name)
+                    {
+                        m_builder.setLongitude(BoundingBox.toUnits(Double.parseDouble(text)));
+                        m_coordinates++;
+                    }
+                    else if (ELEVATION == name)
+                    {
+                        m_builder.setElevation((int) Math.round(Double.parseDouble(text)));
+                    }
+                    else if (NAME == name)
+                    {
+                        m_builder.setName(text);
+                    }
+                    else if (STATE == name)
+                    {
+                        m_builder.setState(text);
+                    }
+                    else if (COUNTRY == name)
+                    {
+                        m_builder.setCountry(text);
+                    }
+                }
+                catch (final IllegalArgumentException e)
+                {
+                    /* Includes NumberFormatException. */
+                    m_valid = false;
+                }
+            }
+
+            @Override
+            public void end()
+            {
+                if (!m_stations.isEmpty())
+                {
+                    m_reference.replace(m_stations);
+                    StationsCacheCsvHandler.save(m_facade, m_stations);
+                }
+                LOG.debug("Read {} station(s); rejected {}.", m_stations.size(), m_rejected);
+            }
+
+            /**
+             * End a station, collecting its metadata if it is valid.
+             */
+            private void endStation()
+            {
+                StationMetadata metadata = null;
+                if (m_valid && 2 == m_coordinates)
+                {
+                    try
+                    {
+                        metadata = m_builder.toMetadata();
+                    }
+                    catch (final IllegalArgumentException e)
+                    {
+                        /* The station is missing, or its location is out of range. */
+                    }
+                }
+                if (null == metadata)
+                {
+                    m_rejected++;
+                }
+                else
+                {
+                    m_stations.add(metadata);
+                }
+            }
+        };
+    }
+}
@@ -1,6 +1,13 @@
 package waldo.impl.daemon.adds;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.forecast.ForecastTimeline;
+import waldo.service.forecast.TerminalForecast;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -9,7 +16,12 @@ import java.io.InputStreamReader;
 
 /**
  * {@link TafCacheCsvHandler} is an implementation of the {@link AddsContentParser} which parses TAF data from the FAA
- * Aviation Digital Data Service.
+ * Aviation Digital Data Service. Each forecast is decoded from its raw text (the first column) by a {@link TafDecoder}
+ * and resolved into the {@link ForecastTimeline}, replacing the earlier forecast of its station. Forecasts which cannot
+ * be decoded are counted and skipped.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
  * <p>
  * Copyright 2014 Big Lake Systems, LLC.
  * <p>
@@ -23,14 +35,23 @@ import java.io.InputStreamReader;
  * specific language governing permissions and limitations under the License.
  */
 @Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
 class TafCacheCsvHandler implements AddsContentParser
 {
+    private static final Logger LOG = LoggerFactory.getLogger(TafCacheCsvHandler.class);
+
+    private final ForecastTimeline m_timeline;
+
     /**
      * Construct a {@link TafCacheCsvHandler} instance.
+     *
+     * @param timeline the {@link ForecastTimeline} component.
      */
-    TafCacheCsvHandler()
+    @Autowired
+    TafCacheCsvHandler(final ForecastTimeline timeline)
     {
         super();
+        m_timeline = timeline;
     }
 
     /**
@@ -40,11 +61,36 @@ class TafCacheCsvHandler implements AddsContentParser
     public void parse(final InputStream stream, final String contentType) throws IOException
     {
         final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "ASCII"));
+        final TafDecoder decoder = new TafDecoder();
+        final long reference = System.currentTimeMillis();
+        boolean header = false;
+        int decoded = 0;
+        int rejected = 0;
         String line;
         while (null != (line = reader.readLine()))
         {
-            System.out.println(line);
+            if (!header)
+            {
+                /* Lines preceding the column header describe the response rather than holding data. */
+                header = line.startsWith("raw_text,");
+            }
+            else
+            {
+                final int comma = line.indexOf(',');
+                final TerminalForecast forecast = decoder.decode(line, 0, comma < 0 ? line.length() : comma,
+                        reference);
+                if (null == forecast)
+                {
+                    rejected++;
+                }
+                else
+                {
+                    m_timeline.update(forecast);
+                    decoded++;
+                }
+            }
         }
+        LOG.debug("Decoded {} TAF(s); rejected {}.", decoded, rejected);
     }
 
     /**
@@ -0,0 +1,311 @@
+package waldo.impl.daemon.adds;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.entity.PresentWeather;
+import waldo.entity.SkyLayers;
+import waldo.service.forecast.ForecastConditions;
+import waldo.service.forecast.ForecastTimeline;
+import waldo.service.forecast.TerminalForecast;
+import waldo.service.observation.ObservationRecord;
+
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link TafCacheXmlHandler} is an implementation of the {@link AddsContentParser} which parses terminal aerodrome
+ * forecasts from the XML form of the FAA Aviation Digital Data Service file. Each {@code forecast} element of a
+ * {@code TAF} is bound into a {@link TerminalForecast.Group}, and the forecast resolved into the
+ * {@link ForecastTimeline}, just as {@link TafCacheCsvHandler} does with the forecasts it decodes. Forecasts lacking a
+ * valid station or period, or holding an element which cannot be read, are counted and skipped.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class TafCacheXmlHandler extends AbstractXmlContentParser
+{
+    private static final Logger LOG = LoggerFactory.getLogger(TafCacheXmlHandler.class);
+
+    private static final String CHANGE_INDICATOR = "change_indicator";
+    private static final String FORECAST = "forecast";
+    private static final String FORECAST_FROM = "fcst_time_from";
+    private static final String FORECAST_TO = "fcst_time_to";
+    private static final String ISSUE_TIME = "issue_time";
+    private static final String PROBABILITY = "probability";
+    private static final String SKY_CONDITION = "sky_condition";
+    private static final String STATION = "station_id";
+    private static final String TAF = "TAF";
+    private static final String VALID_FROM = "valid_time_from";
+    private static final String VALID_TO = "valid_time_to";
+    private static final String VISIBILITY = "visibility_statute_mi";
+    private static final String WEATHER = "wx_string";
+    private static final String WIND_DIRECTION = "wind_dir_degrees";
+    private static final String WIND_GUST = "wind_gust_kt";
+    private static final String WIND_SPEED = "wind_speed_kt";
+
+    private final ForecastTimeline m_timeline;
+
+    /**
+     * Construct a {@link TafCacheXmlHandler} instance.
+     *
+     * @param timeline the {@link ForecastTimeline} component.
+     */
+    @Autowired
+    TafCacheXmlHandler(final ForecastTimeline timeline)
+    {
+        super(CHANGE_INDICATOR, FORECAST, FORECAST_FROM, FORECAST_TO, ISSUE_TIME, PROBABILITY, SKY_CONDITION, STATION,
+                TAF, VALID_FROM, VALID_TO, VISIBILITY, WEATHER, WIND_DIRECTION, WIND_GUST, WIND_SPEED);
+        m_timeline = timeline;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean supports(final AddsContent content)
+    {
+        return "tafs.cache.xml.gz".equals(content.getFileName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Binder createBinder()
+    {
+        return new Binder()
+        {
+            private final ForecastConditions.Builder m_builder = new ForecastConditions.Builder();
+            private final List<TerminalForecast.Group> m_groups = new ArrayList<>();
+            private String m_changeIndicator;
+            private int m_decoded;
+            private long m_from;
+            private long m_issuedAt;
+            private int m_probability;
+            private int m_rejected;
+            private long m_sky;
+            private String m_station;
+            private long m_to;
+            private boolean m_valid;
+            private long m_validFrom;
+            private long m_validTo;
+            private long m_weather;
+            private boolean m_wind;
+
+            @Override
+            public void startElement(final String name, final XMLStreamReader reader)
+            {
+                if (TAF == name)
+                {
+                    m_groups.clear();
+                    m_issuedAt = Long.MIN_VALUE;
+                    m_station = null;
+                    m_valid = true;
+                    m_validFrom = Long.MIN_VALUE;
+                    m_validTo = Long.MIN_VALUE;
+                }
+                else if (FORECAST == name)
+                {
+                    m_builder.reset();
+                    m_changeIndicator = null;
+                    m_from = Long.MIN_VALUE;
+                    m_probability = 0;
+                    m_sky = SkyLayers.NONE;
+                    m_to = Long.MIN_VALUE;
+                    m_weather = PresentWeather.NONE;
+                    m_wind = false;
+                }
+                else if (SKY_CONDITION == name && m_valid)
+                {
+                    try
+                    {
+                        m_sky = appendLayer(m_sky, reader);
+                        if ("CAVOK".equals(reader.getAttributeValue(null, "sky_cover")))
+                        {
+                            m_weather = ForecastConditions.NO_SIGNIFICANT_WEATHER;
+                        }
+                    }
+                    catch (final IllegalArgumentException e)
+                    {
+                        m_valid = false;
+                    }
+                }
+            }
+
+            @Override
+            public void endElement(final String name, final String text)
+            {
+                try
+                {
+                    if (TAF == name)
+                    {
+                        endForecast();
+                    }
+                    else if (FORECAST == name)
+                    {
+                        endGroup();
+                    }
+                    else if (!m_valid || text.isEmpty())
+                    {
+                        /* Nothing to bind. */
+                    }
+                    else if (STATION == name)
+                    {
+                        m_station = toStation(text);
+                    }
+                    else if (ISSUE_TIME == name)
+                    {
+                        m_issuedAt = toTime(text);
+                    }
+                    else if (VALID_FROM == name)
+                    {
+                        m_validFrom = toTime(text);
+                    }
+                    else if (VALID_TO == name)
+                    {
+                        m_validTo = toTime(text);
+                    }
+                    else if (FORECAST_FROM == name)
+                    {
+                        m_from = toTime(text);
+                    }
+                    else if (FORECAST_TO == name)
+                    {
+                        m_to = toTime(text);
+                    }
+                    else if (CHANGE_INDICATOR == name)
+                    {
+                        m_changeIndicator = text;
+                    }
+                    else if (PROBABILITY == name)
+                    {
+                        m_probability = Integer.parseInt(text);
+                    }
+                    else if (WIND_DIRECTION == name)
+                    {
+                        m_builder.setWindDirection("VRB".equals(text) ? 0 : toShort(text, 1));
+                    }
+                    else if (WIND_SPEED == name)
+                    {
+                        m_builder.setWindSpeed(toShort(text, 1));
+                        m_wind = true;
+                    }
+                    else if (WIND_GUST == name)
+                    {
+                        m_builder.setWindGust(toShort(text, 1));
+                    }
+                    else if (VISIBILITY == name)
+                    {
+                        m_builder.setVisibility(toShort(text.startsWith("P") || text.startsWith("M") ? text.substring(
+                                1) : text.replace("+", ""), 100));
+                    }
+                    else if (WEATHER == name)
+                    {
+                        m_weather = "NSW".equals(text) ? ForecastConditions.NO_SIGNIFICANT_WEATHER : PresentWeather
+                                .parse(text);
+                    }
+                }
+                catch (final IllegalArgumentException e)
+                {
+                    /* Includes NumberFormatException. */
+                    m_valid = false;
+                }
+            }
+
+            @Override
+            public void end()
+            {
+                LOG.debug("Read {} TAF(s); rejected {}.", m_decoded, m_rejected);
+            }
+
+            /**
+             * End a forecast group, adding it to the forecast unless it has no valid period.
+             */
+            private void endGroup()
+            {
+                if (m_valid && Long.MIN_VALUE != m_from && Long.MIN_VALUE != m_to)
+                {
+                    if (!m_wind)
+                    {
+                        /* Direction and gust alone are not a wind forecast. */
+                        m_builder.setWindDirection(ObservationRecord.MISSING).setWindGust(ObservationRecord.MISSING);
+                    }
+                    m_builder.setSkyLayers(m_sky).setWeather(m_weather);
+                    m_groups.add(new TerminalForecast.Group(toType(m_changeIndicator, m_probability), m_from, m_to,
+                            m_probability, m_builder.toConditions()));
+                }
+            }
+
+            /**
+             * End a forecast, resolving it into the timeline if it is valid.
+             */
+            private void endForecast()
+            {
+                if (m_valid && null != m_station && Long.MIN_VALUE != m_issuedAt && Long.MIN_VALUE != m_validFrom
+                        && m_validTo > m_validFrom)
+                {
+                    m_timeline.update(new TerminalForecast(m_station, m_issuedAt, m_validFrom, m_validTo, m_groups));
+                    m_decoded++;
+                }
+                else
+                {
+                    m_rejected++;
+                }
+            }
+        };
+    }
+
+    /**
+     * Determine the type of a forecast group from its change indicator.
+     *
+     * @param indicator the change indicator, or {@code null} for the initial group.
+     * @param probability the probability in percent, or {@code 0} if none was given.
+     * @return {@link TerminalForecast.Group.Type} value.
+     * @throws IllegalArgumentException if the change indicator is not recognized.
+     */
+    private static TerminalForecast.Group.Type toType(final String indicator, final int probability)
+            throws IllegalArgumentException
+    {
+        final TerminalForecast.Group.Type result;
+        if (null == indicator || "FM".equals(indicator))
+        {
+            result = TerminalForecast.Group.Type.FROM;
+        }
+        else if ("BECMG".equals(indicator))
+        {
+            result = TerminalForecast.Group.Type.BECOMING;
+        }
+        else if ("TEMPO".equals(indicator))
+        {
+            result = 0 == probability ? TerminalForecast.Group.Type.TEMPORARY
+                    : TerminalForecast.Group.Type.PROBABILITY;
+        }
+        else if ("PROB".equals(indicator))
+        {
+            result = TerminalForecast.Group.Type.PROBABILITY;
+        }
+        else
+        {
+            throw new IllegalArgumentException(String.format("Change indicator [%s] is not recognized.", indicator));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,250 @@
+package waldo.impl.daemon.adds;
+
+import waldo.entity.SkyCover;
+import waldo.entity.SkyLayers;
+import waldo.service.forecast.ForecastConditions;
+import waldo.service.forecast.TerminalForecast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link TafDecoder} decodes the raw text of terminal aerodrome forecasts (TAFs) into {@link TerminalForecast}s. The
+ * header gives the station, the issue time and the period of validity; the body is the initial conditions followed by
+ * any number of {@code FMDDHHMM}, {@code BECMG}, {@code TEMPO} and {@code PROB30}/{@code PROB40} (optionally followed
+ * by {@code TEMPO}) change groups, each with the wind, visibility, sky condition and weather groups common to all
+ * reports (see {@link AbstractReportDecoder}), {@code NSW} and {@code CAVOK}. Times are resolved forward from the
+ * start of the period of validity, and an hour of {@code 24} is the end of the day.
+ * <p>
+ * Malformed input never causes an exception: a group which is not recognized is skipped, as is a change group with no
+ * valid period, and a forecast is rejected only if it lacks a valid station identifier, issue time or period of
+ * validity, or is {@code NIL} or cancelled.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access; each
+ * thread uses its own.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+final class TafDecoder extends AbstractReportDecoder
+{
+    private final ForecastConditions.Builder m_builder = new ForecastConditions.Builder();
+    private final List<TerminalForecast.Group> m_groups = new ArrayList<>();
+    private long m_from;
+    private int m_probability;
+    private long m_to;
+    private TerminalForecast.Group.Type m_type;
+
+    /**
+     * Construct a {@link TafDecoder} instance.
+     */
+    TafDecoder()
+    {
+        super();
+    }
+
+    /**
+     * Decode a forecast.
+     *
+     * @param text the raw text of the forecast.
+     * @param reference the time, in milliseconds since the epoch, at or shortly after which the forecast was issued;
+     * see {@link MetarDecoder#decode(CharSequence, long)}.
+     * @return {@link TerminalForecast} instance, or {@code null} if the forecast could not be decoded.
+     */
+    TerminalForecast decode(final CharSequence text, final long reference)
+    {
+        return decode(text, 0, text.length(), reference);
+    }
+
+    /**
+     * Decode a forecast held within a larger text, such as a line of CSV.
+     *
+     * @param text the text.
+     * @param start the start of the raw text of the forecast within {@code text} (inclusive.)
+     * @param end the end of the raw text of the forecast within {@code text} (exclusive.)
+     * @param reference the reference time; see {@link #decode(CharSequence, long)}.
+     * @return {@link TerminalForecast} instance, or {@code null} if the forecast could not be decoded.
+     */
+    TerminalForecast decode(final CharSequence text, final int start, final int end, final long reference)
+    {
+        begin(text, start, end);
+        m_groups.clear();
+        boolean valid = nextToken();
+        if (valid && is("TAF"))
+        {
+            valid = nextToken();
+        }
+        while (valid && (is("AMD") || is("COR")))
+        {
+            valid = nextToken();
+        }
+        final String station = valid ? decodeStation() : null;
+        final long issuedAt = null != station && nextToken() ? decodeTime(reference) : Long.MIN_VALUE;
+        valid = Long.MIN_VALUE != issuedAt && nextToken() && decodePeriod(issuedAt);
+        final long validFrom = m_from;
+        final long validTo = m_to;
+        m_type = TerminalForecast.Group.Type.FROM;
+        m_probability = 0;
+        while (valid && nextToken() && !is("RMK"))
+        {
+            valid = !is("NIL") && !is("CNL");
+            final char first = m_text.charAt(m_start);
+            if (!valid)
+            {
+                /* A NIL or cancelled forecast gives no conditions. */
+            }
+            else if ('F' == first && 8 == m_end - m_start && is(m_start, "FM") && isTime(m_start + 2, m_end))
+            {
+                final int day = digits(m_start + 2, m_start + 4);
+                final int hour = digits(m_start + 4, m_start + 6);
+                endGroup();
+                beginGroup(TerminalForecast.Group.Type.FROM, 0);
+                m_from = resolvePeriodTime(validFrom, day, hour, digits(m_start + 6, m_end));
+                m_to = validTo;
+            }
+            else if (is("BECMG"))
+            {
+                endGroup();
+                beginGroup(TerminalForecast.Group.Type.BECOMING, 0);
+            }
+            else if (is("TEMPO"))
+            {
+                if (TerminalForecast.Group.Type.PROBABILITY != m_type || Long.MIN_VALUE != m_from)
+                {
+                    endGroup();
+                    beginGroup(TerminalForecast.Group.Type.TEMPORARY, 0);
+                }
+            }
+            else if ('P' == first && 6 == m_end - m_start && is(m_start, "PROB") && digits(m_start + 4, m_end) > 0)
+            {
+                endGroup();
+                beginGroup(TerminalForecast.Group.Type.PROBABILITY, digits(m_start + 4, m_end));
+            }
+            else if (Long.MIN_VALUE == m_from && decodePeriod(validFrom))
+            {
+                /* The period of a change group. */
+            }
+            else if (is("NSW"))
+            {
+                m_weather = ForecastConditions.NO_SIGNIFICANT_WEATHER;
+            }
+            else if (is("CAVOK"))
+            {
+                decodeElement();
+                m_sky = SkyLayers.append(SkyLayers.NONE, SkyCover.CLR, 0);
+                m_weather = ForecastConditions.NO_SIGNIFICANT_WEATHER;
+            }
+            else
+            {
+                decodeElement();
+            }
+        }
+        TerminalForecast result = null;
+        if (valid && validTo > validFrom)
+        {
+            endGroup();
+            result = new TerminalForecast(station, issuedAt, validFrom, validTo, m_groups);
+        }
+        m_groups.clear();
+        m_text = null;
+        return result;
+    }
+
+    /**
+     * Begin a change group.
+     *
+     * @param type the group type.
+     * @param probability the probability of a {@link TerminalForecast.Group.Type#PROBABILITY} group.
+     */
+    private void beginGroup(final TerminalForecast.Group.Type type, final int probability)
+    {
+        m_type = type;
+        m_probability = probability;
+        m_from = Long.MIN_VALUE;
+        m_to = Long.MIN_VALUE;
+        resetElements();
+    }
+
+    /**
+     * End the current group, adding it to the forecast unless no valid period was found for it.
+     */
+    private void endGroup()
+    {
+        if (Long.MIN_VALUE != m_from)
+        {
+            m_builder.reset().setVisibility(m_visibility).setSkyLayers(m_sky);
+            if (m_wind)
+            {
+                m_builder.setWindDirection(m_windDirection).setWindSpeed(m_windSpeed).setWindGust(m_windGust);
+            }
+            if (0L != (m_weather & ForecastConditions.NO_SIGNIFICANT_WEATHER))
+            {
+                m_builder.setWeather(ForecastConditions.NO_SIGNIFICANT_WEATHER);
+            }
+            else
+            {
+                m_builder.setWeather(m_weather);
+            }
+            m_groups.add(new TerminalForecast.Group(m_type, m_from, m_to, m_probability, m_builder.toConditions()));
+        }
+    }
+
+    /**
+     * Decode the current token as a period, such as {@code 1518/1624}, into {@link #m_from} and {@link #m_to}.
+     *
+     * @param reference the time from which the period is resolved forward.
+     * @return {@code boolean} true if the token is a period.
+     */
+    private boolean decodePeriod(final long reference)
+    {
+        final boolean result = 9 == m_end - m_start && '/' == m_text.charAt(m_start + 4) && isTime(m_start,
+                m_start + 4) && isTime(m_start + 5, m_end);
+        if (result)
+        {
+            m_from = resolvePeriodTime(reference, digits(m_start, m_start + 2), digits(m_start + 2, m_start + 4), 0);
+            m_to = resolvePeriodTime(reference, digits(m_start + 5, m_start + 7), digits(m_start + 7, m_end), 0);
+        }
+        return result;
+    }
+
+    /**
+     * Determine whether a run of characters is a day and hour, optionally followed by minutes, such as {@code 1518} or
+     * {@code 151830}.
+     *
+     * @param start the start of the run (inclusive.)
+     * @param end the end of the run (exclusive.)
+     * @return {@code boolean} true if the run is a valid day and hour.
+     */
+    private boolean isTime(final int start, final int end)
+    {
+        final int day = digits(start, start + 2);
+        final int hour = digits(start + 2, start + 4);
+        final int minute = 6 == end - start ? digits(start + 4, end) : 0;
+        return day >= 1 && day <= 31 && hour >= 0 && hour <= 24 && minute >= 0 && minute <= 59;
+    }
+
+    /**
+     * Resolve a day and time within the period of validity of a forecast into an absolute time.
+     *
+     * @param reference the time from which the period is resolved forward: the start of the period of validity, or
+     * the issue time when resolving the period of validity itself.
+     * @param day the day of the month.
+     * @param hour the hour, or {@code 24} for the end of the day.
+     * @param minute the minute.
+     * @return {@code long} time in milliseconds since the epoch.
+     */
+    private static long resolvePeriodTime(final long reference, final int day, final int hour, final int minute)
+    {
+        /* A period of validity may run 30 hours, so resolve to the latest such time up to two days on. */
+        final long later = reference + DAY;
+        return 24 == hour ? resolveTime(later, day, 0, minute) + DAY : resolveTime(later, day, hour, minute);
+    }
+}
@@ -1,11 +1,27 @@
 package waldo.impl.daemon.adds;
 
+import org.joda.time.DateTime;
 import org.junit.Test;
+import waldo.service.forecast.ForecastConditions;
+import waldo.service.forecast.ForecastTimeline;
+import waldo.service.forecast.TerminalForecast;
+import waldo.utility.cluster.LeaderElection;
+import waldo.utility.cluster.WorkCoordinator;
+import waldo.utility.network.ContentCallback;
 import waldo.utility.network.HttpUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
 
 /**
  * {@link TestAddsDataAcquirer} ...
@@ -44,8 +60,178 @@ public class TestAddsDataAcquirer
         final HttpUtils httpUtils = constructor.newInstance();
         final AddsDirectoryParser parser = new AddsDirectoryParserImpl();
         final AddsDataAcquirer instance = new AddsDataAcquirer(parser,
-                Collections.singletonList(new TafCacheCsvHandler()), httpUtils,
-                URI.create("http://www.aviationweather.gov/adds/dataserver_current/current/"));
+                Collections.singletonList(new TafCacheCsvHandler(new ForecastTimeline()
+                {
+                    @Override
+                    public boolean update(final TerminalForecast forecast)
+                    {
+                        return true;
+                    }
+
+                    @Override
+                    public ForecastConditions findPredicted(final String station, final long time)
+                    {
+                        return null;
+                    }
+
+                    @Override
+                    public ForecastConditions findWorst(final String station, final long from, final long to)
+                    {
+                        return null;
+                    }
+
+                    @Override
+                    public long getIssuedAt(final String station)
+                    {
+                        return 0L;
+                    }
+                })), httpUtils, new LeaderElection()
+        {
+            @Override
+            public boolean isLeader()
+            {
+                return true;
+            }
+
+            @Override
+            public void resign()
+            {
+            }
+        }, new WorkCoordinator()
+        {
+            @Override
+            public boolean claim(final String key)
+            {
+                return true;
+            }
+
+            @Override
+            public void complete(final String key)
+            {
+            }
+
+            @Override
+            public void prune()
+            {
+            }
+        },
+                URI.create("http://www.aviationweather.gov/adds/dataserver_current/current/"), "csv", 0,
+                30000L, 300000L, 15000L, 0L);
         instance.acquire();
     }
+
+    /**
+     * Test that a file found in a subdirectory is offered to parsers by its file name, and so is imported, while it is
+     * claimed by its path relative to the directory; and that a subdirectory which cannot be listed does not prevent
+     * the files of the others from being imported.
+     */
+    @Test
+    public void testAcquireCrawled() throws Throwable
+    {
+        final URI root = URI.create("http://adds.invalid/current/");
+        final URI listed = root.resolve("dataserver1_3/");
+        final URI unlisted = root.resolve("dataserver2/");
+        final AddsDirectoryParser directoryParser = new AddsDirectoryParser()
+        {
+            @Override
+            public List<AddsContent> parse(final InputStream content, final String contentType, final URI baseUri,
+                                           final List<URI> directories)
+            {
+                final List<AddsContent> result = new ArrayList<>();
+                if (root.equals(baseUri))
+                {
+                    directories.addAll(Arrays.asList(listed, unlisted));
+                }
+                else
+                {
+                    result.add(new AddsContentImpl("tafs.cache.csv.gz", baseUri.resolve("tafs.cache.csv.gz"),
+                            BigDecimal.ONE, new DateTime(3600000L)));
+                }
+                return result;
+            }
+        };
+        final HttpUtils httpUtils = new HttpUtils()
+        {
+            @Override
+            public <T> T get(final URI uri, final ContentCallback<T> callback)
+            {
+                if (unlisted.equals(uri))
+                {
+                    throw new IllegalStateException("Test.");
+                }
+                try
+                {
+                    return callback.execute(new ByteArrayInputStream(new byte[0]), "text/plain");
+                }
+                catch (final IOException e)
+                {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        final List<String> parsed = new ArrayList<>();
+        final AddsContentParser handler = new AddsContentParser()
+        {
+            private final AddsContentParser m_handler = new TafCacheCsvHandler(null);
+
+            @Override
+            public void parse(final InputStream stream, final String contentType)
+            {
+                parsed.add(contentType);
+            }
+
+            @Override
+            public boolean supports(final AddsContent content)
+            {
+                return m_handler.supports(content);
+            }
+        };
+        final List<String> claimed = new ArrayList<>();
+        final List<String> completed = new ArrayList<>();
+        final AddsDataAcquirer instance = new AddsDataAcquirer(directoryParser, Collections.singletonList(handler),
+                httpUtils, new LeaderElection()
+        {
+            @Override
+            public boolean isLeader()
+            {
+                return false;
+            }
+
+            @Override
+            public void resign()
+            {
+            }
+        }, new WorkCoordinator()
+        {
+            @Override
+            public boolean claim(final String key)
+            {
+                return claimed.add(key);
+            }
+
+            @Override
+            public void complete(final String key)
+            {
+                completed.add(key);
+            }
+
+            @Override
+            public void prune()
+            {
+            }
+        }, root, "csv", 1, 30000L, 300000L, 15000L, 0L);
+
+        /* Run the test and verify expectations. */
+        try
+        {
+            instance.acquire();
+        }
+        finally
+        {
+            instance.close();
+        }
+        assertEquals(Collections.singletonList("text/plain"), parsed);
+        assertEquals(Collections.singletonList("adds:dataserver1_3/tafs.cache.csv.gz@3600000"), claimed);
+        assertEquals(claimed, completed);
+    }
 }
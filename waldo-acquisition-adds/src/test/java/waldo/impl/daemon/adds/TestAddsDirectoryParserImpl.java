@@ -8,6 +8,8 @@ import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -37,7 +39,7 @@ public class TestAddsDirectoryParserImpl
     }
 
     /**
-     * Test the implementation of {@link AddsDirectoryParser#parse(InputStream, String, URI)}.
+     * Test the implementation of {@link AddsDirectoryParser#parse(InputStream, String, URI, List)}.
      *
      * @throws Throwable on unexpected error.
      */
@@ -56,7 +58,7 @@ public class TestAddsDirectoryParserImpl
 
         /* Run the test and verify expectations. */
         final AddsDirectoryParser instance = new AddsDirectoryParserImpl();
-        final List<AddsContent> files = instance.parse(content, "text/html;charset=UTF-8", baseUri);
+        final List<AddsContent> files = instance.parse(content, "text/html;charset=UTF-8", baseUri, null);
         assertEquals(16, files.size());
         assertEquals(new AddsContentImpl("aircraftreports.cache.csv",
                 URI.create("http://www.aviationweather.gov/adds/dataserver_current/current/aircraftreports.cache.csv"),
@@ -67,4 +69,32 @@ public class TestAddsDirectoryParserImpl
                 new BigDecimal("269.6"),
                 AddsDirectoryParserImpl.s_modified.parseDateTime("Sat, 12 Jul 2014 03:20:05 GMT")), files.get(15));
     }
+
+    /**
+     * Test that subdirectory rows are reported separately from the files listed, when asked for.
+     *
+     * @throws Throwable on unexpected error.
+     */
+    @Test
+    public void testParseDirectories() throws Throwable
+    {
+        final URI baseUri = URI.create("http://www.aviationweather.gov/adds/dataserver_current/");
+        final URL resource = getClass().getResource(String.format("%s_%s.html", getClass().getSimpleName(),
+                Thread.currentThread().getStackTrace()[1].getMethodName()));
+        final byte[] content;
+        try (final InputStream stream = resource.openStream())
+        {
+            content = IOUtils.toByteArray(stream);
+        }
+
+        /* Run the test and verify expectations. */
+        final AddsDirectoryParser instance = new AddsDirectoryParserImpl();
+        final List<URI> directories = new ArrayList<>();
+        final List<AddsContent> files = instance.parse(new ByteArrayInputStream(content), "text/html;charset=UTF-8",
+                baseUri, directories);
+        assertEquals(1, files.size());
+        assertEquals("stations.cache.csv.gz", files.get(0).getFileName());
+        assertEquals(Arrays.asList(baseUri.resolve("current/"), baseUri.resolve("dataserver1_3/")), directories);
+        assertEquals(files, instance.parse(new ByteArrayInputStream(content), "text/html", baseUri, null));
+    }
 }
@@ -0,0 +1,129 @@
+package waldo.impl.daemon.adds;
+
+import org.junit.Test;
+import waldo.service.advisory.Advisory;
+import waldo.service.advisory.AdvisoryIndex;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestAirSigmetsCacheCsvHandler} provides unit test coverage for {@link AirSigmetsCacheCsvHandler}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestAirSigmetsCacheCsvHandler
+{
+    private static final String HEADER = "No errors\n"
+            + "No warnings\n"
+            + "3 ms\n"
+            + "data source=airsigmets\n"
+            + "3 results\n"
+            + "raw_text,valid_time_from,valid_time_to,lon:lat points,min_ft_msl,max_ft_msl,movement_dir_degrees,"
+            + "movement_speed_kt,hazard,severity,airsigmet_type\n";
+
+    /**
+     * Construct a {@link TestAirSigmetsCacheCsvHandler} instance.
+     */
+    public TestAirSigmetsCacheCsvHandler()
+    {
+        super();
+    }
+
+    /**
+     * Test that advisories are read, including raw text holding commas, that unreadable lines are skipped, and that
+     * the advisories of the file replace those held.
+     */
+    @Test
+    public void testParse() throws Exception
+    {
+        final List<Collection<Advisory>> replaced = new ArrayList<>();
+        final AirSigmetsCacheCsvHandler handler = new AirSigmetsCacheCsvHandler(index(replaced));
+        final String content = HEADER
+                + "WSUS32 KKCI 151755 SIGC, CONVECTIVE SIGMET 45C VALID UNTIL 1955Z IL IN,2014-07-15T17:55:00Z,"
+                + "2014-07-15T19:55:00Z,-88.5:41.0;-86.0:41.5;-86.5:40.0;-88.5:41.0,,45000,270,25,CONVECTIVE,,SIGMET\n"
+                + "WAUS43 KKCI 151445 CHIT WA 151445 AIRMET TANGO,2014-07-15T15:00:00Z,2014-07-15T21:00:00Z,"
+                + "-90.0:44.0;-85.0:44.0;-85.0:42.0;-90.0:42.0,18000,39000,,,TURB,MOD,AIRMET\n"
+                + "BROKEN,2014-07-15T15:00:00Z,2014-07-15T21:00:00Z,-90.0:44.0;-85.0:44.0,,,,,TURB,MOD,AIRMET\n";
+
+        /* Run the test and verify expectations. */
+        handler.parse(new ByteArrayInputStream(content.getBytes(Charset.forName("US-ASCII"))), "text/plain");
+        assertEquals(1, replaced.size());
+        final List<Advisory> advisories = new ArrayList<>(replaced.get(0));
+        assertEquals(2, advisories.size());
+        final Advisory sigmet = advisories.get(0);
+        assertSame(Advisory.Type.SIGMET, sigmet.getType());
+        assertEquals("CONVECTIVE", sigmet.getHazard());
+        assertEquals("WSUS32 KKCI 151755 SIGC, CONVECTIVE SIGMET 45C VALID UNTIL 1955Z IL IN", sigmet.getRawText());
+        assertEquals(1405446900000L, sigmet.getValidFrom());
+        assertEquals(1405454100000L, sigmet.getValidTo());
+        assertEquals(Advisory.MISSING, sigmet.getMinAltitude());
+        assertEquals(45000, sigmet.getMaxAltitude());
+        assertNull(sigmet.getSeverity());
+        assertEquals(3, sigmet.getArea().getVertexCount());
+        assertTrue(sigmet.getArea().contains(40900000, -87000000));
+        final Advisory airmet = advisories.get(1);
+        assertSame(Advisory.Type.AIRMET, airmet.getType());
+        assertEquals(18000, airmet.getMinAltitude());
+        assertEquals("MOD", airmet.getSeverity());
+        assertEquals(-90000000, airmet.getArea().getBounds().getMinLongitude());
+    }
+
+    /**
+     * Test that content without a column header does not replace the advisories held.
+     */
+    @Test
+    public void testParseTruncated() throws Exception
+    {
+        final List<Collection<Advisory>> replaced = new ArrayList<>();
+        final AirSigmetsCacheCsvHandler handler = new AirSigmetsCacheCsvHandler(index(replaced));
+
+        /* Run the test and verify expectations. */
+        handler.parse(new ByteArrayInputStream("No errors\n".getBytes(Charset.forName("US-ASCII"))), "text/plain");
+        assertTrue(replaced.isEmpty());
+    }
+
+    /**
+     * Create an index which records the advisories with which it is replaced.
+     *
+     * @param replaced the list to which each replacement is added.
+     * @return {@link AdvisoryIndex} instance.
+     */
+    private static AdvisoryIndex index(final List<Collection<Advisory>> replaced)
+    {
+        return new AdvisoryIndex()
+        {
+            @Override
+            public List<Advisory> findContaining(final int latitude, final int longitude, final long time)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<Advisory> findIntersecting(final int[] latitudes, final int[] longitudes, final long time)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void replace(final Collection<Advisory> advisories)
+            {
+                replaced.add(advisories);
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package waldo.impl.daemon.adds;
+
+import org.junit.Test;
+import waldo.service.advisory.Advisory;
+import waldo.service.advisory.AdvisoryIndex;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestAirSigmetsCacheXmlHandler} provides unit test coverage for {@link AirSigmetsCacheXmlHandler}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestAirSigmetsCacheXmlHandler
+{
+    private static final String CONTENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<response version=\"1.2\"><data num_results=\"2\">\n"
+            + "<AIRSIGMET><raw_text>WAUS43 KKCI 151445 CHIT WA 151445 AIRMET TANGO</raw_text>"
+            + "<valid_time_from>2014-07-15T15:00:00Z</valid_time_from>"
+            + "<valid_time_to>2014-07-15T21:00:00Z</valid_time_to>"
+            + "<altitude min_ft_msl=\"18000\" max_ft_msl=\"39000\" /><hazard type=\"TURB\" severity=\"MOD\" />"
+            + "<airsigmet_type>AIRMET</airsigmet_type><area num_points=\"5\">"
+            + "<point><longitude>-90.0</longitude><latitude>44.0</latitude></point>"
+            + "<point><longitude>-85.0</longitude><latitude>44.0</latitude></point>"
+            + "<point><longitude>-85.0</longitude><latitude>42.0</latitude></point>"
+            + "<point><longitude>-90.0</longitude><latitude>42.0</latitude></point>"
+            + "<point><longitude>-90.0</longitude><latitude>44.0</latitude></point></area></AIRSIGMET>\n"
+            + "<AIRSIGMET><raw_text>BROKEN</raw_text><valid_time_from>2014-07-15T15:00:00Z</valid_time_from>"
+            + "<valid_time_to>2014-07-15T21:00:00Z</valid_time_to><hazard type=\"TURB\" />"
+            + "<airsigmet_type>AIRMET</airsigmet_type><area num_points=\"2\">"
+            + "<point><longitude>-90.0</longitude><latitude>44.0</latitude></point>"
+            + "<point><longitude>-85.0</longitude><latitude>44.0</latitude></point></area></AIRSIGMET>\n"
+            + "</data></response>\n";
+
+    /**
+     * Construct a {@link TestAirSigmetsCacheXmlHandler} instance.
+     */
+    public TestAirSigmetsCacheXmlHandler()
+    {
+        super();
+    }
+
+    /**
+     * Test that advisories are bound, including their areas, that advisories which cannot be read are skipped, and
+     * that the advisories of the file replace those held.
+     */
+    @Test
+    public void testParse() throws Exception
+    {
+        final List<Collection<Advisory>> replaced = new ArrayList<>();
+
+        /* Run the test and verify expectations. */
+        new AirSigmetsCacheXmlHandler(index(replaced)).parse(new ByteArrayInputStream(CONTENT.getBytes(
+                Charset.forName("UTF-8"))), "text/xml");
+        assertEquals(1, replaced.size());
+        final List<Advisory> advisories = new ArrayList<>(replaced.get(0));
+        assertEquals(1, advisories.size());
+        final Advisory airmet = advisories.get(0);
+        assertSame(Advisory.Type.AIRMET, airmet.getType());
+        assertEquals("TURB", airmet.getHazard());
+        assertEquals("MOD", airmet.getSeverity());
+        assertEquals(18000, airmet.getMinAltitude());
+        assertEquals(39000, airmet.getMaxAltitude());
+        assertEquals(1405436400000L, airmet.getValidFrom());
+        assertEquals(-90000000, airmet.getArea().getBounds().getMinLongitude());
+        assertTrue(airmet.getArea().contains(43000000, -87000000));
+    }
+
+    /**
+     * Test that content cut short does not replace the advisories held.
+     */
+    @Test
+    public void testParseTruncated() throws Exception
+    {
+        final List<Collection<Advisory>> replaced = new ArrayList<>();
+        try
+        {
+            new AirSigmetsCacheXmlHandler(index(replaced)).parse(new ByteArrayInputStream(CONTENT.substring(0, 400)
+                    .getBytes(Charset.forName("UTF-8"))), "text/xml");
+            fail("Parse of truncated content did not throw.");
+        }
+        catch (final IOException e)
+        {
+            /* Good. */
+        }
+        assertTrue(replaced.isEmpty());
+    }
+
+    /**
+     * Create an index which records the advisories with which it is replaced.
+     *
+     * @param replaced the list to which each replacement is added.
+     * @return {@link AdvisoryIndex} instance.
+     */
+    private static AdvisoryIndex index(final List<Collection<Advisory>> replaced)
+    {
+        return new AdvisoryIndex()
+        {
+            @Override
+            public List<Advisory> findContaining(final int latitude, final int longitude, final long time)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public List<Advisory> findIntersecting(final int[] latitudes, final int[] longitudes, final long time)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void replace(final Collection<Advisory> advisories)
+            {
+                replaced.add(advisories);
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package waldo.impl.daemon.adds;
+
+import org.junit.Test;
+import waldo.service.aircraft.AircraftReport;
+import waldo.service.aircraft.AircraftReportIndex;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestAircraftReportsCacheCsvHandler} provides unit test coverage for {@link AircraftReportsCacheCsvHandler}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestAircraftReportsCacheCsvHandler
+{
+    private static final String CONTENT = "No errors\n"
+            + "No warnings\n"
+            + "4 ms\n"
+            + "data source=aircraftreports\n"
+            + "3 results\n"
+            + "receipt_time,observation_time,aircraft_ref,latitude,longitude,altitude_ft_msl,sky_cover,"
+            + "cloud_base_ft_msl,cloud_top_ft_msl,sky_cover,cloud_base_ft_msl,cloud_top_ft_msl,turbulence_type,"
+            + "turbulence_intensity,turbulence_base_ft_msl,turbulence_top_ft_msl,turbulence_freq,turbulence_type,"
+            + "turbulence_intensity,turbulence_base_ft_msl,turbulence_top_ft_msl,turbulence_freq,icing_type,"
+            + "icing_intensity,icing_base_ft_msl,icing_top_ft_msl,icing_type,icing_intensity,icing_base_ft_msl,"
+            + "icing_top_ft_msl,visibility_statute_mi,wx_string,temp_c,wind_dir_degrees,wind_speed_kt,vert_gust_kt,"
+            + "report_type,raw_text\n"
+            + "2014-07-15T17:45:10Z,2014-07-15T17:42:00Z,B737,41.98,-87.9,10000,BKN,,8000,OVC,,11000,CAT,LGT,9000,"
+            + "11000,,CAT,MOD,10000,10000,,RIME,TRC,8000,9000,,,,,,,-5,,,,Urgent PIREP,"
+            + "ORD UUA /OV ORD/TM 1742/FL100/TP B737/SK BKN080-TOP080/OVC-TOP110/TB LGT 090-110,MOD 100\n"
+            + "2014-07-15T17:46:00Z,2014-07-15T17:40:00Z,,42.5,-88.1,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,PIREP,"
+            + "RFD UA /OV RFD/TM 1740\n"
+            + "2014-07-15T17:46:00Z,2014-07-15T17:40:00Z,,north,-88.1,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,,PIREP,RFD UA\n";
+
+    /**
+     * Construct a {@link TestAircraftReportsCacheCsvHandler} instance.
+     */
+    public TestAircraftReportsCacheCsvHandler()
+    {
+        super();
+    }
+
+    /**
+     * Test that reports are read by column name, keeping the most severe condition of each kind and the highest cloud
+     * tops, and that lines which cannot be read are skipped.
+     */
+    @Test
+    public void testParse() throws Exception
+    {
+        final List<AircraftReport> added = new ArrayList<>();
+        final AircraftReportsCacheCsvHandler handler = new AircraftReportsCacheCsvHandler(new AircraftReportIndex()
+        {
+            @Override
+            public boolean add(final AircraftReport report)
+            {
+                return added.add(report);
+            }
+
+            @Override
+            public List<AircraftReport> find(final int latitude, final int longitude, final double radius,
+                                             final int lowest, final int highest, final long from, final long to)
+            {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        /* Run the test and verify expectations. */
+        handler.parse(new ByteArrayInputStream(CONTENT.getBytes(Charset.forName("US-ASCII"))), "text/plain");
+        assertEquals(2, added.size());
+        final AircraftReport urgent = added.get(0);
+        assertSame(AircraftReport.Type.URGENT_PIREP, urgent.getType());
+        assertEquals(1405446120000L, urgent.getObservedAt());
+        assertEquals("B737", urgent.getAircraftType());
+        assertEquals(41980000, urgent.getLatitude());
+        assertEquals(-87900000, urgent.getLongitude());
+        assertEquals(10000, urgent.getAltitude());
+        assertEquals(11000, urgent.getCloudTop());
+        assertSame(AircraftReport.Intensity.MODERATE, urgent.getTurbulenceIntensity());
+        assertEquals(10000, urgent.getTurbulenceBase());
+        assertEquals(10000, urgent.getTurbulenceTop());
+        assertSame(AircraftReport.Intensity.TRACE, urgent.getIcingIntensity());
+        assertEquals(8000, urgent.getIcingBase());
+        assertEquals("ORD UUA /OV ORD/TM 1742/FL100/TP B737/SK BKN080-TOP080/OVC-TOP110/TB LGT 090-110,MOD 100",
+                urgent.getRawText());
+        final AircraftReport routine = added.get(1);
+        assertSame(AircraftReport.Type.PIREP, routine.getType());
+        assertNull(routine.getAircraftType());
+        assertEquals(AircraftReport.MISSING, routine.getAltitude());
+        assertEquals(AircraftReport.MISSING, routine.getCloudTop());
+        assertNull(routine.getTurbulenceIntensity());
+        assertNull(routine.getIcingIntensity());
+    }
+
+    /**
+     * Test that only the aircraft reports cache file is supported.
+     */
+    @Test
+    public void testSupports()
+    {
+        final AircraftReportsCacheCsvHandler handler = new AircraftReportsCacheCsvHandler(null);
+
+        /* Run the test and verify expectations. */
+        assertTrue(handler.supports(new AddsContentImpl("aircraftreports.cache.csv.gz", null, null, null)));
+        assertFalse(handler.supports(new AddsContentImpl("aircraftreports.cache.xml.gz", null, null, null)));
+    }
+}
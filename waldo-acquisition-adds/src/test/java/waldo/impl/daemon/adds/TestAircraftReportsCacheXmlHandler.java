@@ -0,0 +1,105 @@
+package waldo.impl.daemon.adds;
+
+import org.junit.Test;
+import waldo.service.aircraft.AircraftReport;
+import waldo.service.aircraft.AircraftReportIndex;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestAircraftReportsCacheXmlHandler} provides unit test coverage for {@link AircraftReportsCacheXmlHandler}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestAircraftReportsCacheXmlHandler
+{
+    private static final String CONTENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<response version=\"1.2\"><data num_results=\"3\">\n"
+            + "<AircraftReport><receipt_time>2014-07-15T17:45:10Z</receipt_time>"
+            + "<observation_time>2014-07-15T17:42:00Z</observation_time><aircraft_ref>B737</aircraft_ref>"
+            + "<latitude>41.98</latitude><longitude>-87.9</longitude><altitude_ft_msl>10000</altitude_ft_msl>"
+            + "<sky_condition sky_cover=\"BKN\" cloud_top_ft_msl=\"8000\" />"
+            + "<sky_condition sky_cover=\"OVC\" cloud_top_ft_msl=\"11000\" />"
+            + "<turbulence_condition turbulence_type=\"CAT\" turbulence_intensity=\"LGT\""
+            + " turbulence_base_ft_msl=\"9000\" turbulence_top_ft_msl=\"11000\" />"
+            + "<turbulence_condition turbulence_type=\"CAT\" turbulence_intensity=\"MOD\""
+            + " turbulence_base_ft_msl=\"10000\" turbulence_top_ft_msl=\"10000\" />"
+            + "<icing_condition icing_type=\"RIME\" icing_intensity=\"TRC\" icing_base_ft_msl=\"8000\""
+            + " icing_top_ft_msl=\"9000\" />"
+            + "<raw_text>ORD UUA /OV ORD/TM 1742/FL100/TP B737/TB LGT 090-110,MOD 100</raw_text>"
+            + "<report_type>Urgent PIREP</report_type></AircraftReport>\n"
+            + "<AircraftReport><observation_time>2014-07-15T17:40:00Z</observation_time><latitude>42.5</latitude>"
+            + "<longitude>-88.1</longitude><raw_text>RFD UA /OV RFD/TM 1740</raw_text>"
+            + "<report_type>PIREP</report_type></AircraftReport>\n"
+            + "<AircraftReport><observation_time>2014-07-15T17:40:00Z</observation_time><latitude>north</latitude>"
+            + "<longitude>-88.1</longitude><raw_text>RFD UA</raw_text></AircraftReport>\n"
+            + "</data></response>\n";
+
+    /**
+     * Construct a {@link TestAircraftReportsCacheXmlHandler} instance.
+     */
+    public TestAircraftReportsCacheXmlHandler()
+    {
+        super();
+    }
+
+    /**
+     * Test that reports are bound, keeping the most severe condition of each kind and the highest cloud tops, and that
+     * reports holding an unreadable element are skipped.
+     */
+    @Test
+    public void testParse() throws Exception
+    {
+        final List<AircraftReport> added = new ArrayList<>();
+        final AircraftReportsCacheXmlHandler handler = new AircraftReportsCacheXmlHandler(new AircraftReportIndex()
+        {
+            @Override
+            public boolean add(final AircraftReport report)
+            {
+                return added.add(report);
+            }
+
+            @Override
+            public List<AircraftReport> find(final int latitude, final int longitude, final double radius,
+                                             final int lowest, final int highest, final long from, final long to)
+            {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        /* Run the test and verify expectations. */
+        handler.parse(new ByteArrayInputStream(CONTENT.getBytes(Charset.forName("UTF-8"))), "text/xml");
+        assertEquals(2, added.size());
+        final AircraftReport urgent = added.get(0);
+        assertSame(AircraftReport.Type.URGENT_PIREP, urgent.getType());
+        assertEquals(1405446120000L, urgent.getObservedAt());
+        assertEquals("B737", urgent.getAircraftType());
+        assertEquals(41980000, urgent.getLatitude());
+        assertEquals(10000, urgent.getAltitude());
+        assertEquals(11000, urgent.getCloudTop());
+        assertSame(AircraftReport.Intensity.MODERATE, urgent.getTurbulenceIntensity());
+        assertEquals(10000, urgent.getTurbulenceBase());
+        assertSame(AircraftReport.Intensity.TRACE, urgent.getIcingIntensity());
+        assertEquals(9000, urgent.getIcingTop());
+        final AircraftReport routine = added.get(1);
+        assertSame(AircraftReport.Type.PIREP, routine.getType());
+        assertNull(routine.getAircraftType());
+        assertEquals(AircraftReport.MISSING, routine.getAltitude());
+        assertEquals(AircraftReport.MISSING, routine.getCloudTop());
+        assertNull(routine.getTurbulenceIntensity());
+    }
+}
@@ -0,0 +1,147 @@
+package waldo.impl.daemon.adds;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import waldo.entity.FlightCategory;
+import waldo.entity.PresentWeather;
+import waldo.entity.ReportType;
+import waldo.entity.SkyLayers;
+import waldo.service.observation.ObservationRecord;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestMetarDecoder} provides unit test coverage for {@link MetarDecoder}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestMetarDecoder
+{
+    /**
+     * Construct a {@link TestMetarDecoder} instance.
+     */
+    public TestMetarDecoder()
+    {
+        super();
+    }
+
+    /**
+     * Test decoding of a US report with mixed-fraction visibility, weather, several layers and remarks.
+     */
+    @Test
+    public void testDecode()
+    {
+        final MetarDecoder decoder = new MetarDecoder();
+
+        /* Run the test and verify expectations. */
+        final ObservationRecord record = decoder.decode("METAR KORD 121651Z 27015G25KT 1 1/2SM -TSRA BR BKN015 " +
+                "OVC030CB 22/19 A2992 RMK AO2 LTG DSNT W SLP125 P0012 T02220189 53012", utc(2014, 7, 12, 17, 0));
+        assertEquals("KORD", record.getStation());
+        assertEquals(utc(2014, 7, 12, 16, 51), record.getObservedAt());
+        assertEquals(ReportType.METAR, record.getReportType());
+        assertEquals(270, record.getWindDirection());
+        assertEquals(15, record.getWindSpeed());
+        assertEquals(25, record.getWindGust());
+        assertEquals(150, record.getVisibility());
+        assertEquals("BKN015 OVC030", SkyLayers.toString(record.getSkyLayers()));
+        assertEquals(222, record.getTemperature());
+        assertEquals(189, record.getDewpoint());
+        assertEquals(2992, record.getAltimeter());
+        assertEquals(10125, record.getSeaLevelPressure());
+        assertEquals(12, record.getPrecipitation());
+        assertEquals(FlightCategory.IFR, record.getFlightCategory());
+        assertEquals(PresentWeather.LIGHT | PresentWeather.forCode("TS") | PresentWeather.forCode("RA") |
+                PresentWeather.forCode("BR"), decoder.getWeather());
+        assertTrue(decoder.isLightning());
+        assertEquals(3, decoder.getPressureTendency());
+        assertEquals(12, decoder.getPressureChange());
+    }
+
+    /**
+     * Test decoding of an international report with metric units, and of a special report with variable wind and an
+     * obscured sky.
+     */
+    @Test
+    public void testDecodeVariants()
+    {
+        final MetarDecoder decoder = new MetarDecoder();
+        final String line = "EGLL 010950Z 12008MPS 9999 -SHRA FEW020 SCT040 M02/M05 Q1013 NOSIG,EGLL,2014-08-01";
+
+        /* Run the test and verify expectations. */
+        ObservationRecord record = decoder.decode(line, 0, line.indexOf(','), utc(2014, 8, 1, 10, 0));
+        assertEquals("EGLL", record.getStation());
+        assertEquals(utc(2014, 8, 1, 9, 50), record.getObservedAt());
+        assertEquals(120, record.getWindDirection());
+        assertEquals(16, record.getWindSpeed());
+        assertEquals(ObservationRecord.MISSING, record.getWindGust());
+        assertEquals(621, record.getVisibility());
+        assertEquals(-20, record.getTemperature());
+        assertEquals(-50, record.getDewpoint());
+        assertEquals(2991, record.getAltimeter());
+        assertEquals(ObservationRecord.MISSING, record.getSeaLevelPressure());
+        assertEquals(FlightCategory.VFR, record.getFlightCategory());
+        assertEquals(PresentWeather.LIGHT | PresentWeather.forCode("SH") | PresentWeather.forCode("RA"),
+                decoder.getWeather());
+        assertFalse(decoder.isLightning());
+        assertEquals(ObservationRecord.MISSING, decoder.getPressureTendency());
+
+        record = decoder.decode("SPECI KSFO 311755Z VRB03KT M1/4SM VCFG VV002 12/ A3001 RMK T01171006 58033",
+                utc(2014, 8, 1, 0, 10));
+        assertEquals(ReportType.SPECI, record.getReportType());
+        assertEquals(utc(2014, 7, 31, 17, 55), record.getObservedAt());
+        assertEquals(0, record.getWindDirection());
+        assertEquals(3, record.getWindSpeed());
+        assertEquals(25, record.getVisibility());
+        assertEquals("VV002", SkyLayers.toString(record.getSkyLayers()));
+        assertEquals(117, record.getTemperature());
+        assertEquals(-6, record.getDewpoint());
+        assertEquals(FlightCategory.LIFR, record.getFlightCategory());
+        assertEquals(PresentWeather.VICINITY | PresentWeather.forCode("FG"), decoder.getWeather());
+        assertEquals(8, decoder.getPressureTendency());
+        assertEquals(-33, decoder.getPressureChange());
+    }
+
+    /**
+     * Test that malformed groups are skipped, and that reports without a valid station or time, or which are
+     * {@code NIL}, are rejected, all without throwing.
+     */
+    @Test
+    public void testMalformed()
+    {
+        final MetarDecoder decoder = new MetarDecoder();
+        final long reference = utc(2014, 7, 12, 17, 0);
+
+        /* Run the test and verify expectations. */
+        final ObservationRecord record = decoder.decode("KORD 121651Z /////KT 1/0SM ZZ BKN/// 99/ZZ A99 / + 27015KT " +
+                "RMK SLPNO T9 5 P LTG", reference);
+        assertEquals("KORD", record.getStation());
+        assertEquals(ObservationRecord.MISSING, record.getWindSpeed());
+        assertEquals(ObservationRecord.MISSING, record.getVisibility());
+        assertEquals(SkyLayers.NONE, record.getSkyLayers());
+        assertEquals(ObservationRecord.MISSING, record.getTemperature());
+        assertEquals(ObservationRecord.MISSING, record.getAltimeter());
+        assertNull(record.getFlightCategory());
+        assertTrue(decoder.isLightning());
+        assertNotNull(decoder.decode("KORD 121651Z 270", reference));
+        for (final String text : new String[]{"", "   ", "KORD", "KORD 121651Z NIL", "KORD 1216Z 27015KT",
+                "KORD 321651Z 27015KT", "K#RD 121651Z", "METAR", "KORD 122461Z"})
+        {
+            assertNull(text, decoder.decode(text, reference));
+        }
+    }
+
+    private static long utc(final int year, final int month, final int day, final int hour, final int minute)
+    {
+        return new DateTime(year, month, day, hour, minute, DateTimeZone.UTC).getMillis();
+    }
+}
@@ -0,0 +1,116 @@
+package waldo.impl.daemon.adds;
+
+import org.junit.Test;
+import waldo.service.journal.ObservationJournal;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationStore;
+import waldo.service.station.StationMetadata;
+import waldo.service.station.StationReference;
+import waldo.utility.geo.BoundingBox;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Constructor;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestMetarsCacheCsvHandler} provides unit test coverage for {@link MetarsCacheCsvHandler}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestMetarsCacheCsvHandler
+{
+    private static final String CONTENT = "No errors\nNo warnings\n3 ms\ndata source=metars\n3 results\n"
+            + "raw_text,station_id,observation_time,latitude,longitude,temp_c\n"
+            + "KORD 151751Z 27010G18KT 10SM BKN050 OVC100 24/14 A2992,KORD,2014-07-15T17:51:00Z,41.98,-87.9,24.4\n"
+            + "KDEN 151753Z 36005KT 10SM FEW080 30/05 A3010,KDEN,2014-07-15T17:53:00Z,39.85,-104.65,30.0\n"
+            + "KRFD 1517,KRFD,2014-07-15T17:52:00Z,42.2,-89.1,\n";
+
+    /**
+     * Construct a {@link TestMetarsCacheCsvHandler} instance.
+     */
+    public TestMetarsCacheCsvHandler()
+    {
+        super();
+    }
+
+    /**
+     * Test that reports parsed from the file, once journaled and applied to the store, can be found by the region
+     * holding their stations, the position of each station being that given by the reference data where the station
+     * is listed there, and otherwise that read from the file.
+     */
+    @Test
+    public void testParseFindByRegion() throws Throwable
+    {
+        @SuppressWarnings("unchecked")
+        final Class<ObservationStore> clazz = (Class<ObservationStore>) Class.forName(
+                "waldo.impl.service.observation.ObservationStoreImpl");
+        final Constructor<ObservationStore> constructor = clazz.getDeclaredConstructor(long.class, String.class,
+                int.class);
+        constructor.setAccessible(true);
+        final ObservationStore store = constructor.newInstance(Long.MAX_VALUE, "", 64);
+
+        /* Stands in for the journal and the component which applies journaled records to the store. */
+        final ObservationJournal journal = new ObservationJournal()
+        {
+            private long m_sequence;
+
+            @Override
+            public long append(final ObservationRecord record)
+            {
+                store.put(record);
+                return ++m_sequence;
+            }
+
+            @Override
+            public void flush()
+            {
+                /* Nothing to flush. */
+            }
+
+            @Override
+            public int consume(final String consumer, final ObservationHandler handler, final int maxRecords)
+            {
+                return 0;
+            }
+
+            @Override
+            public void compact()
+            {
+                /* Nothing to compact. */
+            }
+        };
+
+        final StationReference reference = createMock(StationReference.class);
+        expect(reference.find("KORD")).andReturn(null);
+        expect(reference.find("KDEN")).andReturn(new StationMetadata.Builder().setStation("KDEN").setLatitude(
+                39861667).setLongitude(-104673056).toMetadata());
+        replay(reference);
+
+        /* Run the test and verify expectations. */
+        new MetarsCacheCsvHandler(journal, store, reference).parse(new ByteArrayInputStream(CONTENT.getBytes(
+                Charset.forName("US-ASCII"))), "text/csv");
+        verify(reference);
+        final List<ObservationRecord> chicago = store.findLatest(BoundingBox.fromDegrees(41.0, -89.0, 43.0, -87.0));
+        assertEquals(1, chicago.size());
+        assertEquals("KORD", chicago.get(0).getStation());
+        assertEquals(240, chicago.get(0).getTemperature());
+        assertEquals(2, store.findLatest(BoundingBox.fromDegrees(30.0, -110.0, 50.0, -80.0)).size());
+        assertEquals(1, store.findLatest(BoundingBox.fromDegrees(39.86, -104.68, 39.87, -104.67)).size());
+        assertTrue(store.findLatest(BoundingBox.fromDegrees(39.84, -104.66, 39.855, -104.64)).isEmpty());
+        assertTrue(store.findLatest(BoundingBox.fromDegrees(0.0, 0.0, 10.0, 10.0)).isEmpty());
+    }
+}
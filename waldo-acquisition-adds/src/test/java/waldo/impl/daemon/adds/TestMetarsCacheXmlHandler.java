@@ -0,0 +1,135 @@
+package waldo.impl.daemon.adds;
+
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.junit.Test;
+import waldo.entity.FlightCategory;
+import waldo.entity.ReportType;
+import waldo.entity.SkyCover;
+import waldo.entity.SkyLayers;
+import waldo.service.journal.ObservationJournal;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationStore;
+import waldo.service.station.StationReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestMetarsCacheXmlHandler} provides unit test coverage for {@link MetarsCacheXmlHandler}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestMetarsCacheXmlHandler
+{
+    private static final String CONTENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<response version=\"1.2\"><data_source name=\"metars\" /><data num_results=\"3\">\n"
+            + "<METAR><raw_text>KORD 151751Z 27010G18KT 10SM BKN050 OVC100 24/14 A2992 RMK AO2 SLP130</raw_text>"
+            + "<station_id>KORD</station_id><observation_time>2014-07-15T17:51:00Z</observation_time>"
+            + "<latitude>41.98</latitude><longitude>-87.9</longitude><temp_c>24.4</temp_c>"
+            + "<dewpoint_c>13.9</dewpoint_c><wind_dir_degrees>270</wind_dir_degrees><wind_speed_kt>10</wind_speed_kt>"
+            + "<wind_gust_kt>18</wind_gust_kt><visibility_statute_mi>10.0</visibility_statute_mi>"
+            + "<altim_in_hg>29.920275</altim_in_hg><sea_level_pressure_mb>1013.0</sea_level_pressure_mb>"
+            + "<sky_condition sky_cover=\"BKN\" cloud_base_ft_agl=\"5000\" />"
+            + "<sky_condition sky_cover=\"OVC\" cloud_base_ft_agl=\"10000\" />"
+            + "<flight_category>VFR</flight_category><metar_type>METAR</metar_type></METAR>\n"
+            + "<METAR><raw_text>SPECI KMDW 151805Z VRB04KT 1 3/4SM BR OVC004 20/19 A2990</raw_text>"
+            + "<station_id>KMDW</station_id><observation_time>2014-07-15T18:05:00Z</observation_time>"
+            + "<wind_dir_degrees>VRB</wind_dir_degrees><wind_speed_kt>4</wind_speed_kt>"
+            + "<visibility_statute_mi>1.75</visibility_statute_mi>"
+            + "<sky_condition sky_cover=\"OVC\" cloud_base_ft_agl=\"400\" /><metar_type>SPECI</metar_type></METAR>\n"
+            + "<METAR><station_id>KRFD</station_id><observation_time>2014-07-15T17:52:00Z</observation_time>"
+            + "<temp_c>warm</temp_c></METAR>\n"
+            + "</data></response>\n";
+
+    /**
+     * Construct a {@link TestMetarsCacheXmlHandler} instance.
+     */
+    public TestMetarsCacheXmlHandler()
+    {
+        super();
+    }
+
+    /**
+     * Test that reports are bound element by element, that the position of a station is recorded where the report
+     * gives one, that reports holding an unreadable element are skipped, and that the journal is flushed once all
+     * reports have been appended.
+     */
+    @Test
+    public void testParse() throws Exception
+    {
+        final ObservationJournal journal = createStrictMock(ObservationJournal.class);
+        final Capture<ObservationRecord> records = new Capture<>(CaptureType.ALL);
+        expect(journal.append(capture(records))).andReturn(1L).times(2);
+        journal.flush();
+        final ObservationStore store = createStrictMock(ObservationStore.class);
+        store.locate("KORD", 41980000, -87900000);
+        final StationReference reference = createNiceMock(StationReference.class);
+        replay(journal, store, reference);
+
+        /* Run the test and verify expectations. */
+        new MetarsCacheXmlHandler(journal, store, reference).parse(new ByteArrayInputStream(CONTENT.getBytes(
+                Charset.forName("UTF-8"))), "text/xml");
+        verify(journal, store);
+        final List<ObservationRecord> values = records.getValues();
+        final ObservationRecord metar = values.get(0);
+        assertEquals("KORD", metar.getStation());
+        assertEquals(1405446660000L, metar.getObservedAt());
+        assertSame(ReportType.METAR, metar.getReportType());
+        assertEquals(244, metar.getTemperature());
+        assertEquals(139, metar.getDewpoint());
+        assertEquals(270, metar.getWindDirection());
+        assertEquals(10, metar.getWindSpeed());
+        assertEquals(18, metar.getWindGust());
+        assertEquals(1000, metar.getVisibility());
+        assertEquals(2992, metar.getAltimeter());
+        assertEquals(10130, metar.getSeaLevelPressure());
+        assertEquals(ObservationRecord.MISSING, metar.getPrecipitation());
+        assertEquals(2, SkyLayers.getCount(metar.getSkyLayers()));
+        assertSame(SkyCover.BKN, SkyLayers.getCover(metar.getSkyLayers(), 0));
+        assertEquals(50, SkyLayers.getBase(metar.getSkyLayers(), 0));
+        assertSame(FlightCategory.VFR, metar.getFlightCategory());
+        final ObservationRecord speci = values.get(1);
+        assertSame(ReportType.SPECI, speci.getReportType());
+        assertEquals(0, speci.getWindDirection());
+        assertEquals(175, speci.getVisibility());
+        assertSame(FlightCategory.LIFR, speci.getFlightCategory());
+    }
+
+    /**
+     * Test that content which is not well-formed is reported as an I/O error.
+     */
+    @Test
+    public void testParseMalformed() throws Exception
+    {
+        final ObservationJournal journal = createStrictMock(ObservationJournal.class);
+        final ObservationStore store = createStrictMock(ObservationStore.class);
+        final StationReference reference = createStrictMock(StationReference.class);
+        replay(journal, store, reference);
+        try
+        {
+            new MetarsCacheXmlHandler(journal, store, reference).parse(new ByteArrayInputStream(
+                    "<response><data>".getBytes(Charset.forName("UTF-8"))), "text/xml");
+            fail("Parse of malformed content did not throw.");
+        }
+        catch (final IOException e)
+        {
+            /* Good. */
+        }
+        verify(journal, store);
+    }
+}
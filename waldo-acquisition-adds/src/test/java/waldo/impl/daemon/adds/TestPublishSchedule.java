@@ -0,0 +1,162 @@
+package waldo.impl.daemon.adds;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestPublishSchedule} provides unit test coverage for {@link PublishSchedule}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestPublishSchedule
+{
+    private static final long MINUTE = 60000L;
+
+    /**
+     * Construct a {@link TestPublishSchedule} instance.
+     */
+    public TestPublishSchedule()
+    {
+        super();
+    }
+
+    /**
+     * Test that the directory is listed shortly after a product's expected update once its interval is learned, and at
+     * the minimum delay until then.
+     */
+    @Test
+    public void testLearnInterval()
+    {
+        final PublishSchedule schedule = new PublishSchedule(30000L, 5L * MINUTE, 15000L, 0L, new Random(1L));
+        final long start = 1000L * MINUTE;
+        assertTrue(schedule.isDue(start));
+
+        /* Run the test and verify expectations. */
+        schedule.observe("metars.cache.csv.gz", start - 20000L);
+        assertEquals(start + 30000L, schedule.reschedule(start));
+        assertFalse(schedule.isDue(start + 29999L));
+        assertTrue(schedule.isDue(start + 30000L));
+        schedule.observe("metars.cache.csv.gz", start + 40000L);
+        assertEquals(MINUTE, schedule.getInterval("metars.cache.csv.gz"));
+        assertEquals(start + 40000L + MINUTE + 15000L, schedule.reschedule(start + 60000L));
+
+        /* A shorter interval is approached gradually. */
+        schedule.observe("metars.cache.csv.gz", start + 40000L + 40000L);
+        assertEquals(MINUTE - 5000L, schedule.getInterval("metars.cache.csv.gz"));
+
+        /* An earlier or repeated modification time is not a new version. */
+        schedule.observe("metars.cache.csv.gz", start + 40000L);
+        schedule.observe("metars.cache.csv.gz", start + 80000L);
+        assertEquals(MINUTE - 5000L, schedule.getInterval("metars.cache.csv.gz"));
+        assertEquals(0L, schedule.getInterval("tafs.cache.csv.gz"));
+    }
+
+    /**
+     * Test that the earliest product determines the next listing, that an overdue product is checked again after a
+     * fraction of its interval, and that the maximum delay is never exceeded.
+     */
+    @Test
+    public void testReschedule()
+    {
+        final PublishSchedule schedule = new PublishSchedule(30000L, 5L * MINUTE, 15000L, 0L, new Random(1L));
+        final long start = 1000L * MINUTE;
+        schedule.observe("tafs.cache.csv.gz", start - 60L * MINUTE);
+        schedule.observe("tafs.cache.csv.gz", start);
+        schedule.observe("aircraftreports.cache.csv.gz", start - 10L * MINUTE);
+        schedule.observe("aircraftreports.cache.csv.gz", start);
+
+        /* Run the test and verify expectations. */
+        assertEquals(start + 5L * MINUTE, schedule.reschedule(start));
+        assertEquals(start + 10L * MINUTE + 15000L, schedule.reschedule(start + 9L * MINUTE));
+        assertEquals(start + 12L * MINUTE + 150000L, schedule.reschedule(start + 12L * MINUTE));
+        schedule.observe("metars.cache.csv.gz", start);
+        schedule.observe("metars.cache.csv.gz", start + MINUTE);
+        assertEquals(start + 2L * MINUTE + 30000L, schedule.reschedule(start + 2L * MINUTE));
+
+        /* A product with no second version within the maximum delay no longer holds the schedule down. */
+        final PublishSchedule idle = new PublishSchedule(30000L, 5L * MINUTE, 15000L, 0L, new Random(1L));
+        idle.observe("stations.cache.csv.gz", start);
+        assertEquals(start + 60000L, idle.reschedule(start + 30000L));
+        assertEquals(start + 11L * MINUTE, idle.reschedule(start + 6L * MINUTE));
+    }
+
+    /**
+     * Test that a product not observed in a complete listing is forgotten, and no longer holds the schedule down once
+     * overdue.
+     */
+    @Test
+    public void testExpire()
+    {
+        final PublishSchedule schedule = new PublishSchedule(30000L, 5L * MINUTE, 15000L, 0L, new Random(1L));
+        final long start = 1000L * MINUTE;
+        schedule.observe("metars.cache.csv.gz", start - MINUTE);
+        schedule.observe("metars.cache.csv.gz", start);
+        schedule.observe("tafs.cache.csv.gz", start - 60L * MINUTE);
+        schedule.observe("tafs.cache.csv.gz", start);
+
+        /* Run the test and verify expectations. */
+        assertEquals(0, schedule.expire());
+        assertEquals(start + 2L * MINUTE + 30000L, schedule.reschedule(start + 2L * MINUTE));
+        schedule.observe("tafs.cache.csv.gz", start);
+        assertEquals(1, schedule.expire());
+        assertEquals(0L, schedule.getInterval("metars.cache.csv.gz"));
+        assertEquals(60L * MINUTE, schedule.getInterval("tafs.cache.csv.gz"));
+        assertEquals(start + 7L * MINUTE, schedule.reschedule(start + 2L * MINUTE));
+        assertEquals(1, schedule.expire());
+        assertEquals(0L, schedule.getInterval("tafs.cache.csv.gz"));
+    }
+
+    /**
+     * Test that jitter delays each listing by less than the configured bound.
+     */
+    @Test
+    public void testJitter()
+    {
+        final PublishSchedule schedule = new PublishSchedule(30000L, 5L * MINUTE, 15000L, 10000L, new Random(1L));
+
+        /* Run the test and verify expectations. */
+        for (int i = 0; i < 100; i++)
+        {
+            final long due = schedule.reschedule(0L);
+            assertTrue(due >= 5L * MINUTE && due < 5L * MINUTE + 10000L);
+        }
+    }
+
+    /**
+     * Test that an invalid configuration is rejected.
+     */
+    @Test
+    public void testInvalidArguments()
+    {
+        try
+        {
+            new PublishSchedule(60000L, 30000L, 0L, 0L, new Random());
+            fail("Construction with maximum delay less than minimum delay did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try
+        {
+            new PublishSchedule(0L, 30000L, 0L, 0L, new Random());
+            fail("Construction with zero minimum delay did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package waldo.impl.daemon.adds;
+
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import waldo.facade.reference.ReferenceDataFacade;
+import waldo.service.station.StationMetadata;
+import waldo.service.station.StationReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestStationsCacheCsvHandler} provides unit test coverage for {@link StationsCacheCsvHandler} and
+ * {@link StationReferenceFileLoader}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestStationsCacheCsvHandler
+{
+    private static final String CONTENT = "No errors\n"
+            + "No warnings\n"
+            + "52 ms\n"
+            + "data source=stations\n"
+            + "3 results\n"
+            + "station_id,wmo_id,latitude,longitude,elevation_m,site,state,country,site_type\n"
+            + "KORD,72530,41.98,-87.93,201.0,CHICAGO/O'HARE,IL,US,METAR TAF\n"
+            + "KMDW,72534,41.78,-87.75,,CHICAGO/MIDWAY,IL,US,METAR TAF\n"
+            + "KXYZ,,north,-87.75,189.0,NOWHERE,IL,US,METAR\n";
+
+    @Rule
+    public final TemporaryFolder m_folder = new TemporaryFolder();
+
+    /**
+     * Construct a {@link TestStationsCacheCsvHandler} instance.
+     */
+    public TestStationsCacheCsvHandler()
+    {
+        super();
+    }
+
+    /**
+     * Test that station metadata is read by column name, that lines which cannot be read are skipped, and that the
+     * metadata read is saved as well as held.
+     */
+    @Test
+    public void testParse() throws Exception
+    {
+        final List<Collection<StationMetadata>> replaced = new ArrayList<>();
+        final ReferenceDataFacade facade = createStrictMock(ReferenceDataFacade.class);
+        final Capture<Collection<StationMetadata>> saved = new Capture<>();
+        expect(facade.saveStations(capture(saved))).andReturn(2);
+        replay(facade);
+        final StationsCacheCsvHandler handler = new StationsCacheCsvHandler(reference(replaced), facade, "");
+
+        /* Run the test and verify expectations. */
+        handler.parse(new ByteArrayInputStream(CONTENT.getBytes(Charset.forName("US-ASCII"))), "text/plain");
+        verify(facade);
+        assertEquals(1, replaced.size());
+        assertSame(replaced.get(0), saved.getValue());
+        final List<StationMetadata> stations = new ArrayList<>(replaced.get(0));
+        assertEquals(2, stations.size());
+        final StationMetadata ord = stations.get(0);
+        assertEquals("KORD", ord.getStation());
+        assertEquals(41980000, ord.getLatitude());
+        assertEquals(-87930000, ord.getLongitude());
+        assertEquals(201, ord.getElevation());
+        assertEquals("CHICAGO/O'HARE", ord.getName());
+        assertEquals("IL", ord.getState());
+        assertEquals("US", ord.getCountry());
+        assertEquals(StationMetadata.MISSING, stations.get(1).getElevation());
+        assertTrue(handler.supports(new AddsContentImpl("stations.cache.csv.gz", null, null, null)));
+        assertFalse(handler.supports(new AddsContentImpl("stations.cache.xml.gz", null, null, null)));
+    }
+
+    /**
+     * Test that the local reference file is read when first found and again only once it has changed, and that the
+     * ADDS stations product is then not read. A failure to save the metadata does not prevent it being held.
+     */
+    @Test
+    public void testLoad() throws Exception
+    {
+        final List<Collection<StationMetadata>> replaced = new ArrayList<>();
+        final File file = new File(m_folder.getRoot(), "stations.csv");
+        final ReferenceDataFacade facade = createStrictMock(ReferenceDataFacade.class);
+        final Capture<Collection<StationMetadata>> saved = new Capture<>(CaptureType.ALL);
+        expect(facade.saveStations(capture(saved))).andThrow(new IllegalStateException("Test.")).andReturn(0);
+        replay(facade);
+        final StationsCacheCsvHandler handler = new StationsCacheCsvHandler(reference(replaced), facade,
+                file.getPath());
+        final StationReferenceFileLoader loader = new StationReferenceFileLoader(handler, file.getPath());
+
+        /* Run the test and verify expectations. */
+        assertFalse(loader.load());
+        write(file, CONTENT);
+        assertTrue(loader.load());
+        assertFalse(loader.load());
+        assertEquals(1, replaced.size());
+        write(file, CONTENT.substring(0, CONTENT.lastIndexOf("KXYZ")));
+        assertTrue(loader.load());
+        assertEquals(2, replaced.size());
+        verify(facade);
+        assertEquals(replaced, saved.getValues());
+        assertFalse(new StationReferenceFileLoader(null, "").load());
+        assertFalse(handler.supports(new AddsContentImpl("stations.cache.csv.gz", null, null, null)));
+    }
+
+    /**
+     * Create a reference table which records the metadata with which it is replaced.
+     *
+     * @param replaced the list to which each replacement is added.
+     * @return {@link StationReference} instance.
+     */
+    private static StationReference reference(final List<Collection<StationMetadata>> replaced)
+    {
+        return new StationReference()
+        {
+            @Override
+            public StationMetadata find(final String station)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public StationMetadata get(final int id)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long getVersion()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean replace(final Collection<StationMetadata> stations)
+            {
+                return replaced.add(stations);
+            }
+        };
+    }
+
+    /**
+     * Write a file.
+     *
+     * @param file the file.
+     * @param content the content.
+     */
+    private static void write(final File file, final String content) throws Exception
+    {
+        try (final OutputStream stream = new FileOutputStream(file))
+        {
+            stream.write(content.getBytes(Charset.forName("US-ASCII")));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package waldo.impl.daemon.adds;
+
+import org.junit.Test;
+import waldo.entity.PresentWeather;
+import waldo.entity.SkyLayers;
+import waldo.service.forecast.ForecastConditions;
+import waldo.service.forecast.ForecastTimeline;
+import waldo.service.forecast.TerminalForecast;
+import waldo.service.observation.ObservationRecord;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestTafCacheXmlHandler} provides unit test coverage for {@link TafCacheXmlHandler}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestTafCacheXmlHandler
+{
+    private static final String CONTENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<response version=\"1.2\"><data num_results=\"2\">\n"
+            + "<TAF><raw_text>TAF KORD 151720Z 1518/1624 27010KT P6SM BKN050 TEMPO 1520/1522 3SM TSRA OVC020"
+            + " FM160200 VRB03KT P6SM NSW SKC</raw_text><station_id>KORD</station_id>"
+            + "<issue_time>2014-07-15T17:20:00Z</issue_time><valid_time_from>2014-07-15T18:00:00Z</valid_time_from>"
+            + "<valid_time_to>2014-07-17T00:00:00Z</valid_time_to>"
+            + "<forecast><fcst_time_from>2014-07-15T18:00:00Z</fcst_time_from>"
+            + "<fcst_time_to>2014-07-16T02:00:00Z</fcst_time_to><wind_dir_degrees>270</wind_dir_degrees>"
+            + "<wind_speed_kt>10</wind_speed_kt><visibility_statute_mi>6.21</visibility_statute_mi>"
+            + "<sky_condition sky_cover=\"BKN\" cloud_base_ft_agl=\"5000\" /></forecast>"
+            + "<forecast><fcst_time_from>2014-07-15T20:00:00Z</fcst_time_from>"
+            + "<fcst_time_to>2014-07-15T22:00:00Z</fcst_time_to><change_indicator>TEMPO</change_indicator>"
+            + "<visibility_statute_mi>3.0</visibility_statute_mi><wx_string>TSRA</wx_string>"
+            + "<sky_condition sky_cover=\"OVC\" cloud_base_ft_agl=\"2000\" /></forecast>"
+            + "<forecast><fcst_time_from>2014-07-16T02:00:00Z</fcst_time_from>"
+            + "<fcst_time_to>2014-07-17T00:00:00Z</fcst_time_to><change_indicator>FM</change_indicator>"
+            + "<wind_dir_degrees>VRB</wind_dir_degrees><wind_speed_kt>3</wind_speed_kt><wx_string>NSW</wx_string>"
+            + "<sky_condition sky_cover=\"SKC\" /></forecast></TAF>\n"
+            + "<TAF><station_id>KMDW</station_id><issue_time>2014-07-15T17:20:00Z</issue_time>"
+            + "<valid_time_from>2014-07-15T18:00:00Z</valid_time_from>"
+            + "<valid_time_to>2014-07-17T00:00:00Z</valid_time_to>"
+            + "<forecast><fcst_time_from>2014-07-15T18:00:00Z</fcst_time_from>"
+            + "<fcst_time_to>2014-07-17T00:00:00Z</fcst_time_to><change_indicator>SOON</change_indicator>"
+            + "</forecast></TAF>\n"
+            + "</data></response>\n";
+
+    /**
+     * Construct a {@link TestTafCacheXmlHandler} instance.
+     */
+    public TestTafCacheXmlHandler()
+    {
+        super();
+    }
+
+    /**
+     * Test that forecasts are bound group by group, and that forecasts holding an unreadable element are skipped.
+     */
+    @Test
+    public void testParse() throws Exception
+    {
+        final List<TerminalForecast> forecasts = new ArrayList<>();
+
+        /* Run the test and verify expectations. */
+        new TafCacheXmlHandler(timeline(forecasts)).parse(new ByteArrayInputStream(CONTENT.getBytes(Charset.forName(
+                "UTF-8"))), "text/xml");
+        assertEquals(1, forecasts.size());
+        final TerminalForecast forecast = forecasts.get(0);
+        assertEquals("KORD", forecast.getStation());
+        assertEquals(1405444800000L, forecast.getIssuedAt());
+        assertEquals(1405447200000L, forecast.getValidFrom());
+        assertEquals(1405555200000L, forecast.getValidTo());
+        final List<TerminalForecast.Group> groups = forecast.getGroups();
+        assertEquals(3, groups.size());
+        final TerminalForecast.Group initial = groups.get(0);
+        assertSame(TerminalForecast.Group.Type.FROM, initial.getType());
+        assertEquals(270, initial.getConditions().getWindDirection());
+        assertEquals(621, initial.getConditions().getVisibility());
+        assertEquals(50, SkyLayers.getBase(initial.getConditions().getSkyLayers(), 0));
+        final TerminalForecast.Group tempo = groups.get(1);
+        assertSame(TerminalForecast.Group.Type.TEMPORARY, tempo.getType());
+        assertEquals(1405454400000L, tempo.getFrom());
+        assertEquals(PresentWeather.parse("TSRA"), tempo.getConditions().getWeather());
+        assertEquals(ObservationRecord.MISSING, tempo.getConditions().getWindSpeed());
+        final TerminalForecast.Group from = groups.get(2);
+        assertSame(TerminalForecast.Group.Type.FROM, from.getType());
+        assertEquals(0, from.getConditions().getWindDirection());
+        assertEquals(ForecastConditions.NO_SIGNIFICANT_WEATHER, from.getConditions().getWeather());
+    }
+
+    /**
+     * Create a timeline which records the forecasts with which it is updated.
+     *
+     * @param forecasts the list to which each forecast is added.
+     * @return {@link ForecastTimeline} instance.
+     */
+    private static ForecastTimeline timeline(final List<TerminalForecast> forecasts)
+    {
+        return new ForecastTimeline()
+        {
+            @Override
+            public boolean update(final TerminalForecast forecast)
+            {
+                return forecasts.add(forecast);
+            }
+
+            @Override
+            public ForecastConditions findPredicted(final String station, final long time)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ForecastConditions findWorst(final String station, final long from, final long to)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long getIssuedAt(final String station)
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,169 @@
+package waldo.impl.daemon.adds;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import waldo.entity.PresentWeather;
+import waldo.entity.SkyLayers;
+import waldo.service.forecast.ForecastConditions;
+import waldo.service.forecast.TerminalForecast;
+import waldo.service.observation.ObservationRecord;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestTafDecoder} provides unit test coverage for {@link TafDecoder}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestTafDecoder
+{
+    /**
+     * Construct a {@link TestTafDecoder} instance.
+     */
+    public TestTafDecoder()
+    {
+        super();
+    }
+
+    /**
+     * Test decoding of a US forecast with each type of change group.
+     */
+    @Test
+    public void testDecode()
+    {
+        final TafDecoder decoder = new TafDecoder();
+
+        /* Run the test and verify expectations. */
+        final TerminalForecast forecast = decoder.decode("TAF KORD 151720Z 1518/1624 27012G20KT P6SM SCT050 TEMPO " +
+                "1520/1522 3SM -SHRA BKN020 FM160000 29008KT P6SM -RA BKN040 BECMG 1602/1604 NSW OVC025 PROB30 TEMPO " +
+                "1606/1610 1SM TSRA OVC010CB FM161200 18005KT P6SM SKC RMK NXT FCST BY 00Z", utc(2014, 7, 15, 17, 25));
+        assertEquals("KORD", forecast.getStation());
+        assertEquals(utc(2014, 7, 15, 17, 20), forecast.getIssuedAt());
+        assertEquals(utc(2014, 7, 15, 18, 0), forecast.getValidFrom());
+        assertEquals(utc(2014, 7, 17, 0, 0), forecast.getValidTo());
+        final List<TerminalForecast.Group> groups = forecast.getGroups();
+        assertEquals(6, groups.size());
+
+        TerminalForecast.Group group = groups.get(0);
+        assertSame(TerminalForecast.Group.Type.FROM, group.getType());
+        assertEquals(forecast.getValidFrom(), group.getFrom());
+        assertEquals(forecast.getValidTo(), group.getTo());
+        ForecastConditions conditions = group.getConditions();
+        assertEquals(270, conditions.getWindDirection());
+        assertEquals(12, conditions.getWindSpeed());
+        assertEquals(20, conditions.getWindGust());
+        assertEquals(600, conditions.getVisibility());
+        assertEquals("SCT050", SkyLayers.toString(conditions.getSkyLayers()));
+        assertEquals(PresentWeather.NONE, conditions.getWeather());
+
+        group = groups.get(1);
+        assertSame(TerminalForecast.Group.Type.TEMPORARY, group.getType());
+        assertEquals(utc(2014, 7, 15, 20, 0), group.getFrom());
+        assertEquals(utc(2014, 7, 15, 22, 0), group.getTo());
+        conditions = group.getConditions();
+        assertEquals(ObservationRecord.MISSING, conditions.getWindSpeed());
+        assertEquals(300, conditions.getVisibility());
+        assertEquals(PresentWeather.LIGHT | PresentWeather.forCode("SH") | PresentWeather.forCode("RA"),
+                conditions.getWeather());
+
+        group = groups.get(2);
+        assertSame(TerminalForecast.Group.Type.FROM, group.getType());
+        assertEquals(utc(2014, 7, 16, 0, 0), group.getFrom());
+        assertEquals(forecast.getValidTo(), group.getTo());
+        assertEquals("BKN040", SkyLayers.toString(group.getConditions().getSkyLayers()));
+
+        group = groups.get(3);
+        assertSame(TerminalForecast.Group.Type.BECOMING, group.getType());
+        assertEquals(utc(2014, 7, 16, 2, 0), group.getFrom());
+        assertEquals(utc(2014, 7, 16, 4, 0), group.getTo());
+        assertEquals(ForecastConditions.NO_SIGNIFICANT_WEATHER, group.getConditions().getWeather());
+        assertEquals("OVC025", SkyLayers.toString(group.getConditions().getSkyLayers()));
+
+        group = groups.get(4);
+        assertSame(TerminalForecast.Group.Type.PROBABILITY, group.getType());
+        assertEquals(30, group.getProbability());
+        assertEquals(utc(2014, 7, 16, 6, 0), group.getFrom());
+        assertEquals(utc(2014, 7, 16, 10, 0), group.getTo());
+        assertEquals(100, group.getConditions().getVisibility());
+        assertEquals("OVC010", SkyLayers.toString(group.getConditions().getSkyLayers()));
+
+        group = groups.get(5);
+        assertSame(TerminalForecast.Group.Type.FROM, group.getType());
+        assertEquals(utc(2014, 7, 16, 12, 0), group.getFrom());
+        assertEquals(5, group.getConditions().getWindSpeed());
+    }
+
+    /**
+     * Test decoding of an amended international forecast with metric units and {@code CAVOK}, whose period of
+     * validity crosses the end of the month.
+     */
+    @Test
+    public void testDecodeVariants()
+    {
+        final TafDecoder decoder = new TafDecoder();
+        final String line = "TAF AMD EGLL 302258Z 3100/0106 24010KT CAVOK BECMG 3102/3105 9999 BKN012 PROB40 " +
+                "3112/3114 4000 RA TEMPO 3120/3124 VRB05MPS,EGLL,2014-07-30T22:58:00Z";
+
+        /* Run the test and verify expectations. */
+        final TerminalForecast forecast = decoder.decode(line, 0, line.indexOf(','), utc(2014, 7, 30, 23, 5));
+        assertEquals("EGLL", forecast.getStation());
+        assertEquals(utc(2014, 7, 31, 0, 0), forecast.getValidFrom());
+        assertEquals(utc(2014, 8, 1, 6, 0), forecast.getValidTo());
+        final List<TerminalForecast.Group> groups = forecast.getGroups();
+        assertEquals(4, groups.size());
+        final ForecastConditions initial = groups.get(0).getConditions();
+        assertEquals(621, initial.getVisibility());
+        assertEquals("CLR", SkyLayers.toString(initial.getSkyLayers()));
+        assertEquals(ForecastConditions.NO_SIGNIFICANT_WEATHER, initial.getWeather());
+        assertEquals(ObservationRecord.MISSING, groups.get(1).getConditions().getWindSpeed());
+        assertEquals("BKN012", SkyLayers.toString(groups.get(1).getConditions().getSkyLayers()));
+        assertEquals(40, groups.get(2).getProbability());
+        assertEquals(249, groups.get(2).getConditions().getVisibility());
+        assertEquals(PresentWeather.forCode("RA"), groups.get(2).getConditions().getWeather());
+        assertSame(TerminalForecast.Group.Type.TEMPORARY, groups.get(3).getType());
+        assertEquals(utc(2014, 8, 1, 0, 0), groups.get(3).getTo());
+        assertEquals(0, groups.get(3).getConditions().getWindDirection());
+        assertEquals(10, groups.get(3).getConditions().getWindSpeed());
+    }
+
+    /**
+     * Test that unrecognized groups and change groups without a valid period are skipped, and that forecasts without
+     * a valid station, issue time or period of validity, or which are {@code NIL} or cancelled, are rejected, all
+     * without throwing.
+     */
+    @Test
+    public void testMalformed()
+    {
+        final TafDecoder decoder = new TafDecoder();
+        final long reference = utc(2014, 7, 15, 17, 25);
+
+        /* Run the test and verify expectations. */
+        final TerminalForecast forecast = decoder.decode("KORD 151720Z 1518/1624 27012KT P6SM SKC BECMG 9999 OVC001 " +
+                "FM1600 WS020/24040KT TX25/1520Z 16/1620 PROB99X TEMPO", reference);
+        assertEquals(1, forecast.getGroups().size());
+        assertEquals("SKC", SkyLayers.toString(forecast.getGroups().get(0).getConditions().getSkyLayers()));
+        for (final String text : new String[]{"", "TAF", "TAF KORD", "TAF KORD 151720Z", "TAF KORD 151720Z NIL",
+                "TAF KORD 151720Z 1518/1624 CNL", "KORD 151720Z 1518/1518", "KORD 151720Z 1525/1624",
+                "TAF AMD", "K#RD 151720Z 1518/1624"})
+        {
+            assertNull(text, decoder.decode(text, reference));
+        }
+    }
+
+    private static long utc(final int year, final int month, final int day, final int hour, final int minute)
+    {
+        return new DateTime(year, month, day, hour, minute, DateTimeZone.UTC).getMillis();
+    }
+}
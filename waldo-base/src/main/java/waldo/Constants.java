@@ -25,6 +25,86 @@ import java.sql.Connection;
  */
 public interface Constants
 {
+    /**
+     * {@link Aircraft} defines constants which correspond to configuration items which control the in-memory index of
+     * aircraft (pilot) reports.
+     */
+    interface Aircraft
+    {
+        /**
+         * Period, in milliseconds before the latest report, for which aircraft reports are held. Reports are held in
+         * hourly buckets, so up to an hour more may be held.
+         */
+        String REPORT_RETENTION = "waldo.aircraft.report_retention";
+    }
+
+    /**
+     * {@link Cluster} defines constants which correspond to configuration items which coordinate work between the nodes
+     * of a cluster.
+     */
+    interface Cluster
+    {
+        /**
+         * Interval, in milliseconds, at which each acquiring node records a heartbeat in the {@code CLUSTER_NODE}
+         * table.
+         */
+        String HEARTBEAT_INTERVAL = "waldo.cluster.heartbeat_interval";
+
+        /**
+         * Age, in milliseconds, after which a node's last heartbeat no longer marks it live. This should be a few
+         * multiples of {@link #HEARTBEAT_INTERVAL}.
+         */
+        String HEARTBEAT_TIMEOUT = "waldo.cluster.heartbeat_timeout";
+
+        /**
+         * Number of unanswered TCP keepalive probes after which the server considers a dedicated connection dead and
+         * ends its session, releasing any advisory locks it holds.
+         */
+        String KEEPALIVE_COUNT = "waldo.cluster.keepalive_count";
+
+        /**
+         * Idle time, in seconds, after which the server sends the first TCP keepalive probe on a dedicated connection.
+         */
+        String KEEPALIVE_IDLE = "waldo.cluster.keepalive_idle";
+
+        /**
+         * Interval, in seconds, between TCP keepalive probes sent by the server on a dedicated connection.
+         */
+        String KEEPALIVE_INTERVAL = "waldo.cluster.keepalive_interval";
+
+        /**
+         * PostgreSQL advisory lock key which represents the leader lease. Every node of a cluster must use the same key,
+         * and no other application sharing the database may use it.
+         */
+        String LEADER_LOCK_KEY = "waldo.cluster.leader_lock_key";
+
+        /**
+         * Identifier of this node, unique within the cluster. Optional; defaults to the JVM name ({@code pid@host}.)
+         */
+        String NODE_ID = "waldo.cluster.node_id";
+
+        /**
+         * PostgreSQL notification channel on which change notices are exchanged between nodes. Every node of a cluster
+         * must use the same channel.
+         */
+        String NOTIFY_CHANNEL = "waldo.cluster.notify_channel";
+
+        /**
+         * Interval, in milliseconds, at which each node checks for change notices from other nodes.
+         */
+        String NOTIFY_POLL_INTERVAL = "waldo.cluster.notify_poll_interval";
+
+        /**
+         * Time, in milliseconds, allowed to complete a claimed unit of work before it is reassigned to another node.
+         */
+        String WORK_DEADLINE = "waldo.cluster.work_deadline";
+
+        /**
+         * Age, in milliseconds, after which work claims and departed nodes are deleted.
+         */
+        String WORK_RETENTION = "waldo.cluster.work_retention";
+    }
+
     /**
      * {@link Context} defines constants which correspond to various configuration items which can be applied to the
      * servlet context in {@code web.xml}.
@@ -44,6 +124,87 @@ public interface Constants
          * Spring-managed objects.
          */
         String CONFIGURATION_LOCATIONS = "configurationLocations";
+
+        /**
+         * Bootstrap configuration item holding the endpoint URL of an S3-compatible store to be used in place of Amazon
+         * S3 for {@code s3:} resource locations, such as a local stand-in used in development and testing.
+         */
+        String S3_ENDPOINT = "waldo.s3.endpoint";
+    }
+
+    /**
+     * {@link Database} defines constants which describe database objects shared by the JPA and JDBC data access paths,
+     * and configuration items which control how those paths use them.
+     */
+    interface Database
+    {
+        /**
+         * Number of rows fetched from the database at a time by streaming queries.
+         */
+        String FETCH_SIZE = "waldo.database.fetch_size";
+
+        /**
+         * Number of identifiers reserved from {@link #ID_SEQUENCE} per database round trip by the JDBC identifier
+         * allocator. The value is rounded up to a whole multiple of {@link #ID_SEQUENCE_INCREMENT}.
+         */
+        String ID_BLOCK_SIZE = "waldo.database.id_block_size";
+
+        /**
+         * Name of the sequence from which all entity identifiers are allocated.
+         */
+        String ID_SEQUENCE = "WALDO_ID_SEQ";
+
+        /**
+         * Increment of {@link #ID_SEQUENCE}, which must match its {@code INCREMENT BY} clause. Each value returned by the
+         * sequence is the low end of a block of this many identifiers owned exclusively by the caller. This is a string
+         * so that it may be used in mapping annotations.
+         */
+        String ID_SEQUENCE_INCREMENT = "1000";
+
+        /**
+         * Interval, in milliseconds, at which newly journaled observations are written to the database.
+         */
+        String WRITE_INTERVAL = "waldo.database.write_interval";
+    }
+
+    /**
+     * {@link History} defines constants which correspond to configuration items which control observation history
+     * queries.
+     */
+    interface History
+    {
+        /**
+         * Maximum number of observations returned in a single page of a history query.
+         */
+        String MAX_PAGE_SIZE = "waldo.history.max_page_size";
+
+        /**
+         * Period, in milliseconds before a station's latest observation, for which its compressed element time series
+         * is held.
+         */
+        String SERIES_RETENTION = "waldo.history.series_retention";
+    }
+
+    /**
+     * {@link Journal} defines constants which correspond to configuration items which control the local observation
+     * journal.
+     */
+    interface Journal
+    {
+        /**
+         * Interval, in milliseconds, at which the journal is compacted.
+         */
+        String COMPACTION_INTERVAL = "waldo.journal.compaction_interval";
+
+        /**
+         * Directory in which journal segments and consumer positions are stored.
+         */
+        String DIRECTORY = "waldo.journal.directory";
+
+        /**
+         * Size, in bytes, of each journal segment file.
+         */
+        String SEGMENT_SIZE = "waldo.journal.segment_size";
     }
 
     /**
@@ -97,4 +258,117 @@ public interface Constants
          */
         String POOL_SIZE = "waldo.scheduling.thread_pool_size";
     }
+
+    /**
+     * {@link Shard} defines constants which correspond to configuration items which control the partitioning of
+     * stations across serving nodes.
+     */
+    interface Shard
+    {
+        /**
+         * Base URL at which other nodes reach this node, including the context path; must appear in {@link #NODES}.
+         */
+        String NODE = "waldo.shard.node";
+
+        /**
+         * Comma-delimited base URLs of all serving nodes, or empty if stations are not partitioned (in which case every
+         * node holds every station.)
+         */
+        String NODES = "waldo.shard.nodes";
+
+        /**
+         * Timeout, in milliseconds, for connecting to and reading from another node.
+         */
+        String PEER_TIMEOUT = "waldo.shard.peer_timeout";
+
+        /**
+         * Interval, in milliseconds, at which other nodes are probed to determine which are live.
+         */
+        String PROBE_INTERVAL = "waldo.shard.probe_interval";
+
+        /**
+         * Number of live nodes which hold each station.
+         */
+        String REPLICATION_FACTOR = "waldo.shard.replication_factor";
+
+        /**
+         * Number of points at which each node is placed on the consistent hash ring.
+         */
+        String VIRTUAL_NODES = "waldo.shard.virtual_nodes";
+    }
+
+    /**
+     * {@link Station} defines constants which correspond to configuration items which control the in-memory station
+     * reference data.
+     */
+    interface Station
+    {
+        /**
+         * Local file, in the CSV form of the ADDS stations product (optionally gzipped), from which station reference
+         * data is read, or empty if it is read from ADDS. The sources are mutually exclusive: where a file is given,
+         * the ADDS stations product is not read.
+         */
+        String REFERENCE_FILE = "waldo.station.reference_file";
+
+        /**
+         * Interval, in milliseconds, at which the local station reference file is checked for changes.
+         */
+        String REFERENCE_INTERVAL = "waldo.station.reference_interval";
+    }
+
+    /**
+     * {@link Store} defines constants which correspond to configuration items which control the in-memory observation
+     * store and its snapshots.
+     */
+    interface Store
+    {
+        /**
+         * Resource location prefix (for example {@code s3:/bucket/waldo/}) under which snapshots of the store are
+         * published by the acquisition leader and from which read-only nodes load them, or empty to disable snapshot
+         * distribution.
+         */
+        String DISTRIBUTION_LOCATION = "waldo.store.distribution_location";
+
+        /**
+         * Interval, in milliseconds, at which newly journaled observations are applied to the store.
+         */
+        String FEED_INTERVAL = "waldo.store.feed_interval";
+
+        /**
+         * Period, in milliseconds before a station's latest observation, for which its earlier observations are held.
+         */
+        String HISTORY_RETENTION = "waldo.store.history_retention";
+
+        /**
+         * Interval, in milliseconds, at which the acquisition leader publishes a snapshot of the store if it has
+         * changed.
+         */
+        String PUBLISH_INTERVAL = "waldo.store.publish_interval";
+
+        /**
+         * Interval, in milliseconds, at which read-only nodes check for a newly published snapshot.
+         */
+        String REFRESH_INTERVAL = "waldo.store.refresh_interval";
+
+        /**
+         * Maximum number of observations held for each station, whatever the retention period.
+         */
+        String RING_CAPACITY = "waldo.store.ring_capacity";
+
+        /**
+         * Memory-mapped file in which the store holds each station's observations, or empty to use a temporary file
+         * which is discarded at shutdown.
+         */
+        String RING_FILE = "waldo.store.ring_file";
+
+        /**
+         * File to which the store is snapshotted, and from which it is restored at startup.
+         */
+        String SNAPSHOT_FILE = "waldo.store.snapshot_file";
+
+        /**
+         * Interval, in milliseconds, at which the store is snapshotted if it has changed.
+         */
+        String SNAPSHOT_INTERVAL = "waldo.store.snapshot_interval";
+    }
 }
@@ -1,11 +1,15 @@
 package waldo.config.app;
 
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.HttpClients;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import waldo.Constants;
 
 /**
  * {@link NetworkConfig} ...
@@ -45,10 +49,30 @@ class NetworkConfig
      * @return {@link HttpClient} instance.
      */
     @Bean(destroyMethod = "close")
+    @Primary
     HttpClient httpClient()
     {
         final HttpClient result = HttpClients.createDefault();
         LOG.debug("Returning HttpClient component {}.", result);
         return result;
     }
+
+    /**
+     * Create the {@link HttpClient} instance which will be used for requests between nodes. Peers answer from memory,
+     * so short timeouts let a caller move on promptly from one which is down, and the connection pool allows concurrent
+     * requests to each peer.
+     *
+     * @param timeout the connect, connection request and read timeout in milliseconds.
+     * @return {@link HttpClient} instance.
+     */
+    @Bean(name = "peerHttpClient", destroyMethod = "close")
+    HttpClient peerHttpClient(@Value("${" + Constants.Shard.PEER_TIMEOUT + "}") final int timeout)
+    {
+        final RequestConfig config = RequestConfig.custom().setConnectTimeout(timeout)
+                .setConnectionRequestTimeout(timeout).setSocketTimeout(timeout).build();
+        final HttpClient result = HttpClients.custom().setDefaultRequestConfig(config).setMaxConnPerRoute(32)
+                .setMaxConnTotal(256).build();
+        LOG.debug("Returning peer HttpClient component {}.", result);
+        return result;
+    }
 }
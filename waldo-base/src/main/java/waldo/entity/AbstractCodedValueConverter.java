@@ -0,0 +1,91 @@
+package waldo.entity;
+
+import javax.persistence.AttributeConverter;
+import java.lang.reflect.Array;
+
+/**
+ * {@link AbstractCodedValueConverter} is a base class for JPA {@link AttributeConverter} implementations which map a
+ * {@link CodedValue} enumeration to and from its {@code SMALLINT} code. Codes are resolved through a lookup table built
+ * once at construction time, so conversion in either direction does not allocate or iterate.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+abstract class AbstractCodedValueConverter<E extends Enum<E> & CodedValue> implements AttributeConverter<E, Short>
+{
+    private final Class<E> m_type;
+    private final E[] m_valuesByCode;
+
+    /**
+     * Construct an {@link AbstractCodedValueConverter} instance.
+     *
+     * @param type the enumeration type.
+     */
+    @SuppressWarnings("unchecked")
+    AbstractCodedValueConverter(final Class<E> type)
+    {
+        super();
+        m_type = type;
+
+        /* Build a dense lookup table indexed by code. Codes are expected to be small, non-negative and unique. */
+        final E[] values = type.getEnumConstants();
+        int maxCode = 0;
+        for (final E nextValue : values)
+        {
+            maxCode = Math.max(maxCode, nextValue.getCode());
+        }
+        m_valuesByCode = (E[]) Array.newInstance(type, maxCode + 1);
+        for (final E nextValue : values)
+        {
+            if (null != m_valuesByCode[nextValue.getCode()])
+            {
+                throw new IllegalStateException(String.format("Values [%s] and [%s] of %s share code %d.",
+                        m_valuesByCode[nextValue.getCode()], nextValue, type.getName(), nextValue.getCode()));
+            }
+            m_valuesByCode[nextValue.getCode()] = nextValue;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Short convertToDatabaseColumn(final E attribute)
+    {
+        return null == attribute ? null : attribute.getCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public E convertToEntityAttribute(final Short code)
+    {
+        final E result;
+        if (null == code)
+        {
+            result = null;
+        }
+        else if (code < 0 || code >= m_valuesByCode.length || null == m_valuesByCode[code])
+        {
+            throw new IllegalArgumentException(
+                    String.format("Code %d does not correspond to any value of %s.", code, m_type.getName()));
+        }
+        else
+        {
+            result = m_valuesByCode[code];
+        }
+        return result;
+    }
+}
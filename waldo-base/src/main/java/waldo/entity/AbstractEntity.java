@@ -1,12 +1,26 @@
 package waldo.entity;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import waldo.Constants;
 
 import javax.persistence.*;
 
 /**
  * {@link AbstractEntity} ...
  * <p>
+ * Every entity table has an {@code ID BIGINT} and a {@code VER INT} column. Table columns should be declared widest
+ * first: eight-byte columns (including {@code ID}), then four-byte columns (including {@code VER}), then
+ * {@code SMALLINT}, then variable width (see {@code doc/create-schema.sql}), so PostgreSQL does not pad rows for
+ * alignment.
+ * <p>
+ * Identifiers are drawn from the shared {@value waldo.Constants.Database#ID_SEQUENCE} sequence using the
+ * {@code pooled-lo} optimizer: each sequence value reserves a block of
+ * {@value waldo.Constants.Database#ID_SEQUENCE_INCREMENT} identifiers which Hibernate then hands out in memory, so
+ * batched inserts do not cost a round trip per row. The JDBC bulk path reserves blocks from the same sequence in the
+ * same way (see {@link waldo.utility.database.IdAllocator}.)
+ * <p>
  * Copyright 2014 Big Lake Systems, LLC.
  * <p>
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
@@ -23,6 +37,12 @@ public abstract class AbstractEntity implements EntityObject
 {
     @Id
     @Access(AccessType.PROPERTY)
+    @Column(name = "ID", nullable = false, updatable = false)
+    @GeneratedValue(generator = "waldo.id")
+    @GenericGenerator(name = "waldo.id", strategy = "enhanced-sequence", parameters = {
+            @Parameter(name = "sequence_name", value = Constants.Database.ID_SEQUENCE),
+            @Parameter(name = "increment_size", value = Constants.Database.ID_SEQUENCE_INCREMENT),
+            @Parameter(name = "optimizer", value = "pooled-lo")})
     private Long id;
 
     @Version
@@ -0,0 +1,27 @@
+package waldo.entity;
+
+/**
+ * {@link CodedValue} defines the public interface to an enumerated value which is persisted as a small numeric code
+ * rather than by name. Codes are stored in {@code SMALLINT} columns, so each must fit in a {@code short}, and once
+ * assigned a code must never be reused for a different value.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface CodedValue
+{
+    /**
+     * Get the persistent code for this value.
+     *
+     * @return {@code short} code.
+     */
+    short getCode();
+}
@@ -0,0 +1,116 @@
+package waldo.entity;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * {@link FlightCategory} enumerates the flight categories derived from ceiling and visibility, persisted as a
+ * {@code SMALLINT} code.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public enum FlightCategory implements CodedValue
+{
+    /**
+     * Visual flight rules: ceiling above 3,000 feet and visibility above 5 statute miles.
+     */
+    VFR(1),
+
+    /**
+     * Marginal VFR: ceiling 1,000 to 3,000 feet and/or visibility 3 to 5 statute miles.
+     */
+    MVFR(2),
+
+    /**
+     * Instrument flight rules: ceiling 500 to below 1,000 feet and/or visibility 1 to below 3 statute miles.
+     */
+    IFR(3),
+
+    /**
+     * Low IFR: ceiling below 500 feet and/or visibility below 1 statute mile.
+     */
+    LIFR(4);
+
+    private final short m_code;
+
+    /**
+     * Construct a {@link FlightCategory} instance.
+     *
+     * @param code the persistent code.
+     */
+    FlightCategory(final int code)
+    {
+        m_code = (short) code;
+    }
+
+    /**
+     * Determine the flight category from the ceiling and visibility.
+     *
+     * @param skyLayers the cloud layers, packed as described by {@link SkyLayers}.
+     * @param visibility the visibility in hundredths of a statute mile, or a negative value if not reported.
+     * @return {@link FlightCategory} value, or {@code null} if neither sky condition nor visibility was reported.
+     */
+    public static FlightCategory categorize(final long skyLayers, final int visibility)
+    {
+        final FlightCategory result;
+        final int ceiling = SkyLayers.getCeiling(skyLayers);
+        final int height = SkyLayers.NO_CEILING == ceiling ? Integer.MAX_VALUE : ceiling;
+        final int distance = visibility < 0 ? Integer.MAX_VALUE : visibility;
+        if (SkyLayers.NONE == skyLayers && visibility < 0)
+        {
+            result = null;
+        }
+        else if (height < 5 || distance < 100)
+        {
+            result = LIFR;
+        }
+        else if (height < 10 || distance < 300)
+        {
+            result = IFR;
+        }
+        else if (height <= 30 || distance <= 500)
+        {
+            result = MVFR;
+        }
+        else
+        {
+            result = VFR;
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode()
+    {
+        return m_code;
+    }
+
+    /**
+     * {@link CodeConverter} is the JPA attribute converter for {@link FlightCategory}. It redeclares {@link AttributeConverter}
+     * because Hibernate only resolves the converted types from interfaces implemented directly by the converter class.
+     */
+    @Converter
+    public static class CodeConverter extends AbstractCodedValueConverter<FlightCategory>
+            implements AttributeConverter<FlightCategory, Short>
+    {
+        /**
+         * Construct a {@link CodeConverter} instance.
+         */
+        public CodeConverter()
+        {
+            super(FlightCategory.class);
+        }
+    }
+}
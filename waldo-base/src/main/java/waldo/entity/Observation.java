@@ -1,10 +1,22 @@
 package waldo.entity;
 
 import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import java.util.Date;
 
 /**
- * {@link Observation} ...
+ * {@link Observation} is a single decoded surface observation (METAR or SPECI.)
+ * <p>
+ * Numeric elements are stored in compact fixed-point form rather than as {@code NUMERIC} or text: each is a
+ * {@code SMALLINT} holding the value in the units documented on its accessor, with {@code null} meaning "not
+ * reported." Cloud layers are bit-packed into one {@code BIGINT} (see {@link SkyLayers}) and enumerated elements are
+ * stored as small codes (see {@link CodedValue}.) The raw report text, which is by far the widest element and is rarely
+ * needed, is kept in a separate narrow table; see {@link ObservationText}.
  * <p>
  * Copyright 2014 Big Lake Systems, LLC.
  * <p>
@@ -18,6 +30,7 @@ import javax.persistence.Entity;
  * specific language governing permissions and limitations under the License.
  */
 @Entity
+@Table(name = "OBSERVATION")
 public class Observation extends AbstractEntity
 {
     private static final long serialVersionUID = 1L;
@@ -25,6 +38,51 @@ public class Observation extends AbstractEntity
     @Basic
     private String hash;
 
+    @Column(name = "STATION", length = 4, nullable = false)
+    private String station;
+
+    @Column(name = "OBSERVED_AT", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date observedAt;
+
+    @Column(name = "REPORT_TYPE", nullable = false)
+    @Convert(converter = ReportType.CodeConverter.class)
+    private ReportType reportType;
+
+    @Column(name = "TEMPERATURE")
+    private Short temperature;
+
+    @Column(name = "DEWPOINT")
+    private Short dewpoint;
+
+    @Column(name = "ALTIMETER")
+    private Short altimeter;
+
+    @Column(name = "SEA_LEVEL_PRESSURE")
+    private Short seaLevelPressure;
+
+    @Column(name = "WIND_DIRECTION")
+    private Short windDirection;
+
+    @Column(name = "WIND_SPEED")
+    private Short windSpeed;
+
+    @Column(name = "WIND_GUST")
+    private Short windGust;
+
+    @Column(name = "VISIBILITY")
+    private Short visibility;
+
+    @Column(name = "PRECIPITATION")
+    private Short precipitation;
+
+    @Column(name = "SKY_LAYERS", nullable = false)
+    private long skyLayers;
+
+    @Column(name = "FLIGHT_CATEGORY")
+    @Convert(converter = FlightCategory.CodeConverter.class)
+    private FlightCategory flightCategory;
+
     /**
      * Construct a {@link Observation} instance.
      */
@@ -42,4 +100,214 @@ public class Observation extends AbstractEntity
     {
         this.hash = hash;
     }
+
+    /**
+     * Get the four-character ICAO identifier of the reporting station.
+     *
+     * @return {@link String} station identifier.
+     */
+    public String getStation()
+    {
+        return station;
+    }
+
+    public void setStation(final String station)
+    {
+        this.station = station;
+    }
+
+    /**
+     * Get the observation time.
+     *
+     * @return {@link Date} observation time.
+     */
+    public Date getObservedAt()
+    {
+        return null == observedAt ? null : new Date(observedAt.getTime());
+    }
+
+    public void setObservedAt(final Date observedAt)
+    {
+        this.observedAt = null == observedAt ? null : new Date(observedAt.getTime());
+    }
+
+    /**
+     * Get the report type.
+     *
+     * @return {@link ReportType} value.
+     */
+    public ReportType getReportType()
+    {
+        return reportType;
+    }
+
+    public void setReportType(final ReportType reportType)
+    {
+        this.reportType = reportType;
+    }
+
+    /**
+     * Get the air temperature.
+     *
+     * @return {@link Short} temperature in tenths of a degree Celsius, or {@code null} if not reported.
+     */
+    public Short getTemperature()
+    {
+        return temperature;
+    }
+
+    public void setTemperature(final Short temperature)
+    {
+        this.temperature = temperature;
+    }
+
+    /**
+     * Get the dewpoint.
+     *
+     * @return {@link Short} dewpoint in tenths of a degree Celsius, or {@code null} if not reported.
+     */
+    public Short getDewpoint()
+    {
+        return dewpoint;
+    }
+
+    public void setDewpoint(final Short dewpoint)
+    {
+        this.dewpoint = dewpoint;
+    }
+
+    /**
+     * Get the altimeter setting.
+     *
+     * @return {@link Short} altimeter in hundredths of an inch of mercury, or {@code null} if not reported.
+     */
+    public Short getAltimeter()
+    {
+        return altimeter;
+    }
+
+    public void setAltimeter(final Short altimeter)
+    {
+        this.altimeter = altimeter;
+    }
+
+    /**
+     * Get the sea level pressure.
+     *
+     * @return {@link Short} pressure in tenths of a hectopascal, or {@code null} if not reported.
+     */
+    public Short getSeaLevelPressure()
+    {
+        return seaLevelPressure;
+    }
+
+    public void setSeaLevelPressure(final Short seaLevelPressure)
+    {
+        this.seaLevelPressure = seaLevelPressure;
+    }
+
+    /**
+     * Get the wind direction.
+     *
+     * @return {@link Short} direction in degrees true, {@code 0} if variable, or {@code null} if not reported.
+     */
+    public Short getWindDirection()
+    {
+        return windDirection;
+    }
+
+    public void setWindDirection(final Short windDirection)
+    {
+        this.windDirection = windDirection;
+    }
+
+    /**
+     * Get the wind speed.
+     *
+     * @return {@link Short} speed in knots, or {@code null} if not reported.
+     */
+    public Short getWindSpeed()
+    {
+        return windSpeed;
+    }
+
+    public void setWindSpeed(final Short windSpeed)
+    {
+        this.windSpeed = windSpeed;
+    }
+
+    /**
+     * Get the wind gust speed.
+     *
+     * @return {@link Short} gust speed in knots, or {@code null} if no gusts were reported.
+     */
+    public Short getWindGust()
+    {
+        return windGust;
+    }
+
+    public void setWindGust(final Short windGust)
+    {
+        this.windGust = windGust;
+    }
+
+    /**
+     * Get the prevailing visibility.
+     *
+     * @return {@link Short} visibility in hundredths of a statute mile, or {@code null} if not reported.
+     */
+    public Short getVisibility()
+    {
+        return visibility;
+    }
+
+    public void setVisibility(final Short visibility)
+    {
+        this.visibility = visibility;
+    }
+
+    /**
+     * Get the precipitation accumulated since the last report.
+     *
+     * @return {@link Short} precipitation in hundredths of an inch, or {@code null} if not reported.
+     */
+    public Short getPrecipitation()
+    {
+        return precipitation;
+    }
+
+    public void setPrecipitation(final Short precipitation)
+    {
+        this.precipitation = precipitation;
+    }
+
+    /**
+     * Get the reported cloud layers.
+     *
+     * @return {@code long} layers packed as described by {@link SkyLayers}.
+     */
+    public long getSkyLayers()
+    {
+        return skyLayers;
+    }
+
+    public void setSkyLayers(final long skyLayers)
+    {
+        this.skyLayers = skyLayers;
+    }
+
+    /**
+     * Get the flight category.
+     *
+     * @return {@link FlightCategory} value, or {@code null} if it could not be determined.
+     */
+    public FlightCategory getFlightCategory()
+    {
+        return flightCategory;
+    }
+
+    public void setFlightCategory(final FlightCategory flightCategory)
+    {
+        this.flightCategory = flightCategory;
+    }
 }
@@ -0,0 +1,112 @@
+package waldo.entity;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.MapsId;
+import javax.persistence.OneToOne;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+/**
+ * {@link ObservationText} holds the raw report text of an {@link Observation}. It lives in its own narrow table, keyed
+ * by the observation identifier, so that the observation table itself stays fixed-width and densely packed; the text
+ * is only read when it is explicitly requested.
+ * <p>
+ * Rows are written once and never updated, so this entity carries no version.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Entity
+@Immutable
+@Table(name = "OBSERVATION_TEXT")
+public class ObservationText implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "OBSERVATION_ID")
+    private Long id;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "OBSERVATION_ID")
+    private Observation observation;
+
+    @Column(name = "RAW_TEXT", nullable = false, length = 512)
+    private String rawText;
+
+    /**
+     * Construct a {@link ObservationText} instance.
+     */
+    public ObservationText()
+    {
+        super();
+    }
+
+    /**
+     * Construct a {@link ObservationText} instance.
+     *
+     * @param observation the observation to which the text belongs.
+     * @param rawText the raw report text.
+     */
+    public ObservationText(final Observation observation, final String rawText)
+    {
+        super();
+        this.observation = observation;
+        this.rawText = rawText;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("id", id).append("rawText", rawText).toString();
+    }
+
+    /**
+     * Get the identifier, which is the same as that of the owning observation.
+     *
+     * @return {@link Long} identifier.
+     */
+    public Long getId()
+    {
+        return id;
+    }
+
+    /**
+     * Get the owning observation.
+     *
+     * @return {@link Observation} instance.
+     */
+    public Observation getObservation()
+    {
+        return observation;
+    }
+
+    /**
+     * Get the raw report text.
+     *
+     * @return {@link String} text.
+     */
+    public String getRawText()
+    {
+        return rawText;
+    }
+}
@@ -0,0 +1,181 @@
+package waldo.entity;
+
+import java.util.Arrays;
+
+/**
+ * {@link PresentWeather} packs the present weather reported in a METAR or forecast in a TAF into a single {@code long}
+ * of flags, in place of the list of weather strings: one flag for each qualifier ({@link #HEAVY}, {@link #LIGHT} and
+ * {@link #VICINITY}) and one for each two-letter descriptor or phenomenon code (see {@link #forCode(String)}.) Groups
+ * such as {@code -TSRA} and {@code BR} in one report are simply combined, so a packed value of {@code 0L} means "no
+ * weather reported."
+ * <p>
+ * <strong>Thread Safety:</strong> this class contains no mutable state and is therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class PresentWeather
+{
+    /**
+     * Packed value with no weather.
+     */
+    public static final long NONE = 0L;
+
+    /**
+     * Flag for heavy intensity ({@code +}.)
+     */
+    public static final long HEAVY = 1L;
+
+    /**
+     * Flag for light intensity ({@code -}.)
+     */
+    public static final long LIGHT = 1L << 1;
+
+    /**
+     * Flag for weather in the vicinity ({@code VC}.)
+     */
+    public static final long VICINITY = 1L << 2;
+
+    /* Descriptor and phenomenon codes, in pairs, descriptors first; the code at pair index i has flag 1 << (i + 3). */
+    private static final String CODES = "MIPRBCDRBLSHTSFZ" + "DZRASNSGICPLGRGSUP" + "BRFGFUVADUSAHZPY" + "POSQFCSSDS";
+    private static final int FIRST_CODE = 3;
+    private static final byte[] s_indexes = new byte[26 * 26];
+
+    static
+    {
+        Arrays.fill(s_indexes, (byte) -1);
+        for (int i = 0; i < CODES.length(); i += 2)
+        {
+            s_indexes[(CODES.charAt(i) - 'A') * 26 + CODES.charAt(i + 1) - 'A'] = (byte) (i / 2 + FIRST_CODE);
+        }
+    }
+
+    /**
+     * Construct a {@link PresentWeather} instance.
+     */
+    private PresentWeather()
+    {
+        super();
+    }
+
+    /**
+     * Get the flag of a descriptor or phenomenon code.
+     *
+     * @param code the two-letter code, such as {@code "TS"} or {@code "RA"}.
+     * @return {@code long} flag, or {@code 0} if the code is not known.
+     */
+    public static long forCode(final String code)
+    {
+        return 2 == code.length() ? forCode(code.charAt(0), code.charAt(1)) : NONE;
+    }
+
+    /**
+     * Get the flag of a descriptor or phenomenon code given as two characters, as when decoding a report in place.
+     *
+     * @param first the first letter of the code.
+     * @param second the second letter of the code.
+     * @return {@code long} flag, or {@code 0} if the code is not known.
+     */
+    public static long forCode(final char first, final char second)
+    {
+        final int index = first >= 'A' && first <= 'Z' && second >= 'A' && second <= 'Z' ?
+                s_indexes[(first - 'A') * 26 + second - 'A'] : -1;
+        return index < 0 ? NONE : 1L << index;
+    }
+
+    /**
+     * Parse one present weather group, such as {@code -RA}, {@code +TSRAGR} or {@code VCSH}, in place.
+     *
+     * @param text the text holding the group.
+     * @param start the start of the group within {@code text} (inclusive.)
+     * @param end the end of the group within {@code text} (exclusive.)
+     * @return {@code long} packed value, or {@link #NONE} if the characters are not a present weather group.
+     */
+    public static long parseGroup(final CharSequence text, final int start, final int end)
+    {
+        int position = start;
+        long result = NONE;
+        if (position < end && ('+' == text.charAt(position) || '-' == text.charAt(position)))
+        {
+            result = '+' == text.charAt(position) ? HEAVY : LIGHT;
+            position++;
+        }
+        if (end - position >= 2 && 'V' == text.charAt(position) && 'C' == text.charAt(position + 1))
+        {
+            result |= VICINITY;
+            position += 2;
+        }
+        boolean valid = position < end && 0 == (end - position) % 2;
+        for (; valid && position < end; position += 2)
+        {
+            final long code = forCode(text.charAt(position), text.charAt(position + 1));
+            result |= code;
+            valid = NONE != code;
+        }
+        return valid ? result : NONE;
+    }
+
+    /**
+     * Parse a list of present weather groups separated by spaces, such as {@code "-TSRA BR"}, as given by the ADDS
+     * {@code wx_string} element. Groups which are not recognized are skipped.
+     *
+     * @param text the text.
+     * @return {@code long} packed value of the recognized groups combined.
+     */
+    public static long parse(final CharSequence text)
+    {
+        long result = NONE;
+        int start = 0;
+        while (start < text.length())
+        {
+            int end = start;
+            while (end < text.length() && ' ' != text.charAt(end))
+            {
+                end++;
+            }
+            result |= parseGroup(text, start, end);
+            start = end + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Format a packed value in METAR-like notation, for logging and responses. The order of the codes within the
+     * original groups is not preserved: descriptors precede phenomena, each in a fixed order.
+     *
+     * @param packed the packed value.
+     * @return {@link String} such as {@code "-VCTSRA"}, or an empty string if there is no weather.
+     */
+    public static String toString(final long packed)
+    {
+        final StringBuilder builder = new StringBuilder();
+        if (0L != (packed & HEAVY))
+        {
+            builder.append('+');
+        }
+        else if (0L != (packed & LIGHT))
+        {
+            builder.append('-');
+        }
+        if (0L != (packed & VICINITY))
+        {
+            builder.append("VC");
+        }
+        for (int i = 0; i < CODES.length(); i += 2)
+        {
+            if (0L != (packed & (1L << (i / 2 + FIRST_CODE))))
+            {
+                builder.append(CODES, i, i + 2);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package waldo.entity;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * {@link ReportType} enumerates the types of surface observation report, persisted as a {@code SMALLINT} code.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public enum ReportType implements CodedValue
+{
+    /**
+     * Routine observation.
+     */
+    METAR(1),
+
+    /**
+     * Special (unscheduled) observation.
+     */
+    SPECI(2);
+
+    private final short m_code;
+
+    /**
+     * Construct a {@link ReportType} instance.
+     *
+     * @param code the persistent code.
+     */
+    ReportType(final int code)
+    {
+        m_code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode()
+    {
+        return m_code;
+    }
+
+    /**
+     * {@link CodeConverter} is the JPA attribute converter for {@link ReportType}. It redeclares {@link AttributeConverter}
+     * because Hibernate only resolves the converted types from interfaces implemented directly by the converter class.
+     */
+    @Converter
+    public static class CodeConverter extends AbstractCodedValueConverter<ReportType>
+            implements AttributeConverter<ReportType, Short>
+    {
+        /**
+         * Construct a {@link CodeConverter} instance.
+         */
+        public CodeConverter()
+        {
+            super(ReportType.class);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package waldo.entity;
+
+/**
+ * {@link SkyCover} enumerates the sky cover amounts which may be reported for a cloud layer. Each value has a three-bit
+ * code so that a layer can be packed into sixteen bits alongside its base height; see {@link SkyLayers}. Code zero is
+ * reserved to mean "no layer."
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public enum SkyCover implements CodedValue
+{
+    /**
+     * Sky clear (manual observation.)
+     */
+    SKC(1),
+
+    /**
+     * No clouds below 12,000 feet (automated observation.)
+     */
+    CLR(2),
+
+    /**
+     * Few: 1/8 to 2/8 coverage.
+     */
+    FEW(3),
+
+    /**
+     * Scattered: 3/8 to 4/8 coverage.
+     */
+    SCT(4),
+
+    /**
+     * Broken: 5/8 to 7/8 coverage.
+     */
+    BKN(5),
+
+    /**
+     * Overcast: 8/8 coverage.
+     */
+    OVC(6),
+
+    /**
+     * Sky obscured; the layer base is the vertical visibility.
+     */
+    OVX(7);
+
+    private final short m_code;
+
+    /**
+     * Construct a {@link SkyCover} instance.
+     *
+     * @param code the persistent code.
+     */
+    SkyCover(final int code)
+    {
+        m_code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode()
+    {
+        return m_code;
+    }
+
+    /**
+     * Determine whether this cover amount constitutes a ceiling.
+     *
+     * @return {@code boolean} true for broken, overcast or obscured layers.
+     */
+    public boolean isCeiling()
+    {
+        return BKN == this || OVC == this || OVX == this;
+    }
+
+    /**
+     * Get the value associated with a given code.
+     *
+     * @param code the code.
+     * @return {@link SkyCover} value, or {@code null} if the code is zero ("no layer.")
+     * @throws IllegalArgumentException if the code is not valid.
+     */
+    public static SkyCover forCode(final int code) throws IllegalArgumentException
+    {
+        if (code < 0 || code >= s_byCode.length)
+        {
+            throw new IllegalArgumentException(String.format("Invalid sky cover code %d.", code));
+        }
+        return s_byCode[code];
+    }
+
+    /**
+     * Lookup table by code; index zero is {@code null}.
+     */
+    private static final SkyCover[] s_byCode = { null, SKC, CLR, FEW, SCT, BKN, OVC, OVX };
+}
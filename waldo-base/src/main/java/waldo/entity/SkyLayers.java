@@ -0,0 +1,190 @@
+package waldo.entity;
+
+/**
+ * {@link SkyLayers} packs up to {@link #MAX_LAYERS} reported cloud layers into a single {@code long}, stored in one
+ * {@code BIGINT} column in place of a child table or several nullable columns per layer.
+ * <p>
+ * Each layer occupies sixteen bits, lowest layer in the least significant bits: the upper three bits hold the
+ * {@link SkyCover#getCode() cover code} and the lower thirteen bits hold the layer base in hundreds of feet above
+ * ground level (0 to {@link #MAX_BASE}, i.e. up to 819,100 feet.) A cover code of zero marks an unused slot, so a
+ * packed value of {@code 0L} means "no layers reported."
+ * <p>
+ * <strong>Thread Safety:</strong> this class contains no mutable state and is therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class SkyLayers
+{
+    /**
+     * Maximum number of layers which can be packed into one value.
+     */
+    public static final int MAX_LAYERS = 4;
+
+    /**
+     * Maximum layer base, in hundreds of feet.
+     */
+    public static final int MAX_BASE = 0x1FFF;
+
+    /**
+     * Packed value with no layers.
+     */
+    public static final long NONE = 0L;
+
+    /**
+     * Returned by {@link #getCeiling(long)} when no layer constitutes a ceiling.
+     */
+    public static final int NO_CEILING = -1;
+
+    private static final int BITS_PER_LAYER = 16;
+    private static final int COVER_SHIFT = 13;
+    private static final int LAYER_MASK = 0xFFFF;
+
+    /**
+     * Construct a {@link SkyLayers} instance.
+     */
+    private SkyLayers()
+    {
+        super();
+    }
+
+    /**
+     * Append a layer to a packed value, in the first unused slot. Layers should be appended lowest first, in the order
+     * they are reported. If all slots are in use the layer is dropped, as the highest layers are the least significant
+     * for flight category and ceiling purposes.
+     *
+     * @param packed the packed value.
+     * @param cover the layer cover.
+     * @param base the layer base in hundreds of feet; clamped to {@code [0, MAX_BASE]}.
+     * @return {@code long} packed value including the new layer.
+     */
+    public static long append(final long packed, final SkyCover cover, final int base)
+    {
+        final int count = getCount(packed);
+        final long result;
+        if (null == cover || count >= MAX_LAYERS)
+        {
+            result = packed;
+        }
+        else
+        {
+            final long layer = ((long) cover.getCode() << COVER_SHIFT) | Math.max(0, Math.min(MAX_BASE, base));
+            result = packed | (layer << (count * BITS_PER_LAYER));
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of layers in a packed value.
+     *
+     * @param packed the packed value.
+     * @return {@code int} layer count, {@code 0} to {@link #MAX_LAYERS}.
+     */
+    public static int getCount(final long packed)
+    {
+        int result = 0;
+        while (result < MAX_LAYERS && 0 != (layerAt(packed, result) >>> COVER_SHIFT))
+        {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Get the cover of a layer in a packed value.
+     *
+     * @param packed the packed value.
+     * @param index the layer index, lowest first.
+     * @return {@link SkyCover} value, or {@code null} if there is no layer at the given index.
+     */
+    public static SkyCover getCover(final long packed, final int index)
+    {
+        return SkyCover.forCode(layerAt(packed, checkIndex(index)) >>> COVER_SHIFT);
+    }
+
+    /**
+     * Get the base of a layer in a packed value.
+     *
+     * @param packed the packed value.
+     * @param index the layer index, lowest first.
+     * @return {@code int} base in hundreds of feet, or {@code 0} if there is no layer at the given index.
+     */
+    public static int getBase(final long packed, final int index)
+    {
+        return layerAt(packed, checkIndex(index)) & MAX_BASE;
+    }
+
+    /**
+     * Get the ceiling: the base of the lowest broken, overcast or obscured layer.
+     *
+     * @param packed the packed value.
+     * @return {@code int} ceiling in hundreds of feet, or {@link #NO_CEILING} if there is none.
+     */
+    public static int getCeiling(final long packed)
+    {
+        int result = NO_CEILING;
+        for (int index = 0; index < MAX_LAYERS; index++)
+        {
+            final int layer = layerAt(packed, index);
+            final SkyCover cover = SkyCover.forCode(layer >>> COVER_SHIFT);
+            if (null == cover)
+            {
+                break;
+            }
+            else if (cover.isCeiling())
+            {
+                result = layer & MAX_BASE;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Format a packed value in METAR-like notation, for logging and diagnostics.
+     *
+     * @param packed the packed value.
+     * @return {@link String} such as {@code "FEW025 BKN080"}, or an empty string if there are no layers.
+     */
+    public static String toString(final long packed)
+    {
+        final StringBuilder builder = new StringBuilder();
+        final int count = getCount(packed);
+        for (int index = 0; index < count; index++)
+        {
+            final SkyCover cover = getCover(packed, index);
+            if (0 != index)
+            {
+                builder.append(' ');
+            }
+            builder.append(SkyCover.OVX == cover ? "VV" : cover.name());
+            if (SkyCover.SKC != cover && SkyCover.CLR != cover)
+            {
+                builder.append(String.format("%03d", getBase(packed, index)));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static int checkIndex(final int index)
+    {
+        if (index < 0 || index >= MAX_LAYERS)
+        {
+            throw new IndexOutOfBoundsException(String.format("Layer index %d is out of range.", index));
+        }
+        return index;
+    }
+
+    private static int layerAt(final long packed, final int index)
+    {
+        return (int) (packed >>> (index * BITS_PER_LAYER)) & LAYER_MASK;
+    }
+}
@@ -0,0 +1,216 @@
+package waldo.entity;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
+import javax.persistence.Table;
+
+/**
+ * {@link Station} is the reference metadata of a reporting station: its identifier, name, location and elevation.
+ * <p>
+ * Station metadata changes rarely and is read on nearly every request, so this entity is held in the second-level cache
+ * ({@value #CACHE_REGION} region) and its natural identifier lookups are cached as well, so that resolving a station by
+ * ICAO identifier normally costs no SQL at all. The named queries declared here are cacheable in the
+ * {@value #QUERY_CACHE_REGION} query cache region. Region sizing and expiry are configured in
+ * {@code ehcache-entities.xml}.
+ * <p>
+ * Coordinates are stored as fixed-point {@code INT}s in millionths of a degree, which represents any location to
+ * about ten centimeters in half the space of a {@code DOUBLE PRECISION} column.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Entity
+@Table(name = "STATION")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Station.CACHE_REGION)
+@NaturalIdCache(region = Station.NATURAL_ID_CACHE_REGION)
+@NamedQueries({
+        @NamedQuery(name = Station.FIND_ALL, query = "SELECT s FROM Station s"),
+        @NamedQuery(name = Station.FIND_BY_COUNTRY,
+                query = "SELECT s FROM Station s WHERE s.country = :country ORDER BY s.icaoId",
+                hints = {
+                        @QueryHint(name = QueryHints.HINT_CACHEABLE, value = "true"),
+                        @QueryHint(name = QueryHints.HINT_CACHE_REGION, value = Station.QUERY_CACHE_REGION),
+                        @QueryHint(name = QueryHints.HINT_READONLY, value = "true")})})
+public class Station extends AbstractEntity
+{
+    /**
+     * Second-level cache region holding station entities.
+     */
+    public static final String CACHE_REGION = "waldo.entity.Station";
+
+    /**
+     * Named query which selects every station; not cacheable, as it is only used when saving reference data.
+     */
+    public static final String FIND_ALL = "Station.findAll";
+
+    /**
+     * Named query which selects all stations in a country, ordered by identifier. Takes a {@code country} parameter.
+     */
+    public static final String FIND_BY_COUNTRY = "Station.findByCountry";
+
+    /**
+     * Second-level cache region holding natural identifier (ICAO identifier) to primary key resolutions.
+     */
+    public static final String NATURAL_ID_CACHE_REGION = "waldo.entity.Station##NaturalId";
+
+    /**
+     * Query cache region holding the results of the named queries declared by this entity.
+     */
+    public static final String QUERY_CACHE_REGION = "waldo.query.Station";
+
+    private static final long serialVersionUID = 1L;
+
+    @NaturalId
+    @Column(name = "ICAO_ID", length = 4, nullable = false, updatable = false)
+    private String icaoId;
+
+    @Column(name = "NAME", length = 64)
+    private String name;
+
+    @Column(name = "COUNTRY", length = 2)
+    private String country;
+
+    @Column(name = "STATE", length = 2)
+    private String state;
+
+    @Column(name = "LATITUDE", nullable = false)
+    private int latitude;
+
+    @Column(name = "LONGITUDE", nullable = false)
+    private int longitude;
+
+    @Column(name = "ELEVATION")
+    private Short elevation;
+
+    /**
+     * Construct a {@link Station} instance.
+     */
+    public Station()
+    {
+        super();
+    }
+
+    /**
+     * Get the four-character ICAO identifier, which is the natural identifier of the station.
+     *
+     * @return {@link String} station identifier.
+     */
+    public String getIcaoId()
+    {
+        return icaoId;
+    }
+
+    public void setIcaoId(final String icaoId)
+    {
+        this.icaoId = icaoId;
+    }
+
+    /**
+     * Get the station name.
+     *
+     * @return {@link String} name, or {@code null} if not known.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName(final String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Get the country in which the station is located.
+     *
+     * @return {@link String} two-letter country code, or {@code null} if not known.
+     */
+    public String getCountry()
+    {
+        return country;
+    }
+
+    public void setCountry(final String country)
+    {
+        this.country = country;
+    }
+
+    /**
+     * Get the state or province in which the station is located.
+     *
+     * @return {@link String} two-letter state code, or {@code null} if not applicable.
+     */
+    public String getState()
+    {
+        return state;
+    }
+
+    public void setState(final String state)
+    {
+        this.state = state;
+    }
+
+    /**
+     * Get the latitude.
+     *
+     * @return {@code int} latitude in millionths of a degree, positive north.
+     */
+    public int getLatitude()
+    {
+        return latitude;
+    }
+
+    public void setLatitude(final int latitude)
+    {
+        this.latitude = latitude;
+    }
+
+    /**
+     * Get the longitude.
+     *
+     * @return {@code int} longitude in millionths of a degree, positive east.
+     */
+    public int getLongitude()
+    {
+        return longitude;
+    }
+
+    public void setLongitude(final int longitude)
+    {
+        this.longitude = longitude;
+    }
+
+    /**
+     * Get the elevation.
+     *
+     * @return {@link Short} elevation in meters, or {@code null} if not known.
+     */
+    public Short getElevation()
+    {
+        return elevation;
+    }
+
+    public void setElevation(final Short elevation)
+    {
+        this.elevation = elevation;
+    }
+}
@@ -1,8 +1,15 @@
 package waldo.facade.acquisition;
 
+import waldo.service.observation.ObservationSeries;
+import waldo.service.observation.SeriesAggregate;
+import waldo.utility.geo.BoundingBox;
+
 /**
  * {@link DataAcquisitionFacade} ...
  * <p/>
+ * Aggregates for dashboards are computed directly over the element time series held in memory on nodes which acquire
+ * data (see {@link ObservationSeries}), rather than by grouping queries against the history table.
+ * <p/>
  * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
  * multithreaded access, provided the same is true of all dependencies provided via constructor.
  * <p/>
@@ -21,4 +28,32 @@ package waldo.facade.acquisition;
 public interface DataAcquisitionFacade
 {
     String doSomething();
+
+    /**
+     * Aggregate one element of the series of a station over consecutive time buckets.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @param element the element.
+     * @param from the start of the first bucket (inclusive) in milliseconds since the epoch.
+     * @param to the end of the range (exclusive) in milliseconds since the epoch.
+     * @param interval the length of each bucket, in milliseconds.
+     * @return {@link SeriesAggregate} instance.
+     * @throws IllegalArgumentException if an argument is invalid.
+     */
+    SeriesAggregate aggregateStation(String station, ObservationSeries.Element element, long from, long to,
+                                     long interval) throws IllegalArgumentException;
+
+    /**
+     * Aggregate one element of the series of every located station within a region over consecutive time buckets.
+     *
+     * @param region the region.
+     * @param element the element.
+     * @param from the start of the first bucket (inclusive) in milliseconds since the epoch.
+     * @param to the end of the range (exclusive) in milliseconds since the epoch.
+     * @param interval the length of each bucket, in milliseconds.
+     * @return {@link SeriesAggregate} instance.
+     * @throws IllegalArgumentException if an argument is invalid.
+     */
+    SeriesAggregate aggregateRegion(BoundingBox region, ObservationSeries.Element element, long from, long to,
+                                    long interval) throws IllegalArgumentException;
 }
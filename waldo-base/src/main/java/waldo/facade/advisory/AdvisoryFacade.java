@@ -0,0 +1,54 @@
+package waldo.facade.advisory;
+
+import waldo.service.advisory.Advisory;
+
+import java.util.List;
+
+/**
+ * {@link AdvisoryFacade} serves the AIRMETs and SIGMETs affecting a point or a route, from the index held in memory by
+ * nodes which acquire advisories.
+ * <p/>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface AdvisoryFacade
+{
+    /**
+     * Maximum number of points in a route.
+     */
+    int MAX_ROUTE_POINTS = 100;
+
+    /**
+     * Find the advisories valid at a time whose area contains a point.
+     *
+     * @param latitude the latitude of the point, in degrees.
+     * @param longitude the longitude of the point, in degrees.
+     * @param time the time in milliseconds since the epoch.
+     * @return {@link List} of advisories, in no particular order.
+     * @throws IllegalArgumentException if the point is out of range.
+     */
+    List<Advisory> findContaining(double latitude, double longitude, long time) throws IllegalArgumentException;
+
+    /**
+     * Find the advisories valid at a time whose area intersects a route, given as the points joined by its legs.
+     *
+     * @param latitudes the latitudes of the points, in degrees.
+     * @param longitudes the longitudes of the points, in degrees.
+     * @param time the time in milliseconds since the epoch.
+     * @return {@link List} of advisories, in no particular order.
+     * @throws IllegalArgumentException if a point is out of range, the arrays differ in length, or there are no points
+     * or more than {@link #MAX_ROUTE_POINTS}.
+     */
+    List<Advisory> findIntersecting(double[] latitudes, double[] longitudes, long time)
+            throws IllegalArgumentException;
+}
@@ -0,0 +1,47 @@
+package waldo.facade.aircraft;
+
+import waldo.service.aircraft.AircraftReport;
+
+import java.util.List;
+
+/**
+ * {@link AircraftReportFacade} serves the recent aircraft (pilot) reports made near a point and flight level, from the
+ * index held in memory by nodes which acquire aircraft reports.
+ * <p/>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface AircraftReportFacade
+{
+    /**
+     * Maximum search radius, in nautical miles.
+     */
+    double MAX_RADIUS = 500.0;
+
+    /**
+     * Find the reports made within a distance of a point, within a band of altitudes and within a period.
+     *
+     * @param latitude the latitude of the point, in degrees.
+     * @param longitude the longitude of the point, in degrees.
+     * @param radius the distance in nautical miles, up to {@link #MAX_RADIUS}.
+     * @param lowest the lowest altitude (inclusive) in feet, or {@link AircraftReport#MISSING} to include reports which
+     * do not give an altitude.
+     * @param highest the highest altitude (inclusive) in feet.
+     * @param from the start of the period (inclusive) in milliseconds since the epoch.
+     * @param to the end of the period (inclusive) in milliseconds since the epoch.
+     * @return {@link List} of reports, most recent first.
+     * @throws IllegalArgumentException if the point or radius is out of range, or the band or period is reversed.
+     */
+    List<AircraftReport> find(double latitude, double longitude, double radius, int lowest, int highest, long from,
+                              long to) throws IllegalArgumentException;
+}
@@ -0,0 +1,55 @@
+package waldo.facade.forecast;
+
+import waldo.service.forecast.ForecastConditions;
+
+/**
+ * {@link ForecastFacade} serves the conditions forecast for a station by its latest terminal forecast, from the
+ * resolved timelines held in memory by nodes which acquire forecasts.
+ * <p/>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ForecastFacade
+{
+    /**
+     * Find the conditions forecast to prevail at a station at a given time.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @param time the time in milliseconds since the epoch.
+     * @return {@link ForecastConditions} instance, or {@code null} if no forecast for the station is valid at
+     * {@code time}.
+     * @throws IllegalArgumentException if the station identifier is invalid.
+     */
+    ForecastConditions findPredicted(String station, long time) throws IllegalArgumentException;
+
+    /**
+     * Find the worst conditions forecast at a station at any time within a period.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @param from the start of the period (inclusive) in milliseconds since the epoch.
+     * @param to the end of the period (exclusive) in milliseconds since the epoch.
+     * @return {@link ForecastConditions} instance, or {@code null} if no forecast for the station is valid within the
+     * period.
+     * @throws IllegalArgumentException if the station identifier is invalid or the period is reversed.
+     */
+    ForecastConditions findWorst(String station, long from, long to) throws IllegalArgumentException;
+
+    /**
+     * Get the issue time of the latest forecast for a station.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @return {@code long} issue time in milliseconds since the epoch, or {@code 0} if there is no forecast.
+     * @throws IllegalArgumentException if the station identifier is invalid.
+     */
+    long getIssuedAt(String station) throws IllegalArgumentException;
+}
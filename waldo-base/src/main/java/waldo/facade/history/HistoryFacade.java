@@ -0,0 +1,70 @@
+package waldo.facade.history;
+
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationSeries;
+import waldo.utility.geo.BoundingBox;
+
+/**
+ * {@link HistoryFacade} serves paged observation history for a station or a region. Each page is streamed to the
+ * caller's {@link ObservationHandler} as rows arrive from the database, and is followed by an opaque continuation token
+ * from which the next page may be requested; pages are never buffered, and a deep page costs the same as the first.
+ * <p/>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface HistoryFacade
+{
+    /**
+     * Stream one page of the history of a station.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @param from the start of the range (inclusive) in milliseconds since the epoch.
+     * @param to the end of the range (exclusive) in milliseconds since the epoch.
+     * @param continuation the continuation token returned with the previous page, or {@code null} for the first page.
+     * @param limit the requested page size; limited to the configured maximum.
+     * @param handler the handler which receives each record.
+     * @return {@link String} continuation token for the next page, or {@code null} if this was the last page.
+     * @throws IllegalArgumentException if an argument is invalid, including a continuation token which is malformed or
+     * was issued for a different query.
+     */
+    String streamStationHistory(String station, long from, long to, String continuation, int limit,
+                                ObservationHandler handler) throws IllegalArgumentException;
+
+    /**
+     * Stream one page of the history of all stations within a region, ordered by station and then by time.
+     *
+     * @param region the region.
+     * @param from the start of the range (inclusive) in milliseconds since the epoch.
+     * @param to the end of the range (exclusive) in milliseconds since the epoch.
+     * @param continuation the continuation token returned with the previous page, or {@code null} for the first page.
+     * @param limit the requested page size; limited to the configured maximum.
+     * @param handler the handler which receives each record.
+     * @return {@link String} continuation token for the next page, or {@code null} if this was the last page.
+     * @throws IllegalArgumentException if an argument is invalid, including a continuation token which is malformed or
+     * was issued for a different query.
+     */
+    String streamRegionHistory(BoundingBox region, long from, long to, String continuation, int limit,
+                               ObservationHandler handler) throws IllegalArgumentException;
+
+    /**
+     * Read the element time series of a station within a time range, for charting. Series are held in memory on nodes
+     * which acquire data, for a configured period.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @param from the start of the range (inclusive) in milliseconds since the epoch.
+     * @param to the end of the range (exclusive) in milliseconds since the epoch.
+     * @return {@link ObservationSeries.Range} instance.
+     * @throws IllegalArgumentException if an argument is invalid.
+     */
+    ObservationSeries.Range readStationSeries(String station, long from, long to) throws IllegalArgumentException;
+}
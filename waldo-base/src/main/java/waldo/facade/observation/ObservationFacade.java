@@ -0,0 +1,61 @@
+package waldo.facade.observation;
+
+import waldo.service.observation.ObservationHandler;
+import waldo.utility.geo.BoundingBox;
+
+import java.util.List;
+
+/**
+ * {@link ObservationFacade} serves the latest observations from the in-memory store. When stations are partitioned
+ * across serving nodes, this node answers only for the stations it owns, and names the nodes which own the others so
+ * that the web tier can route requests to them.
+ * <p/>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ObservationFacade
+{
+    /**
+     * Stream the latest observation of a station held by this node.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @param handler the handler which receives the record, if any.
+     * @return {@code true} if a record was found.
+     * @throws IllegalArgumentException if the station identifier is invalid.
+     */
+    boolean streamLatest(String station, ObservationHandler handler) throws IllegalArgumentException;
+
+    /**
+     * Stream the latest observation of each located station within a region held by this node.
+     *
+     * @param region the region.
+     * @param handler the handler which receives each record.
+     * @return {@link List} of the identifiers of the stations streamed.
+     */
+    List<String> streamLatest(BoundingBox region, ObservationHandler handler);
+
+    /**
+     * Get the other live nodes which own a station.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @return {@link List} of node base URLs, primary owner first; empty if this node owns the station.
+     */
+    List<String> getRemoteOwners(String station);
+
+    /**
+     * Get the other live nodes.
+     *
+     * @return {@link List} of node base URLs; empty if stations are not partitioned.
+     */
+    List<String> getRemoteNodes();
+}
@@ -0,0 +1,53 @@
+package waldo.facade.reference;
+
+import waldo.entity.Station;
+import waldo.service.station.StationMetadata;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link ReferenceDataFacade} provides lookups of slowly changing reference data such as station metadata. Lookups are
+ * served from the Hibernate second-level and query caches wherever possible, so repeated lookups do not reach the
+ * database.
+ * <p/>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ReferenceDataFacade
+{
+    /**
+     * Find a station by its ICAO identifier.
+     *
+     * @param icaoId the four-character ICAO identifier.
+     * @return {@link Station} instance, or {@code null} if there is no such station.
+     */
+    Station findStation(String icaoId);
+
+    /**
+     * Find all stations in a country.
+     *
+     * @param country the two-letter country code.
+     * @return {@link List} of {@link Station} instances ordered by identifier; empty if there are none.
+     */
+    List<Station> findStations(String country);
+
+    /**
+     * Save the stations of an issue of the reference data, inserting those not yet held and updating those whose
+     * metadata has changed. Stations the issue no longer lists are kept, as their observations remain in history.
+     *
+     * @param stations the station metadata; where a station is listed more than once, the last entry is saved.
+     * @return {@code int} number of stations inserted or updated.
+     */
+    int saveStations(Collection<StationMetadata> stations);
+}
@@ -0,0 +1,49 @@
+package waldo.facade.status;
+
+import java.util.Map;
+
+/**
+ * {@link StatusFacade} provides operational statistics about the running application for monitoring purposes.
+ * <p/>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface StatusFacade
+{
+    /**
+     * Get hit, miss and put counts for the Hibernate second-level cache regions, the natural identifier cache and the
+     * query cache. Counts are only collected when {@code hibernate.generate_statistics} is enabled; otherwise they are
+     * all zero.
+     *
+     * @return {@link Map} of statistic name to value, suitable for rendering as JSON.
+     */
+    Map<String, Object> getCacheStatistics();
+
+    /**
+     * Get the utilization of each database connection pool managed by the application: active, idle and total
+     * connections, threads waiting for a connection, and saturation (the fraction of the maximum pool size in use.)
+     *
+     * @return {@link Map} of pool name to a map of statistic name to value, suitable for rendering as JSON; empty if
+     * the application does not manage its own pools.
+     */
+    Map<String, Map<String, Object>> getConnectionPoolStatistics();
+
+    /**
+     * Determine whether this node is ready to serve requests for the stations it owns, having loaded its share of the
+     * published observations under the current live membership. Other nodes count this node as live only while it is.
+     *
+     * @return {@code true} if this node is ready; always {@code true} on a node which builds its store from the
+     * journal rather than from snapshots.
+     */
+    boolean isServing();
+}
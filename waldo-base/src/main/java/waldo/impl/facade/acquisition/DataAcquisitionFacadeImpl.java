@@ -7,8 +7,16 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import waldo.entity.Observation;
 import waldo.facade.acquisition.DataAcquisitionFacade;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationSeries;
+import waldo.service.observation.ObservationStore;
+import waldo.service.observation.SeriesAggregate;
+import waldo.utility.geo.BoundingBox;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -32,18 +40,25 @@ import java.util.concurrent.atomic.AtomicInteger;
 class DataAcquisitionFacadeImpl implements DataAcquisitionFacade, DataAcquisitionTasks
 {
     private final EntityManager m_entityManager;
+    private final ObservationSeries m_observationSeries;
+    private final ObservationStore m_observationStore;
     private final AtomicInteger m_sequence = new AtomicInteger(0);
 
     /**
      * Construct a {@link DataAcquisitionFacadeImpl} instance.
      *
      * @param entityManager the transaction-aware {@link EntityManager} proxy.
+     * @param observationSeries the {@link ObservationSeries} component.
+     * @param observationStore the {@link ObservationStore} component.
      */
     @Autowired
-    DataAcquisitionFacadeImpl(final EntityManager entityManager)
+    DataAcquisitionFacadeImpl(final EntityManager entityManager, final ObservationSeries observationSeries,
+                              final ObservationStore observationStore)
     {
         super();
         m_entityManager = entityManager;
+        m_observationSeries = observationSeries;
+        m_observationStore = observationStore;
     }
 
     /**
@@ -57,6 +72,37 @@ class DataAcquisitionFacadeImpl implements DataAcquisitionFacade, DataAcquisitio
         return String.format("%d: %s", m_sequence.get(), observation.getHash());
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SeriesAggregate aggregateStation(final String station, final ObservationSeries.Element element,
+                                            final long from, final long to, final long interval)
+            throws IllegalArgumentException
+    {
+        if (null == station || 4 != station.length())
+        {
+            throw new IllegalArgumentException(String.format("Station [%s] is not a valid ICAO identifier.", station));
+        }
+        return m_observationSeries.aggregate(Collections.singleton(station), element, from, to, interval);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SeriesAggregate aggregateRegion(final BoundingBox region, final ObservationSeries.Element element,
+                                           final long from, final long to, final long interval)
+            throws IllegalArgumentException
+    {
+        final List<String> stations = new ArrayList<>();
+        for (final ObservationRecord latest : m_observationStore.findLatest(region))
+        {
+            stations.add(latest.getStation());
+        }
+        return m_observationSeries.aggregate(stations, element, from, to, interval);
+    }
+
     @Scheduled(fixedDelay = 60000L)
     public void increment()
     {
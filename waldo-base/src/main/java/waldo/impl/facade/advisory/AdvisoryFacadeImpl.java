@@ -0,0 +1,95 @@
+package waldo.impl.facade.advisory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import waldo.facade.advisory.AdvisoryFacade;
+import waldo.service.advisory.Advisory;
+import waldo.service.advisory.AdvisoryIndex;
+import waldo.utility.geo.BoundingBox;
+
+import java.util.List;
+
+/**
+ * {@link AdvisoryFacadeImpl} is the concrete implementation of the {@link AdvisoryFacade} interface.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+class AdvisoryFacadeImpl implements AdvisoryFacade
+{
+    private final AdvisoryIndex m_index;
+
+    /**
+     * Construct a {@link AdvisoryFacadeImpl} instance.
+     *
+     * @param index the {@link AdvisoryIndex} component.
+     */
+    @Autowired
+    AdvisoryFacadeImpl(final AdvisoryIndex index)
+    {
+        super();
+        m_index = index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Advisory> findContaining(final double latitude, final double longitude, final long time)
+            throws IllegalArgumentException
+    {
+        checkPoint(latitude, longitude);
+        return m_index.findContaining(BoundingBox.toUnits(latitude), BoundingBox.toUnits(longitude), time);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Advisory> findIntersecting(final double[] latitudes, final double[] longitudes, final long time)
+            throws IllegalArgumentException
+    {
+        if (0 == latitudes.length || latitudes.length > MAX_ROUTE_POINTS || latitudes.length != longitudes.length)
+        {
+            throw new IllegalArgumentException(String.format("Route must have from 1 to %d points.",
+                    MAX_ROUTE_POINTS));
+        }
+        final int[] latitudeUnits = new int[latitudes.length];
+        final int[] longitudeUnits = new int[longitudes.length];
+        for (int point = 0; point < latitudes.length; point++)
+        {
+            checkPoint(latitudes[point], longitudes[point]);
+            latitudeUnits[point] = BoundingBox.toUnits(latitudes[point]);
+            longitudeUnits[point] = BoundingBox.toUnits(longitudes[point]);
+        }
+        return m_index.findIntersecting(latitudeUnits, longitudeUnits, time);
+    }
+
+    /**
+     * Verify that a point is a valid position.
+     *
+     * @param latitude the latitude in degrees.
+     * @param longitude the longitude in degrees.
+     * @throws IllegalArgumentException if the point is out of range.
+     */
+    private static void checkPoint(final double latitude, final double longitude) throws IllegalArgumentException
+    {
+        if (!(latitude >= -90.0 && latitude <= 90.0) || !(longitude >= -180.0 && longitude <= 180.0))
+        {
+            throw new IllegalArgumentException(String.format("Point [%s, %s] is not a valid position.", latitude,
+                    longitude));
+        }
+    }
+}
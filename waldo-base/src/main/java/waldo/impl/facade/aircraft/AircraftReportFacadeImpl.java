@@ -0,0 +1,67 @@
+package waldo.impl.facade.aircraft;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import waldo.facade.aircraft.AircraftReportFacade;
+import waldo.service.aircraft.AircraftReport;
+import waldo.service.aircraft.AircraftReportIndex;
+import waldo.utility.geo.BoundingBox;
+
+import java.util.List;
+
+/**
+ * {@link AircraftReportFacadeImpl} is the concrete implementation of the {@link AircraftReportFacade} interface.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+class AircraftReportFacadeImpl implements AircraftReportFacade
+{
+    private final AircraftReportIndex m_index;
+
+    /**
+     * Construct a {@link AircraftReportFacadeImpl} instance.
+     *
+     * @param index the {@link AircraftReportIndex} component.
+     */
+    @Autowired
+    AircraftReportFacadeImpl(final AircraftReportIndex index)
+    {
+        super();
+        m_index = index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AircraftReport> find(final double latitude, final double longitude, final double radius,
+                                     final int lowest, final int highest, final long from, final long to)
+            throws IllegalArgumentException
+    {
+        if (!(latitude >= -90.0 && latitude <= 90.0) || !(longitude >= -180.0 && longitude <= 180.0))
+        {
+            throw new IllegalArgumentException(String.format("Point [%s, %s] is not a valid position.", latitude,
+                    longitude));
+        }
+        if (radius > MAX_RADIUS)
+        {
+            throw new IllegalArgumentException(String.format("Radius %s exceeds the maximum of %s.", radius,
+                    MAX_RADIUS));
+        }
+        return m_index.find(BoundingBox.toUnits(latitude), BoundingBox.toUnits(longitude), radius, lowest, highest,
+                from, to);
+    }
+}
@@ -0,0 +1,87 @@
+package waldo.impl.facade.forecast;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import waldo.facade.forecast.ForecastFacade;
+import waldo.service.forecast.ForecastConditions;
+import waldo.service.forecast.ForecastTimeline;
+
+/**
+ * {@link ForecastFacadeImpl} is the concrete implementation of the {@link ForecastFacade} interface.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+class ForecastFacadeImpl implements ForecastFacade
+{
+    private final ForecastTimeline m_timeline;
+
+    /**
+     * Construct a {@link ForecastFacadeImpl} instance.
+     *
+     * @param timeline the {@link ForecastTimeline} component.
+     */
+    @Autowired
+    ForecastFacadeImpl(final ForecastTimeline timeline)
+    {
+        super();
+        m_timeline = timeline;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ForecastConditions findPredicted(final String station, final long time) throws IllegalArgumentException
+    {
+        checkStation(station);
+        return m_timeline.findPredicted(station, time);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ForecastConditions findWorst(final String station, final long from, final long to)
+            throws IllegalArgumentException
+    {
+        checkStation(station);
+        return m_timeline.findWorst(station, from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getIssuedAt(final String station) throws IllegalArgumentException
+    {
+        checkStation(station);
+        return m_timeline.getIssuedAt(station);
+    }
+
+    /**
+     * Verify that a station identifier is valid.
+     *
+     * @param station the station identifier.
+     * @throws IllegalArgumentException if the station identifier is invalid.
+     */
+    private static void checkStation(final String station) throws IllegalArgumentException
+    {
+        if (null == station || 4 != station.length())
+        {
+            throw new IllegalArgumentException(String.format("Station [%s] is not a valid ICAO identifier.", station));
+        }
+    }
+}
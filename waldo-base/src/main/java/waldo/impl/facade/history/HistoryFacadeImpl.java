@@ -0,0 +1,160 @@
+package waldo.impl.facade.history;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import waldo.Constants;
+import waldo.facade.history.HistoryFacade;
+import waldo.service.observation.ContinuationToken;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationReader;
+import waldo.service.observation.ObservationSeries;
+import waldo.utility.geo.BoundingBox;
+
+/**
+ * {@link HistoryFacadeImpl} is the concrete implementation of the {@link HistoryFacade} interface.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+class HistoryFacadeImpl implements HistoryFacade
+{
+    private final int m_maxPageSize;
+    private final ObservationReader m_observationReader;
+    private final ObservationSeries m_observationSeries;
+
+    /**
+     * Construct a {@link HistoryFacadeImpl} instance.
+     *
+     * @param observationReader the {@link ObservationReader} component.
+     * @param observationSeries the {@link ObservationSeries} component.
+     * @param maxPageSize the maximum number of records returned in a single page.
+     */
+    @Autowired
+    HistoryFacadeImpl(final ObservationReader observationReader, final ObservationSeries observationSeries,
+                      @Value("${" + Constants.History.MAX_PAGE_SIZE + "}") final int maxPageSize)
+    {
+        super();
+        m_maxPageSize = maxPageSize;
+        m_observationReader = observationReader;
+        m_observationSeries = observationSeries;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public String streamStationHistory(final String station, final long from, final long to,
+                                       final String continuation, final int limit, final ObservationHandler handler)
+            throws IllegalArgumentException
+    {
+        checkStation(station);
+        checkRange(from, to);
+        return encode(m_observationReader.readStationHistory(station, from, to, decode(continuation),
+                pageSize(limit), handler));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public String streamRegionHistory(final BoundingBox region, final long from, final long to,
+                                      final String continuation, final int limit, final ObservationHandler handler)
+            throws IllegalArgumentException
+    {
+        checkRange(from, to);
+        return encode(m_observationReader.readRegionHistory(region, from, to, decode(continuation), pageSize(limit),
+                handler));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObservationSeries.Range readStationSeries(final String station, final long from, final long to)
+            throws IllegalArgumentException
+    {
+        checkStation(station);
+        checkRange(from, to);
+        return m_observationSeries.read(station, from, to);
+    }
+
+    /**
+     * Verify that a station identifier is well formed.
+     *
+     * @param station the station identifier.
+     * @throws IllegalArgumentException if the identifier is not four characters.
+     */
+    private static void checkStation(final String station) throws IllegalArgumentException
+    {
+        if (null == station || 4 != station.length())
+        {
+            throw new IllegalArgumentException(String.format("Station [%s] is not a valid ICAO identifier.", station));
+        }
+    }
+
+    /**
+     * Verify that a time range is not empty.
+     *
+     * @param from the start of the range.
+     * @param to the end of the range.
+     * @throws IllegalArgumentException if the range is empty.
+     */
+    private static void checkRange(final long from, final long to) throws IllegalArgumentException
+    {
+        if (from >= to)
+        {
+            throw new IllegalArgumentException(String.format("Time range [%d, %d) is empty.", from, to));
+        }
+    }
+
+    /**
+     * Decode an optional continuation token.
+     *
+     * @param continuation the encoded token, or {@code null}.
+     * @return {@link ContinuationToken} instance, or {@code null} if none was supplied.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    private static ContinuationToken decode(final String continuation) throws IllegalArgumentException
+    {
+        return null == continuation || continuation.isEmpty() ? null : ContinuationToken.decode(continuation);
+    }
+
+    /**
+     * Encode an optional continuation token.
+     *
+     * @param token the token, or {@code null}.
+     * @return {@link String} encoded token, or {@code null} if there was none.
+     */
+    private static String encode(final ContinuationToken token)
+    {
+        return null == token ? null : token.encode();
+    }
+
+    /**
+     * Limit a requested page size to the range {@code [1, max]}.
+     *
+     * @param limit the requested page size.
+     * @return {@code int} page size.
+     */
+    private int pageSize(final int limit)
+    {
+        return Math.max(1, Math.min(limit, m_maxPageSize));
+    }
+}
@@ -0,0 +1,128 @@
+package waldo.impl.facade.observation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import waldo.facade.observation.ObservationFacade;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationStore;
+import waldo.service.shard.StationSharding;
+import waldo.utility.geo.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link ObservationFacadeImpl} is the concrete implementation of the {@link ObservationFacade} interface.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+class ObservationFacadeImpl implements ObservationFacade
+{
+    private final StationSharding m_sharding;
+    private final ObservationStore m_store;
+
+    /**
+     * Construct a {@link ObservationFacadeImpl} instance.
+     *
+     * @param store the {@link ObservationStore} component.
+     * @param sharding the {@link StationSharding} component.
+     */
+    @Autowired
+    ObservationFacadeImpl(final ObservationStore store, final StationSharding sharding)
+    {
+        super();
+        m_sharding = sharding;
+        m_store = store;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean streamLatest(final String station, final ObservationHandler handler)
+            throws IllegalArgumentException
+    {
+        checkStation(station);
+        final ObservationRecord record = m_store.findLatest(station);
+        if (null != record)
+        {
+            handler.handle(record);
+        }
+        return null != record;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> streamLatest(final BoundingBox region, final ObservationHandler handler)
+    {
+        final List<ObservationRecord> records = m_store.findLatest(region);
+        final List<String> result = new ArrayList<>(records.size());
+        for (final ObservationRecord record : records)
+        {
+            handler.handle(record);
+            result.add(record.getStation());
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getRemoteOwners(final String station)
+    {
+        checkStation(station);
+        final List<String> result;
+        if (m_sharding.isLocal(station))
+        {
+            result = Collections.emptyList();
+        }
+        else
+        {
+            result = m_sharding.getOwners(station);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getRemoteNodes()
+    {
+        final List<String> result = new ArrayList<>(m_sharding.getLiveNodes());
+        result.remove(m_sharding.getLocalNode());
+        return result;
+    }
+
+    /**
+     * Verify that a station identifier is valid.
+     *
+     * @param station the station identifier.
+     * @throws IllegalArgumentException if the station identifier is invalid.
+     */
+    private static void checkStation(final String station) throws IllegalArgumentException
+    {
+        if (null == station || 4 != station.length())
+        {
+            throw new IllegalArgumentException(String.format("Station [%s] is not a valid ICAO identifier.", station));
+        }
+    }
+}
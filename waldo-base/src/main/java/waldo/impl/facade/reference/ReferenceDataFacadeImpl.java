@@ -0,0 +1,150 @@
+package waldo.impl.facade.reference;
+
+import org.apache.commons.lang3.ObjectUtils;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import waldo.entity.Station;
+import waldo.facade.reference.ReferenceDataFacade;
+import waldo.service.station.StationMetadata;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ReferenceDataFacadeImpl} is the concrete implementation of the {@link ReferenceDataFacade} interface. Stations
+ * are resolved through Hibernate's natural identifier API rather than a query, so that a lookup by ICAO identifier is
+ * answered from the natural identifier and entity caches without issuing SQL; country lookups use a cacheable named
+ * query.
+ * <p/>
+ * Stations are saved through the {@link EntityManager} rather than by JDBC, so that the second-level cache regions are
+ * kept consistent with the table; as an issue of the reference data differs from the last in few stations, only those
+ * stations are written.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+class ReferenceDataFacadeImpl implements ReferenceDataFacade
+{
+    /**
+     * Length of the {@code STATION.NAME} column.
+     */
+    private static final int NAME_LENGTH = 64;
+
+    private final EntityManager m_entityManager;
+
+    /**
+     * Construct a {@link ReferenceDataFacadeImpl} instance.
+     *
+     * @param entityManager the transaction-aware {@link EntityManager} proxy.
+     */
+    @Autowired
+    ReferenceDataFacadeImpl(final EntityManager entityManager)
+    {
+        super();
+        m_entityManager = entityManager;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Station findStation(final String icaoId)
+    {
+        return (Station) m_entityManager.unwrap(Session.class).bySimpleNaturalId(Station.class).load(icaoId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<Station> findStations(final String country)
+    {
+        return m_entityManager.createNamedQuery(Station.FIND_BY_COUNTRY, Station.class)
+                .setParameter("country", country).getResultList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int saveStations(final Collection<StationMetadata> stations)
+    {
+        final Map<String, Station> saved = new HashMap<>();
+        for (final Station station : m_entityManager.createNamedQuery(Station.FIND_ALL, Station.class)
+                .getResultList())
+        {
+            saved.put(station.getIcaoId(), station);
+        }
+        int result = 0;
+        for (final StationMetadata metadata : stations)
+        {
+            Station station = saved.get(metadata.getStation());
+            if (null == station)
+            {
+                station = new Station();
+                station.setIcaoId(metadata.getStation());
+                update(station, metadata);
+                m_entityManager.persist(station);
+                saved.put(station.getIcaoId(), station);
+                result++;
+            }
+            else if (update(station, metadata))
+            {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copy station metadata to a station entity, where it differs. Names are truncated to the column length.
+     *
+     * @param station the station entity.
+     * @param metadata the station metadata.
+     * @return {@code boolean} true if the entity changed.
+     */
+    private static boolean update(final Station station, final StationMetadata metadata)
+    {
+        final String name = null == metadata.getName() || metadata.getName().length() <= NAME_LENGTH ?
+                metadata.getName() : metadata.getName().substring(0, NAME_LENGTH);
+        final Short elevation = StationMetadata.MISSING == metadata.getElevation() ? null :
+                Short.valueOf((short) metadata.getElevation());
+        final boolean result = !(ObjectUtils.equals(name, station.getName())
+                && ObjectUtils.equals(metadata.getCountry(), station.getCountry())
+                && ObjectUtils.equals(metadata.getState(), station.getState())
+                && metadata.getLatitude() == station.getLatitude()
+                && metadata.getLongitude() == station.getLongitude()
+                && ObjectUtils.equals(elevation, station.getElevation()));
+        if (result)
+        {
+            station.setName(name);
+            station.setCountry(metadata.getCountry());
+            station.setState(metadata.getState());
+            station.setLatitude(metadata.getLatitude());
+            station.setLongitude(metadata.getLongitude());
+            station.setElevation(elevation);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,155 @@
+package waldo.impl.facade.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import waldo.facade.status.StatusFacade;
+import waldo.service.observation.SnapshotSubscriber;
+import waldo.utility.database.ConnectionPoolMonitor;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link StatusFacadeImpl} is the concrete implementation of the {@link StatusFacade} interface.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+class StatusFacadeImpl implements StatusFacade
+{
+    private final EntityManagerFactory m_entityManagerFactory;
+    private volatile List<ConnectionPoolMonitor> m_poolMonitors = Collections.emptyList();
+    private volatile SnapshotSubscriber m_snapshotSubscriber;
+
+    /**
+     * Construct a {@link StatusFacadeImpl} instance.
+     *
+     * @param entityManagerFactory the {@link EntityManagerFactory} component.
+     */
+    @Autowired
+    StatusFacadeImpl(final EntityManagerFactory entityManagerFactory)
+    {
+        super();
+        m_entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Set the connection pool monitors. Monitors are only present when the application manages its own connection
+     * pools, so this dependency is optional.
+     *
+     * @param poolMonitors the {@link ConnectionPoolMonitor} components.
+     */
+    @Autowired(required = false)
+    void setPoolMonitors(final List<ConnectionPoolMonitor> poolMonitors)
+    {
+        m_poolMonitors = poolMonitors;
+    }
+
+    /**
+     * Set the snapshot subscriber. The subscriber is only present on nodes which load their store from snapshots, so
+     * this dependency is optional.
+     *
+     * @param snapshotSubscriber the {@link SnapshotSubscriber} component.
+     */
+    @Autowired(required = false)
+    void setSnapshotSubscriber(final SnapshotSubscriber snapshotSubscriber)
+    {
+        m_snapshotSubscriber = snapshotSubscriber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Object> getCacheStatistics()
+    {
+        final Statistics statistics = m_entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("secondLevel", counts(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        result.put("naturalId", counts(statistics.getNaturalIdCacheHitCount(), statistics.getNaturalIdCacheMissCount(),
+                statistics.getNaturalIdCachePutCount()));
+        result.put("query", counts(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+
+        /* Add per-region counts, in name order so the output is stable. */
+        final Map<String, Object> regions = new LinkedHashMap<>();
+        final String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        for (final String nextRegion : regionNames)
+        {
+            final SecondLevelCacheStatistics regionStatistics = statistics.getSecondLevelCacheStatistics(nextRegion);
+            if (null != regionStatistics)
+            {
+                final Map<String, Object> region = counts(regionStatistics.getHitCount(),
+                        regionStatistics.getMissCount(), regionStatistics.getPutCount());
+                region.put("elementsInMemory", regionStatistics.getElementCountInMemory());
+                regions.put(nextRegion, region);
+            }
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Map<String, Object>> getConnectionPoolStatistics()
+    {
+        final Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (final ConnectionPoolMonitor nextMonitor : m_poolMonitors)
+        {
+            result.putAll(nextMonitor.getPoolStatistics());
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isServing()
+    {
+        final SnapshotSubscriber snapshotSubscriber = m_snapshotSubscriber;
+        return null == snapshotSubscriber || snapshotSubscriber.isLoaded();
+    }
+
+    /**
+     * Build a map of hit, miss and put counts, plus the hit ratio.
+     *
+     * @param hits the hit count.
+     * @param misses the miss count.
+     * @param puts the put count.
+     * @return {@link Map} of statistic name to value.
+     */
+    private static Map<String, Object> counts(final long hits, final long misses, final long puts)
+    {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hits", hits);
+        result.put("misses", misses);
+        result.put("puts", puts);
+        result.put("hitRatio", 0L == hits + misses ? 0.0d : (double) hits / (hits + misses));
+        return result;
+    }
+}
@@ -0,0 +1,254 @@
+package waldo.impl.service.advisory;
+
+import org.springframework.stereotype.Component;
+import waldo.service.advisory.Advisory;
+import waldo.service.advisory.AdvisoryIndex;
+import waldo.utility.geo.BoundingBox;
+import waldo.utility.geo.Polygon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link AdvisoryIndexImpl} is the concrete implementation of the {@link AdvisoryIndex} interface. Advisories are held
+ * in an immutable {@link Grid} of one-degree cells, rebuilt whenever the advisories are replaced (every few minutes at
+ * most) and swapped in whole, so that queries take no lock.
+ * <p>
+ * When the grid is built, each cell overlapped by the bounding box of an advisory's area is classified once: if the
+ * boundary of the area passes through the cell, the advisory is listed among the cell's boundary advisories; otherwise
+ * the cell lies wholly inside or wholly outside the area, and the advisory is listed among the cell's interior
+ * advisories or not at all. A point query therefore visits one cell, accepts its interior advisories without a
+ * geometric test, and tests only the boundary advisories against their polygons, however many advisories overlap. A
+ * route query gathers the advisories of the cells overlapped by the bounding box of each leg, and tests each once.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+class AdvisoryIndexImpl implements AdvisoryIndex
+{
+    private static final int COLUMNS = 360;
+    private static final int ROWS = 180;
+
+    private volatile Grid m_grid = new Grid(Collections.<Advisory>emptyList());
+
+    /**
+     * Construct a {@link AdvisoryIndexImpl} instance.
+     */
+    AdvisoryIndexImpl()
+    {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Advisory> findContaining(final int latitude, final int longitude, final long time)
+    {
+        final Grid grid = m_grid;
+        final int cell = row(latitude) * COLUMNS + column(longitude);
+        final List<Advisory> result = new ArrayList<>();
+        final Advisory[] interior = grid.m_interior[cell];
+        if (null != interior)
+        {
+            for (final Advisory advisory : interior)
+            {
+                if (advisory.isValidAt(time))
+                {
+                    result.add(advisory);
+                }
+            }
+        }
+        final Advisory[] boundary = grid.m_boundary[cell];
+        if (null != boundary)
+        {
+            for (final Advisory advisory : boundary)
+            {
+                if (advisory.isValidAt(time) && advisory.getArea().contains(latitude, longitude))
+                {
+                    result.add(advisory);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Advisory> findIntersecting(final int[] latitudes, final int[] longitudes, final long time)
+            throws IllegalArgumentException
+    {
+        if (0 == latitudes.length || latitudes.length != longitudes.length)
+        {
+            throw new IllegalArgumentException(String.format("Route has %d latitudes and %d longitudes.",
+                    latitudes.length, longitudes.length));
+        }
+        final Grid grid = m_grid;
+        final List<Advisory> result = new ArrayList<>();
+        final Set<Advisory> found = Collections.newSetFromMap(new IdentityHashMap<Advisory, Boolean>());
+        final int legs = Math.max(1, latitudes.length - 1);
+        for (int leg = 0; leg < legs; leg++)
+        {
+            /* A route of one point has a single leg of no length. */
+            final int latitude1 = latitudes[leg];
+            final int longitude1 = longitudes[leg];
+            final int latitude2 = latitudes[Math.min(leg + 1, latitudes.length - 1)];
+            final int longitude2 = longitudes[Math.min(leg + 1, longitudes.length - 1)];
+            final Set<Advisory> tested = Collections.newSetFromMap(new IdentityHashMap<Advisory, Boolean>());
+            final int lastRow = row(Math.max(latitude1, latitude2));
+            final int lastColumn = column(Math.max(longitude1, longitude2));
+            for (int row = row(Math.min(latitude1, latitude2)); row <= lastRow; row++)
+            {
+                for (int column = column(Math.min(longitude1, longitude2)); column <= lastColumn; column++)
+                {
+                    for (final Advisory[] advisories : new Advisory[][]{grid.m_interior[row * COLUMNS + column],
+                            grid.m_boundary[row * COLUMNS + column]})
+                    {
+                        if (null != advisories)
+                        {
+                            for (final Advisory advisory : advisories)
+                            {
+                                /* An advisory overlapping several cells of the leg is tested against it once. */
+                                if (!found.contains(advisory) && tested.add(advisory) && advisory.isValidAt(time)
+                                        && advisory.getArea().intersects(latitude1, longitude1, latitude2, longitude2))
+                                {
+                                    found.add(advisory);
+                                    result.add(advisory);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void replace(final Collection<Advisory> advisories)
+    {
+        m_grid = new Grid(advisories);
+    }
+
+    /**
+     * Get the grid column of a longitude.
+     *
+     * @param longitude the longitude in millionths of a degree.
+     * @return {@code int} column index.
+     */
+    private static int column(final int longitude)
+    {
+        return Math.max(0, Math.min(COLUMNS - 1, (int) Math.floor((double) longitude / BoundingBox.UNITS_PER_DEGREE)
+                + 180));
+    }
+
+    /**
+     * Get the grid row of a latitude.
+     *
+     * @param latitude the latitude in millionths of a degree.
+     * @return {@code int} row index.
+     */
+    private static int row(final int latitude)
+    {
+        return Math.max(0, Math.min(ROWS - 1, (int) Math.floor((double) latitude / BoundingBox.UNITS_PER_DEGREE)
+                + 90));
+    }
+
+    /**
+     * {@link Grid} holds the interior and boundary advisories of each cell.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded
+     * access.
+     */
+    private static final class Grid
+    {
+        private final Advisory[][] m_boundary = new Advisory[ROWS * COLUMNS][];
+        private final Advisory[][] m_interior = new Advisory[ROWS * COLUMNS][];
+
+        /**
+         * Construct a {@link Grid} instance.
+         *
+         * @param advisories the advisories to hold.
+         */
+        Grid(final Collection<Advisory> advisories)
+        {
+            super();
+            final Map<Integer, List<Advisory>> boundary = new HashMap<>();
+            final Map<Integer, List<Advisory>> interior = new HashMap<>();
+            for (final Advisory advisory : advisories)
+            {
+                final Polygon area = advisory.getArea();
+                final BoundingBox bounds = area.getBounds();
+                final int lastRow = row(bounds.getMaxLatitude());
+                final int lastColumn = column(bounds.getMaxLongitude());
+                for (int row = row(bounds.getMinLatitude()); row <= lastRow; row++)
+                {
+                    for (int column = column(bounds.getMinLongitude()); column <= lastColumn; column++)
+                    {
+                        final int south = (row - 90) * BoundingBox.UNITS_PER_DEGREE;
+                        final int west = (column - 180) * BoundingBox.UNITS_PER_DEGREE;
+                        final BoundingBox cell = new BoundingBox(south, west, south + BoundingBox.UNITS_PER_DEGREE,
+                                west + BoundingBox.UNITS_PER_DEGREE);
+                        if (area.crosses(cell))
+                        {
+                            list(boundary, row * COLUMNS + column).add(advisory);
+                        }
+                        else if (area.contains(south + BoundingBox.UNITS_PER_DEGREE / 2, west
+                                + BoundingBox.UNITS_PER_DEGREE / 2))
+                        {
+                            list(interior, row * COLUMNS + column).add(advisory);
+                        }
+                    }
+                }
+            }
+            for (final Map.Entry<Integer, List<Advisory>> entry : boundary.entrySet())
+            {
+                m_boundary[entry.getKey()] = entry.getValue().toArray(new Advisory[entry.getValue().size()]);
+            }
+            for (final Map.Entry<Integer, List<Advisory>> entry : interior.entrySet())
+            {
+                m_interior[entry.getKey()] = entry.getValue().toArray(new Advisory[entry.getValue().size()]);
+            }
+        }
+
+        /**
+         * Get the list of advisories being built for a cell, creating it if necessary.
+         *
+         * @param lists the lists by cell.
+         * @param cell the cell index.
+         * @return {@link List} of advisories.
+         */
+        private static List<Advisory> list(final Map<Integer, List<Advisory>> lists, final int cell)
+        {
+            List<Advisory> result = lists.get(cell);
+            if (null == result)
+            {
+                result = new ArrayList<>();
+                lists.put(cell, result);
+            }
+            return result;
+        }
+    }
+}
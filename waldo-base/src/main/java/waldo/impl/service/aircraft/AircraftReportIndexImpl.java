@@ -0,0 +1,334 @@
+package waldo.impl.service.aircraft;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.aircraft.AircraftReport;
+import waldo.service.aircraft.AircraftReportIndex;
+import waldo.utility.geo.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link AircraftReportIndexImpl} is the concrete implementation of the {@link AircraftReportIndex} interface. Reports
+ * are held in a ring of hourly {@link Bucket}s, enough to cover the retention period, each of which divides the globe
+ * into a grid of one-degree cells. Each cell holds its reports in an array sorted by altitude, so that a band of
+ * altitudes is found by binary search.
+ * <p>
+ * A query visits only the buckets of the hours which overlap its period, and within them only the cells which overlap
+ * the bounding box of its circle; each report found there is then checked against the exact period, band and
+ * (great-circle) distance. The ring is advanced by the reports themselves: a report of a new hour displaces the bucket
+ * of the hour which has fallen out of the retention period, so that no expiry task is needed.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Queries take no lock;
+ * additions are serialized, and replace cell arrays rather than modifying them.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+class AircraftReportIndexImpl implements AircraftReportIndex
+{
+    private static final int COLUMNS = 360;
+    private static final double EARTH_RADIUS = 3440.065;
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1L);
+    private static final double MINUTES_PER_DEGREE = 60.0;
+    private static final int ROWS = 180;
+
+    private final AtomicReferenceArray<Bucket> m_buckets;
+    private volatile long m_latest = Long.MIN_VALUE;
+
+    /**
+     * Construct a {@link AircraftReportIndexImpl} instance.
+     *
+     * @param retention the period, in milliseconds before the latest report, for which reports are held.
+     * @throws IllegalArgumentException if the retention period is negative.
+     */
+    @Autowired
+    AircraftReportIndexImpl(@Value("${" + Constants.Aircraft.REPORT_RETENTION + "}") final long retention)
+            throws IllegalArgumentException
+    {
+        super();
+        if (retention < 0L)
+        {
+            throw new IllegalArgumentException(String.format("Retention period %d is negative.", retention));
+        }
+        m_buckets = new AtomicReferenceArray<>((int) ((retention + HOUR - 1L) / HOUR) + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean add(final AircraftReport report)
+    {
+        final long hour = report.getObservedAt() / HOUR;
+        final int slots = m_buckets.length();
+        boolean result = false;
+        if (Long.MIN_VALUE == m_latest || hour > m_latest - slots)
+        {
+            if (Long.MIN_VALUE == m_latest || hour > m_latest)
+            {
+                m_latest = hour;
+            }
+
+            /* The slot holds either this hour or an older one, which has now fallen out of the retention period. */
+            final int slot = (int) (hour % slots);
+            Bucket bucket = m_buckets.get(slot);
+            if (null == bucket || bucket.m_hour != hour)
+            {
+                bucket = new Bucket(hour);
+                m_buckets.set(slot, bucket);
+            }
+            result = bucket.add(report);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AircraftReport> find(final int latitude, final int longitude, final double radius, final int lowest,
+                                     final int highest, final long from, final long to)
+            throws IllegalArgumentException
+    {
+        if (!(radius >= 0.0))
+        {
+            throw new IllegalArgumentException(String.format("Radius %s is negative.", radius));
+        }
+        if (highest < lowest)
+        {
+            throw new IllegalArgumentException(String.format("Highest altitude %d is below lowest %d.", highest,
+                    lowest));
+        }
+        if (to < from)
+        {
+            throw new IllegalArgumentException(String.format("Period end %d precedes start %d.", to, from));
+        }
+        final List<AircraftReport> result = new ArrayList<>();
+        final long latest = m_latest;
+        if (Long.MIN_VALUE != latest)
+        {
+            /* Find the cells overlapping the bounding box of the circle, which widens in longitude toward the poles. */
+            final double pointLatitude = (double) latitude / BoundingBox.UNITS_PER_DEGREE;
+            final double pointLongitude = (double) longitude / BoundingBox.UNITS_PER_DEGREE;
+            final double span = radius / MINUTES_PER_DEGREE;
+            final int firstRow = row(pointLatitude - span);
+            final int lastRow = row(pointLatitude + span);
+            final double reach = Math.max(Math.abs(pointLatitude - span), Math.abs(pointLatitude + span));
+            final double longitudeSpan = reach < 90.0 ? span / Math.cos(Math.toRadians(reach)) : 180.0;
+            final int firstColumn;
+            final int columns;
+            if (longitudeSpan < 180.0)
+            {
+                firstColumn = (int) Math.floor(pointLongitude - longitudeSpan);
+                columns = Math.min(COLUMNS, (int) Math.floor(pointLongitude + longitudeSpan) - firstColumn + 1);
+            }
+            else
+            {
+                firstColumn = -180;
+                columns = COLUMNS;
+            }
+
+            /* Visit the buckets of the hours overlapping the period which are still held. */
+            final int slots = m_buckets.length();
+            final long lastHour = Math.min(latest, to / HOUR);
+            for (long hour = Math.max(latest - slots + 1L, from / HOUR); hour <= lastHour; hour++)
+            {
+                final Bucket bucket = m_buckets.get((int) (hour % slots));
+                if (null != bucket && hour == bucket.m_hour)
+                {
+                    for (int row = firstRow; row <= lastRow; row++)
+                    {
+                        for (int column = 0; column < columns; column++)
+                        {
+                            final AircraftReport[] reports = bucket.m_cells.get(row * COLUMNS + column(firstColumn
+                                    + column));
+                            if (null != reports)
+                            {
+                                for (int index = lowerBound(reports, lowest); index < reports.length
+                                        && reports[index].getAltitude() <= highest; index++)
+                                {
+                                    final AircraftReport report = reports[index];
+                                    if (report.getObservedAt() >= from && report.getObservedAt() <= to && distance(
+                                            pointLatitude, pointLongitude, report) <= radius)
+                                    {
+                                        result.add(report);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            Collections.sort(result, new Comparator<AircraftReport>()
+            {
+                @Override
+                public int compare(final AircraftReport left, final AircraftReport right)
+                {
+                    return Long.compare(right.getObservedAt(), left.getObservedAt());
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Get the index of the grid cell holding a report.
+     *
+     * @param report the report.
+     * @return {@code int} cell index.
+     */
+    static int cell(final AircraftReport report)
+    {
+        return row((double) report.getLatitude() / BoundingBox.UNITS_PER_DEGREE) * COLUMNS + column((int) Math.floor(
+                (double) report.getLongitude() / BoundingBox.UNITS_PER_DEGREE));
+    }
+
+    /**
+     * Get the grid column of a whole degree of longitude, wrapping at the antimeridian.
+     *
+     * @param degrees the longitude in whole degrees, which need not be normalized.
+     * @return {@code int} column index.
+     */
+    private static int column(final int degrees)
+    {
+        final int result = (degrees + 180) % COLUMNS;
+        return result < 0 ? result + COLUMNS : result;
+    }
+
+    /**
+     * Compute the great-circle distance between a point and the position of a report.
+     *
+     * @param latitude the latitude of the point, in degrees.
+     * @param longitude the longitude of the point, in degrees.
+     * @param report the report.
+     * @return {@code double} distance in nautical miles.
+     */
+    private static double distance(final double latitude, final double longitude, final AircraftReport report)
+    {
+        final double reportLatitude = Math.toRadians((double) report.getLatitude() / BoundingBox.UNITS_PER_DEGREE);
+        final double reportLongitude = Math.toRadians((double) report.getLongitude() / BoundingBox.UNITS_PER_DEGREE);
+        final double pointLatitude = Math.toRadians(latitude);
+        final double latitudeSine = Math.sin((reportLatitude - pointLatitude) / 2.0);
+        final double longitudeSine = Math.sin((reportLongitude - Math.toRadians(longitude)) / 2.0);
+        final double haversine = latitudeSine * latitudeSine + Math.cos(pointLatitude) * Math.cos(reportLatitude)
+                * longitudeSine * longitudeSine;
+        return 2.0 * EARTH_RADIUS * Math.asin(Math.min(1.0, Math.sqrt(haversine)));
+    }
+
+    /**
+     * Find the first report in a cell at or above an altitude.
+     *
+     * @param reports the reports, sorted by altitude.
+     * @param altitude the altitude in feet.
+     * @return {@code int} index of the first report at or above {@code altitude}, or the length of {@code reports}.
+     */
+    private static int lowerBound(final AircraftReport[] reports, final int altitude)
+    {
+        int low = 0;
+        int high = reports.length;
+        while (low < high)
+        {
+            final int middle = (low + high) >>> 1;
+            if (reports[middle].getAltitude() < altitude)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the grid row of a latitude, clamped to the grid.
+     *
+     * @param degrees the latitude in degrees.
+     * @return {@code int} row index.
+     */
+    private static int row(final double degrees)
+    {
+        return Math.max(0, Math.min(ROWS - 1, (int) Math.floor(degrees) + 90));
+    }
+
+    /**
+     * {@link Bucket} holds the reports made within one hour, by grid cell.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access, provided additions are
+     * serialized.
+     */
+    private static final class Bucket
+    {
+        private final AtomicReferenceArray<AircraftReport[]> m_cells = new AtomicReferenceArray<>(ROWS * COLUMNS);
+        private final long m_hour;
+
+        /**
+         * Construct a {@link Bucket} instance.
+         *
+         * @param hour the hour, since the epoch, of the reports held.
+         */
+        Bucket(final long hour)
+        {
+            super();
+            m_hour = hour;
+        }
+
+        /**
+         * Add a report to its cell, in altitude order, unless the cell already holds it.
+         *
+         * @param report the report.
+         * @return {@code boolean} true if the report was added.
+         */
+        boolean add(final AircraftReport report)
+        {
+            final int cell = cell(report);
+            final AircraftReport[] reports = m_cells.get(cell);
+            boolean result = true;
+            int index = 0;
+            if (null != reports)
+            {
+                for (final AircraftReport held : reports)
+                {
+                    if (held.getObservedAt() == report.getObservedAt() && held.getRawText().equals(report
+                            .getRawText()))
+                    {
+                        result = false;
+                        break;
+                    }
+                }
+                index = lowerBound(reports, report.getAltitude());
+            }
+            if (result)
+            {
+                final int length = null == reports ? 0 : reports.length;
+                final AircraftReport[] replacement = new AircraftReport[length + 1];
+                if (0 != length)
+                {
+                    System.arraycopy(reports, 0, replacement, 0, index);
+                    System.arraycopy(reports, index, replacement, index + 1, length - index);
+                }
+                replacement[index] = report;
+                m_cells.set(cell, replacement);
+            }
+            return result;
+        }
+    }
+}
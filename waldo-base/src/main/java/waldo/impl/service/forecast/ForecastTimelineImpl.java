@@ -0,0 +1,287 @@
+package waldo.impl.service.forecast;
+
+import org.springframework.stereotype.Component;
+import waldo.service.forecast.ForecastConditions;
+import waldo.service.forecast.ForecastTimeline;
+import waldo.service.forecast.TerminalForecast;
+import waldo.utility.station.StationDictionary;
+import waldo.utility.station.StationTable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link ForecastTimelineImpl} is the concrete implementation of the {@link ForecastTimeline} interface. Each forecast
+ * is resolved when it arrives into an immutable {@link Timeline}: its period of validity is cut at the start and end of
+ * every group into sorted, non-overlapping segments, within each of which the forecast is constant, and each segment is
+ * given the conditions prevailing throughout it and the worst conditions forecast at any time within it.
+ * <p>
+ * Resolution applies the semantics of each group type once. A {@code FM} group replaces the prevailing conditions from
+ * its time on. A {@code BECMG} group may take effect at any time during its period, so the prevailing conditions are
+ * unchanged during the period and changed after it, and the worst conditions during the period include those with
+ * the change applied. {@code TEMPO} and {@code PROB} groups never change the prevailing conditions, but the worst
+ * conditions during their period include those with the group applied.
+ * <p>
+ * The conditions prevailing at a time are then found by binary search of the segment starts. The worst conditions over
+ * a period are read from a sparse table holding the worst of each run of {@code 2^k} segments, so that any run is
+ * covered by two entries: the cost is the two binary searches for the ends of the run.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Reads take no lock;
+ * updates are serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+class ForecastTimelineImpl implements ForecastTimeline
+{
+    private static final StationDictionary s_stations = StationDictionary.getInstance();
+
+    private final StationTable<Timeline> m_timelines = new StationTable<>();
+
+    /**
+     * Construct a {@link ForecastTimelineImpl} instance.
+     */
+    ForecastTimelineImpl()
+    {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean update(final TerminalForecast forecast) throws IllegalArgumentException
+    {
+        final int id = s_stations.intern(forecast.getStation());
+        final Timeline existing = m_timelines.get(id);
+        final boolean result = null == existing || existing.m_issuedAt <= forecast.getIssuedAt();
+        if (result)
+        {
+            m_timelines.put(id, new Timeline(forecast));
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ForecastConditions findPredicted(final String station, final long time)
+    {
+        final Timeline timeline = m_timelines.get(s_stations.find(station));
+        final int segment = null == timeline ? -1 : timeline.segmentAt(time);
+        return segment < 0 ? null : timeline.m_prevailing[segment];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ForecastConditions findWorst(final String station, final long from, final long to)
+            throws IllegalArgumentException
+    {
+        if (to < from)
+        {
+            throw new IllegalArgumentException(String.format("Period end %d precedes start %d.", to, from));
+        }
+        final Timeline timeline = m_timelines.get(s_stations.find(station));
+        return null == timeline ? null : timeline.findWorst(from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getIssuedAt(final String station)
+    {
+        final Timeline timeline = m_timelines.get(s_stations.find(station));
+        return null == timeline ? 0L : timeline.m_issuedAt;
+    }
+
+    /**
+     * {@link Timeline} is the resolved forecast of one station: segment boundaries, and the prevailing and worst
+     * conditions of each segment.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded
+     * access.
+     */
+    private static final class Timeline
+    {
+        private final long m_issuedAt;
+        private final ForecastConditions[] m_prevailing;
+        private final long[] m_starts;
+        private final ForecastConditions[][] m_worst;
+
+        /**
+         * Construct a {@link Timeline} instance.
+         *
+         * @param forecast the forecast to resolve.
+         * @throws IllegalArgumentException if the period of validity of the forecast is empty.
+         */
+        Timeline(final TerminalForecast forecast) throws IllegalArgumentException
+        {
+            super();
+            final long validFrom = forecast.getValidFrom();
+            final long validTo = forecast.getValidTo();
+            if (validTo <= validFrom)
+            {
+                throw new IllegalArgumentException(String.format("Forecast for [%s] has an empty period of validity.",
+                        forecast.getStation()));
+            }
+            final List<TerminalForecast.Group> groups = forecast.getGroups();
+            m_issuedAt = forecast.getIssuedAt();
+            m_starts = boundaries(groups, validFrom, validTo);
+
+            /* Resolve the conditions of each segment, with the groups applied in the order given. */
+            final int count = m_starts.length - 1;
+            m_prevailing = new ForecastConditions[count];
+            final ForecastConditions[] worst = new ForecastConditions[count];
+            for (int segment = 0; segment < count; segment++)
+            {
+                final long start = m_starts[segment];
+                ForecastConditions prevailing = ForecastConditions.NONE;
+                ForecastConditions transitions = null;
+                for (final TerminalForecast.Group group : groups)
+                {
+                    final TerminalForecast.Group.Type type = group.getType();
+                    if (TerminalForecast.Group.Type.FROM == type && group.getFrom() <= start)
+                    {
+                        prevailing = ForecastConditions.NONE.overlay(group.getConditions());
+                        transitions = null;
+                    }
+                    else if (TerminalForecast.Group.Type.BECOMING == type && group.getTo() <= start)
+                    {
+                        prevailing = prevailing.overlay(group.getConditions());
+                    }
+                    else if (TerminalForecast.Group.Type.BECOMING == type && group.getFrom() <= start)
+                    {
+                        final ForecastConditions changed = prevailing.overlay(group.getConditions());
+                        transitions = null == transitions ? changed : transitions.worst(changed);
+                    }
+                }
+                ForecastConditions result = null == transitions ? prevailing : prevailing.worst(transitions);
+                for (final TerminalForecast.Group group : groups)
+                {
+                    final TerminalForecast.Group.Type type = group.getType();
+                    if ((TerminalForecast.Group.Type.TEMPORARY == type ||
+                            TerminalForecast.Group.Type.PROBABILITY == type) && group.getFrom() <= start &&
+                            group.getTo() > start)
+                    {
+                        result = result.worst(prevailing.overlay(group.getConditions()));
+                    }
+                }
+                m_prevailing[segment] = prevailing;
+                worst[segment] = result;
+            }
+            m_worst = sparseTable(worst);
+        }
+
+        /**
+         * Find the segment containing a time.
+         *
+         * @param time the time.
+         * @return {@code int} segment index, or {@code -1} if the time is outside the period of validity.
+         */
+        int segmentAt(final long time)
+        {
+            final int index = Arrays.binarySearch(m_starts, time);
+            final int result = index >= 0 ? index : -index - 2;
+            return result < m_prevailing.length ? result : -1;
+        }
+
+        /**
+         * Find the worst conditions forecast within a period.
+         *
+         * @param from the start of the period (inclusive.)
+         * @param to the end of the period (exclusive), or equal to {@code from} for an instant.
+         * @return {@link ForecastConditions} worst conditions, or {@code null} if the period is outside the period of
+         * validity.
+         */
+        ForecastConditions findWorst(final long from, final long to)
+        {
+            final long end = m_starts[m_starts.length - 1];
+            final boolean instant = from == to;
+            ForecastConditions result = null;
+            if (from < end && (instant ? from >= m_starts[0] : to > m_starts[0]))
+            {
+                final int first = segmentAt(Math.max(from, m_starts[0]));
+                int last = instant ? first : to >= end ? m_prevailing.length - 1 : segmentAt(to);
+                if (!instant && to == m_starts[last])
+                {
+                    /* The period ends where the last segment starts. */
+                    last--;
+                }
+                final int level = 31 - Integer.numberOfLeadingZeros(last - first + 1);
+                result = m_worst[level][first].worst(m_worst[level][last - (1 << level) + 1]);
+            }
+            return result;
+        }
+
+        /**
+         * Cut a period of validity at the start and end of every group.
+         *
+         * @param groups the forecast groups.
+         * @param validFrom the start of the period of validity.
+         * @param validTo the end of the period of validity.
+         * @return {@code long[]} sorted, distinct boundaries, the first {@code validFrom} and the last {@code validTo}.
+         */
+        private static long[] boundaries(final List<TerminalForecast.Group> groups, final long validFrom,
+                                         final long validTo)
+        {
+            final long[] times = new long[2 + 2 * groups.size()];
+            times[0] = validFrom;
+            times[1] = validTo;
+            int count = 2;
+            for (final TerminalForecast.Group group : groups)
+            {
+                times[count++] = Math.max(validFrom, Math.min(validTo, group.getFrom()));
+                times[count++] = Math.max(validFrom, Math.min(validTo, group.getTo()));
+            }
+            Arrays.sort(times);
+            int distinct = 1;
+            for (int i = 1; i < times.length; i++)
+            {
+                if (times[i] != times[distinct - 1])
+                {
+                    times[distinct++] = times[i];
+                }
+            }
+            return Arrays.copyOf(times, distinct);
+        }
+
+        /**
+         * Build a sparse table of the worst conditions over each run of {@code 2^k} segments.
+         *
+         * @param worst the worst conditions of each segment.
+         * @return {@code ForecastConditions[][]} table, where {@code [k][i]} holds the worst of the segments from
+         * {@code i} to {@code i + 2^k} (exclusive.)
+         */
+        private static ForecastConditions[][] sparseTable(final ForecastConditions[] worst)
+        {
+            final int levels = 32 - Integer.numberOfLeadingZeros(worst.length);
+            final ForecastConditions[][] result = new ForecastConditions[levels][];
+            result[0] = worst;
+            for (int level = 1; level < levels; level++)
+            {
+                final int half = 1 << (level - 1);
+                final ForecastConditions[] previous = result[level - 1];
+                final ForecastConditions[] current = new ForecastConditions[worst.length - (1 << level) + 1];
+                for (int i = 0; i < current.length; i++)
+                {
+                    current[i] = previous[i].worst(previous[i + half]);
+                }
+                result[level] = current;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package waldo.impl.service.journal;
+
+import waldo.entity.FlightCategory;
+import waldo.entity.ReportType;
+import waldo.service.observation.ObservationRecord;
+import waldo.utility.station.StationDictionary;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * {@link JournalRecordCodec} converts between {@link ObservationRecord}s and their journal encoding. A record is framed
+ * as an {@code int} payload length, an {@code int} CRC-32 of the payload, and the payload itself:
+ * <pre>
+ * long   sequence
+ * long   id
+ * long   observed at (milliseconds since the epoch)
+ * long   sky layers
+ * short  temperature, dewpoint, altimeter, sea level pressure, wind direction, wind speed, wind gust, visibility,
+ *        precipitation ({@link ObservationRecord#MISSING} if not reported)
+ * short  report type code
+ * short  flight category code, or -1 if none
+ * byte   station length, followed by the station identifier in ASCII
+ * </pre>
+ * A payload length of zero marks the end of the records in a segment. All values are big-endian.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access; each
+ * writer or reader uses its own.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+final class JournalRecordCodec
+{
+    /**
+     * Size of the frame preceding each payload.
+     */
+    static final int FRAME_BYTES = 8;
+
+    /**
+     * Largest possible payload.
+     */
+    static final int MAX_PAYLOAD_BYTES = 55 + 255;
+
+    private static final FlightCategory.CodeConverter s_flightCategories = new FlightCategory.CodeConverter();
+    private static final ReportType.CodeConverter s_reportTypes = new ReportType.CodeConverter();
+    private static final StationDictionary s_stations = StationDictionary.getInstance();
+
+    private final ObservationRecord.Builder m_builder = new ObservationRecord.Builder();
+    private final CRC32 m_crc = new CRC32();
+    private final byte[] m_payload = new byte[MAX_PAYLOAD_BYTES];
+    private final ByteBuffer m_payloadBuffer = ByteBuffer.wrap(m_payload);
+
+    /**
+     * Construct a {@link JournalRecordCodec} instance.
+     */
+    JournalRecordCodec()
+    {
+        super();
+    }
+
+    /**
+     * Encode a record into this codec's payload buffer, and compute its checksum.
+     *
+     * @param sequence the sequence number of the record.
+     * @param record the record.
+     * @return {@code int} payload length; the payload is available from {@link #getPayload()} and its checksum from
+     * {@link #getChecksum()}.
+     */
+    int encode(final long sequence, final ObservationRecord record)
+    {
+        final String station = record.getStation();
+        final FlightCategory flightCategory = record.getFlightCategory();
+        m_payloadBuffer.clear();
+        m_payloadBuffer.putLong(sequence).putLong(record.getId()).putLong(record.getObservedAt())
+                .putLong(record.getSkyLayers())
+                .putShort(record.getTemperature()).putShort(record.getDewpoint()).putShort(record.getAltimeter())
+                .putShort(record.getSeaLevelPressure()).putShort(record.getWindDirection())
+                .putShort(record.getWindSpeed()).putShort(record.getWindGust()).putShort(record.getVisibility())
+                .putShort(record.getPrecipitation()).putShort(record.getReportType().getCode())
+                .putShort(null == flightCategory ? -1 : flightCategory.getCode())
+                .put((byte) station.length());
+        for (int i = 0; i < station.length(); i++)
+        {
+            m_payloadBuffer.put((byte) station.charAt(i));
+        }
+        final int result = m_payloadBuffer.position();
+        m_crc.reset();
+        m_crc.update(m_payload, 0, result);
+        return result;
+    }
+
+    /**
+     * Read and verify the frame at a given position of a segment, copying its payload into this codec's payload
+     * buffer.
+     *
+     * @param segment the segment contents.
+     * @param position the position of the frame.
+     * @param limit the position beyond which no frame data may be read.
+     * @return {@code int} payload length, {@code 0} at the end of the records, or {@code -1} if the frame is truncated
+     * or fails its checksum.
+     */
+    int read(final ByteBuffer segment, final int position, final int limit)
+    {
+        final int result;
+        final int length = position + FRAME_BYTES <= limit ? segment.getInt(position) : 0;
+        if (0 == length)
+        {
+            result = 0;
+        }
+        else if (length < 0 || length > MAX_PAYLOAD_BYTES || position + FRAME_BYTES + length > limit)
+        {
+            result = -1;
+        }
+        else
+        {
+            for (int i = 0; i < length; i++)
+            {
+                m_payload[i] = segment.get(position + FRAME_BYTES + i);
+            }
+            m_crc.reset();
+            m_crc.update(m_payload, 0, length);
+            result = (int) m_crc.getValue() == segment.getInt(position + 4) ? length : -1;
+        }
+        return result;
+    }
+
+    /**
+     * Get the sequence number of the payload most recently encoded or read.
+     *
+     * @return {@code long} sequence number.
+     */
+    long getSequence()
+    {
+        return m_payloadBuffer.getLong(0);
+    }
+
+    /**
+     * Get the dense identifier (see {@link StationDictionary}) of the station of the payload most recently encoded or
+     * read. Together with {@link #getSupersessionKey()} this identifies the records which supersede one another.
+     *
+     * @return {@code int} dense station identifier.
+     */
+    int getStationId()
+    {
+        return s_stations.intern(m_payload, 55, m_payload[54] & 0xff);
+    }
+
+    /**
+     * Get the key under which later records of the same station supersede the payload most recently encoded or read:
+     * its observation time and report type, packed into one {@code long}. Observation times below {@code 2^47}
+     * milliseconds (some four thousand years past the epoch) pack without loss.
+     *
+     * @return {@code long} supersession key within the station.
+     */
+    long getSupersessionKey()
+    {
+        return m_payloadBuffer.getLong(16) << 16 | m_payloadBuffer.getShort(50) & 0xffff;
+    }
+
+    /**
+     * Decode the payload most recently read.
+     *
+     * @return {@link ObservationRecord} instance.
+     */
+    ObservationRecord decode()
+    {
+        final ByteBuffer payload = m_payloadBuffer;
+        final short flightCategory = payload.getShort(52);
+        return m_builder.reset().setId(payload.getLong(8)).setObservedAt(payload.getLong(16))
+                .setSkyLayers(payload.getLong(24))
+                .setTemperature(payload.getShort(32)).setDewpoint(payload.getShort(34))
+                .setAltimeter(payload.getShort(36)).setSeaLevelPressure(payload.getShort(38))
+                .setWindDirection(payload.getShort(40)).setWindSpeed(payload.getShort(42))
+                .setWindGust(payload.getShort(44)).setVisibility(payload.getShort(46))
+                .setPrecipitation(payload.getShort(48))
+                .setReportType(s_reportTypes.convertToEntityAttribute(payload.getShort(50)))
+                .setFlightCategory(flightCategory < 0 ? null : s_flightCategories.convertToEntityAttribute(
+                        flightCategory))
+                .setStation(s_stations.getIdentifier(getStationId())).toRecord();
+    }
+
+    /**
+     * Get the payload buffer.
+     *
+     * @return {@code byte[]} payload, valid up to the length returned by the last encode or read.
+     */
+    byte[] getPayload()
+    {
+        return m_payload;
+    }
+
+    /**
+     * Get the checksum of the payload most recently encoded or read.
+     *
+     * @return {@code int} CRC-32.
+     */
+    int getChecksum()
+    {
+        return (int) m_crc.getValue();
+    }
+}
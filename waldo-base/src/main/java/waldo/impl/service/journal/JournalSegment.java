@@ -0,0 +1,273 @@
+package waldo.impl.service.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * {@link JournalSegment} is one fixed-size, preallocated file of the observation journal, memory mapped for both
+ * appending and reading. The file begins with a {@value #HEADER_BYTES}-byte header:
+ * <pre>
+ * int    magic number ({@code WJNL})
+ * short  format version
+ * short  reserved
+ * int    segment size
+ * long   base sequence number (no record in the segment has a smaller one)
+ * int    CRC-32 of the preceding bytes
+ * </pre>
+ * followed by records framed as described by {@link JournalRecordCodec}.
+ * <p>
+ * Appended records are published to readers through a volatile end offset; readers never look beyond it, so they never
+ * see a partially written record. Once a segment is sealed (because the journal has moved on to a new one) its end is
+ * final.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access provided there is a single
+ * appending thread at a time. Readers must each use their own view from {@link #view()}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+final class JournalSegment
+{
+    /**
+     * Size of the segment header.
+     */
+    static final int HEADER_BYTES = 32;
+
+    private static final int MAGIC = 0x574a4e4c;
+    private static final short VERSION = 1;
+
+    private final long m_baseSequence;
+    private final MappedByteBuffer m_buffer;
+    private final File m_file;
+    private volatile int m_end;
+    private volatile long m_lastSequence;
+    private volatile boolean m_sealed;
+
+    /**
+     * Construct a {@link JournalSegment} instance.
+     *
+     * @param file the segment file.
+     * @param buffer the mapped contents of the file.
+     * @param baseSequence the base sequence number.
+     */
+    private JournalSegment(final File file, final MappedByteBuffer buffer, final long baseSequence)
+    {
+        super();
+        m_baseSequence = baseSequence;
+        m_buffer = buffer;
+        m_file = file;
+        m_end = HEADER_BYTES;
+        m_lastSequence = baseSequence - 1L;
+    }
+
+    /**
+     * Create a new, empty segment file.
+     *
+     * @param file the file, which must not exist.
+     * @param size the segment size.
+     * @param baseSequence the base sequence number.
+     * @return {@link JournalSegment} instance.
+     * @throws IOException if the file could not be created.
+     */
+    static JournalSegment create(final File file, final int size, final long baseSequence) throws IOException
+    {
+        if (!file.createNewFile())
+        {
+            throw new IOException(String.format("Journal segment %s already exists.", file));
+        }
+        final MappedByteBuffer buffer = map(file, size);
+        buffer.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, (short) 0).putInt(8, size)
+                .putLong(12, baseSequence).putInt(20, headerChecksum(buffer));
+        buffer.putInt(HEADER_BYTES, 0);
+        return new JournalSegment(file, buffer, baseSequence);
+    }
+
+    /**
+     * Open an existing segment file, recovering its records. Recovery stops at the end marker, or at the first record
+     * which is truncated, fails its checksum or is out of sequence (as may be left by a crash during an append); in the
+     * latter case the remainder of the segment is cleared so that stale data beyond it can never be mistaken for
+     * records appended later.
+     *
+     * @param file the file.
+     * @param codec the codec with which to read records.
+     * @return {@link JournalSegment} instance.
+     * @throws IOException if the file could not be read or its header is invalid.
+     */
+    static JournalSegment open(final File file, final JournalRecordCodec codec) throws IOException
+    {
+        final int size = (int) file.length();
+        final MappedByteBuffer buffer = map(file, size);
+        if (size < HEADER_BYTES || MAGIC != buffer.getInt(0) || VERSION != buffer.getShort(4) ||
+                size != buffer.getInt(8) || headerChecksum(buffer) != buffer.getInt(20))
+        {
+            throw new IOException(String.format("Journal segment %s has an invalid header.", file));
+        }
+        final JournalSegment result = new JournalSegment(file, buffer, buffer.getLong(12));
+        int position = HEADER_BYTES;
+        int length;
+        while (0 < (length = codec.read(buffer, position, size)) && codec.getSequence() > result.m_lastSequence)
+        {
+            result.m_lastSequence = codec.getSequence();
+            position += JournalRecordCodec.FRAME_BYTES + length;
+        }
+        if (0 != length)
+        {
+            for (int i = position; i < size; i++)
+            {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+        result.m_end = position;
+        return result;
+    }
+
+    /**
+     * Append the payload most recently encoded by a codec.
+     *
+     * @param codec the codec.
+     * @param length the payload length.
+     * @return {@code true} if the record was appended, or {@code false} if there is not enough space remaining.
+     */
+    boolean append(final JournalRecordCodec codec, final int length)
+    {
+        final int position = m_end;
+        final int next = position + JournalRecordCodec.FRAME_BYTES + length;
+        final boolean result = next <= m_buffer.capacity();
+        if (result)
+        {
+            final ByteBuffer buffer = m_buffer.duplicate();
+            buffer.position(position + JournalRecordCodec.FRAME_BYTES);
+            buffer.put(codec.getPayload(), 0, length);
+            if (next + 4 <= buffer.capacity())
+            {
+                buffer.putInt(next, 0);
+            }
+            buffer.putInt(position + 4, codec.getChecksum());
+            buffer.putInt(position, length);
+            m_lastSequence = codec.getSequence();
+            m_end = next;
+        }
+        return result;
+    }
+
+    /**
+     * Force the segment contents to storage.
+     */
+    void force()
+    {
+        m_buffer.force();
+    }
+
+    /**
+     * Mark the segment as sealed; no more records will be appended.
+     */
+    void seal()
+    {
+        m_sealed = true;
+    }
+
+    /**
+     * Get a view of the segment contents with its own position and limit, for reading.
+     *
+     * @return {@link ByteBuffer} view.
+     */
+    ByteBuffer view()
+    {
+        return m_buffer.duplicate();
+    }
+
+    long getBaseSequence()
+    {
+        return m_baseSequence;
+    }
+
+    /**
+     * Get the offset just past the last published record.
+     *
+     * @return {@code int} end offset.
+     */
+    int getEnd()
+    {
+        return m_end;
+    }
+
+    File getFile()
+    {
+        return m_file;
+    }
+
+    /**
+     * Get the sequence number of the last record.
+     *
+     * @return {@code long} sequence number, or one less than the base sequence number if the segment is empty.
+     */
+    long getLastSequence()
+    {
+        return m_lastSequence;
+    }
+
+    boolean isSealed()
+    {
+        return m_sealed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s[%s, sequence %d-%d, end %d%s]", getClass().getSimpleName(), m_file.getName(),
+                m_baseSequence, m_lastSequence, m_end, m_sealed ? ", sealed" : "");
+    }
+
+    /**
+     * Map a segment file, extending it to the given size if necessary.
+     *
+     * @param file the file.
+     * @param size the segment size.
+     * @return {@link MappedByteBuffer} instance.
+     * @throws IOException if the file could not be mapped.
+     */
+    private static MappedByteBuffer map(final File file, final int size) throws IOException
+    {
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+             final FileChannel channel = randomAccessFile.getChannel())
+        {
+            /* The mapping remains valid after the channel is closed. */
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+        }
+    }
+
+    /**
+     * Compute the checksum of a segment header.
+     *
+     * @param buffer the segment contents.
+     * @return {@code int} CRC-32 of the header bytes preceding the checksum.
+     */
+    private static int headerChecksum(final ByteBuffer buffer)
+    {
+        final byte[] header = new byte[20];
+        for (int i = 0; i < header.length; i++)
+        {
+            header[i] = buffer.get(i);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(header, 0, header.length);
+        return (int) crc.getValue();
+    }
+}
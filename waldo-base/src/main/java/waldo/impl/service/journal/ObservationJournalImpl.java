@@ -0,0 +1,681 @@
+package waldo.impl.service.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import waldo.Constants;
+import waldo.service.journal.JournalException;
+import waldo.service.journal.ObservationJournal;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+import waldo.utility.collection.IntObjectMap;
+import waldo.utility.collection.LongLongMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ObservationJournalImpl} is the concrete implementation of the {@link ObservationJournal} interface. The journal
+ * is a directory of fixed-size {@link JournalSegment} files named by base sequence number, plus one small file per
+ * consumer holding the sequence number of the last record it has handled. Segments are memory mapped: appends are
+ * copies into the mapping of the newest segment, and each consumer reads through its own view of the mappings, so
+ * neither path makes a system call per record.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Appends are serialized;
+ * each consumer is serialized independently of appends and of other consumers.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class ObservationJournalImpl implements ObservationJournal
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ObservationJournalImpl.class);
+
+    private static final Pattern s_consumerName = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final String OFFSET_SUFFIX = ".offset";
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private final Object m_appendLock = new Object();
+    private final JournalRecordCodec m_appendCodec = new JournalRecordCodec();
+    private final Object m_compactLock = new Object();
+    private final ConcurrentMap<String, Cursor> m_cursors = new ConcurrentHashMap<>();
+    private final File m_directory;
+    private final int m_segmentSize;
+    private volatile List<JournalSegment> m_segments = Collections.emptyList();
+
+    /**
+     * Construct a {@link ObservationJournalImpl} instance.
+     *
+     * @param directory the journal directory, which is created if it does not exist.
+     * @param segmentSize the size of each segment file, in bytes.
+     * @throws IllegalArgumentException if {@code segmentSize} is too small to hold a record.
+     */
+    @Autowired
+    ObservationJournalImpl(@Value("${" + Constants.Journal.DIRECTORY + "}") final File directory,
+                           @Value("${" + Constants.Journal.SEGMENT_SIZE + "}") final int segmentSize)
+            throws IllegalArgumentException
+    {
+        super();
+        if (segmentSize < JournalSegment.HEADER_BYTES + JournalRecordCodec.FRAME_BYTES +
+                JournalRecordCodec.MAX_PAYLOAD_BYTES)
+        {
+            throw new IllegalArgumentException(String.format("Segment size %d is too small.", segmentSize));
+        }
+        m_directory = directory;
+        m_segmentSize = segmentSize;
+    }
+
+    /**
+     * Open the journal, recovering existing segments and consumer positions.
+     *
+     * @throws JournalException if the journal could not be opened.
+     */
+    @PostConstruct
+    void open() throws JournalException
+    {
+        try
+        {
+            if (!m_directory.isDirectory() && !m_directory.mkdirs())
+            {
+                throw new IOException(String.format("Directory %s could not be created.", m_directory));
+            }
+            final List<JournalSegment> segments = new ArrayList<>();
+            final JournalRecordCodec codec = new JournalRecordCodec();
+            for (final File file : listFiles(SEGMENT_SUFFIX))
+            {
+                segments.add(JournalSegment.open(file, codec));
+            }
+            for (int i = 0; i < segments.size() - 1; i++)
+            {
+                segments.get(i).seal();
+            }
+            if (segments.isEmpty())
+            {
+                segments.add(JournalSegment.create(segmentFile(0L), m_segmentSize, 0L));
+            }
+            m_segments = Collections.unmodifiableList(segments);
+            for (final File file : listFiles(OFFSET_SUFFIX))
+            {
+                final String name = file.getName().substring(0, file.getName().length() - OFFSET_SUFFIX.length());
+                m_cursors.put(name, new Cursor(name, readOffset(file)));
+            }
+            LOG.info("Opened observation journal in {} with segments {} and consumers {}.", m_directory, segments,
+                    m_cursors.values());
+        }
+        catch (final IOException e)
+        {
+            throw new JournalException(String.format("An error of type %s occurred while attempting to open the " +
+                    "observation journal in %s: %s", e.getClass().getName(), m_directory, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Force all appended records to storage when the journal is shut down.
+     */
+    @PreDestroy
+    void close()
+    {
+        flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long append(final ObservationRecord record) throws JournalException
+    {
+        final long result;
+        synchronized (m_appendLock)
+        {
+            JournalSegment segment = m_segments.get(m_segments.size() - 1);
+            result = segment.getLastSequence() + 1L;
+            final int length = m_appendCodec.encode(result, record);
+            if (!segment.append(m_appendCodec, length))
+            {
+                /* Full; roll over to a new segment. */
+                segment.force();
+                final JournalSegment next = createSegment(result);
+                segment.seal();
+                final List<JournalSegment> segments = new ArrayList<>(m_segments);
+                segments.add(next);
+                m_segments = Collections.unmodifiableList(segments);
+                segment = next;
+                segment.append(m_appendCodec, length);
+                LOG.debug("Rolled observation journal over to segment {}.", segment);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flush() throws JournalException
+    {
+        synchronized (m_appendLock)
+        {
+            m_segments.get(m_segments.size() - 1).force();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int consume(final String consumer, final ObservationHandler handler, final int maxRecords)
+            throws IllegalArgumentException, JournalException
+    {
+        if (null == consumer || !s_consumerName.matcher(consumer).matches())
+        {
+            throw new IllegalArgumentException(String.format("Consumer name [%s] is invalid.", consumer));
+        }
+        Cursor cursor = m_cursors.get(consumer);
+        if (null == cursor)
+        {
+            final Cursor created = new Cursor(consumer, -1L);
+            cursor = m_cursors.putIfAbsent(consumer, created);
+            if (null == cursor)
+            {
+                cursor = created;
+                LOG.info("Created observation journal consumer [{}].", consumer);
+            }
+        }
+        return cursor.consume(handler, maxRecords);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${" + Constants.Journal.COMPACTION_INTERVAL + "}")
+    public void compact() throws JournalException
+    {
+        synchronized (m_compactLock)
+        {
+            try
+            {
+                final int deleted = deleteConsumedSegments();
+                final int rewritten = rewriteSupersededSegments();
+                LOG.debug("Compacted observation journal: deleted {} and rewrote {} segment(s).", deleted,
+                        rewritten);
+            }
+            catch (final IOException e)
+            {
+                throw new JournalException(String.format("An error of type %s occurred while attempting to compact " +
+                        "the observation journal in %s: %s", e.getClass().getName(), m_directory, e.getMessage()), e);
+            }
+        }
+    }
+
+    /**
+     * Delete sealed segments whose records have all been handled by every consumer. Nothing is deleted while there are
+     * no consumers.
+     *
+     * @return {@code int} number of segments deleted.
+     * @throws IOException if a segment could not be deleted.
+     */
+    private int deleteConsumedSegments() throws IOException
+    {
+        int result = 0;
+        if (!m_cursors.isEmpty())
+        {
+            long consumed = Long.MAX_VALUE;
+            for (final Cursor cursor : m_cursors.values())
+            {
+                consumed = Math.min(consumed, cursor.getLastSequence());
+            }
+            final List<JournalSegment> deleted = new ArrayList<>();
+            for (final JournalSegment segment : m_segments)
+            {
+                if (segment.isSealed() && segment.getLastSequence() <= consumed)
+                {
+                    deleted.add(segment);
+                }
+            }
+            if (!deleted.isEmpty())
+            {
+                replaceSegments(deleted, Collections.<JournalSegment>emptyList());
+                for (final JournalSegment segment : deleted)
+                {
+                    /* Readers still positioned in the segment keep their mapping until they move on. */
+                    Files.delete(segment.getFile().toPath());
+                }
+                result = deleted.size();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rewrite each sealed segment which holds records superseded by later ones, keeping only the latest record for each
+     * supersession key.
+     *
+     * @return {@code int} number of segments rewritten.
+     * @throws IOException if a segment could not be rewritten.
+     */
+    private int rewriteSupersededSegments() throws IOException
+    {
+        /* Find the latest sequence number of each key, across all segments. */
+        final JournalRecordCodec codec = new JournalRecordCodec();
+        final IntObjectMap<LongLongMap> latest = new IntObjectMap<>(1024);
+        final List<JournalSegment> segments = m_segments;
+        for (final JournalSegment segment : segments)
+        {
+            final ByteBuffer view = segment.view();
+            final int end = segment.getEnd();
+            int length;
+            for (int position = JournalSegment.HEADER_BYTES; 0 < (length = codec.read(view, position, end));
+                 position += JournalRecordCodec.FRAME_BYTES + length)
+            {
+                final int station = codec.getStationId();
+                LongLongMap keys = latest.get(station);
+                if (null == keys)
+                {
+                    keys = new LongLongMap(64);
+                    latest.put(station, keys);
+                }
+                keys.put(codec.getSupersessionKey(), codec.getSequence());
+            }
+        }
+
+        /* Rewrite sealed segments which hold any other records. */
+        int result = 0;
+        for (final JournalSegment segment : segments)
+        {
+            if (segment.isSealed() && hasSuperseded(segment, codec, latest))
+            {
+                final File temporary = new File(m_directory, segment.getFile().getName() + ".compacting");
+                Files.deleteIfExists(temporary.toPath());
+                final JournalSegment compacted = JournalSegment.create(temporary, m_segmentSize,
+                        segment.getBaseSequence());
+                final ByteBuffer view = segment.view();
+                final int end = segment.getEnd();
+                int length;
+                for (int position = JournalSegment.HEADER_BYTES; 0 < (length = codec.read(view, position, end));
+                     position += JournalRecordCodec.FRAME_BYTES + length)
+                {
+                    if (isLatest(codec, latest))
+                    {
+                        compacted.append(codec, length);
+                    }
+                }
+                compacted.force();
+                Files.move(temporary.toPath(), segment.getFile().toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+                final JournalSegment replacement = JournalSegment.open(segment.getFile(), new JournalRecordCodec());
+                replacement.seal();
+                replaceSegments(Collections.singletonList(segment), Collections.singletonList(replacement));
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determine whether a segment holds any record which is not the latest for its key.
+     *
+     * @param segment the segment.
+     * @param codec the codec with which to read records.
+     * @param latest the latest sequence number of each key, by station.
+     * @return {@code true} if the segment holds a superseded record.
+     */
+    private static boolean hasSuperseded(final JournalSegment segment, final JournalRecordCodec codec,
+                                         final IntObjectMap<LongLongMap> latest)
+    {
+        boolean result = false;
+        final ByteBuffer view = segment.view();
+        final int end = segment.getEnd();
+        int length;
+        for (int position = JournalSegment.HEADER_BYTES; !result && 0 < (length = codec.read(view, position, end));
+             position += JournalRecordCodec.FRAME_BYTES + length)
+        {
+            result = !isLatest(codec, latest);
+        }
+        return result;
+    }
+
+    /**
+     * Determine whether the record most recently read is the latest for its key.
+     *
+     * @param codec the codec which read the record.
+     * @param latest the latest sequence number of each key, by station.
+     * @return {@code true} if the record is the latest for its key.
+     */
+    private static boolean isLatest(final JournalRecordCodec codec, final IntObjectMap<LongLongMap> latest)
+    {
+        return latest.get(codec.getStationId()).get(codec.getSupersessionKey(), -1L) == codec.getSequence();
+    }
+
+    /**
+     * Atomically replace some segments of the segment list.
+     *
+     * @param removed the segments to remove.
+     * @param added the segments to add in their place.
+     */
+    private void replaceSegments(final List<JournalSegment> removed, final List<JournalSegment> added)
+    {
+        synchronized (m_appendLock)
+        {
+            final List<JournalSegment> segments = new ArrayList<>(m_segments);
+            segments.removeAll(removed);
+            segments.addAll(added);
+            Collections.sort(segments, new Comparator<JournalSegment>()
+            {
+                /** {@inheritDoc} */
+                @Override
+                public int compare(final JournalSegment left, final JournalSegment right)
+                {
+                    return Long.compare(left.getBaseSequence(), right.getBaseSequence());
+                }
+            });
+            m_segments = Collections.unmodifiableList(segments);
+        }
+    }
+
+    /**
+     * Create a new segment, wrapping any error in a {@link JournalException}.
+     *
+     * @param baseSequence the base sequence number.
+     * @return {@link JournalSegment} instance.
+     * @throws JournalException if the segment could not be created.
+     */
+    private JournalSegment createSegment(final long baseSequence) throws JournalException
+    {
+        final File file = segmentFile(baseSequence);
+        try
+        {
+            return JournalSegment.create(file, m_segmentSize, baseSequence);
+        }
+        catch (final IOException e)
+        {
+            throw new JournalException(String.format("An error of type %s occurred while attempting to create " +
+                    "journal segment %s: %s", e.getClass().getName(), file, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Find the segment which follows a given one.
+     *
+     * @param segment the segment.
+     * @return {@link JournalSegment} next segment, or {@code null} if there is none yet.
+     */
+    private JournalSegment segmentAfter(final JournalSegment segment)
+    {
+        JournalSegment result = null;
+        for (final JournalSegment next : m_segments)
+        {
+            if (next.getBaseSequence() > segment.getBaseSequence())
+            {
+                result = next;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the segment which holds (or would hold) the record following a given sequence number.
+     *
+     * @param sequence the sequence number.
+     * @return {@link JournalSegment} segment.
+     */
+    private JournalSegment segmentFor(final long sequence)
+    {
+        final List<JournalSegment> segments = m_segments;
+        JournalSegment result = segments.get(0);
+        for (final JournalSegment next : segments)
+        {
+            if (next.getBaseSequence() <= sequence + 1L)
+            {
+                result = next;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the file of the segment with a given base sequence number. Names are zero-padded so that they sort in
+     * sequence order.
+     *
+     * @param baseSequence the base sequence number.
+     * @return {@link File} segment file.
+     */
+    private File segmentFile(final long baseSequence)
+    {
+        return new File(m_directory, String.format("%020d%s", baseSequence, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * List the files in the journal directory with a given suffix, in name order.
+     *
+     * @param suffix the suffix.
+     * @return {@link List} of files.
+     */
+    private List<File> listFiles(final String suffix)
+    {
+        final File[] files = m_directory.listFiles(new FileFilter()
+        {
+            /** {@inheritDoc} */
+            @Override
+            public boolean accept(final File file)
+            {
+                return file.isFile() && file.getName().endsWith(suffix);
+            }
+        });
+        final List<File> result = null == files ? new ArrayList<File>() : new ArrayList<>(Arrays.asList(files));
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Read a consumer position file.
+     *
+     * @param file the file.
+     * @return {@code long} sequence number of the last record handled by the consumer.
+     * @throws IOException if the file could not be read.
+     */
+    private static long readOffset(final File file) throws IOException
+    {
+        return Long.parseLong(new String(Files.readAllBytes(file.toPath()), "US-ASCII").trim());
+    }
+
+    /**
+     * {@link Cursor} is the read position of one consumer: the segment it is reading, the offset of the next record
+     * in that segment, and the sequence number of the last record it has handled.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access; reads are serialized.
+     */
+    private final class Cursor
+    {
+        private final JournalRecordCodec m_codec = new JournalRecordCodec();
+        private final String m_name;
+        private volatile long m_lastSequence;
+        private int m_position;
+        private JournalSegment m_segment;
+        private ByteBuffer m_view;
+
+        /**
+         * Construct a {@link Cursor} instance.
+         *
+         * @param name the consumer name.
+         * @param lastSequence the sequence number of the last record handled by the consumer.
+         */
+        Cursor(final String name, final long lastSequence)
+        {
+            super();
+            m_lastSequence = lastSequence;
+            m_name = name;
+        }
+
+        /**
+         * Deliver records following this consumer's position to a handler, flush the handler if it is
+         * {@link Flushable}, then persist the position. If the flush fails the position is left where it was, so the
+         * records are delivered again.
+         *
+         * @param handler the handler.
+         * @param maxRecords the maximum number of records to deliver.
+         * @return {@code int} number of records delivered.
+         * @throws JournalException if the journal could not be read or the position could not be persisted.
+         */
+        synchronized int consume(final ObservationHandler handler, final int maxRecords) throws JournalException
+        {
+            if (null == m_segment)
+            {
+                /* Seek to the segment holding the next record; records already handled are skipped below. */
+                moveTo(segmentFor(m_lastSequence));
+            }
+            int result = 0;
+            long last = m_lastSequence;
+            try
+            {
+                while (result < maxRecords)
+                {
+                    /* Check sealed before reading the end, since the end is only final once sealed. */
+                    final boolean sealed = m_segment.isSealed();
+                    final int end = m_segment.getEnd();
+                    final int length = m_position < end ? m_codec.read(m_view, m_position, end) : 0;
+                    if (length < 0)
+                    {
+                        throw new JournalException(String.format("Journal segment %s is corrupt at offset %d.",
+                                m_segment, m_position));
+                    }
+                    else if (0 < length)
+                    {
+                        final long sequence = m_codec.getSequence();
+                        if (sequence > last)
+                        {
+                            handler.handle(m_codec.decode());
+                            last = sequence;
+                            result++;
+                        }
+                        m_position += JournalRecordCodec.FRAME_BYTES + length;
+                    }
+                    else if (sealed && null != segmentAfter(m_segment))
+                    {
+                        moveTo(segmentAfter(m_segment));
+                    }
+                    else
+                    {
+                        break;
+                    }
+                }
+            }
+            finally
+            {
+                if (0 < result)
+                {
+                    flush(handler);
+                    m_lastSequence = last;
+                    writeOffset();
+                }
+            }
+            return result;
+        }
+
+        long getLastSequence()
+        {
+            return m_lastSequence;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%d", m_name, m_lastSequence);
+        }
+
+        /**
+         * Flush a handler which buffers the records delivered to it, before the position is persisted.
+         *
+         * @param handler the handler.
+         * @throws JournalException if the handler could not be flushed.
+         */
+        private void flush(final ObservationHandler handler) throws JournalException
+        {
+            if (handler instanceof Flushable)
+            {
+                try
+                {
+                    ((Flushable) handler).flush();
+                }
+                catch (final IOException | RuntimeException e)
+                {
+                    /* Seek back to the persisted position on the next read. */
+                    m_segment = null;
+                    throw new JournalException(String.format("An error of type %s occurred while attempting to " +
+                            "flush journal consumer [%s]: %s", e.getClass().getName(), m_name, e.getMessage()), e);
+                }
+            }
+        }
+
+        /**
+         * Position this cursor at the start of a segment.
+         *
+         * @param segment the segment.
+         */
+        private void moveTo(final JournalSegment segment)
+        {
+            m_segment = segment;
+            m_view = segment.view();
+            m_position = JournalSegment.HEADER_BYTES;
+        }
+
+        /**
+         * Persist this consumer's position, replacing the previous one atomically.
+         *
+         * @throws JournalException if the position could not be written.
+         */
+        private void writeOffset() throws JournalException
+        {
+            final File file = new File(m_directory, m_name + OFFSET_SUFFIX);
+            final File temporary = new File(m_directory, m_name + OFFSET_SUFFIX + ".tmp");
+            try
+            {
+                Files.write(temporary.toPath(), Long.toString(m_lastSequence).getBytes("US-ASCII"));
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (final IOException e)
+            {
+                throw new JournalException(String.format("An error of type %s occurred while attempting to write " +
+                        "the position of journal consumer [%s]: %s", e.getClass().getName(), m_name,
+                        e.getMessage()), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package waldo.impl.service.observation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.journal.ObservationJournal;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationWriter;
+
+import java.io.Flushable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ObservationDatabaseFeeder} writes newly journaled observations to the database through the
+ * {@link ObservationWriter}, as the {@value #CONSUMER} consumer of the {@link ObservationJournal}. Records are consumed
+ * in bounded batches, each written in one transaction before the consumer's position is advanced, so a batch which
+ * cannot be written (for example, while the database is unavailable) is delivered again on the next invocation, and
+ * holds back no other consumer.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active, as is the journal it reads.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class ObservationDatabaseFeeder
+{
+    /**
+     * Name under which this component's position in the journal is recorded.
+     */
+    static final String CONSUMER = "database";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ObservationJournal m_journal;
+    private final ObservationWriter m_writer;
+
+    /**
+     * Construct a {@link ObservationDatabaseFeeder} instance.
+     *
+     * @param journal the {@link ObservationJournal} component.
+     * @param writer the {@link ObservationWriter} component.
+     */
+    @Autowired
+    ObservationDatabaseFeeder(final ObservationJournal journal, final ObservationWriter writer)
+    {
+        super();
+        m_journal = journal;
+        m_writer = writer;
+    }
+
+    /**
+     * Write newly journaled observations to the database on a schedule; see {@link #feed()}.
+     */
+    @Scheduled(fixedDelayString = "${" + Constants.Database.WRITE_INTERVAL + "}")
+    void scheduledFeed()
+    {
+        feed();
+    }
+
+    /**
+     * Write all observations journaled since the last invocation to the database.
+     *
+     * @return {@code int} number of observations consumed.
+     */
+    int feed()
+    {
+        final Batch batch = new Batch();
+        int result = 0;
+        int consumed;
+        do
+        {
+            consumed = m_journal.consume(CONSUMER, batch, BATCH_SIZE);
+            result += consumed;
+        }
+        while (BATCH_SIZE == consumed);
+        return result;
+    }
+
+    /**
+     * {@link Batch} collects the records delivered by one {@link ObservationJournal#consume} call, and writes them
+     * when flushed by the journal.
+     */
+    private final class Batch implements ObservationHandler, Flushable
+    {
+        private final List<ObservationRecord> m_records = new ArrayList<>(BATCH_SIZE);
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void handle(final ObservationRecord record)
+        {
+            m_records.add(record);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void flush()
+        {
+            try
+            {
+                m_writer.write(m_records);
+            }
+            finally
+            {
+                m_records.clear();
+            }
+        }
+    }
+}
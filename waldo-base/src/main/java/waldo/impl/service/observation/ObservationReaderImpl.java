@@ -0,0 +1,298 @@
+package waldo.impl.service.observation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import waldo.Constants;
+import waldo.service.observation.ContinuationToken;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationReader;
+import waldo.service.observation.ObservationRecord;
+import waldo.utility.geo.BoundingBox;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * {@link ObservationReaderImpl} is the concrete implementation of the {@link ObservationReader} interface.
+ * <p>
+ * Every query runs within a read-only transaction, which both routes it to the read connection pool and allows the
+ * PostgreSQL driver to honor the statement fetch size: outside a transaction the driver reads the entire result into
+ * memory before returning the first row, whereas within one it fetches {@code waldo.database.fetch_size} rows at a time
+ * through a server-side cursor.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Repository
+class ObservationReaderImpl implements ObservationReader
+{
+    private static final String s_historySql = "SELECT " + ObservationRowMapper.COLUMNS + " FROM OBSERVATION o "
+            + "WHERE o.STATION = ? AND o.OBSERVED_AT >= ? AND o.OBSERVED_AT < ? ORDER BY o.OBSERVED_AT, o.ID";
+    private static final String s_regionPageSql = "SELECT " + ObservationRowMapper.COLUMNS + " FROM OBSERVATION o "
+            + "JOIN STATION s ON s.ICAO_ID = o.STATION WHERE s.LATITUDE BETWEEN ? AND ? AND s.LONGITUDE BETWEEN ? AND ? "
+            + "AND o.OBSERVED_AT >= ? AND o.OBSERVED_AT < ? AND (o.STATION, o.OBSERVED_AT, o.ID) > (?, ?, ?) "
+            + "ORDER BY o.STATION, o.OBSERVED_AT, o.ID LIMIT ?";
+    private static final String s_stationPageSql = "SELECT " + ObservationRowMapper.COLUMNS + " FROM OBSERVATION o "
+            + "WHERE o.STATION = ? AND o.OBSERVED_AT >= ? AND o.OBSERVED_AT < ? AND (o.OBSERVED_AT, o.ID) > (?, ?) "
+            + "ORDER BY o.OBSERVED_AT, o.ID LIMIT ?";
+    private static final String s_latestSql = "SELECT " + ObservationRowMapper.COLUMNS + " FROM OBSERVATION o "
+            + "WHERE o.STATION = ? ORDER BY o.OBSERVED_AT DESC, o.ID DESC LIMIT 1";
+
+    private final int m_fetchSize;
+    private final JdbcOperations m_jdbcOperations;
+
+    /**
+     * Construct a {@link ObservationReaderImpl} instance.
+     *
+     * @param jdbcOperations the {@link JdbcOperations} component.
+     * @param fetchSize the number of rows to fetch from the database at a time.
+     */
+    @Autowired
+    ObservationReaderImpl(final JdbcOperations jdbcOperations,
+                          @Value("${" + Constants.Database.FETCH_SIZE + "}") final int fetchSize)
+    {
+        super();
+        m_fetchSize = fetchSize;
+        m_jdbcOperations = jdbcOperations;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public ObservationRecord findLatest(final String station)
+    {
+        final List<ObservationRecord> records = m_jdbcOperations.query(new StatementCreator(s_latestSql, 1, station),
+                new ObservationRowMapper());
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public int readHistory(final String station, final long from, final long to, final ObservationHandler handler)
+    {
+        final StreamingCallback callback = new StreamingCallback(handler);
+        m_jdbcOperations.query(new StatementCreator(s_historySql, m_fetchSize, station, new Timestamp(from),
+                new Timestamp(to)), callback);
+        return callback.getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public ContinuationToken readStationHistory(final String station, final long from, final long to,
+                                                final ContinuationToken after, final int limit,
+                                                final ObservationHandler handler) throws IllegalArgumentException
+    {
+        /* The first page starts from a key which precedes every row in the range. */
+        final int query = ContinuationToken.fingerprint("station", station, from, to);
+        final ContinuationToken start = null == after ? new ContinuationToken(query, station, from, -1L) :
+                after.checkQuery(query);
+        final PagingCallback callback = new PagingCallback(query, limit, handler);
+        m_jdbcOperations.query(new StatementCreator(s_stationPageSql, Math.min(m_fetchSize, limit + 1), station,
+                new Timestamp(from), new Timestamp(to), new Timestamp(start.getObservedAt()), start.getId(),
+                limit + 1), callback);
+        return callback.getNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public ContinuationToken readRegionHistory(final BoundingBox region, final long from, final long to,
+                                               final ContinuationToken after, final int limit,
+                                               final ObservationHandler handler) throws IllegalArgumentException
+    {
+        /* The first page starts from a key which precedes every row in the range (the empty station identifier sorts
+        before all others.) */
+        final int query = ContinuationToken.fingerprint("region", region.getMinLatitude(), region.getMinLongitude(),
+                region.getMaxLatitude(), region.getMaxLongitude(), from, to);
+        final ContinuationToken start = null == after ? new ContinuationToken(query, "", from, -1L) :
+                after.checkQuery(query);
+        final PagingCallback callback = new PagingCallback(query, limit, handler);
+        m_jdbcOperations.query(new StatementCreator(s_regionPageSql, Math.min(m_fetchSize, limit + 1),
+                region.getMinLatitude(), region.getMaxLatitude(), region.getMinLongitude(), region.getMaxLongitude(),
+                new Timestamp(from), new Timestamp(to), start.getStation(), new Timestamp(start.getObservedAt()),
+                start.getId(), limit + 1), callback);
+        return callback.getNext();
+    }
+
+    /**
+     * {@link StatementCreator} prepares a forward-only, read-only statement with a given fetch size and positional
+     * parameters.
+     */
+    static final class StatementCreator implements PreparedStatementCreator, SqlProvider
+    {
+        private final int m_fetchSize;
+        private final Object[] m_parameters;
+        private final String m_sql;
+
+        /**
+         * Construct a {@link StatementCreator} instance.
+         *
+         * @param sql the SQL statement.
+         * @param fetchSize the number of rows to fetch at a time.
+         * @param parameters the positional parameter values.
+         */
+        StatementCreator(final String sql, final int fetchSize, final Object... parameters)
+        {
+            super();
+            m_fetchSize = fetchSize;
+            m_parameters = parameters;
+            m_sql = sql;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public PreparedStatement createPreparedStatement(final Connection connection) throws SQLException
+        {
+            final PreparedStatement result = connection.prepareStatement(m_sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            result.setFetchSize(m_fetchSize);
+            for (int i = 0; i < m_parameters.length; i++)
+            {
+                result.setObject(i + 1, m_parameters[i]);
+            }
+            return result;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getSql()
+        {
+            return m_sql;
+        }
+    }
+
+    /**
+     * {@link StreamingCallback} maps each row as it is read and passes it straight to an {@link ObservationHandler}.
+     */
+    static final class StreamingCallback implements RowCallbackHandler
+    {
+        private final ObservationHandler m_handler;
+        private final ObservationRowMapper m_mapper = new ObservationRowMapper();
+        private int m_count;
+
+        /**
+         * Construct a {@link StreamingCallback} instance.
+         *
+         * @param handler the handler which receives each record.
+         */
+        StreamingCallback(final ObservationHandler handler)
+        {
+            super();
+            m_handler = handler;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void processRow(final ResultSet resultSet) throws SQLException
+        {
+            m_handler.handle(m_mapper.mapRow(resultSet, m_count++));
+        }
+
+        /**
+         * Get the number of rows processed.
+         *
+         * @return {@code int} row count.
+         */
+        int getCount()
+        {
+            return m_count;
+        }
+    }
+
+    /**
+     * {@link PagingCallback} passes up to a page limit of rows to an {@link ObservationHandler} as they are read. The
+     * query selects one row more than the limit; if that row arrives, it is not passed on but indicates that another
+     * page follows, starting after the last row which was passed on.
+     */
+    static final class PagingCallback implements RowCallbackHandler
+    {
+        private final ObservationHandler m_handler;
+        private final int m_limit;
+        private final ObservationRowMapper m_mapper = new ObservationRowMapper();
+        private final int m_query;
+        private int m_count;
+        private ObservationRecord m_last;
+        private boolean m_more;
+
+        /**
+         * Construct a {@link PagingCallback} instance.
+         *
+         * @param query the fingerprint of the query.
+         * @param limit the page limit.
+         * @param handler the handler which receives each record.
+         */
+        PagingCallback(final int query, final int limit, final ObservationHandler handler)
+        {
+            super();
+            m_handler = handler;
+            m_limit = limit;
+            m_query = query;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void processRow(final ResultSet resultSet) throws SQLException
+        {
+            if (m_count < m_limit)
+            {
+                m_last = m_mapper.mapRow(resultSet, m_count++);
+                m_handler.handle(m_last);
+            }
+            else
+            {
+                m_more = true;
+            }
+        }
+
+        /**
+         * Get the token from which the next page may be read.
+         *
+         * @return {@link ContinuationToken} instance, or {@code null} if there are no more rows.
+         */
+        ContinuationToken getNext()
+        {
+            return m_more ? new ContinuationToken(m_query, m_last.getStation(), m_last.getObservedAt(),
+                    m_last.getId()) : null;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package waldo.impl.service.observation;
+
+import waldo.entity.FlightCategory;
+import waldo.entity.ReportType;
+import waldo.service.observation.ObservationRecord;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ObservationRecordLayout} reads and writes the fixed-size binary form of an {@link ObservationRecord} shared by
+ * store snapshots and the memory-mapped observation rings. A record is {@value #RECORD_BYTES} bytes:
+ * <pre>
+ * long   id
+ * long   observed at (milliseconds since the epoch)
+ * long   sky layers
+ * short  temperature, dewpoint, altimeter, sea level pressure, wind direction, wind speed, wind gust, visibility,
+ *        precipitation ({@link ObservationRecord#MISSING} if not reported)
+ * short  report type code
+ * short  flight category code, or -1 if none
+ * short  padding
+ * </pre>
+ * The station identifier is not included; it is held once for all of a station's records. Every element is at a
+ * fixed offset, so records are read and written in place with absolute buffer operations, and records may be read
+ * concurrently from a shared buffer.
+ * <p>
+ * <strong>Thread Safety:</strong> this class contains no mutable state and is therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+final class ObservationRecordLayout
+{
+    /**
+     * Size, in bytes, of a record.
+     */
+    static final int RECORD_BYTES = 48;
+
+    private static final FlightCategory.CodeConverter s_flightCategories = new FlightCategory.CodeConverter();
+    private static final ReportType.CodeConverter s_reportTypes = new ReportType.CodeConverter();
+
+    /**
+     * Construct a {@link ObservationRecordLayout} instance.
+     */
+    private ObservationRecordLayout()
+    {
+        super();
+    }
+
+    /**
+     * Write a record.
+     *
+     * @param buffer the buffer.
+     * @param position the position of the record.
+     * @param record the record.
+     */
+    static void write(final ByteBuffer buffer, final int position, final ObservationRecord record)
+    {
+        final FlightCategory flightCategory = record.getFlightCategory();
+        buffer.putLong(position, record.getId()).putLong(position + 8, record.getObservedAt())
+                .putLong(position + 16, record.getSkyLayers())
+                .putShort(position + 24, record.getTemperature()).putShort(position + 26, record.getDewpoint())
+                .putShort(position + 28, record.getAltimeter()).putShort(position + 30, record.getSeaLevelPressure())
+                .putShort(position + 32, record.getWindDirection()).putShort(position + 34, record.getWindSpeed())
+                .putShort(position + 36, record.getWindGust()).putShort(position + 38, record.getVisibility())
+                .putShort(position + 40, record.getPrecipitation())
+                .putShort(position + 42, record.getReportType().getCode())
+                .putShort(position + 44, null == flightCategory ? -1 : flightCategory.getCode())
+                .putShort(position + 46, (short) 0);
+    }
+
+    /**
+     * Read a record.
+     *
+     * @param buffer the buffer.
+     * @param position the position of the record.
+     * @param builder a builder, already reset and given the station identifier.
+     * @return {@link ObservationRecord} instance.
+     */
+    static ObservationRecord read(final ByteBuffer buffer, final int position, final ObservationRecord.Builder builder)
+    {
+        final short flightCategory = buffer.getShort(position + 44);
+        return builder.setId(buffer.getLong(position)).setObservedAt(getObservedAt(buffer, position))
+                .setSkyLayers(buffer.getLong(position + 16))
+                .setTemperature(buffer.getShort(position + 24)).setDewpoint(buffer.getShort(position + 26))
+                .setAltimeter(buffer.getShort(position + 28)).setSeaLevelPressure(buffer.getShort(position + 30))
+                .setWindDirection(buffer.getShort(position + 32)).setWindSpeed(buffer.getShort(position + 34))
+                .setWindGust(buffer.getShort(position + 36)).setVisibility(buffer.getShort(position + 38))
+                .setPrecipitation(buffer.getShort(position + 40))
+                .setReportType(s_reportTypes.convertToEntityAttribute(getReportTypeCode(buffer, position)))
+                .setFlightCategory(flightCategory < 0 ? null : s_flightCategories.convertToEntityAttribute(
+                        flightCategory)).toRecord();
+    }
+
+    /**
+     * Read the observation time of a record, without decoding the rest of it.
+     *
+     * @param buffer the buffer.
+     * @param position the position of the record.
+     * @return {@code long} observation time in milliseconds since the epoch.
+     */
+    static long getObservedAt(final ByteBuffer buffer, final int position)
+    {
+        return buffer.getLong(position + 8);
+    }
+
+    /**
+     * Read the report type code of a record, without decoding the rest of it.
+     *
+     * @param buffer the buffer.
+     * @param position the position of the record.
+     * @return {@code short} report type code.
+     */
+    static short getReportTypeCode(final ByteBuffer buffer, final int position)
+    {
+        return buffer.getShort(position + 42);
+    }
+
+    /**
+     * Copy a record within a buffer.
+     *
+     * @param buffer the buffer.
+     * @param from the position of the record to copy.
+     * @param to the position to which it is copied.
+     */
+    static void copy(final ByteBuffer buffer, final int from, final int to)
+    {
+        for (int offset = 0; offset < RECORD_BYTES; offset += 8)
+        {
+            buffer.putLong(to + offset, buffer.getLong(from + offset));
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package waldo.impl.service.observation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import waldo.service.observation.ObservationRecord;
+import waldo.utility.station.StationDictionary;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * {@link ObservationRingFile} holds the recent observations of many stations in a memory-mapped file, as one
+ * fixed-capacity ring of {@link ObservationRecordLayout} records per station. The file begins with a
+ * {@value #HEADER_BYTES}-byte header:
+ * <pre>
+ * int    magic number ({@code WRNG})
+ * short  format version
+ * short  record size
+ * int    ring capacity, in records
+ * int    slot count
+ * </pre>
+ * followed by the slots, each a {@value #SLOT_HEADER_BYTES}-byte slot header (station identifier, space padded to four
+ * ASCII characters, or zero if the slot is free; latitude and longitude in millionths of a degree, or
+ * {@link Integer#MIN_VALUE} if not located; index of the oldest record; record count) and then the ring itself. Slots
+ * are mapped in chunks as they are allocated, so the file grows with the number of stations; freed slots are reused.
+ * <p>
+ * The records of a ring are kept in ascending order of observation time. A record's slot header is updated after the
+ * record itself is written, so a process crash loses at most the record being added. Contents reach storage when the
+ * operating system writes back the mapped pages, and in any case when the file is closed; an existing file is
+ * recovered when opened, unless its format or capacity differs, in which case it is cleared.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access provided access to each
+ * slot is serialized by the caller. Allocating and freeing slots is synchronized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+final class ObservationRingFile implements Closeable
+{
+    /**
+     * Size of the file header.
+     */
+    static final int HEADER_BYTES = 32;
+
+    /**
+     * Size of the header of each slot.
+     */
+    static final int SLOT_HEADER_BYTES = 32;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ObservationRingFile.class);
+
+    private static final int MAGIC = 0x57524e47;
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+    private static final int MAX_CHUNK_SLOTS = 1024;
+    private static final int RECORD_BYTES = ObservationRecordLayout.RECORD_BYTES;
+    private static final int UNLOCATED = Integer.MIN_VALUE;
+    private static final short VERSION = 1;
+
+    private static final StationDictionary s_stations = StationDictionary.getInstance();
+
+    private final int m_capacity;
+    private final int m_chunkSlots;
+    private volatile MappedByteBuffer[] m_chunks;
+    private File m_file;
+    private final Deque<Integer> m_free = new ArrayDeque<>();
+    private final MappedByteBuffer m_header;
+    private final RandomAccessFile m_randomAccessFile;
+    private final int m_slotBytes;
+    private int m_slots;
+    private final boolean m_temporary;
+
+    /**
+     * Construct a {@link ObservationRingFile} instance, recovering or initializing the file.
+     *
+     * @param file the file.
+     * @param randomAccessFile the open file.
+     * @param capacity the capacity of each ring, in records.
+     * @param temporary whether the file is deleted when closed.
+     * @throws IOException if the file could not be read or mapped.
+     */
+    private ObservationRingFile(final File file, final RandomAccessFile randomAccessFile, final int capacity,
+                                final boolean temporary) throws IOException
+    {
+        super();
+        m_capacity = capacity;
+        m_file = file;
+        m_randomAccessFile = randomAccessFile;
+        m_slotBytes = SLOT_HEADER_BYTES + capacity * RECORD_BYTES;
+        m_chunkSlots = Math.max(1, Math.min(MAX_CHUNK_SLOTS, MAX_CHUNK_BYTES / m_slotBytes));
+        m_temporary = temporary;
+
+        final FileChannel channel = randomAccessFile.getChannel();
+        final long length = channel.size();
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_BYTES);
+        final int slots = header.getInt(12);
+        if (length < HEADER_BYTES || MAGIC != header.getInt(0) || VERSION != header.getShort(4) ||
+                RECORD_BYTES != header.getShort(6) || capacity != header.getInt(8) || slots < 0 ||
+                length < HEADER_BYTES + chunksFor(slots) * (long) m_chunkSlots * m_slotBytes)
+        {
+            if (length > 0L)
+            {
+                LOG.warn("Clearing observation ring file {}, which has a different format or capacity.", file);
+                randomAccessFile.setLength(0L);
+                header = channel.map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_BYTES);
+            }
+            header.putInt(0, MAGIC).putShort(4, VERSION).putShort(6, (short) RECORD_BYTES).putInt(8, capacity)
+                    .putInt(12, 0);
+            m_slots = 0;
+        }
+        else
+        {
+            m_slots = slots;
+        }
+        m_header = header;
+
+        final MappedByteBuffer[] chunks = new MappedByteBuffer[chunksFor(m_slots)];
+        for (int i = 0; i < chunks.length; i++)
+        {
+            chunks[i] = mapChunk(i);
+        }
+        m_chunks = chunks;
+        for (int slot = m_slots - 1; slot >= 0; slot--)
+        {
+            if (0 == chunk(slot).getInt(base(slot)))
+            {
+                m_free.push(slot);
+            }
+        }
+    }
+
+    /**
+     * Open a ring file, recovering its contents if it exists and creating it otherwise.
+     *
+     * @param file the file.
+     * @param capacity the capacity of each ring, in records.
+     * @return {@link ObservationRingFile} instance.
+     * @throws IOException if the file could not be opened.
+     */
+    static ObservationRingFile open(final File file, final int capacity) throws IOException
+    {
+        final File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException(String.format("Directory %s could not be created.", directory));
+        }
+        return open(file, capacity, false);
+    }
+
+    /**
+     * Create an empty ring file, replacing any existing file.
+     *
+     * @param file the file.
+     * @param capacity the capacity of each ring, in records.
+     * @return {@link ObservationRingFile} instance.
+     * @throws IOException if the file could not be created.
+     */
+    static ObservationRingFile create(final File file, final int capacity) throws IOException
+    {
+        Files.deleteIfExists(file.toPath());
+        return open(file, capacity);
+    }
+
+    /**
+     * Create an empty ring file in the default temporary directory, which is deleted when closed.
+     *
+     * @param capacity the capacity of each ring, in records.
+     * @return {@link ObservationRingFile} instance.
+     * @throws IOException if the file could not be created.
+     */
+    static ObservationRingFile createTemporary(final int capacity) throws IOException
+    {
+        final File file = File.createTempFile("waldo", ".rings");
+        file.deleteOnExit();
+        return open(file, capacity, true);
+    }
+
+    /**
+     * Visit every allocated slot.
+     *
+     * @param visitor the visitor.
+     */
+    synchronized void recover(final SlotVisitor visitor)
+    {
+        for (int slot = 0; slot < m_slots; slot++)
+        {
+            final ByteBuffer buffer = chunk(slot);
+            final int base = base(slot);
+            final int station = buffer.getInt(base);
+            if (0 != station)
+            {
+                visitor.visit(slot, s_stations.getIdentifier(s_stations.internCode(station)),
+                        buffer.getInt(base + 4), buffer.getInt(base + 8));
+            }
+        }
+    }
+
+    /**
+     * Allocate an empty, unlocated slot to a station.
+     *
+     * @param station the station identifier.
+     * @return {@code int} slot number.
+     * @throws IllegalArgumentException if the station identifier is not one to four printable ASCII characters.
+     * @throws IOException if the file could not be extended.
+     */
+    synchronized int allocate(final String station) throws IllegalArgumentException, IOException
+    {
+        final int identifier = StationDictionary.encode(station);
+
+        final int result;
+        if (m_free.isEmpty())
+        {
+            result = m_slots;
+            final int chunk = result / m_chunkSlots;
+            if (chunk == m_chunks.length)
+            {
+                final MappedByteBuffer[] chunks = Arrays.copyOf(m_chunks, chunk + 1);
+                chunks[chunk] = mapChunk(chunk);
+                m_chunks = chunks;
+            }
+            m_slots = result + 1;
+            m_header.putInt(12, m_slots);
+        }
+        else
+        {
+            result = m_free.pop();
+        }
+        final int base = base(result);
+        chunk(result).putInt(base + 4, UNLOCATED).putInt(base + 8, UNLOCATED).putInt(base + 12, 0)
+                .putInt(base + 16, 0).putInt(base, identifier);
+        return result;
+    }
+
+    /**
+     * Free a slot, discarding its records.
+     *
+     * @param slot the slot number.
+     */
+    synchronized void free(final int slot)
+    {
+        final int base = base(slot);
+        chunk(slot).putInt(base, 0).putInt(base + 16, 0);
+        m_free.push(slot);
+    }
+
+    /**
+     * Record the position of the station to which a slot is allocated.
+     *
+     * @param slot the slot number.
+     * @param latitude the latitude in millionths of a degree.
+     * @param longitude the longitude in millionths of a degree.
+     */
+    void setLocation(final int slot, final int latitude, final int longitude)
+    {
+        final int base = base(slot);
+        chunk(slot).putInt(base + 4, latitude).putInt(base + 8, longitude);
+    }
+
+    /**
+     * Get the number of records held in a slot.
+     *
+     * @param slot the slot number.
+     * @return {@code int} record count.
+     */
+    int size(final int slot)
+    {
+        return chunk(slot).getInt(base(slot) + 16);
+    }
+
+    /**
+     * Read a record from a slot.
+     *
+     * @param slot the slot number.
+     * @param index the index of the record, from {@code 0} (the oldest) to one less than {@link #size(int)}.
+     * @param builder a builder, already reset and given the station identifier.
+     * @return {@link ObservationRecord} instance.
+     */
+    ObservationRecord read(final int slot, final int index, final ObservationRecord.Builder builder)
+    {
+        final ByteBuffer buffer = chunk(slot);
+        final int base = base(slot);
+        return ObservationRecordLayout.read(buffer, position(base, buffer.getInt(base + 12), index), builder);
+    }
+
+    /**
+     * Add a record to a slot, superseding any held record with the same observation time and report type, then drop
+     * records which have fallen out of the retention period. If the ring is full, the oldest record makes way for the
+     * new one; a record older than every record in a full ring is ignored.
+     *
+     * @param slot the slot number.
+     * @param record the record.
+     * @param retention the period, in milliseconds, for which records are retained behind the latest.
+     */
+    void put(final int slot, final ObservationRecord record, final long retention)
+    {
+        final ByteBuffer buffer = chunk(slot);
+        final int base = base(slot);
+        int head = buffer.getInt(base + 12);
+        int count = buffer.getInt(base + 16);
+        final long observedAt = record.getObservedAt();
+        int index = count;
+        while (index > 0 && getObservedAt(buffer, base, head, index - 1) > observedAt)
+        {
+            index--;
+        }
+
+        /* Replace a superseded record (same time and type), otherwise insert in order. */
+        final short reportType = record.getReportType().getCode();
+        int superseded = -1;
+        for (int i = index - 1; i >= 0 && getObservedAt(buffer, base, head, i) == observedAt; i--)
+        {
+            if (ObservationRecordLayout.getReportTypeCode(buffer, position(base, head, i)) == reportType)
+            {
+                superseded = i;
+            }
+        }
+        if (superseded >= 0)
+        {
+            ObservationRecordLayout.write(buffer, position(base, head, superseded), record);
+        }
+        else if (count < m_capacity || index > 0)
+        {
+            if (count == m_capacity)
+            {
+                head = (head + 1) % m_capacity;
+                count--;
+                index--;
+            }
+            for (int i = count; i > index; i--)
+            {
+                ObservationRecordLayout.copy(buffer, position(base, head, i - 1), position(base, head, i));
+            }
+            ObservationRecordLayout.write(buffer, position(base, head, index), record);
+            count++;
+        }
+
+        /* Drop history which has fallen out of the retention period. */
+        final long cutoff = getObservedAt(buffer, base, head, count - 1) - retention;
+        int expired = 0;
+        while (expired < count && getObservedAt(buffer, base, head, expired) < cutoff)
+        {
+            expired++;
+        }
+        buffer.putInt(base + 12, (head + expired) % m_capacity).putInt(base + 16, count - expired);
+    }
+
+    /**
+     * Move the file, for example over an earlier ring file which this one replaces. The mapped contents are unaffected.
+     *
+     * @param file the new location.
+     * @throws IOException if the file could not be moved.
+     */
+    synchronized void moveTo(final File file) throws IOException
+    {
+        Files.move(m_file.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        m_file = file;
+    }
+
+    /**
+     * Force the contents to storage and close the file, deleting it if it is temporary. The mapped contents remain
+     * readable, but no further slots can be allocated.
+     *
+     * @throws IOException if the file could not be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        m_header.force();
+        for (final MappedByteBuffer chunk : m_chunks)
+        {
+            chunk.force();
+        }
+        m_randomAccessFile.close();
+        if (m_temporary)
+        {
+            Files.deleteIfExists(m_file.toPath());
+        }
+    }
+
+    synchronized File getFile()
+    {
+        return m_file;
+    }
+
+    int getCapacity()
+    {
+        return m_capacity;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String toString()
+    {
+        return String.format("%s[%s, capacity %d, %d slot(s), %d free]", getClass().getSimpleName(), m_file,
+                m_capacity, m_slots, m_free.size());
+    }
+
+    /**
+     * Open a ring file.
+     *
+     * @param file the file.
+     * @param capacity the capacity of each ring, in records.
+     * @param temporary whether the file is deleted when closed.
+     * @return {@link ObservationRingFile} instance.
+     * @throws IllegalArgumentException if the capacity is not positive, or a slot would exceed the maximum chunk size.
+     * @throws IOException if the file could not be opened.
+     */
+    private static ObservationRingFile open(final File file, final int capacity, final boolean temporary)
+            throws IllegalArgumentException, IOException
+    {
+        if (capacity < 1 || capacity > (MAX_CHUNK_BYTES - SLOT_HEADER_BYTES) / RECORD_BYTES)
+        {
+            throw new IllegalArgumentException(String.format("Ring capacity %d is out of range.", capacity));
+        }
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        final ObservationRingFile result;
+        try
+        {
+            result = new ObservationRingFile(file, randomAccessFile, capacity, temporary);
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            randomAccessFile.close();
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Map a chunk of slots, extending the file if necessary.
+     *
+     * @param chunk the chunk number.
+     * @return {@link MappedByteBuffer} instance.
+     * @throws IOException if the chunk could not be mapped.
+     */
+    private MappedByteBuffer mapChunk(final int chunk) throws IOException
+    {
+        final long chunkBytes = (long) m_chunkSlots * m_slotBytes;
+        return m_randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + chunk * chunkBytes,
+                chunkBytes);
+    }
+
+    private int chunksFor(final int slots)
+    {
+        return (slots + m_chunkSlots - 1) / m_chunkSlots;
+    }
+
+    private ByteBuffer chunk(final int slot)
+    {
+        return m_chunks[slot / m_chunkSlots];
+    }
+
+    private int base(final int slot)
+    {
+        return slot % m_chunkSlots * m_slotBytes;
+    }
+
+    /**
+     * Get the position of a record within its chunk.
+     *
+     * @param base the position of the slot.
+     * @param head the index of the oldest record in the ring.
+     * @param index the index of the record, from {@code 0} (the oldest.)
+     * @return {@code int} position.
+     */
+    private int position(final int base, final int head, final int index)
+    {
+        return base + SLOT_HEADER_BYTES + (head + index) % m_capacity * RECORD_BYTES;
+    }
+
+    private long getObservedAt(final ByteBuffer buffer, final int base, final int head, final int index)
+    {
+        return ObservationRecordLayout.getObservedAt(buffer, position(base, head, index));
+    }
+
+    /**
+     * {@link SlotVisitor} is the callback through which {@link #recover(SlotVisitor)} reports allocated slots.
+     */
+    interface SlotVisitor
+    {
+        /**
+         * Visit an allocated slot.
+         *
+         * @param slot the slot number.
+         * @param station the station identifier.
+         * @param latitude the latitude in millionths of a degree, or {@link Integer#MIN_VALUE} if not located.
+         * @param longitude the longitude in millionths of a degree, or {@link Integer#MIN_VALUE} if not located.
+         */
+        void visit(int slot, String station, int latitude, int longitude);
+    }
+}
@@ -0,0 +1,105 @@
+package waldo.impl.service.observation;
+
+import org.springframework.jdbc.core.RowMapper;
+import waldo.entity.FlightCategory;
+import waldo.entity.ReportType;
+import waldo.service.observation.ObservationRecord;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link ObservationRowMapper} maps rows selected with {@link #COLUMNS} to {@link ObservationRecord}s. Columns are read
+ * by position, which is fixed by {@link #COLUMNS}, so no per-row column name resolution takes place; and coded values
+ * are resolved through the same lookup tables used by the JPA mapping.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access, as
+ * each reuses a single {@link ObservationRecord.Builder}. Create one instance per query.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+class ObservationRowMapper implements RowMapper<ObservationRecord>
+{
+    /**
+     * Select list which must be used by every query whose rows are mapped by this class, qualified by the table alias
+     * {@code o}.
+     */
+    static final String COLUMNS = "o.ID, o.STATION, o.OBSERVED_AT, o.REPORT_TYPE, o.TEMPERATURE, o.DEWPOINT, "
+            + "o.ALTIMETER, o.SEA_LEVEL_PRESSURE, o.WIND_DIRECTION, o.WIND_SPEED, o.WIND_GUST, o.VISIBILITY, "
+            + "o.PRECIPITATION, o.SKY_LAYERS, o.FLIGHT_CATEGORY";
+
+    private static final FlightCategory.CodeConverter s_flightCategories = new FlightCategory.CodeConverter();
+    private static final ReportType.CodeConverter s_reportTypes = new ReportType.CodeConverter();
+
+    private final ObservationRecord.Builder m_builder = new ObservationRecord.Builder();
+
+    /**
+     * Construct a {@link ObservationRowMapper} instance.
+     */
+    ObservationRowMapper()
+    {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObservationRecord mapRow(final ResultSet resultSet, final int rowNumber) throws SQLException
+    {
+        return m_builder.reset()
+                .setId(resultSet.getLong(1))
+                .setStation(resultSet.getString(2))
+                .setObservedAt(resultSet.getTimestamp(3).getTime())
+                .setReportType(s_reportTypes.convertToEntityAttribute(resultSet.getShort(4)))
+                .setTemperature(getShort(resultSet, 5))
+                .setDewpoint(getShort(resultSet, 6))
+                .setAltimeter(getShort(resultSet, 7))
+                .setSeaLevelPressure(getShort(resultSet, 8))
+                .setWindDirection(getShort(resultSet, 9))
+                .setWindSpeed(getShort(resultSet, 10))
+                .setWindGust(getShort(resultSet, 11))
+                .setVisibility(getShort(resultSet, 12))
+                .setPrecipitation(getShort(resultSet, 13))
+                .setSkyLayers(resultSet.getLong(14))
+                .setFlightCategory(getFlightCategory(resultSet, 15))
+                .toRecord();
+    }
+
+    /**
+     * Read a nullable {@code SMALLINT} column.
+     *
+     * @param resultSet the result set.
+     * @param column the column position.
+     * @return {@code short} value, or {@link ObservationRecord#MISSING} if the column is null.
+     * @throws SQLException if an error occurs reading the column.
+     */
+    private static short getShort(final ResultSet resultSet, final int column) throws SQLException
+    {
+        final short value = resultSet.getShort(column);
+        return resultSet.wasNull() ? ObservationRecord.MISSING : value;
+    }
+
+    /**
+     * Read the nullable flight category column.
+     *
+     * @param resultSet the result set.
+     * @param column the column position.
+     * @return {@link FlightCategory} value, or {@code null} if the column is null.
+     * @throws SQLException if an error occurs reading the column.
+     */
+    private static FlightCategory getFlightCategory(final ResultSet resultSet, final int column) throws SQLException
+    {
+        final short code = resultSet.getShort(column);
+        return resultSet.wasNull() ? null : s_flightCategories.convertToEntityAttribute(code);
+    }
+}
@@ -0,0 +1,486 @@
+package waldo.impl.service.observation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationSeries;
+import waldo.service.observation.SeriesAggregate;
+import waldo.utility.station.StationDictionary;
+import waldo.utility.station.StationTable;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * {@link ObservationSeriesImpl} is the concrete implementation of the {@link ObservationSeries} interface. Each
+ * station's series is a sequence of sealed {@link SeriesChunk}s followed by an open chunk of up to
+ * {@value #CHUNK_RECORDS} uncompressed observations, which is where records arrive; when the open chunk fills it is
+ * sealed. Records may arrive out of order within the open chunk, so a record is only ignored if it is older than the
+ * last sealed chunk.
+ * <p>
+ * Reads copy references to the chunks overlapping the range while holding the station's lock, and decode them after
+ * releasing it; a chunk entirely within the range decodes straight into the result.
+ * <p>
+ * Aggregation decodes only the requested element. Because times are in ascending order, each bucket covers a
+ * contiguous run of a chunk, whose reported values are gathered by a branch-free loop; each bucket's values are then
+ * sorted, so that any percentile can be read from the result. Sets of more than {@value #STATIONS_PER_TASK} stations
+ * are split across a fork/join pool, and the sorted buckets of each half merged.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Access to each station's
+ * series is serialized independently.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+class ObservationSeriesImpl implements ObservationSeries
+{
+    /**
+     * Number of observations in each sealed chunk.
+     */
+    static final int CHUNK_RECORDS = 256;
+
+    /**
+     * Maximum number of buckets in an aggregate.
+     */
+    static final int MAX_BUCKETS = 10000;
+
+    private static final int STATIONS_PER_TASK = 16;
+
+    private static final short[] s_empty = new short[0];
+    private static final Element[] s_elements = Element.values();
+    private static final StationDictionary s_stations = StationDictionary.getInstance();
+
+    private final ForkJoinPool m_pool = new ForkJoinPool();
+    private final long m_retention;
+    private final StationTable<StationSeries> m_stations = new StationTable<>();
+
+    /**
+     * Construct a {@link ObservationSeriesImpl} instance.
+     *
+     * @param retention the period, in milliseconds, for which history is retained behind each station's latest
+     * observation.
+     */
+    @Autowired
+    ObservationSeriesImpl(@Value("${" + Constants.History.SERIES_RETENTION + "}") final long retention)
+    {
+        super();
+        m_retention = retention;
+    }
+
+    /**
+     * Shut down the aggregation pool.
+     */
+    @PreDestroy
+    void close()
+    {
+        m_pool.shutdown();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean append(final ObservationRecord record)
+    {
+        final int id = s_stations.intern(record.getStation());
+        StationSeries series = m_stations.get(id);
+        if (null == series)
+        {
+            final StationSeries created = new StationSeries();
+            series = m_stations.putIfAbsent(id, created);
+            if (null == series)
+            {
+                series = created;
+            }
+        }
+        final boolean result;
+        synchronized (series)
+        {
+            result = series.append(record, m_retention);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Range read(final String station, final long from, final long to)
+    {
+        return decode(getChunks(station, from, to), from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SeriesAggregate aggregate(final Collection<String> stations, final Element element, final long from,
+                                     final long to, final long interval) throws IllegalArgumentException
+    {
+        if (from >= to || interval <= 0L || (to - from - 1L) / interval >= MAX_BUCKETS)
+        {
+            throw new IllegalArgumentException(String.format("Time range [%d, %d) in buckets of %d ms is empty or " +
+                    "has more than %d buckets.", from, to, interval, MAX_BUCKETS));
+        }
+        final int buckets = (int) ((to - from - 1L) / interval + 1L);
+        final List<String> list = new ArrayList<>(stations);
+        return new SeriesAggregate(from, interval, m_pool.invoke(new AggregateTask(list, 0, list.size(),
+                element.ordinal(), from, to, interval, buckets)));
+    }
+
+    /**
+     * Get the chunks of a station's series which overlap a time range.
+     *
+     * @param station the station identifier.
+     * @param from the start of the range (inclusive).
+     * @param to the end of the range (exclusive).
+     * @return {@link List} of chunks, in ascending order of time.
+     */
+    private List<SeriesChunk> getChunks(final String station, final long from, final long to)
+    {
+        final StationSeries series = m_stations.get(s_stations.find(station));
+        final List<SeriesChunk> result = new ArrayList<>();
+        if (null != series)
+        {
+            synchronized (series)
+            {
+                for (final SeriesChunk chunk : series.m_sealed)
+                {
+                    if (chunk.getLastTime() >= from && chunk.getFirstTime() < to)
+                    {
+                        result.add(chunk);
+                    }
+                }
+                if (series.m_count > 0 && series.m_times[series.m_count - 1] >= from && series.m_times[0] < to)
+                {
+                    /* Encoding the open chunk is cheap, and leaves a single decoding path. */
+                    result.add(SeriesChunk.encode(series.m_times, series.m_values, series.m_count));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode the parts of a sequence of chunks within a time range.
+     *
+     * @param chunks the chunks, in ascending order of time.
+     * @param from the start of the range (inclusive).
+     * @param to the end of the range (exclusive).
+     * @return {@link Range} instance.
+     */
+    private static Range decode(final List<SeriesChunk> chunks, final long from, final long to)
+    {
+        /* Decode the times of each chunk to find the part of it within the range. */
+        final long[][] times = new long[chunks.size()][];
+        final int[] starts = new int[chunks.size()];
+        final int[] ends = new int[chunks.size()];
+        int size = 0;
+        for (int i = 0; i < times.length; i++)
+        {
+            final SeriesChunk chunk = chunks.get(i);
+            times[i] = new long[chunk.getCount()];
+            chunk.decodeTimes(times[i], 0);
+            starts[i] = search(times[i], times[i].length, from);
+            ends[i] = search(times[i], times[i].length, to);
+            size += ends[i] - starts[i];
+        }
+
+        final long[] resultTimes = new long[size];
+        final short[][] resultValues = new short[s_elements.length][size];
+        final short[] scratch = new short[CHUNK_RECORDS];
+        int position = 0;
+        for (int i = 0; i < times.length; i++)
+        {
+            final SeriesChunk chunk = chunks.get(i);
+            final int length = ends[i] - starts[i];
+            System.arraycopy(times[i], starts[i], resultTimes, position, length);
+            for (int e = 0; e < s_elements.length; e++)
+            {
+                if (length == chunk.getCount())
+                {
+                    chunk.decode(e, resultValues[e], position);
+                }
+                else if (length > 0)
+                {
+                    chunk.decode(e, scratch, 0);
+                    System.arraycopy(scratch, starts[i], resultValues[e], position, length);
+                }
+            }
+            position += length;
+        }
+        return new Range(resultTimes, resultValues);
+    }
+
+    /**
+     * Find the index of the first time which is not before a given time.
+     *
+     * @param times the times, in ascending order.
+     * @param length the number of times.
+     * @param time the time.
+     * @return {@code int} index, which is {@code length} if every time is before {@code time}.
+     */
+    private static int search(final long[] times, final int length, final long time)
+    {
+        int low = 0;
+        int high = length;
+        while (low < high)
+        {
+            final int middle = (low + high) >>> 1;
+            if (times[middle] < time)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Merge the sorted values of each bucket of two aggregates.
+     *
+     * @param left the values of each bucket of one aggregate.
+     * @param right the values of each bucket of the other.
+     * @return {@code short[][]} merged values of each bucket.
+     */
+    private static short[][] merge(final short[][] left, final short[][] right)
+    {
+        final short[][] result = new short[left.length][];
+        for (int bucket = 0; bucket < result.length; bucket++)
+        {
+            final short[] a = left[bucket];
+            final short[] b = right[bucket];
+            final short[] merged = new short[a.length + b.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < a.length && j < b.length)
+            {
+                merged[k++] = a[i] <= b[j] ? a[i++] : b[j++];
+            }
+            System.arraycopy(a, i, merged, k, a.length - i);
+            System.arraycopy(b, j, merged, k + a.length - i, b.length - j);
+            result[bucket] = merged;
+        }
+        return result;
+    }
+
+    /**
+     * {@link AggregateTask} aggregates one element of the series of a range of stations, splitting the range in two
+     * until it is small enough to aggregate directly.
+     */
+    private final class AggregateTask extends RecursiveTask<short[][]>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int m_buckets;
+        private final int m_element;
+        private final int m_end;
+        private final long m_from;
+        private final long m_interval;
+        private final int m_start;
+        private final List<String> m_stationList;
+        private final long m_to;
+
+        /**
+         * Construct a {@link AggregateTask} instance.
+         *
+         * @param stations the station identifiers.
+         * @param start the index of the first station to aggregate.
+         * @param end the index after the last station to aggregate.
+         * @param element the element ordinal.
+         * @param from the start of the first bucket (inclusive).
+         * @param to the end of the range (exclusive).
+         * @param interval the length of each bucket.
+         * @param buckets the number of buckets.
+         */
+        private AggregateTask(final List<String> stations, final int start, final int end, final int element,
+                              final long from, final long to, final long interval, final int buckets)
+        {
+            super();
+            m_buckets = buckets;
+            m_element = element;
+            m_end = end;
+            m_from = from;
+            m_interval = interval;
+            m_start = start;
+            m_stationList = stations;
+            m_to = to;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected short[][] compute()
+        {
+            short[][] result;
+            if (m_end - m_start <= STATIONS_PER_TASK)
+            {
+                result = new short[m_buckets][];
+                Arrays.fill(result, s_empty);
+                for (final String station : m_stationList.subList(m_start, m_end))
+                {
+                    result = merge(result, aggregate(station));
+                }
+            }
+            else
+            {
+                final int middle = (m_start + m_end) >>> 1;
+                final AggregateTask left = new AggregateTask(m_stationList, m_start, middle, m_element, m_from, m_to,
+                        m_interval, m_buckets);
+                left.fork();
+                final short[][] right = new AggregateTask(m_stationList, middle, m_end, m_element, m_from, m_to,
+                        m_interval, m_buckets).compute();
+                result = merge(left.join(), right);
+            }
+            return result;
+        }
+
+        /**
+         * Aggregate one station.
+         *
+         * @param station the station identifier.
+         * @return {@code short[][]} sorted values of each bucket.
+         */
+        private short[][] aggregate(final String station)
+        {
+            final short[][] result = new short[m_buckets][];
+            final int[] sizes = new int[m_buckets];
+            final long[] times = new long[CHUNK_RECORDS];
+            final short[] values = new short[CHUNK_RECORDS];
+            for (final SeriesChunk chunk : getChunks(station, m_from, m_to))
+            {
+                final int count = chunk.getCount();
+                chunk.decodeTimes(times, 0);
+                chunk.decode(m_element, values, 0);
+                int start = search(times, count, m_from);
+                final int end = search(times, count, m_to);
+                while (start < end)
+                {
+                    /* Gather the reported values of the run of this chunk within one bucket. */
+                    final int bucket = (int) ((times[start] - m_from) / m_interval);
+                    final int limit = Math.min(end, search(times, count, m_from + (bucket + 1L) * m_interval));
+                    int size = sizes[bucket];
+                    final int capacity = size + limit - start;
+                    short[] target = result[bucket];
+                    if (null == target || target.length < capacity)
+                    {
+                        target = Arrays.copyOf(null == target ? s_empty : target, Math.max(capacity, size * 2));
+                        result[bucket] = target;
+                    }
+                    for (int i = start; i < limit; i++)
+                    {
+                        final short value = values[i];
+                        target[size] = value;
+                        size += ObservationRecord.MISSING == value ? 0 : 1;
+                    }
+                    sizes[bucket] = size;
+                    start = limit;
+                }
+            }
+            for (int bucket = 0; bucket < m_buckets; bucket++)
+            {
+                result[bucket] = null == result[bucket] ? s_empty : Arrays.copyOf(result[bucket], sizes[bucket]);
+                Arrays.sort(result[bucket]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * {@link StationSeries} is the series of one station. All access is synchronized on the instance.
+     */
+    private static final class StationSeries
+    {
+        private int m_count;
+        private final Deque<SeriesChunk> m_sealed = new ArrayDeque<>();
+        private final long[] m_times = new long[CHUNK_RECORDS];
+        private final short[][] m_values = new short[s_elements.length][CHUNK_RECORDS];
+
+        /**
+         * Add a record to the open chunk, sealing it if it is then full, and drop sealed chunks which have fallen out
+         * of the retention period.
+         *
+         * @param record the record.
+         * @param retention the retention period.
+         * @return {@code true} if the record was added.
+         */
+        private boolean append(final ObservationRecord record, final long retention)
+        {
+            final long time = record.getObservedAt();
+            final boolean result = m_sealed.isEmpty() || time > m_sealed.peekLast().getLastTime();
+            if (result)
+            {
+                int index = m_count;
+                while (index > 0 && m_times[index - 1] > time)
+                {
+                    index--;
+                }
+                if (index > 0 && m_times[index - 1] == time)
+                {
+                    set(index - 1, record);
+                }
+                else
+                {
+                    System.arraycopy(m_times, index, m_times, index + 1, m_count - index);
+                    for (final short[] values : m_values)
+                    {
+                        System.arraycopy(values, index, values, index + 1, m_count - index);
+                    }
+                    set(index, record);
+                    m_count++;
+                    if (CHUNK_RECORDS == m_count)
+                    {
+                        m_sealed.addLast(SeriesChunk.encode(m_times, m_values, m_count));
+                        m_count = 0;
+                    }
+                }
+
+                /* Drop sealed chunks which have fallen out of the retention period. */
+                final long latest = 0 == m_count ? m_sealed.peekLast().getLastTime() : m_times[m_count - 1];
+                while (!m_sealed.isEmpty() && m_sealed.peekFirst().getLastTime() < latest - retention)
+                {
+                    m_sealed.removeFirst();
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Set the observation at a position in the open chunk.
+         *
+         * @param index the position.
+         * @param record the record.
+         */
+        private void set(final int index, final ObservationRecord record)
+        {
+            m_times[index] = record.getObservedAt();
+            for (int e = 0; e < s_elements.length; e++)
+            {
+                m_values[e][index] = s_elements[e].getValue(record);
+            }
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package waldo.impl.service.observation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import waldo.Constants;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationSnapshotter;
+import waldo.service.observation.ObservationStore;
+import waldo.service.observation.SnapshotException;
+import waldo.utility.station.StationDictionary;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * {@link ObservationSnapshotterImpl} is the concrete implementation of the {@link ObservationSnapshotter} interface.
+ * A snapshot file is a {@value #HEADER_BYTES}-byte header:
+ * <pre>
+ * int    magic number ({@code WSNP})
+ * short  format version
+ * short  record size
+ * long   creation time (milliseconds since the epoch)
+ * int    station count
+ * int    record count
+ * int    CRC-32 of the body
+ * int    CRC-32 of the preceding header bytes
+ * </pre>
+ * followed by a body of one block per station: a {@value #STATION_BYTES}-byte entry (identifier, space padded to four
+ * ASCII characters; latitude and longitude in millionths of a degree, or {@link Integer#MIN_VALUE} if not located;
+ * record count) then that many records in the {@link ObservationRecordLayout} form. Every element is at a computable
+ * offset, so the file is read through a read-only mapping with no parsing beyond decoding
+ * each record.
+ * <p>
+ * A snapshot is written to a temporary file which is then moved over the previous one, so a crash mid-save leaves the
+ * previous snapshot intact. It is restored when this component is created, which happens in the root application
+ * context before the web tier begins accepting requests.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Saves are serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+class ObservationSnapshotterImpl implements ObservationSnapshotter
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ObservationSnapshotterImpl.class);
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int HEADER_BYTES = 32;
+    private static final int MAGIC = 0x57534e50;
+    private static final int RECORD_BYTES = ObservationRecordLayout.RECORD_BYTES;
+    private static final int STATION_BYTES = 16;
+    private static final int UNLOCATED = Integer.MIN_VALUE;
+    private static final short VERSION = 1;
+
+    private static final Charset s_ascii = Charset.forName("US-ASCII");
+    private static final StationDictionary s_stations = StationDictionary.getInstance();
+
+    private final File m_file;
+    private final ObservationStore m_store;
+    private long m_savedModificationCount = -1L;
+
+    /**
+     * Construct a {@link ObservationSnapshotterImpl} instance.
+     *
+     * @param store the {@link ObservationStore} component.
+     * @param file the snapshot file restored at startup and saved periodically.
+     */
+    @Autowired
+    ObservationSnapshotterImpl(final ObservationStore store,
+                               @Value("${" + Constants.Store.SNAPSHOT_FILE + "}") final File file)
+    {
+        super();
+        m_file = file;
+        m_store = store;
+    }
+
+    /**
+     * Restore the configured snapshot file, if present and the store has not already recovered content of its own
+     * (which is at least as recent.) A snapshot which cannot be loaded is logged and ignored; the node then starts
+     * empty, as it would have without one.
+     */
+    @PostConstruct
+    void restore()
+    {
+        if (m_file.isFile() && 0L == m_store.getModificationCount())
+        {
+            try
+            {
+                final long start = System.currentTimeMillis();
+                final int records = load(m_file);
+                LOG.info("Restored {} observation(s) from snapshot {} in {} ms.", records, m_file,
+                        System.currentTimeMillis() - start);
+            }
+            catch (final SnapshotException e)
+            {
+                LOG.warn(String.format("Ignoring snapshot %s, which could not be restored.", m_file), e);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${" + Constants.Store.SNAPSHOT_INTERVAL + "}")
+    public synchronized void checkpoint() throws SnapshotException
+    {
+        final long modificationCount = m_store.getModificationCount();
+        if (modificationCount != m_savedModificationCount)
+        {
+            final int records = save(m_file);
+            m_savedModificationCount = modificationCount;
+            LOG.debug("Saved {} observation(s) to snapshot {}.", records, m_file);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int save(final File file) throws SnapshotException
+    {
+        final File temporary = new File(file.getPath() + ".tmp");
+        try
+        {
+            final File directory = file.getAbsoluteFile().getParentFile();
+            if (!directory.isDirectory() && !directory.mkdirs())
+            {
+                throw new IOException(String.format("Directory %s could not be created.", directory));
+            }
+            final int result;
+            try (final RandomAccessFile randomAccessFile = new RandomAccessFile(temporary, "rw");
+                 final FileChannel channel = randomAccessFile.getChannel())
+            {
+                randomAccessFile.setLength(0L);
+                final BodyWriter writer = new BodyWriter(channel);
+                m_store.export(writer);
+                writer.finish();
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_BYTES)
+                        .putLong(System.currentTimeMillis()).putInt(writer.m_stations).putInt(writer.m_records)
+                        .putInt((int) writer.m_crc.getValue()).putInt(checksum(header.array(), 28));
+                header.flip();
+                channel.write(header, 0L);
+                channel.force(true);
+                result = writer.m_records;
+            }
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            return result;
+        }
+        catch (final IOException e)
+        {
+            throw new SnapshotException(String.format("An error of type %s occurred while attempting to save " +
+                    "snapshot %s: %s", e.getClass().getName(), file, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int load(final File file) throws SnapshotException
+    {
+        final MappedByteBuffer buffer = map(file);
+        final int result = decode(buffer, verify(file, buffer), ObservationStore.StationFilter.ALL, m_store);
+        synchronized (this)
+        {
+            m_savedModificationCount = m_store.getModificationCount();
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int load(final File file, final ObservationStore.StationFilter filter) throws SnapshotException
+    {
+        final MappedByteBuffer buffer = map(file);
+        return decode(buffer, verify(file, buffer), filter, m_store);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int replace(final File file, final ObservationStore.StationFilter filter) throws SnapshotException
+    {
+        final MappedByteBuffer buffer = map(file);
+        final int stations = verify(file, buffer);
+        final int[] result = new int[1];
+        m_store.replace(new ObservationStore.Loader()
+        {
+            @Override
+            public void load(final ObservationStore target)
+            {
+                result[0] = decode(buffer, stations, filter, target);
+            }
+        });
+        return result[0];
+    }
+
+    /**
+     * Map a snapshot file.
+     *
+     * @param file the snapshot file.
+     * @return {@link MappedByteBuffer} read-only mapping of the file.
+     * @throws SnapshotException if the file could not be read.
+     */
+    private static MappedByteBuffer map(final File file) throws SnapshotException
+    {
+        final MappedByteBuffer result;
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             final FileChannel channel = randomAccessFile.getChannel())
+        {
+            result = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        }
+        catch (final IOException e)
+        {
+            throw new SnapshotException(String.format("An error of type %s occurred while attempting to read " +
+                    "snapshot %s: %s", e.getClass().getName(), file, e.getMessage()), e);
+        }
+        return result;
+    }
+
+    /**
+     * Decode the station blocks of a verified snapshot into a store.
+     *
+     * @param buffer the snapshot contents.
+     * @param stations the station count.
+     * @param filter the filter selecting the stations to decode; the blocks of others are skipped.
+     * @param target the store.
+     * @return {@code int} number of records decoded.
+     */
+    private static int decode(final ByteBuffer buffer, final int stations, final ObservationStore.StationFilter filter,
+                              final ObservationStore target)
+    {
+        final ObservationRecord.Builder builder = new ObservationRecord.Builder();
+        int result = 0;
+        int position = HEADER_BYTES;
+        for (int i = 0; i < stations; i++)
+        {
+            final String station = s_stations.getIdentifier(s_stations.internCode(buffer.getInt(position)));
+            final int latitude = buffer.getInt(position + 4);
+            final int longitude = buffer.getInt(position + 8);
+            final int records = buffer.getInt(position + 12);
+            position += STATION_BYTES;
+            if (filter.accept(station))
+            {
+                if (UNLOCATED != latitude)
+                {
+                    target.locate(station, latitude, longitude);
+                }
+                for (int j = 0; j < records; j++)
+                {
+                    target.put(ObservationRecordLayout.read(buffer, position + j * RECORD_BYTES,
+                            builder.reset().setStation(station)));
+                }
+                result += records;
+            }
+            position += records * RECORD_BYTES;
+        }
+        return result;
+    }
+
+    /**
+     * Verify the header and body checksums, version and layout of a snapshot.
+     *
+     * @param file the snapshot file, for messages.
+     * @param buffer the snapshot contents.
+     * @return {@code int} station count.
+     * @throws SnapshotException if the snapshot is invalid.
+     */
+    private static int verify(final File file, final ByteBuffer buffer) throws SnapshotException
+    {
+        final int size = buffer.capacity();
+        final byte[] header = new byte[HEADER_BYTES];
+        if (size >= HEADER_BYTES)
+        {
+            buffer.duplicate().get(header);
+        }
+        final ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+        if (size < HEADER_BYTES || MAGIC != headerBuffer.getInt(0) ||
+                checksum(header, 28) != headerBuffer.getInt(28))
+        {
+            throw new SnapshotException(String.format("Snapshot %s has an invalid header.", file));
+        }
+        if (VERSION != headerBuffer.getShort(4) || RECORD_BYTES != headerBuffer.getShort(6))
+        {
+            throw new SnapshotException(String.format("Snapshot %s has unsupported format version %d.", file,
+                    headerBuffer.getShort(4)));
+        }
+        final int stations = headerBuffer.getInt(16);
+        final long expectedSize = HEADER_BYTES + (long) STATION_BYTES * stations +
+                (long) RECORD_BYTES * headerBuffer.getInt(20);
+        final CRC32 crc = new CRC32();
+        final byte[] chunk = new byte[BUFFER_BYTES];
+        final ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_BYTES);
+        while (body.hasRemaining())
+        {
+            final int length = Math.min(chunk.length, body.remaining());
+            body.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        if (expectedSize != size || (int) crc.getValue() != headerBuffer.getInt(24))
+        {
+            throw new SnapshotException(String.format("Snapshot %s is truncated or corrupt.", file));
+        }
+        return stations;
+    }
+
+    /**
+     * Compute the CRC-32 of the start of an array.
+     *
+     * @param bytes the array.
+     * @param length the number of bytes to include.
+     * @return {@code int} checksum.
+     */
+    private static int checksum(final byte[] bytes, final int length)
+    {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * {@link BodyWriter} writes the body of a snapshot, station by station, after the space reserved for the header,
+     * computing the body checksum as it goes.
+     */
+    private static final class BodyWriter implements ObservationStore.StationVisitor
+    {
+        private final ByteBuffer m_buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        private final FileChannel m_channel;
+        private final CRC32 m_crc = new CRC32();
+        private long m_position = HEADER_BYTES;
+        private int m_records;
+        private int m_stations;
+
+        /**
+         * Construct a {@link BodyWriter} instance.
+         *
+         * @param channel the channel to which the snapshot is written.
+         */
+        BodyWriter(final FileChannel channel)
+        {
+            super();
+            m_channel = channel;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void visit(final String station, final boolean located, final int latitude, final int longitude,
+                          final List<ObservationRecord> records)
+        {
+            final byte[] identifier = station.getBytes(s_ascii);
+            if (identifier.length > 4)
+            {
+                LOG.warn("Omitting station [{}] from snapshot; identifiers are limited to four characters.", station);
+            }
+            else
+            {
+                reserve(STATION_BYTES);
+                m_buffer.put(identifier);
+                for (int i = identifier.length; i < 4; i++)
+                {
+                    m_buffer.put((byte) ' ');
+                }
+                m_buffer.putInt(located ? latitude : UNLOCATED).putInt(located ? longitude : UNLOCATED)
+                        .putInt(records.size());
+                for (final ObservationRecord record : records)
+                {
+                    reserve(RECORD_BYTES);
+                    ObservationRecordLayout.write(m_buffer, m_buffer.position(), record);
+                    m_buffer.position(m_buffer.position() + RECORD_BYTES);
+                }
+                m_stations++;
+                m_records += records.size();
+            }
+        }
+
+        /**
+         * Write any buffered bytes.
+         *
+         * @throws IOException if an error occurs while writing.
+         */
+        void finish() throws IOException
+        {
+            m_crc.update(m_buffer.array(), 0, m_buffer.position());
+            m_buffer.flip();
+            while (m_buffer.hasRemaining())
+            {
+                m_position += m_channel.write(m_buffer, m_position);
+            }
+            m_buffer.clear();
+        }
+
+        /**
+         * Make room in the buffer for a number of bytes, writing it out if necessary.
+         *
+         * @param bytes the number of bytes required.
+         */
+        private void reserve(final int bytes)
+        {
+            if (m_buffer.remaining() < bytes)
+            {
+                try
+                {
+                    finish();
+                }
+                catch (final IOException e)
+                {
+                    throw new SnapshotException(String.format("An error of type %s occurred while attempting to " +
+                            "write a snapshot: %s", e.getClass().getName(), e.getMessage()), e);
+                }
+            }
+        }
+    }
+}
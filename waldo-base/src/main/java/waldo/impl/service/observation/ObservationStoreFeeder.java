@@ -0,0 +1,136 @@
+package waldo.impl.service.observation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.journal.ObservationJournal;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationSeries;
+import waldo.service.observation.ObservationStore;
+import waldo.service.station.StationMetadata;
+import waldo.service.station.StationReference;
+
+/**
+ * {@link ObservationStoreFeeder} applies newly journaled observations to the {@link ObservationStore} and the
+ * {@link ObservationSeries}, as the {@value #CONSUMER} consumer of the {@link ObservationJournal}. Records are
+ * consumed in bounded batches until the journal is drained.
+ * <p>
+ * Whenever the version of the {@link StationReference} changes, every station held by the store is first located at
+ * the position given by the reference data, which takes precedence over the position given with each report.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active, as is the journal it reads.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access, provided the same is
+ * true of all dependencies provided via constructor; feeds are serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class ObservationStoreFeeder
+{
+    /**
+     * Name under which this component's position in the journal is recorded.
+     */
+    static final String CONSUMER = "store";
+
+    private static final int BATCH_SIZE = 4096;
+
+    private final ObservationJournal m_journal;
+    private final StationReference m_reference;
+    private long m_referenceVersion;
+    private final ObservationSeries m_series;
+    private final ObservationStore m_store;
+
+    /**
+     * Construct a {@link ObservationStoreFeeder} instance.
+     *
+     * @param journal the {@link ObservationJournal} component.
+     * @param store the {@link ObservationStore} component.
+     * @param series the {@link ObservationSeries} component.
+     * @param reference the {@link StationReference} component.
+     */
+    @Autowired
+    ObservationStoreFeeder(final ObservationJournal journal, final ObservationStore store,
+                           final ObservationSeries series, final StationReference reference)
+    {
+        super();
+        m_journal = journal;
+        m_reference = reference;
+        m_series = series;
+        m_store = store;
+    }
+
+    /**
+     * Apply newly journaled observations on a schedule; see {@link #feed()}.
+     */
+    @Scheduled(fixedDelayString = "${" + Constants.Store.FEED_INTERVAL + "}")
+    void scheduledFeed()
+    {
+        feed();
+    }
+
+    /**
+     * Locate the stations held by the store if the reference data has changed, then apply all observations journaled
+     * since the last invocation to the store and to the time series.
+     *
+     * @return {@code int} number of observations applied.
+     */
+    synchronized int feed()
+    {
+        locate();
+        final ObservationHandler handler = new ObservationHandler()
+        {
+            @Override
+            public void handle(final ObservationRecord record)
+            {
+                m_store.put(record);
+                m_series.append(record);
+            }
+        };
+        int result = 0;
+        int consumed;
+        do
+        {
+            consumed = m_journal.consume(CONSUMER, handler, BATCH_SIZE);
+            result += consumed;
+        }
+        while (BATCH_SIZE == consumed);
+        return result;
+    }
+
+    /**
+     * Locate every station held by the store at the position given by the reference data, if it has changed since the
+     * stations were last located.
+     */
+    private void locate()
+    {
+        final long version = m_reference.getVersion();
+        if (version != m_referenceVersion)
+        {
+            /* Every station held has been modified at least once, by the record or position which added it. */
+            for (final String station : m_store.findModifiedSince(0L))
+            {
+                final StationMetadata metadata = m_reference.find(station);
+                if (null != metadata)
+                {
+                    m_store.locate(station, metadata.getLatitude(), metadata.getLongitude());
+                }
+            }
+            m_referenceVersion = version;
+        }
+    }
+}
@@ -0,0 +1,607 @@
+package waldo.impl.service.observation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationStore;
+import waldo.service.observation.StoreException;
+import waldo.utility.geo.BoundingBox;
+import waldo.utility.station.StationDictionary;
+import waldo.utility.station.StationTable;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link ObservationStoreImpl} is the concrete implementation of the {@link ObservationStore} interface. Each station's
+ * records are kept outside the Java heap, in its own slot of an {@link ObservationRingFile}, and decoded from the
+ * mapping as they are read; the heap holds only an index from station to slot and position, a {@link StationTable}
+ * indexed by the dense identifiers of the {@link StationDictionary}. The spatial index is a fixed array of one-degree
+ * cells, each holding the stations located within it; a region query visits only the cells it overlaps.
+ * <p>
+ * The ring file is reopened when the store is created, so a restarted node begins with the content it held before.
+ * {@link #replace(Loader)} populates a separate instance backed by a staging file, moves that file over the ring file
+ * and then swaps its content in with a single volatile write.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Access to each station's
+ * state is serialized independently.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+class ObservationStoreImpl implements ObservationStore
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ObservationStoreImpl.class);
+
+    private static final int GRID_COLUMNS = 361;
+    private static final int GRID_ROWS = 181;
+    private static final StationDictionary s_stations = StationDictionary.getInstance();
+    private static final int UNLOCATED = Integer.MIN_VALUE;
+
+    private final int m_capacity;
+    private volatile Contents m_contents;
+    private final File m_file;
+    private final AtomicLong m_modificationCount = new AtomicLong();
+    private final long m_retention;
+
+    /**
+     * Construct a {@link ObservationStoreImpl} instance, recovering the content of an existing ring file.
+     *
+     * @param retention the period, in milliseconds, for which history is retained behind each station's latest
+     * observation.
+     * @param file the ring file, or empty to use a temporary file.
+     * @param capacity the maximum number of observations held for each station.
+     * @throws StoreException if the ring file could not be opened.
+     */
+    @Autowired
+    ObservationStoreImpl(@Value("${" + Constants.Store.HISTORY_RETENTION + "}") final long retention,
+                         @Value("${" + Constants.Store.RING_FILE + "}") final String file,
+                         @Value("${" + Constants.Store.RING_CAPACITY + "}") final int capacity)
+            throws StoreException
+    {
+        super();
+        m_capacity = capacity;
+        m_file = file.isEmpty() ? null : new File(file);
+        m_retention = retention;
+        try
+        {
+            m_contents = new Contents(null == m_file ? ObservationRingFile.createTemporary(capacity) :
+                    ObservationRingFile.open(m_file, capacity));
+        }
+        catch (final IOException e)
+        {
+            throw new StoreException(String.format("An error of type %s occurred while attempting to open " +
+                    "observation ring file %s: %s", e.getClass().getName(), file, e.getMessage()), e);
+        }
+        final Contents contents = m_contents;
+        contents.m_rings.recover(new ObservationRingFile.SlotVisitor()
+        {
+            @Override
+            public void visit(final int slot, final String station, final int latitude, final int longitude)
+            {
+                final StationState state = new StationState(s_stations.intern(station), station, slot);
+                synchronized (state)
+                {
+                    state.m_located = UNLOCATED != latitude;
+                    state.m_latitude = latitude;
+                    state.m_longitude = longitude;
+                    state.m_modified = m_modificationCount.incrementAndGet();
+                }
+                contents.m_stations.putIfAbsent(state.m_id, state);
+                if (state.m_located)
+                {
+                    getCell(contents, cellOf(latitude, longitude)).add(state);
+                }
+            }
+        });
+        if (0 != contents.m_stations.size())
+        {
+            LOG.info("Recovered {} station(s) from observation ring file {}.", contents.m_stations.size(),
+                    contents.m_rings.getFile());
+        }
+    }
+
+    /**
+     * Construct a {@link ObservationStoreImpl} instance with empty content, as the staging store for
+     * {@link #replace(Loader)}.
+     *
+     * @param store the store whose content is to be replaced.
+     * @param rings the empty ring file.
+     */
+    private ObservationStoreImpl(final ObservationStoreImpl store, final ObservationRingFile rings)
+    {
+        super();
+        m_capacity = store.m_capacity;
+        m_contents = new Contents(rings);
+        m_file = null;
+        m_retention = store.m_retention;
+    }
+
+    /**
+     * Force the ring file to storage and close it.
+     */
+    @PreDestroy
+    void close()
+    {
+        close(m_contents.m_rings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(final ObservationRecord record)
+    {
+        final Contents contents = m_contents;
+        final StationState state = getState(contents, record.getStation());
+        synchronized (state)
+        {
+            /* A station discarded by retain() in the meantime no longer has a slot. */
+            if (state.m_slot >= 0)
+            {
+                contents.m_rings.put(state.m_slot, record, m_retention);
+                state.m_modified = m_modificationCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void locate(final String station, final int latitude, final int longitude)
+    {
+        final Contents contents = m_contents;
+        final StationState state = getState(contents, station);
+        synchronized (state)
+        {
+            if (state.m_slot >= 0 &&
+                    (!state.m_located || state.m_latitude != latitude || state.m_longitude != longitude))
+            {
+                if (state.m_located)
+                {
+                    getCell(contents, cellOf(state.m_latitude, state.m_longitude)).remove(state);
+                }
+                state.m_located = true;
+                state.m_latitude = latitude;
+                state.m_longitude = longitude;
+                getCell(contents, cellOf(latitude, longitude)).add(state);
+                contents.m_rings.setLocation(state.m_slot, latitude, longitude);
+                state.m_modified = m_modificationCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObservationRecord findLatest(final String station)
+    {
+        final Contents contents = m_contents;
+        final StationState state = contents.m_stations.get(s_stations.find(station));
+        ObservationRecord result = null;
+        if (null != state)
+        {
+            synchronized (state)
+            {
+                result = readLatest(contents, state, new ObservationRecord.Builder().setStation(state.m_station));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ObservationRecord> findLatest(final BoundingBox region)
+    {
+        final Contents contents = m_contents;
+        final List<ObservationRecord> result = new ArrayList<>();
+        final ObservationRecord.Builder builder = new ObservationRecord.Builder();
+        final int minRow = floorDegrees(region.getMinLatitude());
+        final int maxRow = floorDegrees(region.getMaxLatitude());
+        final int minColumn = floorDegrees(region.getMinLongitude());
+        final int maxColumn = floorDegrees(region.getMaxLongitude());
+        for (int row = minRow; row <= maxRow; row++)
+        {
+            for (int column = minColumn; column <= maxColumn; column++)
+            {
+                final Set<StationState> cell = contents.m_grid.get(cellKey(row, column));
+                if (null != cell)
+                {
+                    for (final StationState state : cell)
+                    {
+                        synchronized (state)
+                        {
+                            if (state.m_located && region.contains(state.m_latitude, state.m_longitude))
+                            {
+                                final ObservationRecord latest = readLatest(contents, state,
+                                        builder.reset().setStation(state.m_station));
+                                if (null != latest)
+                                {
+                                    result.add(latest);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ObservationRecord> findRecent(final String station)
+    {
+        final Contents contents = m_contents;
+        final StationState state = contents.m_stations.get(s_stations.find(station));
+        List<ObservationRecord> result = Collections.emptyList();
+        if (null != state)
+        {
+            synchronized (state)
+            {
+                result = readAll(contents, state);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getModificationCount()
+    {
+        return m_modificationCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> findModifiedSince(final long modificationCount)
+    {
+        final Set<String> result = new HashSet<>();
+        final StationTable<StationState> stations = m_contents.m_stations;
+        for (int id = 0; id < stations.getLimit(); id++)
+        {
+            final StationState state = stations.get(id);
+            if (null != state)
+            {
+                synchronized (state)
+                {
+                    if (state.m_modified > modificationCount)
+                    {
+                        result.add(state.m_station);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void export(final StationVisitor visitor)
+    {
+        final Contents contents = m_contents;
+        for (int id = 0; id < contents.m_stations.getLimit(); id++)
+        {
+            final StationState state = contents.m_stations.get(id);
+            if (null != state)
+            {
+                final boolean located;
+                final int latitude;
+                final int longitude;
+                final List<ObservationRecord> records;
+                synchronized (state)
+                {
+                    located = state.m_located;
+                    latitude = state.m_latitude;
+                    longitude = state.m_longitude;
+                    records = readAll(contents, state);
+                }
+                visitor.visit(state.m_station, located, latitude, longitude, records);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void replace(final Loader loader) throws StoreException
+    {
+        final File file = null == m_file ? null : new File(m_file.getPath() + ".staging");
+        final ObservationRingFile rings;
+        try
+        {
+            rings = null == file ? ObservationRingFile.createTemporary(m_capacity) :
+                    ObservationRingFile.create(file, m_capacity);
+        }
+        catch (final IOException e)
+        {
+            throw new StoreException(String.format("An error of type %s occurred while attempting to create " +
+                    "observation ring file %s: %s", e.getClass().getName(), file, e.getMessage()), e);
+        }
+
+        /* The staging store counts on from this one, so that modification counts never go backward. */
+        final ObservationStoreImpl staging = new ObservationStoreImpl(this, rings);
+        staging.m_modificationCount.set(m_modificationCount.get());
+        boolean loaded = false;
+        try
+        {
+            loader.load(staging);
+            if (null != m_file)
+            {
+                rings.moveTo(m_file);
+            }
+            loaded = true;
+        }
+        catch (final IOException e)
+        {
+            throw new StoreException(String.format("An error of type %s occurred while attempting to move " +
+                    "observation ring file %s: %s", e.getClass().getName(), file, e.getMessage()), e);
+        }
+        finally
+        {
+            if (!loaded)
+            {
+                close(rings);
+                if (null != file && !file.delete())
+                {
+                    LOG.warn("Staging ring file {} could not be deleted.", file);
+                }
+            }
+        }
+        final Contents replaced = m_contents;
+        m_contents = staging.m_contents;
+        m_modificationCount.set(staging.m_modificationCount.get() + 1L);
+        close(replaced.m_rings);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int retain(final StationFilter filter)
+    {
+        final Contents contents = m_contents;
+        int result = 0;
+        for (int id = 0; id < contents.m_stations.getLimit(); id++)
+        {
+            final StationState state = contents.m_stations.get(id);
+            if (null != state && !filter.accept(state.m_station) && contents.m_stations.remove(id, state))
+            {
+                synchronized (state)
+                {
+                    if (state.m_located)
+                    {
+                        contents.m_grid.get(cellOf(state.m_latitude, state.m_longitude)).remove(state);
+                    }
+                    contents.m_rings.free(state.m_slot);
+                    state.m_slot = -1;
+                }
+                result++;
+            }
+        }
+        if (result > 0)
+        {
+            m_modificationCount.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Get the state of a station, allocating it a slot if necessary.
+     *
+     * @param contents the store content.
+     * @param station the station identifier.
+     * @return {@link StationState} instance.
+     * @throws StoreException if the ring file could not be extended.
+     */
+    private static StationState getState(final Contents contents, final String station) throws StoreException
+    {
+        final int id = s_stations.intern(station);
+        StationState result = contents.m_stations.get(id);
+        if (null == result)
+        {
+            synchronized (contents)
+            {
+                result = contents.m_stations.get(id);
+                if (null == result)
+                {
+                    try
+                    {
+                        result = new StationState(id, s_stations.getIdentifier(id),
+                                contents.m_rings.allocate(station));
+                    }
+                    catch (final IOException e)
+                    {
+                        throw new StoreException(String.format("An error of type %s occurred while attempting to " +
+                                "extend observation ring file %s: %s", e.getClass().getName(),
+                                contents.m_rings.getFile(), e.getMessage()), e);
+                    }
+                    contents.m_stations.putIfAbsent(id, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read the latest record of a station. The caller must hold the lock on the station state.
+     *
+     * @param contents the store content.
+     * @param state the station state.
+     * @param builder a builder, already reset and given the station identifier.
+     * @return {@link ObservationRecord} instance, or {@code null} if none is held.
+     */
+    private static ObservationRecord readLatest(final Contents contents, final StationState state,
+                                                final ObservationRecord.Builder builder)
+    {
+        final int size = state.m_slot < 0 ? 0 : contents.m_rings.size(state.m_slot);
+        return 0 == size ? null : contents.m_rings.read(state.m_slot, size - 1, builder);
+    }
+
+    /**
+     * Read every record of a station. The caller must hold the lock on the station state.
+     *
+     * @param contents the store content.
+     * @param state the station state.
+     * @return {@link List} of records in ascending order of observation time.
+     */
+    private static List<ObservationRecord> readAll(final Contents contents, final StationState state)
+    {
+        final int size = state.m_slot < 0 ? 0 : contents.m_rings.size(state.m_slot);
+        final List<ObservationRecord> result = new ArrayList<>(size);
+        final ObservationRecord.Builder builder = new ObservationRecord.Builder();
+        for (int i = 0; i < size; i++)
+        {
+            result.add(contents.m_rings.read(state.m_slot, i, builder.reset().setStation(state.m_station)));
+        }
+        return result;
+    }
+
+    /**
+     * Close a ring file, logging rather than throwing on failure.
+     *
+     * @param rings the ring file.
+     */
+    private static void close(final ObservationRingFile rings)
+    {
+        try
+        {
+            rings.close();
+        }
+        catch (final IOException e)
+        {
+            LOG.warn(String.format("An error of type %s occurred while attempting to close observation ring file " +
+                    "%s: %s", e.getClass().getName(), rings.getFile(), e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Get the set of stations in a grid cell, creating it if necessary.
+     *
+     * @param contents the store content.
+     * @param key the cell key.
+     * @return {@link Set} of station states.
+     */
+    private static Set<StationState> getCell(final Contents contents, final int key)
+    {
+        final AtomicReferenceArray<Set<StationState>> grid = contents.m_grid;
+        Set<StationState> result = grid.get(key);
+        if (null == result)
+        {
+            final Set<StationState> created = Collections.newSetFromMap(
+                    new ConcurrentHashMap<StationState, Boolean>());
+            result = grid.compareAndSet(key, null, created) ? created : grid.get(key);
+        }
+        return result;
+    }
+
+    private static int cellOf(final int latitude, final int longitude)
+    {
+        return cellKey(floorDegrees(latitude), floorDegrees(longitude));
+    }
+
+    private static int cellKey(final int row, final int column)
+    {
+        return (row + 90) * GRID_COLUMNS + column + 180;
+    }
+
+    /**
+     * Convert millionths of a degree to whole degrees, rounding toward negative infinity.
+     *
+     * @param units the value in millionths of a degree.
+     * @return {@code int} whole degrees.
+     */
+    private static int floorDegrees(final int units)
+    {
+        final int result = units / BoundingBox.UNITS_PER_DEGREE;
+        return units < 0 && 0 != units % BoundingBox.UNITS_PER_DEGREE ? result - 1 : result;
+    }
+
+    /**
+     * {@link Contents} is the full content of the store: the ring file holding the records, the state of each station,
+     * and the spatial index. Allocation of station state is synchronized on the instance.
+     */
+    private static final class Contents
+    {
+        private final AtomicReferenceArray<Set<StationState>> m_grid = new AtomicReferenceArray<>(GRID_ROWS *
+                GRID_COLUMNS);
+        private final ObservationRingFile m_rings;
+        private final StationTable<StationState> m_stations = new StationTable<>();
+
+        /**
+         * Construct a {@link Contents} instance.
+         *
+         * @param rings the ring file.
+         */
+        private Contents(final ObservationRingFile rings)
+        {
+            super();
+            m_rings = rings;
+        }
+    }
+
+    /**
+     * {@link StationState} is the state held on the heap for one station: its identifiers, its slot in the ring file,
+     * and its position. All access to mutable state is synchronized on the instance.
+     */
+    private static final class StationState
+    {
+        private final int m_id;
+        private int m_latitude;
+        private boolean m_located;
+        private int m_longitude;
+        private long m_modified;
+        private int m_slot;
+        private final String m_station;
+
+        /**
+         * Construct a {@link StationState} instance.
+         *
+         * @param id the dense station identifier.
+         * @param station the canonical station identifier.
+         * @param slot the slot allocated to the station, which is initially unlocated.
+         */
+        private StationState(final int id, final String station, final int slot)
+        {
+            super();
+            m_id = id;
+            m_slot = slot;
+            m_station = station;
+        }
+    }
+}
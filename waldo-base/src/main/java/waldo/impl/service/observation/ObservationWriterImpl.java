@@ -0,0 +1,346 @@
+package waldo.impl.service.observation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import waldo.entity.FlightCategory;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationWriter;
+import waldo.utility.database.IdAllocator;
+
+import javax.xml.bind.DatatypeConverter;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ObservationWriterImpl} is the concrete implementation of the {@link ObservationWriter} interface.
+ * <p>
+ * Each batch is written as one batched {@code UPDATE}, which replaces the elements of stored observations whose
+ * {@code HASH} (a SHA-1 digest of the elements) differs, followed by one batched {@code INSERT ... WHERE NOT EXISTS} of
+ * the observations which were not updated. Identifiers are allocated only for the inserted rows, and the unique index
+ * on {@code (STATION, OBSERVED_AT, REPORT_TYPE)} guards against two nodes inserting the same observation at once.
+ * <p>
+ * ADDS files repeat each observation for as long as it remains current, so most observations are written many times.
+ * The digests of the most recently written observations are therefore remembered, once their transaction has
+ * committed, and an observation whose digest is unchanged is not sent to the database again.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access, provided the same is true
+ * of all dependencies provided via constructor.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Repository
+class ObservationWriterImpl implements ObservationWriter
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ObservationWriterImpl.class);
+
+    /**
+     * Number of recently written observations whose digests are remembered.
+     */
+    private static final int RECENT_CAPACITY = 65536;
+
+    private static final Charset s_ascii = Charset.forName("US-ASCII");
+    /* Both statements bind the elements, digest and key first; see Setter. */
+    private static final String s_insertSql = "INSERT INTO OBSERVATION (SKY_LAYERS, TEMPERATURE, DEWPOINT, ALTIMETER, "
+            + "SEA_LEVEL_PRESSURE, WIND_DIRECTION, WIND_SPEED, WIND_GUST, VISIBILITY, PRECIPITATION, FLIGHT_CATEGORY, "
+            + "HASH, STATION, OBSERVED_AT, REPORT_TYPE, ID) SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? "
+            + "WHERE NOT EXISTS (SELECT 1 FROM OBSERVATION WHERE STATION = ? AND OBSERVED_AT = ? AND REPORT_TYPE = ?)";
+    private static final String s_updateSql = "UPDATE OBSERVATION SET SKY_LAYERS = ?, TEMPERATURE = ?, DEWPOINT = ?, "
+            + "ALTIMETER = ?, SEA_LEVEL_PRESSURE = ?, WIND_DIRECTION = ?, WIND_SPEED = ?, WIND_GUST = ?, "
+            + "VISIBILITY = ?, PRECIPITATION = ?, FLIGHT_CATEGORY = ?, HASH = ?, VER = VER + 1 "
+            + "WHERE STATION = ? AND OBSERVED_AT = ? AND REPORT_TYPE = ? AND HASH <> ?";
+
+    private final IdAllocator m_idAllocator;
+    private final JdbcOperations m_jdbcOperations;
+    private final Map<String, String> m_recent = new LinkedHashMap<String, String>(RECENT_CAPACITY, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        /** {@inheritDoc} */
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest)
+        {
+            return size() > RECENT_CAPACITY;
+        }
+    };
+
+    /**
+     * Construct a {@link ObservationWriterImpl} instance.
+     *
+     * @param jdbcOperations the {@link JdbcOperations} component.
+     * @param idAllocator the {@link IdAllocator} component.
+     */
+    @Autowired
+    ObservationWriterImpl(final JdbcOperations jdbcOperations, final IdAllocator idAllocator)
+    {
+        super();
+        m_idAllocator = idAllocator;
+        m_jdbcOperations = jdbcOperations;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int write(final List<ObservationRecord> records)
+    {
+        /* Drop observations written before with the same elements. */
+        final MessageDigest digest = sha1();
+        final List<ObservationRecord> pending = new ArrayList<>(records.size());
+        final List<String> keys = new ArrayList<>(records.size());
+        final List<String> hashes = new ArrayList<>(records.size());
+        synchronized (m_recent)
+        {
+            for (final ObservationRecord record : records)
+            {
+                final String key = key(record);
+                final String hash = hash(digest, record);
+                if (!hash.equals(m_recent.get(key)))
+                {
+                    pending.add(record);
+                    keys.add(key);
+                    hashes.add(hash);
+                }
+            }
+        }
+        int result = 0;
+        if (!pending.isEmpty())
+        {
+            /* Replace the elements of stored observations which have changed, then insert those not stored. */
+            final int[] updated = m_jdbcOperations.batchUpdate(s_updateSql, new Setter(pending, hashes, null));
+            final List<ObservationRecord> inserts = new ArrayList<>(pending.size());
+            final List<String> insertHashes = new ArrayList<>(pending.size());
+            for (int i = 0; i < updated.length; i++)
+            {
+                if (0 == updated[i])
+                {
+                    inserts.add(pending.get(i));
+                    insertHashes.add(hashes.get(i));
+                }
+                else
+                {
+                    result++;
+                }
+            }
+            if (!inserts.isEmpty())
+            {
+                final long[] ids = m_idAllocator.allocate(inserts.size());
+                for (final int inserted : m_jdbcOperations.batchUpdate(s_insertSql, new Setter(inserts, insertHashes,
+                        ids)))
+                {
+                    result += 0 == inserted ? 0 : 1;
+                }
+            }
+            remember(keys, hashes);
+        }
+        LOG.debug("Wrote {} of {} observation(s); {} were unchanged since last written.", result, records.size(),
+                records.size() - pending.size());
+        return result;
+    }
+
+    /**
+     * Remember the digests of written observations, once the transaction which wrote them has committed.
+     *
+     * @param keys the observation keys.
+     * @param hashes the corresponding digests.
+     */
+    private void remember(final List<String> keys, final List<String> hashes)
+    {
+        final Runnable task = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                synchronized (m_recent)
+                {
+                    for (int i = 0; i < keys.size(); i++)
+                    {
+                        m_recent.put(keys.get(i), hashes.get(i));
+                    }
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+            {
+                /** {@inheritDoc} */
+                @Override
+                public void afterCommit()
+                {
+                    task.run();
+                }
+            });
+        }
+        else
+        {
+            task.run();
+        }
+    }
+
+    /**
+     * Get the key which identifies an observation: its station, observation time and report type.
+     *
+     * @param record the record.
+     * @return {@link String} key.
+     */
+    private static String key(final ObservationRecord record)
+    {
+        return record.getStation() + '@' + record.getObservedAt() + '/' + record.getReportType().getCode();
+    }
+
+    /**
+     * Compute the digest of an observation's key and elements, as stored in the {@code HASH} column.
+     *
+     * @param digest the SHA-1 digest, which is reset.
+     * @param record the record.
+     * @return {@link String} 40-character hexadecimal digest.
+     */
+    private static String hash(final MessageDigest digest, final ObservationRecord record)
+    {
+        final FlightCategory flightCategory = record.getFlightCategory();
+        final ByteBuffer buffer = ByteBuffer.allocate(48);
+        buffer.putLong(record.getObservedAt()).putLong(record.getSkyLayers()).putShort(record.getReportType()
+                .getCode()).putShort(record.getTemperature()).putShort(record.getDewpoint()).putShort(
+                record.getAltimeter()).putShort(record.getSeaLevelPressure()).putShort(record.getWindDirection())
+                .putShort(record.getWindSpeed()).putShort(record.getWindGust()).putShort(record.getVisibility())
+                .putShort(record.getPrecipitation()).putShort(null == flightCategory ? ObservationRecord.MISSING :
+                flightCategory.getCode());
+        digest.reset();
+        digest.update(record.getStation().getBytes(s_ascii));
+        digest.update(buffer.array(), 0, buffer.position());
+        return DatatypeConverter.printHexBinary(digest.digest()).toLowerCase();
+    }
+
+    private static MessageDigest sha1()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-1");
+        }
+        catch (final NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-1 is not available.", e);
+        }
+    }
+
+    /**
+     * {@link Setter} binds a list of records to the parameters of {@link #s_updateSql}, or, given identifiers, of
+     * {@link #s_insertSql}.
+     */
+    private static final class Setter implements BatchPreparedStatementSetter
+    {
+        private final List<String> m_hashes;
+        private final long[] m_ids;
+        private final List<ObservationRecord> m_records;
+
+        /**
+         * Construct a {@link Setter} instance.
+         *
+         * @param records the records.
+         * @param hashes the digests of the records.
+         * @param ids the identifiers of the records to insert, or {@code null} to bind the update.
+         */
+        private Setter(final List<ObservationRecord> records, final List<String> hashes, final long[] ids)
+        {
+            super();
+            m_hashes = hashes;
+            m_ids = ids;
+            m_records = records;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void setValues(final PreparedStatement statement, final int i) throws SQLException
+        {
+            final ObservationRecord record = m_records.get(i);
+            final Timestamp observedAt = new Timestamp(record.getObservedAt());
+            final short reportType = record.getReportType().getCode();
+            final FlightCategory flightCategory = record.getFlightCategory();
+            statement.setLong(1, record.getSkyLayers());
+            int index = 2;
+            for (final short value : new short[]{record.getTemperature(), record.getDewpoint(), record.getAltimeter(),
+                    record.getSeaLevelPressure(), record.getWindDirection(), record.getWindSpeed(),
+                    record.getWindGust(), record.getVisibility(), record.getPrecipitation(), null == flightCategory ?
+                    ObservationRecord.MISSING : flightCategory.getCode()})
+            {
+                setShort(statement, index++, value);
+            }
+            statement.setString(12, m_hashes.get(i));
+            statement.setString(13, record.getStation());
+            statement.setTimestamp(14, observedAt);
+            statement.setShort(15, reportType);
+            if (null == m_ids)
+            {
+                /* Update only if the stored digest differs. */
+                statement.setString(16, m_hashes.get(i));
+            }
+            else
+            {
+                /* Insert only if not stored. */
+                statement.setLong(16, m_ids[i]);
+                statement.setString(17, record.getStation());
+                statement.setTimestamp(18, observedAt);
+                statement.setShort(19, reportType);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int getBatchSize()
+        {
+            return m_records.size();
+        }
+
+        /**
+         * Bind a nullable {@code SMALLINT} parameter.
+         *
+         * @param statement the statement.
+         * @param index the parameter index.
+         * @param value the value, or {@link ObservationRecord#MISSING} to bind {@code NULL}.
+         * @throws SQLException if the parameter could not be bound.
+         */
+        private static void setShort(final PreparedStatement statement, final int index, final short value)
+                throws SQLException
+        {
+            if (ObservationRecord.MISSING == value)
+            {
+                statement.setNull(index, Types.SMALLINT);
+            }
+            else
+            {
+                statement.setShort(index, value);
+            }
+        }
+    }
+}
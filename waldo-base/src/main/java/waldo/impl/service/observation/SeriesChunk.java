@@ -0,0 +1,284 @@
+package waldo.impl.service.observation;
+
+import java.util.Arrays;
+
+/**
+ * {@link SeriesChunk} is a sealed, compressed run of consecutive observations from one station's series, held as
+ * columns: the observation times, and the values of each element. Times are delta-of-delta encoded in a per-chunk
+ * time unit (the greatest common divisor of their offsets from the first, so that times on whole minutes cost nothing
+ * for their milliseconds), and each element column is delta encoded in its own fixed-point units. The encoded values of
+ * each column are zigzag mapped to non-negative integers and bit-packed at the smallest width which holds all of them;
+ * a column which never changes in the chunk (such as an element which is never reported) occupies no space at all.
+ * <p>
+ * Because every value in a column has the same width, a column decodes in a single branch-free loop of shifts, masks
+ * and additions over a contiguous array, independently of the other columns.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+final class SeriesChunk
+{
+    private final int m_count;
+    private final long m_firstDelta;
+    private final long m_firstTime;
+    private final short[] m_firstValues;
+    private final long m_lastTime;
+    private final int[] m_offsets;
+    private final long m_timeUnit;
+    private final byte[] m_widths;
+    private final long[] m_words;
+
+    /**
+     * Construct a {@link SeriesChunk} instance.
+     *
+     * @param count the number of observations.
+     * @param firstTime the first observation time.
+     * @param lastTime the last observation time.
+     * @param timeUnit the time unit.
+     * @param firstDelta the interval between the first and second observation times, in time units.
+     * @param firstValues the first value of each element.
+     * @param widths the width of the packed values of the times and of each element.
+     * @param offsets the word offset of the packed values of the times and of each element.
+     * @param words the packed values, followed by one word of padding.
+     */
+    private SeriesChunk(final int count, final long firstTime, final long lastTime, final long timeUnit,
+                        final long firstDelta, final short[] firstValues, final byte[] widths, final int[] offsets,
+                        final long[] words)
+    {
+        super();
+        m_count = count;
+        m_firstDelta = firstDelta;
+        m_firstTime = firstTime;
+        m_firstValues = firstValues;
+        m_lastTime = lastTime;
+        m_offsets = offsets;
+        m_timeUnit = timeUnit;
+        m_widths = widths;
+        m_words = words;
+    }
+
+    /**
+     * Encode a run of observations.
+     *
+     * @param times the observation times, in ascending order.
+     * @param values the values of each element, indexed by element ordinal and then in the order of {@code times}.
+     * @param count the number of observations, at least one.
+     * @return {@link SeriesChunk} instance.
+     */
+    static SeriesChunk encode(final long[] times, final short[][] values, final int count)
+    {
+        /* Times: delta-of-delta in the largest unit which divides every offset from the first. */
+        long timeUnit = 0L;
+        for (int i = 1; i < count; i++)
+        {
+            timeUnit = gcd(timeUnit, times[i] - times[0]);
+        }
+        timeUnit = 0L == timeUnit ? 1L : timeUnit;
+        final long firstDelta = count > 1 ? (times[1] - times[0]) / timeUnit : 0L;
+        final long[][] encoded = new long[1 + values.length][];
+        encoded[0] = new long[Math.max(0, count - 2)];
+        for (int i = 2; i < count; i++)
+        {
+            final long delta = (times[i] - times[i - 1]) / timeUnit;
+            final long previous = (times[i - 1] - times[i - 2]) / timeUnit;
+            encoded[0][i - 2] = zigzag(delta - previous);
+        }
+
+        /* Elements: delta in fixed-point units. */
+        final short[] firstValues = new short[values.length];
+        for (int e = 0; e < values.length; e++)
+        {
+            firstValues[e] = values[e][0];
+            encoded[1 + e] = new long[count - 1];
+            for (int i = 1; i < count; i++)
+            {
+                encoded[1 + e][i - 1] = zigzag(values[e][i] - values[e][i - 1]);
+            }
+        }
+
+        /* Pack each column at its own width, starting on a word boundary. */
+        final byte[] widths = new byte[encoded.length];
+        final int[] offsets = new int[encoded.length];
+        int words = 0;
+        for (int c = 0; c < encoded.length; c++)
+        {
+            long all = 0L;
+            for (final long value : encoded[c])
+            {
+                all |= value;
+            }
+            widths[c] = (byte) (64 - Long.numberOfLeadingZeros(all));
+            offsets[c] = words;
+            words += (int) (((long) encoded[c].length * widths[c] + 63L) / 64L);
+        }
+        final long[] packed = new long[words + 1];
+        for (int c = 0; c < encoded.length; c++)
+        {
+            for (int i = 0; i < encoded[c].length; i++)
+            {
+                pack(packed, offsets[c], widths[c], i, encoded[c][i]);
+            }
+        }
+        return new SeriesChunk(count, times[0], times[count - 1], timeUnit, firstDelta, firstValues, widths, offsets,
+                packed);
+    }
+
+    /**
+     * Decode the observation times.
+     *
+     * @param target the array into which times are decoded.
+     * @param offset the index in {@code target} of the first time.
+     */
+    void decodeTimes(final long[] target, final int offset)
+    {
+        final int width = m_widths[0];
+        final long mask = mask(width);
+        final int base = m_offsets[0];
+        long delta = m_firstDelta;
+        long time = m_firstTime;
+        target[offset] = time;
+        if (m_count > 1)
+        {
+            time += delta * m_timeUnit;
+            target[offset + 1] = time;
+        }
+        for (int i = 2; i < m_count; i++)
+        {
+            final long encoded = 0 == width ? 0L : unpack(m_words, base, width, mask, i - 2);
+            delta += encoded >>> 1 ^ -(encoded & 1L);
+            time += delta * m_timeUnit;
+            target[offset + i] = time;
+        }
+    }
+
+    /**
+     * Decode the values of an element.
+     *
+     * @param element the element ordinal.
+     * @param target the array into which values are decoded.
+     * @param offset the index in {@code target} of the first value.
+     */
+    void decode(final int element, final short[] target, final int offset)
+    {
+        final int width = m_widths[1 + element];
+        int value = m_firstValues[element];
+        if (0 == width)
+        {
+            Arrays.fill(target, offset, offset + m_count, (short) value);
+        }
+        else
+        {
+            final long mask = mask(width);
+            final int base = m_offsets[1 + element];
+            target[offset] = (short) value;
+            for (int i = 1; i < m_count; i++)
+            {
+                final int encoded = (int) unpack(m_words, base, width, mask, i - 1);
+                value += encoded >>> 1 ^ -(encoded & 1);
+                target[offset + i] = (short) value;
+            }
+        }
+    }
+
+    int getCount()
+    {
+        return m_count;
+    }
+
+    long getFirstTime()
+    {
+        return m_firstTime;
+    }
+
+    long getLastTime()
+    {
+        return m_lastTime;
+    }
+
+    /**
+     * Get the approximate size of this chunk on the heap.
+     *
+     * @return {@code int} size in bytes.
+     */
+    int getEncodedBytes()
+    {
+        return 64 + 8 * m_words.length + 2 * m_firstValues.length + m_widths.length + 4 * m_offsets.length;
+    }
+
+    /**
+     * Pack a value into an array of words.
+     *
+     * @param words the words.
+     * @param base the word offset of the column.
+     * @param width the width of each value in the column.
+     * @param index the index of the value in the column.
+     * @param value the value, which fits within the width.
+     */
+    private static void pack(final long[] words, final int base, final int width, final int index, final long value)
+    {
+        if (0 != width)
+        {
+            final long bit = (long) index * width;
+            final int word = base + (int) (bit >>> 6);
+            final int shift = (int) bit & 63;
+            words[word] |= value << shift;
+            if (shift + width > 64)
+            {
+                words[word + 1] |= value >>> 64 - shift;
+            }
+        }
+    }
+
+    /**
+     * Unpack a value from an array of words. The value may straddle two words; the second is always read (the array is
+     * padded so that it exists) and, when the value lies within the first, contributes nothing, so that there is no
+     * branch.
+     *
+     * @param words the words.
+     * @param base the word offset of the column.
+     * @param width the width of each value in the column, which is not zero.
+     * @param mask the mask of the low {@code width} bits.
+     * @param index the index of the value in the column.
+     * @return {@code long} value.
+     */
+    private static long unpack(final long[] words, final int base, final int width, final long mask, final int index)
+    {
+        final long bit = (long) index * width;
+        final int word = base + (int) (bit >>> 6);
+        final int shift = (int) bit & 63;
+        return (words[word] >>> shift | words[word + 1] << 1 << 63 - shift) & mask;
+    }
+
+    private static long mask(final int width)
+    {
+        return 64 == width ? -1L : (1L << width) - 1L;
+    }
+
+    private static long zigzag(final long value)
+    {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long gcd(final long a, final long b)
+    {
+        long x = Math.abs(a);
+        long y = Math.abs(b);
+        while (0L != y)
+        {
+            final long remainder = x % y;
+            x = y;
+            y = remainder;
+        }
+        return x;
+    }
+}
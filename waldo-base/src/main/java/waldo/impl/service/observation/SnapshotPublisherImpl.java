@@ -0,0 +1,231 @@
+package waldo.impl.service.observation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.WritableResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import waldo.Constants;
+import waldo.service.observation.ObservationSnapshotter;
+import waldo.service.observation.ObservationStore;
+import waldo.service.observation.SnapshotException;
+import waldo.service.observation.SnapshotPublisher;
+import waldo.utility.cluster.ChangeNotice;
+import waldo.utility.cluster.ChangeNotifier;
+import waldo.utility.cluster.LeaderElection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link SnapshotPublisherImpl} is the concrete implementation of the {@link SnapshotPublisher} interface. Snapshots
+ * are published under the {@value waldo.Constants.Store#DISTRIBUTION_LOCATION} prefix: each version {@code v} as
+ * {@code v}{@value #SNAPSHOT_SUFFIX}, a gzip-compressed snapshot file in the {@link ObservationSnapshotter} format, and
+ * the latest version name as the text of {@value #LATEST}. Versions are zero-padded publication times, so they sort in
+ * publication order. Locations are resolved through the application context, so any writable resource type may be
+ * used; in deployment that is {@code s3:}.
+ * <p>
+ * Versioned objects are never overwritten, so a reader which has just read the pointer always finds the complete
+ * version it names, even where overwrites are only eventually consistent.
+ * <p>
+ * Each publication is also announced by a {@link ChangeNotice} on the {@value #TOPIC} topic, carrying the new and
+ * previous versions and the stations changed in between, so that subscribers need not wait for their next poll and
+ * need only reload those stations.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active, and only publishes while this node is the acquisition leader.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Publication is serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class SnapshotPublisherImpl implements SnapshotPublisher
+{
+    /**
+     * Name, relative to the distribution location, of the object holding the latest version name.
+     */
+    static final String LATEST = "latest";
+
+    /**
+     * Suffix appended to a version name to form the name, relative to the distribution location, of its snapshot.
+     */
+    static final String SNAPSHOT_SUFFIX = ".snapshot.gz";
+
+    /**
+     * Topic of the change notices which announce each publication.
+     */
+    static final String TOPIC = "store";
+
+    /**
+     * Character set of the text of {@value #LATEST}.
+     */
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotPublisherImpl.class);
+
+    private final ChangeNotifier m_changeNotifier;
+    private final LeaderElection m_leaderElection;
+    private final String m_location;
+    private final ResourceLoader m_resourceLoader;
+    private final ObservationSnapshotter m_snapshotter;
+    private final ObservationStore m_store;
+    private long m_publishedModificationCount = -1L;
+    private long m_publishedVersion;
+
+    /**
+     * Construct a {@link SnapshotPublisherImpl} instance.
+     *
+     * @param store the {@link ObservationStore} component.
+     * @param snapshotter the {@link ObservationSnapshotter} component.
+     * @param leaderElection the {@link LeaderElection} component.
+     * @param changeNotifier the {@link ChangeNotifier} component.
+     * @param resourceLoader the resource loader through which the distribution location is resolved.
+     * @param location the distribution location prefix, or an empty string if distribution is disabled.
+     */
+    @Autowired
+    SnapshotPublisherImpl(final ObservationStore store, final ObservationSnapshotter snapshotter,
+                          final LeaderElection leaderElection, final ChangeNotifier changeNotifier,
+                          final ResourceLoader resourceLoader,
+                          @Value("${" + Constants.Store.DISTRIBUTION_LOCATION + "}") final String location)
+    {
+        super();
+        m_changeNotifier = changeNotifier;
+        m_leaderElection = leaderElection;
+        m_location = location.trim();
+        m_resourceLoader = resourceLoader;
+        m_snapshotter = snapshotter;
+        m_store = store;
+    }
+
+    /**
+     * Publish a snapshot on a schedule; see {@link #publish()}.
+     */
+    @Scheduled(fixedDelayString = "${" + Constants.Store.PUBLISH_INTERVAL + "}")
+    void scheduledPublish()
+    {
+        publish();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String publish() throws SnapshotException
+    {
+        String result = null;
+        final long modificationCount = m_store.getModificationCount();
+        if (!m_location.isEmpty() && modificationCount != m_publishedModificationCount && m_leaderElection.isLeader())
+        {
+            final long version = Math.max(System.currentTimeMillis(), m_publishedVersion + 1L);
+            result = formatVersion(version);
+            try
+            {
+                final File file = File.createTempFile("waldo-snapshot-", ".tmp");
+                try
+                {
+                    final int records = m_snapshotter.save(file);
+                    try (final OutputStream stream = new GZIPOutputStream(
+                            getWritableResource(result + SNAPSHOT_SUFFIX).getOutputStream()))
+                    {
+                        Files.copy(file.toPath(), stream);
+                    }
+                    try (final OutputStream stream = getWritableResource(LATEST).getOutputStream())
+                    {
+                        stream.write(result.getBytes(UTF_8));
+                    }
+                    LOG.info("Published snapshot version {} of {} observation(s) to [{}].", result, records,
+                            m_location);
+                }
+                finally
+                {
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+            catch (final IOException e)
+            {
+                throw new SnapshotException(String.format("An error of type %s occurred while attempting to publish " +
+                        "snapshot version %s to [%s]: %s", e.getClass().getName(), result, m_location,
+                        e.getMessage()), e);
+            }
+            announce(version);
+            m_publishedModificationCount = modificationCount;
+            m_publishedVersion = version;
+        }
+        return result;
+    }
+
+    /**
+     * Format a version name.
+     *
+     * @param version the version.
+     * @return {@link String} version name.
+     */
+    static String formatVersion(final long version)
+    {
+        return String.format("%020d", version);
+    }
+
+    /**
+     * Announce a publication. The stations changed since the previous publication are those modified since its
+     * modification count was read; some of these may already have been in the previous version, which is harmless. A
+     * failure is logged rather than thrown, since subscribers still find the version on their next poll.
+     *
+     * @param version the version published.
+     */
+    private void announce(final long version)
+    {
+        final Set<String> changed = m_publishedModificationCount < 0L ? null :
+                m_store.findModifiedSince(m_publishedModificationCount);
+        final ChangeNotice notice = new ChangeNotice(TOPIC, version, m_publishedVersion, changed);
+        try
+        {
+            m_changeNotifier.publish(notice);
+        }
+        catch (final DataAccessException e)
+        {
+            LOG.warn(String.format("An error of type %s occurred while attempting to announce snapshot version %s; " +
+                    "subscribers will find it on their next poll.", e.getClass().getName(), formatVersion(version)),
+                    e);
+        }
+    }
+
+    /**
+     * Resolve a writable resource relative to the distribution location.
+     *
+     * @param name the name relative to the distribution location.
+     * @return {@link WritableResource} instance.
+     * @throws SnapshotException if the resource type is not writable.
+     */
+    private WritableResource getWritableResource(final String name) throws SnapshotException
+    {
+        final Resource resource = m_resourceLoader.getResource(m_location + name);
+        if (!(resource instanceof WritableResource))
+        {
+            throw new SnapshotException(String.format("Snapshot distribution resource %s is not writable.",
+                    resource));
+        }
+        return (WritableResource) resource;
+    }
+}
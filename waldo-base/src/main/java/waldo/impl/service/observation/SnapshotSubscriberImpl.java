@@ -0,0 +1,319 @@
+package waldo.impl.service.observation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import waldo.Constants;
+import waldo.service.observation.ObservationSnapshotter;
+import waldo.service.observation.ObservationStore;
+import waldo.service.observation.SnapshotException;
+import waldo.service.observation.SnapshotSubscriber;
+import waldo.service.shard.StationSharding;
+import waldo.utility.cluster.ChangeNotice;
+import waldo.utility.cluster.ChangeNotifier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * {@link SnapshotSubscriberImpl} is the concrete implementation of the {@link SnapshotSubscriber} interface, reading
+ * the layout written by {@link SnapshotPublisherImpl}. Each poll reads only the small pointer object; a snapshot is
+ * downloaded only when the pointer names a version other than the one loaded. The download is decompressed to a local
+ * temporary file and verified in full before it replaces the content of the store.
+ * <p>
+ * Only the stations this node owns (see {@link StationSharding}) are loaded. The local copy of the latest snapshot is
+ * kept, so that when the live membership changes the store is rebalanced without another download: stations no longer
+ * owned are discarded, and only the newly owned ones are loaded from the local copy. Until a snapshot has been loaded
+ * under the current membership, the node reports (see {@link #isLoaded()}) that it does not yet hold its share.
+ * <p>
+ * A refresh also runs as soon as a publication is announced (see {@link ChangeNotifier}), rather than at the next
+ * poll. When the announcement names the changed stations and follows on from the version loaded, only those stations
+ * are reloaded, in place; the rest of the store is untouched. Otherwise the whole store is replaced.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is <strong>not</strong> active; acquiring nodes build their store from the journal instead.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Refreshes are serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+@Profile("!" + Constants.Profiles.ACQUISITION_ENABLED)
+class SnapshotSubscriberImpl implements SnapshotSubscriber
+{
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotSubscriberImpl.class);
+
+    private final ChangeNotifier m_changeNotifier;
+    private final Resource m_latest;
+    private final String m_location;
+    private final ResourceLoader m_resourceLoader;
+    private final StationSharding m_sharding;
+    private final ObservationSnapshotter m_snapshotter;
+    private final ObservationStore m_store;
+    private final TaskExecutor m_taskExecutor;
+    private File m_current;
+    private volatile ObservationStore.StationFilter m_filter;
+    private volatile String m_version;
+
+    /**
+     * Construct a {@link SnapshotSubscriberImpl} instance.
+     *
+     * @param store the {@link ObservationStore} component.
+     * @param snapshotter the {@link ObservationSnapshotter} component.
+     * @param sharding the {@link StationSharding} component.
+     * @param changeNotifier the {@link ChangeNotifier} component.
+     * @param taskExecutor the executor on which announced refreshes run.
+     * @param resourceLoader the resource loader through which the distribution location is resolved.
+     * @param location the distribution location prefix, or an empty string if distribution is disabled.
+     */
+    @Autowired
+    SnapshotSubscriberImpl(final ObservationStore store, final ObservationSnapshotter snapshotter,
+                           final StationSharding sharding, final ChangeNotifier changeNotifier,
+                           final TaskExecutor taskExecutor, final ResourceLoader resourceLoader,
+                           @Value("${" + Constants.Store.DISTRIBUTION_LOCATION + "}") final String location)
+    {
+        super();
+        m_changeNotifier = changeNotifier;
+        m_location = location.trim();
+        m_latest = m_location.isEmpty() ? null : resourceLoader.getResource(m_location + SnapshotPublisherImpl.LATEST);
+        m_resourceLoader = resourceLoader;
+        m_sharding = sharding;
+        m_snapshotter = snapshotter;
+        m_store = store;
+        m_taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Listen for announced publications. Each is handled on the task executor, so that the download does not hold up
+     * the delivery of other notices.
+     */
+    @PostConstruct
+    void subscribe()
+    {
+        m_changeNotifier.subscribe(SnapshotPublisherImpl.TOPIC, new ChangeNotifier.Listener()
+        {
+            @Override
+            public void changed(final ChangeNotice notice)
+            {
+                execute(notice);
+            }
+
+            @Override
+            public void missed()
+            {
+                execute(null);
+            }
+        });
+    }
+
+    /**
+     * Refresh from the latest published snapshot on a schedule; see {@link #refresh()}.
+     */
+    @Scheduled(fixedDelayString = "${" + Constants.Store.REFRESH_INTERVAL + "}")
+    void scheduledRefresh()
+    {
+        refresh();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String refresh() throws SnapshotException
+    {
+        return refresh(null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLoaded()
+    {
+        return null == m_latest || null != m_version && m_sharding.getLocalFilter() == m_filter;
+    }
+
+    /**
+     * Refresh from the latest published snapshot.
+     *
+     * @param notice the notice announcing the publication, or {@code null} if none was received.
+     * @return {@link String} version loaded, or {@code null} if the loaded version is already the latest.
+     * @throws SnapshotException if the latest snapshot could not be read or is invalid.
+     */
+    synchronized String refresh(final ChangeNotice notice) throws SnapshotException
+    {
+        String result = null;
+        if (null != m_latest && m_latest.exists())
+        {
+            try
+            {
+                final String version;
+                try (final InputStream stream = m_latest.getInputStream())
+                {
+                    version = StreamUtils.copyToString(stream, SnapshotPublisherImpl.UTF_8).trim();
+                }
+                final ObservationStore.StationFilter filter = m_sharding.getLocalFilter();
+                if (!version.equals(m_version))
+                {
+                    final File file = File.createTempFile("waldo-snapshot-", ".tmp");
+                    File obsolete = file;
+                    try
+                    {
+                        final Resource snapshot = m_resourceLoader.getResource(
+                                m_location + version + SnapshotPublisherImpl.SNAPSHOT_SUFFIX);
+                        try (final InputStream stream = new GZIPInputStream(snapshot.getInputStream()))
+                        {
+                            Files.copy(stream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                        }
+                        if (isIncremental(notice, version, filter))
+                        {
+                            final int records = m_snapshotter.load(file, new ObservationStore.StationFilter()
+                            {
+                                @Override
+                                public boolean accept(final String station)
+                                {
+                                    return notice.affects(station) && filter.accept(station);
+                                }
+                            });
+                            LOG.info("Reloaded {} changed station(s) with {} observation(s) from snapshot version {}.",
+                                    notice.getKeys().size(), records, version);
+                        }
+                        else
+                        {
+                            final int records = m_snapshotter.replace(file, filter);
+                            LOG.info("Loaded snapshot version {} of {} observation(s) from [{}].", version, records,
+                                    m_location);
+                        }
+                        obsolete = m_current;
+                    }
+                    finally
+                    {
+                        if (null != obsolete)
+                        {
+                            Files.deleteIfExists(obsolete.toPath());
+                        }
+                    }
+                    m_current = file;
+                    m_filter = filter;
+                    m_version = version;
+                    result = version;
+                }
+                else if (filter != m_filter)
+                {
+                    rebalance(filter);
+                }
+            }
+            catch (final IOException e)
+            {
+                throw new SnapshotException(String.format("An error of type %s occurred while attempting to load the " +
+                        "latest snapshot from [%s]: %s", e.getClass().getName(), m_location, e.getMessage()), e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Delete the local copy of the latest snapshot.
+     *
+     * @throws IOException if the copy could not be deleted.
+     */
+    @PreDestroy
+    synchronized void close() throws IOException
+    {
+        if (null != m_current)
+        {
+            Files.deleteIfExists(m_current.toPath());
+            m_current = null;
+        }
+    }
+
+    /**
+     * Refresh on the task executor, logging rather than throwing any failure, since the next poll retries.
+     *
+     * @param notice the notice announcing the publication, or {@code null} if notices may have been missed.
+     */
+    private void execute(final ChangeNotice notice)
+    {
+        m_taskExecutor.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    refresh(notice);
+                }
+                catch (final SnapshotException e)
+                {
+                    LOG.warn(e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Determine whether a version can be loaded by reloading only the stations named by its announcement: the notice
+     * must announce this version, name the changed stations, and follow on from the version loaded, and this node must
+     * still own the same stations.
+     *
+     * @param notice the notice, or {@code null}.
+     * @param version the version to be loaded.
+     * @param filter the filter selecting the stations now owned.
+     * @return {@code true} if the version can be loaded incrementally.
+     */
+    private boolean isIncremental(final ChangeNotice notice, final String version,
+                                  final ObservationStore.StationFilter filter)
+    {
+        return null != notice && null != notice.getKeys() && null != m_version && filter == m_filter &&
+                version.equals(SnapshotPublisherImpl.formatVersion(notice.getSequence())) &&
+                m_version.equals(SnapshotPublisherImpl.formatVersion(notice.getPrevious()));
+    }
+
+    /**
+     * Rebalance the store after a membership change: discard the stations no longer owned, and load the newly owned
+     * ones from the local copy of the latest snapshot.
+     *
+     * @param filter the filter selecting the stations now owned.
+     * @throws SnapshotException if the local copy could not be read.
+     */
+    private void rebalance(final ObservationStore.StationFilter filter) throws SnapshotException
+    {
+        final ObservationStore.StationFilter previous = m_filter;
+        final int discarded = m_store.retain(filter);
+        final int records = m_snapshotter.load(m_current, new ObservationStore.StationFilter()
+        {
+            @Override
+            public boolean accept(final String station)
+            {
+                return filter.accept(station) && !previous.accept(station);
+            }
+        });
+        m_filter = filter;
+        LOG.info("Rebalanced after a membership change, discarding {} station(s) and loading {} observation(s).",
+                discarded, records);
+    }
+}
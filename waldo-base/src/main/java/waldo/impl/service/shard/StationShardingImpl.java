@@ -0,0 +1,248 @@
+package waldo.impl.service.shard;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import waldo.Constants;
+import waldo.service.observation.ObservationStore;
+import waldo.service.shard.StationSharding;
+import waldo.utility.cluster.ConsistentHashRing;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@link StationShardingImpl} is the concrete implementation of the {@link StationSharding} interface. The serving
+ * nodes are configured ({@value waldo.Constants.Shard#NODES}); a node is live while it answers {@code GET /_status}
+ * with {@code 200 OK}, which it does only once it has loaded the stations it owns under its current membership (see
+ * {@link waldo.service.observation.SnapshotSubscriber#isLoaded()}), and this node is always live to itself. All nodes
+ * start out presumed live, so that a node starting alongside its peers does not briefly claim their stations.
+ * <p>
+ * Each membership change builds a new {@link ConsistentHashRing} over the live nodes, published through a volatile
+ * field, so lookups never block.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Probes are serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Service
+class StationShardingImpl implements StationSharding
+{
+    private static final Logger LOG = LoggerFactory.getLogger(StationShardingImpl.class);
+
+    private final HttpClient m_httpClient;
+    private final String m_localNode;
+    private final Set<String> m_nodes;
+    private final int m_replicationFactor;
+    private final int m_virtualNodes;
+    private volatile Ownership m_ownership;
+
+    /**
+     * Construct a {@link StationShardingImpl} instance.
+     *
+     * @param httpClient the {@link HttpClient} component used for requests between nodes.
+     * @param nodes the comma-delimited base URLs of all serving nodes, or an empty string if stations are not
+     * partitioned.
+     * @param localNode the base URL of this node.
+     * @param virtualNodes the number of points at which each node is placed on the ring.
+     * @param replicationFactor the number of live nodes which hold each station.
+     * @throws IllegalArgumentException if the configuration is inconsistent.
+     */
+    @Autowired
+    StationShardingImpl(@Qualifier("peerHttpClient") final HttpClient httpClient,
+                        @Value("${" + Constants.Shard.NODES + "}") final String nodes,
+                        @Value("${" + Constants.Shard.NODE + ":}") final String localNode,
+                        @Value("${" + Constants.Shard.VIRTUAL_NODES + "}") final int virtualNodes,
+                        @Value("${" + Constants.Shard.REPLICATION_FACTOR + "}") final int replicationFactor)
+            throws IllegalArgumentException
+    {
+        super();
+        m_httpClient = httpClient;
+        m_nodes = Collections.unmodifiableSet(
+                new TreeSet<>(StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(nodes))));
+        m_localNode = m_nodes.isEmpty() ? null : localNode.trim();
+        m_replicationFactor = replicationFactor;
+        m_virtualNodes = virtualNodes;
+        if (null != m_localNode && !m_nodes.contains(m_localNode))
+        {
+            throw new IllegalArgumentException(String.format("Local node [%s] is not among the configured nodes %s.",
+                    m_localNode, m_nodes));
+        }
+        if (replicationFactor < 1)
+        {
+            throw new IllegalArgumentException(String.format("Replication factor %d is not positive.",
+                    replicationFactor));
+        }
+        m_ownership = new Ownership(new ConsistentHashRing(m_nodes, virtualNodes));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getLocalNode()
+    {
+        return m_localNode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getLiveNodes()
+    {
+        return m_ownership.m_ring.getNodes();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> getOwners(final String station)
+    {
+        return m_ownership.getOwners(station);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLocal(final String station)
+    {
+        return m_ownership.accept(station);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ObservationStore.StationFilter getLocalFilter()
+    {
+        return null == m_localNode ? ObservationStore.StationFilter.ALL : m_ownership;
+    }
+
+    /**
+     * Probe the other nodes on a schedule; see {@link #probe()}.
+     */
+    @Scheduled(fixedDelayString = "${" + Constants.Shard.PROBE_INTERVAL + "}")
+    void scheduledProbe()
+    {
+        probe();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean probe()
+    {
+        boolean result = false;
+        if (null != m_localNode)
+        {
+            final Set<String> live = new LinkedHashSet<>();
+            for (final String node : m_nodes)
+            {
+                if (node.equals(m_localNode) || isAlive(node))
+                {
+                    live.add(node);
+                }
+            }
+            final Set<String> previous = m_ownership.m_ring.getNodes();
+            if (!previous.equals(live))
+            {
+                m_ownership = new Ownership(new ConsistentHashRing(live, m_virtualNodes));
+                LOG.info("Live serving nodes changed from {} to {}.", previous, live);
+                result = true;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determine whether another node is live.
+     *
+     * @param node the node identifier (base URL.)
+     * @return {@code true} if the node answered its status request with {@code 200 OK}, showing that it holds the
+     * stations it owns.
+     */
+    boolean isAlive(final String node)
+    {
+        boolean result = false;
+        final HttpGet get = new HttpGet(node + "/_status");
+        try
+        {
+            final HttpResponse response = m_httpClient.execute(get);
+            result = HttpStatus.SC_OK == response.getStatusLine().getStatusCode();
+            EntityUtils.consumeQuietly(response.getEntity());
+        }
+        catch (final IOException e)
+        {
+            LOG.debug(String.format("Node [%s] did not answer its status request.", node), e);
+            get.abort();
+        }
+        return result;
+    }
+
+    /**
+     * {@link Ownership} is the assignment of stations to nodes under one live membership, and selects the stations
+     * this node owns under it.
+     */
+    private final class Ownership implements ObservationStore.StationFilter
+    {
+        private final ConsistentHashRing m_ring;
+
+        /**
+         * Construct an {@link Ownership} instance.
+         *
+         * @param ring the ring over the live nodes.
+         */
+        Ownership(final ConsistentHashRing ring)
+        {
+            super();
+            m_ring = ring;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean accept(final String station)
+        {
+            return null == m_localNode || getOwners(station).contains(m_localNode);
+        }
+
+        /**
+         * Get the owners of a station.
+         *
+         * @param station the station identifier.
+         * @return {@link List} of node identifiers, primary owner first.
+         */
+        List<String> getOwners(final String station)
+        {
+            return m_ring.getOwners(station, m_replicationFactor);
+        }
+    }
+}
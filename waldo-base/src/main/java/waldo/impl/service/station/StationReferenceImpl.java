@@ -0,0 +1,142 @@
+package waldo.impl.service.station;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import waldo.service.station.StationMetadata;
+import waldo.service.station.StationReference;
+import waldo.utility.station.StationDictionary;
+import waldo.utility.station.StationTable;
+
+import java.util.Collection;
+
+/**
+ * {@link StationReferenceImpl} is the concrete implementation of the {@link StationReference} interface. The metadata
+ * is held in an immutable {@link Table}, a {@link StationTable} indexed by dense station identifier together with its
+ * version, which is built in full and then published through a single volatile reference. A new table is compared with
+ * the one held before it is published; if every station's metadata is the same, it is discarded and the version is left
+ * unchanged.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Reads take no lock;
+ * replacements are serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+class StationReferenceImpl implements StationReference
+{
+    private static final Logger LOG = LoggerFactory.getLogger(StationReferenceImpl.class);
+    private static final StationDictionary s_stations = StationDictionary.getInstance();
+
+    private volatile Table m_table = new Table(0L, new StationTable<StationMetadata>());
+
+    /**
+     * Construct a {@link StationReferenceImpl} instance.
+     */
+    StationReferenceImpl()
+    {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StationMetadata find(final String station)
+    {
+        final int id = s_stations.find(station);
+        return id < 0 ? null : m_table.m_stations.get(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StationMetadata get(final int id)
+    {
+        return m_table.m_stations.get(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getVersion()
+    {
+        return m_table.m_version;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean replace(final Collection<StationMetadata> stations)
+    {
+        final Table current = m_table;
+        final StationTable<StationMetadata> table = new StationTable<>();
+        for (final StationMetadata metadata : stations)
+        {
+            table.put(s_stations.intern(metadata.getStation()), metadata);
+        }
+        final boolean result = !current.holds(table);
+        if (result)
+        {
+            m_table = new Table(current.m_version + 1L, table);
+            LOG.info("Station reference data changed; now holding {} station(s) at version {}.", table.size(),
+                    current.m_version + 1L);
+        }
+        return result;
+    }
+
+    /**
+     * {@link Table} is a version of the reference data.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded
+     * access, provided the table they are given is not modified afterward.
+     */
+    private static final class Table
+    {
+        private final StationTable<StationMetadata> m_stations;
+        private final long m_version;
+
+        /**
+         * Construct a {@link Table} instance.
+         *
+         * @param version the version.
+         * @param stations the station metadata, indexed by dense station identifier.
+         */
+        private Table(final long version, final StationTable<StationMetadata> stations)
+        {
+            super();
+            m_stations = stations;
+            m_version = version;
+        }
+
+        /**
+         * Determine whether this table holds the same metadata as another.
+         *
+         * @param other the other table.
+         * @return {@code boolean} true if both hold the same stations, each with equal metadata.
+         */
+        private boolean holds(final StationTable<StationMetadata> other)
+        {
+            boolean result = m_stations.size() == other.size();
+            final int limit = Math.max(m_stations.getLimit(), other.getLimit());
+            for (int id = 0; result && id < limit; id++)
+            {
+                final StationMetadata metadata = m_stations.get(id);
+                result = null == metadata ? null == other.get(id) : metadata.equals(other.get(id));
+            }
+            return result;
+        }
+    }
+}
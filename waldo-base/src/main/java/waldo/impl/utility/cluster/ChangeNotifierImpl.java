@@ -0,0 +1,256 @@
+package waldo.impl.utility.cluster;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.utility.cluster.ChangeNotice;
+import waldo.utility.cluster.ChangeNotifier;
+import waldo.utility.database.DedicatedConnectionFactory;
+
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ChangeNotifierImpl} is the concrete implementation of the {@link ChangeNotifier} interface, built on
+ * PostgreSQL {@code LISTEN}/{@code NOTIFY}. Notices are sent with {@code pg_notify} on a pooled connection, so that
+ * they take part in the caller's transaction. They are received on a dedicated connection, opened outside the pool
+ * through the {@link DedicatedConnectionFactory}, since a listening session must stay open and a pooled connection
+ * would be handed to other callers (and could be retired by the pool) in between polls.
+ * <p>
+ * The driver reads notifications only while executing a statement, so each poll executes a trivial query before
+ * collecting them. If the connection fails it is closed, and the next poll opens a new one and tells every listener
+ * that notices may have been missed.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Polls are serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+class ChangeNotifierImpl implements ChangeNotifier
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeNotifierImpl.class);
+
+    private static final Pattern s_channelPattern = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final String s_notifySql = "SELECT pg_notify(?, ?)";
+    private static final String s_pollSql = "SELECT 1";
+
+    private final String m_channel;
+    private final DedicatedConnectionFactory m_connectionFactory;
+    private final JdbcOperations m_jdbcOperations;
+    private final ConcurrentMap<String, List<Listener>> m_listeners = new ConcurrentHashMap<>();
+    private Connection m_connection;
+
+    /**
+     * Construct a {@link ChangeNotifierImpl} instance.
+     *
+     * @param connectionFactory the {@link DedicatedConnectionFactory} component.
+     * @param jdbcOperations the {@link JdbcOperations} component.
+     * @param channel the notification channel.
+     * @throws IllegalArgumentException if the channel is not a lower case SQL identifier.
+     */
+    @Autowired
+    ChangeNotifierImpl(final DedicatedConnectionFactory connectionFactory, final JdbcOperations jdbcOperations,
+                       @Value("${" + Constants.Cluster.NOTIFY_CHANNEL + "}") final String channel)
+            throws IllegalArgumentException
+    {
+        super();
+        if (!s_channelPattern.matcher(channel).matches())
+        {
+            throw new IllegalArgumentException(String.format("Notification channel [%s] is not a lower case SQL " +
+                    "identifier.", channel));
+        }
+        m_channel = channel;
+        m_connectionFactory = connectionFactory;
+        m_jdbcOperations = jdbcOperations;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(final ChangeNotice notice)
+    {
+        m_jdbcOperations.queryForList(s_notifySql, m_channel, notice.encode());
+        LOG.debug("Sent change notice {}.", notice);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void subscribe(final String topic, final Listener listener)
+    {
+        List<Listener> listeners = m_listeners.get(topic);
+        if (null == listeners)
+        {
+            final List<Listener> created = new CopyOnWriteArrayList<>();
+            listeners = m_listeners.putIfAbsent(topic, created);
+            if (null == listeners)
+            {
+                listeners = created;
+            }
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Poll for notices on a schedule; see {@link #poll()}.
+     */
+    @Scheduled(fixedDelayString = "${" + Constants.Cluster.NOTIFY_POLL_INTERVAL + "}")
+    void scheduledPoll()
+    {
+        poll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized int poll()
+    {
+        int result = 0;
+        try
+        {
+            if (null == m_connection)
+            {
+                listen();
+            }
+            final PGNotification[] notifications;
+            try (final Statement statement = m_connection.createStatement())
+            {
+                statement.executeQuery(s_pollSql).close();
+                notifications = m_connection.unwrap(PGConnection.class).getNotifications();
+            }
+            if (null != notifications)
+            {
+                for (final PGNotification notification : notifications)
+                {
+                    dispatch(notification.getParameter());
+                }
+                result = notifications.length;
+            }
+        }
+        catch (final SQLException e)
+        {
+            LOG.warn(String.format("An error of type %s occurred while attempting to receive change notices on " +
+                    "channel %s; notices may be missed until the connection is reopened.", e.getClass().getName(),
+                    m_channel), e);
+            close();
+        }
+        return result;
+    }
+
+    /**
+     * Close the listening connection, if open.
+     */
+    @PreDestroy
+    synchronized void close()
+    {
+        if (null != m_connection)
+        {
+            try
+            {
+                m_connection.close();
+            }
+            catch (final SQLException e)
+            {
+                LOG.debug("Ignoring error closing change notice connection.", e);
+            }
+            m_connection = null;
+        }
+    }
+
+    /**
+     * Open the listening connection, and tell every listener that notices may have been missed while it was closed.
+     *
+     * @throws SQLException if the connection could not be opened.
+     */
+    private void listen() throws SQLException
+    {
+        final Connection connection = m_connectionFactory.openConnection();
+        try (final Statement statement = connection.createStatement())
+        {
+            statement.execute("LISTEN " + m_channel);
+        }
+        catch (final SQLException e)
+        {
+            connection.close();
+            throw e;
+        }
+        m_connection = connection;
+        LOG.info("Listening for change notices on channel {}.", m_channel);
+        for (final Map.Entry<String, List<Listener>> entry : m_listeners.entrySet())
+        {
+            for (final Listener listener : entry.getValue())
+            {
+                try
+                {
+                    listener.missed();
+                }
+                catch (final RuntimeException e)
+                {
+                    LOG.warn(String.format("An error of type %s occurred while attempting to resynchronize listener " +
+                            "%s of topic %s.", e.getClass().getName(), listener, entry.getKey()), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pass a received notice to the listeners of its topic.
+     *
+     * @param payload the notification payload.
+     */
+    private void dispatch(final String payload)
+    {
+        ChangeNotice notice = null;
+        try
+        {
+            notice = ChangeNotice.decode(payload);
+        }
+        catch (final IllegalArgumentException e)
+        {
+            LOG.warn(e.getMessage());
+        }
+        final List<Listener> listeners = null == notice ? null : m_listeners.get(notice.getTopic());
+        if (null != listeners)
+        {
+            for (final Listener listener : listeners)
+            {
+                try
+                {
+                    listener.changed(notice);
+                }
+                catch (final RuntimeException e)
+                {
+                    LOG.warn(String.format("An error of type %s occurred while attempting to deliver change notice " +
+                            "%s to listener %s.", e.getClass().getName(), notice, listener), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package waldo.impl.utility.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import waldo.Constants;
+import waldo.utility.cluster.ClusterMembership;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@link ClusterMembershipImpl} is the concrete implementation of the {@link ClusterMembership} interface. The node
+ * identifier is taken from the {@value waldo.Constants.Cluster#NODE_ID} configuration item if set, and otherwise is the
+ * JVM name ({@code pid@host}.) The live node list is cached for one heartbeat interval, since membership cannot be
+ * known more precisely than that anyway.
+ * <p>
+ * Membership queries must see the latest heartbeats, so they run in read-write transactions (which are served by the
+ * primary database) rather than read-only ones (which may be served by a replica.)
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active; only acquiring nodes are members.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class ClusterMembershipImpl implements ClusterMembership
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ClusterMembershipImpl.class);
+
+    private static final String s_insertSql = "INSERT INTO CLUSTER_NODE (NODE_ID, HEARTBEAT_AT) VALUES (?, now())";
+    private static final String s_liveSql =
+            "SELECT NODE_ID FROM CLUSTER_NODE WHERE HEARTBEAT_AT > now() - ? * INTERVAL '1 millisecond'";
+    private static final String s_updateSql = "UPDATE CLUSTER_NODE SET HEARTBEAT_AT = now() WHERE NODE_ID = ?";
+
+    private final long m_heartbeatInterval;
+    private final long m_heartbeatTimeout;
+    private final JdbcOperations m_jdbcOperations;
+    private final String m_nodeId;
+    private Set<String> m_liveNodes;
+    private long m_liveNodesExpire;
+
+    /**
+     * Construct a {@link ClusterMembershipImpl} instance.
+     *
+     * @param jdbcOperations the {@link JdbcOperations} component.
+     * @param nodeId the configured node identifier, or an empty string to use the JVM name.
+     * @param heartbeatInterval the heartbeat interval, in milliseconds.
+     * @param heartbeatTimeout the age, in milliseconds, after which a node's last heartbeat no longer marks it live.
+     * @throws IllegalArgumentException if {@code heartbeatTimeout} is not greater than {@code heartbeatInterval}.
+     */
+    @Autowired
+    ClusterMembershipImpl(final JdbcOperations jdbcOperations,
+                          @Value("${" + Constants.Cluster.NODE_ID + ":}") final String nodeId,
+                          @Value("${" + Constants.Cluster.HEARTBEAT_INTERVAL + "}") final long heartbeatInterval,
+                          @Value("${" + Constants.Cluster.HEARTBEAT_TIMEOUT + "}") final long heartbeatTimeout)
+            throws IllegalArgumentException
+    {
+        super();
+        if (heartbeatTimeout <= heartbeatInterval)
+        {
+            throw new IllegalArgumentException(String.format("Heartbeat timeout %d is not greater than heartbeat " +
+                    "interval %d.", heartbeatTimeout, heartbeatInterval));
+        }
+        m_heartbeatInterval = heartbeatInterval;
+        m_heartbeatTimeout = heartbeatTimeout;
+        m_jdbcOperations = jdbcOperations;
+        m_nodeId = StringUtils.hasText(nodeId) ? nodeId.trim() : ManagementFactory.getRuntimeMXBean().getName();
+        LOG.info("Cluster node identifier is [{}].", m_nodeId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getNodeId()
+    {
+        return m_nodeId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public synchronized Set<String> getLiveNodes()
+    {
+        final long now = System.currentTimeMillis();
+        if (null == m_liveNodes || now >= m_liveNodesExpire)
+        {
+            final Set<String> liveNodes = new HashSet<>(m_jdbcOperations.queryForList(s_liveSql, String.class,
+                    m_heartbeatTimeout));
+            liveNodes.add(m_nodeId);
+            if (!liveNodes.equals(m_liveNodes))
+            {
+                LOG.info("Live cluster nodes are now {}.", liveNodes);
+            }
+            m_liveNodes = Collections.unmodifiableSet(liveNodes);
+            m_liveNodesExpire = now + m_heartbeatInterval;
+        }
+        return m_liveNodes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${" + Constants.Cluster.HEARTBEAT_INTERVAL + "}")
+    @Transactional
+    public void heartbeat()
+    {
+        /* Only this node writes its own row, so update-then-insert cannot race. */
+        if (0 == m_jdbcOperations.update(s_updateSql, m_nodeId))
+        {
+            m_jdbcOperations.update(s_insertSql, m_nodeId);
+            LOG.info("Node [{}] joined the cluster.", m_nodeId);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package waldo.impl.utility.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.utility.cluster.LeaderElection;
+import waldo.utility.database.DedicatedConnectionFactory;
+
+import javax.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link LeaderElectionImpl} is the concrete implementation of the {@link LeaderElection} interface. The leader lease is
+ * a PostgreSQL session-level advisory lock on the {@value waldo.Constants.Cluster#LEADER_LOCK_KEY} key, held on a
+ * dedicated (unpooled) connection. No external coordinator is needed: the database grants the lock to at most one
+ * session, and releases it as soon as that session ends, whether by {@link #resign()}, by process exit, or by the
+ * server detecting a dead client.
+ * <p>
+ * The server detects a dead client (a crashed host, or one cut off by a network partition) only when its own TCP
+ * keepalive probes go unanswered. Left to the operating system's defaults that takes about two hours, during which no
+ * other node can take the lease; the {@link DedicatedConnectionFactory} therefore sets the session's keepalive
+ * parameters ({@value waldo.Constants.Cluster#KEEPALIVE_IDLE} and related settings), which bound the takeover time.
+ * <p>
+ * A node which does not hold the lease keeps its connection open and retries the lock on each check. A node which holds
+ * the lease verifies on each check that its session still exists and still holds the lock; if the connection has
+ * failed it relinquishes leadership immediately, since the server will release the lock to another node once it has
+ * detected that the session is dead.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. All access to the
+ * connection is serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+class LeaderElectionImpl implements LeaderElection
+{
+    private static final Logger LOG = LoggerFactory.getLogger(LeaderElectionImpl.class);
+
+    private static final int QUERY_TIMEOUT_SECONDS = 10;
+    private static final String s_lockSql = "SELECT pg_try_advisory_lock(?)";
+    private static final String s_unlockSql = "SELECT pg_advisory_unlock(?)";
+
+    /* A bigint advisory lock key is split across classid (high word) and objid (low word), with objsubid 1. */
+    private static final String s_verifySql = "SELECT EXISTS (SELECT 1 FROM pg_locks WHERE locktype = 'advisory' " +
+            "AND pid = pg_backend_pid() AND granted AND objsubid = 1 AND classid::bigint = ? AND objid::bigint = ?)";
+
+    private final DedicatedConnectionFactory m_connectionFactory;
+    private final long m_lockKey;
+    private Connection m_connection;
+    private boolean m_leader;
+
+    /**
+     * Construct a {@link LeaderElectionImpl} instance.
+     *
+     * @param connectionFactory the {@link DedicatedConnectionFactory} component.
+     * @param lockKey the advisory lock key which represents the leader lease.
+     */
+    @Autowired
+    LeaderElectionImpl(final DedicatedConnectionFactory connectionFactory,
+                       @Value("${" + Constants.Cluster.LEADER_LOCK_KEY + "}") final long lockKey)
+    {
+        super();
+        m_connectionFactory = connectionFactory;
+        m_lockKey = lockKey;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean isLeader()
+    {
+        try
+        {
+            if (null == m_connection)
+            {
+                m_connection = m_connectionFactory.openConnection();
+            }
+            if (m_leader)
+            {
+                if (!verifyLock())
+                {
+                    LOG.warn("Leader lock {} is no longer held by this node; relinquishing leadership.", m_lockKey);
+                    m_leader = false;
+                }
+            }
+            else if (m_leader = tryLock())
+            {
+                LOG.info("Acquired leader lock {}; this node is now the leader.", m_lockKey);
+            }
+        }
+        catch (final SQLException e)
+        {
+            /* The connection has failed; the server releases the lock when it notices, so we cannot rely on it. */
+            LOG.warn(String.format("An error of type %s occurred while attempting to check leader lock %d; this node " +
+                    "is not the leader until the check succeeds.", e.getClass().getName(), m_lockKey), e);
+            closeConnection();
+        }
+        return m_leader;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @PreDestroy
+    public synchronized void resign()
+    {
+        if (m_leader)
+        {
+            try
+            {
+                execute(s_unlockSql, m_lockKey);
+                LOG.info("Released leader lock {}.", m_lockKey);
+            }
+            catch (final SQLException e)
+            {
+                LOG.warn(String.format("An error of type %s occurred while attempting to release leader lock %d; it " +
+                        "will be released when the session is closed.", e.getClass().getName(), m_lockKey), e);
+            }
+        }
+        closeConnection();
+    }
+
+    /**
+     * Attempt to take the advisory lock without waiting.
+     *
+     * @return {@code true} if the lock was granted.
+     * @throws SQLException if a database error occurs.
+     */
+    private boolean tryLock() throws SQLException
+    {
+        return execute(s_lockSql, m_lockKey);
+    }
+
+    /**
+     * Verify that this session still holds the advisory lock.
+     *
+     * @return {@code true} if the lock is held.
+     * @throws SQLException if a database error occurs.
+     */
+    private boolean verifyLock() throws SQLException
+    {
+        return execute(s_verifySql, m_lockKey >>> 32, m_lockKey & 0xffffffffL);
+    }
+
+    /**
+     * Execute a single-row, single-column query on the dedicated connection.
+     *
+     * @param sql the query.
+     * @param parameters the query parameters.
+     * @return {@code boolean} value of the first column.
+     * @throws SQLException if a database error occurs.
+     */
+    private boolean execute(final String sql, final long... parameters) throws SQLException
+    {
+        final boolean result;
+        try (final PreparedStatement statement = m_connection.prepareStatement(sql))
+        {
+            statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            for (int i = 0; i < parameters.length; i++)
+            {
+                statement.setLong(i + 1, parameters[i]);
+            }
+            try (final ResultSet resultSet = statement.executeQuery())
+            {
+                result = resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Close the dedicated connection, if open, and relinquish leadership. Closing the session releases the lock.
+     */
+    private void closeConnection()
+    {
+        m_leader = false;
+        if (null != m_connection)
+        {
+            try
+            {
+                m_connection.close();
+            }
+            catch (final SQLException e)
+            {
+                LOG.debug("Ignoring error closing leader election connection.", e);
+            }
+            m_connection = null;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package waldo.impl.utility.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import waldo.Constants;
+import waldo.utility.cluster.ClusterMembership;
+import waldo.utility.cluster.RendezvousHash;
+import waldo.utility.cluster.WorkCoordinator;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link WorkCoordinatorImpl} is the concrete implementation of the {@link WorkCoordinator} interface. Claims are rows
+ * of the {@code WORK_CLAIM} table. Each claim decision reads and writes a unit's row under a transaction-scoped
+ * advisory lock on its key, so that two nodes with momentarily different views of the membership cannot both claim
+ * the same unit.
+ * <p>
+ * A unit first seen by a node other than its owner is recorded as <em>offered</em> to the owner ({@code ATTEMPTS} is
+ * {@code 0}), with a deadline. The owner may never claim it, for example if it imports a different format or has no
+ * parser for the unit, so an offer whose deadline passes is taken by the next node to ask for it, which by asking has
+ * shown that it can process the unit. Likewise, a claim which has expired and has not been taken by its next-ranked
+ * node within a further deadline is taken by any node which asks for it.
+ * <p>
+ * <strong>Availability:</strong> This component is only enabled when the {@link Constants.Profiles#ACQUISITION_ENABLED}
+ * profile is active.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+@Profile(Constants.Profiles.ACQUISITION_ENABLED)
+class WorkCoordinatorImpl implements WorkCoordinator
+{
+    private static final Logger LOG = LoggerFactory.getLogger(WorkCoordinatorImpl.class);
+
+    /* First word of the two-word advisory lock keys taken on claims; the second is a hash of the unit key. */
+    private static final int CLAIM_LOCK_CLASS = 0x57434c4d;
+
+    private static final String s_completeSql =
+            "UPDATE WORK_CLAIM SET COMPLETED_AT = now() WHERE WORK_KEY = ? AND OWNER = ?";
+    private static final String s_acceptSql = "UPDATE WORK_CLAIM SET DEADLINE = now() + ? * " +
+            "INTERVAL '1 millisecond', ATTEMPTS = 1 WHERE WORK_KEY = ?";
+    private static final String s_insertSql = "INSERT INTO WORK_CLAIM (WORK_KEY, OWNER, DEADLINE) " +
+            "VALUES (?, ?, now() + ? * INTERVAL '1 millisecond')";
+    private static final String s_offerSql = "INSERT INTO WORK_CLAIM (WORK_KEY, OWNER, DEADLINE, ATTEMPTS) " +
+            "VALUES (?, ?, now() + ? * INTERVAL '1 millisecond', 0)";
+    private static final String s_lockSql = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(?, hashtext(?))) l";
+    private static final String s_pruneClaimsSql =
+            "DELETE FROM WORK_CLAIM WHERE CREATED_AT < now() - ? * INTERVAL '1 millisecond'";
+    private static final String s_pruneNodesSql =
+            "DELETE FROM CLUSTER_NODE WHERE HEARTBEAT_AT < now() - ? * INTERVAL '1 millisecond'";
+    private static final String s_reassignSql = "UPDATE WORK_CLAIM SET OWNER = ?, DEADLINE = now() + ? * " +
+            "INTERVAL '1 millisecond', ATTEMPTS = ATTEMPTS + 1 WHERE WORK_KEY = ?";
+    private static final String s_selectSql = "SELECT OWNER, COMPLETED_AT IS NOT NULL, DEADLINE < now(), " +
+            "ATTEMPTS = 0, DEADLINE < now() - ? * INTERVAL '1 millisecond' FROM WORK_CLAIM WHERE WORK_KEY = ?";
+
+    private final long m_deadline;
+    private final JdbcOperations m_jdbcOperations;
+    private final ClusterMembership m_membership;
+    private final long m_retention;
+
+    /**
+     * Construct a {@link WorkCoordinatorImpl} instance.
+     *
+     * @param jdbcOperations the {@link JdbcOperations} component.
+     * @param membership the {@link ClusterMembership} component.
+     * @param deadline the time allowed, in milliseconds, to complete a unit of work after claiming it.
+     * @param retention the age, in milliseconds, after which claims and departed nodes are pruned.
+     */
+    @Autowired
+    WorkCoordinatorImpl(final JdbcOperations jdbcOperations, final ClusterMembership membership,
+                        @Value("${" + Constants.Cluster.WORK_DEADLINE + "}") final long deadline,
+                        @Value("${" + Constants.Cluster.WORK_RETENTION + "}") final long retention)
+    {
+        super();
+        m_deadline = deadline;
+        m_jdbcOperations = jdbcOperations;
+        m_membership = membership;
+        m_retention = retention;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public boolean claim(final String key)
+    {
+        final String nodeId = m_membership.getNodeId();
+        final Set<String> liveNodes = m_membership.getLiveNodes();
+        m_jdbcOperations.queryForObject(s_lockSql, Integer.class, CLAIM_LOCK_CLASS, key);
+        final List<Claim> claims = m_jdbcOperations.query(s_selectSql, Claim.MAPPER, m_deadline, key);
+        final boolean result;
+        if (claims.isEmpty())
+        {
+            /* Unclaimed; the owner among the live nodes claims it, and any other node offers it to the owner. */
+            final String owner = RendezvousHash.owner(key, liveNodes);
+            result = nodeId.equals(owner);
+            m_jdbcOperations.update(result ? s_insertSql : s_offerSql, key, owner, m_deadline);
+        }
+        else
+        {
+            final Claim claim = claims.get(0);
+            if (claim.m_completed || (!claim.m_expired && !(claim.m_offered && nodeId.equals(claim.m_owner))))
+            {
+                /* Done, or still within its deadline and not offered to this node. */
+                result = false;
+            }
+            else if (!claim.m_expired)
+            {
+                /* Offered to this node, which now claims it. */
+                result = true;
+                m_jdbcOperations.update(s_acceptSql, m_deadline, key);
+            }
+            else if (claim.m_offered || claim.m_abandoned)
+            {
+                /* Never claimed by its owner, or not taken by the next-ranked node; this node can process it. */
+                result = true;
+                m_jdbcOperations.update(s_reassignSql, nodeId, m_deadline, key);
+                LOG.info("Took over work [{}], which node [{}] did not {}.", key, claim.m_owner, claim.m_offered ?
+                        "claim" : "complete");
+            }
+            else
+            {
+                /* Deadline missed; reassign away from the claimant, unless no other node is live to take it. */
+                final Set<String> candidates = new HashSet<>(liveNodes);
+                candidates.remove(claim.m_owner);
+                result = nodeId.equals(RendezvousHash.owner(key, candidates.isEmpty() ? liveNodes : candidates));
+                if (result)
+                {
+                    m_jdbcOperations.update(s_reassignSql, nodeId, m_deadline, key);
+                    LOG.info("Reassigned work [{}] from node [{}], which missed its deadline, to this node.", key,
+                            claim.m_owner);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void complete(final String key)
+    {
+        if (0 == m_jdbcOperations.update(s_completeSql, key, m_membership.getNodeId()))
+        {
+            LOG.warn("Work [{}] was completed after it had been reassigned to another node.", key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public void prune()
+    {
+        final int claims = m_jdbcOperations.update(s_pruneClaimsSql, m_retention);
+        final int nodes = m_jdbcOperations.update(s_pruneNodesSql, m_retention);
+        LOG.debug("Pruned {} work claim(s) and {} departed node(s).", claims, nodes);
+    }
+
+    /**
+     * {@link Claim} is the state of an existing claim on a unit of work.
+     */
+    static final class Claim
+    {
+        static final RowMapper<Claim> MAPPER = new RowMapper<Claim>()
+        {
+            /** {@inheritDoc} */
+            @Override
+            public Claim mapRow(final ResultSet resultSet, final int rowNum) throws SQLException
+            {
+                return new Claim(resultSet.getString(1), resultSet.getBoolean(2), resultSet.getBoolean(3),
+                        resultSet.getBoolean(4), resultSet.getBoolean(5));
+            }
+        };
+
+        final boolean m_abandoned;
+        final boolean m_completed;
+        final boolean m_expired;
+        final boolean m_offered;
+        final String m_owner;
+
+        /**
+         * Construct a {@link Claim} instance.
+         *
+         * @param owner the identifier of the claimant node.
+         * @param completed flag indicating whether the unit has been completed.
+         * @param expired flag indicating whether the claim's deadline has passed.
+         * @param offered flag indicating whether the unit has only been offered to {@code owner}, not claimed.
+         * @param abandoned flag indicating whether the claim's deadline passed more than a further deadline ago.
+         */
+        Claim(final String owner, final boolean completed, final boolean expired, final boolean offered,
+              final boolean abandoned)
+        {
+            super();
+            m_abandoned = abandoned;
+            m_completed = completed;
+            m_expired = expired;
+            m_offered = offered;
+            m_owner = owner;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package waldo.impl.utility.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.stereotype.Component;
+import waldo.Constants;
+import waldo.utility.database.IdAllocator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * {@link IdAllocatorImpl} is the concrete implementation of the {@link IdAllocator} interface. It uses the same
+ * {@code pooled-lo} semantics as the Hibernate generator declared on {@link waldo.entity.AbstractEntity}: each value
+ * {@code v} returned by the {@value waldo.Constants.Database#ID_SEQUENCE} sequence grants exclusive ownership of the
+ * identifiers {@code [v, v + increment)}. To satisfy a configurable block size larger than the sequence increment, it
+ * draws as many sequence values as required in a single query.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Allocation is serialized;
+ * a thread which finds the held block exhausted refills it while other threads wait, since they would need the refill
+ * anyway.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+class IdAllocatorImpl implements IdAllocator
+{
+    private static final Logger LOG = LoggerFactory.getLogger(IdAllocatorImpl.class);
+
+    private static final int s_increment = Integer.parseInt(Constants.Database.ID_SEQUENCE_INCREMENT);
+    private static final String s_reserveSql =
+            String.format("SELECT nextval('%s') FROM generate_series(1, ?)", Constants.Database.ID_SEQUENCE);
+
+    private final JdbcOperations m_jdbcOperations;
+    private final int m_incrementsPerReservation;
+    private final Deque<Long> m_reserved = new ArrayDeque<>();
+    private long m_next;
+    private long m_limit;
+
+    /**
+     * Construct a {@link IdAllocatorImpl} instance.
+     *
+     * @param jdbcOperations the {@link JdbcOperations} component.
+     * @param blockSize the minimum number of identifiers to reserve per database round trip.
+     * @throws IllegalArgumentException if {@code blockSize} is less than one.
+     */
+    @Autowired
+    IdAllocatorImpl(final JdbcOperations jdbcOperations,
+                    @Value("${" + Constants.Database.ID_BLOCK_SIZE + "}") final int blockSize)
+            throws IllegalArgumentException
+    {
+        super();
+        if (blockSize < 1)
+        {
+            throw new IllegalArgumentException(String.format("Block size %d is less than one.", blockSize));
+        }
+        m_jdbcOperations = jdbcOperations;
+        m_incrementsPerReservation = incrementsFor(blockSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long allocate()
+    {
+        if (m_next == m_limit)
+        {
+            nextBlock(1);
+        }
+        return m_next++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long[] allocate(final int count) throws IllegalArgumentException
+    {
+        if (count < 0)
+        {
+            throw new IllegalArgumentException(String.format("Count %d is negative.", count));
+        }
+        final long[] result = new long[count];
+        int filled = 0;
+        while (filled < count)
+        {
+            if (m_next == m_limit)
+            {
+                nextBlock(count - filled);
+            }
+            final int take = (int) Math.min(count - filled, m_limit - m_next);
+            for (int i = 0; i < take; i++)
+            {
+                result[filled++] = m_next++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Make the next reserved block current, first reserving more from the database if none remain. Enough sequence
+     * values are drawn to cover both the configured block size and the number of identifiers still required by the
+     * caller, so that one request never costs more than one round trip.
+     *
+     * @param required the number of identifiers still required by the caller.
+     */
+    private void nextBlock(final int required)
+    {
+        if (m_reserved.isEmpty())
+        {
+            final int increments = Math.max(m_incrementsPerReservation, incrementsFor(required));
+            final List<Long> values = new ArrayList<>(m_jdbcOperations.queryForList(s_reserveSql, Long.class,
+                    increments));
+            if (values.size() != increments)
+            {
+                throw new IncorrectResultSizeDataAccessException(increments, values.size());
+            }
+
+            /* Hand blocks out in ascending order so that identifiers written together are adjacent in the index. */
+            Collections.sort(values);
+            m_reserved.addAll(values);
+            LOG.debug("Reserved {} identifier block(s) of {} starting at {}.", increments, s_increment,
+                    values.get(0));
+        }
+        m_next = m_reserved.removeFirst();
+        m_limit = m_next + s_increment;
+    }
+
+    /**
+     * Get the number of sequence increments required to cover a given number of identifiers.
+     *
+     * @param count the number of identifiers.
+     * @return {@code int} number of increments.
+     */
+    private static int incrementsFor(final int count)
+    {
+        return (count + s_increment - 1) / s_increment;
+    }
+}
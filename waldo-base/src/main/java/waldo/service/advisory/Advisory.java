@@ -0,0 +1,329 @@
+package waldo.service.advisory;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import waldo.utility.geo.Polygon;
+
+/**
+ * {@link Advisory} is an immutable record of a single in-flight weather advisory (an AIRMET or SIGMET): the hazard it
+ * warns of, the area affected, the altitudes affected and its period of validity. Altitudes are in feet above mean sea
+ * level, and an altitude which was not given has the value {@link #MISSING}. Instances are created through a
+ * {@link Builder}, which may be reused from one record to the next.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class Advisory
+{
+    /**
+     * Value of an altitude which was not given.
+     */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private final Polygon m_area;
+    private final String m_hazard;
+    private final int m_maxAltitude;
+    private final int m_minAltitude;
+    private final String m_rawText;
+    private final String m_severity;
+    private final Type m_type;
+    private final long m_validFrom;
+    private final long m_validTo;
+
+    /**
+     * Construct a {@link Advisory} instance.
+     *
+     * @param builder the builder holding the advisory values.
+     */
+    private Advisory(final Builder builder)
+    {
+        super();
+        m_area = builder.m_area;
+        m_hazard = builder.m_hazard;
+        m_maxAltitude = builder.m_maxAltitude;
+        m_minAltitude = builder.m_minAltitude;
+        m_rawText = builder.m_rawText;
+        m_severity = builder.m_severity;
+        m_type = builder.m_type;
+        m_validFrom = builder.m_validFrom;
+        m_validTo = builder.m_validTo;
+    }
+
+    /**
+     * Determine whether this advisory is valid at a given time.
+     *
+     * @param time the time in milliseconds since the epoch.
+     * @return {@code boolean} true if {@code time} lies within the period of validity.
+     */
+    public boolean isValidAt(final long time)
+    {
+        return time >= m_validFrom && time < m_validTo;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("type", m_type).append("hazard", m_hazard).append("validFrom",
+                m_validFrom).append("validTo", m_validTo).append("area", m_area).toString();
+    }
+
+    /**
+     * Get the area affected.
+     *
+     * @return {@link Polygon} instance.
+     */
+    public Polygon getArea()
+    {
+        return m_area;
+    }
+
+    /**
+     * Get the hazard, such as {@code TURB}, {@code ICE}, {@code IFR}, {@code MTN OBSCN} or {@code CONVECTIVE}.
+     *
+     * @return {@link String} hazard.
+     */
+    public String getHazard()
+    {
+        return m_hazard;
+    }
+
+    /**
+     * Get the highest altitude affected.
+     *
+     * @return {@code int} altitude in feet, or {@link #MISSING}.
+     */
+    public int getMaxAltitude()
+    {
+        return m_maxAltitude;
+    }
+
+    /**
+     * Get the lowest altitude affected.
+     *
+     * @return {@code int} altitude in feet, or {@link #MISSING}.
+     */
+    public int getMinAltitude()
+    {
+        return m_minAltitude;
+    }
+
+    /**
+     * Get the raw text of the advisory.
+     *
+     * @return {@link String} raw text.
+     */
+    public String getRawText()
+    {
+        return m_rawText;
+    }
+
+    /**
+     * Get the severity of the hazard.
+     *
+     * @return {@link String} severity, or {@code null} if not given.
+     */
+    public String getSeverity()
+    {
+        return m_severity;
+    }
+
+    /**
+     * Get the advisory type.
+     *
+     * @return {@link Type} value.
+     */
+    public Type getType()
+    {
+        return m_type;
+    }
+
+    /**
+     * Get the start of the period of validity.
+     *
+     * @return {@code long} time (inclusive) in milliseconds since the epoch.
+     */
+    public long getValidFrom()
+    {
+        return m_validFrom;
+    }
+
+    /**
+     * Get the end of the period of validity.
+     *
+     * @return {@code long} time (exclusive) in milliseconds since the epoch.
+     */
+    public long getValidTo()
+    {
+        return m_validTo;
+    }
+
+    /**
+     * {@link Type} is the type of an advisory.
+     */
+    public enum Type
+    {
+        AIRMET, SIGMET, CONVECTIVE_SIGMET, OUTLOOK;
+
+        /**
+         * Get the type corresponding to an ADDS advisory type.
+         *
+         * @param code the advisory type, such as {@code SIGMET}.
+         * @return {@link Type} value, or {@code null} if {@code code} is {@code null} or not recognized.
+         */
+        public static Type forCode(final String code)
+        {
+            Type result = null;
+            if ("AIRMET".equals(code))
+            {
+                result = AIRMET;
+            }
+            else if ("SIGMET".equals(code))
+            {
+                result = SIGMET;
+            }
+            else if ("CONVECTIVE SIGMET".equals(code) || "CONVECTIVE_SIGMET".equals(code))
+            {
+                result = CONVECTIVE_SIGMET;
+            }
+            else if ("OUTLOOK".equals(code))
+            {
+                result = OUTLOOK;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * {@link Builder} accumulates values for an {@link Advisory}. A builder may be reused for any number of records;
+     * call {@link #reset()} between records so that values are not carried over.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access.
+     */
+    public static final class Builder
+    {
+        private Polygon m_area;
+        private String m_hazard;
+        private int m_maxAltitude;
+        private int m_minAltitude;
+        private String m_rawText;
+        private String m_severity;
+        private Type m_type;
+        private long m_validFrom;
+        private long m_validTo;
+
+        /**
+         * Construct a {@link Builder} instance.
+         */
+        public Builder()
+        {
+            super();
+            reset();
+        }
+
+        /**
+         * Clear all values.
+         *
+         * @return {@link Builder} this builder instance.
+         */
+        public Builder reset()
+        {
+            m_area = null;
+            m_hazard = null;
+            m_maxAltitude = MISSING;
+            m_minAltitude = MISSING;
+            m_rawText = null;
+            m_severity = null;
+            m_type = null;
+            m_validFrom = 0L;
+            m_validTo = 0L;
+            return this;
+        }
+
+        public Builder setArea(final Polygon area)
+        {
+            m_area = area;
+            return this;
+        }
+
+        public Builder setHazard(final String hazard)
+        {
+            m_hazard = hazard;
+            return this;
+        }
+
+        public Builder setMaxAltitude(final int maxAltitude)
+        {
+            m_maxAltitude = maxAltitude;
+            return this;
+        }
+
+        public Builder setMinAltitude(final int minAltitude)
+        {
+            m_minAltitude = minAltitude;
+            return this;
+        }
+
+        public Builder setRawText(final String rawText)
+        {
+            m_rawText = rawText;
+            return this;
+        }
+
+        public Builder setSeverity(final String severity)
+        {
+            m_severity = severity;
+            return this;
+        }
+
+        public Builder setType(final Type type)
+        {
+            m_type = type;
+            return this;
+        }
+
+        public Builder setValidFrom(final long validFrom)
+        {
+            m_validFrom = validFrom;
+            return this;
+        }
+
+        public Builder setValidTo(final long validTo)
+        {
+            m_validTo = validTo;
+            return this;
+        }
+
+        /**
+         * Create an {@link Advisory} from the accumulated values.
+         *
+         * @return {@link Advisory} instance.
+         * @throws IllegalArgumentException if the type, area or raw text has not been set, or the period of validity is
+         * empty.
+         */
+        public Advisory toAdvisory() throws IllegalArgumentException
+        {
+            if (null == m_type || null == m_area || null == m_rawText)
+            {
+                throw new IllegalArgumentException("Type, area or raw text is null.");
+            }
+            if (m_validTo <= m_validFrom)
+            {
+                throw new IllegalArgumentException(String.format("Advisory has an empty period of validity [%d, %d].",
+                        m_validFrom, m_validTo));
+            }
+            return new Advisory(this);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package waldo.service.advisory;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link AdvisoryIndex} holds the current in-flight weather advisories in memory, indexed by area, so that the
+ * advisories affecting a point or a route can be found without a database query.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface AdvisoryIndex
+{
+    /**
+     * Find the advisories valid at a time whose area contains a point.
+     *
+     * @param latitude the latitude of the point, in millionths of a degree.
+     * @param longitude the longitude of the point, in millionths of a degree.
+     * @param time the time in milliseconds since the epoch.
+     * @return {@link List} of advisories, in no particular order.
+     */
+    List<Advisory> findContaining(int latitude, int longitude, long time);
+
+    /**
+     * Find the advisories valid at a time whose area intersects a route, given as the points joined by its legs.
+     *
+     * @param latitudes the latitudes of the points, in millionths of a degree.
+     * @param longitudes the longitudes of the points, in millionths of a degree.
+     * @param time the time in milliseconds since the epoch.
+     * @return {@link List} of advisories, in no particular order.
+     * @throws IllegalArgumentException if the arrays differ in length or are empty.
+     */
+    List<Advisory> findIntersecting(int[] latitudes, int[] longitudes, long time) throws IllegalArgumentException;
+
+    /**
+     * Replace the advisories held with those of a new issue of the advisory file, which lists every advisory current
+     * at the time of issue. Queries see either the old advisories or the new, never a mixture.
+     *
+     * @param advisories the advisories.
+     */
+    void replace(Collection<Advisory> advisories);
+}
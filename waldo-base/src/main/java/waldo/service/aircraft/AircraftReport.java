@@ -0,0 +1,441 @@
+package waldo.service.aircraft;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * {@link AircraftReport} is an immutable record of a single aircraft (pilot) report: where and when it was made, and
+ * the turbulence, icing and cloud tops reported. Altitudes are in feet above mean sea level, and an altitude which was
+ * not reported has the value {@link #MISSING}. Coordinates are fixed-point, in millionths of a degree. Instances are
+ * created through a {@link Builder}, which may be reused from one record to the next.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class AircraftReport
+{
+    /**
+     * Value of an altitude which was not reported.
+     */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private final String m_aircraftType;
+    private final int m_altitude;
+    private final int m_cloudTop;
+    private final int m_icingBase;
+    private final Intensity m_icingIntensity;
+    private final int m_icingTop;
+    private final int m_latitude;
+    private final int m_longitude;
+    private final long m_observedAt;
+    private final String m_rawText;
+    private final int m_turbulenceBase;
+    private final Intensity m_turbulenceIntensity;
+    private final int m_turbulenceTop;
+    private final Type m_type;
+
+    /**
+     * Construct a {@link AircraftReport} instance.
+     *
+     * @param builder the builder holding the report values.
+     */
+    private AircraftReport(final Builder builder)
+    {
+        super();
+        m_aircraftType = builder.m_aircraftType;
+        m_altitude = builder.m_altitude;
+        m_cloudTop = builder.m_cloudTop;
+        m_icingBase = builder.m_icingBase;
+        m_icingIntensity = builder.m_icingIntensity;
+        m_icingTop = builder.m_icingTop;
+        m_latitude = builder.m_latitude;
+        m_longitude = builder.m_longitude;
+        m_observedAt = builder.m_observedAt;
+        m_rawText = builder.m_rawText;
+        m_turbulenceBase = builder.m_turbulenceBase;
+        m_turbulenceIntensity = builder.m_turbulenceIntensity;
+        m_turbulenceTop = builder.m_turbulenceTop;
+        m_type = builder.m_type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("type", m_type).append("observedAt", m_observedAt).append("latitude",
+                m_latitude).append("longitude", m_longitude).append("altitude", m_altitude).append("rawText",
+                m_rawText).toString();
+    }
+
+    /**
+     * Get the type of aircraft which made the report.
+     *
+     * @return {@link String} aircraft type designator, or {@code null} if not reported.
+     */
+    public String getAircraftType()
+    {
+        return m_aircraftType;
+    }
+
+    /**
+     * Get the altitude at which the report was made.
+     *
+     * @return {@code int} altitude in feet, or {@link #MISSING}.
+     */
+    public int getAltitude()
+    {
+        return m_altitude;
+    }
+
+    /**
+     * Get the altitude of the highest cloud tops reported.
+     *
+     * @return {@code int} altitude in feet, or {@link #MISSING}.
+     */
+    public int getCloudTop()
+    {
+        return m_cloudTop;
+    }
+
+    /**
+     * Get the lowest altitude of the icing reported.
+     *
+     * @return {@code int} altitude in feet, or {@link #MISSING}.
+     */
+    public int getIcingBase()
+    {
+        return m_icingBase;
+    }
+
+    /**
+     * Get the intensity of the icing reported.
+     *
+     * @return {@link Intensity} value, or {@code null} if icing was not reported.
+     */
+    public Intensity getIcingIntensity()
+    {
+        return m_icingIntensity;
+    }
+
+    /**
+     * Get the highest altitude of the icing reported.
+     *
+     * @return {@code int} altitude in feet, or {@link #MISSING}.
+     */
+    public int getIcingTop()
+    {
+        return m_icingTop;
+    }
+
+    /**
+     * Get the latitude.
+     *
+     * @return {@code int} latitude in millionths of a degree, positive north.
+     */
+    public int getLatitude()
+    {
+        return m_latitude;
+    }
+
+    /**
+     * Get the longitude.
+     *
+     * @return {@code int} longitude in millionths of a degree, positive east.
+     */
+    public int getLongitude()
+    {
+        return m_longitude;
+    }
+
+    /**
+     * Get the observation time.
+     *
+     * @return {@code long} observation time in milliseconds since the epoch.
+     */
+    public long getObservedAt()
+    {
+        return m_observedAt;
+    }
+
+    /**
+     * Get the raw text of the report.
+     *
+     * @return {@link String} raw text.
+     */
+    public String getRawText()
+    {
+        return m_rawText;
+    }
+
+    /**
+     * Get the lowest altitude of the turbulence reported.
+     *
+     * @return {@code int} altitude in feet, or {@link #MISSING}.
+     */
+    public int getTurbulenceBase()
+    {
+        return m_turbulenceBase;
+    }
+
+    /**
+     * Get the intensity of the turbulence reported.
+     *
+     * @return {@link Intensity} value, or {@code null} if turbulence was not reported.
+     */
+    public Intensity getTurbulenceIntensity()
+    {
+        return m_turbulenceIntensity;
+    }
+
+    /**
+     * Get the highest altitude of the turbulence reported.
+     *
+     * @return {@code int} altitude in feet, or {@link #MISSING}.
+     */
+    public int getTurbulenceTop()
+    {
+        return m_turbulenceTop;
+    }
+
+    /**
+     * Get the report type.
+     *
+     * @return {@link Type} value.
+     */
+    public Type getType()
+    {
+        return m_type;
+    }
+
+    /**
+     * {@link Intensity} is the intensity of reported turbulence or icing, in increasing order. A range such as
+     * {@code LGT-MOD} has its own value; other ranges are taken at their lower bound.
+     */
+    public enum Intensity
+    {
+        NONE, TRACE, LIGHT, LIGHT_MODERATE, MODERATE, MODERATE_SEVERE, SEVERE, EXTREME;
+
+        /**
+         * Get the intensity corresponding to an ADDS turbulence or icing intensity code.
+         *
+         * @param code the code, such as {@code MOD-SEV}.
+         * @return {@link Intensity} value, or {@code null} if {@code code} is {@code null} or not recognized.
+         */
+        public static Intensity forCode(final String code)
+        {
+            Intensity result = null;
+            if ("NEG".equals(code) || "NEGclr".equals(code))
+            {
+                result = NONE;
+            }
+            else if ("TRC".equals(code) || "TRC-LGT".equals(code) || "SMTH-LGT".equals(code))
+            {
+                result = TRACE;
+            }
+            else if ("LGT".equals(code))
+            {
+                result = LIGHT;
+            }
+            else if ("LGT-MOD".equals(code))
+            {
+                result = LIGHT_MODERATE;
+            }
+            else if ("MOD".equals(code))
+            {
+                result = MODERATE;
+            }
+            else if ("MOD-SEV".equals(code))
+            {
+                result = MODERATE_SEVERE;
+            }
+            else if ("SEV".equals(code) || "HVY".equals(code) || "SEV-EXTM".equals(code))
+            {
+                result = SEVERE;
+            }
+            else if ("EXTM".equals(code))
+            {
+                result = EXTREME;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * {@link Type} is the type of an aircraft report.
+     */
+    public enum Type
+    {
+        AIREP, PIREP, URGENT_PIREP;
+
+        /**
+         * Get the type corresponding to an ADDS report type.
+         *
+         * @param code the report type, such as {@code Urgent PIREP}.
+         * @return {@link Type} value, or {@code null} if {@code code} is {@code null} or not recognized.
+         */
+        public static Type forCode(final String code)
+        {
+            Type result = null;
+            if ("AIREP".equals(code))
+            {
+                result = AIREP;
+            }
+            else if ("PIREP".equals(code))
+            {
+                result = PIREP;
+            }
+            else if ("Urgent PIREP".equals(code))
+            {
+                result = URGENT_PIREP;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * {@link Builder} accumulates values for an {@link AircraftReport}. A builder may be reused for any number of
+     * records; call {@link #reset()} between records so that values are not carried over.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access.
+     */
+    public static final class Builder
+    {
+        private String m_aircraftType;
+        private int m_altitude;
+        private int m_cloudTop;
+        private int m_icingBase;
+        private Intensity m_icingIntensity;
+        private int m_icingTop;
+        private int m_latitude;
+        private int m_longitude;
+        private long m_observedAt;
+        private String m_rawText;
+        private int m_turbulenceBase;
+        private Intensity m_turbulenceIntensity;
+        private int m_turbulenceTop;
+        private Type m_type;
+
+        /**
+         * Construct a {@link Builder} instance.
+         */
+        public Builder()
+        {
+            super();
+            reset();
+        }
+
+        /**
+         * Clear all values.
+         *
+         * @return {@link Builder} this builder instance.
+         */
+        public Builder reset()
+        {
+            m_aircraftType = null;
+            m_altitude = MISSING;
+            m_cloudTop = MISSING;
+            m_icingBase = MISSING;
+            m_icingIntensity = null;
+            m_icingTop = MISSING;
+            m_latitude = 0;
+            m_longitude = 0;
+            m_observedAt = 0L;
+            m_rawText = null;
+            m_turbulenceBase = MISSING;
+            m_turbulenceIntensity = null;
+            m_turbulenceTop = MISSING;
+            m_type = Type.PIREP;
+            return this;
+        }
+
+        public Builder setAircraftType(final String aircraftType)
+        {
+            m_aircraftType = aircraftType;
+            return this;
+        }
+
+        public Builder setAltitude(final int altitude)
+        {
+            m_altitude = altitude;
+            return this;
+        }
+
+        public Builder setCloudTop(final int cloudTop)
+        {
+            m_cloudTop = cloudTop;
+            return this;
+        }
+
+        public Builder setIcing(final Intensity intensity, final int base, final int top)
+        {
+            m_icingIntensity = intensity;
+            m_icingBase = base;
+            m_icingTop = top;
+            return this;
+        }
+
+        public Builder setLatitude(final int latitude)
+        {
+            m_latitude = latitude;
+            return this;
+        }
+
+        public Builder setLongitude(final int longitude)
+        {
+            m_longitude = longitude;
+            return this;
+        }
+
+        public Builder setObservedAt(final long observedAt)
+        {
+            m_observedAt = observedAt;
+            return this;
+        }
+
+        public Builder setRawText(final String rawText)
+        {
+            m_rawText = rawText;
+            return this;
+        }
+
+        public Builder setTurbulence(final Intensity intensity, final int base, final int top)
+        {
+            m_turbulenceIntensity = intensity;
+            m_turbulenceBase = base;
+            m_turbulenceTop = top;
+            return this;
+        }
+
+        public Builder setType(final Type type)
+        {
+            m_type = type;
+            return this;
+        }
+
+        /**
+         * Create an {@link AircraftReport} from the accumulated values.
+         *
+         * @return {@link AircraftReport} instance.
+         * @throws IllegalArgumentException if the raw text has not been set.
+         */
+        public AircraftReport toReport() throws IllegalArgumentException
+        {
+            if (null == m_rawText)
+            {
+                throw new IllegalArgumentException("Raw text is null.");
+            }
+            return new AircraftReport(this);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package waldo.service.aircraft;
+
+import java.util.List;
+
+/**
+ * {@link AircraftReportIndex} holds recent aircraft reports in memory, indexed by time, position and altitude, so that
+ * the reports made near a point and flight level within a period can be found without a database query.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface AircraftReportIndex
+{
+    /**
+     * Add a report to the index. A report already held (having the same observation time and raw text) is not added
+     * again, nor is a report made before the retention period of the index.
+     *
+     * @param report the report.
+     * @return {@code boolean} true if the report was added.
+     */
+    boolean add(AircraftReport report);
+
+    /**
+     * Find the reports made within a distance of a point, within a band of altitudes and within a period. Reports which
+     * do not give an altitude are found only if the band is unbounded below ({@code lowest} is
+     * {@link AircraftReport#MISSING}.)
+     *
+     * @param latitude the latitude of the point, in millionths of a degree.
+     * @param longitude the longitude of the point, in millionths of a degree.
+     * @param radius the distance in nautical miles.
+     * @param lowest the lowest altitude (inclusive) in feet.
+     * @param highest the highest altitude (inclusive) in feet.
+     * @param from the start of the period (inclusive) in milliseconds since the epoch.
+     * @param to the end of the period (inclusive) in milliseconds since the epoch.
+     * @return {@link List} of reports, most recent first.
+     * @throws IllegalArgumentException if the radius is negative, or the band or period is reversed.
+     */
+    List<AircraftReport> find(int latitude, int longitude, double radius, int lowest, int highest, long from, long to)
+            throws IllegalArgumentException;
+}
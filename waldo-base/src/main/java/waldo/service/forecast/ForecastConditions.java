@@ -0,0 +1,299 @@
+package waldo.service.forecast;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import waldo.entity.FlightCategory;
+import waldo.entity.PresentWeather;
+import waldo.entity.SkyLayers;
+import waldo.service.observation.ObservationRecord;
+
+/**
+ * {@link ForecastConditions} holds the conditions forecast for a station over some period: wind, visibility, sky
+ * condition and weather, in the same units as {@link ObservationRecord}, and the flight category they imply.
+ * <p>
+ * A change group of a forecast gives only the elements which change, so an element not given has the value
+ * {@link ObservationRecord#MISSING}, {@link SkyLayers#NONE} or {@link PresentWeather#NONE}; the forecast of no
+ * significant weather ({@code NSW}) is given as {@link #NO_SIGNIFICANT_WEATHER}. {@link #overlay(ForecastConditions)}
+ * applies such a group to the conditions prevailing before it, and {@link #worst(ForecastConditions)} combines the
+ * conditions forecast at different times or with different likelihoods into the worst of each element.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class ForecastConditions
+{
+    /**
+     * Weather value of a change group which forecasts the end of significant weather.
+     */
+    public static final long NO_SIGNIFICANT_WEATHER = Long.MIN_VALUE;
+
+    /**
+     * Conditions with no element given.
+     */
+    public static final ForecastConditions NONE = new Builder().toConditions();
+
+    private final short m_windDirection;
+    private final short m_windSpeed;
+    private final short m_windGust;
+    private final short m_visibility;
+    private final long m_skyLayers;
+    private final long m_weather;
+    private final FlightCategory m_flightCategory;
+
+    /**
+     * Construct a {@link ForecastConditions} instance.
+     *
+     * @param windDirection the wind direction in degrees true, {@code 0} if variable, or
+     * {@link ObservationRecord#MISSING}.
+     * @param windSpeed the wind speed in knots, or {@link ObservationRecord#MISSING}.
+     * @param windGust the wind gust speed in knots, or {@link ObservationRecord#MISSING}.
+     * @param visibility the visibility in hundredths of a statute mile, or {@link ObservationRecord#MISSING}.
+     * @param skyLayers the cloud layers packed as described by {@link SkyLayers}.
+     * @param weather the weather packed as described by {@link PresentWeather}, or {@link #NO_SIGNIFICANT_WEATHER}.
+     */
+    private ForecastConditions(final short windDirection, final short windSpeed, final short windGust,
+                               final short visibility, final long skyLayers, final long weather)
+    {
+        super();
+        m_windDirection = windDirection;
+        m_windSpeed = windSpeed;
+        m_windGust = windGust;
+        m_visibility = visibility;
+        m_skyLayers = skyLayers;
+        m_weather = weather;
+        m_flightCategory = FlightCategory.categorize(skyLayers, visibility);
+    }
+
+    /**
+     * Apply the elements given by a change group to these conditions.
+     *
+     * @param changes the conditions given by the change group.
+     * @return {@link ForecastConditions} with each element given by {@code changes} replacing that of these
+     * conditions; wind direction, speed and gusts are replaced together.
+     */
+    public ForecastConditions overlay(final ForecastConditions changes)
+    {
+        final boolean wind = ObservationRecord.MISSING != changes.m_windSpeed;
+        final long weather;
+        if (NO_SIGNIFICANT_WEATHER == changes.m_weather)
+        {
+            weather = PresentWeather.NONE;
+        }
+        else
+        {
+            weather = PresentWeather.NONE == changes.m_weather ? m_weather : changes.m_weather;
+        }
+        return new ForecastConditions(wind ? changes.m_windDirection : m_windDirection,
+                wind ? changes.m_windSpeed : m_windSpeed, wind ? changes.m_windGust : m_windGust,
+                ObservationRecord.MISSING == changes.m_visibility ? m_visibility : changes.m_visibility,
+                SkyLayers.NONE == changes.m_skyLayers ? m_skyLayers : changes.m_skyLayers, weather);
+    }
+
+    /**
+     * Combine these conditions with others into the worst of each: the strongest wind and gusts, the lowest visibility,
+     * the sky condition with the lowest ceiling, and all weather of either. The flight category of the result is
+     * therefore the worse of the two.
+     *
+     * @param other the other conditions.
+     * @return {@link ForecastConditions} worst conditions.
+     */
+    public ForecastConditions worst(final ForecastConditions other)
+    {
+        final short visibility;
+        if (ObservationRecord.MISSING == m_visibility || ObservationRecord.MISSING == other.m_visibility)
+        {
+            visibility = (short) Math.max(m_visibility, other.m_visibility);
+        }
+        else
+        {
+            visibility = (short) Math.min(m_visibility, other.m_visibility);
+        }
+        final int ceiling = SkyLayers.getCeiling(m_skyLayers);
+        final int otherCeiling = SkyLayers.getCeiling(other.m_skyLayers);
+        final boolean otherSky = SkyLayers.NONE == m_skyLayers || (SkyLayers.NO_CEILING != otherCeiling &&
+                (SkyLayers.NO_CEILING == ceiling || otherCeiling < ceiling));
+        return new ForecastConditions(other.m_windSpeed > m_windSpeed ? other.m_windDirection : m_windDirection,
+                (short) Math.max(m_windSpeed, other.m_windSpeed), (short) Math.max(m_windGust, other.m_windGust),
+                visibility, otherSky ? other.m_skyLayers : m_skyLayers, m_weather | other.m_weather);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("windDirection", m_windDirection).append("windSpeed", m_windSpeed)
+                .append("windGust", m_windGust).append("visibility", m_visibility).append("skyLayers",
+                        SkyLayers.toString(m_skyLayers)).append("weather", PresentWeather.toString(m_weather))
+                .append("flightCategory", m_flightCategory).toString();
+    }
+
+    /**
+     * Get the wind direction.
+     *
+     * @return {@code short} direction in degrees true, {@code 0} if variable, or {@link ObservationRecord#MISSING}.
+     */
+    public short getWindDirection()
+    {
+        return m_windDirection;
+    }
+
+    /**
+     * Get the wind speed.
+     *
+     * @return {@code short} speed in knots, or {@link ObservationRecord#MISSING}.
+     */
+    public short getWindSpeed()
+    {
+        return m_windSpeed;
+    }
+
+    /**
+     * Get the wind gust speed.
+     *
+     * @return {@code short} gust speed in knots, or {@link ObservationRecord#MISSING} if no gusts are forecast.
+     */
+    public short getWindGust()
+    {
+        return m_windGust;
+    }
+
+    /**
+     * Get the visibility.
+     *
+     * @return {@code short} visibility in hundredths of a statute mile, or {@link ObservationRecord#MISSING}.
+     */
+    public short getVisibility()
+    {
+        return m_visibility;
+    }
+
+    /**
+     * Get the forecast cloud layers.
+     *
+     * @return {@code long} layers packed as described by {@link SkyLayers}.
+     */
+    public long getSkyLayers()
+    {
+        return m_skyLayers;
+    }
+
+    /**
+     * Get the forecast weather.
+     *
+     * @return {@code long} weather packed as described by {@link PresentWeather}, or {@link #NO_SIGNIFICANT_WEATHER}
+     * in a change group which forecasts its end.
+     */
+    public long getWeather()
+    {
+        return m_weather;
+    }
+
+    /**
+     * Get the flight category.
+     *
+     * @return {@link FlightCategory} value, or {@code null} if neither sky condition nor visibility is forecast.
+     */
+    public FlightCategory getFlightCategory()
+    {
+        return m_flightCategory;
+    }
+
+    /**
+     * {@link Builder} accumulates element values for a {@link ForecastConditions}. A builder may be reused for any
+     * number of instances; call {@link #reset()} between them so that elements are not carried over.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access.
+     */
+    public static final class Builder
+    {
+        private short m_windDirection;
+        private short m_windSpeed;
+        private short m_windGust;
+        private short m_visibility;
+        private long m_skyLayers;
+        private long m_weather;
+
+        /**
+         * Construct a {@link Builder} instance.
+         */
+        public Builder()
+        {
+            super();
+            reset();
+        }
+
+        /**
+         * Clear all element values.
+         *
+         * @return {@link Builder} this builder instance.
+         */
+        public Builder reset()
+        {
+            m_windDirection = ObservationRecord.MISSING;
+            m_windSpeed = ObservationRecord.MISSING;
+            m_windGust = ObservationRecord.MISSING;
+            m_visibility = ObservationRecord.MISSING;
+            m_skyLayers = SkyLayers.NONE;
+            m_weather = PresentWeather.NONE;
+            return this;
+        }
+
+        public Builder setWindDirection(final short windDirection)
+        {
+            m_windDirection = windDirection;
+            return this;
+        }
+
+        public Builder setWindSpeed(final short windSpeed)
+        {
+            m_windSpeed = windSpeed;
+            return this;
+        }
+
+        public Builder setWindGust(final short windGust)
+        {
+            m_windGust = windGust;
+            return this;
+        }
+
+        public Builder setVisibility(final short visibility)
+        {
+            m_visibility = visibility;
+            return this;
+        }
+
+        public Builder setSkyLayers(final long skyLayers)
+        {
+            m_skyLayers = skyLayers;
+            return this;
+        }
+
+        public Builder setWeather(final long weather)
+        {
+            m_weather = weather;
+            return this;
+        }
+
+        /**
+         * Create a {@link ForecastConditions} from the accumulated element values.
+         *
+         * @return {@link ForecastConditions} instance.
+         */
+        public ForecastConditions toConditions()
+        {
+            return new ForecastConditions(m_windDirection, m_windSpeed, m_windGust, m_visibility, m_skyLayers,
+                    m_weather);
+        }
+    }
+}
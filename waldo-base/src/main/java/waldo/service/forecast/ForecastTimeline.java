@@ -0,0 +1,64 @@
+package waldo.service.forecast;
+
+/**
+ * {@link ForecastTimeline} holds the latest terminal forecast of each station, resolved ahead of time into a timeline
+ * of the conditions forecast, so that the conditions forecast at any time, and the worst forecast over any period, are
+ * found without evaluating the forecast groups.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ForecastTimeline
+{
+    /**
+     * Resolve a forecast into the timeline of its station, replacing any forecast issued earlier.
+     *
+     * @param forecast the forecast.
+     * @return {@code true} if the forecast was resolved; {@code false} if a later forecast is held already.
+     * @throws IllegalArgumentException if the period of validity of the forecast is empty.
+     */
+    boolean update(TerminalForecast forecast) throws IllegalArgumentException;
+
+    /**
+     * Find the conditions forecast to prevail at a station at a given time. Temporary and probable conditions are not
+     * included.
+     *
+     * @param station the station identifier.
+     * @param time the time in milliseconds since the epoch.
+     * @return {@link ForecastConditions} instance, or {@code null} if no forecast held for the station is valid at
+     * {@code time}.
+     */
+    ForecastConditions findPredicted(String station, long time);
+
+    /**
+     * Find the worst conditions forecast at a station at any time within a period, including conditions in transition
+     * and temporary and probable conditions.
+     *
+     * @param station the station identifier.
+     * @param from the start of the period (inclusive) in milliseconds since the epoch.
+     * @param to the end of the period (exclusive) in milliseconds since the epoch; if equal to {@code from}, the worst
+     * conditions forecast at that time.
+     * @return {@link ForecastConditions} instance, or {@code null} if no forecast held for the station is valid at any
+     * time within the period.
+     * @throws IllegalArgumentException if {@code to} precedes {@code from}.
+     */
+    ForecastConditions findWorst(String station, long from, long to) throws IllegalArgumentException;
+
+    /**
+     * Get the issue time of the forecast held for a station.
+     *
+     * @param station the station identifier.
+     * @return {@code long} issue time in milliseconds since the epoch, or {@code 0} if no forecast is held.
+     */
+    long getIssuedAt(String station);
+}
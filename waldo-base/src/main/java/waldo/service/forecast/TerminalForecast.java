@@ -0,0 +1,189 @@
+package waldo.service.forecast;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link TerminalForecast} is a decoded terminal aerodrome forecast (TAF): the station, the issue time, the period of
+ * validity and the forecast groups in the order given. The first group is normally a {@link Group.Type#FROM} group at
+ * the start of the period, holding the initial conditions; each later group changes the forecast from its time on.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class TerminalForecast
+{
+    private final List<Group> m_groups;
+    private final long m_issuedAt;
+    private final String m_station;
+    private final long m_validFrom;
+    private final long m_validTo;
+
+    /**
+     * Construct a {@link TerminalForecast} instance.
+     *
+     * @param station the four-character ICAO identifier of the station.
+     * @param issuedAt the issue time in milliseconds since the epoch.
+     * @param validFrom the start of the period of validity (inclusive) in milliseconds since the epoch.
+     * @param validTo the end of the period of validity (exclusive) in milliseconds since the epoch.
+     * @param groups the forecast groups, in the order given.
+     */
+    public TerminalForecast(final String station, final long issuedAt, final long validFrom, final long validTo,
+                            final List<Group> groups)
+    {
+        super();
+        m_groups = Collections.unmodifiableList(new ArrayList<>(groups));
+        m_issuedAt = issuedAt;
+        m_station = station;
+        m_validFrom = validFrom;
+        m_validTo = validTo;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("station", m_station).append("issuedAt", m_issuedAt).append(
+                "validFrom", m_validFrom).append("validTo", m_validTo).append("groups", m_groups).toString();
+    }
+
+    public List<Group> getGroups()
+    {
+        return m_groups;
+    }
+
+    public long getIssuedAt()
+    {
+        return m_issuedAt;
+    }
+
+    public String getStation()
+    {
+        return m_station;
+    }
+
+    public long getValidFrom()
+    {
+        return m_validFrom;
+    }
+
+    public long getValidTo()
+    {
+        return m_validTo;
+    }
+
+    /**
+     * {@link Group} is one forecast group: its type, the period to which it applies, and the conditions it gives.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded
+     * access.
+     */
+    public static final class Group
+    {
+        private final ForecastConditions m_conditions;
+        private final long m_from;
+        private final int m_probability;
+        private final long m_to;
+        private final Type m_type;
+
+        /**
+         * Construct a {@link Group} instance.
+         *
+         * @param type the group type.
+         * @param from the start of the period (inclusive) in milliseconds since the epoch.
+         * @param to the end of the period (exclusive) in milliseconds since the epoch; for a {@link Type#FROM} group,
+         * the end of the period of validity of the forecast.
+         * @param probability the probability in percent of a {@link Type#PROBABILITY} group, otherwise {@code 0}.
+         * @param conditions the conditions given by the group.
+         */
+        public Group(final Type type, final long from, final long to, final int probability,
+                     final ForecastConditions conditions)
+        {
+            super();
+            m_conditions = conditions;
+            m_from = from;
+            m_probability = probability;
+            m_to = to;
+            m_type = type;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString()
+        {
+            return new ToStringBuilder(this).append("type", m_type).append("from", m_from).append("to", m_to).append(
+                    "probability", m_probability).append("conditions", m_conditions).toString();
+        }
+
+        public ForecastConditions getConditions()
+        {
+            return m_conditions;
+        }
+
+        public long getFrom()
+        {
+            return m_from;
+        }
+
+        public int getProbability()
+        {
+            return m_probability;
+        }
+
+        public long getTo()
+        {
+            return m_to;
+        }
+
+        public Type getType()
+        {
+            return m_type;
+        }
+
+        /**
+         * {@link Type} enumerates the types of forecast group.
+         */
+        public enum Type
+        {
+            /**
+             * Initial conditions, or a rapid change ({@code FM}) to conditions which prevail from the start of the
+             * group until the next such group. Elements not given are not forecast.
+             */
+            FROM,
+
+            /**
+             * A gradual change ({@code BECMG}) at some time during the period of the group, after which the elements
+             * given prevail.
+             */
+            BECOMING,
+
+            /**
+             * Temporary fluctuations ({@code TEMPO}) to the elements given, at times during the period of the group.
+             */
+            TEMPORARY,
+
+            /**
+             * Conditions given a probability ({@code PROB30} or {@code PROB40}) of occurring during the period of the
+             * group, alone or as temporary fluctuations.
+             */
+            PROBABILITY
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package waldo.service.journal;
+
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+
+/**
+ * {@link ObservationJournal} is a local, append-only, durable log of decoded observations which decouples ingest from
+ * the stages which consume it. Producers append records as they are decoded and carry on regardless of how far behind
+ * any consumer is; each consumer (the database writer, caches, push subscribers) reads the journal at its own pace from
+ * its own persisted position, so a slow or unavailable database holds back only the database writer.
+ * <p>
+ * Each record is assigned a sequence number, increasing by one per append. Delivery is at-least-once: a consumer's
+ * position is persisted after each batch it handles, so a batch interrupted by failure is delivered again.
+ * <p>
+ * Compaction drops records which have been superseded by a later record for the same station, observation time and
+ * report type (for example, a corrected report), and deletes whole segments once every consumer has read them.
+ * Consumers therefore see gaps in the sequence.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access. Any number of
+ * threads may append; a given consumer should be driven by one thread at a time.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ObservationJournal
+{
+    /**
+     * Append a record to the journal. The record is visible to consumers on return, but is only guaranteed to survive
+     * a crash after the next {@link #flush()}.
+     *
+     * @param record the record.
+     * @return {@code long} sequence number assigned to the record.
+     * @throws JournalException if the record could not be written.
+     */
+    long append(ObservationRecord record) throws JournalException;
+
+    /**
+     * Force all appended records to storage.
+     *
+     * @throws JournalException if the records could not be written.
+     */
+    void flush() throws JournalException;
+
+    /**
+     * Deliver records which follow a consumer's position to a handler, then advance and persist the position. A
+     * consumer is created, at the start of the journal, the first time its name is used.
+     * <p>
+     * A handler which buffers records, for example to write them in batches, should implement
+     * {@link java.io.Flushable}: it is flushed before the position is persisted, and if the flush fails the position is
+     * not advanced and the records are delivered again.
+     *
+     * @param consumer the consumer name, consisting of letters, digits, {@code '.'}, {@code '_'} and {@code '-'}.
+     * @param handler the handler to which records are delivered.
+     * @param maxRecords the maximum number of records to deliver.
+     * @return {@code int} number of records delivered, which is zero if the consumer has caught up.
+     * @throws IllegalArgumentException if {@code consumer} is not a valid name.
+     * @throws JournalException if the journal could not be read or the position could not be persisted.
+     */
+    int consume(String consumer, ObservationHandler handler, int maxRecords) throws IllegalArgumentException,
+            JournalException;
+
+    /**
+     * Delete segments which have been read by every consumer and rewrite the remaining full segments without
+     * superseded records. This is invoked on a schedule and need not be called directly.
+     *
+     * @throws JournalException if an error occurs while compacting.
+     */
+    void compact() throws JournalException;
+}
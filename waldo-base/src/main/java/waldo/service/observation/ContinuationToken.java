@@ -0,0 +1,167 @@
+package waldo.service.observation;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import javax.xml.bind.DatatypeConverter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * {@link ContinuationToken} marks the position reached by a page of a keyset-paginated observation query: the
+ * {@code (station, observed at, id)} key of the last row returned. The next page is read by seeking directly to the row
+ * following that key in the {@code OBSERVATION} index, so a deep page costs the same as the first.
+ * <p>
+ * Tokens are handed to clients in an opaque, URL-safe encoding (see {@link #encode()}), and carry a fingerprint of the
+ * query which issued them so that a token cannot be replayed against a different query.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class ContinuationToken
+{
+    private static final Charset s_ascii = Charset.forName("US-ASCII");
+    private static final byte VERSION = 1;
+
+    private final long m_id;
+    private final long m_observedAt;
+    private final int m_query;
+    private final String m_station;
+
+    /**
+     * Construct a {@link ContinuationToken} instance.
+     *
+     * @param query the fingerprint of the issuing query; see {@link #fingerprint(Object...)}.
+     * @param station the station of the last row returned.
+     * @param observedAt the observation time of the last row returned, in milliseconds since the epoch.
+     * @param id the identifier of the last row returned.
+     */
+    public ContinuationToken(final int query, final String station, final long observedAt, final long id)
+    {
+        super();
+        m_id = id;
+        m_observedAt = observedAt;
+        m_query = query;
+        m_station = station;
+    }
+
+    /**
+     * Compute the fingerprint of a query from its parameters (excluding the page position and size.)
+     *
+     * @param parameters the query parameters.
+     * @return {@code int} fingerprint.
+     */
+    public static int fingerprint(final Object... parameters)
+    {
+        return Arrays.hashCode(parameters);
+    }
+
+    /**
+     * Decode a token previously produced by {@link #encode()}.
+     *
+     * @param encoded the encoded token.
+     * @return {@link ContinuationToken} instance.
+     * @throws IllegalArgumentException if {@code encoded} is not a valid token.
+     */
+    public static ContinuationToken decode(final String encoded) throws IllegalArgumentException
+    {
+        final ContinuationToken result;
+        try
+        {
+            /* Restore the alphabet and padding stripped by encode(). */
+            final StringBuilder base64 = new StringBuilder(encoded.replace('-', '+').replace('_', '/'));
+            while (0 != base64.length() % 4)
+            {
+                base64.append('=');
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(DatatypeConverter.parseBase64Binary(base64.toString()));
+            if (VERSION != buffer.get())
+            {
+                throw new IllegalArgumentException(String.format("Continuation token [%s] is invalid.", encoded));
+            }
+            final int query = buffer.getInt();
+            final long observedAt = buffer.getLong();
+            final long id = buffer.getLong();
+            final byte[] station = new byte[buffer.remaining()];
+            buffer.get(station);
+            result = new ContinuationToken(query, new String(station, s_ascii), observedAt, id);
+        }
+        catch (final BufferUnderflowException | IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException(String.format("Continuation token [%s] is invalid.", encoded), e);
+        }
+        return result;
+    }
+
+    /**
+     * Encode this token as an opaque, URL-safe string.
+     *
+     * @return {@link String} encoded token.
+     */
+    public String encode()
+    {
+        final byte[] station = m_station.getBytes(s_ascii);
+        final ByteBuffer buffer = ByteBuffer.allocate(21 + station.length);
+        buffer.put(VERSION).putInt(m_query).putLong(m_observedAt).putLong(m_id).put(station);
+        final String base64 = DatatypeConverter.printBase64Binary(buffer.array());
+        final int end = base64.indexOf('=');
+        return (end < 0 ? base64 : base64.substring(0, end)).replace('+', '-').replace('/', '_');
+    }
+
+    /**
+     * Verify that this token was issued by a given query.
+     *
+     * @param query the fingerprint of the query.
+     * @return {@link ContinuationToken} this token.
+     * @throws IllegalArgumentException if this token was issued by a different query.
+     */
+    public ContinuationToken checkQuery(final int query) throws IllegalArgumentException
+    {
+        if (query != m_query)
+        {
+            throw new IllegalArgumentException("Continuation token was not issued by this query.");
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("query", m_query).append("station", m_station).append("observedAt",
+                m_observedAt).append("id", m_id).toString();
+    }
+
+    public long getId()
+    {
+        return m_id;
+    }
+
+    public long getObservedAt()
+    {
+        return m_observedAt;
+    }
+
+    public int getQuery()
+    {
+        return m_query;
+    }
+
+    public String getStation()
+    {
+        return m_station;
+    }
+}
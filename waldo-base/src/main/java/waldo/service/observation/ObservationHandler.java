@@ -0,0 +1,29 @@
+package waldo.service.observation;
+
+/**
+ * {@link ObservationHandler} receives {@link ObservationRecord}s one at a time as they are streamed from a query, so
+ * that callers can process or render a large result without holding all of it in memory.
+ * <p>
+ * <strong>Thread Safety:</strong> a handler is invoked on the thread which executes the query; it need not be safe for
+ * multithreaded access unless it is shared between queries.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ObservationHandler
+{
+    /**
+     * Handle a single record.
+     *
+     * @param record the record.
+     */
+    void handle(ObservationRecord record);
+}
@@ -0,0 +1,77 @@
+package waldo.service.observation;
+
+import waldo.utility.geo.BoundingBox;
+
+/**
+ * {@link ObservationReader} is the read-only query repository for observations. It reads rows directly through JDBC into
+ * unmanaged {@link ObservationRecord}s, bypassing the JPA persistence context, and streams large results to an
+ * {@link ObservationHandler} rather than collecting them.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ObservationReader
+{
+    /**
+     * Find the most recent observation from a station.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @return {@link ObservationRecord} instance, or {@code null} if the station has no observations.
+     */
+    ObservationRecord findLatest(String station);
+
+    /**
+     * Stream the observations from a station within a time range, in ascending order of observation time.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @param from the start of the range (inclusive) in milliseconds since the epoch.
+     * @param to the end of the range (exclusive) in milliseconds since the epoch.
+     * @param handler the handler which receives each record.
+     * @return {@code int} number of records passed to the handler.
+     */
+    int readHistory(String station, long from, long to, ObservationHandler handler);
+
+    /**
+     * Stream one page of the observations from a station within a time range, in ascending order of observation time.
+     * Pages are keyset-paginated: each page seeks directly to the row following the last row of the previous page, and
+     * no rows are skipped over.
+     *
+     * @param station the four-character ICAO station identifier.
+     * @param from the start of the range (inclusive) in milliseconds since the epoch.
+     * @param to the end of the range (exclusive) in milliseconds since the epoch.
+     * @param after the token returned with the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of records to pass to the handler.
+     * @param handler the handler which receives each record.
+     * @return {@link ContinuationToken} from which the next page may be read, or {@code null} if this was the last page.
+     * @throws IllegalArgumentException if {@code after} was issued by a different query.
+     */
+    ContinuationToken readStationHistory(String station, long from, long to, ContinuationToken after, int limit,
+                                         ObservationHandler handler) throws IllegalArgumentException;
+
+    /**
+     * Stream one page of the observations from all stations within a region and time range, ordered by station and then
+     * by observation time. Pages are keyset-paginated as described for
+     * {@link #readStationHistory(String, long, long, ContinuationToken, int, ObservationHandler)}.
+     *
+     * @param region the region.
+     * @param from the start of the range (inclusive) in milliseconds since the epoch.
+     * @param to the end of the range (exclusive) in milliseconds since the epoch.
+     * @param after the token returned with the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of records to pass to the handler.
+     * @param handler the handler which receives each record.
+     * @return {@link ContinuationToken} from which the next page may be read, or {@code null} if this was the last page.
+     * @throws IllegalArgumentException if {@code after} was issued by a different query.
+     */
+    ContinuationToken readRegionHistory(BoundingBox region, long from, long to, ContinuationToken after, int limit,
+                                        ObservationHandler handler) throws IllegalArgumentException;
+}
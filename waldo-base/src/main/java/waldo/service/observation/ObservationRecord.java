@@ -0,0 +1,399 @@
+package waldo.service.observation;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import waldo.entity.FlightCategory;
+import waldo.entity.Observation;
+import waldo.entity.ReportType;
+import waldo.entity.SkyLayers;
+
+/**
+ * {@link ObservationRecord} is an immutable, unmanaged view of a single observation, used on read paths which have no
+ * need of a managed {@link Observation} entity (and the dirty checking, version tracking and persistence context
+ * bookkeeping which come with one.)
+ * <p>
+ * Numeric elements are held in the same fixed-point units as the corresponding {@link Observation} accessors, but as
+ * primitives: an element which was not reported has the value {@link #MISSING} rather than {@code null}, so that a
+ * record costs one allocation rather than one per element. Instances are created through a {@link Builder}, which may be
+ * reused from one record to the next.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class ObservationRecord
+{
+    /**
+     * Value of a numeric element which was not reported.
+     */
+    public static final short MISSING = Short.MIN_VALUE;
+
+    private final long m_id;
+    private final String m_station;
+    private final long m_observedAt;
+    private final ReportType m_reportType;
+    private final short m_temperature;
+    private final short m_dewpoint;
+    private final short m_altimeter;
+    private final short m_seaLevelPressure;
+    private final short m_windDirection;
+    private final short m_windSpeed;
+    private final short m_windGust;
+    private final short m_visibility;
+    private final short m_precipitation;
+    private final long m_skyLayers;
+    private final FlightCategory m_flightCategory;
+
+    /**
+     * Construct a {@link ObservationRecord} instance.
+     *
+     * @param builder the builder holding the element values.
+     */
+    private ObservationRecord(final Builder builder)
+    {
+        super();
+        m_id = builder.m_id;
+        m_station = builder.m_station;
+        m_observedAt = builder.m_observedAt;
+        m_reportType = builder.m_reportType;
+        m_temperature = builder.m_temperature;
+        m_dewpoint = builder.m_dewpoint;
+        m_altimeter = builder.m_altimeter;
+        m_seaLevelPressure = builder.m_seaLevelPressure;
+        m_windDirection = builder.m_windDirection;
+        m_windSpeed = builder.m_windSpeed;
+        m_windGust = builder.m_windGust;
+        m_visibility = builder.m_visibility;
+        m_precipitation = builder.m_precipitation;
+        m_skyLayers = builder.m_skyLayers;
+        m_flightCategory = builder.m_flightCategory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("id", m_id).append("station", m_station).append("observedAt",
+                m_observedAt).append("reportType", m_reportType).append("skyLayers", SkyLayers.toString(m_skyLayers))
+                .toString();
+    }
+
+    /**
+     * Get the identifier.
+     *
+     * @return {@code long} identifier, or {@code 0} if the record has not been stored.
+     */
+    public long getId()
+    {
+        return m_id;
+    }
+
+    /**
+     * Get the four-character ICAO identifier of the reporting station.
+     *
+     * @return {@link String} station identifier.
+     */
+    public String getStation()
+    {
+        return m_station;
+    }
+
+    /**
+     * Get the observation time.
+     *
+     * @return {@code long} observation time in milliseconds since the epoch.
+     */
+    public long getObservedAt()
+    {
+        return m_observedAt;
+    }
+
+    /**
+     * Get the report type.
+     *
+     * @return {@link ReportType} value.
+     */
+    public ReportType getReportType()
+    {
+        return m_reportType;
+    }
+
+    /**
+     * Get the air temperature.
+     *
+     * @return {@code short} temperature in tenths of a degree Celsius, or {@link #MISSING}.
+     */
+    public short getTemperature()
+    {
+        return m_temperature;
+    }
+
+    /**
+     * Get the dewpoint.
+     *
+     * @return {@code short} dewpoint in tenths of a degree Celsius, or {@link #MISSING}.
+     */
+    public short getDewpoint()
+    {
+        return m_dewpoint;
+    }
+
+    /**
+     * Get the altimeter setting.
+     *
+     * @return {@code short} altimeter in hundredths of an inch of mercury, or {@link #MISSING}.
+     */
+    public short getAltimeter()
+    {
+        return m_altimeter;
+    }
+
+    /**
+     * Get the sea level pressure.
+     *
+     * @return {@code short} pressure in tenths of a hectopascal, or {@link #MISSING}.
+     */
+    public short getSeaLevelPressure()
+    {
+        return m_seaLevelPressure;
+    }
+
+    /**
+     * Get the wind direction.
+     *
+     * @return {@code short} direction in degrees true, {@code 0} if variable, or {@link #MISSING}.
+     */
+    public short getWindDirection()
+    {
+        return m_windDirection;
+    }
+
+    /**
+     * Get the wind speed.
+     *
+     * @return {@code short} speed in knots, or {@link #MISSING}.
+     */
+    public short getWindSpeed()
+    {
+        return m_windSpeed;
+    }
+
+    /**
+     * Get the wind gust speed.
+     *
+     * @return {@code short} gust speed in knots, or {@link #MISSING} if no gusts were reported.
+     */
+    public short getWindGust()
+    {
+        return m_windGust;
+    }
+
+    /**
+     * Get the prevailing visibility.
+     *
+     * @return {@code short} visibility in hundredths of a statute mile, or {@link #MISSING}.
+     */
+    public short getVisibility()
+    {
+        return m_visibility;
+    }
+
+    /**
+     * Get the precipitation accumulated since the last report.
+     *
+     * @return {@code short} precipitation in hundredths of an inch, or {@link #MISSING}.
+     */
+    public short getPrecipitation()
+    {
+        return m_precipitation;
+    }
+
+    /**
+     * Get the reported cloud layers.
+     *
+     * @return {@code long} layers packed as described by {@link SkyLayers}.
+     */
+    public long getSkyLayers()
+    {
+        return m_skyLayers;
+    }
+
+    /**
+     * Get the flight category.
+     *
+     * @return {@link FlightCategory} value, or {@code null} if it could not be determined.
+     */
+    public FlightCategory getFlightCategory()
+    {
+        return m_flightCategory;
+    }
+
+    /**
+     * {@link Builder} accumulates element values for an {@link ObservationRecord}. A builder may be reused for any
+     * number of records; call {@link #reset()} between records so that elements are not carried over.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access.
+     */
+    public static final class Builder
+    {
+        private long m_id;
+        private String m_station;
+        private long m_observedAt;
+        private ReportType m_reportType;
+        private short m_temperature;
+        private short m_dewpoint;
+        private short m_altimeter;
+        private short m_seaLevelPressure;
+        private short m_windDirection;
+        private short m_windSpeed;
+        private short m_windGust;
+        private short m_visibility;
+        private short m_precipitation;
+        private long m_skyLayers;
+        private FlightCategory m_flightCategory;
+
+        /**
+         * Construct a {@link Builder} instance.
+         */
+        public Builder()
+        {
+            super();
+            reset();
+        }
+
+        /**
+         * Clear all element values.
+         *
+         * @return {@link Builder} this builder instance.
+         */
+        public Builder reset()
+        {
+            m_id = 0L;
+            m_station = null;
+            m_observedAt = 0L;
+            m_reportType = null;
+            m_temperature = MISSING;
+            m_dewpoint = MISSING;
+            m_altimeter = MISSING;
+            m_seaLevelPressure = MISSING;
+            m_windDirection = MISSING;
+            m_windSpeed = MISSING;
+            m_windGust = MISSING;
+            m_visibility = MISSING;
+            m_precipitation = MISSING;
+            m_skyLayers = SkyLayers.NONE;
+            m_flightCategory = null;
+            return this;
+        }
+
+        public Builder setId(final long id)
+        {
+            m_id = id;
+            return this;
+        }
+
+        public Builder setStation(final String station)
+        {
+            m_station = station;
+            return this;
+        }
+
+        public Builder setObservedAt(final long observedAt)
+        {
+            m_observedAt = observedAt;
+            return this;
+        }
+
+        public Builder setReportType(final ReportType reportType)
+        {
+            m_reportType = reportType;
+            return this;
+        }
+
+        public Builder setTemperature(final short temperature)
+        {
+            m_temperature = temperature;
+            return this;
+        }
+
+        public Builder setDewpoint(final short dewpoint)
+        {
+            m_dewpoint = dewpoint;
+            return this;
+        }
+
+        public Builder setAltimeter(final short altimeter)
+        {
+            m_altimeter = altimeter;
+            return this;
+        }
+
+        public Builder setSeaLevelPressure(final short seaLevelPressure)
+        {
+            m_seaLevelPressure = seaLevelPressure;
+            return this;
+        }
+
+        public Builder setWindDirection(final short windDirection)
+        {
+            m_windDirection = windDirection;
+            return this;
+        }
+
+        public Builder setWindSpeed(final short windSpeed)
+        {
+            m_windSpeed = windSpeed;
+            return this;
+        }
+
+        public Builder setWindGust(final short windGust)
+        {
+            m_windGust = windGust;
+            return this;
+        }
+
+        public Builder setVisibility(final short visibility)
+        {
+            m_visibility = visibility;
+            return this;
+        }
+
+        public Builder setPrecipitation(final short precipitation)
+        {
+            m_precipitation = precipitation;
+            return this;
+        }
+
+        public Builder setSkyLayers(final long skyLayers)
+        {
+            m_skyLayers = skyLayers;
+            return this;
+        }
+
+        public Builder setFlightCategory(final FlightCategory flightCategory)
+        {
+            m_flightCategory = flightCategory;
+            return this;
+        }
+
+        /**
+         * Create an {@link ObservationRecord} from the accumulated element values.
+         *
+         * @return {@link ObservationRecord} instance.
+         */
+        public ObservationRecord toRecord()
+        {
+            return new ObservationRecord(this);
+        }
+    }
+}
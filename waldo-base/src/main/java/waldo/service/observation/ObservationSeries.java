@@ -0,0 +1,237 @@
+package waldo.service.observation;
+
+import java.util.Collection;
+
+/**
+ * {@link ObservationSeries} holds the long-term history of each station's numeric elements as time series, for charting
+ * and analytics. Rather than one object per observation, each station's history is held as columns (observation time
+ * and one column per {@link Element}) in compressed, immutable chunks, so that weeks of history cost a few bytes per
+ * observation and a range of one element is read without touching the others.
+ * <p>
+ * A series holds one value per element for each observation time: a record for a time already held replaces it.
+ * History is retained for a configured period behind each station's latest observation.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ObservationSeries
+{
+    /**
+     * Add a record to the series of its station. A record older than the compressed part of the series is ignored.
+     *
+     * @param record the record.
+     * @return {@code true} if the record was added.
+     */
+    boolean append(ObservationRecord record);
+
+    /**
+     * Read the series of a station within a time range.
+     *
+     * @param station the station identifier.
+     * @param from the start of the range (inclusive) in milliseconds since the epoch.
+     * @param to the end of the range (exclusive) in milliseconds since the epoch.
+     * @return {@link Range} instance, which is empty if the station has no history in the range.
+     */
+    Range read(String station, long from, long to);
+
+    /**
+     * Aggregate one element of the series of a set of stations over consecutive time buckets, directly over the held
+     * series. Large sets of stations are aggregated in parallel.
+     *
+     * @param stations the station identifiers.
+     * @param element the element.
+     * @param from the start of the first bucket (inclusive) in milliseconds since the epoch.
+     * @param to the end of the range (exclusive) in milliseconds since the epoch; the last bucket may be shorter.
+     * @param interval the length of each bucket, in milliseconds.
+     * @return {@link SeriesAggregate} instance.
+     * @throws IllegalArgumentException if the range is empty, the interval is not positive, or there would be too many
+     * buckets.
+     */
+    SeriesAggregate aggregate(Collection<String> stations, Element element, long from, long to, long interval)
+            throws IllegalArgumentException;
+
+    /**
+     * {@link Element} enumerates the numeric elements held in each series, with their fixed-point scale.
+     */
+    enum Element
+    {
+        TEMPERATURE("temperature", 1)
+                {
+                    @Override
+                    public short getValue(final ObservationRecord record)
+                    {
+                        return record.getTemperature();
+                    }
+                },
+        DEWPOINT("dewpoint", 1)
+                {
+                    @Override
+                    public short getValue(final ObservationRecord record)
+                    {
+                        return record.getDewpoint();
+                    }
+                },
+        ALTIMETER("altimeter", 2)
+                {
+                    @Override
+                    public short getValue(final ObservationRecord record)
+                    {
+                        return record.getAltimeter();
+                    }
+                },
+        SEA_LEVEL_PRESSURE("seaLevelPressure", 1)
+                {
+                    @Override
+                    public short getValue(final ObservationRecord record)
+                    {
+                        return record.getSeaLevelPressure();
+                    }
+                },
+        WIND_DIRECTION("windDirection", 0)
+                {
+                    @Override
+                    public short getValue(final ObservationRecord record)
+                    {
+                        return record.getWindDirection();
+                    }
+                },
+        WIND_SPEED("windSpeed", 0)
+                {
+                    @Override
+                    public short getValue(final ObservationRecord record)
+                    {
+                        return record.getWindSpeed();
+                    }
+                },
+        WIND_GUST("windGust", 0)
+                {
+                    @Override
+                    public short getValue(final ObservationRecord record)
+                    {
+                        return record.getWindGust();
+                    }
+                },
+        VISIBILITY("visibility", 2)
+                {
+                    @Override
+                    public short getValue(final ObservationRecord record)
+                    {
+                        return record.getVisibility();
+                    }
+                },
+        PRECIPITATION("precipitation", 2)
+                {
+                    @Override
+                    public short getValue(final ObservationRecord record)
+                    {
+                        return record.getPrecipitation();
+                    }
+                };
+
+        private final String m_name;
+        private final int m_scale;
+
+        /**
+         * Construct a {@link Element} instance.
+         *
+         * @param name the element name, as used in output.
+         * @param scale the number of implied decimal places in element values.
+         */
+        private Element(final String name, final int scale)
+        {
+            m_name = name;
+            m_scale = scale;
+        }
+
+        /**
+         * Get the value of this element from a record.
+         *
+         * @param record the record.
+         * @return {@code short} fixed-point value, or {@link ObservationRecord#MISSING}.
+         */
+        public abstract short getValue(ObservationRecord record);
+
+        public String getName()
+        {
+            return m_name;
+        }
+
+        /**
+         * Get the number of implied decimal places in values of this element.
+         *
+         * @return {@code int} scale.
+         */
+        public int getScale()
+        {
+            return m_scale;
+        }
+    }
+
+    /**
+     * {@link Range} is the part of a station's series within a time range: an array of observation times in ascending
+     * order, and for each {@link Element} an array of values of the same length.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access.
+     * The arrays are returned without copying, and belong to the caller.
+     */
+    final class Range
+    {
+        private final long[] m_times;
+        private final short[][] m_values;
+
+        /**
+         * Construct a {@link Range} instance.
+         *
+         * @param times the observation times, in milliseconds since the epoch.
+         * @param values the values of each element, indexed by {@link Element#ordinal()}.
+         */
+        public Range(final long[] times, final short[][] values)
+        {
+            super();
+            m_times = times;
+            m_values = values;
+        }
+
+        /**
+         * Get the number of observations in the range.
+         *
+         * @return {@code int} observation count.
+         */
+        public int size()
+        {
+            return m_times.length;
+        }
+
+        /**
+         * Get the observation times.
+         *
+         * @return {@code long[]} times in milliseconds since the epoch, in ascending order.
+         */
+        public long[] getTimes()
+        {
+            return m_times;
+        }
+
+        /**
+         * Get the values of an element.
+         *
+         * @param element the element.
+         * @return {@code short[]} fixed-point values, or {@link ObservationRecord#MISSING} where not reported, in the
+         * order of {@link #getTimes()}.
+         */
+        public short[] getValues(final Element element)
+        {
+            return m_values[element.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package waldo.service.observation;
+
+import java.io.File;
+
+/**
+ * {@link ObservationSnapshotter} saves the content of the {@link ObservationStore} (latest conditions, recent history
+ * and station positions) to a compact binary snapshot file, and restores it from one. A node restores the configured
+ * snapshot file when it starts, before it accepts requests, so that it serves current data immediately rather than
+ * after the next acquisition cycle; it saves the file periodically while the store is changing.
+ * <p>
+ * Snapshot files are versioned and checksummed. An invalid file is rejected as a whole, never partly loaded.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ObservationSnapshotter
+{
+    /**
+     * Save a snapshot of the store. The file is replaced atomically, so a concurrent or interrupted save never leaves a
+     * partial file in place.
+     *
+     * @param file the snapshot file.
+     * @return {@code int} number of records saved.
+     * @throws SnapshotException if the snapshot could not be written.
+     */
+    int save(File file) throws SnapshotException;
+
+    /**
+     * Load a snapshot into the store. Records in the snapshot supersede held records for the same station, observation
+     * time and report type.
+     *
+     * @param file the snapshot file.
+     * @return {@code int} number of records loaded.
+     * @throws SnapshotException if the snapshot could not be read or is invalid.
+     */
+    int load(File file) throws SnapshotException;
+
+    /**
+     * Load the stations selected by a filter from a snapshot into the store. Unlike {@link #load(File)}, this does not
+     * mark the store as saved, since the store then holds content other than the snapshot's.
+     *
+     * @param file the snapshot file.
+     * @param filter the filter selecting the stations to load.
+     * @return {@code int} number of records loaded.
+     * @throws SnapshotException if the snapshot could not be read or is invalid.
+     */
+    int load(File file, ObservationStore.StationFilter filter) throws SnapshotException;
+
+    /**
+     * Replace the entire content of the store with the stations selected by a filter from a snapshot, as a single step
+     * from the point of view of readers (see {@link ObservationStore#replace(ObservationStore.Loader)}.) If the
+     * snapshot is invalid the store is unchanged.
+     *
+     * @param file the snapshot file.
+     * @param filter the filter selecting the stations to load.
+     * @return {@code int} number of records loaded.
+     * @throws SnapshotException if the snapshot could not be read or is invalid.
+     */
+    int replace(File file, ObservationStore.StationFilter filter) throws SnapshotException;
+
+    /**
+     * Save a snapshot to the configured file if the store has changed since the last save or load. This is invoked on a
+     * schedule and need not be called directly.
+     *
+     * @throws SnapshotException if the snapshot could not be written.
+     */
+    void checkpoint() throws SnapshotException;
+}
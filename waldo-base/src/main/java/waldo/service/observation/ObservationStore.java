@@ -0,0 +1,167 @@
+package waldo.service.observation;
+
+import waldo.utility.geo.BoundingBox;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link ObservationStore} holds the latest conditions and recent history of each station in memory, together with a
+ * spatial index of station positions, so that the common read paths are served without a database query. History is
+ * retained for a configured period behind each station's latest observation.
+ * <p>
+ * A record supersedes any held record for the same station, observation time and report type.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ObservationStore
+{
+    /**
+     * Add a record, superseding any held record for the same station, observation time and report type.
+     *
+     * @param record the record.
+     */
+    void put(ObservationRecord record);
+
+    /**
+     * Record the position of a station in the spatial index.
+     *
+     * @param station the station identifier.
+     * @param latitude the latitude in millionths of a degree.
+     * @param longitude the longitude in millionths of a degree.
+     */
+    void locate(String station, int latitude, int longitude);
+
+    /**
+     * Find the latest observation of a station.
+     *
+     * @param station the station identifier.
+     * @return {@link ObservationRecord} instance, or {@code null} if none is held.
+     */
+    ObservationRecord findLatest(String station);
+
+    /**
+     * Find the latest observation of each located station within a region.
+     *
+     * @param region the region.
+     * @return {@link List} of records, in no particular order.
+     */
+    List<ObservationRecord> findLatest(BoundingBox region);
+
+    /**
+     * Find the recent observations of a station.
+     *
+     * @param station the station identifier.
+     * @return {@link List} of records in ascending order of observation time, which is empty if none are held.
+     */
+    List<ObservationRecord> findRecent(String station);
+
+    /**
+     * Get a count which increases whenever the content of the store changes, so that a copy of the store (such as a
+     * snapshot) can tell whether it is current.
+     *
+     * @return {@code long} modification count.
+     */
+    long getModificationCount();
+
+    /**
+     * Find the stations whose records or position have changed since the store reached a given modification count.
+     * Stations discarded since then are not included.
+     *
+     * @param modificationCount the modification count.
+     * @return {@link Set} of station identifiers.
+     */
+    Set<String> findModifiedSince(long modificationCount);
+
+    /**
+     * Visit every station, with a consistent copy of its state.
+     *
+     * @param visitor the visitor.
+     */
+    void export(StationVisitor visitor);
+
+    /**
+     * Replace the entire content of the store. The loader populates a new, empty store, whose content then replaces
+     * that of this store in a single step: readers see either the previous content or the new, never a mixture. Content
+     * added to this store while the loader runs is discarded. If the loader throws, this store is unchanged.
+     *
+     * @param loader the loader.
+     */
+    void replace(Loader loader);
+
+    /**
+     * Discard every station not accepted by a filter, with all of its records.
+     *
+     * @param filter the filter.
+     * @return {@code int} number of stations discarded.
+     */
+    int retain(StationFilter filter);
+
+    /**
+     * {@link Loader} populates the replacement content for {@link #replace(Loader)}.
+     */
+    interface Loader
+    {
+        /**
+         * Populate a store.
+         *
+         * @param target the new, empty store.
+         */
+        void load(ObservationStore target);
+    }
+
+    /**
+     * {@link StationFilter} selects stations, such as those held by this node when stations are partitioned across
+     * nodes.
+     */
+    interface StationFilter
+    {
+        /**
+         * Filter which accepts every station.
+         */
+        StationFilter ALL = new StationFilter()
+        {
+            @Override
+            public boolean accept(final String station)
+            {
+                return true;
+            }
+        };
+
+        /**
+         * Determine whether a station is selected.
+         *
+         * @param station the station identifier.
+         * @return {@code true} if the station is selected.
+         */
+        boolean accept(String station);
+    }
+
+    /**
+     * {@link StationVisitor} receives the state of each station from {@link #export(StationVisitor)}.
+     */
+    interface StationVisitor
+    {
+        /**
+         * Visit one station.
+         *
+         * @param station the station identifier.
+         * @param located flag indicating whether the position of the station is known.
+         * @param latitude the latitude in millionths of a degree, if known.
+         * @param longitude the longitude in millionths of a degree, if known.
+         * @param records the recent observations, in ascending order of observation time.
+         */
+        void visit(String station, boolean located, int latitude, int longitude, List<ObservationRecord> records);
+    }
+}
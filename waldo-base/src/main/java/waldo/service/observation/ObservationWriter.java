@@ -0,0 +1,36 @@
+package waldo.service.observation;
+
+import java.util.List;
+
+/**
+ * {@link ObservationWriter} is the write repository for observations. It writes {@link ObservationRecord}s to the
+ * {@code OBSERVATION} table through JDBC in batches, bypassing the JPA persistence context, with identifiers drawn from
+ * the {@link waldo.utility.database.IdAllocator}.
+ * <p>
+ * An observation is identified by its station, observation time and report type. Writing an observation which is
+ * already stored with the same elements has no effect, and writing one which is stored with different elements (for
+ * example, a corrected report) replaces them, so the same records may safely be written any number of times.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ObservationWriter
+{
+    /**
+     * Write a batch of observations in a single transaction.
+     *
+     * @param records the records to write; their identifiers are ignored.
+     * @return {@code int} number of observations inserted or updated.
+     */
+    int write(List<ObservationRecord> records);
+}
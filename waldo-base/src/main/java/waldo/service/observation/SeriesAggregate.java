@@ -0,0 +1,134 @@
+package waldo.service.observation;
+
+/**
+ * {@link SeriesAggregate} summarizes the values of one element of {@link ObservationSeries} over consecutive time
+ * buckets of equal length: the count, minimum, maximum, mean and any percentile of the values reported within each
+ * bucket, over every station aggregated. Values are in the fixed-point units of the element (see
+ * {@link ObservationSeries.Element#getScale()}); unreported values are not counted.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class SeriesAggregate
+{
+    private final long m_from;
+    private final long m_interval;
+    private final long[] m_sums;
+    private final short[][] m_values;
+
+    /**
+     * Construct a {@link SeriesAggregate} instance.
+     *
+     * @param from the start of the first bucket, in milliseconds since the epoch.
+     * @param interval the length of each bucket, in milliseconds.
+     * @param values the values within each bucket, in ascending order; the arrays are retained without copying.
+     */
+    public SeriesAggregate(final long from, final long interval, final short[][] values)
+    {
+        super();
+        m_from = from;
+        m_interval = interval;
+        m_values = values;
+        m_sums = new long[values.length];
+        for (int bucket = 0; bucket < values.length; bucket++)
+        {
+            final short[] bucketValues = values[bucket];
+            long sum = 0L;
+            for (int i = 0; i < bucketValues.length; i++)
+            {
+                sum += bucketValues[i];
+            }
+            m_sums[bucket] = sum;
+        }
+    }
+
+    public int getBucketCount()
+    {
+        return m_values.length;
+    }
+
+    /**
+     * Get the start of a bucket.
+     *
+     * @param bucket the bucket index.
+     * @return {@code long} start (inclusive) in milliseconds since the epoch.
+     */
+    public long getBucketStart(final int bucket)
+    {
+        return m_from + bucket * m_interval;
+    }
+
+    /**
+     * Get the number of values within a bucket.
+     *
+     * @param bucket the bucket index.
+     * @return {@code int} value count.
+     */
+    public int getCount(final int bucket)
+    {
+        return m_values[bucket].length;
+    }
+
+    /**
+     * Get the minimum value within a bucket.
+     *
+     * @param bucket the bucket index.
+     * @return {@code short} minimum, or {@link ObservationRecord#MISSING} if the bucket is empty.
+     */
+    public short getMinimum(final int bucket)
+    {
+        return getPercentile(bucket, 0.0);
+    }
+
+    /**
+     * Get the maximum value within a bucket.
+     *
+     * @param bucket the bucket index.
+     * @return {@code short} maximum, or {@link ObservationRecord#MISSING} if the bucket is empty.
+     */
+    public short getMaximum(final int bucket)
+    {
+        return getPercentile(bucket, 100.0);
+    }
+
+    /**
+     * Get the mean of the values within a bucket.
+     *
+     * @param bucket the bucket index.
+     * @return {@code double} mean in fixed-point units, or {@link Double#NaN} if the bucket is empty.
+     */
+    public double getMean(final int bucket)
+    {
+        final int count = m_values[bucket].length;
+        return 0 == count ? Double.NaN : (double) m_sums[bucket] / count;
+    }
+
+    /**
+     * Get a percentile of the values within a bucket, by the nearest-rank method.
+     *
+     * @param bucket the bucket index.
+     * @param percentile the percentile, from {@code 0} (the minimum) to {@code 100} (the maximum.)
+     * @return {@code short} value, or {@link ObservationRecord#MISSING} if the bucket is empty.
+     * @throws IllegalArgumentException if the percentile is out of range.
+     */
+    public short getPercentile(final int bucket, final double percentile) throws IllegalArgumentException
+    {
+        if (!(percentile >= 0.0 && percentile <= 100.0))
+        {
+            throw new IllegalArgumentException(String.format("Percentile %s is out of range.", percentile));
+        }
+        final short[] values = m_values[bucket];
+        final int rank = (int) Math.ceil(percentile / 100.0 * values.length);
+        return 0 == values.length ? ObservationRecord.MISSING : values[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,32 @@
+package waldo.service.observation;
+
+/**
+ * {@link SnapshotPublisher} publishes snapshots of the {@link ObservationStore} to a shared location, such as an Amazon
+ * S3 bucket, from which read-only nodes load them (see {@link SnapshotSubscriber}) rather than each querying the
+ * database. Each snapshot is compressed and stored under its own version; a small pointer object naming the latest
+ * version is replaced once the snapshot itself is complete, so a reader never sees a partial snapshot.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface SnapshotPublisher
+{
+    /**
+     * Publish a snapshot if this node is the acquisition leader and the store has changed since the last snapshot was
+     * published. This is invoked on a schedule and need not be called directly.
+     *
+     * @return {@link String} version published, or {@code null} if none was.
+     * @throws SnapshotException if the snapshot could not be published.
+     */
+    String publish() throws SnapshotException;
+}
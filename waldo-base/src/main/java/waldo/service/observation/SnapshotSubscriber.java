@@ -0,0 +1,39 @@
+package waldo.service.observation;
+
+/**
+ * {@link SnapshotSubscriber} keeps the {@link ObservationStore} of a read-only node current by polling for snapshots
+ * published by a {@link SnapshotPublisher}, and swapping each new version into the store in a single step.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface SnapshotSubscriber
+{
+    /**
+     * Load the latest published snapshot into the store, if it is not the version already loaded. This is invoked on a
+     * schedule and need not be called directly.
+     *
+     * @return {@link String} version loaded, or {@code null} if none was.
+     * @throws SnapshotException if a new version exists but could not be loaded.
+     */
+    String refresh() throws SnapshotException;
+
+    /**
+     * Determine whether the store holds this node's share of the published observations: that is, whether a snapshot
+     * has been loaded for the stations this node owns under the current live membership. Until then this node should
+     * not be counted among the live nodes, since it would answer for stations it does not yet hold.
+     *
+     * @return {@code true} if a snapshot has been loaded under the current membership, or distribution is disabled.
+     */
+    boolean isLoaded();
+}
@@ -0,0 +1,77 @@
+package waldo.service.shard;
+
+import waldo.service.observation.ObservationStore;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link StationSharding} partitions stations across the live serving nodes, so that each node's
+ * {@link ObservationStore} holds only its share of the stations rather than all of them. Each station is held by a
+ * configured number of live nodes (its owners), placed by consistent hashing over the node identifiers, which are the
+ * nodes' base URLs. When a node leaves or rejoins, only the stations whose owners changed move; the rest stay put.
+ * <p>
+ * When partitioning is not configured, this node owns every station and there are no other nodes.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface StationSharding
+{
+    /**
+     * Get the identifier (base URL) of this node.
+     *
+     * @return {@link String} node identifier, or {@code null} if partitioning is not configured.
+     */
+    String getLocalNode();
+
+    /**
+     * Get the live nodes, including this one.
+     *
+     * @return {@link Set} of node identifiers, which is empty if partitioning is not configured.
+     */
+    Set<String> getLiveNodes();
+
+    /**
+     * Get the live owners of a station.
+     *
+     * @param station the station identifier.
+     * @return {@link List} of node identifiers, primary owner first; empty if partitioning is not configured.
+     */
+    List<String> getOwners(String station);
+
+    /**
+     * Determine whether this node owns a station.
+     *
+     * @param station the station identifier.
+     * @return {@code true} if this node is among the owners of the station, or partitioning is not configured.
+     */
+    boolean isLocal(String station);
+
+    /**
+     * Get a filter selecting the stations this node owns under the current membership. The filter does not change when
+     * membership changes; a new filter is returned instead, so that the stations gained or lost can be determined by
+     * comparing the two.
+     *
+     * @return {@link ObservationStore.StationFilter} instance.
+     */
+    ObservationStore.StationFilter getLocalFilter();
+
+    /**
+     * Probe the other nodes, and update the live membership. This is invoked on a schedule and need not be called
+     * directly.
+     *
+     * @return {@code true} if the live membership changed.
+     */
+    boolean probe();
+}
@@ -0,0 +1,287 @@
+package waldo.service.station;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import waldo.entity.Station;
+
+/**
+ * {@link StationMetadata} is an immutable record of the reference metadata of a reporting station: its name, location
+ * and elevation. Unlike the {@link Station} entity it is unmanaged and holds its coordinates and elevation as
+ * primitives, decoded once when the reference data is read; an elevation which is not known has the value
+ * {@link #MISSING}. Instances are created through a {@link Builder}, which may be reused from one record to the next.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class StationMetadata
+{
+    /**
+     * Value of an elevation which is not known.
+     */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private final String m_country;
+    private final int m_elevation;
+    private final int m_latitude;
+    private final int m_longitude;
+    private final String m_name;
+    private final String m_state;
+    private final String m_station;
+
+    /**
+     * Construct a {@link StationMetadata} instance.
+     *
+     * @param builder the builder holding the station values.
+     */
+    private StationMetadata(final Builder builder)
+    {
+        super();
+        m_country = builder.m_country;
+        m_elevation = builder.m_elevation;
+        m_latitude = builder.m_latitude;
+        m_longitude = builder.m_longitude;
+        m_name = builder.m_name;
+        m_state = builder.m_state;
+        m_station = builder.m_station;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object other)
+    {
+        final boolean result;
+        if (this == other)
+        {
+            result = true;
+        }
+        else if (!(other instanceof StationMetadata))
+        {
+            result = false;
+        }
+        else
+        {
+            final StationMetadata metadata = (StationMetadata) other;
+            result = m_station.equals(metadata.m_station) && m_latitude == metadata.m_latitude
+                    && m_longitude == metadata.m_longitude && m_elevation == metadata.m_elevation && equals(m_name,
+                    metadata.m_name) && equals(m_state, metadata.m_state) && equals(m_country, metadata.m_country);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return ((m_station.hashCode() * 31 + m_latitude) * 31 + m_longitude) * 31 + m_elevation;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("station", m_station).append("name", m_name).append("latitude",
+                m_latitude).append("longitude", m_longitude).append("elevation", m_elevation).toString();
+    }
+
+    /**
+     * Get the country in which the station is located.
+     *
+     * @return {@link String} two-letter country code, or {@code null} if not known.
+     */
+    public String getCountry()
+    {
+        return m_country;
+    }
+
+    /**
+     * Get the elevation.
+     *
+     * @return {@code int} elevation in meters, or {@link #MISSING}.
+     */
+    public int getElevation()
+    {
+        return m_elevation;
+    }
+
+    /**
+     * Get the latitude.
+     *
+     * @return {@code int} latitude in millionths of a degree, positive north.
+     */
+    public int getLatitude()
+    {
+        return m_latitude;
+    }
+
+    /**
+     * Get the longitude.
+     *
+     * @return {@code int} longitude in millionths of a degree, positive east.
+     */
+    public int getLongitude()
+    {
+        return m_longitude;
+    }
+
+    /**
+     * Get the station name.
+     *
+     * @return {@link String} name, or {@code null} if not known.
+     */
+    public String getName()
+    {
+        return m_name;
+    }
+
+    /**
+     * Get the state or province in which the station is located.
+     *
+     * @return {@link String} two-letter state code, or {@code null} if not applicable.
+     */
+    public String getState()
+    {
+        return m_state;
+    }
+
+    /**
+     * Get the four-character ICAO identifier of the station.
+     *
+     * @return {@link String} station identifier.
+     */
+    public String getStation()
+    {
+        return m_station;
+    }
+
+    /**
+     * Compare two values, either of which may be {@code null}.
+     *
+     * @param first the first value.
+     * @param second the second value.
+     * @return {@code boolean} true if the values are equal.
+     */
+    private static boolean equals(final String first, final String second)
+    {
+        return null == first ? null == second : first.equals(second);
+    }
+
+    /**
+     * {@link Builder} accumulates values for a {@link StationMetadata}. A builder may be reused for any number of
+     * records; call {@link #reset()} between records so that values are not carried over.
+     * <p>
+     * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access.
+     */
+    public static final class Builder
+    {
+        private String m_country;
+        private int m_elevation;
+        private int m_latitude;
+        private int m_longitude;
+        private String m_name;
+        private String m_state;
+        private String m_station;
+
+        /**
+         * Construct a {@link Builder} instance.
+         */
+        public Builder()
+        {
+            super();
+            reset();
+        }
+
+        /**
+         * Clear all values.
+         *
+         * @return {@link Builder} this builder instance.
+         */
+        public Builder reset()
+        {
+            m_country = null;
+            m_elevation = MISSING;
+            m_latitude = 0;
+            m_longitude = 0;
+            m_name = null;
+            m_state = null;
+            m_station = null;
+            return this;
+        }
+
+        public Builder setCountry(final String country)
+        {
+            m_country = country;
+            return this;
+        }
+
+        public Builder setElevation(final int elevation)
+        {
+            m_elevation = elevation;
+            return this;
+        }
+
+        public Builder setLatitude(final int latitude)
+        {
+            m_latitude = latitude;
+            return this;
+        }
+
+        public Builder setLongitude(final int longitude)
+        {
+            m_longitude = longitude;
+            return this;
+        }
+
+        public Builder setName(final String name)
+        {
+            m_name = name;
+            return this;
+        }
+
+        public Builder setState(final String state)
+        {
+            m_state = state;
+            return this;
+        }
+
+        public Builder setStation(final String station)
+        {
+            m_station = station;
+            return this;
+        }
+
+        /**
+         * Create a {@link StationMetadata} from the accumulated values.
+         *
+         * @return {@link StationMetadata} instance.
+         * @throws IllegalArgumentException if no station was given, or the location is out of range.
+         */
+        public StationMetadata toMetadata() throws IllegalArgumentException
+        {
+            if (null == m_station)
+            {
+                throw new IllegalArgumentException("Station is missing.");
+            }
+            if (Math.abs(m_latitude) > 90000000 || Math.abs(m_longitude) > 180000000)
+            {
+                throw new IllegalArgumentException(String.format("Location of station [%s] is out of range.",
+                        m_station));
+            }
+            return new StationMetadata(this);
+        }
+    }
+}
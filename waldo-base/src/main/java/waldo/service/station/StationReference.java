@@ -0,0 +1,59 @@
+package waldo.service.station;
+
+import waldo.utility.station.StationDictionary;
+
+import java.util.Collection;
+
+/**
+ * {@link StationReference} is an in-memory reference table of station metadata, keyed by the dense identifiers
+ * assigned by the shared {@link StationDictionary}. It is filled from the ADDS stations product or, where one is
+ * configured, a local reference file instead, and is replaced as a whole, and its version advanced, only when the
+ * metadata read differs from that held; consumers which derive values from the metadata may cache them against
+ * {@link #getVersion()}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface StationReference
+{
+    /**
+     * Find the metadata of a station.
+     *
+     * @param station the station identifier.
+     * @return {@link StationMetadata} instance, or {@code null} if none is held.
+     */
+    StationMetadata find(String station);
+
+    /**
+     * Get the metadata of a station.
+     *
+     * @param id the dense station identifier.
+     * @return {@link StationMetadata} instance, or {@code null} if none is held.
+     */
+    StationMetadata get(int id);
+
+    /**
+     * Get the version of the metadata held, which advances each time it changes.
+     *
+     * @return {@code long} version, or {@code 0} if no metadata has been held.
+     */
+    long getVersion();
+
+    /**
+     * Replace the metadata held with that of a new issue of the reference data, which lists every station. Nothing is
+     * replaced if the metadata is the same as that held. Queries see either the old metadata or the new, never a
+     * mixture.
+     *
+     * @param stations the station metadata; where a station is listed more than once, the last entry is held.
+     * @return {@code boolean} true if the metadata held changed.
+     */
+    boolean replace(Collection<StationMetadata> stations);
+}
@@ -0,0 +1,186 @@
+package waldo.utility.cluster;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@link ChangeNotice} announces that a node has committed a change to shared state: the {@code topic} of the state,
+ * the {@code sequence} number of the change, the sequence number of the change before it, and the keys (such as
+ * station identifiers) which it affected. A receiver holding a copy of the state as of the previous change need only
+ * refresh the affected keys; any other receiver must refresh everything.
+ * <p>
+ * Notices travel as PostgreSQL notification payloads, which are limited to {@value #MAX_PAYLOAD_BYTES} bytes. A notice
+ * whose keys do not fit is sent without them, meaning that any key may have changed.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class ChangeNotice
+{
+    /**
+     * Maximum length, in bytes, of an encoded notice.
+     */
+    public static final int MAX_PAYLOAD_BYTES = 7999;
+
+    private static final String ALL = "*";
+    private static final Charset s_utf8 = Charset.forName("UTF-8");
+
+    private final Set<String> m_keys;
+    private final long m_previous;
+    private final long m_sequence;
+    private final String m_topic;
+
+    /**
+     * Construct a {@link ChangeNotice} instance.
+     *
+     * @param topic the topic, which may not contain {@code ';'}.
+     * @param sequence the sequence number of the change.
+     * @param previous the sequence number of the previous change.
+     * @param keys the keys affected, none of which may contain {@code ','}, or {@code null} if any key may have
+     * changed.
+     */
+    public ChangeNotice(final String topic, final long sequence, final long previous, final Collection<String> keys)
+    {
+        super();
+        m_keys = null == keys ? null : Collections.unmodifiableSet(new TreeSet<>(keys));
+        m_previous = previous;
+        m_sequence = sequence;
+        m_topic = topic;
+    }
+
+    /**
+     * Decode a notice previously produced by {@link #encode()}.
+     *
+     * @param encoded the encoded notice.
+     * @return {@link ChangeNotice} instance.
+     * @throws IllegalArgumentException if {@code encoded} is not a valid notice.
+     */
+    public static ChangeNotice decode(final String encoded) throws IllegalArgumentException
+    {
+        final String[] fields = encoded.split(";", -1);
+        if (4 != fields.length)
+        {
+            throw new IllegalArgumentException(String.format("Change notice [%s] is invalid.", encoded));
+        }
+        final ChangeNotice result;
+        try
+        {
+            final Set<String> keys;
+            if (ALL.equals(fields[3]))
+            {
+                keys = null;
+            }
+            else if (fields[3].isEmpty())
+            {
+                keys = Collections.emptySet();
+            }
+            else
+            {
+                keys = new TreeSet<>();
+                Collections.addAll(keys, fields[3].split(","));
+            }
+            result = new ChangeNotice(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]), keys);
+        }
+        catch (final NumberFormatException e)
+        {
+            throw new IllegalArgumentException(String.format("Change notice [%s] is invalid.", encoded), e);
+        }
+        return result;
+    }
+
+    /**
+     * Encode this notice as a notification payload, dropping the keys if they do not fit.
+     *
+     * @return {@link String} encoded notice.
+     */
+    public String encode()
+    {
+        final StringBuilder result = new StringBuilder(64).append(m_topic).append(';').append(m_sequence).append(';')
+                .append(m_previous).append(';');
+        final int prefix = result.length();
+        if (null == m_keys)
+        {
+            result.append(ALL);
+        }
+        else
+        {
+            boolean first = true;
+            for (final String key : m_keys)
+            {
+                if (!first)
+                {
+                    result.append(',');
+                }
+                result.append(key);
+                first = false;
+            }
+            if (result.toString().getBytes(s_utf8).length > MAX_PAYLOAD_BYTES)
+            {
+                result.setLength(prefix);
+                result.append(ALL);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Determine whether a key may have been affected by this change.
+     *
+     * @param key the key.
+     * @return {@code true} if the key was affected, or the affected keys are not known.
+     */
+    public boolean affects(final String key)
+    {
+        return null == m_keys || m_keys.contains(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("topic", m_topic).append("sequence", m_sequence).append("previous",
+                m_previous).append("keys", null == m_keys ? ALL : m_keys.size()).toString();
+    }
+
+    /**
+     * Get the keys affected.
+     *
+     * @return {@link Set} of keys, or {@code null} if any key may have changed.
+     */
+    public Set<String> getKeys()
+    {
+        return m_keys;
+    }
+
+    public long getPrevious()
+    {
+        return m_previous;
+    }
+
+    public long getSequence()
+    {
+        return m_sequence;
+    }
+
+    public String getTopic()
+    {
+        return m_topic;
+    }
+}
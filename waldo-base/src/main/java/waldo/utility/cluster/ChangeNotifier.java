@@ -0,0 +1,69 @@
+package waldo.utility.cluster;
+
+/**
+ * {@link ChangeNotifier} exchanges {@link ChangeNotice}s between nodes, so that a node holding a copy of shared state
+ * (a cache) learns promptly that another node has changed it, and which parts changed, rather than waiting for the copy
+ * to expire.
+ * <p>
+ * Delivery is prompt but not guaranteed: notices sent while a node cannot reach the database are lost to it. Each
+ * listener is told when this may have happened (see {@link Listener#missed()}), and should then treat its whole copy
+ * as stale.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ChangeNotifier
+{
+    /**
+     * Send a notice to every node, including this one. If a transaction is active, the notice is sent when (and only
+     * if) it commits.
+     *
+     * @param notice the notice.
+     */
+    void publish(ChangeNotice notice);
+
+    /**
+     * Register a listener for the notices of a topic.
+     *
+     * @param topic the topic.
+     * @param listener the listener.
+     */
+    void subscribe(String topic, Listener listener);
+
+    /**
+     * Receive any pending notices and pass them to the registered listeners. This is invoked on a schedule and need not
+     * be called directly.
+     *
+     * @return {@code int} number of notices received.
+     */
+    int poll();
+
+    /**
+     * {@link Listener} receives the notices of a topic. Listeners are invoked on the polling thread, and should return
+     * promptly.
+     */
+    interface Listener
+    {
+        /**
+         * Receive a notice.
+         *
+         * @param notice the notice.
+         */
+        void changed(ChangeNotice notice);
+
+        /**
+         * Be told that notices may have been missed, because the listening connection was (re)opened.
+         */
+        void missed();
+    }
+}
@@ -0,0 +1,45 @@
+package waldo.utility.cluster;
+
+import java.util.Set;
+
+/**
+ * {@link ClusterMembership} tracks the live nodes of the data acquisition cluster. Each node records a heartbeat in the
+ * {@code CLUSTER_NODE} table at a fixed interval; a node whose heartbeat is older than the configured timeout is no
+ * longer considered live. Heartbeat times are taken from the database clock, so clock skew between nodes does not
+ * matter.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ClusterMembership
+{
+    /**
+     * Get the identifier of this node, which is unique among the nodes of the cluster.
+     *
+     * @return {@link String} node identifier.
+     */
+    String getNodeId();
+
+    /**
+     * Get the identifiers of the live nodes. The result always includes this node, and may be up to one heartbeat
+     * interval out of date.
+     *
+     * @return {@link Set} of node identifiers.
+     */
+    Set<String> getLiveNodes();
+
+    /**
+     * Record a heartbeat for this node. This is invoked on a schedule and need not be called directly.
+     */
+    void heartbeat();
+}
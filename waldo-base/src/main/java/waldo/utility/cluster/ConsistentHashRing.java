@@ -0,0 +1,145 @@
+package waldo.utility.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@link ConsistentHashRing} assigns keys to nodes by consistent hashing. Each node is placed on a 64-bit ring at a
+ * number of pseudo-random points (virtual nodes), and a key belongs to the nodes at the first points found walking
+ * clockwise from the hash of the key. Virtual nodes spread each node's share of the ring into many small arcs, so
+ * shares are even and, when a node joins or leaves, the keys which move are drawn evenly from (or spread evenly across) all
+ * other nodes rather than from one neighbour.
+ * <p>
+ * Unlike {@link RendezvousHash}, which scores every node for every key, a lookup costs a binary search over the points,
+ * independent of the number of nodes; that suits per-request routing.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class ConsistentHashRing
+{
+    private final Set<String> m_nodes;
+    private final String[] m_owners;
+    private final long[] m_points;
+
+    /**
+     * Construct a {@link ConsistentHashRing} instance.
+     *
+     * @param nodes the node identifiers.
+     * @param virtualNodes the number of points at which each node is placed on the ring.
+     * @throws IllegalArgumentException if {@code virtualNodes} is not positive.
+     */
+    public ConsistentHashRing(final Collection<String> nodes, final int virtualNodes) throws IllegalArgumentException
+    {
+        super();
+        if (virtualNodes < 1)
+        {
+            throw new IllegalArgumentException(String.format("Virtual node count %d is not positive.", virtualNodes));
+        }
+        m_nodes = Collections.unmodifiableSet(new TreeSet<>(nodes));
+
+        /* Place every node's points, then sort them around the ring; ties (vanishingly rare) go to the lesser node. */
+        final List<Point> points = new ArrayList<>(m_nodes.size() * virtualNodes);
+        for (final String node : m_nodes)
+        {
+            for (int i = 0; i < virtualNodes; i++)
+            {
+                points.add(new Point(RendezvousHash.score(node, Integer.toString(i)), node));
+            }
+        }
+        Collections.sort(points, new Comparator<Point>()
+        {
+            /** {@inheritDoc} */
+            @Override
+            public int compare(final Point left, final Point right)
+            {
+                final int result = Long.compare(left.m_position, right.m_position);
+                return 0 != result ? result : left.m_node.compareTo(right.m_node);
+            }
+        });
+        m_points = new long[points.size()];
+        m_owners = new String[points.size()];
+        for (int i = 0; i < m_points.length; i++)
+        {
+            m_points[i] = points.get(i).m_position;
+            m_owners[i] = points.get(i).m_node;
+        }
+    }
+
+    /**
+     * Get the owners of a key: the first distinct nodes clockwise from the key's position.
+     *
+     * @param key the key.
+     * @param replicas the number of owners required.
+     * @return {@link List} of at most {@code replicas} node identifiers, primary owner first; empty if the ring has no
+     * nodes.
+     */
+    public List<String> getOwners(final String key, final int replicas)
+    {
+        final int count = Math.min(replicas, m_nodes.size());
+        final List<String> result = new ArrayList<>(count);
+        if (count > 0)
+        {
+            final int found = Arrays.binarySearch(m_points, RendezvousHash.score(key, ""));
+            int index = found < 0 ? -found - 1 : found;
+            while (result.size() < count)
+            {
+                final String owner = m_owners[index % m_owners.length];
+                if (!result.contains(owner))
+                {
+                    result.add(owner);
+                }
+                index++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the nodes on the ring.
+     *
+     * @return {@link Set} of node identifiers, in natural order.
+     */
+    public Set<String> getNodes()
+    {
+        return m_nodes;
+    }
+
+    /**
+     * {@link Point} is one virtual node during construction.
+     */
+    private static final class Point
+    {
+        private final String m_node;
+        private final long m_position;
+
+        /**
+         * Construct a {@link Point} instance.
+         *
+         * @param position the position on the ring.
+         * @param node the node identifier.
+         */
+        Point(final long position, final String node)
+        {
+            super();
+            m_node = node;
+            m_position = position;
+        }
+    }
+}
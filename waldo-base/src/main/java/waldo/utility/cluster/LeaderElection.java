@@ -0,0 +1,37 @@
+package waldo.utility.cluster;
+
+/**
+ * {@link LeaderElection} elects a single node of the cluster to perform work which must not be duplicated across nodes,
+ * such as data acquisition. At most one node holds the leader lease at a time; when the holder fails or shuts down, the
+ * lease is released and another node takes it over on its next check.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface LeaderElection
+{
+    /**
+     * Determine whether this node is the leader, verifying that a lease already held is still valid and attempting to
+     * take the lease if it is not held by any node. This should be called immediately before each unit of leader-only
+     * work, so that a node which has lost its lease (for example, through a network partition) stops promptly.
+     *
+     * @return {@code true} if this node holds the leader lease.
+     */
+    boolean isLeader();
+
+    /**
+     * Release the leader lease, if held, so that another node may take it over without waiting for this node's session
+     * to time out.
+     */
+    void resign();
+}
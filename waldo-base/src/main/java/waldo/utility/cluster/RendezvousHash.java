@@ -0,0 +1,130 @@
+package waldo.utility.cluster;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@link RendezvousHash} assigns keys to nodes by rendezvous (highest random weight) hashing: each node is scored by a
+ * hash of the key and the node identifier together, and the key belongs to the highest-scoring node. Every node computes
+ * the same assignment from the same membership without any communication, and when a node joins or leaves only the keys
+ * it wins (or won) move; the rest keep their owner. Ranking the nodes by score gives each key a stable order of
+ * fallback owners.
+ * <p>
+ * <strong>Thread Safety:</strong> this class contains no mutable state and is therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class RendezvousHash
+{
+    private static final Charset s_utf8 = Charset.forName("UTF-8");
+
+    /**
+     * Private constructor; this class contains only static methods.
+     */
+    private RendezvousHash()
+    {
+        super();
+    }
+
+    /**
+     * Get the owner of a key.
+     *
+     * @param key the key.
+     * @param nodes the candidate node identifiers.
+     * @return {@link String} identifier of the highest-scoring node, or {@code null} if {@code nodes} is empty.
+     */
+    public static String owner(final String key, final Collection<String> nodes)
+    {
+        String result = null;
+        long best = 0L;
+        for (final String node : nodes)
+        {
+            final long score = score(key, node);
+            if (null == result || compare(score, best, node, result) > 0)
+            {
+                result = node;
+                best = score;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rank the candidate owners of a key, best first.
+     *
+     * @param key the key.
+     * @param nodes the candidate node identifiers.
+     * @return {@link List} of node identifiers in descending order of score.
+     */
+    public static List<String> rank(final String key, final Collection<String> nodes)
+    {
+        final List<String> result = new ArrayList<>(nodes);
+        Collections.sort(result, new Comparator<String>()
+        {
+            /** {@inheritDoc} */
+            @Override
+            public int compare(final String left, final String right)
+            {
+                return RendezvousHash.compare(score(key, right), score(key, left), right, left);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Score a node for a key: a 64-bit FNV-1a hash over the key, a separator and the node identifier, finished with the
+     * MurmurHash3 mixer so that keys and nodes differing in a single character still score independently.
+     *
+     * @param key the key.
+     * @param node the node identifier.
+     * @return {@code long} score.
+     */
+    static long score(final String key, final String node)
+    {
+        long hash = 0xcbf29ce484222325L;
+        for (final byte next : key.getBytes(s_utf8))
+        {
+            hash = (hash ^ (next & 0xff)) * 0x100000001b3L;
+        }
+        hash *= 0x100000001b3L;
+        for (final byte next : node.getBytes(s_utf8))
+        {
+            hash = (hash ^ (next & 0xff)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Compare two scores as unsigned values, breaking ties by node identifier so that the ranking is total.
+     *
+     * @param leftScore the first score.
+     * @param rightScore the second score.
+     * @param leftNode the node with the first score.
+     * @param rightNode the node with the second score.
+     * @return {@code int} comparison result.
+     */
+    private static int compare(final long leftScore, final long rightScore, final String leftNode,
+                               final String rightNode)
+    {
+        final int result = Long.compare(leftScore ^ Long.MIN_VALUE, rightScore ^ Long.MIN_VALUE);
+        return 0 != result ? result : leftNode.compareTo(rightNode);
+    }
+}
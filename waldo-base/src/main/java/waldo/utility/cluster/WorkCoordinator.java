@@ -0,0 +1,53 @@
+package waldo.utility.cluster;
+
+/**
+ * {@link WorkCoordinator} shares units of work among the live nodes of the cluster, so that each unit is processed by
+ * one node and the total work is spread over all of them. A unit is identified by a key which should include its
+ * version (for example, a file name and modification time), so that a unit which has already been completed is not
+ * processed again.
+ * <p>
+ * Each unit is offered to one owner, chosen among the live nodes by {@link RendezvousHash}. The owner claims the unit
+ * with a deadline; if the deadline passes before the unit is completed (because the owner failed, or fell behind), the
+ * unit is reassigned to the next-ranked live node. A unit which its owner never claims, or which the next-ranked node
+ * never takes, within a deadline is taken by the next node to ask for it, so that a unit is not left undone because
+ * the nodes chosen for it do not process units of its kind.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface WorkCoordinator
+{
+    /**
+     * Attempt to claim a unit of work for this node. A claim is granted if this node is the unit's owner and the unit
+     * has not been claimed, or if the unit's current claim has expired without completion and this node is the
+     * next-ranked live node after the current claimant. A node should ask only for units which it is able to process,
+     * since a unit left unclaimed past its deadline is granted to whichever node asks next.
+     *
+     * @param key the unit key.
+     * @return {@code true} if this node has claimed the unit and should process it.
+     */
+    boolean claim(String key);
+
+    /**
+     * Mark a unit of work claimed by this node as completed, so that it will not be processed again.
+     *
+     * @param key the unit key.
+     */
+    void complete(String key);
+
+    /**
+     * Delete claims, and nodes, which are older than the configured retention period. Only one node (the leader) needs
+     * to do this.
+     */
+    void prune();
+}
@@ -0,0 +1,171 @@
+package waldo.utility.collection;
+
+/**
+ * {@link IntObjectMap} maps primitive {@code int} keys to non-null values, in an open-addressing table with linear
+ * probing. Unlike a {@link java.util.HashMap} keyed by {@link Integer}, neither a lookup nor an insertion of an
+ * existing key allocates; the table is kept at most half full and doubles as needed. Entries cannot be removed
+ * individually.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class IntObjectMap<V>
+{
+    private int[] m_keys;
+    private int m_size;
+    private Object[] m_values;
+
+    /**
+     * Construct a {@link IntObjectMap} instance.
+     *
+     * @param expected the number of entries expected, used to size the table.
+     */
+    public IntObjectMap(final int expected)
+    {
+        super();
+        final int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        m_keys = new int[capacity];
+        m_values = new Object[capacity];
+    }
+
+    /**
+     * Get the value mapped to a key.
+     *
+     * @param key the key.
+     * @return {@link Object} value, or {@code null} if the key is not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final int key)
+    {
+        final Object[] values = m_values;
+        final int mask = values.length - 1;
+        int slot = mix(key) & mask;
+        while (null != values[slot] && key != m_keys[slot])
+        {
+            slot = slot + 1 & mask;
+        }
+        return (V) values[slot];
+    }
+
+    /**
+     * Map a key to a value.
+     *
+     * @param key the key.
+     * @param value the value.
+     * @return {@link Object} value previously mapped to the key, or {@code null} if it was not mapped.
+     * @throws IllegalArgumentException if {@code value} is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final int key, final V value) throws IllegalArgumentException
+    {
+        if (null == value)
+        {
+            throw new IllegalArgumentException("Null values cannot be mapped.");
+        }
+        final int slot = find(m_keys, m_values, key);
+        final V result = (V) m_values[slot];
+        m_keys[slot] = key;
+        m_values[slot] = value;
+        if (null == result && ++m_size * 2 > m_values.length)
+        {
+            grow();
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of keys mapped.
+     *
+     * @return {@code int} count.
+     */
+    public int size()
+    {
+        return m_size;
+    }
+
+    /**
+     * Visit every entry, in no particular order.
+     *
+     * @param visitor the visitor.
+     */
+    @SuppressWarnings("unchecked")
+    public void visit(final Visitor<? super V> visitor)
+    {
+        for (int slot = 0; slot < m_values.length; slot++)
+        {
+            if (null != m_values[slot])
+            {
+                visitor.visit(m_keys[slot], (V) m_values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Double the capacity of the table, reinserting every entry.
+     */
+    private void grow()
+    {
+        final int[] keys = new int[m_keys.length * 2];
+        final Object[] values = new Object[keys.length];
+        for (int slot = 0; slot < m_values.length; slot++)
+        {
+            if (null != m_values[slot])
+            {
+                final int target = find(keys, values, m_keys[slot]);
+                keys[target] = m_keys[slot];
+                values[target] = m_values[slot];
+            }
+        }
+        m_keys = keys;
+        m_values = values;
+    }
+
+    /**
+     * Find the slot holding a key, or the empty slot at which it would be inserted.
+     *
+     * @param keys the keys.
+     * @param values the values.
+     * @param key the key.
+     * @return {@code int} slot.
+     */
+    private static int find(final int[] keys, final Object[] values, final int key)
+    {
+        final int mask = values.length - 1;
+        int result = mix(key) & mask;
+        while (null != values[result] && key != keys[result])
+        {
+            result = result + 1 & mask;
+        }
+        return result;
+    }
+
+    private static int mix(final int key)
+    {
+        final int result = key * 0x9e3779b9;
+        return result ^ result >>> 16;
+    }
+
+    /**
+     * {@link Visitor} receives the entries of an {@link IntObjectMap}.
+     */
+    public interface Visitor<V>
+    {
+        /**
+         * Visit an entry.
+         *
+         * @param key the key.
+         * @param value the value.
+         */
+        void visit(int key, V value);
+    }
+}
@@ -0,0 +1,129 @@
+package waldo.utility.collection;
+
+/**
+ * {@link LongLongMap} maps primitive {@code long} keys to primitive {@code long} values, in an open-addressing table
+ * with linear probing. Unlike a {@link java.util.HashMap} keyed by {@link Long}, neither a lookup nor an insertion of
+ * an existing key allocates; the table is kept at most half full and doubles as needed. Entries cannot be removed
+ * individually.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class LongLongMap
+{
+    private long[] m_keys;
+    private int m_size;
+    private boolean[] m_used;
+    private long[] m_values;
+
+    /**
+     * Construct a {@link LongLongMap} instance.
+     *
+     * @param expected the number of entries expected, used to size the table.
+     */
+    public LongLongMap(final int expected)
+    {
+        super();
+        final int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        m_keys = new long[capacity];
+        m_used = new boolean[capacity];
+        m_values = new long[capacity];
+    }
+
+    /**
+     * Get the value mapped to a key.
+     *
+     * @param key the key.
+     * @param absent the value to return if the key is not mapped.
+     * @return {@code long} value, or {@code absent} if the key is not mapped.
+     */
+    public long get(final long key, final long absent)
+    {
+        final int slot = find(m_keys, m_used, key);
+        return m_used[slot] ? m_values[slot] : absent;
+    }
+
+    /**
+     * Map a key to a value, replacing any value previously mapped to it.
+     *
+     * @param key the key.
+     * @param value the value.
+     */
+    public void put(final long key, final long value)
+    {
+        final int slot = find(m_keys, m_used, key);
+        m_values[slot] = value;
+        if (!m_used[slot])
+        {
+            m_keys[slot] = key;
+            m_used[slot] = true;
+            if (++m_size * 2 > m_used.length)
+            {
+                grow();
+            }
+        }
+    }
+
+    /**
+     * Get the number of keys mapped.
+     *
+     * @return {@code int} count.
+     */
+    public int size()
+    {
+        return m_size;
+    }
+
+    /**
+     * Double the capacity of the table, reinserting every entry.
+     */
+    private void grow()
+    {
+        final long[] keys = new long[m_keys.length * 2];
+        final boolean[] used = new boolean[keys.length];
+        final long[] values = new long[keys.length];
+        for (int slot = 0; slot < m_used.length; slot++)
+        {
+            if (m_used[slot])
+            {
+                final int target = find(keys, used, m_keys[slot]);
+                keys[target] = m_keys[slot];
+                used[target] = true;
+                values[target] = m_values[slot];
+            }
+        }
+        m_keys = keys;
+        m_used = used;
+        m_values = values;
+    }
+
+    /**
+     * Find the slot holding a key, or the empty slot at which it would be inserted.
+     *
+     * @param keys the keys.
+     * @param used whether each slot is in use.
+     * @param key the key.
+     * @return {@code int} slot.
+     */
+    private static int find(final long[] keys, final boolean[] used, final long key)
+    {
+        final int mask = used.length - 1;
+        final long mixed = key * 0x9e3779b97f4a7c15L;
+        int result = (int) (mixed ^ mixed >>> 32) & mask;
+        while (used[result] && key != keys[result])
+        {
+            result = result + 1 & mask;
+        }
+        return result;
+    }
+}
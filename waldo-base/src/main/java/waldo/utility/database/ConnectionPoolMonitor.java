@@ -0,0 +1,30 @@
+package waldo.utility.database;
+
+import java.util.Map;
+
+/**
+ * {@link ConnectionPoolMonitor} reports the utilization of the database connection pools managed by the application, so
+ * that saturation of any one pool (for example, the write pool during a large ingest) can be observed.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface ConnectionPoolMonitor
+{
+    /**
+     * Get the current utilization of each pool.
+     *
+     * @return {@link Map} of pool name to a map of statistic name to value, suitable for rendering as JSON.
+     */
+    Map<String, Map<String, Object>> getPoolStatistics();
+}
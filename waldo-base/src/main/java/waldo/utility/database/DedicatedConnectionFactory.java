@@ -0,0 +1,36 @@
+package waldo.utility.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * {@link DedicatedConnectionFactory} opens database connections which are <em>not</em> drawn from a connection pool,
+ * for uses which hold a connection, and the session state attached to it, for a long time: session-level advisory
+ * locks, {@code LISTEN} registrations and the like. Such state must not leak into a pooled connection, where it would
+ * outlive its owner, and a long-held connection should not occupy a pool slot.
+ * <p>
+ * Connections are returned in auto-commit mode. The caller owns each connection and is responsible for closing it.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface DedicatedConnectionFactory
+{
+    /**
+     * Open a new connection to the application database.
+     *
+     * @return {@link Connection} instance.
+     * @throws SQLException if the connection could not be opened.
+     */
+    Connection openConnection() throws SQLException;
+}
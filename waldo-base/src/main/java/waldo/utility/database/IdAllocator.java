@@ -0,0 +1,42 @@
+package waldo.utility.database;
+
+/**
+ * {@link IdAllocator} hands out entity identifiers for rows which are written through JDBC rather than through the JPA
+ * entity manager, for example batched or {@code COPY}-based bulk inserts. Identifiers are reserved from the same
+ * database sequence, and with the same block semantics, as those assigned to entities by Hibernate, so both paths may
+ * write to the same tables without colliding.
+ * <p>
+ * Identifiers are reserved from the database in blocks; a request which can be satisfied from the block already held by
+ * this node does not touch the database at all, and a request for many identifiers costs at most one round trip.
+ * <p>
+ * <strong>Thread Safety:</strong> implementations of this interface must be safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public interface IdAllocator
+{
+    /**
+     * Allocate a single identifier.
+     *
+     * @return {@code long} identifier which has not been and will not be returned to any other caller.
+     */
+    long allocate();
+
+    /**
+     * Allocate identifiers for a batch of rows.
+     *
+     * @param count the number of identifiers required.
+     * @return {@code long[]} array of {@code count} distinct identifiers, in ascending order within each reserved block.
+     * @throws IllegalArgumentException if {@code count} is negative.
+     */
+    long[] allocate(int count) throws IllegalArgumentException;
+}
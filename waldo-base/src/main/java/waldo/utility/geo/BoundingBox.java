@@ -0,0 +1,177 @@
+package waldo.utility.geo;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * {@link BoundingBox} is a latitude/longitude rectangle, used to select a geographic region. Coordinates are fixed-point
+ * millionths of a degree, as stored on {@link waldo.entity.Station}; bounds are inclusive. Boxes which cross the
+ * antimeridian are not supported.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class BoundingBox
+{
+    /**
+     * Number of fixed-point units per degree.
+     */
+    public static final int UNITS_PER_DEGREE = 1000000;
+
+    private final int m_maxLatitude;
+    private final int m_maxLongitude;
+    private final int m_minLatitude;
+    private final int m_minLongitude;
+
+    /**
+     * Construct a {@link BoundingBox} instance.
+     *
+     * @param minLatitude the southern bound in millionths of a degree.
+     * @param minLongitude the western bound in millionths of a degree.
+     * @param maxLatitude the northern bound in millionths of a degree.
+     * @param maxLongitude the eastern bound in millionths of a degree.
+     * @throws IllegalArgumentException if a minimum exceeds the corresponding maximum, or a bound is out of range.
+     */
+    public BoundingBox(final int minLatitude, final int minLongitude, final int maxLatitude, final int maxLongitude)
+            throws IllegalArgumentException
+    {
+        super();
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude || minLatitude < -90 * UNITS_PER_DEGREE
+                || maxLatitude > 90 * UNITS_PER_DEGREE || minLongitude < -180 * UNITS_PER_DEGREE
+                || maxLongitude > 180 * UNITS_PER_DEGREE)
+        {
+            throw new IllegalArgumentException(String.format("Bounds [%d, %d, %d, %d] do not describe a valid box.",
+                    minLatitude, minLongitude, maxLatitude, maxLongitude));
+        }
+        m_maxLatitude = maxLatitude;
+        m_maxLongitude = maxLongitude;
+        m_minLatitude = minLatitude;
+        m_minLongitude = minLongitude;
+    }
+
+    /**
+     * Create a {@link BoundingBox} from bounds in decimal degrees.
+     *
+     * @param minLatitude the southern bound in degrees.
+     * @param minLongitude the western bound in degrees.
+     * @param maxLatitude the northern bound in degrees.
+     * @param maxLongitude the eastern bound in degrees.
+     * @return {@link BoundingBox} instance.
+     * @throws IllegalArgumentException if a minimum exceeds the corresponding maximum, or a bound is out of range.
+     */
+    public static BoundingBox fromDegrees(final double minLatitude, final double minLongitude,
+                                          final double maxLatitude, final double maxLongitude)
+            throws IllegalArgumentException
+    {
+        return new BoundingBox(toUnits(minLatitude), toUnits(minLongitude), toUnits(maxLatitude),
+                toUnits(maxLongitude));
+    }
+
+    /**
+     * Convert decimal degrees to fixed-point millionths of a degree.
+     *
+     * @param degrees the value in degrees.
+     * @return {@code int} value in millionths of a degree.
+     */
+    public static int toUnits(final double degrees)
+    {
+        return (int) Math.round(degrees * UNITS_PER_DEGREE);
+    }
+
+    /**
+     * Determine whether this box contains a point.
+     *
+     * @param latitude the latitude in millionths of a degree.
+     * @param longitude the longitude in millionths of a degree.
+     * @return {@code boolean} true if the point lies within or on the boundary of this box.
+     */
+    public boolean contains(final int latitude, final int longitude)
+    {
+        return latitude >= m_minLatitude && latitude <= m_maxLatitude && longitude >= m_minLongitude
+                && longitude <= m_maxLongitude;
+    }
+
+    /**
+     * Determine whether this box overlaps another.
+     *
+     * @param other the other box.
+     * @return {@code boolean} true if the boxes share at least one point.
+     */
+    public boolean intersects(final BoundingBox other)
+    {
+        return other.m_minLatitude <= m_maxLatitude && other.m_maxLatitude >= m_minLatitude
+                && other.m_minLongitude <= m_maxLongitude && other.m_maxLongitude >= m_minLongitude;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object other)
+    {
+        final boolean result;
+        if (this == other)
+        {
+            result = true;
+        }
+        else if (!(other instanceof BoundingBox))
+        {
+            result = false;
+        }
+        else
+        {
+            final BoundingBox box = (BoundingBox) other;
+            result = m_minLatitude == box.m_minLatitude && m_minLongitude == box.m_minLongitude
+                    && m_maxLatitude == box.m_maxLatitude && m_maxLongitude == box.m_maxLongitude;
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode()
+    {
+        return ((m_minLatitude * 31 + m_minLongitude) * 31 + m_maxLatitude) * 31 + m_maxLongitude;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("minLatitude", m_minLatitude).append("minLongitude", m_minLongitude)
+                .append("maxLatitude", m_maxLatitude).append("maxLongitude", m_maxLongitude).toString();
+    }
+
+    public int getMaxLatitude()
+    {
+        return m_maxLatitude;
+    }
+
+    public int getMaxLongitude()
+    {
+        return m_maxLongitude;
+    }
+
+    public int getMinLatitude()
+    {
+        return m_minLatitude;
+    }
+
+    public int getMinLongitude()
+    {
+        return m_minLongitude;
+    }
+}
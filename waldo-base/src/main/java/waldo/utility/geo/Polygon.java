@@ -0,0 +1,289 @@
+package waldo.utility.geo;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * {@link Polygon} is a simple latitude/longitude polygon, such as the area of an advisory, prepared for repeated
+ * point-in-polygon and segment intersection tests: its vertices are held in primitive arrays and its bounding box is
+ * computed once, so that most tests are rejected by the box without visiting an edge. Coordinates are fixed-point
+ * millionths of a degree, and edges are taken to be straight lines in latitude and longitude, which is close enough to
+ * a great circle over the extent of an advisory. As for {@link BoundingBox}, polygons which cross the antimeridian are
+ * not supported.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are immutable and are therefore safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class Polygon
+{
+    private final BoundingBox m_bounds;
+    private final int[] m_latitudes;
+    private final int[] m_longitudes;
+
+    /**
+     * Construct a {@link Polygon} instance. The ring may be given closed (with the first vertex repeated at the end) or
+     * open.
+     *
+     * @param latitudes the vertex latitudes in millionths of a degree.
+     * @param longitudes the vertex longitudes in millionths of a degree.
+     * @throws IllegalArgumentException if the arrays differ in length, there are fewer than three distinct vertices, a
+     * vertex is out of range, or the polygon spans more than half the globe in longitude.
+     */
+    public Polygon(final int[] latitudes, final int[] longitudes) throws IllegalArgumentException
+    {
+        super();
+        if (latitudes.length != longitudes.length)
+        {
+            throw new IllegalArgumentException(String.format("Polygon has %d latitudes but %d longitudes.",
+                    latitudes.length, longitudes.length));
+        }
+        int count = latitudes.length;
+        if (count > 1 && latitudes[0] == latitudes[count - 1] && longitudes[0] == longitudes[count - 1])
+        {
+            count--;
+        }
+        if (count < 3)
+        {
+            throw new IllegalArgumentException(String.format("Polygon has %d vertices.", count));
+        }
+        int minLatitude = Integer.MAX_VALUE;
+        int minLongitude = Integer.MAX_VALUE;
+        int maxLatitude = Integer.MIN_VALUE;
+        int maxLongitude = Integer.MIN_VALUE;
+        for (int vertex = 0; vertex < count; vertex++)
+        {
+            minLatitude = Math.min(minLatitude, latitudes[vertex]);
+            minLongitude = Math.min(minLongitude, longitudes[vertex]);
+            maxLatitude = Math.max(maxLatitude, latitudes[vertex]);
+            maxLongitude = Math.max(maxLongitude, longitudes[vertex]);
+        }
+        if ((long) maxLongitude - minLongitude > 180L * BoundingBox.UNITS_PER_DEGREE)
+        {
+            throw new IllegalArgumentException("Polygon crosses the antimeridian.");
+        }
+        m_bounds = new BoundingBox(minLatitude, minLongitude, maxLatitude, maxLongitude);
+        m_latitudes = new int[count];
+        m_longitudes = new int[count];
+        System.arraycopy(latitudes, 0, m_latitudes, 0, count);
+        System.arraycopy(longitudes, 0, m_longitudes, 0, count);
+    }
+
+    /**
+     * Determine whether this polygon contains a point.
+     *
+     * @param latitude the latitude in millionths of a degree.
+     * @param longitude the longitude in millionths of a degree.
+     * @return {@code boolean} true if the point lies within or on the boundary of this polygon.
+     */
+    public boolean contains(final int latitude, final int longitude)
+    {
+        boolean result = false;
+        if (m_bounds.contains(latitude, longitude))
+        {
+            /* Count crossings of a ray running east from the point; a point on an edge is contained regardless. */
+            for (int vertex = 0, previous = m_latitudes.length - 1; vertex < m_latitudes.length; previous = vertex++)
+            {
+                final long latitude1 = m_latitudes[previous];
+                final long longitude1 = m_longitudes[previous];
+                final long latitude2 = m_latitudes[vertex];
+                final long longitude2 = m_longitudes[vertex];
+                if (0L == orientation(latitude1, longitude1, latitude2, longitude2, latitude, longitude) && within(
+                        latitude1, longitude1, latitude2, longitude2, latitude, longitude))
+                {
+                    result = true;
+                    break;
+                }
+                if ((latitude1 > latitude) != (latitude2 > latitude))
+                {
+                    /* The edge spans the ray's latitude; it is crossed if the point lies west of the edge there. */
+                    final long side = orientation(latitude1, longitude1, latitude2, longitude2, latitude, longitude);
+                    if (latitude2 > latitude1 ? side > 0L : side < 0L)
+                    {
+                        result = !result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determine whether the boundary of this polygon passes through a box. A box through which the boundary does not
+     * pass lies either wholly inside or wholly outside this polygon.
+     *
+     * @param box the box.
+     * @return {@code boolean} true if at least one edge of this polygon shares a point with {@code box}.
+     */
+    public boolean crosses(final BoundingBox box)
+    {
+        boolean result = false;
+        if (m_bounds.intersects(box))
+        {
+            final int south = box.getMinLatitude();
+            final int west = box.getMinLongitude();
+            final int north = box.getMaxLatitude();
+            final int east = box.getMaxLongitude();
+            for (int vertex = 0, previous = m_latitudes.length - 1; !result && vertex < m_latitudes.length;
+                 previous = vertex++)
+            {
+                final int latitude1 = m_latitudes[previous];
+                final int longitude1 = m_longitudes[previous];
+                final int latitude2 = m_latitudes[vertex];
+                final int longitude2 = m_longitudes[vertex];
+                result = box.contains(latitude1, longitude1) || box.contains(latitude2, longitude2)
+                        || segmentsIntersect(latitude1, longitude1, latitude2, longitude2, south, west, north, west)
+                        || segmentsIntersect(latitude1, longitude1, latitude2, longitude2, north, west, north, east)
+                        || segmentsIntersect(latitude1, longitude1, latitude2, longitude2, north, east, south, east)
+                        || segmentsIntersect(latitude1, longitude1, latitude2, longitude2, south, east, south, west);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determine whether this polygon shares at least one point with a line segment, such as one leg of a route.
+     *
+     * @param latitude1 the latitude of the start of the segment, in millionths of a degree.
+     * @param longitude1 the longitude of the start of the segment, in millionths of a degree.
+     * @param latitude2 the latitude of the end of the segment, in millionths of a degree.
+     * @param longitude2 the longitude of the end of the segment, in millionths of a degree.
+     * @return {@code boolean} true if the segment lies partly or wholly within, or touches, this polygon.
+     */
+    public boolean intersects(final int latitude1, final int longitude1, final int latitude2, final int longitude2)
+    {
+        boolean result = false;
+        if (Math.min(latitude1, latitude2) <= m_bounds.getMaxLatitude() && Math.max(latitude1, latitude2)
+                >= m_bounds.getMinLatitude() && Math.min(longitude1, longitude2) <= m_bounds.getMaxLongitude()
+                && Math.max(longitude1, longitude2) >= m_bounds.getMinLongitude())
+        {
+            /* A segment which crosses no edge lies wholly inside or wholly outside, as does its start. */
+            result = contains(latitude1, longitude1);
+            for (int vertex = 0, previous = m_latitudes.length - 1; !result && vertex < m_latitudes.length;
+                 previous = vertex++)
+            {
+                result = segmentsIntersect(m_latitudes[previous], m_longitudes[previous], m_latitudes[vertex],
+                        m_longitudes[vertex], latitude1, longitude1, latitude2, longitude2);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determine whether two line segments share at least one point.
+     *
+     * @param latitude1 the latitude of the start of the first segment.
+     * @param longitude1 the longitude of the start of the first segment.
+     * @param latitude2 the latitude of the end of the first segment.
+     * @param longitude2 the longitude of the end of the first segment.
+     * @param latitude3 the latitude of the start of the second segment.
+     * @param longitude3 the longitude of the start of the second segment.
+     * @param latitude4 the latitude of the end of the second segment.
+     * @param longitude4 the longitude of the end of the second segment.
+     * @return {@code boolean} true if the segments cross or touch.
+     */
+    public static boolean segmentsIntersect(final long latitude1, final long longitude1, final long latitude2,
+                                            final long longitude2, final long latitude3, final long longitude3,
+                                            final long latitude4, final long longitude4)
+    {
+        final long side1 = Long.signum(orientation(latitude1, longitude1, latitude2, longitude2, latitude3,
+                longitude3));
+        final long side2 = Long.signum(orientation(latitude1, longitude1, latitude2, longitude2, latitude4,
+                longitude4));
+        final long side3 = Long.signum(orientation(latitude3, longitude3, latitude4, longitude4, latitude1,
+                longitude1));
+        final long side4 = Long.signum(orientation(latitude3, longitude3, latitude4, longitude4, latitude2,
+                longitude2));
+        return (side1 * side2 < 0L && side3 * side4 < 0L)
+                || (0L == side1 && within(latitude1, longitude1, latitude2, longitude2, latitude3, longitude3))
+                || (0L == side2 && within(latitude1, longitude1, latitude2, longitude2, latitude4, longitude4))
+                || (0L == side3 && within(latitude3, longitude3, latitude4, longitude4, latitude1, longitude1))
+                || (0L == side4 && within(latitude3, longitude3, latitude4, longitude4, latitude2, longitude2));
+    }
+
+    /**
+     * Compute on which side of the line through two points a third point lies. The products fit comfortably in a
+     * {@code long}, so the result is exact.
+     *
+     * @return {@code long} positive if the third point lies to the left (west, travelling north), negative if to the
+     * right, or zero if the points are collinear.
+     */
+    private static long orientation(final long latitude1, final long longitude1, final long latitude2,
+                                    final long longitude2, final long latitude3, final long longitude3)
+    {
+        return (longitude2 - longitude1) * (latitude3 - latitude1) - (latitude2 - latitude1) * (longitude3
+                - longitude1);
+    }
+
+    /**
+     * Determine whether a point collinear with a segment lies within its bounds.
+     *
+     * @return {@code boolean} true if the third point lies within the box spanned by the first two.
+     */
+    private static boolean within(final long latitude1, final long longitude1, final long latitude2,
+                                  final long longitude2, final long latitude3, final long longitude3)
+    {
+        return latitude3 >= Math.min(latitude1, latitude2) && latitude3 <= Math.max(latitude1, latitude2)
+                && longitude3 >= Math.min(longitude1, longitude2) && longitude3 <= Math.max(longitude1, longitude2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return new ToStringBuilder(this).append("vertices", m_latitudes.length).append("bounds", m_bounds)
+                .toString();
+    }
+
+    /**
+     * Get the bounding box.
+     *
+     * @return {@link BoundingBox} instance.
+     */
+    public BoundingBox getBounds()
+    {
+        return m_bounds;
+    }
+
+    /**
+     * Get the latitude of a vertex.
+     *
+     * @param vertex the vertex index.
+     * @return {@code int} latitude in millionths of a degree.
+     */
+    public int getLatitude(final int vertex)
+    {
+        return m_latitudes[vertex];
+    }
+
+    /**
+     * Get the longitude of a vertex.
+     *
+     * @param vertex the vertex index.
+     * @return {@code int} longitude in millionths of a degree.
+     */
+    public int getLongitude(final int vertex)
+    {
+        return m_longitudes[vertex];
+    }
+
+    /**
+     * Get the number of vertices, not counting a closing vertex.
+     *
+     * @return {@code int} vertex count.
+     */
+    public int getVertexCount()
+    {
+        return m_latitudes.length;
+    }
+}
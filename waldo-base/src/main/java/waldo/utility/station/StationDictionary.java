@@ -0,0 +1,381 @@
+package waldo.utility.station;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link StationDictionary} is the process-wide symbol table of station identifiers. Each identifier seen is given a
+ * dense {@code int} identifier, numbered from zero in order of first appearance, and a single canonical {@link String}
+ * instance; per-station state is then held in structures indexed by the dense identifier (see {@link StationTable})
+ * rather than in maps keyed by strings.
+ * <p>
+ * An identifier of one to four printable ASCII characters packs into a single {@code int} code (big-endian, space
+ * padded, as in the slot headers of the observation ring file), so that an identifier can be resolved directly from
+ * the bytes of a record without creating a {@link String}. Codes are held in an open-addressing table with linear
+ * probing. A lookup of a known identifier takes no lock and allocates nothing; registering a new identifier is
+ * serialized.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class StationDictionary
+{
+    private static final StationDictionary s_instance = new StationDictionary();
+
+    private static final int INITIAL_CAPACITY = 1 << 14;
+
+    private volatile AtomicReferenceArray<String> m_identifiers = new AtomicReferenceArray<>(INITIAL_CAPACITY / 2);
+    private int m_size;
+    private volatile Table m_table = new Table(INITIAL_CAPACITY);
+
+    /**
+     * Construct a {@link StationDictionary} instance. Outside of tests, the shared instance returned by
+     * {@link #getInstance()} should be used, so that dense identifiers agree throughout the process.
+     */
+    public StationDictionary()
+    {
+        super();
+    }
+
+    /**
+     * Get the shared instance.
+     *
+     * @return {@link StationDictionary} instance.
+     */
+    public static StationDictionary getInstance()
+    {
+        return s_instance;
+    }
+
+    /**
+     * Pack a station identifier into its {@code int} code.
+     *
+     * @param bytes the buffer holding the identifier in ASCII.
+     * @param offset the offset of the identifier within {@code bytes}.
+     * @param length the length of the identifier.
+     * @return {@code int} code.
+     * @throws IllegalArgumentException if the identifier is not one to four printable, non-space ASCII characters.
+     */
+    public static int encode(final byte[] bytes, final int offset, final int length) throws IllegalArgumentException
+    {
+        if (length < 1 || length > 4)
+        {
+            throw new IllegalArgumentException(String.format("Station identifier of length %d is not one to four " +
+                    "characters.", length));
+        }
+        int result = 0;
+        for (int i = 0; i < 4; i++)
+        {
+            result = result << 8 | (i < length ? checkCharacter(bytes[offset + i] & 0xff) : ' ');
+        }
+        return result;
+    }
+
+    /**
+     * Pack a station identifier into its {@code int} code.
+     *
+     * @param station the station identifier.
+     * @return {@code int} code.
+     * @throws IllegalArgumentException if the identifier is not one to four printable, non-space ASCII characters.
+     */
+    public static int encode(final CharSequence station) throws IllegalArgumentException
+    {
+        return encode(station, 0, station.length());
+    }
+
+    /**
+     * Pack a station identifier into its {@code int} code.
+     *
+     * @param text the text holding the identifier.
+     * @param offset the offset of the identifier within {@code text}.
+     * @param length the length of the identifier.
+     * @return {@code int} code.
+     * @throws IllegalArgumentException if the identifier is not one to four printable, non-space ASCII characters.
+     */
+    public static int encode(final CharSequence text, final int offset, final int length)
+            throws IllegalArgumentException
+    {
+        if (length < 1 || length > 4)
+        {
+            throw new IllegalArgumentException(String.format("Station identifier [%s] is not one to four characters.",
+                    text.subSequence(offset, offset + length)));
+        }
+        int result = 0;
+        for (int i = 0; i < 4; i++)
+        {
+            result = result << 8 | (i < length ? checkCharacter(text.charAt(offset + i)) : ' ');
+        }
+        return result;
+    }
+
+    /**
+     * Get the dense identifier of a station, registering the station if it has not been seen before.
+     *
+     * @param bytes the buffer holding the identifier in ASCII.
+     * @param offset the offset of the identifier within {@code bytes}.
+     * @param length the length of the identifier.
+     * @return {@code int} dense identifier.
+     * @throws IllegalArgumentException if the identifier is not one to four printable, non-space ASCII characters.
+     */
+    public int intern(final byte[] bytes, final int offset, final int length) throws IllegalArgumentException
+    {
+        return internCode(encode(bytes, offset, length));
+    }
+
+    /**
+     * Get the dense identifier of a station, registering the station if it has not been seen before.
+     *
+     * @param station the station identifier.
+     * @return {@code int} dense identifier.
+     * @throws IllegalArgumentException if the identifier is not one to four printable, non-space ASCII characters.
+     */
+    public int intern(final String station) throws IllegalArgumentException
+    {
+        return internCode(encode(station));
+    }
+
+    /**
+     * Get the dense identifier of a station, registering the station if it has not been seen before.
+     *
+     * @param code the code of the station identifier, as returned by {@link #encode(byte[], int, int)}.
+     * @return {@code int} dense identifier.
+     * @throws IllegalArgumentException if {@code code} is not a valid code.
+     */
+    public int internCode(final int code) throws IllegalArgumentException
+    {
+        int result = m_table.find(code);
+        if (result < 0)
+        {
+            result = register(code);
+        }
+        return result;
+    }
+
+    /**
+     * Get the dense identifier of a station without registering it.
+     *
+     * @param station the station identifier.
+     * @return {@code int} dense identifier, or {@code -1} if the station has not been seen (or the identifier is not
+     * valid.)
+     */
+    public int find(final String station)
+    {
+        int result = -1;
+        if (null != station && !station.isEmpty() && station.length() <= 4)
+        {
+            final int code = pack(station);
+            result = m_table.find(code);
+            if (result < 0)
+            {
+                /* The identifier may have been registered in a table published since the one searched. */
+                synchronized (this)
+                {
+                    result = m_table.find(code);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the canonical instance of a station identifier.
+     *
+     * @param id the dense identifier.
+     * @return {@link String} station identifier.
+     * @throws IndexOutOfBoundsException if {@code id} has not been assigned.
+     */
+    public String getIdentifier(final int id) throws IndexOutOfBoundsException
+    {
+        final String result = id < 0 ? null : m_identifiers.get(id);
+        if (null == result)
+        {
+            throw new IndexOutOfBoundsException(String.format("Station identifier %d has not been assigned.", id));
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of stations registered, which is one greater than the largest dense identifier assigned.
+     *
+     * @return {@code int} count.
+     */
+    public synchronized int size()
+    {
+        return m_size;
+    }
+
+    /**
+     * Register a station, unless another thread has done so first.
+     *
+     * @param code the code of the station identifier.
+     * @return {@code int} dense identifier.
+     * @throws IllegalArgumentException if {@code code} is not a valid code.
+     */
+    private synchronized int register(final int code) throws IllegalArgumentException
+    {
+        int result = m_table.find(code);
+        if (result < 0)
+        {
+            final String station = decode(code);
+            result = m_size;
+            AtomicReferenceArray<String> identifiers = m_identifiers;
+            if (result == identifiers.length())
+            {
+                final AtomicReferenceArray<String> grown = new AtomicReferenceArray<>(result * 2);
+                for (int i = 0; i < result; i++)
+                {
+                    grown.set(i, identifiers.get(i));
+                }
+                identifiers = grown;
+                m_identifiers = grown;
+            }
+            identifiers.set(result, station);
+
+            /* Keep the table at most half full; a larger one is filled completely before it is published. */
+            Table table = m_table;
+            if ((result + 1) * 2 > table.m_codes.length())
+            {
+                table = new Table(table.m_codes.length() * 2);
+                for (int i = 0; i < result; i++)
+                {
+                    table.insert(pack(identifiers.get(i)), i);
+                }
+                table.insert(code, result);
+                m_table = table;
+            }
+            else
+            {
+                table.insert(code, result);
+            }
+            m_size = result + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Unpack a code into a station identifier.
+     *
+     * @param code the code.
+     * @return {@link String} station identifier.
+     * @throws IllegalArgumentException if {@code code} is not a valid code.
+     */
+    private static String decode(final int code) throws IllegalArgumentException
+    {
+        final char[] characters = new char[4];
+        int length = 0;
+        for (int i = 0; i < 4; i++)
+        {
+            final int character = code >>> 24 - i * 8 & 0xff;
+            if (' ' == character)
+            {
+                break;
+            }
+            characters[length++] = (char) character;
+        }
+        final String result = new String(characters, 0, length);
+        if (0 == length || code != encode(result))
+        {
+            throw new IllegalArgumentException(String.format("Station code %08x is not valid.", code));
+        }
+        return result;
+    }
+
+    /**
+     * Pack an identifier already known to be one to four characters long, without throwing. An invalid character
+     * packs as zero, so an invalid identifier yields a code which is never registered.
+     *
+     * @param station the station identifier.
+     * @return {@code int} code.
+     */
+    private static int pack(final String station)
+    {
+        int result = 0;
+        for (int i = 0; i < 4; i++)
+        {
+            final char character = i < station.length() ? station.charAt(i) : ' ';
+            result = result << 8 | (' ' == character || character > ' ' && character <= '~' ? character : 0);
+        }
+        return result;
+    }
+
+    private static int checkCharacter(final int character) throws IllegalArgumentException
+    {
+        if (character <= ' ' || character > '~')
+        {
+            throw new IllegalArgumentException(String.format("Station identifier character %d is not printable " +
+                    "ASCII.", character));
+        }
+        return character;
+    }
+
+    /**
+     * {@link Table} is an open-addressing table from code to dense identifier. A slot is claimed by writing its
+     * identifier and then its code, so a reader which finds a code always finds its identifier. Slots are only ever
+     * added, under the lock on the dictionary; code zero (never a valid code) marks an empty slot.
+     */
+    private static final class Table
+    {
+        private final AtomicIntegerArray m_codes;
+        private final AtomicIntegerArray m_ids;
+        private final int m_mask;
+
+        /**
+         * Construct a {@link Table} instance.
+         *
+         * @param capacity the number of slots, a power of two.
+         */
+        private Table(final int capacity)
+        {
+            super();
+            m_codes = new AtomicIntegerArray(capacity);
+            m_ids = new AtomicIntegerArray(capacity);
+            m_mask = capacity - 1;
+        }
+
+        private int find(final int code)
+        {
+            int result = -1;
+            for (int slot = mix(code) & m_mask; ; slot = slot + 1 & m_mask)
+            {
+                final int found = m_codes.get(slot);
+                if (0 == found)
+                {
+                    break;
+                }
+                if (code == found)
+                {
+                    result = m_ids.get(slot);
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private void insert(final int code, final int id)
+        {
+            int slot = mix(code) & m_mask;
+            while (0 != m_codes.get(slot))
+            {
+                slot = slot + 1 & m_mask;
+            }
+            m_ids.set(slot, id);
+            m_codes.set(slot, code);
+        }
+
+        private static int mix(final int code)
+        {
+            final int result = code * 0x9e3779b9;
+            return result ^ result >>> 16;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package waldo.utility.station;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link StationTable} holds per-station values indexed by the dense identifiers assigned by a
+ * {@link StationDictionary}. Because those identifiers are dense, the table is simply an array: a lookup is an index
+ * operation, with no hashing, no key comparison and no boxing. The array grows as larger identifiers are stored.
+ * <p>
+ * Iterate over the values by visiting each identifier below {@link #getLimit()}, skipping those with no value.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access. Reads take no lock;
+ * modifications are serialized.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public final class StationTable<V>
+{
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int m_size;
+    private volatile AtomicReferenceArray<V> m_values = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+    /**
+     * Construct a {@link StationTable} instance.
+     */
+    public StationTable()
+    {
+        super();
+    }
+
+    /**
+     * Get the value held for a station.
+     *
+     * @param id the dense station identifier.
+     * @return {@link Object} value, or {@code null} if none is held.
+     */
+    public V get(final int id)
+    {
+        final AtomicReferenceArray<V> values = m_values;
+        return id >= 0 && id < values.length() ? values.get(id) : null;
+    }
+
+    /**
+     * Hold a value for a station, unless one is held already.
+     *
+     * @param id the dense station identifier.
+     * @param value the value.
+     * @return {@link Object} value previously held, or {@code null} if {@code value} was stored.
+     * @throws IllegalArgumentException if {@code id} is negative.
+     */
+    public synchronized V putIfAbsent(final int id, final V value) throws IllegalArgumentException
+    {
+        final V result = get(id);
+        if (null == result)
+        {
+            ensureCapacity(id).set(id, value);
+            m_size++;
+        }
+        return result;
+    }
+
+    /**
+     * Hold a value for a station, replacing any held already.
+     *
+     * @param id the dense station identifier.
+     * @param value the value.
+     * @return {@link Object} value previously held, or {@code null} if none was held.
+     * @throws IllegalArgumentException if {@code id} is negative or {@code value} is {@code null}.
+     */
+    public synchronized V put(final int id, final V value) throws IllegalArgumentException
+    {
+        if (null == value)
+        {
+            throw new IllegalArgumentException("Value is null.");
+        }
+        final V result = ensureCapacity(id).getAndSet(id, value);
+        if (null == result)
+        {
+            m_size++;
+        }
+        return result;
+    }
+
+    /**
+     * Remove the value held for a station, if it is the given one.
+     *
+     * @param id the dense station identifier.
+     * @param value the value expected to be held.
+     * @return {@code boolean} true if the value was removed.
+     */
+    public synchronized boolean remove(final int id, final V value)
+    {
+        final boolean result = null != value && value == get(id);
+        if (result)
+        {
+            m_values.set(id, null);
+            m_size--;
+        }
+        return result;
+    }
+
+    /**
+     * Get the limit of the identifiers for which values may be held: every value is held for an identifier less than
+     * the limit.
+     *
+     * @return {@code int} limit.
+     */
+    public int getLimit()
+    {
+        return m_values.length();
+    }
+
+    /**
+     * Get the number of values held.
+     *
+     * @return {@code int} count.
+     */
+    public synchronized int size()
+    {
+        return m_size;
+    }
+
+    /**
+     * Get the array of values, growing it if necessary to hold a given identifier. The caller must hold the lock on
+     * this instance.
+     *
+     * @param id the dense station identifier.
+     * @return {@link AtomicReferenceArray} values.
+     * @throws IllegalArgumentException if {@code id} is negative.
+     */
+    private AtomicReferenceArray<V> ensureCapacity(final int id) throws IllegalArgumentException
+    {
+        if (id < 0)
+        {
+            throw new IllegalArgumentException(String.format("Station identifier %d is negative.", id));
+        }
+        AtomicReferenceArray<V> result = m_values;
+        if (id >= result.length())
+        {
+            final AtomicReferenceArray<V> grown = new AtomicReferenceArray<>(Math.max(id + 1, result.length() * 2));
+            for (int i = 0; i < result.length(); i++)
+            {
+                grown.set(i, result.get(i));
+            }
+            result = grown;
+            m_values = grown;
+        }
+        return result;
+    }
+}
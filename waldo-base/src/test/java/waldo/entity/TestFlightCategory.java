@@ -0,0 +1,49 @@
+package waldo.entity;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestFlightCategory} provides unit test coverage for {@link FlightCategory}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestFlightCategory
+{
+    /**
+     * Construct a {@link TestFlightCategory} instance.
+     */
+    public TestFlightCategory()
+    {
+        super();
+    }
+
+    /**
+     * Test the implementation of {@link FlightCategory#categorize(long, int)}.
+     */
+    @Test
+    public void testCategorize()
+    {
+        final long overcast = SkyLayers.append(SkyLayers.NONE, SkyCover.OVC, 8);
+        assertNull(FlightCategory.categorize(SkyLayers.NONE, -1));
+        assertSame(FlightCategory.VFR, FlightCategory.categorize(SkyLayers.append(SkyLayers.NONE, SkyCover.CLR, 0),
+                -1));
+        assertSame(FlightCategory.VFR, FlightCategory.categorize(SkyLayers.NONE, 600));
+        assertSame(FlightCategory.MVFR, FlightCategory.categorize(SkyLayers.append(SkyLayers.NONE, SkyCover.BKN,
+                30), 1000));
+        assertSame(FlightCategory.IFR, FlightCategory.categorize(overcast, 1000));
+        assertSame(FlightCategory.LIFR, FlightCategory.categorize(overcast, 50));
+        assertSame(FlightCategory.LIFR, FlightCategory.categorize(SkyLayers.append(SkyLayers.NONE, SkyCover.OVX, 2),
+                -1));
+    }
+}
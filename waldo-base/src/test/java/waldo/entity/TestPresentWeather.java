@@ -0,0 +1,81 @@
+package waldo.entity;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestPresentWeather} provides unit test coverage for {@link PresentWeather}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestPresentWeather
+{
+    /**
+     * Construct a {@link TestPresentWeather} instance.
+     */
+    public TestPresentWeather()
+    {
+        super();
+    }
+
+    /**
+     * Test that each code has a distinct flag, and that unknown codes have none.
+     */
+    @Test
+    public void testForCode()
+    {
+        final long thunderstorm = PresentWeather.forCode("TS");
+        final long rain = PresentWeather.forCode('R', 'A');
+        assertTrue(PresentWeather.NONE != thunderstorm);
+        assertEquals(rain, PresentWeather.forCode("RA"));
+        assertEquals(0L, thunderstorm & rain);
+        assertEquals(0L, (thunderstorm | rain) & (PresentWeather.HEAVY | PresentWeather.LIGHT |
+                PresentWeather.VICINITY));
+        assertEquals(PresentWeather.NONE, PresentWeather.forCode("XX"));
+        assertEquals(PresentWeather.NONE, PresentWeather.forCode("RAS"));
+        assertEquals(PresentWeather.NONE, PresentWeather.forCode('r', 'a'));
+    }
+
+    /**
+     * Test that groups are parsed with their qualifiers, and that lists of groups are combined.
+     */
+    @Test
+    public void testParse()
+    {
+        final long rain = PresentWeather.forCode("RA");
+        final long thunderstorm = PresentWeather.forCode("TS");
+        assertEquals(PresentWeather.LIGHT | PresentWeather.VICINITY | thunderstorm | rain,
+                PresentWeather.parseGroup("x-VCTSRAx", 1, 8));
+        assertEquals(PresentWeather.HEAVY | rain, PresentWeather.parseGroup("+RA", 0, 3));
+        assertEquals(PresentWeather.NONE, PresentWeather.parseGroup("VC", 0, 2));
+        assertEquals(PresentWeather.NONE, PresentWeather.parseGroup("-RAX", 0, 4));
+        assertEquals(PresentWeather.NONE, PresentWeather.parseGroup("OVC010", 0, 6));
+        assertEquals(PresentWeather.LIGHT | thunderstorm | rain | PresentWeather.forCode("BR"),
+                PresentWeather.parse("-TSRA BR"));
+        assertEquals(rain, PresentWeather.parse("RA  XYZ "));
+        assertEquals(PresentWeather.NONE, PresentWeather.parse(""));
+    }
+
+    /**
+     * Test the implementation of {@link PresentWeather#toString(long)}.
+     */
+    @Test
+    public void testToString()
+    {
+        assertEquals("", PresentWeather.toString(PresentWeather.NONE));
+        assertEquals("-VCTSRA", PresentWeather.toString(PresentWeather.LIGHT | PresentWeather.VICINITY |
+                PresentWeather.forCode("RA") | PresentWeather.forCode("TS")));
+        assertEquals("+SNBR", PresentWeather.toString(PresentWeather.HEAVY | PresentWeather.forCode("BR") |
+                PresentWeather.forCode("SN")));
+    }
+}
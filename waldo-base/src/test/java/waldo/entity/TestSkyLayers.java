@@ -0,0 +1,92 @@
+package waldo.entity;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestSkyLayers} provides unit test coverage for {@link SkyLayers}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestSkyLayers
+{
+    /**
+     * Construct a {@link TestSkyLayers} instance.
+     */
+    public TestSkyLayers()
+    {
+        super();
+    }
+
+    /**
+     * Test the implementation of {@link SkyLayers#append(long, SkyCover, int)} and the corresponding getters.
+     */
+    @Test
+    public void testAppend()
+    {
+        long packed = SkyLayers.NONE;
+        assertEquals(0, SkyLayers.getCount(packed));
+        packed = SkyLayers.append(packed, SkyCover.FEW, 25);
+        packed = SkyLayers.append(packed, SkyCover.SCT, 80);
+        packed = SkyLayers.append(packed, SkyCover.BKN, 120);
+        packed = SkyLayers.append(packed, SkyCover.OVX, 250);
+        assertEquals(4, SkyLayers.getCount(packed));
+        assertSame(SkyCover.FEW, SkyLayers.getCover(packed, 0));
+        assertEquals(25, SkyLayers.getBase(packed, 0));
+        assertSame(SkyCover.OVX, SkyLayers.getCover(packed, 3));
+        assertEquals(250, SkyLayers.getBase(packed, 3));
+        assertEquals("FEW025 SCT080 BKN120 VV250", SkyLayers.toString(packed));
+
+        /* A fifth layer is dropped; out-of-range bases are clamped. */
+        assertEquals(packed, SkyLayers.append(packed, SkyCover.OVC, 300));
+        assertEquals(SkyLayers.MAX_BASE, SkyLayers.getBase(SkyLayers.append(SkyLayers.NONE, SkyCover.OVC, 99999), 0));
+    }
+
+    /**
+     * Test the implementation of {@link SkyLayers#getCeiling(long)}.
+     */
+    @Test
+    public void testGetCeiling()
+    {
+        assertEquals(SkyLayers.NO_CEILING, SkyLayers.getCeiling(SkyLayers.NONE));
+        assertEquals(SkyLayers.NO_CEILING, SkyLayers.getCeiling(SkyLayers.append(SkyLayers.NONE, SkyCover.CLR, 0)));
+        final long packed = SkyLayers.append(SkyLayers.append(SkyLayers.NONE, SkyCover.SCT, 15), SkyCover.BKN, 40);
+        assertEquals(40, SkyLayers.getCeiling(packed));
+        assertNull(SkyLayers.getCover(packed, 2));
+    }
+
+    /**
+     * Test the coded value converters used by {@link Observation}.
+     */
+    @Test
+    public void testCodeConverters()
+    {
+        final FlightCategory.CodeConverter converter = new FlightCategory.CodeConverter();
+        for (final FlightCategory nextValue : FlightCategory.values())
+        {
+            assertSame(nextValue, converter.convertToEntityAttribute(converter.convertToDatabaseColumn(nextValue)));
+        }
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+        try
+        {
+            converter.convertToEntityAttribute((short) 99);
+            fail("Invocation with unknown code did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+            assertTrue(e.getMessage().contains("99"));
+        }
+    }
+}
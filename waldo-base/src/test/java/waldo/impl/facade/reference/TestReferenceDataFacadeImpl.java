@@ -0,0 +1,114 @@
+package waldo.impl.facade.reference;
+
+import org.easymock.Capture;
+import org.junit.Test;
+import waldo.entity.Station;
+import waldo.service.station.StationMetadata;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Arrays;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestReferenceDataFacadeImpl} provides unit test coverage for {@link ReferenceDataFacadeImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestReferenceDataFacadeImpl
+{
+    /**
+     * Construct a {@link TestReferenceDataFacadeImpl} instance.
+     */
+    public TestReferenceDataFacadeImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that saving stations inserts those not yet held, updates those which changed and leaves the rest alone.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSaveStations()
+    {
+        final Station ord = station("KORD", 41980000, (short) 201);
+        final Station mdw = station("KMDW", 41780000, (short) 188);
+        final EntityManager entityManager = createStrictMock(EntityManager.class);
+        final TypedQuery<Station> query = createStrictMock(TypedQuery.class);
+        final Capture<Station> persisted = new Capture<>();
+        expect(entityManager.createNamedQuery(Station.FIND_ALL, Station.class)).andReturn(query);
+        expect(query.getResultList()).andReturn(Arrays.asList(ord, mdw));
+        entityManager.persist(capture(persisted));
+        replay(entityManager, query);
+
+        /* Run the test and verify expectations. */
+        final StringBuilder name = new StringBuilder();
+        while (name.length() < 70)
+        {
+            name.append("NOWHERE ");
+        }
+        final int saved = new ReferenceDataFacadeImpl(entityManager).saveStations(Arrays.asList(
+                metadata("KORD", 41980000, 201, "CHICAGO/O'HARE"), metadata("KMDW", 41790000, 188, "CHICAGO/MIDWAY"),
+                metadata("KXYZ", 42000000, StationMetadata.MISSING, name.toString())));
+        verify(entityManager, query);
+        assertEquals(2, saved);
+        assertEquals(41790000, mdw.getLatitude());
+        final Station xyz = persisted.getValue();
+        assertEquals("KXYZ", xyz.getIcaoId());
+        assertEquals(name.substring(0, 64), xyz.getName());
+        assertEquals("IL", xyz.getState());
+        assertEquals("US", xyz.getCountry());
+        assertEquals(42000000, xyz.getLatitude());
+        assertEquals(-87750000, xyz.getLongitude());
+        assertNull(xyz.getElevation());
+    }
+
+    /**
+     * Create a station entity as saved from {@link #metadata(String, int, int, String)}.
+     *
+     * @param icaoId the station identifier.
+     * @param latitude the latitude.
+     * @param elevation the elevation.
+     * @return {@link Station} instance.
+     */
+    private static Station station(final String icaoId, final int latitude, final short elevation)
+    {
+        final Station result = new Station();
+        result.setIcaoId(icaoId);
+        result.setName("KORD".equals(icaoId) ? "CHICAGO/O'HARE" : "CHICAGO/MIDWAY");
+        result.setState("IL");
+        result.setCountry("US");
+        result.setLatitude(latitude);
+        result.setLongitude(-87750000);
+        result.setElevation(elevation);
+        return result;
+    }
+
+    /**
+     * Create station metadata in Illinois.
+     *
+     * @param station the station identifier.
+     * @param latitude the latitude.
+     * @param elevation the elevation.
+     * @param name the name.
+     * @return {@link StationMetadata} instance.
+     */
+    private static StationMetadata metadata(final String station, final int latitude, final int elevation,
+                                            final String name)
+    {
+        return new StationMetadata.Builder().setStation(station).setLatitude(latitude).setLongitude(-87750000)
+                .setElevation(elevation).setName(name).setState("IL").setCountry("US").toMetadata();
+    }
+}
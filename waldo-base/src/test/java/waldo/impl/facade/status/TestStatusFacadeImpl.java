@@ -0,0 +1,128 @@
+package waldo.impl.facade.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+
+import waldo.service.observation.SnapshotSubscriber;
+import waldo.utility.database.ConnectionPoolMonitor;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestStatusFacadeImpl} provides unit test coverage for {@link StatusFacadeImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestStatusFacadeImpl
+{
+    /**
+     * Construct a {@link TestStatusFacadeImpl} instance.
+     */
+    public TestStatusFacadeImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test the implementation of {@link StatusFacadeImpl#getCacheStatistics()}.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetCacheStatistics()
+    {
+        final EntityManagerFactory entityManagerFactory = createMock(EntityManagerFactory.class);
+        final SessionFactory sessionFactory = createMock(SessionFactory.class);
+        final Statistics statistics = createMock(Statistics.class);
+        final SecondLevelCacheStatistics regionStatistics = createMock(SecondLevelCacheStatistics.class);
+        expect(entityManagerFactory.unwrap(SessionFactory.class)).andReturn(sessionFactory);
+        expect(sessionFactory.getStatistics()).andReturn(statistics);
+        expect(statistics.isStatisticsEnabled()).andReturn(true);
+        expect(statistics.getSecondLevelCacheHitCount()).andReturn(3L);
+        expect(statistics.getSecondLevelCacheMissCount()).andReturn(1L);
+        expect(statistics.getSecondLevelCachePutCount()).andReturn(1L);
+        expect(statistics.getNaturalIdCacheHitCount()).andReturn(0L);
+        expect(statistics.getNaturalIdCacheMissCount()).andReturn(0L);
+        expect(statistics.getNaturalIdCachePutCount()).andReturn(0L);
+        expect(statistics.getQueryCacheHitCount()).andReturn(0L);
+        expect(statistics.getQueryCacheMissCount()).andReturn(2L);
+        expect(statistics.getQueryCachePutCount()).andReturn(2L);
+        expect(statistics.getSecondLevelCacheRegionNames()).andReturn(
+                new String[]{"waldo.query.Station", "waldo.entity.Station"});
+        expect(statistics.getSecondLevelCacheStatistics("waldo.entity.Station")).andReturn(regionStatistics);
+        expect(statistics.getSecondLevelCacheStatistics("waldo.query.Station")).andReturn(null);
+        expect(regionStatistics.getHitCount()).andReturn(3L);
+        expect(regionStatistics.getMissCount()).andReturn(1L);
+        expect(regionStatistics.getPutCount()).andReturn(1L);
+        expect(regionStatistics.getElementCountInMemory()).andReturn(1L);
+        replay(entityManagerFactory, sessionFactory, statistics, regionStatistics);
+
+        /* Run the test and verify expectations. */
+        final Map<String, Object> result = new StatusFacadeImpl(entityManagerFactory).getCacheStatistics();
+        assertEquals(Boolean.TRUE, result.get("statisticsEnabled"));
+        assertEquals(0.75d, (Double) ((Map<String, Object>) result.get("secondLevel")).get("hitRatio"), 0.0d);
+        assertEquals(0.0d, (Double) ((Map<String, Object>) result.get("naturalId")).get("hitRatio"), 0.0d);
+        assertEquals(2L, ((Map<String, Object>) result.get("query")).get("misses"));
+        final Map<String, Object> regions = (Map<String, Object>) result.get("regions");
+        assertEquals(1, regions.size());
+        assertEquals(1L, ((Map<String, Object>) regions.get("waldo.entity.Station")).get("elementsInMemory"));
+        verify(entityManagerFactory, sessionFactory, statistics, regionStatistics);
+    }
+
+    /**
+     * Test the implementation of {@link StatusFacadeImpl#getConnectionPoolStatistics()}.
+     */
+    @Test
+    public void testGetConnectionPoolStatistics()
+    {
+        final EntityManagerFactory entityManagerFactory = createMock(EntityManagerFactory.class);
+        final ConnectionPoolMonitor monitor = createMock(ConnectionPoolMonitor.class);
+        final Map<String, Object> statistics = Collections.<String, Object>singletonMap("active", 1);
+        expect(monitor.getPoolStatistics()).andReturn(Collections.singletonMap("waldo-read", statistics));
+        replay(entityManagerFactory, monitor);
+
+        /* Run the test and verify expectations. */
+        final StatusFacadeImpl facade = new StatusFacadeImpl(entityManagerFactory);
+        assertTrue(facade.getConnectionPoolStatistics().isEmpty());
+        facade.setPoolMonitors(Arrays.asList(monitor));
+        assertSame(statistics, facade.getConnectionPoolStatistics().get("waldo-read"));
+        verify(entityManagerFactory, monitor);
+    }
+
+    /**
+     * Test the implementation of {@link StatusFacadeImpl#isServing()}.
+     */
+    @Test
+    public void testIsServing()
+    {
+        final EntityManagerFactory entityManagerFactory = createMock(EntityManagerFactory.class);
+        final SnapshotSubscriber snapshotSubscriber = createMock(SnapshotSubscriber.class);
+        expect(snapshotSubscriber.isLoaded()).andReturn(false);
+        expect(snapshotSubscriber.isLoaded()).andReturn(true);
+        replay(entityManagerFactory, snapshotSubscriber);
+
+        /* Run the test and verify expectations. */
+        final StatusFacadeImpl facade = new StatusFacadeImpl(entityManagerFactory);
+        assertTrue(facade.isServing());
+        facade.setSnapshotSubscriber(snapshotSubscriber);
+        assertFalse(facade.isServing());
+        assertTrue(facade.isServing());
+        verify(entityManagerFactory, snapshotSubscriber);
+    }
+}
@@ -0,0 +1,132 @@
+package waldo.impl.service.advisory;
+
+import org.junit.Test;
+import waldo.service.advisory.Advisory;
+import waldo.utility.geo.BoundingBox;
+import waldo.utility.geo.Polygon;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestAdvisoryIndexImpl} provides unit test coverage for {@link AdvisoryIndexImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestAdvisoryIndexImpl
+{
+    private static final int DEGREE = BoundingBox.UNITS_PER_DEGREE;
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1L);
+
+    /* 2014-07-15T18:00:00Z. */
+    private static final long NOW = 1405447200000L;
+
+    /**
+     * Construct a {@link TestAdvisoryIndexImpl} instance.
+     */
+    public TestAdvisoryIndexImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that the advisories containing a point are found, whether the point lies in an interior or a boundary cell
+     * of their areas, and only while they are valid.
+     */
+    @Test
+    public void testFindContaining()
+    {
+        final AdvisoryIndexImpl index = new AdvisoryIndexImpl();
+        final Advisory large = advisory(Advisory.Type.AIRMET, "IFR", NOW, NOW + 6L * HOUR, 30.5, -100.5, 45.5, -80.5);
+        final Advisory small = advisory(Advisory.Type.SIGMET, "TURB", NOW + HOUR, NOW + 5L * HOUR, 41.2, -88.2, 42.2,
+                -87.2);
+        index.replace(Arrays.asList(large, small));
+
+        /* Run the test and verify expectations. */
+        assertTrue(index.findContaining(42 * DEGREE, -88 * DEGREE, NOW - 1L).isEmpty());
+        assertEquals(Collections.singletonList(large), index.findContaining(42 * DEGREE, -88 * DEGREE, NOW));
+        final List<Advisory> found = index.findContaining(42 * DEGREE, -88 * DEGREE, NOW + HOUR);
+        assertEquals(2, found.size());
+        assertTrue(found.containsAll(Arrays.asList(large, small)));
+        assertEquals(Collections.singletonList(large), index.findContaining(41 * DEGREE, -88 * DEGREE, NOW + HOUR));
+        assertEquals(Collections.singletonList(large), index.findContaining(45 * DEGREE, -81 * DEGREE, NOW));
+        assertTrue(index.findContaining(45 * DEGREE + DEGREE / 2 + 1, -81 * DEGREE, NOW).isEmpty());
+        assertTrue(index.findContaining(42 * DEGREE, -88 * DEGREE, NOW + 6L * HOUR).isEmpty());
+
+        /* Replacement discards the advisories held. */
+        index.replace(Collections.singletonList(small));
+        assertTrue(index.findContaining(41 * DEGREE, -88 * DEGREE, NOW + HOUR).isEmpty());
+    }
+
+    /**
+     * Test that the advisories intersecting a route are found once each, including those crossed by a leg between
+     * points which lie outside them.
+     */
+    @Test
+    public void testFindIntersecting()
+    {
+        final AdvisoryIndexImpl index = new AdvisoryIndexImpl();
+        final Advisory west = advisory(Advisory.Type.SIGMET, "ICE", NOW, NOW + HOUR, 40.0, -95.0, 42.0, -93.0);
+        final Advisory east = advisory(Advisory.Type.CONVECTIVE_SIGMET, "CONVECTIVE", NOW, NOW + HOUR, 39.0, -80.0,
+                45.0, -78.0);
+        final Advisory north = advisory(Advisory.Type.AIRMET, "TURB", NOW, NOW + HOUR, 47.0, -90.0, 49.0, -85.0);
+        index.replace(Arrays.asList(west, east, north));
+
+        /* Run the test and verify expectations. */
+        final int[] latitudes = {41 * DEGREE, 41 * DEGREE, 41 * DEGREE};
+        final int[] longitudes = {-97 * DEGREE, -88 * DEGREE, -74 * DEGREE};
+        final List<Advisory> found = index.findIntersecting(latitudes, longitudes, NOW);
+        assertEquals(2, found.size());
+        assertTrue(found.containsAll(Arrays.asList(west, east)));
+        assertTrue(index.findIntersecting(latitudes, longitudes, NOW + HOUR).isEmpty());
+        assertEquals(Collections.singletonList(north), index.findIntersecting(new int[]{48 * DEGREE},
+                new int[]{-87 * DEGREE}, NOW));
+        try
+        {
+            index.findIntersecting(new int[0], new int[0], NOW);
+            fail("Invocation with empty route did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+
+    /**
+     * Create an advisory with a rectangular area.
+     *
+     * @param type the advisory type.
+     * @param hazard the hazard.
+     * @param validFrom the start of the period of validity.
+     * @param validTo the end of the period of validity.
+     * @param south the southern edge in degrees.
+     * @param west the western edge in degrees.
+     * @param north the northern edge in degrees.
+     * @param east the eastern edge in degrees.
+     * @return {@link Advisory} instance.
+     */
+    private static Advisory advisory(final Advisory.Type type, final String hazard, final long validFrom,
+                                     final long validTo, final double south, final double west, final double north,
+                                     final double east)
+    {
+        final int[] latitudes = {BoundingBox.toUnits(south), BoundingBox.toUnits(south), BoundingBox.toUnits(north),
+                BoundingBox.toUnits(north)};
+        final int[] longitudes = {BoundingBox.toUnits(west), BoundingBox.toUnits(east), BoundingBox.toUnits(east),
+                BoundingBox.toUnits(west)};
+        return new Advisory.Builder().setType(type).setHazard(hazard).setValidFrom(validFrom).setValidTo(validTo)
+                .setArea(new Polygon(latitudes, longitudes)).setRawText(type + " " + hazard).toAdvisory();
+    }
+}
@@ -0,0 +1,171 @@
+package waldo.impl.service.aircraft;
+
+import org.junit.Test;
+import waldo.service.aircraft.AircraftReport;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestAircraftReportIndexImpl} provides unit test coverage for {@link AircraftReportIndexImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestAircraftReportIndexImpl
+{
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1L);
+
+    /* 2014-07-15T18:00:00Z. */
+    private static final long NOW = 1405447200000L;
+
+    /**
+     * Construct a {@link TestAircraftReportIndexImpl} instance.
+     */
+    public TestAircraftReportIndexImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that reports are found within the radius, band and period given, most recent first.
+     */
+    @Test
+    public void testFind()
+    {
+        final AircraftReportIndexImpl index = new AircraftReportIndexImpl(6L * HOUR);
+        final AircraftReport near = report(42.811936, -87.904842, 10000, NOW - HOUR / 2L, "ORD UA /OV ORD360050");
+        final AircraftReport low = report(41.9, -87.8, 3000, NOW - HOUR / 4L, "ORD UA /OV ORD/FL030");
+        final AircraftReport far = report(44.478603, -87.904842, 10000, NOW, "GRB UA /OV ORD360150");
+        final AircraftReport early = report(41.978603, -87.904842, 10000, NOW - 3L * HOUR, "ORD UA /OV ORD/FL100");
+        final AircraftReport unknown = report(41.978603, -87.904842, AircraftReport.MISSING, NOW, "ORD UA /OV ORD");
+        for (final AircraftReport report : new AircraftReport[]{near, low, far, early, unknown})
+        {
+            assertTrue(index.add(report));
+        }
+
+        /* Run the test and verify expectations. */
+        final int latitude = 41978603;
+        final int longitude = -87904842;
+        List<AircraftReport> found = index.find(latitude, longitude, 100.0, 8000, 12000, NOW - 2L * HOUR, NOW);
+        assertEquals(1, found.size());
+        assertSame(near, found.get(0));
+        found = index.find(latitude, longitude, 100.0, 0, 12000, NOW - 2L * HOUR, NOW);
+        assertEquals(2, found.size());
+        assertSame(low, found.get(0));
+        assertSame(near, found.get(1));
+        found = index.find(latitude, longitude, 200.0, AircraftReport.MISSING, Integer.MAX_VALUE, NOW - 4L * HOUR,
+                NOW);
+        assertEquals(5, found.size());
+        assertSame(early, found.get(4));
+        assertTrue(index.find(latitude, longitude, 100.0, 0, 12000, NOW + 1L, NOW + HOUR).isEmpty());
+        assertTrue(index.find(0, 0, 100.0, 0, 12000, NOW - 2L * HOUR, NOW).isEmpty());
+    }
+
+    /**
+     * Test that a search near the antimeridian or a pole finds reports on either side of it.
+     */
+    @Test
+    public void testFindWrapping()
+    {
+        final AircraftReportIndexImpl index = new AircraftReportIndexImpl(HOUR);
+        final AircraftReport east = report(51.0, -179.9, 35000, NOW, "ADK UA /OV SYA270050");
+        final AircraftReport polar = report(89.5, 10.0, 35000, NOW, "ARCTIC UA");
+        assertTrue(index.add(east));
+        assertTrue(index.add(polar));
+
+        /* Run the test and verify expectations. */
+        List<AircraftReport> found = index.find(51000000, 179800000, 20.0, 30000, 40000, NOW, NOW);
+        assertEquals(1, found.size());
+        assertSame(east, found.get(0));
+        found = index.find(89500000, -170000000, 100.0, 30000, 40000, NOW, NOW);
+        assertEquals(1, found.size());
+        assertSame(polar, found.get(0));
+    }
+
+    /**
+     * Test that reports already held, or made before the retention period, are not added, and that reports fall out of
+     * the index as later reports arrive.
+     */
+    @Test
+    public void testAdd()
+    {
+        final AircraftReportIndexImpl index = new AircraftReportIndexImpl(2L * HOUR);
+        final AircraftReport first = report(41.978603, -87.904842, 10000, NOW, "ORD UA /OV ORD/FL100");
+
+        /* Run the test and verify expectations. */
+        assertTrue(index.add(first));
+        assertFalse(index.add(report(41.978603, -87.904842, 10000, NOW, "ORD UA /OV ORD/FL100")));
+        assertFalse(index.add(report(41.978603, -87.904842, 10000, NOW - 3L * HOUR, "ORD UA /OV ORD/FL100")));
+        assertTrue(index.add(report(41.978603, -87.904842, 10000, NOW - 2L * HOUR, "ORD UA /OV ORD/FL100")));
+        assertEquals(2, index.find(41978603, -87904842, 10.0, 0, 20000, 0L, Long.MAX_VALUE).size());
+        assertTrue(index.add(report(41.978603, -87.904842, 10000, NOW + HOUR, "ORD UA /OV ORD/FL100")));
+        final List<AircraftReport> found = index.find(41978603, -87904842, 10.0, 0, 20000, 0L, Long.MAX_VALUE);
+        assertEquals(2, found.size());
+        assertSame(first, found.get(1));
+    }
+
+    /**
+     * Test that invalid arguments are rejected.
+     */
+    @Test
+    public void testInvalidArguments()
+    {
+        final AircraftReportIndexImpl index = new AircraftReportIndexImpl(HOUR);
+        try
+        {
+            index.find(0, 0, -1.0, 0, 1000, NOW, NOW);
+            fail("Invocation with negative radius did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try
+        {
+            index.find(0, 0, 1.0, 1000, 0, NOW, NOW);
+            fail("Invocation with reversed band did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try
+        {
+            index.find(0, 0, 1.0, 0, 1000, NOW, NOW - 1L);
+            fail("Invocation with reversed period did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+
+    /**
+     * Create a report.
+     *
+     * @param latitude the latitude in degrees.
+     * @param longitude the longitude in degrees.
+     * @param altitude the altitude in feet.
+     * @param observedAt the observation time.
+     * @param rawText the raw text.
+     * @return {@link AircraftReport} instance.
+     */
+    private static AircraftReport report(final double latitude, final double longitude, final int altitude,
+                                         final long observedAt, final String rawText)
+    {
+        return new AircraftReport.Builder().setLatitude((int) Math.round(latitude * 1000000.0)).setLongitude(
+                (int) Math.round(longitude * 1000000.0)).setAltitude(altitude).setObservedAt(observedAt).setRawText(
+                rawText).toReport();
+    }
+}
@@ -0,0 +1,212 @@
+package waldo.impl.service.forecast;
+
+import org.junit.Test;
+import waldo.entity.FlightCategory;
+import waldo.entity.PresentWeather;
+import waldo.entity.SkyCover;
+import waldo.entity.SkyLayers;
+import waldo.service.forecast.ForecastConditions;
+import waldo.service.forecast.TerminalForecast;
+import waldo.service.observation.ObservationRecord;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestForecastTimelineImpl} provides unit test coverage for {@link ForecastTimelineImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestForecastTimelineImpl
+{
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1L);
+
+    /* 2014-07-15T18:00:00Z. */
+    private static final long VALID_FROM = 1405447200000L;
+
+    /**
+     * Construct a {@link TestForecastTimelineImpl} instance.
+     */
+    public TestForecastTimelineImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that the conditions prevailing at a time reflect {@code FM} and {@code BECMG} groups, but not {@code TEMPO}
+     * or {@code PROB} groups.
+     */
+    @Test
+    public void testFindPredicted()
+    {
+        final ForecastTimelineImpl timeline = new ForecastTimelineImpl();
+        assertTrue(timeline.update(forecast("KORD", VALID_FROM - HOUR)));
+
+        /* Run the test and verify expectations. */
+        assertNull(timeline.findPredicted("KORD", VALID_FROM - 1L));
+        assertNull(timeline.findPredicted("KORD", at(24)));
+        assertNull(timeline.findPredicted("KMDW", at(1)));
+        final ForecastConditions initial = timeline.findPredicted("KORD", VALID_FROM);
+        assertEquals(270, initial.getWindDirection());
+        assertEquals(12, initial.getWindSpeed());
+        assertEquals(20, initial.getWindGust());
+        assertEquals(600, initial.getVisibility());
+        assertSame(FlightCategory.VFR, initial.getFlightCategory());
+        assertEquals(600, timeline.findPredicted("KORD", at(3)).getVisibility());
+
+        /* The FM group replaces all elements, including the gusts which it does not give. */
+        final ForecastConditions from = timeline.findPredicted("KORD", at(7));
+        assertEquals(8, from.getWindSpeed());
+        assertEquals(ObservationRecord.MISSING, from.getWindGust());
+        assertEquals("BKN040", SkyLayers.toString(from.getSkyLayers()));
+        assertEquals(PresentWeather.LIGHT | PresentWeather.forCode("RA"), from.getWeather());
+
+        /* The BECMG group takes effect at the end of its period, keeping the elements it does not give. */
+        assertEquals("BKN040", SkyLayers.toString(timeline.findPredicted("KORD", at(10) - 1L).getSkyLayers()));
+        final ForecastConditions becoming = timeline.findPredicted("KORD", at(10));
+        assertEquals("OVC025", SkyLayers.toString(becoming.getSkyLayers()));
+        assertEquals(8, becoming.getWindSpeed());
+        assertEquals(PresentWeather.NONE, becoming.getWeather());
+        assertSame(FlightCategory.MVFR, becoming.getFlightCategory());
+        assertSame(FlightCategory.MVFR, timeline.findPredicted("KORD", at(14)).getFlightCategory());
+        assertEquals("SKC", SkyLayers.toString(timeline.findPredicted("KORD", at(24) - 1L).getSkyLayers()));
+    }
+
+    /**
+     * Test that the worst conditions within a period include transitions and temporary and probable conditions, and
+     * that periods are clipped to the period of validity.
+     */
+    @Test
+    public void testFindWorst()
+    {
+        final ForecastTimelineImpl timeline = new ForecastTimelineImpl();
+        assertTrue(timeline.update(forecast("KORD", VALID_FROM - HOUR)));
+
+        /* Run the test and verify expectations. */
+        final ForecastConditions tempo = timeline.findWorst("KORD", VALID_FROM, at(6));
+        assertEquals(300, tempo.getVisibility());
+        assertEquals(20, tempo.getWindGust());
+        assertEquals("BKN020", SkyLayers.toString(tempo.getSkyLayers()));
+        assertEquals(PresentWeather.LIGHT | PresentWeather.forCode("SH") | PresentWeather.forCode("RA"),
+                tempo.getWeather());
+        assertSame(FlightCategory.MVFR, tempo.getFlightCategory());
+        assertSame(FlightCategory.VFR, timeline.findWorst("KORD", at(6), at(8)).getFlightCategory());
+        assertSame(FlightCategory.MVFR, timeline.findWorst("KORD", at(8), at(9)).getFlightCategory());
+        final ForecastConditions all = timeline.findWorst("KORD", VALID_FROM - HOUR, at(30));
+        assertSame(FlightCategory.IFR, all.getFlightCategory());
+        assertEquals(100, all.getVisibility());
+        assertEquals(12, all.getWindSpeed());
+        assertEquals(270, all.getWindDirection());
+        assertTrue(0L != (all.getWeather() & PresentWeather.forCode("TS")));
+
+        /* An empty period is an instant. */
+        assertSame(FlightCategory.IFR, timeline.findWorst("KORD", at(15), at(15)).getFlightCategory());
+        assertSame(FlightCategory.MVFR, timeline.findWorst("KORD", at(16), at(16)).getFlightCategory());
+        assertSame(FlightCategory.VFR, timeline.findWorst("KORD", at(22), at(30)).getFlightCategory());
+        assertNull(timeline.findWorst("KORD", VALID_FROM - HOUR, VALID_FROM));
+        assertNull(timeline.findWorst("KORD", at(24), at(24)));
+        assertNull(timeline.findWorst("KMDW", VALID_FROM, at(24)));
+        try
+        {
+            timeline.findWorst("KORD", at(2), at(1));
+            fail("Invocation with a reversed period did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+
+    /**
+     * Test that a forecast replaces only one issued no later than itself.
+     */
+    @Test
+    public void testUpdate()
+    {
+        final ForecastTimelineImpl timeline = new ForecastTimelineImpl();
+        assertEquals(0L, timeline.getIssuedAt("KORD"));
+
+        /* Run the test and verify expectations. */
+        assertTrue(timeline.update(forecast("KORD", VALID_FROM - HOUR)));
+        assertFalse(timeline.update(forecast("KORD", VALID_FROM - 2L * HOUR)));
+        assertEquals(VALID_FROM - HOUR, timeline.getIssuedAt("KORD"));
+        final ForecastConditions conditions = new ForecastConditions.Builder().setVisibility((short) 50)
+                .toConditions();
+        assertTrue(timeline.update(new TerminalForecast("KORD", VALID_FROM, VALID_FROM, at(6),
+                Collections.singletonList(new TerminalForecast.Group(TerminalForecast.Group.Type.FROM, VALID_FROM,
+                        at(6), 0, conditions)))));
+        assertEquals(VALID_FROM, timeline.getIssuedAt("KORD"));
+        assertSame(FlightCategory.LIFR, timeline.findPredicted("KORD", at(1)).getFlightCategory());
+        assertNull(timeline.findPredicted("KORD", at(7)));
+        try
+        {
+            timeline.update(new TerminalForecast("KORD", at(1), at(1), at(1),
+                    Collections.<TerminalForecast.Group>emptyList()));
+            fail("Update with an empty period of validity did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+
+    private static long at(final int hours)
+    {
+        return VALID_FROM + hours * HOUR;
+    }
+
+    /**
+     * Create a forecast valid for 24 hours from 1800Z, equivalent to:
+     * <pre>
+     * KORD 1518/1618 27012G20KT P6SM SCT050 TEMPO 1520/1522 3SM -SHRA BKN020
+     *   FM160000 29008KT P6SM -RA BKN040 BECMG 1602/1604 NSW OVC025 PROB30 1606/1610 1SM TSRA OVC010CB
+     *   FM161200 18005KT P6SM SKC
+     * </pre>
+     *
+     * @param station the station identifier.
+     * @param issuedAt the issue time.
+     * @return {@link TerminalForecast} instance.
+     */
+    private static TerminalForecast forecast(final String station, final long issuedAt)
+    {
+        final ForecastConditions.Builder builder = new ForecastConditions.Builder();
+        final ForecastConditions initial = builder.setWindDirection((short) 270).setWindSpeed((short) 12).setWindGust(
+                (short) 20).setVisibility((short) 600).setSkyLayers(sky(SkyCover.SCT, 50)).toConditions();
+        final ForecastConditions tempo = builder.reset().setVisibility((short) 300).setSkyLayers(sky(SkyCover.BKN, 20))
+                .setWeather(PresentWeather.LIGHT | PresentWeather.forCode("SH") | PresentWeather.forCode("RA"))
+                .toConditions();
+        final ForecastConditions from = builder.reset().setWindDirection((short) 290).setWindSpeed((short) 8)
+                .setVisibility((short) 600).setSkyLayers(sky(SkyCover.BKN, 40)).setWeather(PresentWeather.LIGHT |
+                        PresentWeather.forCode("RA")).toConditions();
+        final ForecastConditions becoming = builder.reset().setSkyLayers(sky(SkyCover.OVC, 25)).setWeather(
+                ForecastConditions.NO_SIGNIFICANT_WEATHER).toConditions();
+        final ForecastConditions probable = builder.reset().setVisibility((short) 100).setSkyLayers(sky(SkyCover.OVC,
+                10)).setWeather(PresentWeather.forCode("TS") | PresentWeather.forCode("RA")).toConditions();
+        final ForecastConditions later = builder.reset().setWindDirection((short) 180).setWindSpeed((short) 5)
+                .setVisibility((short) 600).setSkyLayers(sky(SkyCover.SKC, 0)).toConditions();
+        return new TerminalForecast(station, issuedAt, VALID_FROM, at(24), Arrays.asList(
+                new TerminalForecast.Group(TerminalForecast.Group.Type.FROM, VALID_FROM, at(24), 0, initial),
+                new TerminalForecast.Group(TerminalForecast.Group.Type.TEMPORARY, at(2), at(4), 0, tempo),
+                new TerminalForecast.Group(TerminalForecast.Group.Type.FROM, at(6), at(24), 0, from),
+                new TerminalForecast.Group(TerminalForecast.Group.Type.BECOMING, at(8), at(10), 0, becoming),
+                new TerminalForecast.Group(TerminalForecast.Group.Type.PROBABILITY, at(12), at(16), 30, probable),
+                new TerminalForecast.Group(TerminalForecast.Group.Type.FROM, at(18), at(24), 0, later)));
+    }
+
+    private static long sky(final SkyCover cover, final int base)
+    {
+        return SkyLayers.append(SkyLayers.NONE, cover, base);
+    }
+}
@@ -0,0 +1,283 @@
+package waldo.impl.service.journal;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import waldo.entity.FlightCategory;
+import waldo.entity.ReportType;
+import waldo.service.journal.JournalException;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestObservationJournalImpl} provides unit test coverage for {@link ObservationJournalImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestObservationJournalImpl
+{
+    /* Room for a header and a few records per segment, so that tests roll over quickly. */
+    private static final int SEGMENT_SIZE = 512;
+
+    @Rule
+    public final TemporaryFolder m_folder = new TemporaryFolder();
+
+    /**
+     * Construct a {@link TestObservationJournalImpl} instance.
+     */
+    public TestObservationJournalImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that records survive an encode/decode round trip across segments, that consumers read independently, and
+     * that consumer positions survive reopening the journal.
+     */
+    @Test
+    public void testAppendAndConsume() throws IOException
+    {
+        final File directory = m_folder.newFolder("journal");
+        ObservationJournalImpl journal = open(directory);
+        for (int i = 0; i < 20; i++)
+        {
+            assertEquals(i, journal.append(record("KORD", i, (short) i)));
+        }
+        journal.flush();
+        assertTrue(directory.list().length > 2);
+
+        /* Run the test and verify expectations. */
+        final Collector fast = new Collector();
+        final Collector slow = new Collector();
+        assertEquals(20, journal.consume("db", fast, 100));
+        assertEquals(0, journal.consume("db", fast, 100));
+        assertEquals(5, journal.consume("cache", slow, 5));
+        assertEquals(20, fast.m_records.size());
+        final ObservationRecord first = fast.m_records.get(0);
+        assertEquals("KORD", first.getStation());
+        assertEquals(0L, first.getObservedAt());
+        assertEquals(ReportType.METAR, first.getReportType());
+        assertEquals(FlightCategory.VFR, first.getFlightCategory());
+        assertEquals(ObservationRecord.MISSING, first.getWindGust());
+        assertEquals((short) 19, fast.m_records.get(19).getTemperature());
+
+        /* Reopen; the slow consumer resumes where it left off, and appends continue the sequence. */
+        journal = open(directory);
+        assertEquals(20L, journal.append(record("KMDW", 20, (short) 20)));
+        assertEquals(16, journal.consume("cache", slow, 100));
+        assertEquals(21, slow.m_records.size());
+        assertEquals((short) 5, slow.m_records.get(5).getTemperature());
+        assertEquals("KMDW", slow.m_records.get(20).getStation());
+        assertEquals(1, journal.consume("db", fast, 100));
+    }
+
+    /**
+     * Test that compaction drops superseded records and deletes segments read by every consumer.
+     */
+    @Test
+    public void testCompact() throws IOException
+    {
+        final File directory = m_folder.newFolder("journal");
+        final ObservationJournalImpl journal = open(directory);
+        for (int i = 0; i < 10; i++)
+        {
+            /* Two versions of each observation; the second supersedes the first. */
+            journal.append(record("KORD", i, (short) 1));
+            journal.append(record("KORD", i, (short) 2));
+        }
+        journal.compact();
+
+        /* Run the test and verify expectations. */
+        final Collector collector = new Collector();
+        journal.consume("db", collector, 100);
+        /* Seven records fit in each segment: the two full segments keep only latest versions, the newest is intact. */
+        assertEquals(7 + 6, collector.m_records.size());
+        for (final ObservationRecord record : collector.m_records.subList(0, 7))
+        {
+            assertEquals((short) 2, record.getTemperature());
+        }
+        final int segments = directory.list().length;
+        journal.compact();
+        assertTrue(directory.list().length < segments);
+        assertEquals(0, journal.consume("db", collector, 100));
+    }
+
+    /**
+     * Test that a buffering handler is flushed before its position is persisted, and that a failed flush leaves the
+     * position where it was so that the records are delivered again.
+     */
+    @Test
+    public void testFlush() throws IOException
+    {
+        final File directory = m_folder.newFolder("journal");
+        final ObservationJournalImpl journal = open(directory);
+        for (int i = 0; i < 10; i++)
+        {
+            journal.append(record("KORD", i, (short) i));
+        }
+        final Buffer buffer = new Buffer();
+        buffer.m_fail = true;
+
+        /* Run the test and verify expectations. */
+        try
+        {
+            journal.consume("db", buffer, 4);
+            fail("Consume with failing flush did not throw.");
+        }
+        catch (final JournalException e)
+        {
+            /* Good. */
+        }
+        assertTrue(buffer.m_flushed.isEmpty());
+        buffer.m_fail = false;
+        assertEquals(4, journal.consume("db", buffer, 4));
+        assertEquals(6, journal.consume("db", buffer, 100));
+        assertEquals(10, buffer.m_flushed.size());
+        assertEquals(0L, buffer.m_flushed.get(0).getObservedAt());
+        assertEquals(9L, buffer.m_flushed.get(9).getObservedAt());
+        assertEquals(0, open(directory).consume("db", buffer, 100));
+    }
+
+    /**
+     * Test that a torn record at the end of the newest segment is discarded on reopening.
+     */
+    @Test
+    public void testRecovery() throws IOException
+    {
+        final File directory = m_folder.newFolder("journal");
+        final ObservationJournalImpl journal = open(directory);
+        journal.append(record("KORD", 0, (short) 0));
+        journal.append(record("KORD", 1, (short) 1));
+        journal.flush();
+        final File segment = directory.listFiles()[0];
+        try (final RandomAccessFile file = new RandomAccessFile(segment, "rw"))
+        {
+            /* Corrupt the payload of the second record. */
+            final int second = JournalSegment.HEADER_BYTES + JournalRecordCodec.FRAME_BYTES + 59 +
+                    JournalRecordCodec.FRAME_BYTES + 10;
+            file.seek(second);
+            file.write(0x7f);
+        }
+
+        /* Run the test and verify expectations. */
+        final ObservationJournalImpl reopened = open(directory);
+        assertEquals(1L, reopened.append(record("KMDW", 2, (short) 2)));
+        final Collector collector = new Collector();
+        assertEquals(2, reopened.consume("db", collector, 100));
+        assertEquals("KMDW", collector.m_records.get(1).getStation());
+    }
+
+    /**
+     * Test that invalid arguments are rejected.
+     */
+    @Test
+    public void testInvalidArguments() throws IOException
+    {
+        try
+        {
+            new ObservationJournalImpl(m_folder.getRoot(), 64);
+            fail("Construction with tiny segment size did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try
+        {
+            open(m_folder.newFolder("journal")).consume("../db", new Collector(), 1);
+            fail("Consume with invalid consumer name did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+
+    private static ObservationJournalImpl open(final File directory)
+    {
+        final ObservationJournalImpl result = new ObservationJournalImpl(directory, SEGMENT_SIZE);
+        result.open();
+        return result;
+    }
+
+    private static ObservationRecord record(final String station, final long observedAt, final short temperature)
+    {
+        return new ObservationRecord.Builder().setStation(station).setObservedAt(observedAt)
+                .setReportType(ReportType.METAR).setTemperature(temperature).setFlightCategory(FlightCategory.VFR)
+                .toRecord();
+    }
+
+    /**
+     * {@link Buffer} buffers the records delivered to it until flushed, and may be made to fail when flushed.
+     */
+    private static final class Buffer implements ObservationHandler, Flushable
+    {
+        private final List<ObservationRecord> m_buffered = new ArrayList<>();
+        private final List<ObservationRecord> m_flushed = new ArrayList<>();
+        private boolean m_fail;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void handle(final ObservationRecord record)
+        {
+            m_buffered.add(record);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void flush() throws IOException
+        {
+            try
+            {
+                if (m_fail)
+                {
+                    throw new IOException("Failed.");
+                }
+                m_flushed.addAll(m_buffered);
+            }
+            finally
+            {
+                m_buffered.clear();
+            }
+        }
+    }
+
+    /**
+     * {@link Collector} collects the records delivered to it.
+     */
+    private static final class Collector implements ObservationHandler
+    {
+        private final List<ObservationRecord> m_records = new ArrayList<>();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void handle(final ObservationRecord record)
+        {
+            m_records.add(record);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package waldo.impl.service.observation;
+
+import org.easymock.Capture;
+import org.easymock.IAnswer;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlProvider;
+import waldo.entity.ReportType;
+import waldo.service.observation.ContinuationToken;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+import waldo.utility.geo.BoundingBox;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestObservationReaderImpl} provides unit test coverage for {@link ObservationReaderImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestObservationReaderImpl
+{
+    /**
+     * Construct a {@link TestObservationReaderImpl} instance.
+     */
+    public TestObservationReaderImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that a region history query selects observations by the location of their station, binding the region,
+     * range and continuation key in order, and that the rows it returns are paged.
+     */
+    @Test
+    public void testReadRegionHistory() throws SQLException
+    {
+        final BoundingBox region = new BoundingBox(41000000, -88000000, 42000000, -87000000);
+        final JdbcOperations jdbcOperations = createStrictMock(JdbcOperations.class);
+        final Capture<PreparedStatementCreator> creator = new Capture<>();
+        jdbcOperations.query(capture(creator), anyObject(RowCallbackHandler.class));
+        expectLastCall().andAnswer(new IAnswer<Object>()
+        {
+            @Override
+            public Object answer() throws Throwable
+            {
+                /* The station table locates KMDW and KORD within the region, each with one observation. */
+                final RowCallbackHandler callback = (RowCallbackHandler) getCurrentArguments()[1];
+                callback.processRow(row(7L, "KMDW"));
+                callback.processRow(row(8L, "KORD"));
+                return null;
+            }
+        });
+        final ObservationHandler handler = createStrictMock(ObservationHandler.class);
+        final Capture<ObservationRecord> handled = new Capture<>();
+        handler.handle(capture(handled));
+        replay(jdbcOperations, handler);
+
+        /* Run the test and verify expectations. */
+        final ContinuationToken next = new ObservationReaderImpl(jdbcOperations, 500).readRegionHistory(region,
+                1000L, 5000L, null, 1, handler);
+        verify(jdbcOperations, handler);
+        assertEquals("KMDW", handled.getValue().getStation());
+        assertEquals("KMDW", next.getStation());
+        assertEquals(3600000L, next.getObservedAt());
+        assertEquals(7L, next.getId());
+
+        /* The statement joins the station table and binds the region, range, first key and page size in turn. */
+        final String sql = ((SqlProvider) creator.getValue()).getSql();
+        assertTrue(sql.contains("JOIN STATION s ON s.ICAO_ID = o.STATION"));
+        final Connection connection = createMock(Connection.class);
+        final PreparedStatement statement = createStrictMock(PreparedStatement.class);
+        expect(connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+                .andReturn(statement);
+        statement.setFetchSize(2);
+        statement.setObject(1, 41000000);
+        statement.setObject(2, 42000000);
+        statement.setObject(3, -88000000);
+        statement.setObject(4, -87000000);
+        statement.setObject(5, new Timestamp(1000L));
+        statement.setObject(6, new Timestamp(5000L));
+        statement.setObject(7, "");
+        statement.setObject(8, new Timestamp(1000L));
+        statement.setObject(9, -1L);
+        statement.setObject(10, 2);
+        replay(connection, statement);
+        assertSame(statement, creator.getValue().createPreparedStatement(connection));
+        verify(connection, statement);
+    }
+
+    /**
+     * Create a selected row, in which every element is missing.
+     *
+     * @param id the observation identifier.
+     * @param station the station identifier.
+     * @return {@link ResultSet} positioned on the row.
+     */
+    private static ResultSet row(final long id, final String station) throws SQLException
+    {
+        final ResultSet result = createNiceMock(ResultSet.class);
+        expect(result.getLong(1)).andReturn(id);
+        expect(result.getString(2)).andReturn(station);
+        expect(result.getTimestamp(3)).andReturn(new Timestamp(3600000L));
+        expect(result.getShort(4)).andReturn(ReportType.METAR.getCode());
+        expect(result.wasNull()).andReturn(true).anyTimes();
+        replay(result);
+        return result;
+    }
+}
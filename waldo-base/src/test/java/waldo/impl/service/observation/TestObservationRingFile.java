@@ -0,0 +1,203 @@
+package waldo.impl.service.observation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import waldo.entity.ReportType;
+import waldo.service.observation.ObservationRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static waldo.impl.service.observation.TestObservationStoreImpl.record;
+
+/**
+ * {@link TestObservationRingFile} provides unit test coverage for {@link ObservationRingFile}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestObservationRingFile
+{
+    @Rule
+    public final TemporaryFolder m_folder = new TemporaryFolder();
+
+    /**
+     * Construct a {@link TestObservationRingFile} instance.
+     */
+    public TestObservationRingFile()
+    {
+        super();
+    }
+
+    /**
+     * Test that records are held in order, superseded by time and type, and dropped when out of the retention period or
+     * when the ring is full.
+     */
+    @Test
+    public void testPut() throws IOException
+    {
+        try (final ObservationRingFile rings = ObservationRingFile.createTemporary(4))
+        {
+            final int slot = rings.allocate("KORD");
+            assertEquals(0, rings.size(slot));
+
+            /* Run the test and verify expectations. */
+            rings.put(slot, record("KORD", 30L, ReportType.METAR, (short) 1), 100L);
+            rings.put(slot, record("KORD", 10L, ReportType.METAR, (short) 2), 100L);
+            rings.put(slot, record("KORD", 20L, ReportType.METAR, (short) 3), 100L);
+            rings.put(slot, record("KORD", 20L, ReportType.METAR, (short) 4), 100L);
+            rings.put(slot, record("KORD", 20L, ReportType.SPECI, (short) 5), 100L);
+            assertTimes(new long[]{10L, 20L, 20L, 30L}, slot, rings);
+            assertEquals(4, read(rings, slot).get(1).getTemperature());
+
+            /* The ring is full: the oldest record makes way, but a record older than all of them is ignored. */
+            rings.put(slot, record("KORD", 25L, ReportType.METAR, (short) 6), 100L);
+            assertTimes(new long[]{20L, 20L, 25L, 30L}, slot, rings);
+            rings.put(slot, record("KORD", 15L, ReportType.METAR, (short) 7), 100L);
+            assertTimes(new long[]{20L, 20L, 25L, 30L}, slot, rings);
+            rings.put(slot, record("KORD", 40L, ReportType.METAR, (short) 8), 100L);
+            assertTimes(new long[]{20L, 25L, 30L, 40L}, slot, rings);
+
+            rings.put(slot, record("KORD", 126L, ReportType.METAR, (short) 9), 100L);
+            assertTimes(new long[]{30L, 40L, 126L}, slot, rings);
+            assertEquals(9, read(rings, slot).get(2).getTemperature());
+        }
+    }
+
+    /**
+     * Test that slots, positions and records survive closing and reopening the file, and that freed slots are reused.
+     */
+    @Test
+    public void testReopen() throws IOException
+    {
+        final File file = new File(m_folder.getRoot(), "store/observations.rings");
+        try (final ObservationRingFile rings = ObservationRingFile.open(file, 8))
+        {
+            assertEquals(0, rings.allocate("KORD"));
+            assertEquals(1, rings.allocate("KMDW"));
+            assertEquals(2, rings.allocate("K1"));
+            rings.setLocation(0, 41978603, -87904842);
+            rings.put(0, record("KORD", 10L, ReportType.METAR, (short) 1), Long.MAX_VALUE);
+            rings.put(2, record("K1", 20L, ReportType.SPECI, (short) 2), Long.MAX_VALUE);
+            rings.free(1);
+        }
+
+        /* Run the test and verify expectations. */
+        try (final ObservationRingFile rings = ObservationRingFile.open(file, 8))
+        {
+            final List<String> recovered = new ArrayList<>();
+            rings.recover(new ObservationRingFile.SlotVisitor()
+            {
+                @Override
+                public void visit(final int slot, final String station, final int latitude, final int longitude)
+                {
+                    recovered.add(String.format("%d %s %d %d", slot, station, latitude, longitude));
+                }
+            });
+            assertEquals(2, recovered.size());
+            assertEquals("0 KORD 41978603 -87904842", recovered.get(0));
+            assertEquals(String.format("2 K1 %d %d", Integer.MIN_VALUE, Integer.MIN_VALUE), recovered.get(1));
+            assertEquals(1, rings.size(0));
+            assertEquals(ReportType.SPECI, read(rings, 2).get(0).getReportType());
+            assertEquals(1, rings.allocate("KLAX"));
+            assertEquals(0, rings.size(1));
+            assertEquals(3, rings.allocate("KSFO"));
+        }
+
+        /* A file with a different capacity is cleared. */
+        try (final ObservationRingFile rings = ObservationRingFile.open(file, 16))
+        {
+            rings.recover(new ObservationRingFile.SlotVisitor()
+            {
+                @Override
+                public void visit(final int slot, final String station, final int latitude, final int longitude)
+                {
+                    fail("Slot recovered from an incompatible file.");
+                }
+            });
+            assertEquals(0, rings.allocate("KORD"));
+        }
+    }
+
+    /**
+     * Test that slots beyond the first chunk are mapped as they are allocated.
+     */
+    @Test
+    public void testGrow() throws IOException
+    {
+        try (final ObservationRingFile rings = ObservationRingFile.createTemporary(1))
+        {
+            /* Run the test and verify expectations. */
+            for (int i = 0; i < 2500; i++)
+            {
+                final String station = "K" + Integer.toString(i, 36);
+                assertEquals(i, rings.allocate(station));
+                rings.put(i, record(station, i, ReportType.METAR, (short) i), Long.MAX_VALUE);
+            }
+            for (int i = 0; i < 2500; i += 99)
+            {
+                assertEquals(i, read(rings, i).get(0).getTemperature());
+            }
+        }
+    }
+
+    /**
+     * Test that invalid arguments are rejected.
+     */
+    @Test
+    public void testInvalidArguments() throws IOException
+    {
+        try
+        {
+            ObservationRingFile.createTemporary(0);
+            fail("Creation with zero capacity did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try (final ObservationRingFile rings = ObservationRingFile.createTemporary(1))
+        {
+            rings.allocate("KORDX");
+            fail("Allocation for a five-character station did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+
+    private static List<ObservationRecord> read(final ObservationRingFile rings, final int slot)
+    {
+        final List<ObservationRecord> result = new ArrayList<>();
+        final ObservationRecord.Builder builder = new ObservationRecord.Builder();
+        for (int i = 0; i < rings.size(slot); i++)
+        {
+            result.add(rings.read(slot, i, builder.reset().setStation("KORD")));
+        }
+        return result;
+    }
+
+    private static void assertTimes(final long[] expected, final int slot, final ObservationRingFile rings)
+    {
+        final List<ObservationRecord> records = read(rings, slot);
+        final long[] actual = new long[records.size()];
+        for (int i = 0; i < actual.length; i++)
+        {
+            actual[i] = records.get(i).getObservedAt();
+        }
+        assertArrayEquals(expected, actual);
+    }
+}
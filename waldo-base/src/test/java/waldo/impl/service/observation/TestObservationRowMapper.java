@@ -0,0 +1,103 @@
+package waldo.impl.service.observation;
+
+import org.junit.Test;
+import waldo.entity.FlightCategory;
+import waldo.entity.ReportType;
+import waldo.entity.SkyCover;
+import waldo.entity.SkyLayers;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestObservationRowMapper} provides unit test coverage for {@link ObservationRowMapper} and the streaming
+ * callback of {@link ObservationReaderImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestObservationRowMapper
+{
+    /**
+     * Construct a {@link TestObservationRowMapper} instance.
+     */
+    public TestObservationRowMapper()
+    {
+        super();
+    }
+
+    /**
+     * Test that a row is mapped by position, with null columns mapped to {@link ObservationRecord#MISSING}.
+     */
+    @Test
+    public void testStreamRow() throws Throwable
+    {
+        final long skyLayers = SkyLayers.append(SkyLayers.NONE, SkyCover.BKN, 15);
+        final ResultSet resultSet = createMock(ResultSet.class);
+        expect(resultSet.getLong(1)).andReturn(42L);
+        expect(resultSet.getString(2)).andReturn("KORD");
+        expect(resultSet.getTimestamp(3)).andReturn(new Timestamp(1000L));
+        expect(resultSet.getShort(4)).andReturn(ReportType.SPECI.getCode());
+        expect(resultSet.getShort(5)).andReturn((short) -15);
+        expect(resultSet.wasNull()).andReturn(false);
+        for (int i = 6; i <= 13; i++)
+        {
+            expect(resultSet.getShort(i)).andReturn((short) 0);
+            expect(resultSet.wasNull()).andReturn(true);
+        }
+        expect(resultSet.getLong(14)).andReturn(skyLayers);
+        expect(resultSet.getShort(15)).andReturn(FlightCategory.IFR.getCode());
+        expect(resultSet.wasNull()).andReturn(false);
+        final ObservationHandler handler = createMock(ObservationHandler.class);
+        handler.handle(anyObject(ObservationRecord.class));
+        replay(resultSet, handler);
+
+        /* Run the test and verify expectations. */
+        final ObservationReaderImpl.StreamingCallback callback = new ObservationReaderImpl.StreamingCallback(handler);
+        callback.processRow(resultSet);
+        assertEquals(1, callback.getCount());
+        verify(resultSet, handler);
+    }
+
+    /**
+     * Test the element values of a mapped record.
+     */
+    @Test
+    public void testMapRow() throws Throwable
+    {
+        final ResultSet resultSet = createNiceMock(ResultSet.class);
+        expect(resultSet.getLong(1)).andReturn(42L);
+        expect(resultSet.getString(2)).andReturn("KORD");
+        expect(resultSet.getTimestamp(3)).andReturn(new Timestamp(1000L));
+        expect(resultSet.getShort(4)).andReturn(ReportType.METAR.getCode());
+        expect(resultSet.getShort(5)).andReturn((short) -15);
+        expect(resultSet.getShort(11)).andReturn((short) 0);
+        expect(resultSet.wasNull()).andReturn(false).times(6).andReturn(true).andReturn(false).times(2).andReturn(true);
+        replay(resultSet);
+
+        /* Run the test and verify expectations. */
+        final ObservationRecord record = new ObservationRowMapper().mapRow(resultSet, 0);
+        assertEquals(42L, record.getId());
+        assertEquals("KORD", record.getStation());
+        assertEquals(1000L, record.getObservedAt());
+        assertSame(ReportType.METAR, record.getReportType());
+        assertEquals(-15, record.getTemperature());
+        assertEquals(ObservationRecord.MISSING, record.getWindGust());
+        assertEquals(0, record.getVisibility());
+        assertNull(record.getFlightCategory());
+        verify(resultSet);
+    }
+}
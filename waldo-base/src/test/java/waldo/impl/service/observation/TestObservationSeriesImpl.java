@@ -0,0 +1,181 @@
+package waldo.impl.service.observation;
+
+import org.junit.Test;
+import waldo.entity.ReportType;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationSeries;
+import waldo.service.observation.SeriesAggregate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static waldo.impl.service.observation.TestObservationStoreImpl.record;
+
+/**
+ * {@link TestObservationSeriesImpl} provides unit test coverage for {@link ObservationSeriesImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestObservationSeriesImpl
+{
+    private static final long HOUR = 3600000L;
+
+    /**
+     * Construct a {@link TestObservationSeriesImpl} instance.
+     */
+    public TestObservationSeriesImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that a range spanning sealed chunks and the open chunk is read in order, that records may arrive out of
+     * order until their chunk is sealed, and that a record for a time already held replaces it.
+     */
+    @Test
+    public void testAppendAndRead()
+    {
+        final ObservationSeriesImpl series = new ObservationSeriesImpl(Long.MAX_VALUE);
+        assertEquals(0, series.read("KORD", 0L, Long.MAX_VALUE).size());
+        final int sealed = ObservationSeriesImpl.CHUNK_RECORDS * 2;
+        final int count = sealed + 10;
+        for (int i = 0; i < sealed; i++)
+        {
+            assertTrue(series.append(record("KORD", i * HOUR, ReportType.METAR, (short) i)));
+        }
+        for (int i = count - 1; i >= sealed; i--)
+        {
+            assertTrue(series.append(record("KORD", i * HOUR, ReportType.METAR, (short) i)));
+        }
+        assertTrue(series.append(record("KORD", (sealed + 5L) * HOUR, ReportType.SPECI, (short) -5)));
+
+        /* Run the test and verify expectations. */
+        ObservationSeries.Range range = series.read("KORD", 0L, Long.MAX_VALUE);
+        assertEquals(count, range.size());
+        for (int i = 0; i < count; i++)
+        {
+            assertEquals(i * HOUR, range.getTimes()[i]);
+            assertEquals(sealed + 5 == i ? -5 : i, range.getValues(ObservationSeries.Element.TEMPERATURE)[i]);
+            assertEquals(ObservationRecord.MISSING, range.getValues(ObservationSeries.Element.WIND_GUST)[i]);
+        }
+
+        range = series.read("KORD", 250L * HOUR, 300L * HOUR + 1L);
+        assertEquals(51, range.size());
+        assertEquals(250L * HOUR, range.getTimes()[0]);
+        assertEquals(300, range.getValues(ObservationSeries.Element.TEMPERATURE)[50]);
+        assertEquals(0, series.read("KMDW", 0L, Long.MAX_VALUE).size());
+    }
+
+    /**
+     * Test that a record older than the sealed part of a series is ignored, and that sealed chunks are dropped once
+     * they fall out of the retention period.
+     */
+    @Test
+    public void testRetention()
+    {
+        final int chunk = ObservationSeriesImpl.CHUNK_RECORDS;
+        final ObservationSeriesImpl series = new ObservationSeriesImpl(chunk * HOUR);
+        for (int i = 0; i < chunk * 2; i++)
+        {
+            series.append(record("KORD", i * HOUR, ReportType.METAR, (short) 1));
+        }
+        assertEquals(chunk * 2, series.read("KORD", 0L, Long.MAX_VALUE).size());
+
+        /* Run the test and verify expectations. */
+        assertFalse(series.append(record("KORD", 10L * HOUR, ReportType.SPECI, (short) 2)));
+        series.append(record("KORD", (chunk * 2L + 1L) * HOUR, ReportType.METAR, (short) 3));
+        final ObservationSeries.Range range = series.read("KORD", 0L, Long.MAX_VALUE);
+        assertEquals(chunk + 1, range.size());
+        assertEquals(chunk * HOUR, range.getTimes()[0]);
+    }
+
+    /**
+     * Test that aggregates over many stations, split across tasks, count only reported values within each bucket.
+     */
+    @Test
+    public void testAggregate()
+    {
+        final ObservationSeriesImpl series = new ObservationSeriesImpl(Long.MAX_VALUE);
+        final List<String> stations = new ArrayList<>();
+        for (int s = 0; s < 40; s++)
+        {
+            final String station = String.format("K%03d", s);
+            stations.add(station);
+            for (int i = 0; i < 300; i++)
+            {
+                final short temperature = 0 == i % 10 ? ObservationRecord.MISSING : (short) (s + i % 10);
+                series.append(record(station, i * HOUR, ReportType.METAR, temperature));
+            }
+        }
+
+        /* Run the test and verify expectations. */
+        try
+        {
+            final SeriesAggregate aggregate = series.aggregate(stations, ObservationSeries.Element.TEMPERATURE,
+                    10L * HOUR, 295L * HOUR, 10L * HOUR);
+            assertEquals(29, aggregate.getBucketCount());
+            assertEquals(20L * HOUR, aggregate.getBucketStart(1));
+            assertEquals(40 * 9, aggregate.getCount(0));
+            assertEquals(1, aggregate.getMinimum(0));
+            assertEquals(48, aggregate.getMaximum(0));
+            assertEquals(24.5, aggregate.getMean(0), 0.0001);
+            assertEquals(24, aggregate.getPercentile(0, 50.0));
+            assertEquals(40 * 4, aggregate.getCount(28));
+            assertEquals(43, aggregate.getMaximum(28));
+
+            final SeriesAggregate empty = series.aggregate(Collections.singleton("KORD"),
+                    ObservationSeries.Element.TEMPERATURE, 0L, HOUR, HOUR);
+            assertEquals(0, empty.getCount(0));
+            assertEquals(ObservationRecord.MISSING, empty.getPercentile(0, 90.0));
+            assertTrue(Double.isNaN(empty.getMean(0)));
+        }
+        finally
+        {
+            series.close();
+        }
+    }
+
+    /**
+     * Test that invalid aggregation arguments are rejected.
+     */
+    @Test
+    public void testAggregateInvalidArguments()
+    {
+        final ObservationSeriesImpl series = new ObservationSeriesImpl(Long.MAX_VALUE);
+        final List<String> stations = Collections.singletonList("KORD");
+        try
+        {
+            series.aggregate(stations, ObservationSeries.Element.TEMPERATURE, 0L, HOUR, 0L);
+            fail("Aggregation with zero interval did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try
+        {
+            series.aggregate(stations, ObservationSeries.Element.TEMPERATURE, 0L, ObservationSeriesImpl.MAX_BUCKETS +
+                    1L, 1L);
+            fail("Aggregation with too many buckets did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        finally
+        {
+            series.close();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package waldo.impl.service.observation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import waldo.entity.FlightCategory;
+import waldo.entity.ReportType;
+import waldo.entity.SkyCover;
+import waldo.entity.SkyLayers;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.SnapshotException;
+import waldo.utility.geo.BoundingBox;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestObservationSnapshotterImpl} provides unit test coverage for {@link ObservationSnapshotterImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestObservationSnapshotterImpl
+{
+    @Rule
+    public final TemporaryFolder m_folder = new TemporaryFolder();
+
+    /**
+     * Construct a {@link TestObservationSnapshotterImpl} instance.
+     */
+    public TestObservationSnapshotterImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that the store survives a save/restore round trip, including station positions and every record element.
+     */
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        final File file = new File(m_folder.getRoot(), "store.snapshot");
+        final ObservationStoreImpl source = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        source.locate("KORD", BoundingBox.toUnits(41.978603), BoundingBox.toUnits(-87.904842));
+        final ObservationRecord full = new ObservationRecord.Builder().setId(42L).setStation("KORD")
+                .setObservedAt(1400000000000L).setReportType(ReportType.SPECI).setTemperature((short) -15)
+                .setDewpoint((short) -30).setAltimeter((short) 2992).setSeaLevelPressure((short) 10132)
+                .setWindDirection((short) 270).setWindSpeed((short) 15).setWindGust((short) 25)
+                .setVisibility((short) 1000).setPrecipitation((short) 3)
+                .setSkyLayers(SkyLayers.append(SkyLayers.NONE, SkyCover.BKN, 25))
+                .setFlightCategory(FlightCategory.MVFR).toRecord();
+        source.put(full);
+        for (int i = 0; i < 2000; i++)
+        {
+            source.put(TestObservationStoreImpl.record("K" + (i % 500), i, ReportType.METAR, (short) i));
+        }
+        final ObservationSnapshotterImpl saver = new ObservationSnapshotterImpl(source, file);
+
+        /* Run the test and verify expectations. */
+        assertEquals(2001, saver.save(file));
+        final ObservationStoreImpl target = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        final ObservationSnapshotterImpl loader = new ObservationSnapshotterImpl(target, file);
+        loader.restore();
+        final ObservationRecord restored = target.findLatest("KORD");
+        assertEquals(full.getId(), restored.getId());
+        assertEquals(full.getObservedAt(), restored.getObservedAt());
+        assertEquals(full.getReportType(), restored.getReportType());
+        assertEquals(full.getTemperature(), restored.getTemperature());
+        assertEquals(full.getDewpoint(), restored.getDewpoint());
+        assertEquals(full.getAltimeter(), restored.getAltimeter());
+        assertEquals(full.getSeaLevelPressure(), restored.getSeaLevelPressure());
+        assertEquals(full.getWindDirection(), restored.getWindDirection());
+        assertEquals(full.getWindSpeed(), restored.getWindSpeed());
+        assertEquals(full.getWindGust(), restored.getWindGust());
+        assertEquals(full.getVisibility(), restored.getVisibility());
+        assertEquals(full.getPrecipitation(), restored.getPrecipitation());
+        assertEquals(full.getSkyLayers(), restored.getSkyLayers());
+        assertEquals(full.getFlightCategory(), restored.getFlightCategory());
+        assertEquals(1, target.findLatest(BoundingBox.fromDegrees(41.0, -88.5, 42.5, -87.0)).size());
+        final List<ObservationRecord> recent = target.findRecent("K7");
+        assertEquals(4, recent.size());
+        assertEquals(7L, recent.get(0).getObservedAt());
+        assertNull(recent.get(0).getFlightCategory());
+        assertEquals(1507L, recent.get(3).getObservedAt());
+
+        /* Nothing has changed since the restore, so a checkpoint writes nothing. */
+        assertTrue(file.delete());
+        loader.checkpoint();
+        assertFalse(file.exists());
+        target.put(TestObservationStoreImpl.record("KMDW", 1L, ReportType.METAR, (short) 1));
+        loader.checkpoint();
+        assertTrue(file.exists());
+    }
+
+    /**
+     * Test that a corrupt snapshot is rejected rather than partially loaded, and that a node whose snapshot is corrupt
+     * starts empty.
+     */
+    @Test
+    public void testCorrupt() throws IOException
+    {
+        final File file = new File(m_folder.getRoot(), "store.snapshot");
+        final ObservationStoreImpl source = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        source.put(TestObservationStoreImpl.record("KORD", 1L, ReportType.METAR, (short) 1));
+        new ObservationSnapshotterImpl(source, file).save(file);
+        try (final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"))
+        {
+            randomAccessFile.seek(randomAccessFile.length() - 40L);
+            randomAccessFile.write(0x7f);
+        }
+        final ObservationStoreImpl target = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        final ObservationSnapshotterImpl loader = new ObservationSnapshotterImpl(target, file);
+
+        /* Run the test and verify expectations. */
+        try
+        {
+            loader.load(file);
+            fail("Load of corrupt snapshot did not throw.");
+        }
+        catch (final SnapshotException e)
+        {
+            /* Good. */
+        }
+        loader.restore();
+        assertNull(target.findLatest("KORD"));
+    }
+}
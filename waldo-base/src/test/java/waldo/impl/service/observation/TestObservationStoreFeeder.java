@@ -0,0 +1,81 @@
+package waldo.impl.service.observation;
+
+import org.junit.Test;
+import waldo.entity.ReportType;
+import waldo.service.journal.ObservationJournal;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationSeries;
+import waldo.service.station.StationMetadata;
+import waldo.service.station.StationReference;
+import waldo.utility.geo.BoundingBox;
+
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestObservationStoreFeeder} provides unit test coverage for {@link ObservationStoreFeeder}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestObservationStoreFeeder
+{
+    /**
+     * Construct a {@link TestObservationStoreFeeder} instance.
+     */
+    public TestObservationStoreFeeder()
+    {
+        super();
+    }
+
+    /**
+     * Test that the stations held by the store are located at the position given by the reference data when its
+     * version changes, and not again until it changes once more.
+     */
+    @Test
+    public void testFeedLocate() throws Exception
+    {
+        final ObservationStoreImpl store = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        store.put(TestObservationStoreImpl.record("KORD", 1000L, ReportType.METAR, (short) 1));
+        store.put(TestObservationStoreImpl.record("KMDW", 1000L, ReportType.METAR, (short) 2));
+        store.locate("KORD", 41980000, -87900000);
+        final ObservationJournal journal = createMock(ObservationJournal.class);
+        expect(journal.consume(eq(ObservationStoreFeeder.CONSUMER), anyObject(ObservationHandler.class), eq(4096)))
+                .andReturn(0).times(3);
+        final ObservationSeries series = createMock(ObservationSeries.class);
+        final StationReference reference = createMock(StationReference.class);
+        expect(reference.getVersion()).andReturn(1L).times(2);
+        expect(reference.find("KORD")).andReturn(new StationMetadata.Builder().setStation("KORD").setLatitude(
+                41978611).setLongitude(-87904722).toMetadata()).times(2);
+        expect(reference.find("KMDW")).andReturn(null).times(2);
+        expect(reference.getVersion()).andReturn(2L);
+        replay(journal, series, reference);
+        final ObservationStoreFeeder feeder = new ObservationStoreFeeder(journal, store, series, reference);
+
+        /* Run the test and verify expectations. */
+        assertEquals(0, feeder.feed());
+        final List<ObservationRecord> found = store.findLatest(BoundingBox.fromDegrees(41.97, -87.91, 41.979,
+                -87.904));
+        assertEquals(1, found.size());
+        assertEquals("KORD", found.get(0).getStation());
+        assertTrue(store.findLatest(BoundingBox.fromDegrees(41.979, -87.904, 42.0, -87.8)).isEmpty());
+        store.locate("KORD", 41980000, -87900000);
+        assertEquals(0, feeder.feed());
+        assertTrue(store.findLatest(BoundingBox.fromDegrees(41.97, -87.91, 41.979, -87.904)).isEmpty());
+        assertEquals(0, feeder.feed());
+        assertEquals(1, store.findLatest(BoundingBox.fromDegrees(41.97, -87.91, 41.979, -87.904)).size());
+        verify(journal, series, reference);
+        store.close();
+    }
+}
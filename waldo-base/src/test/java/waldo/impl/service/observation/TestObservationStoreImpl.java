@@ -0,0 +1,236 @@
+package waldo.impl.service.observation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import waldo.entity.ReportType;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationStore;
+import waldo.utility.geo.BoundingBox;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestObservationStoreImpl} provides unit test coverage for {@link ObservationStoreImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestObservationStoreImpl
+{
+    @Rule
+    public final TemporaryFolder m_folder = new TemporaryFolder();
+
+    /**
+     * Construct a {@link TestObservationStoreImpl} instance.
+     */
+    public TestObservationStoreImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that records are held in order of observation time, that a record supersedes one of the same time and type,
+     * and that records older than the retention period before the latest are dropped.
+     */
+    @Test
+    public void testPut()
+    {
+        final ObservationStoreImpl store = new ObservationStoreImpl(100L, "", 64);
+        assertNull(store.findLatest("KORD"));
+        assertTrue(store.findRecent("KORD").isEmpty());
+
+        /* Run the test and verify expectations. */
+        store.put(record("KORD", 50L, ReportType.METAR, (short) 1));
+        store.put(record("KORD", 10L, ReportType.METAR, (short) 2));
+        store.put(record("KORD", 50L, ReportType.SPECI, (short) 3));
+        store.put(record("KORD", 50L, ReportType.METAR, (short) 4));
+        List<ObservationRecord> recent = store.findRecent("KORD");
+        assertEquals(3, recent.size());
+        assertEquals(10L, recent.get(0).getObservedAt());
+        assertEquals(4, recent.get(1).getTemperature());
+        assertEquals(ReportType.SPECI, recent.get(2).getReportType());
+        assertEquals(3, store.findLatest("KORD").getTemperature());
+
+        store.put(record("KORD", 120L, ReportType.METAR, (short) 5));
+        recent = store.findRecent("KORD");
+        assertEquals(3, recent.size());
+        assertEquals(50L, recent.get(0).getObservedAt());
+        assertEquals(5, store.findLatest("KORD").getTemperature());
+    }
+
+    /**
+     * Test that region queries return the latest record of each located station within the region, including after a
+     * station moves.
+     */
+    @Test
+    public void testFindLatestInRegion()
+    {
+        final ObservationStoreImpl store = new ObservationStoreImpl(1000L, "", 64);
+        store.locate("KORD", BoundingBox.toUnits(41.978603), BoundingBox.toUnits(-87.904842));
+        store.locate("KMDW", BoundingBox.toUnits(41.785972), BoundingBox.toUnits(-87.752417));
+        store.locate("KLAX", BoundingBox.toUnits(33.942536), BoundingBox.toUnits(-118.408075));
+        store.put(record("KORD", 1L, ReportType.METAR, (short) 1));
+        store.put(record("KORD", 2L, ReportType.METAR, (short) 2));
+        store.put(record("KMDW", 1L, ReportType.METAR, (short) 3));
+        store.put(record("KLAX", 1L, ReportType.METAR, (short) 4));
+        store.put(record("KSFO", 1L, ReportType.METAR, (short) 5));
+
+        /* Run the test and verify expectations. */
+        final BoundingBox chicago = BoundingBox.fromDegrees(41.0, -88.5, 42.5, -87.0);
+        List<ObservationRecord> found = store.findLatest(chicago);
+        assertEquals(2, found.size());
+        for (final ObservationRecord record : found)
+        {
+            assertEquals("KORD".equals(record.getStation()) ? 2 : 3, record.getTemperature());
+        }
+        store.locate("KMDW", BoundingBox.toUnits(-45.0), BoundingBox.toUnits(170.0));
+        found = store.findLatest(chicago);
+        assertEquals(1, found.size());
+        assertEquals("KORD", found.get(0).getStation());
+        assertEquals(1, store.findLatest(BoundingBox.fromDegrees(-46.0, 169.0, -44.0, 171.0)).size());
+    }
+
+    /**
+     * Test that the modification count changes only when the content of the store changes.
+     */
+    @Test
+    public void testModificationCount()
+    {
+        final ObservationStoreImpl store = new ObservationStoreImpl(1000L, "", 64);
+        final long initial = store.getModificationCount();
+
+        /* Run the test and verify expectations. */
+        store.locate("KORD", 1, 2);
+        final long located = store.getModificationCount();
+        assertTrue(located != initial);
+        store.locate("KORD", 1, 2);
+        assertEquals(located, store.getModificationCount());
+        store.put(record("KORD", 1L, ReportType.METAR, (short) 1));
+        assertTrue(located != store.getModificationCount());
+    }
+
+    /**
+     * Test that the stations modified since a modification count are found, including across a replacement of the
+     * store's content.
+     */
+    @Test
+    public void testFindModifiedSince()
+    {
+        final ObservationStoreImpl store = new ObservationStoreImpl(1000L, "", 64);
+        store.put(record("KORD", 1L, ReportType.METAR, (short) 1));
+        store.put(record("KLAX", 1L, ReportType.METAR, (short) 2));
+        final long first = store.getModificationCount();
+
+        /* Run the test and verify expectations. */
+        assertEquals(2, store.findModifiedSince(0L).size());
+        assertTrue(store.findModifiedSince(first).isEmpty());
+        store.locate("KMDW", 1, 2);
+        assertEquals(Collections.singleton("KMDW"), store.findModifiedSince(first));
+        final long second = store.getModificationCount();
+        store.replace(new ObservationStore.Loader()
+        {
+            @Override
+            public void load(final ObservationStore target)
+            {
+                target.put(record("KSFO", 1L, ReportType.METAR, (short) 3));
+            }
+        });
+        assertTrue(store.getModificationCount() > second);
+        assertEquals(Collections.singleton("KSFO"), store.findModifiedSince(second));
+    }
+
+    /**
+     * Test that retaining discards the rejected stations from both station and region queries.
+     */
+    @Test
+    public void testRetain()
+    {
+        final ObservationStoreImpl store = new ObservationStoreImpl(1000L, "", 64);
+        store.locate("KORD", BoundingBox.toUnits(41.978603), BoundingBox.toUnits(-87.904842));
+        store.locate("KMDW", BoundingBox.toUnits(41.785972), BoundingBox.toUnits(-87.752417));
+        store.put(record("KORD", 1L, ReportType.METAR, (short) 1));
+        store.put(record("KMDW", 1L, ReportType.METAR, (short) 2));
+        final long modificationCount = store.getModificationCount();
+
+        /* Run the test and verify expectations. */
+        assertEquals(0, store.retain(ObservationStore.StationFilter.ALL));
+        assertEquals(modificationCount, store.getModificationCount());
+        assertEquals(1, store.retain(new ObservationStore.StationFilter()
+        {
+            @Override
+            public boolean accept(final String station)
+            {
+                return "KORD".equals(station);
+            }
+        }));
+        assertTrue(modificationCount != store.getModificationCount());
+        assertNull(store.findLatest("KMDW"));
+        final List<ObservationRecord> found = store.findLatest(BoundingBox.fromDegrees(41.0, -88.5, 42.5, -87.0));
+        assertEquals(1, found.size());
+        assertEquals("KORD", found.get(0).getStation());
+    }
+
+    /**
+     * Test that a store reopens the content of its ring file, including content which replaced the previous content.
+     */
+    @Test
+    public void testRecover()
+    {
+        final String file = new File(m_folder.getRoot(), "observations.rings").getPath();
+        ObservationStoreImpl store = new ObservationStoreImpl(1000L, file, 64);
+        store.put(record("KLAX", 1L, ReportType.METAR, (short) 1));
+        store.replace(new ObservationStore.Loader()
+        {
+            @Override
+            public void load(final ObservationStore target)
+            {
+                target.locate("KORD", BoundingBox.toUnits(41.978603), BoundingBox.toUnits(-87.904842));
+                target.put(record("KORD", 1L, ReportType.METAR, (short) 2));
+                target.put(record("KMDW", 1L, ReportType.METAR, (short) 3));
+            }
+        });
+        store.put(record("KORD", 2L, ReportType.SPECI, (short) 4));
+        store.close();
+
+        /* Run the test and verify expectations. */
+        store = new ObservationStoreImpl(1000L, file, 64);
+        assertTrue(0L != store.getModificationCount());
+        assertNull(store.findLatest("KLAX"));
+        assertEquals(2, store.findRecent("KORD").size());
+        assertEquals(3, store.findLatest("KMDW").getTemperature());
+        final List<ObservationRecord> found = store.findLatest(BoundingBox.fromDegrees(41.0, -88.5, 42.5, -87.0));
+        assertEquals(1, found.size());
+        assertEquals(4, found.get(0).getTemperature());
+        assertFalse(new File(file + ".staging").exists());
+        store.close();
+    }
+
+    /**
+     * Create a record.
+     *
+     * @param station the station identifier.
+     * @param observedAt the observation time.
+     * @param reportType the report type.
+     * @param temperature the temperature, used to tell records apart.
+     * @return {@link ObservationRecord} instance.
+     */
+    static ObservationRecord record(final String station, final long observedAt, final ReportType reportType,
+                                    final short temperature)
+    {
+        return new ObservationRecord.Builder().setStation(station).setObservedAt(observedAt)
+                .setReportType(reportType).setTemperature(temperature).toRecord();
+    }
+}
@@ -0,0 +1,100 @@
+package waldo.impl.service.observation;
+
+import org.easymock.Capture;
+import org.junit.Test;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcOperations;
+import waldo.entity.FlightCategory;
+import waldo.entity.ReportType;
+import waldo.service.observation.ObservationRecord;
+import waldo.utility.database.IdAllocator;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestObservationWriterImpl} provides unit test coverage for {@link ObservationWriterImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestObservationWriterImpl
+{
+    /**
+     * Construct a {@link TestObservationWriterImpl} instance.
+     */
+    public TestObservationWriterImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that stored observations are updated, others inserted with allocated identifiers, and that observations
+     * written before with the same elements are not sent to the database again.
+     */
+    @Test
+    public void testWrite() throws SQLException
+    {
+        final ObservationRecord stored = record("KORD", (short) 150);
+        final ObservationRecord added = record("KMDW", (short) 160);
+        final JdbcOperations jdbcOperations = createStrictMock(JdbcOperations.class);
+        final IdAllocator idAllocator = createStrictMock(IdAllocator.class);
+        final Capture<BatchPreparedStatementSetter> insert = new Capture<>();
+        expect(jdbcOperations.batchUpdate(startsWith("UPDATE"), anyObject(BatchPreparedStatementSetter.class)))
+                .andReturn(new int[]{1, 0});
+        expect(idAllocator.allocate(1)).andReturn(new long[]{7L});
+        expect(jdbcOperations.batchUpdate(startsWith("INSERT"), capture(insert))).andReturn(new int[]{1});
+        expect(jdbcOperations.batchUpdate(startsWith("UPDATE"), anyObject(BatchPreparedStatementSetter.class)))
+                .andReturn(new int[]{1});
+        replay(jdbcOperations, idAllocator);
+
+        /* Run the test and verify expectations. */
+        final ObservationWriterImpl writer = new ObservationWriterImpl(jdbcOperations, idAllocator);
+        assertEquals(2, writer.write(Arrays.asList(stored, added)));
+        assertEquals(0, writer.write(Arrays.asList(stored, added)));
+        assertEquals(1, writer.write(Collections.singletonList(record("KORD", (short) 155))));
+        verify(jdbcOperations, idAllocator);
+
+        /* The insert binds the elements, digest and key, then the identifier and key again. */
+        final PreparedStatement statement = createMock(PreparedStatement.class);
+        statement.setLong(1, 0L);
+        statement.setShort(2, (short) 160);
+        statement.setNull(and(geq(3), leq(10)), eq(Types.SMALLINT));
+        expectLastCall().times(8);
+        statement.setShort(11, FlightCategory.VFR.getCode());
+        statement.setString(eq(12), matches("[0-9a-f]{40}"));
+        statement.setString(13, "KMDW");
+        statement.setTimestamp(14, new Timestamp(3600000L));
+        statement.setShort(15, ReportType.METAR.getCode());
+        statement.setLong(16, 7L);
+        statement.setString(17, "KMDW");
+        statement.setTimestamp(18, new Timestamp(3600000L));
+        statement.setShort(19, ReportType.METAR.getCode());
+        replay(statement);
+        assertEquals(1, insert.getValue().getBatchSize());
+        insert.getValue().setValues(statement, 0);
+        verify(statement);
+    }
+
+    private static ObservationRecord record(final String station, final short temperature)
+    {
+        return new ObservationRecord.Builder().setStation(station).setObservedAt(3600000L)
+                .setReportType(ReportType.METAR).setTemperature(temperature).setFlightCategory(FlightCategory.VFR)
+                .toRecord();
+    }
+}
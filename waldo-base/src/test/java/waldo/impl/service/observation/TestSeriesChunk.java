@@ -0,0 +1,124 @@
+package waldo.impl.service.observation;
+
+import org.junit.Test;
+import waldo.service.observation.ObservationRecord;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestSeriesChunk} provides unit test coverage for {@link SeriesChunk}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestSeriesChunk
+{
+    /**
+     * Construct a {@link TestSeriesChunk} instance.
+     */
+    public TestSeriesChunk()
+    {
+        super();
+    }
+
+    /**
+     * Test that irregular times and values, including missing values and extremes, survive a round trip.
+     */
+    @Test
+    public void testRoundTrip()
+    {
+        final Random random = new Random(39L);
+        final int count = 200;
+        final long[] times = new long[count];
+        final short[][] values = new short[3][count];
+        times[0] = 1404172380000L;
+        for (int i = 1; i < count; i++)
+        {
+            times[i] = times[i - 1] + (0 == random.nextInt(5) ? random.nextInt(3600) * 1000L + 1L : 3600000L);
+        }
+        for (int i = 0; i < count; i++)
+        {
+            values[0][i] = (short) (200 + random.nextInt(21) - 10);
+            values[1][i] = 0 == random.nextInt(3) ? ObservationRecord.MISSING : (short) random.nextInt(40);
+            values[2][i] = 0 == i % 2 ? Short.MIN_VALUE : Short.MAX_VALUE;
+        }
+
+        /* Run the test and verify expectations. */
+        final SeriesChunk chunk = SeriesChunk.encode(times, values, count);
+        assertEquals(count, chunk.getCount());
+        assertEquals(times[0], chunk.getFirstTime());
+        assertEquals(times[count - 1], chunk.getLastTime());
+        final long[] decodedTimes = new long[count + 1];
+        chunk.decodeTimes(decodedTimes, 1);
+        for (int i = 0; i < count; i++)
+        {
+            assertEquals(times[i], decodedTimes[i + 1]);
+        }
+        for (int e = 0; e < values.length; e++)
+        {
+            final short[] decoded = new short[count];
+            chunk.decode(e, decoded, 0);
+            assertArrayEquals(values[e], decoded);
+        }
+    }
+
+    /**
+     * Test that hourly reports on whole minutes, with slowly varying and unreported elements, compress to a few bytes
+     * per observation.
+     */
+    @Test
+    public void testCompression()
+    {
+        final int count = ObservationSeriesImpl.CHUNK_RECORDS;
+        final long[] times = new long[count];
+        final short[][] values = new short[9][count];
+        for (int i = 0; i < count; i++)
+        {
+            times[i] = 1404172380000L + i * 3600000L + (0 == i % 24 ? 600000L : 0L);
+            values[0][i] = (short) (200 + (i % 24 < 12 ? i % 24 : 24 - i % 24) * 5);
+            values[1][i] = (short) (150 + i % 3);
+            values[2][i] = (short) (2992 - i % 4);
+            for (int e = 3; e < values.length; e++)
+            {
+                values[e][i] = ObservationRecord.MISSING;
+            }
+        }
+
+        /* Run the test and verify expectations. */
+        final SeriesChunk chunk = SeriesChunk.encode(times, values, count);
+        assertTrue(chunk.getEncodedBytes() < 8 * count);
+        final short[] decoded = new short[count];
+        chunk.decode(8, decoded, 0);
+        assertEquals(ObservationRecord.MISSING, decoded[count - 1]);
+        final long[] decodedTimes = new long[count];
+        chunk.decodeTimes(decodedTimes, 0);
+        assertArrayEquals(times, decodedTimes);
+    }
+
+    /**
+     * Test that a chunk of a single observation is encoded.
+     */
+    @Test
+    public void testSingle()
+    {
+        final SeriesChunk chunk = SeriesChunk.encode(new long[]{5L}, new short[][]{{-7}}, 1);
+
+        /* Run the test and verify expectations. */
+        final long[] times = new long[1];
+        chunk.decodeTimes(times, 0);
+        assertEquals(5L, times[0]);
+        final short[] values = new short[1];
+        chunk.decode(0, values, 0);
+        assertEquals(-7, values[0]);
+    }
+}
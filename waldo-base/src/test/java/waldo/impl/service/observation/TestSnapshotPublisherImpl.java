@@ -0,0 +1,205 @@
+package waldo.impl.service.observation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import waldo.entity.ReportType;
+import waldo.utility.cluster.ChangeNotice;
+import waldo.utility.cluster.ChangeNotifier;
+import waldo.utility.cluster.LeaderElection;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestSnapshotPublisherImpl} provides unit test coverage for {@link SnapshotPublisherImpl}, using a local
+ * directory as the distribution location.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestSnapshotPublisherImpl
+{
+    @Rule
+    public final TemporaryFolder m_folder = new TemporaryFolder();
+
+    /**
+     * Construct a {@link TestSnapshotPublisherImpl} instance.
+     */
+    public TestSnapshotPublisherImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that a snapshot is published only by the leader, only when the store has changed, and under a new version
+     * each time, with the pointer naming the latest.
+     */
+    @Test
+    public void testPublish() throws IOException
+    {
+        final File directory = m_folder.newFolder("distribution");
+        final String location = directory.getPath() + File.separator;
+        final ObservationStoreImpl store = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        store.put(TestObservationStoreImpl.record("KORD", 1L, ReportType.METAR, (short) 1));
+        store.put(TestObservationStoreImpl.record("KLAX", 1L, ReportType.METAR, (short) 1));
+        final Leadership leadership = new Leadership();
+        final Notifier notifier = new Notifier();
+        final SnapshotPublisherImpl publisher = new SnapshotPublisherImpl(store,
+                new ObservationSnapshotterImpl(store, new File(m_folder.getRoot(), "local.snapshot")), leadership,
+                notifier, newResourceLoader(), location);
+
+        /* Run the test and verify expectations. */
+        assertNull(publisher.publish());
+        leadership.m_leader = true;
+        final String first = publisher.publish();
+        assertNotNull(first);
+        assertTrue(new File(directory, first + SnapshotPublisherImpl.SNAPSHOT_SUFFIX).isFile());
+        assertEquals(first, readLatest(directory));
+        assertNull(publisher.publish());
+        assertEquals(1, notifier.m_published.size());
+        assertNull(notifier.m_published.get(0).getKeys());
+
+        store.put(TestObservationStoreImpl.record("KORD", 2L, ReportType.METAR, (short) 2));
+        final String second = publisher.publish();
+        assertTrue(second.compareTo(first) > 0);
+        assertTrue(new File(directory, first + SnapshotPublisherImpl.SNAPSHOT_SUFFIX).isFile());
+        assertEquals(second, readLatest(directory));
+        final ChangeNotice notice = notifier.m_published.get(1);
+        assertEquals(second, SnapshotPublisherImpl.formatVersion(notice.getSequence()));
+        assertEquals(first, SnapshotPublisherImpl.formatVersion(notice.getPrevious()));
+        assertEquals(Collections.singleton("KORD"), notice.getKeys());
+    }
+
+    /**
+     * Test that nothing is published when distribution is disabled.
+     */
+    @Test
+    public void testPublishDisabled()
+    {
+        final ObservationStoreImpl store = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        final Leadership leadership = new Leadership();
+        leadership.m_leader = true;
+        final SnapshotPublisherImpl publisher = new SnapshotPublisherImpl(store,
+                new ObservationSnapshotterImpl(store, new File(m_folder.getRoot(), "local.snapshot")), leadership,
+                new Notifier(), newResourceLoader(), " ");
+
+        /* Run the test and verify expectations. */
+        assertNull(publisher.publish());
+    }
+
+    /**
+     * Create a resource loader which resolves plain paths as writable files, standing in for the S3 resource loader.
+     *
+     * @return {@link ResourceLoader} instance.
+     */
+    static ResourceLoader newResourceLoader()
+    {
+        return new DefaultResourceLoader()
+        {
+            @Override
+            protected Resource getResourceByPath(final String path)
+            {
+                return new FileSystemResource(path);
+            }
+        };
+    }
+
+    /**
+     * Read the version named by the pointer object.
+     *
+     * @param directory the distribution directory.
+     * @return {@link String} version.
+     * @throws IOException if the pointer could not be read.
+     */
+    private static String readLatest(final File directory) throws IOException
+    {
+        return new String(Files.readAllBytes(new File(directory, SnapshotPublisherImpl.LATEST).toPath()),
+                SnapshotPublisherImpl.UTF_8);
+    }
+
+    /**
+     * {@link Leadership} is a {@link LeaderElection} whose outcome is set by the test.
+     */
+    static final class Leadership implements LeaderElection
+    {
+        boolean m_leader;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isLeader()
+        {
+            return m_leader;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void resign()
+        {
+            m_leader = false;
+        }
+    }
+
+    /**
+     * {@link Notifier} is a {@link ChangeNotifier} which records published notices and delivers them at once to the
+     * listeners subscribed to it.
+     */
+    static final class Notifier implements ChangeNotifier
+    {
+        final List<ChangeNotifier.Listener> m_listeners = new ArrayList<>();
+        final List<ChangeNotice> m_published = new ArrayList<>();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void publish(final ChangeNotice notice)
+        {
+            m_published.add(notice);
+            for (final ChangeNotifier.Listener listener : m_listeners)
+            {
+                listener.changed(notice);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void subscribe(final String topic, final ChangeNotifier.Listener listener)
+        {
+            m_listeners.add(listener);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int poll()
+        {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package waldo.impl.service.observation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.task.SyncTaskExecutor;
+import waldo.entity.ReportType;
+import waldo.service.observation.ObservationStore;
+import waldo.service.observation.SnapshotException;
+import waldo.service.shard.StationSharding;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestSnapshotSubscriberImpl} provides unit test coverage for {@link SnapshotSubscriberImpl}, using a local
+ * directory as the distribution location in place of an S3 bucket.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestSnapshotSubscriberImpl
+{
+    @Rule
+    public final TemporaryFolder m_folder = new TemporaryFolder();
+
+    /**
+     * Construct a {@link TestSnapshotSubscriberImpl} instance.
+     */
+    public TestSnapshotSubscriberImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that each newly published version replaces the content of the subscribing store, and that an unchanged
+     * version is not loaded again.
+     */
+    @Test
+    public void testRefresh() throws IOException
+    {
+        final File directory = m_folder.newFolder("distribution");
+        final String location = directory.getPath() + File.separator;
+        final ObservationStoreImpl source = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        final TestSnapshotPublisherImpl.Leadership leadership = new TestSnapshotPublisherImpl.Leadership();
+        leadership.m_leader = true;
+        final SnapshotPublisherImpl publisher = new SnapshotPublisherImpl(source,
+                new ObservationSnapshotterImpl(source, new File(m_folder.getRoot(), "source.snapshot")), leadership,
+                new TestSnapshotPublisherImpl.Notifier(), TestSnapshotPublisherImpl.newResourceLoader(), location);
+        final ObservationStoreImpl target = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        target.put(TestObservationStoreImpl.record("KLAX", 1L, ReportType.METAR, (short) 9));
+        final SnapshotSubscriberImpl subscriber = new SnapshotSubscriberImpl(target,
+                new ObservationSnapshotterImpl(target, new File(m_folder.getRoot(), "target.snapshot")),
+                new Sharding(), new TestSnapshotPublisherImpl.Notifier(), new SyncTaskExecutor(),
+                TestSnapshotPublisherImpl.newResourceLoader(), location);
+
+        /* Run the test and verify expectations. */
+        assertNull(subscriber.refresh());
+        source.put(TestObservationStoreImpl.record("KORD", 1L, ReportType.METAR, (short) 1));
+        final String first = publisher.publish();
+        assertEquals(first, subscriber.refresh());
+        assertEquals(1, target.findLatest("KORD").getTemperature());
+        assertNull(target.findLatest("KLAX"));
+        assertNull(subscriber.refresh());
+
+        source.put(TestObservationStoreImpl.record("KORD", 2L, ReportType.METAR, (short) 2));
+        final String second = publisher.publish();
+        assertEquals(second, subscriber.refresh());
+        assertEquals(2, target.findRecent("KORD").size());
+    }
+
+    /**
+     * Test that an announced publication is loaded at once, reloading only the changed stations when it follows on from
+     * the version loaded.
+     */
+    @Test
+    public void testRefreshAnnounced() throws IOException
+    {
+        final File directory = m_folder.newFolder("distribution");
+        final String location = directory.getPath() + File.separator;
+        final ObservationStoreImpl source = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        final TestSnapshotPublisherImpl.Leadership leadership = new TestSnapshotPublisherImpl.Leadership();
+        leadership.m_leader = true;
+        final TestSnapshotPublisherImpl.Notifier notifier = new TestSnapshotPublisherImpl.Notifier();
+        final SnapshotPublisherImpl publisher = new SnapshotPublisherImpl(source,
+                new ObservationSnapshotterImpl(source, new File(m_folder.getRoot(), "source.snapshot")), leadership,
+                notifier, TestSnapshotPublisherImpl.newResourceLoader(), location);
+        final ObservationStoreImpl target = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        final SnapshotSubscriberImpl subscriber = new SnapshotSubscriberImpl(target,
+                new ObservationSnapshotterImpl(target, new File(m_folder.getRoot(), "target.snapshot")),
+                new Sharding(), notifier, new SyncTaskExecutor(), TestSnapshotPublisherImpl.newResourceLoader(),
+                location);
+        subscriber.subscribe();
+
+        /* Run the test and verify expectations. */
+        source.put(TestObservationStoreImpl.record("KLAX", 1L, ReportType.METAR, (short) 9));
+        source.put(TestObservationStoreImpl.record("KORD", 1L, ReportType.METAR, (short) 1));
+        publisher.publish();
+        assertEquals(1, target.findLatest("KORD").getTemperature());
+
+        /* A record held only by the subscriber survives an incremental reload, but not a full one. */
+        target.put(TestObservationStoreImpl.record("KLAX", 2L, ReportType.METAR, (short) 8));
+        source.put(TestObservationStoreImpl.record("KORD", 2L, ReportType.METAR, (short) 2));
+        publisher.publish();
+        assertEquals(2, target.findLatest("KORD").getTemperature());
+        assertEquals(8, target.findLatest("KLAX").getTemperature());
+        assertNull(subscriber.refresh());
+        subscriber.close();
+    }
+
+    /**
+     * Test that only the stations owned by this node are loaded, that a membership change moves stations without
+     * another download, and that the store is reported as loaded only while it holds the share owned under the current
+     * membership.
+     */
+    @Test
+    public void testRefreshRebalance() throws IOException
+    {
+        final File directory = m_folder.newFolder("distribution");
+        final String location = directory.getPath() + File.separator;
+        final ObservationStoreImpl source = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        final TestSnapshotPublisherImpl.Leadership leadership = new TestSnapshotPublisherImpl.Leadership();
+        leadership.m_leader = true;
+        final SnapshotPublisherImpl publisher = new SnapshotPublisherImpl(source,
+                new ObservationSnapshotterImpl(source, new File(m_folder.getRoot(), "source.snapshot")), leadership,
+                new TestSnapshotPublisherImpl.Notifier(), TestSnapshotPublisherImpl.newResourceLoader(), location);
+        source.put(TestObservationStoreImpl.record("KLAX", 1L, ReportType.METAR, (short) 9));
+        source.put(TestObservationStoreImpl.record("KORD", 1L, ReportType.METAR, (short) 1));
+        final String version = publisher.publish();
+        final ObservationStoreImpl target = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        final Sharding sharding = new Sharding();
+        sharding.m_filter = new Owned("KORD");
+        final SnapshotSubscriberImpl subscriber = new SnapshotSubscriberImpl(target,
+                new ObservationSnapshotterImpl(target, new File(m_folder.getRoot(), "target.snapshot")), sharding,
+                new TestSnapshotPublisherImpl.Notifier(), new SyncTaskExecutor(),
+                TestSnapshotPublisherImpl.newResourceLoader(), location);
+
+        /* Run the test and verify expectations. */
+        assertFalse(subscriber.isLoaded());
+        assertEquals(version, subscriber.refresh());
+        assertTrue(subscriber.isLoaded());
+        assertEquals(1, target.findLatest("KORD").getTemperature());
+        assertNull(target.findLatest("KLAX"));
+        Files.delete(new File(directory, version + SnapshotPublisherImpl.SNAPSHOT_SUFFIX).toPath());
+        sharding.m_filter = new Owned("KLAX");
+        assertFalse(subscriber.isLoaded());
+        assertNull(subscriber.refresh());
+        assertTrue(subscriber.isLoaded());
+        assertNull(target.findLatest("KORD"));
+        assertEquals(9, target.findLatest("KLAX").getTemperature());
+        subscriber.close();
+    }
+
+    /**
+     * Test that a corrupt snapshot is rejected, leaving the content of the store unchanged.
+     */
+    @Test
+    public void testRefreshCorrupt() throws IOException
+    {
+        final File directory = m_folder.newFolder("distribution");
+        final ObservationStoreImpl target = new ObservationStoreImpl(Long.MAX_VALUE, "", 64);
+        target.put(TestObservationStoreImpl.record("KLAX", 1L, ReportType.METAR, (short) 9));
+        final SnapshotSubscriberImpl subscriber = new SnapshotSubscriberImpl(target,
+                new ObservationSnapshotterImpl(target, new File(m_folder.getRoot(), "target.snapshot")),
+                new Sharding(), new TestSnapshotPublisherImpl.Notifier(), new SyncTaskExecutor(),
+                TestSnapshotPublisherImpl.newResourceLoader(), directory.getPath() + File.separator);
+        Files.write(new File(directory, SnapshotPublisherImpl.LATEST).toPath(), "1".getBytes("UTF-8"));
+        Files.write(new File(directory, "1" + SnapshotPublisherImpl.SNAPSHOT_SUFFIX).toPath(), new byte[64]);
+
+        /* Run the test and verify expectations. */
+        try
+        {
+            subscriber.refresh();
+            fail("Refresh from corrupt snapshot did not throw.");
+        }
+        catch (final SnapshotException e)
+        {
+            /* Good. */
+        }
+        assertEquals(9, target.findLatest("KLAX").getTemperature());
+    }
+
+    /**
+     * {@link Owned} accepts a single station.
+     */
+    private static final class Owned implements ObservationStore.StationFilter
+    {
+        private final String m_station;
+
+        /**
+         * Construct a {@link Owned} instance.
+         *
+         * @param station the station.
+         */
+        Owned(final String station)
+        {
+            super();
+            m_station = station;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean accept(final String station)
+        {
+            return m_station.equals(station);
+        }
+    }
+
+    /**
+     * {@link Sharding} is a {@link StationSharding} stub whose local filter is set by the test.
+     */
+    private static final class Sharding implements StationSharding
+    {
+        ObservationStore.StationFilter m_filter = ObservationStore.StationFilter.ALL;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getLocalNode()
+        {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Set<String> getLiveNodes()
+        {
+            return Collections.emptySet();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<String> getOwners(final String station)
+        {
+            return Collections.emptyList();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean isLocal(final String station)
+        {
+            return m_filter.accept(station);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ObservationStore.StationFilter getLocalFilter()
+        {
+            return m_filter;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean probe()
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package waldo.impl.service.shard;
+
+import org.junit.Test;
+import waldo.service.observation.ObservationStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestStationShardingImpl} provides unit test coverage for {@link StationShardingImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestStationShardingImpl
+{
+    private static final String NODES = "http://a:8080/waldo, http://b:8080/waldo, http://c:8080/waldo";
+
+    /**
+     * Construct a {@link TestStationShardingImpl} instance.
+     */
+    public TestStationShardingImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that every station is local when stations are not partitioned.
+     */
+    @Test
+    public void testDisabled()
+    {
+        final StationShardingImpl sharding = new Sharding("", "", new HashSet<String>());
+
+        /* Run the test and verify expectations. */
+        assertNull(sharding.getLocalNode());
+        assertTrue(sharding.isLocal("KORD"));
+        assertTrue(sharding.getOwners("KORD").isEmpty());
+        assertSame(ObservationStore.StationFilter.ALL, sharding.getLocalFilter());
+        assertFalse(sharding.probe());
+    }
+
+    /**
+     * Test that each station has the configured number of owners, and that when a node fails the stations it did not
+     * own keep their owners, while those it did own keep their surviving owner.
+     */
+    @Test
+    public void testProbe()
+    {
+        final Set<String> down = new HashSet<>();
+        final StationShardingImpl sharding = new Sharding(NODES, "http://a:8080/waldo", down);
+        final String[] stations = {"KORD", "KMDW", "KLAX", "KSFO", "KJFK", "KBOS", "KDEN", "KSEA", "KATL", "KDFW"};
+        final List<List<String>> before = owners(sharding, stations);
+
+        /* Run the test and verify expectations. */
+        assertEquals(3, sharding.getLiveNodes().size());
+        assertFalse(sharding.probe());
+        final ObservationStore.StationFilter filter = sharding.getLocalFilter();
+        down.add("http://c:8080/waldo");
+        assertTrue(sharding.probe());
+        assertEquals(2, sharding.getLiveNodes().size());
+        assertNotSame(filter, sharding.getLocalFilter());
+        final List<List<String>> after = owners(sharding, stations);
+        for (int i = 0; i < stations.length; i++)
+        {
+            assertEquals(2, before.get(i).size());
+            if (before.get(i).remove("http://c:8080/waldo"))
+            {
+                assertTrue(after.get(i).containsAll(before.get(i)));
+            }
+            else
+            {
+                assertEquals(before.get(i), after.get(i));
+            }
+            assertTrue(sharding.isLocal(stations[i]));
+            assertEquals(before.get(i).contains("http://a:8080/waldo"), filter.accept(stations[i]));
+        }
+        down.clear();
+        assertTrue(sharding.probe());
+        assertEquals(filter.accept("KORD"), sharding.isLocal("KORD"));
+        assertEquals(filter.accept("KLAX"), sharding.isLocal("KLAX"));
+    }
+
+    /**
+     * Test that a local node outside the configured nodes is rejected.
+     */
+    @Test
+    public void testUnknownLocalNode()
+    {
+        try
+        {
+            new Sharding(NODES, "http://d:8080/waldo", new HashSet<String>());
+            fail("Construction with unknown local node did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+
+    /**
+     * Get the owners of each of a number of stations.
+     *
+     * @param sharding the sharding.
+     * @param stations the stations.
+     * @return {@link List} of the owners of each station, in the same order as the stations.
+     */
+    private static List<List<String>> owners(final StationShardingImpl sharding, final String... stations)
+    {
+        final List<List<String>> result = new ArrayList<>(stations.length);
+        for (final String station : stations)
+        {
+            result.add(sharding.getOwners(station));
+        }
+        return result;
+    }
+
+    /**
+     * {@link Sharding} reports nodes as live unless they are in a set of nodes which are down, without any requests.
+     */
+    private static final class Sharding extends StationShardingImpl
+    {
+        private final Set<String> m_down;
+
+        /**
+         * Construct a {@link Sharding} instance.
+         *
+         * @param nodes the comma-delimited nodes.
+         * @param localNode the local node.
+         * @param down the nodes which are down.
+         */
+        Sharding(final String nodes, final String localNode, final Set<String> down)
+        {
+            super(null, nodes, localNode, 16, 2);
+            m_down = down;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean isAlive(final String node)
+        {
+            return !m_down.contains(node);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package waldo.impl.service.station;
+
+import org.junit.Test;
+import waldo.service.station.StationMetadata;
+import waldo.utility.station.StationDictionary;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestStationReferenceImpl} provides unit test coverage for {@link StationReferenceImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestStationReferenceImpl
+{
+    /**
+     * Construct a {@link TestStationReferenceImpl} instance.
+     */
+    public TestStationReferenceImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that metadata is found by identifier and dense identifier, and that the version advances only when the
+     * metadata changes.
+     */
+    @Test
+    public void testReplace()
+    {
+        final StationReferenceImpl reference = new StationReferenceImpl();
+        final StationMetadata ord = new StationMetadata.Builder().setStation("KORD").setLatitude(41980000)
+                .setLongitude(-87900000).setElevation(201).setName("CHICAGO/O'HARE").setState("IL").setCountry("US")
+                .toMetadata();
+        final StationMetadata mdw = new StationMetadata.Builder().setStation("KMDW").setLatitude(41790000)
+                .setLongitude(-87750000).toMetadata();
+
+        /* Run the test and verify expectations. */
+        assertEquals(0L, reference.getVersion());
+        assertFalse(reference.replace(Collections.<StationMetadata>emptyList()));
+        assertNull(reference.find("KORD"));
+        assertTrue(reference.replace(Arrays.asList(ord, mdw)));
+        assertEquals(1L, reference.getVersion());
+        assertSame(ord, reference.find("KORD"));
+        assertSame(mdw, reference.get(StationDictionary.getInstance().find("KMDW")));
+        assertNull(reference.find("KXYZ"));
+        final StationMetadata same = new StationMetadata.Builder().setStation("KMDW").setLatitude(41790000)
+                .setLongitude(-87750000).toMetadata();
+        assertFalse(reference.replace(Arrays.asList(same, ord)));
+        assertEquals(1L, reference.getVersion());
+        assertSame(mdw, reference.find("KMDW"));
+        final StationMetadata moved = new StationMetadata.Builder().setStation("KMDW").setLatitude(41790000)
+                .setLongitude(-87750000).setElevation(189).toMetadata();
+        assertTrue(reference.replace(Arrays.asList(ord, moved)));
+        assertEquals(2L, reference.getVersion());
+        assertEquals(189, reference.find("KMDW").getElevation());
+        assertTrue(reference.replace(Collections.singletonList(ord)));
+        assertNull(reference.find("KMDW"));
+    }
+}
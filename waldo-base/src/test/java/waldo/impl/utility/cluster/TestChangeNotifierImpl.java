@@ -0,0 +1,142 @@
+package waldo.impl.utility.cluster;
+
+import org.junit.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcOperations;
+import waldo.utility.cluster.ChangeNotice;
+import waldo.utility.cluster.ChangeNotifier;
+import waldo.utility.database.DedicatedConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestChangeNotifierImpl} provides unit test coverage for {@link ChangeNotifierImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestChangeNotifierImpl
+{
+    /**
+     * Construct a {@link TestChangeNotifierImpl} instance.
+     */
+    public TestChangeNotifierImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that notices are sent with {@code pg_notify} on the pooled connection.
+     */
+    @Test
+    public void testPublish()
+    {
+        final JdbcOperations jdbcOperations = createMock(JdbcOperations.class);
+        final ChangeNotice notice = new ChangeNotice("store", 2L, 1L, Collections.singleton("KORD"));
+        expect(jdbcOperations.queryForList("SELECT pg_notify(?, ?)", "waldo_changes", "store;2;1;KORD")).andReturn(
+                null);
+        replay(jdbcOperations);
+
+        /* Run the test and verify expectations. */
+        new ChangeNotifierImpl(createMock(DedicatedConnectionFactory.class), jdbcOperations, "waldo_changes").publish(
+                notice);
+        verify(jdbcOperations);
+    }
+
+    /**
+     * Test that the listening connection is opened on the first poll, that received notices reach only the listeners
+     * of their topic, and that a connection failure is followed by a new connection and a warning to listeners that
+     * notices may have been missed.
+     */
+    @Test
+    public void testPoll() throws SQLException
+    {
+        final DedicatedConnectionFactory connectionFactory = createMock(DedicatedConnectionFactory.class);
+        final Connection connection = createMock(Connection.class);
+        final Statement statement = createMock(Statement.class);
+        final ResultSet resultSet = createMock(ResultSet.class);
+        final PGConnection pgConnection = createMock(PGConnection.class);
+        final PGNotification notification = createMock(PGNotification.class);
+        final PGNotification other = createMock(PGNotification.class);
+        final PGNotification malformed = createMock(PGNotification.class);
+        expect(connectionFactory.openConnection()).andReturn(connection).times(2);
+        expect(connection.createStatement()).andReturn(statement).anyTimes();
+        expect(statement.execute("LISTEN waldo_changes")).andReturn(false).times(2);
+        expect(statement.executeQuery("SELECT 1")).andReturn(resultSet).andReturn(resultSet).andThrow(
+                new SQLException("Broken.")).andReturn(resultSet);
+        statement.close();
+        expectLastCall().anyTimes();
+        resultSet.close();
+        expectLastCall().anyTimes();
+        expect(connection.unwrap(PGConnection.class)).andReturn(pgConnection).anyTimes();
+        expect(pgConnection.getNotifications()).andReturn(new PGNotification[]{notification, other, malformed})
+                .andReturn(null).andReturn(new PGNotification[0]);
+        expect(notification.getParameter()).andReturn("store;2;1;KORD");
+        expect(other.getParameter()).andReturn("station;2;1;*");
+        expect(malformed.getParameter()).andReturn("store");
+        connection.close();
+        replay(connectionFactory, connection, statement, resultSet, pgConnection, notification, other, malformed);
+        final List<Object> received = new ArrayList<>();
+        final ChangeNotifierImpl notifier = new ChangeNotifierImpl(connectionFactory, createMock(JdbcOperations.class),
+                "waldo_changes");
+        notifier.subscribe("store", new ChangeNotifier.Listener()
+        {
+            @Override
+            public void changed(final ChangeNotice notice)
+            {
+                received.add(notice.getSequence());
+            }
+
+            @Override
+            public void missed()
+            {
+                received.add("missed");
+            }
+        });
+
+        /* Run the test and verify expectations. */
+        assertEquals(3, notifier.poll());
+        assertEquals(0, notifier.poll());
+        assertEquals(0, notifier.poll());
+        assertEquals(0, notifier.poll());
+        assertEquals(Arrays.<Object>asList("missed", 2L, "missed"), received);
+        verify(connectionFactory, connection, statement, resultSet, pgConnection, notification, other, malformed);
+    }
+
+    /**
+     * Test that a channel which is not a plain identifier is rejected.
+     */
+    @Test
+    public void testInvalidChannel()
+    {
+        try
+        {
+            new ChangeNotifierImpl(createMock(DedicatedConnectionFactory.class), createMock(JdbcOperations.class),
+                    "waldo; DROP TABLE OBSERVATION");
+            fail("Construction with invalid channel did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package waldo.impl.utility.cluster;
+
+import org.junit.Test;
+import waldo.utility.database.DedicatedConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestLeaderElectionImpl} provides unit test coverage for {@link LeaderElectionImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestLeaderElectionImpl
+{
+    private static final long KEY = 0x100000002L;
+
+    /**
+     * Construct a {@link TestLeaderElectionImpl} instance.
+     */
+    public TestLeaderElectionImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that a node which is refused the lock retries on the same connection, and once leader, verifies (rather than
+     * re-takes) the lock and releases it on resignation.
+     */
+    @Test
+    public void testElection() throws SQLException
+    {
+        final DedicatedConnectionFactory connectionFactory = createMock(DedicatedConnectionFactory.class);
+        final Connection connection = createMock(Connection.class);
+        final PreparedStatement lock = createMock(PreparedStatement.class);
+        final PreparedStatement verify = createMock(PreparedStatement.class);
+        final PreparedStatement unlock = createMock(PreparedStatement.class);
+        final ResultSet resultSet = createMock(ResultSet.class);
+        expect(connectionFactory.openConnection()).andReturn(connection).once();
+        expect(connection.prepareStatement(startsWith("SELECT pg_try_advisory_lock"))).andReturn(lock).times(2);
+        expect(connection.prepareStatement(startsWith("SELECT EXISTS"))).andReturn(verify).once();
+        expect(connection.prepareStatement(startsWith("SELECT pg_advisory_unlock"))).andReturn(unlock).once();
+        for (final PreparedStatement statement : new PreparedStatement[]{lock, verify, unlock})
+        {
+            statement.setQueryTimeout(anyInt());
+            expectLastCall().anyTimes();
+            expect(statement.executeQuery()).andReturn(resultSet).anyTimes();
+            statement.close();
+            expectLastCall().anyTimes();
+        }
+        lock.setLong(1, KEY);
+        expectLastCall().times(2);
+        verify.setLong(1, 1L);
+        verify.setLong(2, 2L);
+        unlock.setLong(1, KEY);
+        expect(resultSet.next()).andReturn(true).anyTimes();
+        expect(resultSet.getBoolean(1)).andReturn(false).andReturn(true).andReturn(true).andReturn(true);
+        resultSet.close();
+        expectLastCall().anyTimes();
+        connection.close();
+        replay(connectionFactory, connection, lock, verify, unlock, resultSet);
+
+        /* Run the test and verify expectations. */
+        final LeaderElectionImpl election = new LeaderElectionImpl(connectionFactory, KEY);
+        assertFalse(election.isLeader());
+        assertTrue(election.isLeader());
+        assertTrue(election.isLeader());
+        election.resign();
+        verify(connectionFactory, connection, lock, verify, unlock, resultSet);
+    }
+
+    /**
+     * Test that a connection failure relinquishes leadership and that a new connection is opened on the next check.
+     */
+    @Test
+    public void testConnectionFailure() throws SQLException
+    {
+        final DedicatedConnectionFactory connectionFactory = createMock(DedicatedConnectionFactory.class);
+        final Connection connection = createMock(Connection.class);
+        expect(connectionFactory.openConnection()).andReturn(connection).andThrow(new SQLException("Refused."));
+        expect(connection.prepareStatement(anyObject(String.class))).andThrow(new SQLException("Broken."));
+        connection.close();
+        replay(connectionFactory, connection);
+
+        /* Run the test and verify expectations. */
+        final LeaderElectionImpl election = new LeaderElectionImpl(connectionFactory, KEY);
+        assertFalse(election.isLeader());
+        assertFalse(election.isLeader());
+        election.resign();
+        verify(connectionFactory, connection);
+    }
+}
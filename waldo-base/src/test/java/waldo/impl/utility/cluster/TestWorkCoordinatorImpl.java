@@ -0,0 +1,170 @@
+package waldo.impl.utility.cluster;
+
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowMapper;
+import waldo.utility.cluster.ClusterMembership;
+import waldo.utility.cluster.RendezvousHash;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestWorkCoordinatorImpl} provides unit test coverage for {@link WorkCoordinatorImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestWorkCoordinatorImpl
+{
+    private static final Set<String> s_nodes = new HashSet<>(Arrays.asList("a", "b", "c"));
+
+    /**
+     * Construct a {@link TestWorkCoordinatorImpl} instance.
+     */
+    public TestWorkCoordinatorImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that an unclaimed unit is claimed by its owner, and offered to its owner by any other node.
+     */
+    @Test
+    public void testClaimUnclaimed()
+    {
+        final String owner = RendezvousHash.owner("key", s_nodes);
+        for (final String node : s_nodes)
+        {
+            final JdbcOperations jdbcOperations = createJdbcOperations(null);
+            expect(jdbcOperations.update(node.equals(owner) ? not(contains("ATTEMPTS")) : contains("ATTEMPTS"),
+                    eq("key"), eq(owner), eq(60000L))).andReturn(1);
+            replay(jdbcOperations);
+
+            /* Run the test and verify expectations. */
+            assertEquals(node.equals(owner), createInstance(jdbcOperations, node).claim("key"));
+            verify(jdbcOperations);
+        }
+    }
+
+    /**
+     * Test that a completed unit, or one whose claim has not expired, is not claimed again.
+     */
+    @Test
+    public void testClaimClaimed()
+    {
+        final String owner = RendezvousHash.owner("key", s_nodes);
+        for (final WorkCoordinatorImpl.Claim claim : Arrays.asList(new WorkCoordinatorImpl.Claim(owner, true, true,
+                false, true), new WorkCoordinatorImpl.Claim(owner, false, false, false, false)))
+        {
+            final JdbcOperations jdbcOperations = createJdbcOperations(claim);
+            replay(jdbcOperations);
+
+            /* Run the test and verify expectations. */
+            assertFalse(createInstance(jdbcOperations, owner).claim("key"));
+            verify(jdbcOperations);
+        }
+    }
+
+    /**
+     * Test that an expired claim is reassigned to the next-ranked node, and not back to its claimant.
+     */
+    @Test
+    public void testClaimExpired()
+    {
+        final String owner = RendezvousHash.rank("key", s_nodes).get(0);
+        final String next = RendezvousHash.rank("key", s_nodes).get(1);
+        final WorkCoordinatorImpl.Claim claim = new WorkCoordinatorImpl.Claim(owner, false, true, false, false);
+        for (final String node : s_nodes)
+        {
+            final JdbcOperations jdbcOperations = createJdbcOperations(claim);
+            if (node.equals(next))
+            {
+                expect(jdbcOperations.update(startsWith("UPDATE"), eq(node), eq(60000L), eq("key"))).andReturn(1);
+            }
+            replay(jdbcOperations);
+
+            /* Run the test and verify expectations. */
+            assertEquals(node.equals(next), createInstance(jdbcOperations, node).claim("key"));
+            verify(jdbcOperations);
+        }
+    }
+
+    /**
+     * Test that a unit offered to a node is claimed by that node alone while the offer stands, and by any node which
+     * asks for it once the offer has expired; and that an abandoned claim is likewise taken by any node.
+     */
+    @Test
+    public void testClaimOffered()
+    {
+        final WorkCoordinatorImpl.Claim offer = new WorkCoordinatorImpl.Claim("a", false, false, true, false);
+        for (final String node : s_nodes)
+        {
+            final JdbcOperations jdbcOperations = createJdbcOperations(offer);
+            if ("a".equals(node))
+            {
+                expect(jdbcOperations.update(startsWith("UPDATE"), eq(60000L), eq("key"))).andReturn(1);
+            }
+            replay(jdbcOperations);
+
+            /* Run the test and verify expectations. */
+            assertEquals("a".equals(node), createInstance(jdbcOperations, node).claim("key"));
+            verify(jdbcOperations);
+        }
+        for (final WorkCoordinatorImpl.Claim claim : Arrays.asList(new WorkCoordinatorImpl.Claim("a", false, true, true,
+                false), new WorkCoordinatorImpl.Claim("a", false, true, false, true)))
+        {
+            final JdbcOperations jdbcOperations = createJdbcOperations(claim);
+            expect(jdbcOperations.update(startsWith("UPDATE"), eq("c"), eq(60000L), eq("key"))).andReturn(1);
+            replay(jdbcOperations);
+            assertTrue(createInstance(jdbcOperations, "c").claim("key"));
+            verify(jdbcOperations);
+        }
+    }
+
+    /**
+     * Create a mock {@link JdbcOperations} which expects the claim lock and returns a given claim, or none.
+     *
+     * @param claim the existing claim, or {@code null} if none.
+     * @return {@link JdbcOperations} mock, not yet replayed.
+     */
+    @SuppressWarnings("unchecked")
+    private static JdbcOperations createJdbcOperations(final WorkCoordinatorImpl.Claim claim)
+    {
+        final JdbcOperations result = createStrictMock(JdbcOperations.class);
+        expect(result.queryForObject(contains("pg_advisory_xact_lock"), eq(Integer.class), anyInt(), eq("key")))
+                .andReturn(1);
+        expect(result.query(startsWith("SELECT"), anyObject(RowMapper.class), eq(60000L), eq("key"))).andReturn(
+                null == claim ? Collections.emptyList() : Collections.singletonList(claim));
+        return result;
+    }
+
+    /**
+     * Create an instance as seen from a given node.
+     *
+     * @param jdbcOperations the {@link JdbcOperations} mock.
+     * @param nodeId the node identifier.
+     * @return {@link WorkCoordinatorImpl} instance.
+     */
+    private static WorkCoordinatorImpl createInstance(final JdbcOperations jdbcOperations, final String nodeId)
+    {
+        final ClusterMembership membership = createMock(ClusterMembership.class);
+        expect(membership.getNodeId()).andReturn(nodeId).anyTimes();
+        expect(membership.getLiveNodes()).andReturn(s_nodes).anyTimes();
+        replay(membership);
+        return new WorkCoordinatorImpl(jdbcOperations, membership, 60000L, 86400000L);
+    }
+}
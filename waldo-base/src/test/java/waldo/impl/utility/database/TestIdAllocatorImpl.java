@@ -0,0 +1,108 @@
+package waldo.impl.utility.database;
+
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcOperations;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestIdAllocatorImpl} provides unit test coverage for {@link IdAllocatorImpl}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestIdAllocatorImpl
+{
+    /**
+     * Construct a {@link TestIdAllocatorImpl} instance.
+     */
+    public TestIdAllocatorImpl()
+    {
+        super();
+    }
+
+    /**
+     * Test that identifiers are handed out from reserved blocks, with one round trip per reservation.
+     */
+    @Test
+    public void testAllocate()
+    {
+        final JdbcOperations jdbcOperations = createStrictMock(JdbcOperations.class);
+        expect(jdbcOperations.queryForList(anyObject(String.class), eq(Long.class), eq(2))).andReturn(
+                Arrays.asList(5001L, 1L));
+        replay(jdbcOperations);
+
+        /* Run the test and verify expectations. */
+        final IdAllocatorImpl allocator = new IdAllocatorImpl(jdbcOperations, 1500);
+        assertEquals(1L, allocator.allocate());
+        final long[] batch = allocator.allocate(1000);
+        assertEquals(2L, batch[0]);
+        assertEquals(1000L, batch[998]);
+        assertEquals(5001L, batch[999]);
+        assertEquals(5002L, allocator.allocate());
+        verify(jdbcOperations);
+    }
+
+    /**
+     * Test that a batch larger than the configured block size is satisfied by a single, larger reservation.
+     */
+    @Test
+    public void testAllocateLargeBatch()
+    {
+        final JdbcOperations jdbcOperations = createStrictMock(JdbcOperations.class);
+        final List<Long> values = Arrays.asList(1L, 1001L, 2001L);
+        expect(jdbcOperations.queryForList(anyObject(String.class), eq(Long.class), eq(3))).andReturn(values);
+        replay(jdbcOperations);
+
+        /* Run the test and verify expectations. */
+        final IdAllocatorImpl allocator = new IdAllocatorImpl(jdbcOperations, 1000);
+        final long[] batch = allocator.allocate(2500);
+        for (int i = 0; i < batch.length; i++)
+        {
+            assertEquals(i + 1L, batch[i]);
+        }
+        assertEquals(0, allocator.allocate(0).length);
+        verify(jdbcOperations);
+    }
+
+    /**
+     * Test that invalid arguments are rejected.
+     */
+    @Test
+    public void testInvalidArguments()
+    {
+        final JdbcOperations jdbcOperations = createStrictMock(JdbcOperations.class);
+        replay(jdbcOperations);
+        try
+        {
+            new IdAllocatorImpl(jdbcOperations, 0);
+            fail("Construction with zero block size did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try
+        {
+            new IdAllocatorImpl(jdbcOperations, 1).allocate(-1);
+            fail("Invocation with negative count did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        verify(jdbcOperations);
+    }
+}
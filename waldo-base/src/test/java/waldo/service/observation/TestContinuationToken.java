@@ -0,0 +1,85 @@
+package waldo.service.observation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestContinuationToken} provides unit test coverage for {@link ContinuationToken}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestContinuationToken
+{
+    /**
+     * Construct a {@link TestContinuationToken} instance.
+     */
+    public TestContinuationToken()
+    {
+        super();
+    }
+
+    /**
+     * Test that a token survives an encode/decode round trip and that the encoding is URL-safe.
+     */
+    @Test
+    public void testRoundTrip()
+    {
+        final int query = ContinuationToken.fingerprint("KORD", 1000L, 2000L);
+        final ContinuationToken token = new ContinuationToken(query, "KORD", 1404172800000L, Long.MAX_VALUE - 1L);
+
+        /* Run the test and verify expectations. */
+        final String encoded = token.encode();
+        assertTrue(encoded, encoded.matches("[A-Za-z0-9_-]+"));
+        final ContinuationToken decoded = ContinuationToken.decode(encoded).checkQuery(query);
+        assertEquals("KORD", decoded.getStation());
+        assertEquals(1404172800000L, decoded.getObservedAt());
+        assertEquals(Long.MAX_VALUE - 1L, decoded.getId());
+        assertEquals(query, decoded.getQuery());
+    }
+
+    /**
+     * Test that malformed tokens, and tokens replayed against a different query, are rejected.
+     */
+    @Test
+    public void testInvalid()
+    {
+        try
+        {
+            ContinuationToken.decode("AAAA");
+            fail("Decode of truncated token did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try
+        {
+            ContinuationToken.decode("not a token!");
+            fail("Decode of malformed token did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        final String encoded = new ContinuationToken(ContinuationToken.fingerprint("KORD"), "KORD", 0L, 1L).encode();
+        try
+        {
+            ContinuationToken.decode(encoded).checkQuery(ContinuationToken.fingerprint("KMDW"));
+            fail("Token issued by a different query was accepted.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package waldo.utility.cluster;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestChangeNotice} provides unit test coverage for {@link ChangeNotice}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestChangeNotice
+{
+    /**
+     * Construct a {@link TestChangeNotice} instance.
+     */
+    public TestChangeNotice()
+    {
+        super();
+    }
+
+    /**
+     * Test that a notice survives encoding and decoding, with and without keys.
+     */
+    @Test
+    public void testEncode()
+    {
+        ChangeNotice notice = ChangeNotice.decode(new ChangeNotice("store", 2L, 1L, Arrays.asList("KORD", "KLAX"))
+                .encode());
+        assertEquals("store", notice.getTopic());
+        assertEquals(2L, notice.getSequence());
+        assertEquals(1L, notice.getPrevious());
+        assertEquals(2, notice.getKeys().size());
+        assertTrue(notice.affects("KORD"));
+        assertFalse(notice.affects("KMDW"));
+
+        /* Run the test and verify expectations. */
+        notice = ChangeNotice.decode(new ChangeNotice("store", 2L, 1L, Collections.<String>emptySet()).encode());
+        assertTrue(notice.getKeys().isEmpty());
+        notice = ChangeNotice.decode(new ChangeNotice("store", 2L, 1L, null).encode());
+        assertNull(notice.getKeys());
+        assertTrue(notice.affects("KMDW"));
+    }
+
+    /**
+     * Test that keys which do not fit in a notification payload are dropped.
+     */
+    @Test
+    public void testEncodeOverflow()
+    {
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+        {
+            keys.add(String.format("K%03d", i));
+        }
+        final String encoded = new ChangeNotice("store", 2L, 1L, keys).encode();
+
+        /* Run the test and verify expectations. */
+        assertTrue(encoded.length() <= ChangeNotice.MAX_PAYLOAD_BYTES);
+        assertNull(ChangeNotice.decode(encoded).getKeys());
+    }
+
+    /**
+     * Test that malformed notices are rejected.
+     */
+    @Test
+    public void testDecodeInvalid()
+    {
+        for (final String encoded : new String[]{"", "store;1;2", "store;x;1;*", "store;1;2;*;extra"})
+        {
+            try
+            {
+                ChangeNotice.decode(encoded);
+                fail(String.format("Decoding of [%s] did not throw.", encoded));
+            }
+            catch (final IllegalArgumentException e)
+            {
+                /* Good. */
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package waldo.utility.cluster;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestConsistentHashRing} provides unit test coverage for {@link ConsistentHashRing}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestConsistentHashRing
+{
+    private static final List<String> s_nodes = Arrays.asList("http://alpha:8080", "http://bravo:8080",
+            "http://charlie:8080", "http://delta:8080");
+
+    /**
+     * Construct a {@link TestConsistentHashRing} instance.
+     */
+    public TestConsistentHashRing()
+    {
+        super();
+    }
+
+    /**
+     * Test that keys are spread evenly over all nodes, and that each key has distinct owners.
+     */
+    @Test
+    public void testGetOwners()
+    {
+        final ConsistentHashRing ring = new ConsistentHashRing(s_nodes, 128);
+        final Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 8000; i++)
+        {
+            final List<String> owners = ring.getOwners("K" + i, 2);
+            assertEquals(2, owners.size());
+            assertEquals(2, new HashSet<>(owners).size());
+            final String owner = owners.get(0);
+            counts.put(owner, (counts.containsKey(owner) ? counts.get(owner) : 0) + 1);
+        }
+        assertEquals(4, counts.size());
+        for (final int count : counts.values())
+        {
+            assertTrue(String.valueOf(counts), count > 1500 && count < 2500);
+        }
+        assertEquals(4, ring.getOwners("KORD", 10).size());
+        assertTrue(new ConsistentHashRing(Collections.<String>emptyList(), 16).getOwners("KORD", 2).isEmpty());
+    }
+
+    /**
+     * Test that removing a node moves only the keys it owned, and that the rest keep their owners in order.
+     */
+    @Test
+    public void testNodeRemoved()
+    {
+        final ConsistentHashRing ring = new ConsistentHashRing(s_nodes, 128);
+        final ConsistentHashRing reduced = new ConsistentHashRing(s_nodes.subList(0, 3), 128);
+        for (int i = 0; i < 2000; i++)
+        {
+            final String key = "K" + i;
+            final List<String> before = ring.getOwners(key, 2);
+            final List<String> after = reduced.getOwners(key, 2);
+            final List<String> expected = new ArrayList<>(ring.getOwners(key, 3));
+            expected.remove("http://delta:8080");
+            assertEquals(expected.subList(0, 2), after);
+            if (!before.contains("http://delta:8080"))
+            {
+                assertEquals(before, after);
+            }
+        }
+    }
+
+    /**
+     * Test that an invalid virtual node count is rejected.
+     */
+    @Test
+    public void testInvalidArguments()
+    {
+        try
+        {
+            new ConsistentHashRing(s_nodes, 0);
+            fail("Construction with zero virtual nodes did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package waldo.utility.cluster;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestRendezvousHash} provides unit test coverage for {@link RendezvousHash}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestRendezvousHash
+{
+    private static final List<String> s_nodes = Arrays.asList("1@alpha", "2@bravo", "3@charlie", "4@delta");
+
+    /**
+     * Construct a {@link TestRendezvousHash} instance.
+     */
+    public TestRendezvousHash()
+    {
+        super();
+    }
+
+    /**
+     * Test that keys are spread over all nodes, and that the owner is the first-ranked node regardless of the order in
+     * which the nodes are given.
+     */
+    @Test
+    public void testOwner()
+    {
+        final Map<String, Integer> counts = new HashMap<>();
+        final List<String> reversed = new ArrayList<>(s_nodes);
+        Collections.reverse(reversed);
+        for (int i = 0; i < 4000; i++)
+        {
+            final String key = "metars.cache.csv.gz@" + i;
+            final String owner = RendezvousHash.owner(key, s_nodes);
+            assertEquals(owner, RendezvousHash.owner(key, reversed));
+            assertEquals(owner, RendezvousHash.rank(key, reversed).get(0));
+            counts.put(owner, (counts.containsKey(owner) ? counts.get(owner) : 0) + 1);
+        }
+        assertEquals(4, counts.size());
+        for (final int count : counts.values())
+        {
+            assertTrue(String.valueOf(counts), count > 800 && count < 1200);
+        }
+        assertNull(RendezvousHash.owner("key", Collections.<String>emptyList()));
+    }
+
+    /**
+     * Test that removing a node moves only the keys it owned, each to its next-ranked node.
+     */
+    @Test
+    public void testNodeRemoved()
+    {
+        final List<String> remaining = s_nodes.subList(0, 3);
+        for (int i = 0; i < 1000; i++)
+        {
+            final String key = "tafs.cache.csv.gz@" + i;
+            final List<String> ranking = RendezvousHash.rank(key, s_nodes);
+            final String owner = RendezvousHash.owner(key, remaining);
+            if ("4@delta".equals(ranking.get(0)))
+            {
+                assertEquals(ranking.get(1), owner);
+            }
+            else
+            {
+                assertEquals(ranking.get(0), owner);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package waldo.utility.collection;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestIntObjectMap} provides unit test coverage for {@link IntObjectMap}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestIntObjectMap
+{
+    /**
+     * Construct a {@link TestIntObjectMap} instance.
+     */
+    public TestIntObjectMap()
+    {
+        super();
+    }
+
+    /**
+     * Test that entries, including those with colliding and negative keys, survive growth and are all visited.
+     */
+    @Test
+    public void testPutAndGet()
+    {
+        final IntObjectMap<String> map = new IntObjectMap<>(1);
+        for (int i = -500; i < 500; i++)
+        {
+            assertNull(map.put(i * 1024, "v" + i));
+        }
+        assertEquals("v7", map.put(7 * 1024, "w7"));
+
+        /* Run the test and verify expectations. */
+        assertEquals(1000, map.size());
+        assertEquals("w7", map.get(7 * 1024));
+        assertEquals("v-500", map.get(-500 * 1024));
+        assertNull(map.get(1));
+        final Map<Integer, String> visited = new HashMap<>();
+        map.visit(new IntObjectMap.Visitor<String>()
+        {
+            @Override
+            public void visit(final int key, final String value)
+            {
+                assertNull(visited.put(key, value));
+            }
+        });
+        assertEquals(1000, visited.size());
+        assertEquals("v-1", visited.get(-1024));
+        try
+        {
+            map.put(1, null);
+            fail("Mapping a null value did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+}
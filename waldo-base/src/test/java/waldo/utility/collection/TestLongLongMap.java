@@ -0,0 +1,51 @@
+package waldo.utility.collection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestLongLongMap} provides unit test coverage for {@link LongLongMap}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestLongLongMap
+{
+    /**
+     * Construct a {@link TestLongLongMap} instance.
+     */
+    public TestLongLongMap()
+    {
+        super();
+    }
+
+    /**
+     * Test that entries, including zero and negative keys and values, survive growth and replacement.
+     */
+    @Test
+    public void testPutAndGet()
+    {
+        final LongLongMap map = new LongLongMap(1);
+        for (long i = -500L; i < 500L; i++)
+        {
+            map.put(i << 32, -i);
+        }
+        map.put(7L << 32, 70L);
+
+        /* Run the test and verify expectations. */
+        assertEquals(1000, map.size());
+        assertEquals(0L, map.get(0L, -1L));
+        assertEquals(70L, map.get(7L << 32, -1L));
+        assertEquals(500L, map.get(-500L << 32, -1L));
+        assertEquals(-1L, map.get(1L, -1L));
+    }
+}
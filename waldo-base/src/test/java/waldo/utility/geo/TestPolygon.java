@@ -0,0 +1,133 @@
+package waldo.utility.geo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestPolygon} provides unit test coverage for {@link Polygon}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestPolygon
+{
+    private static final int DEGREE = BoundingBox.UNITS_PER_DEGREE;
+
+    /**
+     * Construct a {@link TestPolygon} instance.
+     */
+    public TestPolygon()
+    {
+        super();
+    }
+
+    /**
+     * Test point containment for a concave (L-shaped) polygon, including points on its boundary.
+     */
+    @Test
+    public void testContains()
+    {
+        final Polygon polygon = lShape();
+
+        /* Run the test and verify expectations. */
+        assertEquals(6, polygon.getVertexCount());
+        assertEquals(new BoundingBox(40 * DEGREE, -90 * DEGREE, 44 * DEGREE, -86 * DEGREE), polygon.getBounds());
+        assertTrue(polygon.contains(41 * DEGREE, -89 * DEGREE));
+        assertTrue(polygon.contains(43 * DEGREE, -89 * DEGREE));
+        assertTrue(polygon.contains(41 * DEGREE, -87 * DEGREE));
+        assertFalse(polygon.contains(43 * DEGREE, -87 * DEGREE));
+        assertTrue(polygon.contains(40 * DEGREE, -88 * DEGREE));
+        assertTrue(polygon.contains(42 * DEGREE, -87 * DEGREE));
+        assertTrue(polygon.contains(44 * DEGREE, -90 * DEGREE));
+        assertFalse(polygon.contains(45 * DEGREE, -89 * DEGREE));
+    }
+
+    /**
+     * Test segment intersection, including segments which pass through the notch of the polygon without touching it.
+     */
+    @Test
+    public void testIntersects()
+    {
+        final Polygon polygon = lShape();
+
+        /* Run the test and verify expectations. */
+        assertTrue(polygon.intersects(41 * DEGREE, -89 * DEGREE, 41 * DEGREE + 1, -89 * DEGREE));
+        assertTrue(polygon.intersects(45 * DEGREE, -89 * DEGREE, 39 * DEGREE, -89 * DEGREE));
+        assertTrue(polygon.intersects(43 * DEGREE, -87 * DEGREE, 42 * DEGREE, -87 * DEGREE));
+        assertFalse(polygon.intersects(44 * DEGREE, -87 * DEGREE, 43 * DEGREE, -86 * DEGREE));
+        assertFalse(polygon.intersects(45 * DEGREE, -85 * DEGREE, 39 * DEGREE, -85 * DEGREE));
+    }
+
+    /**
+     * Test that boxes through which the boundary passes are distinguished from those wholly inside or outside.
+     */
+    @Test
+    public void testCrosses()
+    {
+        final Polygon polygon = lShape();
+
+        /* Run the test and verify expectations. */
+        assertTrue(polygon.crosses(BoundingBox.fromDegrees(39.5, -90.5, 40.5, -89.5)));
+        assertTrue(polygon.crosses(BoundingBox.fromDegrees(41.5, -87.5, 42.5, -86.5)));
+        assertFalse(polygon.crosses(BoundingBox.fromDegrees(40.5, -89.5, 41.5, -88.5)));
+        assertFalse(polygon.crosses(BoundingBox.fromDegrees(42.5, -87.5, 43.5, -86.5)));
+        assertFalse(polygon.crosses(BoundingBox.fromDegrees(50.0, -80.0, 51.0, -79.0)));
+    }
+
+    /**
+     * Test that invalid arguments are rejected.
+     */
+    @Test
+    public void testInvalidArguments()
+    {
+        try
+        {
+            new Polygon(new int[]{0, DEGREE, 0}, new int[]{0, 0});
+            fail("Construction with mismatched arrays did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try
+        {
+            new Polygon(new int[]{0, DEGREE, 0}, new int[]{0, DEGREE, 0});
+            fail("Construction with two distinct vertices did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try
+        {
+            new Polygon(new int[]{0, DEGREE, 0}, new int[]{-179 * DEGREE, -179 * DEGREE, 179 * DEGREE});
+            fail("Construction crossing the antimeridian did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+
+    /**
+     * Create an L-shaped polygon spanning 40N to 44N and 90W to 86W, with its north-east quarter cut away, given as a
+     * closed ring.
+     *
+     * @return {@link Polygon} instance.
+     */
+    private static Polygon lShape()
+    {
+        return new Polygon(new int[]{40 * DEGREE, 40 * DEGREE, 42 * DEGREE, 42 * DEGREE, 44 * DEGREE, 44 * DEGREE,
+                40 * DEGREE}, new int[]{-90 * DEGREE, -86 * DEGREE, -86 * DEGREE, -88 * DEGREE, -88 * DEGREE,
+                -90 * DEGREE, -90 * DEGREE});
+    }
+}
@@ -0,0 +1,129 @@
+package waldo.utility.station;
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestStationDictionary} provides unit test coverage for {@link StationDictionary}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestStationDictionary
+{
+    /**
+     * Construct a {@link TestStationDictionary} instance.
+     */
+    public TestStationDictionary()
+    {
+        super();
+    }
+
+    /**
+     * Test that identifiers are numbered densely in order of first appearance, that the same identifier is found from
+     * bytes, from a string and from its code, and that each has a single canonical instance.
+     */
+    @Test
+    public void testIntern()
+    {
+        final StationDictionary dictionary = new StationDictionary();
+        final byte[] bytes = "xxKORDxx".getBytes(Charset.forName("US-ASCII"));
+
+        /* Run the test and verify expectations. */
+        assertEquals(-1, dictionary.find("KORD"));
+        assertEquals(0, dictionary.intern(bytes, 2, 4));
+        assertEquals(1, dictionary.intern("K2"));
+        assertEquals(0, dictionary.intern(new String("KORD")));
+        assertEquals(0, dictionary.find("KORD"));
+        assertEquals(1, dictionary.internCode(StationDictionary.encode("K2")));
+        assertEquals(StationDictionary.encode(bytes, 2, 4), StationDictionary.encode("KORD"));
+        assertEquals(0x4b322020, StationDictionary.encode("K2"));
+        assertSame(dictionary.getIdentifier(0), dictionary.getIdentifier(dictionary.intern(bytes, 2, 4)));
+        assertEquals("K2", dictionary.getIdentifier(1));
+        assertEquals(2, dictionary.size());
+        assertEquals(-1, dictionary.find("KORDX"));
+        assertEquals(-1, dictionary.find(""));
+        assertEquals(-1, dictionary.find("K\u0132"));
+    }
+
+    /**
+     * Test that the table grows to hold many identifiers, all of which remain reachable.
+     */
+    @Test
+    public void testGrow()
+    {
+        final StationDictionary dictionary = new StationDictionary();
+        final int count = 40000;
+        for (int i = 0; i < count; i++)
+        {
+            assertEquals(i, dictionary.intern(identifier(i)));
+        }
+
+        /* Run the test and verify expectations. */
+        assertEquals(count, dictionary.size());
+        for (int i = 0; i < count; i++)
+        {
+            assertEquals(i, dictionary.find(identifier(i)));
+            assertEquals(identifier(i), dictionary.getIdentifier(i));
+        }
+    }
+
+    /**
+     * Test that invalid identifiers and codes are rejected.
+     */
+    @Test
+    public void testInvalidArguments()
+    {
+        final StationDictionary dictionary = new StationDictionary();
+        for (final String station : new String[]{"", "KORDX", "K RD", "K\u00e9"})
+        {
+            try
+            {
+                dictionary.intern(station);
+                fail(String.format("Interning [%s] did not throw.", station));
+            }
+            catch (final IllegalArgumentException e)
+            {
+                /* Good. */
+            }
+        }
+        for (final int code : new int[]{0, 0x20202020, 0x4b20524f})
+        {
+            try
+            {
+                dictionary.internCode(code);
+                fail(String.format("Interning code %08x did not throw.", code));
+            }
+            catch (final IllegalArgumentException e)
+            {
+                /* Good. */
+            }
+        }
+        try
+        {
+            dictionary.getIdentifier(0);
+            fail("Lookup of an unassigned identifier did not throw.");
+        }
+        catch (final IndexOutOfBoundsException e)
+        {
+            /* Good. */
+        }
+        assertEquals(0, dictionary.size());
+    }
+
+    private static String identifier(final int index)
+    {
+        return "K" + Integer.toString(index, 36).toUpperCase();
+    }
+}
@@ -0,0 +1,77 @@
+package waldo.utility.station;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TestStationTable} provides unit test coverage for {@link StationTable}.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+public class TestStationTable
+{
+    /**
+     * Construct a {@link TestStationTable} instance.
+     */
+    public TestStationTable()
+    {
+        super();
+    }
+
+    /**
+     * Test that values are held by identifier, that the table grows to hold large identifiers, and that only the
+     * value held is removed or replaced.
+     */
+    @Test
+    public void testPutAndRemove()
+    {
+        final StationTable<String> table = new StationTable<>();
+        assertNull(table.get(-1));
+        assertNull(table.get(5000));
+
+        /* Run the test and verify expectations. */
+        assertNull(table.putIfAbsent(3, "KORD"));
+        assertEquals("KORD", table.putIfAbsent(3, "KMDW"));
+        assertNull(table.putIfAbsent(5000, "EGLL"));
+        assertTrue(table.getLimit() > 5000);
+        assertEquals("KORD", table.get(3));
+        assertEquals("EGLL", table.get(5000));
+        assertEquals(2, table.size());
+        assertFalse(table.remove(3, "KMDW"));
+        assertTrue(table.remove(3, "KORD"));
+        assertNull(table.get(3));
+        assertEquals(1, table.size());
+        assertNull(table.put(3, "KMDW"));
+        assertEquals("KMDW", table.put(3, "KORD"));
+        assertEquals("KORD", table.get(3));
+        assertEquals(2, table.size());
+        try
+        {
+            table.putIfAbsent(-1, "KORD");
+            fail("Storing under a negative identifier did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+        try
+        {
+            table.put(3, null);
+            fail("Storing a null value did not throw.");
+        }
+        catch (final IllegalArgumentException e)
+        {
+            /* Good. */
+        }
+    }
+}
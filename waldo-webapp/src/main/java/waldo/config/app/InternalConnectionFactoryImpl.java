@@ -0,0 +1,102 @@
+package waldo.config.app;
+
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import waldo.utility.database.DedicatedConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * {@link InternalConnectionFactoryImpl} is the implementation of the {@link DedicatedConnectionFactory} interface for
+ * environments with an internally managed connection pool. It opens connections directly through the driver, with the
+ * same URL and credentials as the write pool.
+ * <p>
+ * TCP keepalive is enabled in both directions on each connection. The client side lets the driver notice a dead
+ * server. The server side matters more: the server ends a session, and releases its state such as advisory locks, only
+ * when its own keepalive probes go unanswered, and by default it inherits the operating system's settings (typically
+ * two hours of idle time before the first probe.) Each connection therefore sets the session's
+ * {@code tcp_keepalives_idle}, {@code tcp_keepalives_interval} and {@code tcp_keepalives_count} as soon as it is
+ * opened, so that the server ends the session of a partitioned client within {@code idle + interval * count} seconds.
+ * These settings have no effect on a Unix-domain socket connection.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+class InternalConnectionFactoryImpl implements DedicatedConnectionFactory
+{
+    private final SimpleDriverDataSource m_dataSource;
+    private final String[] m_keepaliveSql;
+
+    /**
+     * Construct a {@link InternalConnectionFactoryImpl} instance.
+     *
+     * @param driver the JDBC driver.
+     * @param url the database URL.
+     * @param userName the database user name.
+     * @param password the database password.
+     * @param keepaliveIdle the idle time, in seconds, before the server sends the first keepalive probe.
+     * @param keepaliveInterval the interval, in seconds, between server keepalive probes.
+     * @param keepaliveCount the number of unanswered probes after which the server ends the session.
+     */
+    InternalConnectionFactoryImpl(final Driver driver, final String url, final String userName, final String password,
+                                  final int keepaliveIdle, final int keepaliveInterval, final int keepaliveCount)
+    {
+        super();
+        m_keepaliveSql = new String[]{String.format("SET tcp_keepalives_idle = %d", keepaliveIdle),
+                String.format("SET tcp_keepalives_interval = %d", keepaliveInterval),
+                String.format("SET tcp_keepalives_count = %d", keepaliveCount)};
+        final Properties properties = new Properties();
+        properties.setProperty("tcpKeepAlive", "true");
+        m_dataSource = new SimpleDriverDataSource(driver, url, userName, password);
+        m_dataSource.setConnectionProperties(properties);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Connection openConnection() throws SQLException
+    {
+        final Connection result = m_dataSource.getConnection();
+        try
+        {
+            result.setAutoCommit(true);
+            try (final Statement statement = result.createStatement())
+            {
+                for (final String sql : m_keepaliveSql)
+                {
+                    statement.execute(sql);
+                }
+            }
+        }
+        catch (final SQLException e)
+        {
+            result.close();
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s[%s]", getClass().getSimpleName(), m_dataSource.getUrl());
+    }
+}
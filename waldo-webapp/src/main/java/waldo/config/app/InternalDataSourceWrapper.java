@@ -1,14 +1,15 @@
 package waldo.config.app;
 
 import org.springframework.beans.factory.DisposableBean;
+import waldo.utility.database.ConnectionPoolMonitor;
 
 import javax.sql.DataSource;
 
 /**
  * {@link InternalDataSourceWrapper} defines the public interface to an object which wraps an internally managed
  * {@link DataSource} with information on its underlying JDBC driver in an implementation of the {@link DisposableBean}
- * interface, so that the driver can be deregistered at shutdown time if it was loaded within the web application
- * class loader.
+ * interface, so that the connection pools behind it are shut down, and the driver can be deregistered, at shutdown time
+ * if it was loaded within the web application class loader.
  * <p>
  * Copyright 2014 Big Lake Systems, LLC.
  * <p>
@@ -29,4 +30,11 @@ interface InternalDataSourceWrapper extends DisposableBean
      * @return {@link DataSource} instance.
      */
     DataSource getDataSource();
+
+    /**
+     * Get the monitor which reports the utilization of the wrapped connection pools.
+     *
+     * @return {@link ConnectionPoolMonitor} instance.
+     */
+    ConnectionPoolMonitor getPoolMonitor();
 }
@@ -1,12 +1,15 @@
 package waldo.config.app;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import waldo.utility.database.ConnectionPoolMonitor;
 
 import javax.sql.DataSource;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.util.Enumeration;
+import java.util.List;
 
 /**
  * {@link InternalDataSourceWrapperImpl} ...
@@ -28,6 +31,8 @@ class InternalDataSourceWrapperImpl implements InternalDataSourceWrapper
 
     private final DataSource m_dataSource;
     private final Class<?> m_driverClass;
+    private final ConnectionPoolMonitor m_poolMonitor;
+    private final List<HikariDataSource> m_pools;
     private final boolean m_unregisterDriver;
 
     /**
@@ -35,14 +40,17 @@ class InternalDataSourceWrapperImpl implements InternalDataSourceWrapper
      *
      * @param driverClass the driver class.
      * @param dataSource the data source.
+     * @param pools the connection pools behind the data source, which are shut down at disposal time.
      * @param unregisterDriver flag indicating whether the driver should be unregistered at disposal time.
      */
     InternalDataSourceWrapperImpl(final Class<?> driverClass, final DataSource dataSource,
-                                  final boolean unregisterDriver)
+                                  final List<HikariDataSource> pools, final boolean unregisterDriver)
     {
         super();
         m_dataSource = dataSource;
         m_driverClass = driverClass;
+        m_poolMonitor = new InternalPoolMonitorImpl(pools);
+        m_pools = pools;
         m_unregisterDriver = unregisterDriver;
     }
 
@@ -52,6 +60,13 @@ class InternalDataSourceWrapperImpl implements InternalDataSourceWrapper
     @Override
     public void destroy() throws Exception
     {
+        /* Shut down the pools before the driver is deregistered, so their connections can be closed cleanly. */
+        for (final HikariDataSource nextPool : m_pools)
+        {
+            nextPool.close();
+            LOG.info("Shut down connection pool {}.", nextPool.getPoolName());
+        }
+
         /* Deregister the driver if it was loaded through the application class loader. */
         if (!m_unregisterDriver)
         {
@@ -81,4 +96,13 @@ class InternalDataSourceWrapperImpl implements InternalDataSourceWrapper
     {
         return m_dataSource;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ConnectionPoolMonitor getPoolMonitor()
+    {
+        return m_poolMonitor;
+    }
 }
@@ -7,10 +7,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
 import waldo.Constants;
+import waldo.utility.database.ConnectionPoolMonitor;
+import waldo.utility.database.DedicatedConnectionFactory;
 
 import javax.sql.DataSource;
 import java.sql.Driver;
+import java.util.Arrays;
 
 /**
  * {@link InternalPoolDatabaseConfig} handles portions of the database configuration which apply only to environments
@@ -38,6 +43,11 @@ class InternalPoolDatabaseConfig
 {
     private static final Logger LOG = LoggerFactory.getLogger(InternalPoolDatabaseConfig.class);
 
+    private static final String READ_POOL_NAME = "waldo-read";
+    private static final String READ_POOL_PREFIX = "waldo.database.internal_pool.read.";
+    private static final String WRITE_POOL_NAME = "waldo-write";
+    private static final String WRITE_POOL_PREFIX = "waldo.database.internal_pool.";
+
     /**
      * Construct an {@link InternalPoolDatabaseConfig} instance.
      */
@@ -47,11 +57,12 @@ class InternalPoolDatabaseConfig
     }
 
     /**
-     * Create the internal pooled {@link DataSource}.
+     * Create the internal pooled {@link DataSource}. Connections requested within read-only transactions are served
+     * by the read pool, and all others by the write pool; see {@link ReadOnlyRoutingDataSource}.
      *
      * @return {@link DataSource} instance.
      */
-    @Bean(destroyMethod = "close")
+    @Bean
     DataSource dataSource(final InternalDataSourceWrapper wrapper) throws Throwable
     {
         /* Create and return the data source. */
@@ -60,9 +71,51 @@ class InternalPoolDatabaseConfig
         return result;
     }
 
+    /**
+     * Create the monitor which reports the utilization of the internally managed connection pools.
+     *
+     * @param wrapper the {@link InternalDataSourceWrapper} component.
+     * @return {@link ConnectionPoolMonitor} instance.
+     */
+    @Bean
+    ConnectionPoolMonitor connectionPoolMonitor(final InternalDataSourceWrapper wrapper)
+    {
+        final ConnectionPoolMonitor result = wrapper.getPoolMonitor();
+        LOG.info("Returning connection pool monitor {}.", result);
+        return result;
+    }
+
+    /**
+     * Create the factory for dedicated (unpooled) connections, which connects with the same URL and credentials as the
+     * write pool, and with the server keepalive settings which bound how long the session of a dead node survives.
+     *
+     * @param environment the application environment.
+     * @return {@link DedicatedConnectionFactory} instance.
+     * @throws Throwable if an error occurs while loading the driver.
+     */
+    @Bean
+    DedicatedConnectionFactory dedicatedConnectionFactory(final Environment environment) throws Throwable
+    {
+        final Driver driver = environment.getPropertyAsClass(WRITE_POOL_PREFIX + "driver_class", Driver.class)
+                .newInstance();
+        final DedicatedConnectionFactory result = new InternalConnectionFactoryImpl(driver,
+                environment.getProperty(WRITE_POOL_PREFIX + "url"), environment.getProperty(WRITE_POOL_PREFIX +
+                "user_name"), environment.getProperty(WRITE_POOL_PREFIX + "password"),
+                environment.getRequiredProperty(Constants.Cluster.KEEPALIVE_IDLE, Integer.class),
+                environment.getRequiredProperty(Constants.Cluster.KEEPALIVE_INTERVAL, Integer.class),
+                environment.getRequiredProperty(Constants.Cluster.KEEPALIVE_COUNT, Integer.class));
+        LOG.info("Returning dedicated connection factory {}.", result);
+        return result;
+    }
+
     /**
      * Create and return the internally managed application data source, wrapping it in an
-     * {@link InternalDataSourceWrapper} so that the driver will be deregistered, if necessary, at shutdown time.
+     * {@link InternalDataSourceWrapper} so that the pools will be shut down, and the driver will be deregistered if
+     * necessary, at shutdown time.
+     * <p>
+     * Separate write and read pools are created so that a large ingest cannot starve API reads of connections, nor the
+     * reverse. The read pool is configured by {@code waldo.database.internal_pool.read.*} items; its URL, user name and
+     * password default to those of the write pool, and its URL may instead point at a read replica.
      *
      * @param environment the application environment.
      * @return {@link InternalDataSourceWrapper} instance.
@@ -77,25 +130,64 @@ class InternalPoolDatabaseConfig
                 Driver.class);
         final boolean internalDriver = Thread.currentThread().getContextClassLoader() == driverClass.getClassLoader();
 
-        /* Build data source config from the merged application configuration. */
-        final HikariConfig config = new HikariConfig();
-        config.setAutoCommit(false);
-        config.setConnectionTestQuery(environment.getProperty("waldo.database.internal_pool.test_query"));
-        config.setDriverClassName(environment.getProperty("waldo.database.internal_pool.driver_class"));
-        config.setIdleTimeout(environment.getProperty("waldo.database.internal_pool.idle_timeout", Integer.TYPE));
-        config.setJdbcUrl(environment.getProperty("waldo.database.internal_pool.url"));
-        config.setMaximumPoolSize(environment.getProperty("waldo.database.internal_pool.max_size", Integer.TYPE));
-        config.setMaxLifetime(environment.getProperty("waldo.database.internal_pool.max_lifetime", Integer.TYPE));
-        config.setMinimumIdle(environment.getProperty("waldo.database.internal_pool.min_size", Integer.TYPE));
-        config.setPassword(environment.getProperty("waldo.database.internal_pool.password"));
-        config.setRegisterMbeans(true);
-        config.setUsername(environment.getProperty("waldo.database.internal_pool.user_name"));
+        /* Create the pools and route between them. The routing data source must be behind a lazy proxy so that the
+        routing decision is made after the transaction's read-only flag is known. */
+        final HikariDataSource writePool = createPool(environment, WRITE_POOL_NAME, WRITE_POOL_PREFIX, false);
+        final HikariDataSource readPool = createPool(environment, READ_POOL_NAME, READ_POOL_PREFIX, true);
+        final DataSource dataSource =
+                new LazyConnectionDataSourceProxy(new ReadOnlyRoutingDataSource(writePool, readPool));
 
-        /* Create, wrap, and return the data source. */
-        final HikariDataSource dataSource = new HikariDataSource(config);
+        /* Wrap and return the data source. */
         final InternalDataSourceWrapper result = new InternalDataSourceWrapperImpl(driverClass, dataSource,
-                internalDriver);
+                Arrays.asList(writePool, readPool), internalDriver);
         LOG.info("Returning wrapper {} for internally managed data source {}.", result, dataSource);
         return result;
     }
+
+    /**
+     * Create a connection pool from the merged application configuration. Items are read with the given prefix,
+     * falling back to the same-named items of the write pool when absent or blank.
+     *
+     * @param environment the application environment.
+     * @param poolName the pool name, under which its management bean is registered.
+     * @param prefix the configuration item prefix.
+     * @param readOnly flag indicating whether connections should be read-only.
+     * @return {@link HikariDataSource} instance.
+     */
+    private static HikariDataSource createPool(final Environment environment, final String poolName,
+                                               final String prefix, final boolean readOnly)
+    {
+        final HikariConfig config = new HikariConfig();
+        config.setAutoCommit(false);
+        config.setConnectionTestQuery(getPoolProperty(environment, prefix, "test_query"));
+        config.setDriverClassName(getPoolProperty(environment, prefix, "driver_class"));
+        config.setIdleTimeout(Integer.parseInt(getPoolProperty(environment, prefix, "idle_timeout")));
+        config.setJdbcUrl(getPoolProperty(environment, prefix, "url"));
+        config.setMaximumPoolSize(Integer.parseInt(getPoolProperty(environment, prefix, "max_size")));
+        config.setMaxLifetime(Integer.parseInt(getPoolProperty(environment, prefix, "max_lifetime")));
+        config.setMinimumIdle(Integer.parseInt(getPoolProperty(environment, prefix, "min_size")));
+        config.setPassword(getPoolProperty(environment, prefix, "password"));
+        config.setPoolName(poolName);
+        config.setReadOnly(readOnly);
+        config.setRegisterMbeans(true);
+        config.setUsername(getPoolProperty(environment, prefix, "user_name"));
+        final HikariDataSource result = new HikariDataSource(config);
+        LOG.info("Created connection pool {} for {} with maximum size {}.", poolName, config.getJdbcUrl(),
+                config.getMaximumPoolSize());
+        return result;
+    }
+
+    /**
+     * Get a pool configuration item, falling back to the same-named write pool item if it is absent or blank.
+     *
+     * @param environment the application environment.
+     * @param prefix the configuration item prefix.
+     * @param name the configuration item name, without prefix.
+     * @return {@link String} value, or {@code null} if not configured.
+     */
+    private static String getPoolProperty(final Environment environment, final String prefix, final String name)
+    {
+        final String value = environment.getProperty(prefix + name);
+        return StringUtils.hasText(value) ? value : environment.getProperty(WRITE_POOL_PREFIX + name);
+    }
 }
@@ -0,0 +1,87 @@
+package waldo.config.app;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPoolMBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import waldo.utility.database.ConnectionPoolMonitor;
+
+import javax.management.JMX;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link InternalPoolMonitorImpl} is the implementation of the {@link ConnectionPoolMonitor} interface for internally
+ * managed HikariCP pools. It reads the live counts from the management bean which each pool registers under its pool
+ * name.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+class InternalPoolMonitorImpl implements ConnectionPoolMonitor
+{
+    private static final Logger LOG = LoggerFactory.getLogger(InternalPoolMonitorImpl.class);
+
+    private final List<HikariDataSource> m_pools;
+
+    /**
+     * Construct a {@link InternalPoolMonitorImpl} instance.
+     *
+     * @param pools the pools to monitor.
+     */
+    InternalPoolMonitorImpl(final List<HikariDataSource> pools)
+    {
+        super();
+        m_pools = pools;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Map<String, Object>> getPoolStatistics()
+    {
+        final Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (final HikariDataSource nextPool : m_pools)
+        {
+            final Map<String, Object> statistics = new LinkedHashMap<>();
+            final int maximum = nextPool.getMaximumPoolSize();
+            statistics.put("maximum", maximum);
+            try
+            {
+                final HikariPoolMBean pool = JMX.newMBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                        new ObjectName(String.format("com.zaxxer.hikari:type=Pool (%s)", nextPool.getPoolName())),
+                        HikariPoolMBean.class);
+                final int active = pool.getActiveConnections();
+                statistics.put("active", active);
+                statistics.put("idle", pool.getIdleConnections());
+                statistics.put("total", pool.getTotalConnections());
+                statistics.put("awaiting", pool.getThreadsAwaitingConnection());
+                statistics.put("saturation", 0 == maximum ? 0.0d : (double) active / maximum);
+            }
+            catch (final MalformedObjectNameException | UndeclaredThrowableException e)
+            {
+                /* The pool has not registered its management bean (or has been shut down); report what we can. */
+                LOG.debug("Unable to read management bean for pool {}.", nextPool.getPoolName(), e);
+            }
+            result.put(nextPool.getPoolName(), statistics);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package waldo.config.app;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link ReadOnlyRoutingDataSource} routes connection requests made within a read-only transaction (for example, one
+ * begun by {@code @Transactional(readOnly = true)}) to the read pool, and all other requests to the write pool.
+ * <p>
+ * The routing decision is made when a connection is requested, so this data source must be wrapped in a
+ * {@link LazyConnectionDataSourceProxy}: the transaction manager obtains a connection as the transaction begins, before
+ * the read-only flag of the transaction has been published, and the lazy proxy defers fetching the real connection
+ * until the first statement is executed.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource
+{
+    private static final String READ = "read";
+    private static final String WRITE = "write";
+
+    /**
+     * Construct a {@link ReadOnlyRoutingDataSource} instance.
+     *
+     * @param writeDataSource the data source to which read/write requests are routed.
+     * @param readDataSource the data source to which read-only requests are routed.
+     */
+    ReadOnlyRoutingDataSource(final DataSource writeDataSource, final DataSource readDataSource)
+    {
+        super();
+        final Map<Object, Object> targets = new HashMap<>();
+        targets.put(WRITE, writeDataSource);
+        targets.put(READ, readDataSource);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(writeDataSource);
+        afterPropertiesSet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Object determineCurrentLookupKey()
+    {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READ : WRITE;
+    }
+}
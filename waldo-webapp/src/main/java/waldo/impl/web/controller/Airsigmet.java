@@ -0,0 +1,168 @@
+package waldo.impl.web.controller;
+
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import waldo.facade.advisory.AdvisoryFacade;
+import waldo.service.advisory.Advisory;
+import waldo.utility.geo.Polygon;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link Airsigmet} serves the AIRMETs and SIGMETs valid at a time ({@code at}, ISO-8601, default now) which affect a
+ * point ({@code /airsigmet?latitude=41.98&longitude=-87.9}) or a route, given as {@code latitude,longitude} points
+ * separated by semicolons ({@code /airsigmet/route?points=41.98,-87.9;40.64,-73.78}.)
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Controller
+@RequestMapping("/airsigmet")
+class Airsigmet
+{
+    private static final DateTimeFormatter s_timeParser = ISODateTimeFormat.dateTimeParser().withZoneUTC();
+
+    private final AdvisoryFacade m_advisoryFacade;
+
+    /**
+     * Construct a {@link Airsigmet} instance.
+     *
+     * @param advisoryFacade the {@link AdvisoryFacade} component.
+     */
+    @Autowired
+    Airsigmet(final AdvisoryFacade advisoryFacade)
+    {
+        super();
+        m_advisoryFacade = advisoryFacade;
+    }
+
+    @RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> findContaining(@RequestParam("latitude") final double latitude,
+                                              @RequestParam("longitude") final double longitude,
+                                              @RequestParam(value = "at", required = false) final String at)
+    {
+        final long time = null == at ? System.currentTimeMillis() : s_timeParser.parseMillis(at);
+        return createResponse(time, m_advisoryFacade.findContaining(latitude, longitude, time));
+    }
+
+    @RequestMapping(value = "/route", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> findIntersecting(@RequestParam("points") final String points,
+                                                @RequestParam(value = "at", required = false) final String at)
+    {
+        final long time = null == at ? System.currentTimeMillis() : s_timeParser.parseMillis(at);
+        final String[] pairs = points.split(";");
+        final double[] latitudes = new double[pairs.length];
+        final double[] longitudes = new double[pairs.length];
+        for (int point = 0; point < pairs.length; point++)
+        {
+            final String[] pair = pairs[point].split(",");
+            if (2 != pair.length)
+            {
+                throw new IllegalArgumentException(String.format("Point [%s] is not a latitude,longitude pair.",
+                        pairs[point]));
+            }
+            latitudes[point] = Double.parseDouble(pair[0].trim());
+            longitudes[point] = Double.parseDouble(pair[1].trim());
+        }
+        return createResponse(time, m_advisoryFacade.findIntersecting(latitudes, longitudes, time));
+    }
+
+    /**
+     * Respond to an invalid request parameter.
+     *
+     * @param e the exception.
+     * @return {@link Map} error response.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public Map<String, String> handleIllegalArgument(final IllegalArgumentException e)
+    {
+        return Collections.singletonMap("error", e.getMessage());
+    }
+
+    /**
+     * Create a response listing advisories.
+     *
+     * @param time the time at which the advisories are valid.
+     * @param advisories the advisories.
+     * @return {@link Map} response.
+     */
+    private static Map<String, Object> createResponse(final long time, final List<Advisory> advisories)
+    {
+        final List<Map<String, Object>> list = new ArrayList<>(advisories.size());
+        for (final Advisory advisory : advisories)
+        {
+            list.add(toMap(advisory));
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("at", ObservationJsonWriter.formatTime(time));
+        result.put("advisories", list);
+        return result;
+    }
+
+    /**
+     * Convert an advisory to a response object, omitting elements which are not given.
+     *
+     * @param advisory the advisory.
+     * @return {@link Map} of element values.
+     */
+    private static Map<String, Object> toMap(final Advisory advisory)
+    {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("type", advisory.getType().name());
+        result.put("hazard", advisory.getHazard());
+        if (null != advisory.getSeverity())
+        {
+            result.put("severity", advisory.getSeverity());
+        }
+        result.put("validFrom", ObservationJsonWriter.formatTime(advisory.getValidFrom()));
+        result.put("validTo", ObservationJsonWriter.formatTime(advisory.getValidTo()));
+        if (Advisory.MISSING != advisory.getMinAltitude())
+        {
+            result.put("minAltitude", advisory.getMinAltitude());
+        }
+        if (Advisory.MISSING != advisory.getMaxAltitude())
+        {
+            result.put("maxAltitude", advisory.getMaxAltitude());
+        }
+        final Polygon area = advisory.getArea();
+        final List<BigDecimal[]> vertices = new ArrayList<>(area.getVertexCount());
+        for (int vertex = 0; vertex < area.getVertexCount(); vertex++)
+        {
+            vertices.add(new BigDecimal[]{BigDecimal.valueOf(area.getLatitude(vertex), 6),
+                    BigDecimal.valueOf(area.getLongitude(vertex), 6)});
+        }
+        result.put("area", vertices);
+        result.put("rawText", advisory.getRawText());
+        return result;
+    }
+}
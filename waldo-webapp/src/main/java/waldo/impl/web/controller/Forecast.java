@@ -0,0 +1,173 @@
+package waldo.impl.web.controller;
+
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import waldo.entity.PresentWeather;
+import waldo.entity.SkyLayers;
+import waldo.facade.forecast.ForecastFacade;
+import waldo.service.forecast.ForecastConditions;
+import waldo.service.observation.ObservationRecord;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Forecast} serves the conditions forecast for a station by its latest TAF: those predicted to prevail at a
+ * time ({@code /forecast/station/KORD?at=2014-07-16T03:00Z}, default now), or the worst forecast at any time within a
+ * period ({@code /forecast/station/KORD/worst?hours=6}), given either explicitly, by ISO-8601 {@code from} and
+ * {@code to} parameters, or as a number of {@code hours} from {@code from} (default: now.) The conditions are
+ * {@code null} if no forecast for the station is valid at the time or within the period.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Controller
+@RequestMapping("/forecast")
+class Forecast
+{
+    private static final DateTimeFormatter s_timeParser = ISODateTimeFormat.dateTimeParser().withZoneUTC();
+
+    private final ForecastFacade m_forecastFacade;
+
+    /**
+     * Construct a {@link Forecast} instance.
+     *
+     * @param forecastFacade the {@link ForecastFacade} component.
+     */
+    @Autowired
+    Forecast(final ForecastFacade forecastFacade)
+    {
+        super();
+        m_forecastFacade = forecastFacade;
+    }
+
+    @RequestMapping(value = "/station/{station}", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> getPredicted(@PathVariable("station") final String station,
+                                            @RequestParam(value = "at", required = false) final String at)
+    {
+        final String identifier = station.toUpperCase(Locale.US);
+        final long time = null == at ? System.currentTimeMillis() : s_timeParser.parseMillis(at);
+        final ForecastConditions conditions = m_forecastFacade.findPredicted(identifier, time);
+        final Map<String, Object> result = createResponse(identifier);
+        result.put("at", ObservationJsonWriter.formatTime(time));
+        result.put("conditions", toMap(conditions));
+        return result;
+    }
+
+    @RequestMapping(value = "/station/{station}/worst", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> getWorst(@PathVariable("station") final String station,
+                                        @RequestParam(value = "from", required = false) final String from,
+                                        @RequestParam(value = "to", required = false) final String to,
+                                        @RequestParam(value = "hours", defaultValue = "6") final int hours)
+    {
+        final String identifier = station.toUpperCase(Locale.US);
+        final long start = null == from ? System.currentTimeMillis() : s_timeParser.parseMillis(from);
+        final long end = null == to ? start + TimeUnit.HOURS.toMillis(hours) : s_timeParser.parseMillis(to);
+        final ForecastConditions conditions = m_forecastFacade.findWorst(identifier, start, end);
+        final Map<String, Object> result = createResponse(identifier);
+        result.put("from", ObservationJsonWriter.formatTime(start));
+        result.put("to", ObservationJsonWriter.formatTime(end));
+        result.put("conditions", toMap(conditions));
+        return result;
+    }
+
+    /**
+     * Respond to an invalid request parameter.
+     *
+     * @param e the exception.
+     * @return {@link Map} error response.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public Map<String, String> handleIllegalArgument(final IllegalArgumentException e)
+    {
+        return Collections.singletonMap("error", e.getMessage());
+    }
+
+    /**
+     * Create a response identifying the station and the forecast from which it is answered.
+     *
+     * @param station the station identifier.
+     * @return {@link Map} response.
+     */
+    private Map<String, Object> createResponse(final String station)
+    {
+        final long issuedAt = m_forecastFacade.getIssuedAt(station);
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("station", station);
+        result.put("issuedAt", 0L == issuedAt ? null : ObservationJsonWriter.formatTime(issuedAt));
+        return result;
+    }
+
+    /**
+     * Convert forecast conditions to a response object, omitting elements which are not forecast.
+     *
+     * @param conditions the conditions, or {@code null}.
+     * @return {@link Map} of element values, or {@code null} if {@code conditions} is {@code null}.
+     */
+    private static Map<String, Object> toMap(final ForecastConditions conditions)
+    {
+        Map<String, Object> result = null;
+        if (null != conditions)
+        {
+            result = new LinkedHashMap<>();
+            if (ObservationRecord.MISSING != conditions.getWindSpeed())
+            {
+                result.put("windDirection", conditions.getWindDirection());
+                result.put("windSpeed", conditions.getWindSpeed());
+            }
+            if (ObservationRecord.MISSING != conditions.getWindGust())
+            {
+                result.put("windGust", conditions.getWindGust());
+            }
+            if (ObservationRecord.MISSING != conditions.getVisibility())
+            {
+                result.put("visibility", BigDecimal.valueOf(conditions.getVisibility(), 2));
+            }
+            if (SkyLayers.NONE != conditions.getSkyLayers())
+            {
+                result.put("sky", SkyLayers.toString(conditions.getSkyLayers()));
+            }
+            if (PresentWeather.NONE != conditions.getWeather())
+            {
+                result.put("weather", PresentWeather.toString(conditions.getWeather()));
+            }
+            if (null != conditions.getFlightCategory())
+            {
+                result.put("flightCategory", conditions.getFlightCategory().name());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,215 @@
+package waldo.impl.web.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import waldo.facade.history.HistoryFacade;
+import waldo.service.observation.ObservationRecord;
+import waldo.service.observation.ObservationSeries;
+import waldo.utility.geo.BoundingBox;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link History} serves paged observation history for a station ({@code /history/station/KORD?hours=72}) or a region
+ * ({@code /history/region?minLat=41&minLon=-88.5&maxLat=42.5&maxLon=-87}.) The time range is given either explicitly,
+ * by ISO-8601 {@code from} and {@code to} parameters, or as a number of {@code hours} up to {@code to} (default: now.)
+ * <p/>
+ * Each response is streamed as rows arrive from the database. It ends with a {@code next} URL which repeats the request
+ * with the resolved time range and a continuation token, or {@code null} after the last page.
+ * <p/>
+ * For charting, {@code /history/station/KORD/series?hours=720} returns the element time series of a station as columns:
+ * a {@code times} array of milliseconds since the epoch, and an array of values (or {@code null} where not reported)
+ * for each element.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Controller
+@RequestMapping("/history")
+class History
+{
+    private static final JsonFactory s_jsonFactory = new JsonFactory();
+    private static final DateTimeFormatter s_timeParser = ISODateTimeFormat.dateTimeParser().withZoneUTC();
+
+    private final HistoryFacade m_historyFacade;
+
+    /**
+     * Construct a {@link History} instance.
+     *
+     * @param historyFacade the {@link HistoryFacade} component.
+     */
+    @Autowired
+    History(final HistoryFacade historyFacade)
+    {
+        super();
+        m_historyFacade = historyFacade;
+    }
+
+    @RequestMapping(value = "/station/{station}", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getStation(@PathVariable("station") final String station,
+                           @RequestParam(value = "from", required = false) final String from,
+                           @RequestParam(value = "to", required = false) final String to,
+                           @RequestParam(value = "hours", defaultValue = "72") final int hours,
+                           @RequestParam(value = "limit", defaultValue = "500") final int limit,
+                           @RequestParam(value = "continuation", required = false) final String continuation,
+                           final HttpServletResponse response) throws IOException
+    {
+        final long end = null == to ? System.currentTimeMillis() : s_timeParser.parseMillis(to);
+        final long start = null == from ? end - TimeUnit.HOURS.toMillis(hours) : s_timeParser.parseMillis(from);
+        final ObservationJsonWriter writer = createWriter(response);
+        final String next = m_historyFacade.streamStationHistory(station.toUpperCase(Locale.US), start, end,
+                continuation, limit, writer);
+        writer.finish(nextUrl(start, end, next));
+    }
+
+    @RequestMapping(value = "/station/{station}/series", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getStationSeries(@PathVariable("station") final String station,
+                                 @RequestParam(value = "from", required = false) final String from,
+                                 @RequestParam(value = "to", required = false) final String to,
+                                 @RequestParam(value = "hours", defaultValue = "72") final int hours,
+                                 final HttpServletResponse response) throws IOException
+    {
+        final String identifier = station.toUpperCase(Locale.US);
+        final long end = null == to ? System.currentTimeMillis() : s_timeParser.parseMillis(to);
+        final long start = null == from ? end - TimeUnit.HOURS.toMillis(hours) : s_timeParser.parseMillis(from);
+        final ObservationSeries.Range range = m_historyFacade.readStationSeries(identifier, start, end);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        final JsonGenerator generator = s_jsonFactory.createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        generator.writeStartObject();
+        generator.writeStringField("station", identifier);
+        generator.writeStringField("from", ObservationJsonWriter.formatTime(start));
+        generator.writeStringField("to", ObservationJsonWriter.formatTime(end));
+        generator.writeArrayFieldStart("times");
+        for (final long time : range.getTimes())
+        {
+            generator.writeNumber(time);
+        }
+        generator.writeEndArray();
+        for (final ObservationSeries.Element element : ObservationSeries.Element.values())
+        {
+            generator.writeArrayFieldStart(element.getName());
+            for (final short value : range.getValues(element))
+            {
+                if (ObservationRecord.MISSING == value)
+                {
+                    generator.writeNull();
+                }
+                else if (0 == element.getScale())
+                {
+                    generator.writeNumber(value);
+                }
+                else
+                {
+                    generator.writeNumber(BigDecimal.valueOf(value, element.getScale()));
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    @RequestMapping(value = "/region", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getRegion(@RequestParam("minLat") final double minLatitude,
+                          @RequestParam("minLon") final double minLongitude,
+                          @RequestParam("maxLat") final double maxLatitude,
+                          @RequestParam("maxLon") final double maxLongitude,
+                          @RequestParam(value = "from", required = false) final String from,
+                          @RequestParam(value = "to", required = false) final String to,
+                          @RequestParam(value = "hours", defaultValue = "1") final int hours,
+                          @RequestParam(value = "limit", defaultValue = "500") final int limit,
+                          @RequestParam(value = "continuation", required = false) final String continuation,
+                          final HttpServletResponse response) throws IOException
+    {
+        final BoundingBox region = BoundingBox.fromDegrees(minLatitude, minLongitude, maxLatitude, maxLongitude);
+        final long end = null == to ? System.currentTimeMillis() : s_timeParser.parseMillis(to);
+        final long start = null == from ? end - TimeUnit.HOURS.toMillis(hours) : s_timeParser.parseMillis(from);
+        final ObservationJsonWriter writer = createWriter(response);
+        final String next = m_historyFacade.streamRegionHistory(region, start, end, continuation, limit, writer);
+        writer.finish(nextUrl(start, end, next));
+    }
+
+    /**
+     * Respond to an invalid request parameter, including a malformed or mismatched continuation token.
+     *
+     * @param e the exception.
+     * @return {@link Map} error response.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public Map<String, String> handleIllegalArgument(final IllegalArgumentException e)
+    {
+        return Collections.singletonMap("error", e.getMessage());
+    }
+
+    /**
+     * Create a writer which streams JSON directly to the response. The response is not committed until the first
+     * record (or the end of the page) is written.
+     *
+     * @param response the servlet response.
+     * @return {@link ObservationJsonWriter} instance.
+     * @throws IOException if an error occurs opening the response stream.
+     */
+    private static ObservationJsonWriter createWriter(final HttpServletResponse response) throws IOException
+    {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        final JsonGenerator generator = s_jsonFactory.createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        return new ObservationJsonWriter(generator);
+    }
+
+    /**
+     * Build the URL of the next page: the current request, with the time range fixed to the values resolved for this
+     * page (so that a relative range does not drift between pages) and the continuation token replaced.
+     *
+     * @param start the resolved start of the range.
+     * @param end the resolved end of the range.
+     * @param continuation the continuation token, or {@code null} if there are no more pages.
+     * @return {@link String} URL, or {@code null} if there are no more pages.
+     */
+    private static String nextUrl(final long start, final long end, final String continuation)
+    {
+        return null == continuation ? null : ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("hours")
+                .replaceQueryParam("from", ObservationJsonWriter.formatTime(start))
+                .replaceQueryParam("to", ObservationJsonWriter.formatTime(end))
+                .replaceQueryParam("continuation", continuation)
+                .build().encode().toUriString();
+    }
+}
@@ -0,0 +1,212 @@
+package waldo.impl.web.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UrlPathHelper;
+import waldo.facade.observation.ObservationFacade;
+import waldo.impl.utility.network.NetworkException;
+import waldo.utility.geo.BoundingBox;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link Latest} serves the latest observation of a station ({@code /latest/station/KORD}) or of each station within a
+ * region ({@code /latest/region?minLat=41&minLon=-88.5&maxLat=42.5&maxLon=-87}) from the in-memory store, in the same
+ * form as {@link History}.
+ * <p/>
+ * When stations are partitioned across serving nodes, a station request for a station owned elsewhere is forwarded to
+ * its owners in turn, and a region request is scattered to every other live node and the responses merged with the
+ * local result, keeping the latest observation of each station. A region response carries {@code "partial": true} if
+ * any node did not answer. Requests with {@code scope=local} are answered from this node's store alone; forwarded
+ * requests always carry it.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Controller
+@RequestMapping("/latest")
+class Latest
+{
+    private static final String LOCAL = "local";
+    private static final String OBSERVATIONS = "observations";
+    private static final UrlPathHelper s_urlPathHelper = new UrlPathHelper();
+
+    private final ObservationFacade m_observationFacade;
+    private final PeerRouter m_peerRouter;
+
+    /**
+     * Construct a {@link Latest} instance.
+     *
+     * @param observationFacade the {@link ObservationFacade} component.
+     * @param peerRouter the {@link PeerRouter} component.
+     */
+    @Autowired
+    Latest(final ObservationFacade observationFacade, final PeerRouter peerRouter)
+    {
+        super();
+        m_observationFacade = observationFacade;
+        m_peerRouter = peerRouter;
+    }
+
+    @RequestMapping(value = "/station/{station}", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getStation(@PathVariable("station") final String station,
+                           @RequestParam(value = "scope", required = false) final String scope,
+                           final HttpServletRequest request, final HttpServletResponse response) throws IOException
+    {
+        final String icaoId = station.toUpperCase(Locale.US);
+        final List<String> owners = LOCAL.equals(scope) ? Collections.<String>emptyList() :
+                m_observationFacade.getRemoteOwners(icaoId);
+        final ObservationJsonWriter writer;
+        if (owners.isEmpty())
+        {
+            writer = createWriter(response);
+            m_observationFacade.streamLatest(icaoId, writer);
+        }
+        else
+        {
+            final JsonNode forwarded = m_peerRouter.forward(owners, localPath(request), OBSERVATIONS);
+            writer = createWriter(response);
+            for (final JsonNode observation : forwarded.path(OBSERVATIONS))
+            {
+                writer.handle(observation);
+            }
+        }
+        writer.finish(null);
+    }
+
+    @RequestMapping(value = "/region", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getRegion(@RequestParam("minLat") final double minLatitude,
+                          @RequestParam("minLon") final double minLongitude,
+                          @RequestParam("maxLat") final double maxLatitude,
+                          @RequestParam("maxLon") final double maxLongitude,
+                          @RequestParam(value = "scope", required = false) final String scope,
+                          final HttpServletRequest request, final HttpServletResponse response) throws IOException
+    {
+        final BoundingBox region = BoundingBox.fromDegrees(minLatitude, minLongitude, maxLatitude, maxLongitude);
+        final Map<String, JsonNode> gathered = LOCAL.equals(scope) ? Collections.<String, JsonNode>emptyMap() :
+                m_peerRouter.scatter(m_observationFacade.getRemoteNodes(), localPath(request));
+        final ObservationJsonWriter writer = createWriter(response);
+        final Set<String> local = new HashSet<>(m_observationFacade.streamLatest(region, writer));
+
+        /* Merge the remote results, keeping the latest observation of each station not held here. Times are written in
+        a fixed-width UTC form, so they order as strings. */
+        final Map<String, JsonNode> merged = new LinkedHashMap<>();
+        boolean partial = false;
+        for (final JsonNode result : gathered.values())
+        {
+            partial |= null == result || result.path("partial").asBoolean();
+            if (null != result)
+            {
+                for (final JsonNode observation : result.path(OBSERVATIONS))
+                {
+                    final String station = observation.path("station").asText();
+                    final JsonNode existing = merged.get(station);
+                    if (!local.contains(station) && (null == existing || observation.path("observedAt").asText()
+                            .compareTo(existing.path("observedAt").asText()) > 0))
+                    {
+                        merged.put(station, observation);
+                    }
+                }
+            }
+        }
+        for (final JsonNode observation : merged.values())
+        {
+            writer.handle(observation);
+        }
+        writer.finish(null, partial);
+    }
+
+    /**
+     * Respond to an invalid request parameter.
+     *
+     * @param e the exception.
+     * @return {@link Map} error response.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public Map<String, String> handleIllegalArgument(final IllegalArgumentException e)
+    {
+        return Collections.singletonMap("error", e.getMessage());
+    }
+
+    /**
+     * Respond to a request which could not be forwarded to any owner of the station.
+     *
+     * @param e the exception.
+     * @return {@link Map} error response.
+     */
+    @ExceptionHandler(NetworkException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public Map<String, String> handleNetwork(final NetworkException e)
+    {
+        return Collections.singletonMap("error", e.getMessage());
+    }
+
+    /**
+     * Create a writer which streams JSON directly to the response, and which can copy content received from other
+     * nodes.
+     *
+     * @param response the servlet response.
+     * @return {@link ObservationJsonWriter} instance.
+     * @throws IOException if an error occurs opening the response stream.
+     */
+    private static ObservationJsonWriter createWriter(final HttpServletResponse response) throws IOException
+    {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        final JsonGenerator generator = PeerRouter.getObjectMapper().getFactory().createGenerator(
+                response.getOutputStream(), JsonEncoding.UTF8);
+        return new ObservationJsonWriter(generator);
+    }
+
+    /**
+     * Build the path and query with which the current request is forwarded to another node: the same request, relative
+     * to the application, answered from that node's store alone.
+     *
+     * @param request the servlet request.
+     * @return {@link String} path and query.
+     */
+    private static String localPath(final HttpServletRequest request)
+    {
+        return UriComponentsBuilder.fromPath(s_urlPathHelper.getPathWithinApplication(request))
+                .query(request.getQueryString())
+                .replaceQueryParam("scope", LOCAL)
+                .build().toUriString();
+    }
+}
@@ -0,0 +1,189 @@
+package waldo.impl.web.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import waldo.entity.SkyLayers;
+import waldo.impl.utility.network.NetworkException;
+import waldo.service.observation.ObservationHandler;
+import waldo.service.observation.ObservationRecord;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * {@link ObservationJsonWriter} writes a page of {@link ObservationRecord}s to a {@link JsonGenerator} as they are
+ * received, in the form {@code {"observations": [...], "next": "..."}}. Fixed-point elements are written as exact
+ * decimals in their natural units, and elements which were not reported are omitted.
+ * <p/>
+ * Nothing is written until the first record arrives (or {@link #finish(String)} is called), so that a request which
+ * fails before producing any rows can still be answered with an error status.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class are <strong>not</strong> safe for multithreaded access.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+class ObservationJsonWriter implements ObservationHandler
+{
+    private static final DateTimeFormatter s_timeFormatter = ISODateTimeFormat.dateTimeNoMillis().withZoneUTC();
+
+    private final JsonGenerator m_generator;
+    private boolean m_started;
+
+    /**
+     * Construct a {@link ObservationJsonWriter} instance.
+     *
+     * @param generator the generator to which records are written.
+     */
+    ObservationJsonWriter(final JsonGenerator generator)
+    {
+        super();
+        m_generator = generator;
+    }
+
+    /**
+     * Format a time for output.
+     *
+     * @param time the time in milliseconds since the epoch.
+     * @return {@link String} ISO-8601 time in UTC.
+     */
+    static String formatTime(final long time)
+    {
+        return s_timeFormatter.print(time);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NetworkException if an error occurs writing the output.
+     */
+    @Override
+    public void handle(final ObservationRecord record)
+    {
+        try
+        {
+            start();
+            m_generator.writeStartObject();
+            m_generator.writeNumberField("id", record.getId());
+            m_generator.writeStringField("station", record.getStation());
+            m_generator.writeStringField("observedAt", formatTime(record.getObservedAt()));
+            m_generator.writeStringField("reportType", record.getReportType().name());
+            writeDecimal("temperature", record.getTemperature(), 1);
+            writeDecimal("dewpoint", record.getDewpoint(), 1);
+            writeDecimal("altimeter", record.getAltimeter(), 2);
+            writeDecimal("seaLevelPressure", record.getSeaLevelPressure(), 1);
+            writeDecimal("windDirection", record.getWindDirection(), 0);
+            writeDecimal("windSpeed", record.getWindSpeed(), 0);
+            writeDecimal("windGust", record.getWindGust(), 0);
+            writeDecimal("visibility", record.getVisibility(), 2);
+            writeDecimal("precipitation", record.getPrecipitation(), 2);
+            if (SkyLayers.NONE != record.getSkyLayers())
+            {
+                m_generator.writeStringField("sky", SkyLayers.toString(record.getSkyLayers()));
+            }
+            if (null != record.getFlightCategory())
+            {
+                m_generator.writeStringField("flightCategory", record.getFlightCategory().name());
+            }
+            m_generator.writeEndObject();
+        }
+        catch (final IOException e)
+        {
+            throw new NetworkException(String.format(
+                    "An error of type %s occurred while attempting to write an observation to the response: %s",
+                    e.getClass().getName(), e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Write an observation already in output form, as received from another node. The generator must have a codec.
+     *
+     * @param observation the observation.
+     * @throws IOException if an error occurs writing the output.
+     */
+    void handle(final JsonNode observation) throws IOException
+    {
+        start();
+        m_generator.writeTree(observation);
+    }
+
+    /**
+     * Complete the output.
+     *
+     * @param next the URL of the next page, or {@code null} if this was the last page.
+     * @throws IOException if an error occurs writing the output.
+     */
+    void finish(final String next) throws IOException
+    {
+        finish(next, false);
+    }
+
+    /**
+     * Complete the output.
+     *
+     * @param next the URL of the next page, or {@code null} if this was the last page.
+     * @param partial flag indicating whether some nodes did not answer, so that some records may be missing.
+     * @throws IOException if an error occurs writing the output.
+     */
+    void finish(final String next, final boolean partial) throws IOException
+    {
+        start();
+        m_generator.writeEndArray();
+        m_generator.writeStringField("next", next);
+        if (partial)
+        {
+            m_generator.writeBooleanField("partial", true);
+        }
+        m_generator.writeEndObject();
+        m_generator.flush();
+    }
+
+    /**
+     * Write the opening of the output, if not already written.
+     *
+     * @throws IOException if an error occurs writing the output.
+     */
+    private void start() throws IOException
+    {
+        if (!m_started)
+        {
+            m_started = true;
+            m_generator.writeStartObject();
+            m_generator.writeArrayFieldStart("observations");
+        }
+    }
+
+    /**
+     * Write a fixed-point element as an exact decimal, unless it was not reported.
+     *
+     * @param name the field name.
+     * @param value the fixed-point value.
+     * @param scale the number of implied decimal places.
+     * @throws IOException if an error occurs writing the output.
+     */
+    private void writeDecimal(final String name, final short value, final int scale) throws IOException
+    {
+        if (ObservationRecord.MISSING != value)
+        {
+            m_generator.writeFieldName(name);
+            if (0 == scale)
+            {
+                m_generator.writeNumber(value);
+            }
+            else
+            {
+                m_generator.writeNumber(BigDecimal.valueOf(value, scale));
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package waldo.impl.web.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import waldo.impl.utility.network.NetworkException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@link PeerRouter} sends requests to other serving nodes on behalf of the controllers: forwarding a request to the
+ * nodes which own a station, or scattering a request to every node and gathering the responses. Requests are made with
+ * the {@code peerHttpClient}, whose short timeouts bound how long a failed node can delay a response. Forwarded
+ * requests always carry {@code scope=local}, so that the receiving node answers from its own store and never forwards
+ * again.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class are safe for multithreaded access.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Component
+class PeerRouter
+{
+    private static final Logger LOG = LoggerFactory.getLogger(PeerRouter.class);
+    private static final ObjectMapper s_objectMapper = new ObjectMapper();
+
+    private final ExecutorService m_executor;
+    private final HttpClient m_httpClient;
+
+    /**
+     * Construct a {@link PeerRouter} instance.
+     *
+     * @param httpClient the {@link HttpClient} component used for requests between nodes.
+     */
+    @Autowired
+    PeerRouter(@Qualifier("peerHttpClient") final HttpClient httpClient)
+    {
+        super();
+        m_executor = Executors.newCachedThreadPool(new CustomizableThreadFactory("waldo-peer-"));
+        m_httpClient = httpClient;
+    }
+
+    /**
+     * Get the object mapper used to read responses, which is also suitable as the codec of a generator to which
+     * response content is copied.
+     *
+     * @return {@link ObjectMapper} instance.
+     */
+    static ObjectMapper getObjectMapper()
+    {
+        return s_objectMapper;
+    }
+
+    /**
+     * Send a request to each of a number of nodes in turn, until one answers with content. An answer in which a given
+     * array is empty is treated as a miss, as from a node which does not yet hold the station, and the next node is
+     * tried.
+     *
+     * @param nodes the node base URLs, in order of preference.
+     * @param path the path and query of the request, relative to the node base URL.
+     * @param field the name of the array which holds the content of an answer.
+     * @return {@link JsonNode} response of the first node to answer with content, or otherwise the last answer.
+     * @throws NetworkException if no node answered.
+     */
+    JsonNode forward(final List<String> nodes, final String path, final String field) throws NetworkException
+    {
+        JsonNode result = null;
+        NetworkException failure = null;
+        boolean found = false;
+        for (int i = 0; !found && i < nodes.size(); i++)
+        {
+            try
+            {
+                final JsonNode response = get(nodes.get(i), path);
+                result = response;
+                found = 0 != response.path(field).size();
+                if (!found)
+                {
+                    LOG.debug("Node [{}] answered request [{}] without content.", nodes.get(i), path);
+                }
+            }
+            catch (final NetworkException e)
+            {
+                LOG.warn(e.getMessage());
+                failure = e;
+            }
+        }
+        if (null == result)
+        {
+            throw new NetworkException(String.format("None of the nodes %s answered request [%s].", nodes, path),
+                    failure);
+        }
+        return result;
+    }
+
+    /**
+     * Send a request to a number of nodes concurrently, and wait for their responses.
+     *
+     * @param nodes the node base URLs.
+     * @param path the path and query of the request, relative to the node base URL.
+     * @return {@link Map} of node base URL to response, which is {@code null} for a node which did not answer.
+     */
+    Map<String, JsonNode> scatter(final List<String> nodes, final String path)
+    {
+        final List<Future<JsonNode>> futures = new ArrayList<>(nodes.size());
+        for (final String node : nodes)
+        {
+            futures.add(m_executor.submit(new Callable<JsonNode>()
+            {
+                @Override
+                public JsonNode call()
+                {
+                    return get(node, path);
+                }
+            }));
+        }
+        final Map<String, JsonNode> result = new LinkedHashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); i++)
+        {
+            JsonNode response = null;
+            try
+            {
+                response = futures.get(i).get();
+            }
+            catch (final ExecutionException e)
+            {
+                LOG.warn(e.getCause().getMessage());
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                LOG.warn(String.format("Interrupted while waiting for node [%s].", nodes.get(i)));
+            }
+            result.put(nodes.get(i), response);
+        }
+        return result;
+    }
+
+    /**
+     * Stop the threads on which requests are sent.
+     */
+    @PreDestroy
+    void close()
+    {
+        m_executor.shutdownNow();
+    }
+
+    /**
+     * Send a request to a node.
+     *
+     * @param node the node base URL.
+     * @param path the path and query of the request, relative to the node base URL.
+     * @return {@link JsonNode} response.
+     * @throws NetworkException if the node did not answer successfully.
+     */
+    private JsonNode get(final String node, final String path) throws NetworkException
+    {
+        final HttpGet get = new HttpGet(node + path);
+        final JsonNode result;
+        try
+        {
+            final HttpResponse response = m_httpClient.execute(get);
+            try
+            {
+                final int status = response.getStatusLine().getStatusCode();
+                if (HttpStatus.SC_OK != status)
+                {
+                    throw new IOException(String.format("Node answered with status %d.", status));
+                }
+                try (final InputStream stream = response.getEntity().getContent())
+                {
+                    result = s_objectMapper.readTree(stream);
+                }
+            }
+            finally
+            {
+                EntityUtils.consumeQuietly(response.getEntity());
+            }
+        }
+        catch (final IOException e)
+        {
+            get.abort();
+            throw new NetworkException(String.format("An error of type %s occurred while attempting to request [%s] " +
+                    "from node [%s]: %s", e.getClass().getName(), path, node, e.getMessage()), e);
+        }
+        return result;
+    }
+}
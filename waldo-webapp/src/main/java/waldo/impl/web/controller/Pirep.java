@@ -0,0 +1,171 @@
+package waldo.impl.web.controller;
+
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import waldo.facade.aircraft.AircraftReportFacade;
+import waldo.service.aircraft.AircraftReport;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Pirep} serves the aircraft (pilot) reports made near a point
+ * ({@code /pirep?latitude=41.98&longitude=-87.9&radius=100&altitude=10000&band=2000&hours=2}): those within
+ * {@code radius} nautical miles (default 100) of the point, within {@code band} feet (default 2000) of
+ * {@code altitude} (default: any altitude), and within {@code hours} (default 2) before {@code at} (ISO-8601, default
+ * now.) Reports are listed most recent first.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Controller
+@RequestMapping("/pirep")
+class Pirep
+{
+    private static final DateTimeFormatter s_timeParser = ISODateTimeFormat.dateTimeParser().withZoneUTC();
+
+    private final AircraftReportFacade m_aircraftReportFacade;
+
+    /**
+     * Construct a {@link Pirep} instance.
+     *
+     * @param aircraftReportFacade the {@link AircraftReportFacade} component.
+     */
+    @Autowired
+    Pirep(final AircraftReportFacade aircraftReportFacade)
+    {
+        super();
+        m_aircraftReportFacade = aircraftReportFacade;
+    }
+
+    @RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> find(@RequestParam("latitude") final double latitude,
+                                    @RequestParam("longitude") final double longitude,
+                                    @RequestParam(value = "radius", defaultValue = "100") final double radius,
+                                    @RequestParam(value = "altitude", required = false) final Integer altitude,
+                                    @RequestParam(value = "band", defaultValue = "2000") final int band,
+                                    @RequestParam(value = "at", required = false) final String at,
+                                    @RequestParam(value = "hours", defaultValue = "2") final int hours)
+    {
+        final long to = null == at ? System.currentTimeMillis() : s_timeParser.parseMillis(at);
+        final long from = to - TimeUnit.HOURS.toMillis(hours);
+        final List<AircraftReport> reports = null == altitude ? m_aircraftReportFacade.find(latitude, longitude,
+                radius, AircraftReport.MISSING, Integer.MAX_VALUE, from, to) : m_aircraftReportFacade.find(latitude,
+                longitude, radius, altitude - band, altitude + band, from, to);
+        final List<Map<String, Object>> list = new ArrayList<>(reports.size());
+        for (final AircraftReport report : reports)
+        {
+            list.add(toMap(report));
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", ObservationJsonWriter.formatTime(from));
+        result.put("to", ObservationJsonWriter.formatTime(to));
+        result.put("reports", list);
+        return result;
+    }
+
+    /**
+     * Respond to an invalid request parameter.
+     *
+     * @param e the exception.
+     * @return {@link Map} error response.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public Map<String, String> handleIllegalArgument(final IllegalArgumentException e)
+    {
+        return Collections.singletonMap("error", e.getMessage());
+    }
+
+    /**
+     * Convert a report to a response object, omitting elements which are not reported.
+     *
+     * @param report the report.
+     * @return {@link Map} of element values.
+     */
+    private static Map<String, Object> toMap(final AircraftReport report)
+    {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("observedAt", ObservationJsonWriter.formatTime(report.getObservedAt()));
+        result.put("type", report.getType().name());
+        if (null != report.getAircraftType())
+        {
+            result.put("aircraftType", report.getAircraftType());
+        }
+        result.put("latitude", BigDecimal.valueOf(report.getLatitude(), 6));
+        result.put("longitude", BigDecimal.valueOf(report.getLongitude(), 6));
+        putAltitude(result, "altitude", report.getAltitude());
+        putAltitude(result, "cloudTop", report.getCloudTop());
+        if (null != report.getTurbulenceIntensity())
+        {
+            result.put("turbulence", toLayer(report.getTurbulenceIntensity(), report.getTurbulenceBase(),
+                    report.getTurbulenceTop()));
+        }
+        if (null != report.getIcingIntensity())
+        {
+            result.put("icing", toLayer(report.getIcingIntensity(), report.getIcingBase(), report.getIcingTop()));
+        }
+        result.put("rawText", report.getRawText());
+        return result;
+    }
+
+    /**
+     * Convert a reported turbulence or icing layer to a response object.
+     *
+     * @param intensity the intensity.
+     * @param base the base altitude, or {@link AircraftReport#MISSING}.
+     * @param top the top altitude, or {@link AircraftReport#MISSING}.
+     * @return {@link Map} of element values.
+     */
+    private static Map<String, Object> toLayer(final AircraftReport.Intensity intensity, final int base, final int top)
+    {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("intensity", intensity.name());
+        putAltitude(result, "base", base);
+        putAltitude(result, "top", top);
+        return result;
+    }
+
+    /**
+     * Add an altitude to a response object, if it was reported.
+     *
+     * @param map the response object.
+     * @param name the element name.
+     * @param altitude the altitude, or {@link AircraftReport#MISSING}.
+     */
+    private static void putAltitude(final Map<String, Object> map, final String name, final int altitude)
+    {
+        if (AircraftReport.MISSING != altitude)
+        {
+            map.put(name, altitude);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package waldo.impl.web.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import waldo.entity.Station;
+import waldo.facade.reference.ReferenceDataFacade;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@link Stations} serves station reference metadata: that of a station ({@code /station/KORD}) or of every station in
+ * a country ({@code /station/country/US}.) Lookups go through the {@link ReferenceDataFacade}, and so are normally
+ * answered from the second-level and query caches without reaching the database.
+ * <p/>
+ * <strong>Thread Safety:</strong> instances of this class contain no mutable state and are therefore safe for
+ * multithreaded access, provided the same is true of all dependencies provided via constructor.
+ * <p/>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+@Controller
+@RequestMapping("/station")
+class Stations
+{
+    private final ReferenceDataFacade m_referenceDataFacade;
+
+    /**
+     * Construct a {@link Stations} instance.
+     *
+     * @param referenceDataFacade the {@link ReferenceDataFacade} component.
+     */
+    @Autowired
+    Stations(final ReferenceDataFacade referenceDataFacade)
+    {
+        super();
+        m_referenceDataFacade = referenceDataFacade;
+    }
+
+    @RequestMapping(value = "/{station}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> findStation(@PathVariable("station") final String station)
+    {
+        final String icaoId = station.toUpperCase(Locale.US);
+        final Station found = m_referenceDataFacade.findStation(icaoId);
+        return null == found ? new ResponseEntity<>(Collections.<String, Object>singletonMap("error",
+                String.format("Station [%s] is not known.", icaoId)), HttpStatus.NOT_FOUND) :
+                new ResponseEntity<>(toMap(found), HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "/country/{country}", method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> findStations(@PathVariable("country") final String country)
+    {
+        final List<Station> stations = m_referenceDataFacade.findStations(country.toUpperCase(Locale.US));
+        final List<Map<String, Object>> list = new ArrayList<>(stations.size());
+        for (final Station station : stations)
+        {
+            list.add(toMap(station));
+        }
+        return Collections.<String, Object>singletonMap("stations", list);
+    }
+
+    /**
+     * Convert a station to a response object, omitting elements which are not known.
+     *
+     * @param station the station.
+     * @return {@link Map} of element values.
+     */
+    private static Map<String, Object> toMap(final Station station)
+    {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("station", station.getIcaoId());
+        if (null != station.getName())
+        {
+            result.put("name", station.getName());
+        }
+        if (null != station.getState())
+        {
+            result.put("state", station.getState());
+        }
+        if (null != station.getCountry())
+        {
+            result.put("country", station.getCountry());
+        }
+        result.put("latitude", BigDecimal.valueOf(station.getLatitude(), 6));
+        result.put("longitude", BigDecimal.valueOf(station.getLongitude(), 6));
+        if (null != station.getElevation())
+        {
+            result.put("elevation", station.getElevation());
+        }
+        return result;
+    }
+}
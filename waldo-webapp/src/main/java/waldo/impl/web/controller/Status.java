@@ -1,19 +1,23 @@
 package waldo.impl.web.controller;
 
 import org.apache.commons.io.IOUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import waldo.facade.status.StatusFacade;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.FileReader;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.Map;
 
 /**
  * {@link Status} ...
@@ -36,19 +40,40 @@ import java.io.Writer;
 @RequestMapping("/_status")
 class Status
 {
+    private final StatusFacade m_statusFacade;
+
     /**
      * Construct a {@link Status} instance.
+     *
+     * @param statusFacade the {@link StatusFacade} component.
      */
-    Status()
+    @Autowired
+    Status(final StatusFacade statusFacade)
     {
         super();
+        m_statusFacade = statusFacade;
     }
 
     @RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> get()
+    {
+        /* Peers count this node as live only on OK, which it answers once it holds the stations it owns. */
+        return m_statusFacade.isServing() ? new ResponseEntity<>("{\"status\": \"OK\"}", HttpStatus.OK) :
+                new ResponseEntity<>("{\"status\": \"LOADING\"}", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @RequestMapping(value = "/cache", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public Map<String, Object> getCache()
+    {
+        return m_statusFacade.getCacheStatistics();
+    }
+
+    @RequestMapping(value = "/pools", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
-    public String get()
+    public Map<String, Map<String, Object>> getPools()
     {
-        return "{\"status\": \"OK\"}";
+        return m_statusFacade.getConnectionPoolStatistics();
     }
 
     @RequestMapping(value = "/logs", method = RequestMethod.GET, produces = MediaType.TEXT_HTML_VALUE)
@@ -0,0 +1,55 @@
+package waldo.impl.web.integration.spring.context;
+
+import com.biglakesystems.common.Assert;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+/**
+ * {@link PrefixedResourceWebApplicationContext} is an {@link AnnotationConfigWebApplicationContext} which resolves
+ * locations bearing a given prefix (such as {@code s3:}, for which Spring has no built-in support) through a given
+ * resource loader, and all other locations as usual. Components which resolve locations through the application
+ * context, as a {@link ResourceLoader}, can therefore use any location which the configuration itself can be loaded
+ * from.
+ * <p>
+ * <strong>Thread Safety:</strong> instances of this class are as safe for multithreaded access as any application
+ * context, provided the same is true of the resource loader provided via constructor.
+ * <p>
+ * Copyright 2014 Big Lake Systems, LLC.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+class PrefixedResourceWebApplicationContext extends AnnotationConfigWebApplicationContext
+{
+    private final String m_prefix;
+    private final ResourceLoader m_resourceLoader;
+
+    /**
+     * Construct a {@link PrefixedResourceWebApplicationContext} instance.
+     *
+     * @param prefix the location prefix, including the trailing colon.
+     * @param resourceLoader the resource loader for locations bearing the prefix; this receives the full location.
+     */
+    PrefixedResourceWebApplicationContext(final String prefix, final ResourceLoader resourceLoader)
+    {
+        super();
+        Assert.argumentNotBlank("prefix", m_prefix = prefix);
+        Assert.argumentNotNull("resourceLoader", m_resourceLoader = resourceLoader);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Resource getResource(final String location)
+    {
+        return location.startsWith(m_prefix) ? m_resourceLoader.getResource(location) : super.getResource(location);
+    }
+}
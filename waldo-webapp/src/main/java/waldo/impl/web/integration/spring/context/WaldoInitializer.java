@@ -94,7 +94,8 @@ public class WaldoInitializer implements WebApplicationInitializer
         final ClassLoader classLoader = context.getClassLoader();
         final ResourceLoader defaultLoader = new ServletContextResourceLoader(context);
         final ResourceLoader s3Loader = m_resourceUtils.createAmazonS3ResourceLoader(classLoader,
-                new ConfiguredCredentialsSource(resolver));
+                new ConfiguredCredentialsSource(resolver),
+                StringUtils.trimToNull(resolver.getProperty(Constants.Context.S3_ENDPOINT)));
         final ResourceLoader configurationLoader =
                 m_resourceUtils.buildDispatchingResourceLoader(classLoader, defaultLoader)
                         .addPrefixedLoader("s3", s3Loader)
@@ -125,8 +126,10 @@ public class WaldoInitializer implements WebApplicationInitializer
             LOG.debug("Merged configuration is:{}", builder.toString());
         }
 
-        /* Initialize the root application context. */
-        final ConfigurableWebApplicationContext appContext = new AnnotationConfigWebApplicationContext();
+        /* Initialize the root application context. Components may also load (and write) S3 resources through it, as
+        with snapshot distribution. */
+        final ConfigurableWebApplicationContext appContext =
+                new PrefixedResourceWebApplicationContext("s3:", configurationLoader);
         appContext.setConfigLocation(ClassUtils.getPackageName(AppConfig.class));
         initApplicationContext(appContext, configuration);
 